@@ -1,11 +1,11 @@
 package io.amcp.connectors.ai;
 
+import io.amcp.connectors.ai.async.LLMToken;
 import io.amcp.core.Agent;
 import io.amcp.core.AgentContext;
 import io.amcp.core.AgentID;
 import io.amcp.core.AgentLifecycle;
 import io.amcp.core.Event;
-import io.amcp.tools.ToolRequest;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -30,6 +30,7 @@ import java.util.regex.Pattern;
  * - Conversation history and memory
  * - Multi-turn dialogue support
  * - Integration with OLLAMA local AI models
+ * - Streamed replies as chunk events ("chat.ai.response.chunk")
  * 
  * Agent Orchestration Patterns:
  * - Travel queries → WeatherAgent
@@ -468,58 +469,94 @@ public class AIChatAgent implements Agent {
         
         contextPrompt.append("Human: ").append(message).append("\nAssistant: ");
         
-        // Call OLLAMA
-        ToolRequest ollamaRequest = new ToolRequest("chat", Map.of(
-            "prompt", contextPrompt.toString(),
-            "conversationId", conversationId,
-            "model", "llama3.2"
-        ));
+        // Stream from OLLAMA, forwarding partial text as chunk events
+        ChunkBuffer chunks = new ChunkBuffer(conversationId, userId);
         
-        ollamaConnector.invoke(ollamaRequest)
-            .thenAccept(response -> {
-                if (response.isSuccess()) {
-                    @SuppressWarnings("unchecked")
-                    Map<String, Object> data = (Map<String, Object>) response.getData();
-                    String aiResponse = (String) data.get("response");
-                    
-                    conversation.addMessage("assistant", aiResponse);
-                    
-                    // Publish chat response event
-                    Event chatResponse = Event.builder()
-                        .topic("chat.ai.response")
-                        .payload(Map.of(
-                            "response", aiResponse,
-                            "conversationId", conversationId,
-                            "userId", userId,
-                            "source", "ollama-ai"
-                        ))
-                        .correlationId("chat-ai-" + conversationId)
-                        .build();
-                    
-                    context.publishEvent(chatResponse);
-                    logMessage("AI response sent for conversation: " + conversationId);
-                    
-                } else {
-                    logMessage("OLLAMA request failed: " + response.getErrorMessage());
-                    
-                    Event errorResponse = Event.builder()
-                        .topic("chat.ai.error")
-                        .payload(Map.of(
-                            "error", "AI service temporarily unavailable",
-                            "conversationId", conversationId,
-                            "userId", userId
-                        ))
-                        .build();
-                    
-                    context.publishEvent(errorResponse);
-                }
+        ollamaConnector.streamChat(contextPrompt.toString(), "llama3.2", conversationId, chunks::add)
+            .thenAccept(data -> {
+                String aiResponse = (String) data.get("response");
+                
+                conversation.addMessage("assistant", aiResponse);
+                
+                // Publish chat response event
+                Event chatResponse = Event.builder()
+                    .topic("chat.ai.response")
+                    .payload(Map.of(
+                        "response", aiResponse,
+                        "conversationId", conversationId,
+                        "userId", userId,
+                        "source", "ollama-ai"
+                    ))
+                    .correlationId("chat-ai-" + conversationId)
+                    .build();
+                
+                context.publishEvent(chatResponse);
+                logMessage("AI response sent for conversation: " + conversationId);
             })
             .exceptionally(throwable -> {
-                logMessage("OLLAMA request exception: " + throwable.getMessage());
+                logMessage("OLLAMA request failed: " + throwable.getMessage());
+                
+                Event errorResponse = Event.builder()
+                    .topic("chat.ai.error")
+                    .payload(Map.of(
+                        "error", "AI service temporarily unavailable",
+                        "conversationId", conversationId,
+                        "userId", userId
+                    ))
+                    .build();
+                
+                context.publishEvent(errorResponse);
                 return null;
             });
     }
 
+    /**
+     * Groups streamed tokens into chunk events on "chat.ai.response.chunk".
+     * The first token is sent at once so the user sees output immediately;
+     * later ones are batched to keep the event rate down.
+     */
+    private class ChunkBuffer {
+        private static final int CHUNK_CHARS = 32;
+        
+        private final String conversationId;
+        private final String userId;
+        private final StringBuilder pending = new StringBuilder();
+        private int sequence = 0;
+        
+        ChunkBuffer(String conversationId, String userId) {
+            this.conversationId = conversationId;
+            this.userId = userId;
+        }
+        
+        synchronized void add(LLMToken token) {
+            pending.append(token.getText());
+            if (sequence == 0 || token.isDone() || pending.length() >= CHUNK_CHARS
+                    || token.getText().indexOf('\n') >= 0) {
+                flush(token.isDone());
+            }
+        }
+        
+        private void flush(boolean done) {
+            if (pending.length() == 0 && !done) {
+                return;
+            }
+            Event chunk = Event.builder()
+                .topic("chat.ai.response.chunk")
+                .payload(Map.of(
+                    "chunk", pending.toString(),
+                    "sequence", sequence++,
+                    "done", done,
+                    "conversationId", conversationId,
+                    "userId", userId,
+                    "source", "ollama-ai"
+                ))
+                .correlationId("chat-ai-" + conversationId)
+                .build();
+            pending.setLength(0);
+            context.publishEvent(chunk);
+        }
+    }
+
     /**
      * Handles travel agent responses and forwards them to the user.
      * 
@@ -1,5 +1,6 @@
 package io.amcp.connectors.ai;
 
+import io.amcp.connectors.ai.codec.OllamaCodec;
 import io.amcp.core.Agent;
 import io.amcp.core.AgentContext;
 import io.amcp.core.AgentID;
@@ -261,16 +262,17 @@ public class CloudEventsCompliantOrchestratorAgent implements Agent {
         
         private IntentAnalysis parseJsonIntentAnalysis(String jsonResult, String originalQuery, String correlationId) {
             try {
-                // Simple JSON parsing - in production, use a proper JSON library
-                Map<String, Object> parsed = parseSimpleJson(jsonResult);
+                Map<String, Object> parsed = OllamaCodec.readObject(jsonResult.trim());
                 
-                String intent = (String) parsed.getOrDefault("intent", "travel");
-                String agent = (String) parsed.getOrDefault("targetAgent", "TravelPlannerAgent");
+                String intent = stringValue(parsed.get("intent"), "travel");
+                String agent = stringValue(parsed.get("targetAgent"), "TravelPlannerAgent");
                 double confidence = parseDouble(parsed.get("confidence"), 0.7);
-                String reasoning = (String) parsed.getOrDefault("reasoning", "JSON-based routing");
+                String reasoning = stringValue(parsed.get("reasoning"), "JSON-based routing");
                 
-                @SuppressWarnings("unchecked")
-                Map<String, Object> parameters = (Map<String, Object>) parsed.getOrDefault("parameters", new HashMap<>());
+                Map<String, Object> parameters = new HashMap<>();
+                if (parsed.get("parameters") instanceof Map) {
+                    ((Map<?, ?>) parsed.get("parameters")).forEach((key, value) -> parameters.put(String.valueOf(key), value));
+                }
                 parameters.put("originalQuery", originalQuery);
                 
                 // Apply priority override for weather
@@ -327,55 +329,8 @@ public class CloudEventsCompliantOrchestratorAgent implements Agent {
             return new IntentAnalysis(intent, agent, confidence, parameters, reasoning, correlationId);
         }
         
-        private Map<String, Object> parseSimpleJson(String json) {
-            // Simplified JSON parser - replace with proper JSON library in production
-            Map<String, Object> result = new HashMap<>();
-            
-            // Remove braces and split by comma
-            String content = json.trim().replaceAll("^\\{|\\}$", "");
-            String[] pairs = content.split(",");
-            
-            for (String pair : pairs) {
-                String[] kv = pair.split(":", 2);
-                if (kv.length == 2) {
-                    String key = kv[0].trim().replaceAll("\"", "");
-                    String value = kv[1].trim().replaceAll("\"", "");
-                    
-                    if (key.equals("parameters")) {
-                        // Handle nested parameters object
-                        result.put(key, parseParametersObject(value));
-                    } else if (key.equals("confidence")) {
-                        result.put(key, parseDouble(value, 0.7));
-                    } else {
-                        result.put(key, value);
-                    }
-                }
-            }
-            
-            return result;
-        }
-        
-        private Map<String, Object> parseParametersObject(String params) {
-            Map<String, Object> result = new HashMap<>();
-            // Simplified parameter parsing
-            if (params.contains("{")) {
-                // Extract content between braces
-                int start = params.indexOf("{");
-                int end = params.lastIndexOf("}");
-                if (start >= 0 && end > start) {
-                    String content = params.substring(start + 1, end);
-                    String[] pairs = content.split(",");
-                    for (String pair : pairs) {
-                        String[] kv = pair.split(":", 2);
-                        if (kv.length == 2) {
-                            String key = kv[0].trim().replaceAll("\"", "");
-                            String value = kv[1].trim().replaceAll("\"", "");
-                            result.put(key, value);
-                        }
-                    }
-                }
-            }
-            return result;
+        private String stringValue(Object value, String defaultValue) {
+            return value != null ? value.toString() : defaultValue;
         }
         
         private double parseDouble(Object value, double defaultValue) {
@@ -1,20 +1,20 @@
 package io.amcp.connectors.ai;
 
+import io.amcp.connectors.ai.async.EndpointPool;
+
 import java.time.Duration;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
-import java.net.URI;
 
 /**
  * Configuration class for OLLAMA integration with AMCP v1.5.
  * This configuration provides connection settings and model management for local OLLAMA deployments.
  * 
  * Features:
- * - Configurable base URL for OLLAMA server
+ * - Configurable base URL for OLLAMA server, or several servers balanced
+ *   through an {@link EndpointPool}
  * - Multiple model support with automatic fallback
  * - Connection pooling and timeout management
  * - Health monitoring and auto-recovery
@@ -25,7 +25,7 @@ import java.net.URI;
  */
 public class OllamaConnectorConfig {
 
-    private final String ollamaBaseUrl;
+    private final EndpointPool endpointPool;
     private final String defaultModel;
     private final int timeoutSeconds;
     private final int maxRetries;
@@ -58,7 +58,7 @@ public class OllamaConnectorConfig {
     /**
      * Creates OLLAMA connector config with custom settings.
      * 
-     * @param ollamaBaseUrl base URL for OLLAMA server
+     * @param ollamaBaseUrl base URL for OLLAMA server, or several separated by commas
      * @param defaultModel default model name
      * @param timeoutSeconds request timeout
      * @param maxRetries maximum retry attempts
@@ -66,7 +66,7 @@ public class OllamaConnectorConfig {
      */
     public OllamaConnectorConfig(String ollamaBaseUrl, String defaultModel, 
                                int timeoutSeconds, int maxRetries, int healthCheckIntervalSeconds) {
-        this.ollamaBaseUrl = ollamaBaseUrl;
+        this.endpointPool = EndpointPool.fromUrls(ollamaBaseUrl);
         this.defaultModel = defaultModel;
         this.timeoutSeconds = timeoutSeconds;
         this.maxRetries = maxRetries;
@@ -81,12 +81,21 @@ public class OllamaConnectorConfig {
     }
 
     /**
-     * Gets the configured OLLAMA base URL.
+     * Gets the configured OLLAMA base URL; the first one if there are several.
      * 
      * @return base URL string
      */
     public String getOllamaBaseUrl() {
-        return ollamaBaseUrl;
+        return endpointPool.getPrimaryUrl();
+    }
+
+    /**
+     * Gets the pool of OLLAMA servers requests are balanced across.
+     * 
+     * @return endpoint pool
+     */
+    public EndpointPool getEndpointPool() {
+        return endpointPool;
     }
 
     /**
@@ -126,7 +135,7 @@ public class OllamaConnectorConfig {
     }
 
     /**
-     * Checks if the OLLAMA service is currently healthy.
+     * Checks if the OLLAMA service is currently healthy, i.e. at least one server can take requests.
      * 
      * @return true if healthy, false otherwise
      */
@@ -135,27 +144,14 @@ public class OllamaConnectorConfig {
     }
 
     /**
-     * Performs an asynchronous health check of the OLLAMA service.
+     * Performs an asynchronous health check of every OLLAMA server; servers
+     * failing it receive no requests until they pass again.
      * 
-     * @return CompletableFuture with health status
+     * @return CompletableFuture with health status, true if any server is healthy
      */
     public CompletableFuture<Boolean> checkHealthAsync() {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(ollamaBaseUrl + "/api/tags"))
-                    .timeout(Duration.ofSeconds(5))
-                    .GET()
-                    .build();
-                    
-                HttpResponse<String> response = httpClient.send(request, 
-                    HttpResponse.BodyHandlers.ofString());
-                return response.statusCode() == 200;
-            } catch (Exception e) {
-                logMessage("OLLAMA health check failed: " + e.getMessage());
-                return false;
-            }
-        });
+        return endpointPool.checkHealth(httpClient)
+            .thenApply(v -> endpointPool.hasAvailableEndpoint());
     }
 
     /**
@@ -1,19 +1,26 @@
 package io.amcp.connectors.ai;
 
+import io.amcp.connectors.ai.async.EndpointPool;
+import io.amcp.connectors.ai.async.LLMHttpException;
+import io.amcp.connectors.ai.async.LLMToken;
+import io.amcp.connectors.ai.async.NdjsonTokenSubscriber;
+import io.amcp.connectors.ai.async.RetryEngine;
+import io.amcp.connectors.ai.codec.OllamaCodec;
+import io.amcp.connectors.ai.codec.OllamaGenerateRequest;
+import io.amcp.connectors.ai.codec.OllamaResponse;
 import io.amcp.tools.ToolConnector;
 import io.amcp.tools.ToolRequest;
 import io.amcp.tools.ToolResponse;
 import io.amcp.core.Event;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.JsonNode;
-
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * OLLAMA AI connector for AMCP v1.5 Enterprise Edition.
@@ -25,6 +32,7 @@ import java.util.concurrent.CompletableFuture;
  * - Error handling and retry logic
  * - Integration with AMCP event system
  * - Support for conversation context
+ * - Streaming responses, token by token, retried until the first token arrives
  * 
  * Example usage in an agent:
  * <pre>
@@ -46,9 +54,15 @@ public class OllamaSpringAIConnector implements ToolConnector {
     private static final String TOOL_ID = "ollama-ai-chat";
     private static final String TOOL_NAME = "ollama-chat";
     private static final String VERSION = "1.5.0";
+    private static final Map<String, Object> DEFAULT_OPTIONS = Map.of(
+        "temperature", 0.7,
+        "top_k", 40,
+        "top_p", 0.9,
+        "repeat_penalty", 1.1
+    );
 
     private final OllamaConnectorConfig config;
-    private final ObjectMapper objectMapper;
+    private final RetryEngine retryEngine;
 
     /**
      * Constructs an OLLAMA connector with default configuration.
@@ -64,7 +78,8 @@ public class OllamaSpringAIConnector implements ToolConnector {
      */
     public OllamaSpringAIConnector(OllamaConnectorConfig config) {
         this.config = config;
-        this.objectMapper = new ObjectMapper();
+        this.retryEngine = new RetryEngine(new RetryEngine.RetryPolicy(
+            Math.max(1, config.getMaxRetries()), 1000, 30000, 0.2, 1.0));
     }
 
     /**
@@ -130,7 +145,7 @@ public class OllamaSpringAIConnector implements ToolConnector {
             String prompt = getRequiredParam(params, "prompt");
             String model = (String) params.getOrDefault("model", config.getDefaultModel());
             String conversationId = (String) params.getOrDefault("conversationId", "default");
-            boolean stream = Boolean.parseBoolean((String) params.getOrDefault("stream", "false"));
+            boolean stream = Boolean.parseBoolean(String.valueOf(params.getOrDefault("stream", "false")));
 
             logMessage("Processing OLLAMA request for model: " + model + ", conversation: " + conversationId);
 
@@ -178,7 +193,7 @@ public class OllamaSpringAIConnector implements ToolConnector {
                 ),
                 "stream", Map.of(
                     "type", "boolean",
-                    "description", "Whether to stream the response (not yet implemented)",
+                    "description", "Whether to read the response as a stream of tokens",
                     "default", false
                 )
             ),
@@ -194,6 +209,7 @@ public class OllamaSpringAIConnector implements ToolConnector {
     @Override
     public CompletableFuture<Void> shutdown() {
         return CompletableFuture.runAsync(() -> {
+            retryEngine.shutdown();
             config.shutdown();
             logMessage("OLLAMA connector shutdown completed");
         });
@@ -211,42 +227,34 @@ public class OllamaSpringAIConnector implements ToolConnector {
     private CompletableFuture<Map<String, Object>> executeOllamaRequest(
             String prompt, String model, String conversationId, boolean stream) {
         
+        if (stream) {
+            // Tool responses are one-shot; read incrementally and return the whole text
+            return streamChat(prompt, model, conversationId, token -> { });
+        }
+        
         return CompletableFuture.supplyAsync(() -> {
+            // Keep a conversation on one server so it can reuse the cached context
+            EndpointPool.Lease lease = config.getEndpointPool().acquire(model, conversationId);
             try {
-                // Build the request payload
-                Map<String, Object> requestBody = Map.of(
-                    "model", model,
-                    "prompt", prompt,
-                    "stream", stream,
-                    "options", Map.of(
-                        "temperature", 0.7,
-                        "top_k", 40,
-                        "top_p", 0.9,
-                        "repeat_penalty", 1.1
-                    )
-                );
-
-                String jsonBody = objectMapper.writeValueAsString(requestBody);
+                HttpRequest request = buildGenerateRequest(lease.getBaseUrl(),
+                    new OllamaGenerateRequest(model, prompt, false, DEFAULT_OPTIONS));
 
-                HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(config.getOllamaBaseUrl() + "/api/generate"))
-                    .header("Content-Type", "application/json")
-                    .header("Accept", "application/json")
-                    .timeout(Duration.ofSeconds(config.getTimeoutSeconds()))
-                    .POST(HttpRequest.BodyPublishers.ofString(jsonBody))
-                    .build();
-
-                HttpResponse<String> response = config.getHttpClient().send(request, 
-                    HttpResponse.BodyHandlers.ofString());
+                HttpResponse<byte[]> response = config.getHttpClient().send(request, 
+                    HttpResponse.BodyHandlers.ofByteArray());
 
                 if (response.statusCode() != 200) {
+                    lease.release(LLMHttpException.fromResponse(response.statusCode(), response.headers()));
                     throw new RuntimeException("OLLAMA API returned status: " + response.statusCode() + 
-                        ", body: " + response.body());
+                        ", body: " + new String(response.body(), StandardCharsets.UTF_8));
                 }
 
                 // Parse the response
-                JsonNode responseJson = objectMapper.readTree(response.body());
-                String aiResponse = responseJson.get("response").asText();
+                OllamaResponse responseJson = OllamaCodec.decodeResponse(response.body());
+                if (responseJson.hasError() || responseJson.getResponse() == null) {
+                    throw new RuntimeException("OLLAMA API returned no response: " + responseJson.getError());
+                }
+                String aiResponse = responseJson.getResponse();
+                lease.release(null);
                 
                 logMessage("OLLAMA response received (" + aiResponse.length() + " chars) for conversation: " + conversationId);
 
@@ -255,15 +263,113 @@ public class OllamaSpringAIConnector implements ToolConnector {
                     "model", model,
                     "conversationId", conversationId,
                     "timestamp", System.currentTimeMillis(),
-                    "done", responseJson.get("done").asBoolean()
+                    "done", responseJson.isDone()
                 );
 
             } catch (Exception e) {
+                lease.release(e);
                 throw new RuntimeException("Failed to execute OLLAMA request", e);
             }
         });
     }
 
+    /**
+     * Streams a response from OLLAMA, passing each token to the callback as it
+     * is generated.
+     * 
+     * A request that fails before its first token (connection error, 5xx,
+     * 429) is retried on another server with backoff, up to the configured
+     * retries; once tokens have been delivered a failure ends the stream.
+     * 
+     * @param prompt the user prompt
+     * @param model the model to use
+     * @param conversationId the conversation identifier
+     * @param onToken receives tokens in order; the last one is marked done
+     * @return CompletableFuture with the full AI response, in the same shape as a non-streamed call;
+     *         cancelling it stops the stream
+     */
+    public CompletableFuture<Map<String, Object>> streamChat(
+            String prompt, String model, String conversationId, Consumer<LLMToken> onToken) {
+        
+        CompletableFuture<String> attempts = retryEngine.execute(model, 0,
+            attempt -> streamAttempt(prompt, model, conversationId, onToken, attempt));
+
+        CompletableFuture<Map<String, Object>> result = attempts.thenApply(aiResponse -> Map.<String, Object>of(
+            "response", aiResponse,
+            "model", model,
+            "conversationId", conversationId,
+            "timestamp", System.currentTimeMillis(),
+            "done", true
+        ));
+        result.whenComplete((response, error) -> {
+            if (result.isCancelled()) {
+                attempts.cancel(false);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * One streamed request; fails with a non-retryable error once any token
+     * has been delivered, so the caller never sees a token twice.
+     */
+    private CompletableFuture<String> streamAttempt(String prompt, String model, String conversationId,
+                                                    Consumer<LLMToken> onToken, int attempt) {
+        NdjsonTokenSubscriber tokens = new NdjsonTokenSubscriber(model, onToken);
+        EndpointPool.Lease lease = config.getEndpointPool().acquire(model, conversationId);
+        tokens.getResult().whenComplete((response, error) -> lease.release(error));
+        try {
+            OllamaGenerateRequest requestBody = new OllamaGenerateRequest(model, prompt, true, DEFAULT_OPTIONS);
+            config.getHttpClient().sendAsync(buildGenerateRequest(lease.getBaseUrl(), requestBody), tokens.bodyHandler())
+                .whenComplete((response, error) -> {
+                    if (error != null) {
+                        tokens.fail(error);
+                    }
+                });
+        } catch (Exception e) {
+            tokens.fail(new RuntimeException("Failed to execute OLLAMA request", e));
+        }
+
+        CompletableFuture<String> result = new CompletableFuture<>();
+        tokens.getResult().whenComplete((aiResponse, error) -> {
+            if (error == null) {
+                logMessage("OLLAMA stream completed (" + tokens.getTokenCount() + " tokens) for conversation: " + conversationId);
+                result.complete(aiResponse);
+            } else if (tokens.getTokenCount() > 0) {
+                result.completeExceptionally(new IllegalStateException(
+                    "OLLAMA stream failed after " + tokens.getTokenCount() + " tokens", error));
+            } else {
+                logMessage("OLLAMA stream failed (attempt " + attempt + "/" + config.getMaxRetries() + "): "
+                    + error.getMessage());
+                result.completeExceptionally(error);
+            }
+        });
+        result.whenComplete((response, error) -> {
+            if (result.isCancelled()) {
+                tokens.getResult().cancel(false);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Builds a request to the OLLAMA generate endpoint.
+     * 
+     * @param baseUrl the server to send it to
+     * @param requestBody the request payload
+     * @return the HTTP request
+     */
+    private HttpRequest buildGenerateRequest(String baseUrl, OllamaGenerateRequest requestBody) throws Exception {
+        byte[] jsonBody = OllamaCodec.encode(requestBody);
+        return HttpRequest.newBuilder()
+            .uri(URI.create(baseUrl + "/api/generate"))
+            .header("Content-Type", "application/json")
+            .header("Accept", "application/json")
+            .timeout(Duration.ofSeconds(config.getTimeoutSeconds()))
+            .POST(HttpRequest.BodyPublishers.ofByteArray(jsonBody))
+            .build();
+    }
+
     /**
      * Gets a required parameter from the params map.
      * 
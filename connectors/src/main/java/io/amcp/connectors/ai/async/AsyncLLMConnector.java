@@ -1,31 +1,44 @@
 package io.amcp.connectors.ai.async;
 
 import io.amcp.connectors.ai.cache.LLMResponseCache;
+import io.amcp.connectors.ai.codec.OllamaCodec;
+import io.amcp.connectors.ai.codec.OllamaGenerateRequest;
+import io.amcp.connectors.ai.codec.OllamaResponse;
 import io.amcp.connectors.ai.fallback.LLMFallbackSystem;
 import io.amcp.connectors.ai.gpu.GPUAccelerationConfig;
 import io.amcp.tools.ToolRequest;
 import io.amcp.tools.ToolResponse;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
-import java.net.http.HttpTimeoutException;
 import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.function.Consumer;
 
 /**
  * Async LLM connector with caching, GPU acceleration, and extended timeouts.
  * 
  * Features:
  * - Asynchronous LLM calls with CompletableFuture
- * - Response caching (memory + disk)
+ * - Response caching (memory + disk), with an opt-in semantic tier for
+ *   rephrased prompts
  * - Intelligent fallback system for timeouts
  * - GPU acceleration configuration
  * - Configurable timeouts (default 60s)
- * - Request queuing and rate limiting
- * - Automatic retry with exponential backoff
+ * - Request scheduling by priority, tenant and deadline, with an adaptive
+ *   concurrency limit per model endpoint
+ * - Concurrent identical requests share one model call
+ * - Streaming token responses (callback or {@link Flow.Publisher})
+ * - Automatic retry with exponential backoff and jitter, scheduled on a
+ *   timer rather than sleeping, with a retry budget per endpoint
+ * - Several servers per model: requests are balanced across an
+ *   {@link EndpointPool}, kept on one server per session, and routed away
+ *   from failing servers
  * - Rule-based fallback responses
  * 
  * @author AMCP Development Team
@@ -38,13 +51,15 @@ public class AsyncLLMConnector {
     private static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 10;
     private static final int GEMMA_QWEN_TIMEOUT_SECONDS = 90; // Optimized for fast models
     
-    private final String ollamaBaseUrl;
+    private final EndpointPool endpointPool;
     private final HttpClient httpClient;
     private final LLMResponseCache responseCache;
     private final LLMFallbackSystem fallbackSystem;
     private final GPUAccelerationConfig gpuConfig;
     private final ExecutorService executorService;
-    private final Semaphore rateLimiter;
+    private final LLMRequestScheduler scheduler;
+    private final RetryEngine retryEngine;
+    private final SingleFlight<String> inFlightRequests = new SingleFlight<>();
     
     private final int timeoutSeconds;
     private final int maxRetries;
@@ -57,6 +72,9 @@ public class AsyncLLMConnector {
     private long fallbackResponses = 0;
     private long totalLatencyMs = 0;
     
+    /**
+     * Connector for OLLAMA_BASE_URL, which may list several servers separated by commas
+     */
     public AsyncLLMConnector() {
         this(
             System.getenv().getOrDefault("OLLAMA_BASE_URL", "http://localhost:11434"),
@@ -78,18 +96,46 @@ public class AsyncLLMConnector {
         return DEFAULT_TIMEOUT_SECONDS;
     }
     
+    /**
+     * @param ollamaBaseUrl server base URL, or several separated by commas
+     */
     public AsyncLLMConnector(String ollamaBaseUrl, int timeoutSeconds, 
                             int maxRetries, boolean cachingEnabled) {
-        this.ollamaBaseUrl = ollamaBaseUrl;
+        this(EndpointPool.fromUrls(ollamaBaseUrl), timeoutSeconds, maxRetries, cachingEnabled);
+    }
+    
+    /**
+     * Connector balancing requests across the servers of a pool
+     */
+    public AsyncLLMConnector(EndpointPool endpointPool, int timeoutSeconds, 
+                            int maxRetries, boolean cachingEnabled) {
+        this.endpointPool = endpointPool;
         this.timeoutSeconds = timeoutSeconds;
         this.maxRetries = maxRetries;
         this.cachingEnabled = cachingEnabled;
         
+        // Initialize executor service; runs HTTP completions, and concurrency
+        // is bounded by the scheduler
+        this.executorService = Executors.newCachedThreadPool(
+            r -> {
+                Thread t = new Thread(r);
+                t.setName("AsyncLLM-" + System.nanoTime());
+                t.setDaemon(true);
+                return t;
+            }
+        );
+        
         // Initialize HTTP client with extended timeout
         this.httpClient = HttpClient.newBuilder()
             .connectTimeout(Duration.ofSeconds(10))
+            .executor(executorService)
             .build();
         
+        // Probe servers only when there is another to route to
+        if (endpointPool.size() > 1) {
+            endpointPool.startHealthChecks(httpClient);
+        }
+        
         // Initialize caching
         this.responseCache = cachingEnabled ? new LLMResponseCache() : null;
         
@@ -99,19 +145,13 @@ public class AsyncLLMConnector {
         // Initialize GPU configuration
         this.gpuConfig = new GPUAccelerationConfig();
         
-        // Initialize executor service
-        this.executorService = Executors.newFixedThreadPool(
-            DEFAULT_MAX_CONCURRENT_REQUESTS,
-            r -> {
-                Thread t = new Thread(r);
-                t.setName("AsyncLLM-" + System.nanoTime());
-                t.setDaemon(true);
-                return t;
-            }
-        );
+        // Initialize retry engine; the first retry waits 1-2s (the old fixed 2s,
+        // with up to half of it randomised), doubling per attempt up to 30s
+        this.retryEngine = new RetryEngine(new RetryEngine.RetryPolicy(maxRetries, 1000, 30000, 0.2, 1.0));
         
-        // Initialize rate limiter
-        this.rateLimiter = new Semaphore(DEFAULT_MAX_CONCURRENT_REQUESTS);
+        // Initialize request scheduler
+        this.scheduler = new LLMRequestScheduler(new LLMRequestScheduler.SchedulerConfig(
+            DEFAULT_MAX_CONCURRENT_REQUESTS, 1, DEFAULT_MAX_CONCURRENT_REQUESTS * 4, 1.5, 0.9, 10000));
         
         logMessage("AsyncLLMConnector initialized");
         logMessage(gpuConfig.getConfigSummary());
@@ -122,7 +162,21 @@ public class AsyncLLMConnector {
      */
     public CompletableFuture<String> generateAsync(String prompt, String model, 
                                                    Map<String, Object> parameters) {
+        return generateAsync(prompt, model, parameters, RequestOptions.DEFAULT);
+    }
+    
+    /**
+     * Generate LLM response asynchronously with a priority, tenant and deadline
+     *
+     * A request still queued when its deadline passes fails with a
+     * TimeoutException without being sent.
+     */
+    public CompletableFuture<String> generateAsync(String prompt, String model, 
+                                                   Map<String, Object> requestParameters,
+                                                   RequestOptions options) {
         totalRequests++;
+        // Scheduling parameters are carried by options, not by the request
+        Map<String, Object> parameters = RequestOptions.withoutOptionParameters(requestParameters);
         
         // Check cache first
         if (cachingEnabled) {
@@ -134,34 +188,63 @@ public class AsyncLLMConnector {
             }
         }
         
-        // Execute async request with fallback support
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                rateLimiter.acquire();
-                return executeWithRetryAndFallback(prompt, model, parameters);
-            } catch (Exception e) {
-                failedRequests++;
-                throw new CompletionException(e);
-            } finally {
-                rateLimiter.release();
-            }
-        }, executorService);
+        // Join an identical request already in flight, or start one
+        String requestKey = LLMResponseCache.cacheKey(prompt, model, parameters);
+        return inFlightRequests.execute(requestKey, () -> submitRequest(prompt, model, parameters, options));
+    }
+    
+    /**
+     * Execute request with retries and fallback, each attempt queued with the
+     * scheduler; cancelling the returned future cancels the request
+     */
+    private CompletableFuture<String> submitRequest(String prompt, String model,
+                                                    Map<String, Object> parameters,
+                                                    RequestOptions options) {
+        return executeWithRetryAndFallback(prompt, model, parameters, options);
+    }
+    
+    /**
+     * Scheduling endpoint for a model; each gets its own concurrency limit,
+     * shared by the servers of the pool that serve it
+     */
+    private String endpointKey(String model) {
+        return "ollama/" + model;
     }
     
     /**
      * Execute request with retry logic and fallback support
+     *
+     * Retries are re-submitted from the retry engine's timer, so no thread
+     * waits out the backoff; cancelling the returned future cancels the
+     * attempt in progress or the pending retry. Each attempt takes its own
+     * scheduler slot, so a request waiting out a backoff holds none.
      */
-    private String executeWithRetryAndFallback(String prompt, String model, Map<String, Object> parameters) {
-        Exception lastException = null;
-        
-        for (int attempt = 1; attempt <= maxRetries; attempt++) {
-            try {
+    private CompletableFuture<String> executeWithRetryAndFallback(String prompt, String model,
+                                                                  Map<String, Object> parameters,
+                                                                  RequestOptions options) {
+        CompletableFuture<String> attempts = retryEngine.execute(endpointKey(model), options.getDeadlineMillis(),
+            attempt -> scheduler.submit(endpointKey(model), options, () -> {
                 long startTime = System.currentTimeMillis();
-                String response = executeLLMRequest(prompt, model, parameters);
-                long latency = System.currentTimeMillis() - startTime;
-                
-                totalLatencyMs += latency;
-                
+                // Each attempt picks a server, so a retry can avoid the one that failed
+                EndpointPool.Lease lease = endpointPool.acquire(model, options.getSessionId());
+                return executeLLMRequest(lease.getBaseUrl(), prompt, model, parameters, options)
+                    .whenComplete((response, error) -> {
+                        lease.release(error);
+                        long latency = System.currentTimeMillis() - startTime;
+                        if (error == null) {
+                            totalLatencyMs += latency;
+                            logMessage(String.format("LLM request completed in %dms (attempt %d/%d)", 
+                                latency, attempt, maxRetries));
+                        } else {
+                            logMessage(String.format("LLM request failed (attempt %d/%d): %s", 
+                                attempt, maxRetries, error.getMessage()));
+                        }
+                    });
+            }));
+        
+        CompletableFuture<String> result = new CompletableFuture<>();
+        attempts.whenComplete((response, error) -> {
+            if (error == null) {
                 // Cache successful response
                 if (cachingEnabled && response != null) {
                     responseCache.put(prompt, response, model, parameters);
@@ -171,67 +254,40 @@ public class AsyncLLMConnector {
                         fallbackSystem.learnFromResponse(prompt, response, model, parameters);
                     }
                 }
-                
-                logMessage(String.format("LLM request completed in %dms (attempt %d/%d)", 
-                    latency, attempt, maxRetries));
-                
-                return response;
-                
-            } catch (HttpTimeoutException | java.util.concurrent.TimeoutException e) {
-                lastException = e;
-                logMessage(String.format("LLM request timed out (attempt %d/%d): %s", 
-                    attempt, maxRetries, e.getMessage()));
-                
-                // Try fallback on timeout
-                if (fallbackSystem != null && attempt == maxRetries) {
-                    Optional<String> fallbackResponse = fallbackSystem.attemptFallback(prompt, model, parameters);
-                    if (fallbackResponse.isPresent()) {
-                        fallbackResponses++;
-                        logMessage("Using fallback response due to timeout");
-                        return fallbackResponse.get();
-                    }
-                }
-                
-                if (attempt < maxRetries) {
-                    // Exponential backoff
-                    try {
-                        long backoffMs = (long) (Math.pow(2, attempt) * 1000);
-                        Thread.sleep(backoffMs);
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        break;
-                    }
-                }
-                
-            } catch (Exception e) {
-                lastException = e;
-                logMessage(String.format("LLM request failed (attempt %d/%d): %s", 
-                    attempt, maxRetries, e.getMessage()));
-                
-                if (attempt < maxRetries) {
-                    // Exponential backoff
-                    try {
-                        long backoffMs = (long) (Math.pow(2, attempt) * 1000);
-                        Thread.sleep(backoffMs);
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        break;
-                    }
+                result.complete(response);
+                return;
+            }
+            if (attempts.isCancelled()) {
+                result.cancel(false);
+                return;
+            }
+            if (error instanceof TimeoutException) {
+                // Deadline passed while an attempt was queued
+                result.completeExceptionally(error);
+                return;
+            }
+            
+            // Fallback once retries are exhausted
+            if (fallbackSystem != null) {
+                Optional<String> fallbackResponse = fallbackSystem.attemptFallback(prompt, model, parameters);
+                if (fallbackResponse.isPresent()) {
+                    fallbackResponses++;
+                    logMessage("Using fallback response after all retries failed");
+                    result.complete(fallbackResponse.get());
+                    return;
                 }
             }
-        }
-        
-        // Final fallback attempt if all retries failed
-        if (fallbackSystem != null) {
-            Optional<String> fallbackResponse = fallbackSystem.attemptFallback(prompt, model, parameters);
-            if (fallbackResponse.isPresent()) {
-                fallbackResponses++;
-                logMessage("Using fallback response after all retries failed");
-                return fallbackResponse.get();
+            
+            failedRequests++;
+            result.completeExceptionally(new RuntimeException(
+                "LLM request failed after " + maxRetries + " attempts and fallback", error));
+        });
+        result.whenComplete((response, error) -> {
+            if (result.isCancelled()) {
+                attempts.cancel(false);
             }
-        }
-        
-        throw new RuntimeException("LLM request failed after " + maxRetries + " attempts and fallback", lastException);
+        });
+        return result;
     }
     
     /**
@@ -242,7 +298,7 @@ public class AsyncLLMConnector {
     @SuppressWarnings("unused")
     private String executeWithRetry(String prompt, String model, Map<String, Object> parameters) {
         // This method is kept for backward compatibility but delegates to the new method
-        return executeWithRetryAndFallback(prompt, model, parameters);
+        return executeWithRetryAndFallback(prompt, model, parameters, RequestOptions.DEFAULT).join();
     }
     
     /**
@@ -293,58 +349,187 @@ public class AsyncLLMConnector {
     }
     
     /**
-     * Execute LLM request
+     * Execute LLM request without blocking; error statuses fail with LLMHttpException
      */
-    private String executeLLMRequest(String prompt, String model, Map<String, Object> parameters) 
-            throws Exception {
-        
-        // Build request payload
-        Map<String, Object> payload = new HashMap<>();
-        payload.put("model", model);
-        payload.put("prompt", prompt);
-        payload.put("stream", false);
+    private CompletableFuture<String> executeLLMRequest(String baseUrl, String prompt, String model,
+                                                        Map<String, Object> parameters, RequestOptions options) {
+        HttpRequest request;
+        try {
+            request = buildGenerateRequest(baseUrl, prompt, model, parameters, false, options);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
         
-        // Add parameters
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+            .thenApply(response -> {
+                if (response.statusCode() != 200) {
+                    throw new CompletionException(
+                        LLMHttpException.fromResponse(response.statusCode(), response.headers()));
+                }
+                return parseResponse(response.body());
+            });
+    }
+    
+    /**
+     * Build the /api/generate request
+     */
+    private HttpRequest buildGenerateRequest(String baseUrl, String prompt, String model,
+                                             Map<String, Object> parameters, boolean stream,
+                                             RequestOptions requestOptions) {
+        // Sampling parameters and GPU configuration are model options
+        Map<String, Object> options = new HashMap<>();
         if (parameters.containsKey("temperature")) {
-            payload.put("temperature", parameters.get("temperature"));
+            options.put("temperature", parameters.get("temperature"));
         }
         if (parameters.containsKey("max_tokens")) {
-            payload.put("max_tokens", parameters.get("max_tokens"));
+            options.put("num_predict", parameters.get("max_tokens"));
         }
         if (parameters.containsKey("top_p")) {
-            payload.put("top_p", parameters.get("top_p"));
+            options.put("top_p", parameters.get("top_p"));
         }
-        
-        // Add GPU configuration
-        Map<String, Object> options = new HashMap<>();
         if (gpuConfig.getGpuLayers() != 0) {
             options.put("num_gpu", gpuConfig.getGpuLayers());
         }
         options.put("num_thread", Runtime.getRuntime().availableProcessors());
-        payload.put("options", options);
-        
-        // Build HTTP request with optimized timeout
-        String jsonPayload = toJson(payload);
-        int optimizedTimeout = getOptimizedTimeout(model);
-        HttpRequest request = HttpRequest.newBuilder()
-            .uri(URI.create(ollamaBaseUrl + "/api/generate"))
-            .timeout(Duration.ofSeconds(optimizedTimeout))
+        
+        byte[] body;
+        try {
+            body = OllamaCodec.encode(new OllamaGenerateRequest(model, prompt, stream, options));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to encode LLM request", e);
+        }
+        
+        // Build HTTP request with optimized timeout, cut short by the deadline
+        long timeoutMillis = Math.min(getOptimizedTimeout(model) * 1000L, requestOptions.getRemainingMillis());
+        return HttpRequest.newBuilder()
+            .uri(URI.create(baseUrl + "/api/generate"))
+            .timeout(Duration.ofMillis(Math.max(1, timeoutMillis)))
             .header("Content-Type", "application/json")
-            .POST(HttpRequest.BodyPublishers.ofString(jsonPayload))
+            .POST(HttpRequest.BodyPublishers.ofByteArray(body))
             .build();
+    }
+    
+    /**
+     * Generate LLM response as a stream of tokens
+     *
+     * Tokens are passed to the callback as they arrive; the returned future
+     * completes with the full response, which is cached like any other.
+     * A cached response arrives as a single token. Cancelling the future
+     * stops the stream.
+     */
+    public CompletableFuture<String> generateStream(String prompt, String model,
+                                                    Map<String, Object> parameters,
+                                                    Consumer<LLMToken> onToken) {
+        return generateStream(prompt, model, parameters, RequestOptions.DEFAULT, onToken);
+    }
+    
+    /**
+     * Generate LLM response as a stream of tokens with a priority, tenant and deadline
+     */
+    public CompletableFuture<String> generateStream(String prompt, String model,
+                                                    Map<String, Object> requestParameters,
+                                                    RequestOptions options,
+                                                    Consumer<LLMToken> onToken) {
+        totalRequests++;
+        Map<String, Object> parameters = RequestOptions.withoutOptionParameters(requestParameters);
         
-        // Send request
-        HttpResponse<String> response = httpClient.send(
-            request, 
-            HttpResponse.BodyHandlers.ofString()
-        );
-        
-        if (response.statusCode() != 200) {
-            throw new RuntimeException("LLM request failed with status: " + response.statusCode());
+        if (cachingEnabled) {
+            Optional<String> cachedResponse = responseCache.get(prompt, model, parameters);
+            if (cachedResponse.isPresent()) {
+                cachedResponses++;
+                logMessage("Cache hit for streamed prompt: " + truncate(prompt, 50));
+                onToken.accept(new LLMToken(cachedResponse.get(), 0, true, model));
+                return CompletableFuture.completedFuture(cachedResponse.get());
+            }
         }
         
-        // Parse response
-        return parseResponse(response.body());
+        NdjsonTokenSubscriber tokens = new NdjsonTokenSubscriber(model, onToken);
+        CompletableFuture<String> stream = new CompletableFuture<>();
+        long startTime = System.currentTimeMillis();
+        
+        CompletableFuture<String> scheduled = scheduler.submit(endpointKey(model), options, () -> {
+            EndpointPool.Lease lease = endpointPool.acquire(model, options.getSessionId());
+            tokens.getResult().whenComplete((response, error) -> lease.release(error));
+            try {
+                httpClient.sendAsync(
+                        buildGenerateRequest(lease.getBaseUrl(), prompt, model, parameters, true, options),
+                        tokens.bodyHandler())
+                    .whenComplete((response, error) -> {
+                        if (error != null) {
+                            tokens.fail(error);
+                        }
+                    });
+            } catch (Exception e) {
+                tokens.fail(e);
+            }
+            return tokens.getResult();
+        });
+        
+        scheduled.whenComplete((response, error) -> {
+            if (error == null) {
+                totalLatencyMs += System.currentTimeMillis() - startTime;
+                if (cachingEnabled) {
+                    responseCache.put(prompt, response, model, parameters);
+                }
+                logMessage(String.format("LLM stream completed in %dms (%d tokens)",
+                    System.currentTimeMillis() - startTime, tokens.getTokenCount()));
+                stream.complete(response);
+                return;
+            }
+            if (error instanceof CancellationException) {
+                stream.cancel(false);
+                return;
+            }
+            // Fall back only if nothing was streamed yet
+            if (fallbackSystem != null && tokens.getTokenCount() == 0) {
+                Optional<String> fallbackResponse = fallbackSystem.attemptFallback(prompt, model, parameters);
+                if (fallbackResponse.isPresent()) {
+                    fallbackResponses++;
+                    logMessage("Using fallback response after stream failed: " + error.getMessage());
+                    onToken.accept(new LLMToken(fallbackResponse.get(), 0, true, model));
+                    stream.complete(fallbackResponse.get());
+                    return;
+                }
+            }
+            failedRequests++;
+            stream.completeExceptionally(error);
+        });
+        stream.whenComplete((response, error) -> {
+            if (stream.isCancelled()) {
+                scheduled.cancel(false);
+            }
+        });
+        return stream;
+    }
+    
+    /**
+     * Generate LLM response as a token publisher
+     *
+     * Each subscription starts its own request; the publisher completes
+     * after the final token, and cancelling the subscription stops the stream.
+     * Tokens are offered from the HTTP client's thread, which must not block:
+     * a subscriber that falls a full buffer behind fails the stream instead.
+     */
+    public Flow.Publisher<LLMToken> streamAsync(String prompt, String model, Map<String, Object> parameters) {
+        return subscriber -> {
+            SubmissionPublisher<LLMToken> publisher = new SubmissionPublisher<>();
+            publisher.subscribe(subscriber);
+            generateStream(prompt, model, parameters, token -> {
+                if (!publisher.hasSubscribers()) {
+                    throw new CancellationException("Subscriber cancelled");
+                }
+                if (publisher.offer(token, (dropped, item) -> false) < 0) {
+                    throw new IllegalStateException("Subscriber fell more than "
+                        + publisher.getMaxBufferCapacity() + " tokens behind");
+                }
+            }).whenComplete((response, error) -> {
+                if (error != null && !(error instanceof CancellationException)) {
+                    publisher.closeExceptionally(error);
+                } else {
+                    publisher.close();
+                }
+            });
+        };
     }
     
     /**
@@ -356,7 +541,7 @@ public class AsyncLLMConnector {
         String model = (String) params.getOrDefault("model", gpuConfig.getRecommendedModel());
         long startTime = System.currentTimeMillis();
         
-        return generateAsync(prompt, model, params)
+        return generateAsync(prompt, model, params, RequestOptions.fromParameters(params))
             .thenApply(response -> {
                 long executionTime = System.currentTimeMillis() - startTime;
                 Map<String, Object> result = new HashMap<>();
@@ -376,12 +561,13 @@ public class AsyncLLMConnector {
     }
     
     /**
-     * Batch generate multiple prompts
+     * Batch generate multiple prompts at batch priority
      */
     public CompletableFuture<List<String>> generateBatch(List<String> prompts, String model,
                                                          Map<String, Object> parameters) {
+        RequestOptions options = RequestOptions.batch(RequestOptions.DEFAULT_TENANT);
         List<CompletableFuture<String>> futures = prompts.stream()
-            .map(prompt -> generateAsync(prompt, model, parameters))
+            .map(prompt -> generateAsync(prompt, model, parameters, options))
             .toList();
         
         return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
@@ -391,70 +577,22 @@ public class AsyncLLMConnector {
     }
     
     /**
-     * Simple JSON serialization
-     */
-    private String toJson(Map<String, Object> map) {
-        StringBuilder json = new StringBuilder("{");
-        boolean first = true;
-        
-        for (Map.Entry<String, Object> entry : map.entrySet()) {
-            if (!first) json.append(",");
-            first = false;
-            
-            json.append("\"").append(entry.getKey()).append("\":");
-            
-            Object value = entry.getValue();
-            if (value instanceof String) {
-                json.append("\"").append(escapeJson((String) value)).append("\"");
-            } else if (value instanceof Map) {
-                @SuppressWarnings("unchecked")
-                Map<String, Object> mapValue = (Map<String, Object>) value;
-                json.append(toJson(mapValue));
-            } else {
-                json.append(value);
-            }
-        }
-        
-        json.append("}");
-        return json.toString();
-    }
-    
-    /**
-     * Escape JSON string
-     */
-    private String escapeJson(String str) {
-        return str.replace("\\", "\\\\")
-                  .replace("\"", "\\\"")
-                  .replace("\n", "\\n")
-                  .replace("\r", "\\r")
-                  .replace("\t", "\\t");
-    }
-    
-    /**
-     * Parse LLM response
+     * Extract the generated text of a /api/generate response
      */
-    private String parseResponse(String jsonResponse) {
-        // Simple JSON parsing for "response" field
-        int responseStart = jsonResponse.indexOf("\"response\":");
-        if (responseStart == -1) {
-            throw new RuntimeException("Invalid response format");
+    private String parseResponse(byte[] body) {
+        OllamaResponse response;
+        try {
+            response = OllamaCodec.decodeResponse(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Invalid response format", e);
         }
-        
-        int valueStart = jsonResponse.indexOf("\"", responseStart + 11) + 1;
-        int valueEnd = jsonResponse.indexOf("\"", valueStart);
-        
-        while (valueEnd > 0 && jsonResponse.charAt(valueEnd - 1) == '\\') {
-            valueEnd = jsonResponse.indexOf("\"", valueEnd + 1);
+        if (response.hasError()) {
+            throw new RuntimeException("LLM error: " + response.getError());
         }
-        
-        if (valueEnd == -1) {
+        if (response.getResponse() == null) {
             throw new RuntimeException("Invalid response format");
         }
-        
-        return jsonResponse.substring(valueStart, valueEnd)
-            .replace("\\n", "\n")
-            .replace("\\\"", "\"")
-            .replace("\\\\", "\\");
+        return response.getResponse();
     }
     
     /**
@@ -480,10 +618,43 @@ public class AsyncLLMConnector {
             avgLatencyMs,
             cacheHitRate,
             cacheStats,
-            fallbackStats
+            fallbackStats,
+            inFlightRequests.getStats()
         );
     }
     
+    /**
+     * Get retry statistics
+     */
+    public RetryEngine.RetryStats getRetryStats() {
+        return retryEngine.getStats();
+    }
+    
+    /**
+     * Get load balancing statistics per server
+     */
+    public EndpointPool.PoolStats getEndpointStats() {
+        return endpointPool.getStats();
+    }
+    
+    /**
+     * Get request scheduler statistics
+     */
+    public LLMRequestScheduler.SchedulerStats getSchedulerStats() {
+        return scheduler.getStats();
+    }
+    
+    /**
+     * Answer rephrased prompts from the semantic cache tier. Off by default:
+     * a near match can be a different question, so enable it only where a
+     * wrong cached answer is acceptable. No effect when caching is disabled.
+     */
+    public void enableSemanticCache() {
+        if (cachingEnabled) {
+            responseCache.enableSemanticCache();
+        }
+    }
+    
     /**
      * Cleanup expired cache entries and unused fallback rules
      */
@@ -500,6 +671,9 @@ public class AsyncLLMConnector {
      * Shutdown connector
      */
     public void shutdown() {
+        retryEngine.shutdown();
+        scheduler.shutdown();
+        endpointPool.shutdown();
         executorService.shutdown();
         try {
             if (!executorService.awaitTermination(10, TimeUnit.SECONDS)) {
@@ -510,6 +684,11 @@ public class AsyncLLMConnector {
             Thread.currentThread().interrupt();
         }
         
+        if (responseCache != null) {
+            // Write queued responses to disk
+            responseCache.close();
+        }
+        
         logMessage("AsyncLLMConnector shutdown completed");
     }
     
@@ -541,10 +720,19 @@ public class AsyncLLMConnector {
         private final double cacheHitRate;
         private final LLMResponseCache.CacheStats cacheStats;
         private final LLMFallbackSystem.FallbackStats fallbackStats;
+        private final SingleFlight.FlightStats flightStats;
         
         public ConnectorStats(long totalRequests, long cachedResponses, long failedRequests,
                              long fallbackResponses, double avgLatencyMs, double cacheHitRate,
                              LLMResponseCache.CacheStats cacheStats, LLMFallbackSystem.FallbackStats fallbackStats) {
+            this(totalRequests, cachedResponses, failedRequests, fallbackResponses, avgLatencyMs,
+                cacheHitRate, cacheStats, fallbackStats, null);
+        }
+        
+        public ConnectorStats(long totalRequests, long cachedResponses, long failedRequests,
+                             long fallbackResponses, double avgLatencyMs, double cacheHitRate,
+                             LLMResponseCache.CacheStats cacheStats, LLMFallbackSystem.FallbackStats fallbackStats,
+                             SingleFlight.FlightStats flightStats) {
             this.totalRequests = totalRequests;
             this.cachedResponses = cachedResponses;
             this.failedRequests = failedRequests;
@@ -553,6 +741,7 @@ public class AsyncLLMConnector {
             this.cacheHitRate = cacheHitRate;
             this.cacheStats = cacheStats;
             this.fallbackStats = fallbackStats;
+            this.flightStats = flightStats;
         }
         
         public long getTotalRequests() { return totalRequests; }
@@ -563,12 +752,21 @@ public class AsyncLLMConnector {
         public double getCacheHitRate() { return cacheHitRate; }
         public LLMResponseCache.CacheStats getCacheStats() { return cacheStats; }
         public LLMFallbackSystem.FallbackStats getFallbackStats() { return fallbackStats; }
+        public SingleFlight.FlightStats getFlightStats() { return flightStats; }
+        
+        /**
+         * Requests that joined an identical request already in flight
+         */
+        public long getCoalescedRequests() {
+            return flightStats != null ? flightStats.getCoalesced() : 0;
+        }
         
         @Override
         public String toString() {
             return String.format(
-                "ConnectorStats{requests=%d, cached=%d, failed=%d, fallback=%d, avgLatency=%.2fms, cacheHitRate=%.2f%%}",
-                totalRequests, cachedResponses, failedRequests, fallbackResponses, avgLatencyMs, cacheHitRate * 100
+                "ConnectorStats{requests=%d, cached=%d, coalesced=%d, failed=%d, fallback=%d, avgLatency=%.2fms, cacheHitRate=%.2f%%}",
+                totalRequests, cachedResponses, getCoalescedRequests(), failedRequests, fallbackResponses,
+                avgLatencyMs, cacheHitRate * 100
             );
         }
     }
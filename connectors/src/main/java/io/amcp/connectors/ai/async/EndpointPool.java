@@ -0,0 +1,621 @@
+package io.amcp.connectors.ai.async;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+/**
+ * Routes LLM requests across several servers that serve the same models.
+ *
+ * Features:
+ * - Several backends per model; a backend lists the models it serves, or
+ *   serves any model if it lists none
+ * - Least-outstanding-requests or latency-EWMA routing; latency routing
+ *   falls back to least-outstanding until every backend has a latency, and
+ *   a backend added later starts from the pool's median latency
+ * - Sticky sessions: requests of one conversation go to the same backend,
+ *   so the server can reuse the KV cache of the earlier turns. A session
+ *   only moves when its backend is unavailable or far busier than the rest
+ * - Passive outlier ejection: a backend failing several requests in a row
+ *   is taken out of rotation for a while, longer each time it happens
+ *   unless it has since gone a while without failing.
+ *   Connection errors, server errors, throttling and missing models count;
+ *   other client errors do not
+ * - Active health probes against {@code /api/tags}
+ * - If every backend of a model is unavailable, requests are spread over
+ *   all of them rather than failed outright
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+public class EndpointPool {
+
+    /**
+     * How a backend is chosen for requests without a session
+     */
+    public enum RoutingStrategy {
+        /** Fewest requests in flight */
+        LEAST_OUTSTANDING,
+        /** Lowest recent latency, weighted by requests in flight */
+        LATENCY_EWMA
+    }
+
+    /**
+     * Pool configuration
+     */
+    public static class PoolConfig {
+        private final RoutingStrategy strategy;
+        private final double latencyAlpha;
+        private final int failuresToEject;
+        private final long baseEjectionMillis;
+        private final long maxEjectionMillis;
+        private final long healthCheckIntervalMillis;
+        private final int stickyOverflow;
+
+        public PoolConfig() {
+            this(RoutingStrategy.LATENCY_EWMA, 0.3, 3, 30000, 300000, 10000, 4);
+        }
+
+        /**
+         * @param latencyAlpha              weight of the newest sample in the latency average
+         * @param failuresToEject           consecutive failures that eject a backend
+         * @param baseEjectionMillis        first ejection time; multiplied by the number of recent
+         *                                  ejections, one of which is forgiven for every
+         *                                  maxEjectionMillis the backend goes without a failure
+         * @param healthCheckIntervalMillis time between probes; 0 disables them
+         * @param stickyOverflow            extra requests in flight a session's backend may have
+         *                                  over the least busy one before the session spills over
+         */
+        public PoolConfig(RoutingStrategy strategy, double latencyAlpha, int failuresToEject,
+                          long baseEjectionMillis, long maxEjectionMillis, long healthCheckIntervalMillis,
+                          int stickyOverflow) {
+            if (latencyAlpha <= 0 || latencyAlpha > 1) {
+                throw new IllegalArgumentException("latencyAlpha must be in (0, 1]: " + latencyAlpha);
+            }
+            if (failuresToEject < 1) {
+                throw new IllegalArgumentException("failuresToEject must be at least 1: " + failuresToEject);
+            }
+            this.strategy = strategy;
+            this.latencyAlpha = latencyAlpha;
+            this.failuresToEject = failuresToEject;
+            this.baseEjectionMillis = baseEjectionMillis;
+            this.maxEjectionMillis = maxEjectionMillis;
+            this.healthCheckIntervalMillis = healthCheckIntervalMillis;
+            this.stickyOverflow = stickyOverflow;
+        }
+
+        public RoutingStrategy getStrategy() { return strategy; }
+        public double getLatencyAlpha() { return latencyAlpha; }
+        public int getFailuresToEject() { return failuresToEject; }
+        public long getBaseEjectionMillis() { return baseEjectionMillis; }
+        public long getMaxEjectionMillis() { return maxEjectionMillis; }
+        public long getHealthCheckIntervalMillis() { return healthCheckIntervalMillis; }
+        public int getStickyOverflow() { return stickyOverflow; }
+    }
+
+    private final PoolConfig config;
+    private final LongSupplier nanoClock;
+    private final List<Endpoint> endpoints = new ArrayList<>();
+    private ScheduledExecutorService healthTimer;
+    private int nextStart;
+
+    // Statistics
+    private long stickyRoutes;
+    private long stickyOverflows;
+    private long panicRoutes;
+
+    public EndpointPool() {
+        this(new PoolConfig());
+    }
+
+    public EndpointPool(PoolConfig config) {
+        this(config, System::nanoTime);
+    }
+
+    EndpointPool(PoolConfig config, LongSupplier nanoClock) {
+        this.config = config;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Pool over a comma-separated list of base URLs, each serving any model,
+     * e.g. the value of OLLAMA_BASE_URL
+     */
+    public static EndpointPool fromUrls(String baseUrls) {
+        EndpointPool pool = new EndpointPool();
+        for (String url : baseUrls.split(",")) {
+            if (!url.isBlank()) {
+                pool.addEndpoint(url.trim());
+            }
+        }
+        if (pool.size() == 0) {
+            throw new IllegalArgumentException("No LLM endpoint URL in: '" + baseUrls + "'");
+        }
+        return pool;
+    }
+
+    /**
+     * Add a backend
+     *
+     * @param baseUrl server base URL, e.g. http://gpu-1:11434
+     * @param models  models it serves; none for any model
+     */
+    public synchronized EndpointPool addEndpoint(String baseUrl, String... models) {
+        String url = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        Endpoint endpoint = new Endpoint(url, new LinkedHashSet<>(Arrays.asList(models)));
+        // Start from the pool's typical latency: 0 would draw every request
+        // to the new backend until its average caught up
+        double median = medianLatency();
+        if (median > 0) {
+            endpoint.latencyEwmaMillis = median;
+            endpoint.hasLatency = true;
+        }
+        endpoints.add(endpoint);
+        return this;
+    }
+
+    public synchronized int size() {
+        return endpoints.size();
+    }
+
+    /**
+     * Base URL of the first backend
+     */
+    public synchronized String getPrimaryUrl() {
+        return endpoints.get(0).baseUrl;
+    }
+
+    public synchronized List<String> getUrls() {
+        List<String> urls = new ArrayList<>();
+        for (Endpoint endpoint : endpoints) {
+            urls.add(endpoint.baseUrl);
+        }
+        return urls;
+    }
+
+    /**
+     * Choose a backend for a request and count it as in flight until the
+     * lease is released
+     *
+     * @param model     model the request is for
+     * @param sessionId conversation to keep on one backend; null for none
+     */
+    public synchronized Lease acquire(String model, String sessionId) {
+        if (endpoints.isEmpty()) {
+            throw new IllegalStateException("Endpoint pool is empty");
+        }
+        long now = nanoClock.getAsLong();
+        List<Endpoint> candidates = new ArrayList<>();
+        for (Endpoint endpoint : endpoints) {
+            if (endpoint.serves(model)) {
+                candidates.add(endpoint);
+            }
+        }
+        if (candidates.isEmpty()) {
+            // Nobody lists the model; any backend may have it
+            candidates.addAll(endpoints);
+        }
+        List<Endpoint> available = new ArrayList<>();
+        for (Endpoint endpoint : candidates) {
+            if (endpoint.isAvailable(now)) {
+                available.add(endpoint);
+            }
+        }
+        if (available.isEmpty()) {
+            panicRoutes++;
+            available = candidates;
+        }
+
+        Endpoint chosen = leastLoaded(available);
+        if (sessionId != null) {
+            Endpoint sticky = rendezvous(available, sessionId);
+            if (sticky.outstanding <= chosen.outstanding + config.getStickyOverflow()) {
+                chosen = sticky;
+                stickyRoutes++;
+            } else {
+                stickyOverflows++;
+            }
+        }
+        chosen.outstanding++;
+        chosen.requests++;
+        return new Lease(chosen, now);
+    }
+
+    /**
+     * Probe every backend once; resolves when all probes have finished
+     */
+    public CompletableFuture<Void> checkHealth(HttpClient client) {
+        List<CompletableFuture<Void>> probes = new ArrayList<>();
+        for (Endpoint endpoint : snapshot()) {
+            HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(endpoint.baseUrl + "/api/tags"))
+                .timeout(Duration.ofSeconds(5))
+                .GET()
+                .build();
+            probes.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, error) -> {
+                    setHealthy(endpoint, error == null && response.statusCode() == 200);
+                    return null;
+                }));
+        }
+        return CompletableFuture.allOf(probes.toArray(new CompletableFuture[0]));
+    }
+
+    /**
+     * Probe every backend periodically, if enabled in the configuration
+     */
+    public synchronized void startHealthChecks(HttpClient client) {
+        long interval = config.getHealthCheckIntervalMillis();
+        if (interval <= 0 || healthTimer != null) {
+            return;
+        }
+        healthTimer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "amcp-llm-health");
+            t.setDaemon(true);
+            return t;
+        });
+        healthTimer.scheduleWithFixedDelay(() -> checkHealth(client), 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Whether any backend is healthy and not ejected
+     */
+    public synchronized boolean hasAvailableEndpoint() {
+        long now = nanoClock.getAsLong();
+        for (Endpoint endpoint : endpoints) {
+            if (endpoint.isAvailable(now)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Stop the health probes
+     */
+    public synchronized void shutdown() {
+        if (healthTimer != null) {
+            healthTimer.shutdownNow();
+            healthTimer = null;
+        }
+    }
+
+    public synchronized PoolStats getStats() {
+        long now = nanoClock.getAsLong();
+        List<EndpointStats> stats = new ArrayList<>();
+        for (Endpoint endpoint : endpoints) {
+            stats.add(new EndpointStats(endpoint.baseUrl, endpoint.outstanding, endpoint.latencyEwmaMillis,
+                endpoint.requests, endpoint.failures, endpoint.ejections, endpoint.isEjected(now), endpoint.healthy));
+        }
+        return new PoolStats(stats, stickyRoutes, stickyOverflows, panicRoutes);
+    }
+
+    private synchronized List<Endpoint> snapshot() {
+        return new ArrayList<>(endpoints);
+    }
+
+    /**
+     * Median latency of the backends measured so far; 0 if none are
+     */
+    private double medianLatency() {
+        List<Double> latencies = new ArrayList<>();
+        for (Endpoint endpoint : endpoints) {
+            if (endpoint.hasLatency) {
+                latencies.add(endpoint.latencyEwmaMillis);
+            }
+        }
+        if (latencies.isEmpty()) {
+            return 0;
+        }
+        Collections.sort(latencies);
+        int middle = latencies.size() / 2;
+        return latencies.size() % 2 == 1
+            ? latencies.get(middle)
+            : (latencies.get(middle - 1) + latencies.get(middle)) / 2;
+    }
+
+    /**
+     * Backend with the lowest score; ties go round robin
+     */
+    private Endpoint leastLoaded(List<Endpoint> available) {
+        // Latencies are only comparable once every backend has one
+        boolean byLatency = config.getStrategy() == RoutingStrategy.LATENCY_EWMA;
+        for (Endpoint endpoint : available) {
+            byLatency &= endpoint.hasLatency;
+        }
+        int start = Math.floorMod(nextStart++, available.size());
+        Endpoint best = null;
+        double bestScore = Double.MAX_VALUE;
+        for (int i = 0; i < available.size(); i++) {
+            Endpoint endpoint = available.get((start + i) % available.size());
+            double score = byLatency
+                // The last term breaks ties by requests in flight
+                ? endpoint.latencyEwmaMillis * (endpoint.outstanding + 1) + endpoint.outstanding * 1e-3
+                : endpoint.outstanding;
+            if (score < bestScore) {
+                best = endpoint;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Highest random weight hashing: a session keeps its backend while the
+     * backend is available, and only the sessions of a lost backend move
+     */
+    private static Endpoint rendezvous(List<Endpoint> available, String sessionId) {
+        long sessionHash = hash(sessionId);
+        Endpoint best = null;
+        long bestWeight = Long.MIN_VALUE;
+        for (Endpoint endpoint : available) {
+            long weight = mix(sessionHash ^ endpoint.urlHash);
+            if (best == null || weight > bestWeight) {
+                best = endpoint;
+                bestWeight = weight;
+            }
+        }
+        return best;
+    }
+
+    private static long hash(String value) {
+        long h = 1125899906842597L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h = 31 * h + b;
+        }
+        return mix(h);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private synchronized void release(Endpoint endpoint, long startNanos, Throwable error) {
+        endpoint.outstanding--;
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof CancellationException) {
+            return;
+        }
+        if (cause != null && isBackendFailure(cause)) {
+            endpoint.failures++;
+            forgiveEjections(endpoint);
+            if (++endpoint.consecutiveFailures >= config.getFailuresToEject()) {
+                eject(endpoint);
+            }
+            return;
+        }
+        // The server answered; client errors say nothing about its health
+        endpoint.consecutiveFailures = 0;
+        if (cause == null) {
+            double latencyMillis = (nanoClock.getAsLong() - startNanos) / 1_000_000.0;
+            endpoint.latencyEwmaMillis = endpoint.hasLatency
+                ? endpoint.latencyEwmaMillis * (1 - config.getLatencyAlpha()) + latencyMillis * config.getLatencyAlpha()
+                : latencyMillis;
+            endpoint.hasLatency = true;
+        }
+    }
+
+    /**
+     * Whether a failure is the backend's rather than the request's: anything
+     * worth retrying, and a 404, which from an LLM server means it does not
+     * have the model
+     */
+    private static boolean isBackendFailure(Throwable error) {
+        if (error instanceof LLMHttpException && ((LLMHttpException) error).getStatusCode() == 404) {
+            return true;
+        }
+        return RetryEngine.isRetryable(error);
+    }
+
+    /**
+     * Drop one recent ejection per maxEjectionMillis since the last failure,
+     * so unrelated incidents far apart do not add up to maximum ejections
+     */
+    private void forgiveEjections(Endpoint endpoint) {
+        long now = nanoClock.getAsLong();
+        if (endpoint.recentEjections > 0) {
+            long period = TimeUnit.MILLISECONDS.toNanos(Math.max(1, config.getMaxEjectionMillis()));
+            long quietPeriods = (now - endpoint.lastFailureNanos) / period;
+            endpoint.recentEjections = (int) Math.max(0, endpoint.recentEjections - quietPeriods);
+        }
+        endpoint.lastFailureNanos = now;
+    }
+
+    private void eject(Endpoint endpoint) {
+        endpoint.ejections++;
+        endpoint.recentEjections++;
+        endpoint.consecutiveFailures = 0;
+        long millis = Math.min(config.getMaxEjectionMillis(),
+            config.getBaseEjectionMillis() * endpoint.recentEjections);
+        endpoint.ejectedUntilNanos = nanoClock.getAsLong() + TimeUnit.MILLISECONDS.toNanos(millis);
+        logMessage("Ejected " + endpoint.baseUrl + " for " + millis + "ms after "
+            + config.getFailuresToEject() + " consecutive failures");
+    }
+
+    private synchronized void setHealthy(Endpoint endpoint, boolean healthy) {
+        if (endpoint.healthy != healthy) {
+            endpoint.healthy = healthy;
+            logMessage("Endpoint " + endpoint.baseUrl + " is " + (healthy ? "HEALTHY" : "UNHEALTHY"));
+        }
+    }
+
+    private void logMessage(String message) {
+        String timestamp = java.time.LocalDateTime.now()
+            .format(java.time.format.DateTimeFormatter.ofPattern("HH:mm:ss"));
+        System.out.println("[" + timestamp + "] [EndpointPool] " + message);
+    }
+
+    /**
+     * One backend; guarded by the pool
+     */
+    private static final class Endpoint {
+        final String baseUrl;
+        final Set<String> models;
+        final long urlHash;
+        int outstanding;
+        double latencyEwmaMillis;
+        boolean hasLatency;
+        int consecutiveFailures;
+        long ejectedUntilNanos;
+        long lastFailureNanos;
+        // Ejections not yet forgiven; sets the next ejection time
+        int recentEjections;
+        boolean healthy = true;
+        long requests;
+        long failures;
+        int ejections;
+
+        Endpoint(String baseUrl, Set<String> models) {
+            this.baseUrl = baseUrl;
+            this.models = models;
+            this.urlHash = hash(baseUrl);
+        }
+
+        boolean serves(String model) {
+            return models.isEmpty() || models.contains(model);
+        }
+
+        boolean isEjected(long now) {
+            return ejections > 0 && now - ejectedUntilNanos < 0;
+        }
+
+        boolean isAvailable(long now) {
+            return healthy && !isEjected(now);
+        }
+    }
+
+    /**
+     * A request in flight on a backend; release it exactly once when the
+     * request ends. Failures that may be the server's fault, including a
+     * missing model, count towards ejection; successes update the latency
+     * average.
+     */
+    public final class Lease {
+        private final Endpoint endpoint;
+        private final long startNanos;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Lease(Endpoint endpoint, long startNanos) {
+            this.endpoint = endpoint;
+            this.startNanos = startNanos;
+        }
+
+        public String getBaseUrl() {
+            return endpoint.baseUrl;
+        }
+
+        /**
+         * @param error the failure, or null on success
+         */
+        public void release(Throwable error) {
+            if (released.compareAndSet(false, true)) {
+                EndpointPool.this.release(endpoint, startNanos, error);
+            }
+        }
+    }
+
+    /**
+     * State of one backend
+     */
+    public static class EndpointStats {
+        private final String baseUrl;
+        private final int outstanding;
+        private final double latencyEwmaMillis;
+        private final long requests;
+        private final long failures;
+        private final int ejections;
+        private final boolean ejected;
+        private final boolean healthy;
+
+        public EndpointStats(String baseUrl, int outstanding, double latencyEwmaMillis, long requests,
+                             long failures, int ejections, boolean ejected, boolean healthy) {
+            this.baseUrl = baseUrl;
+            this.outstanding = outstanding;
+            this.latencyEwmaMillis = latencyEwmaMillis;
+            this.requests = requests;
+            this.failures = failures;
+            this.ejections = ejections;
+            this.ejected = ejected;
+            this.healthy = healthy;
+        }
+
+        public String getBaseUrl() { return baseUrl; }
+        public int getOutstanding() { return outstanding; }
+        public double getLatencyEwmaMillis() { return latencyEwmaMillis; }
+        public long getRequests() { return requests; }
+        public long getFailures() { return failures; }
+        public int getEjections() { return ejections; }
+        public boolean isEjected() { return ejected; }
+        /** Result of the last health probe; true before the first */
+        public boolean isHealthy() { return healthy; }
+
+        @Override
+        public String toString() {
+            return String.format(
+                "EndpointStats{url=%s, outstanding=%d, latency=%.1fms, requests=%d, failures=%d, ejections=%d, ejected=%s, healthy=%s}",
+                baseUrl, outstanding, latencyEwmaMillis, requests, failures, ejections, ejected, healthy);
+        }
+    }
+
+    /**
+     * Pool statistics
+     */
+    public static class PoolStats {
+        private final List<EndpointStats> endpoints;
+        private final long stickyRoutes;
+        private final long stickyOverflows;
+        private final long panicRoutes;
+
+        public PoolStats(List<EndpointStats> endpoints, long stickyRoutes, long stickyOverflows, long panicRoutes) {
+            this.endpoints = Collections.unmodifiableList(endpoints);
+            this.stickyRoutes = stickyRoutes;
+            this.stickyOverflows = stickyOverflows;
+            this.panicRoutes = panicRoutes;
+        }
+
+        public List<EndpointStats> getEndpoints() { return endpoints; }
+        /** Requests routed to their session's backend */
+        public long getStickyRoutes() { return stickyRoutes; }
+        /** Session requests sent elsewhere because their backend was too busy */
+        public long getStickyOverflows() { return stickyOverflows; }
+        /** Requests routed while no backend of the model was available */
+        public long getPanicRoutes() { return panicRoutes; }
+
+        public EndpointStats getEndpoint(String baseUrl) {
+            for (EndpointStats endpoint : endpoints) {
+                if (endpoint.getBaseUrl().equals(baseUrl)) {
+                    return endpoint;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("PoolStats{endpoints=%s, sticky=%d, stickyOverflows=%d, panic=%d}",
+                endpoints, stickyRoutes, stickyOverflows, panicRoutes);
+        }
+    }
+}
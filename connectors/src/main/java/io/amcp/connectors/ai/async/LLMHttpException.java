@@ -0,0 +1,71 @@
+package io.amcp.connectors.ai.async;
+
+import java.io.IOException;
+import java.net.http.HttpHeaders;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * An LLM endpoint answered with an error status.
+ *
+ * Carries the server's Retry-After hint, if any, so a retry can wait at
+ * least as long as asked.
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+public class LLMHttpException extends IOException {
+
+    private final int statusCode;
+    private final long retryAfterMillis;
+
+    public LLMHttpException(int statusCode, long retryAfterMillis) {
+        super("LLM request failed with status: " + statusCode);
+        this.statusCode = statusCode;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    /**
+     * Build from a response's status and headers
+     */
+    public static LLMHttpException fromResponse(int statusCode, HttpHeaders headers) {
+        return new LLMHttpException(statusCode,
+            headers.firstValue("Retry-After").map(LLMHttpException::parseRetryAfter).orElse(-1L));
+    }
+
+    /**
+     * Parse a Retry-After value: delay in seconds, or an HTTP date
+     *
+     * @return milliseconds to wait, or -1 if unparseable
+     */
+    static long parseRetryAfter(String value) {
+        String trimmed = value.trim();
+        try {
+            return Math.max(0, Long.parseLong(trimmed) * 1000);
+        } catch (NumberFormatException e) {
+            // Not seconds; try a date
+        }
+        try {
+            ZonedDateTime at = ZonedDateTime.parse(trimmed, DateTimeFormatter.RFC_1123_DATE_TIME);
+            return Math.max(0, at.toInstant().toEpochMilli() - System.currentTimeMillis());
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+
+    public int getStatusCode() { return statusCode; }
+
+    /**
+     * Delay requested by the server, or -1 if none
+     */
+    public long getRetryAfterMillis() { return retryAfterMillis; }
+
+    /**
+     * Whether the same request may succeed later: server errors, timeouts
+     * and throttling, but not other client errors
+     */
+    public boolean isRetryable() {
+        return statusCode >= 500 || statusCode == 408 || statusCode == 429;
+    }
+}
@@ -0,0 +1,503 @@
+package io.amcp.connectors.ai.async;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Admission control for LLM requests, per model endpoint.
+ *
+ * Features:
+ * - Priority classes: interactive work is dispatched before normal, normal before batch
+ * - Fair queuing per tenant within a class (round robin), so one tenant's
+ *   burst cannot hold back another's requests
+ * - Deadlines: requests whose deadline passed, or whose caller cancelled,
+ *   are dropped before dispatch; a timer fails queued requests as their
+ *   deadline passes, even while no slot frees up
+ * - Adaptive concurrency limit per endpoint, following observed latency:
+ *   grows while latency holds, shrinks when it rises or requests time out
+ *
+ * The scheduler does not run work itself; a task returns a future and its
+ * slot is released when that future completes. Tasks that complete at once
+ * are dispatched in a loop rather than recursively, so a long queue of them
+ * does not grow the stack.
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+public class LLMRequestScheduler {
+
+    /**
+     * Scheduler configuration
+     */
+    public static class SchedulerConfig {
+        private final int initialLimit;
+        private final int minLimit;
+        private final int maxLimit;
+        private final double latencyTolerance;
+        private final double backoffRatio;
+        private final int maxQueuedPerEndpoint;
+
+        public SchedulerConfig() {
+            this(10, 1, 64, 1.5, 0.9, 10000);
+        }
+
+        /**
+         * @param latencyTolerance how far recent latency may exceed the long-run
+         *                         average before the limit shrinks
+         * @param backoffRatio     factor applied to the limit when a request times out
+         */
+        public SchedulerConfig(int initialLimit, int minLimit, int maxLimit, double latencyTolerance,
+                               double backoffRatio, int maxQueuedPerEndpoint) {
+            if (minLimit < 1 || initialLimit < minLimit || maxLimit < initialLimit) {
+                throw new IllegalArgumentException(
+                    "Limits must satisfy 1 <= min <= initial <= max: " + minLimit + "/" + initialLimit + "/" + maxLimit);
+            }
+            this.initialLimit = initialLimit;
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+            this.latencyTolerance = latencyTolerance;
+            this.backoffRatio = backoffRatio;
+            this.maxQueuedPerEndpoint = maxQueuedPerEndpoint;
+        }
+
+        public int getInitialLimit() { return initialLimit; }
+        public int getMinLimit() { return minLimit; }
+        public int getMaxLimit() { return maxLimit; }
+        public double getLatencyTolerance() { return latencyTolerance; }
+        public double getBackoffRatio() { return backoffRatio; }
+        public int getMaxQueuedPerEndpoint() { return maxQueuedPerEndpoint; }
+    }
+
+    private final SchedulerConfig config;
+    private final LongSupplier nanoClock;
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private final ScheduledThreadPoolExecutor timer;
+
+    // Statistics
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder dispatched = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder cancelled = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public LLMRequestScheduler() {
+        this(new SchedulerConfig());
+    }
+
+    public LLMRequestScheduler(SchedulerConfig config) {
+        this(config, System::nanoTime);
+    }
+
+    LLMRequestScheduler(SchedulerConfig config, LongSupplier nanoClock) {
+        this.config = config;
+        this.nanoClock = nanoClock;
+        this.timer = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "amcp-llm-scheduler");
+            t.setDaemon(true);
+            return t;
+        });
+        // Deadline timers are replaced as earlier deadlines arrive
+        this.timer.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Queue a request for an endpoint
+     *
+     * @param endpoint the model endpoint the request goes to; each has its own limit
+     * @param task     starts the request once admitted; not called if the request
+     *                 expires or is cancelled while queued
+     * @return completes with the task's result; fails with TimeoutException if the
+     *         deadline passes before dispatch. Cancelling it drops a queued request
+     *         and cancels a running one
+     */
+    public <T> CompletableFuture<T> submit(String endpoint, RequestOptions options,
+                                           Supplier<CompletableFuture<T>> task) {
+        submitted.increment();
+        Task<T> queued = new Task<>(options, task);
+        Endpoint target = endpoints.computeIfAbsent(endpoint, Endpoint::new);
+        if (!target.enqueue(queued)) {
+            rejected.increment();
+            queued.result.completeExceptionally(
+                new RejectedExecutionException("Request queue full for endpoint: " + endpoint));
+            return queued.result;
+        }
+        target.drain();
+        return queued.result;
+    }
+
+    /**
+     * Stop the deadline timer; queued requests then expire only when a slot frees up
+     */
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+
+    /**
+     * Current concurrency limit for an endpoint
+     */
+    public int getLimit(String endpoint) {
+        Endpoint target = endpoints.get(endpoint);
+        return target != null ? target.limit.get() : config.getInitialLimit();
+    }
+
+    public SchedulerStats getStats() {
+        int queued = 0;
+        int inFlight = 0;
+        Map<String, Integer> limits = new LinkedHashMap<>();
+        for (Endpoint endpoint : endpoints.values()) {
+            synchronized (endpoint) {
+                queued += endpoint.queued;
+                inFlight += endpoint.inFlight;
+            }
+            limits.put(endpoint.name, endpoint.limit.get());
+        }
+        return new SchedulerStats(submitted.sum(), dispatched.sum(), expired.sum(), cancelled.sum(),
+            rejected.sum(), queued, inFlight, limits);
+    }
+
+    /**
+     * A queued request
+     */
+    private static final class Task<T> {
+        final RequestOptions options;
+        final Supplier<CompletableFuture<T>> supplier;
+        final CompletableFuture<T> result = new CompletableFuture<>();
+
+        Task(RequestOptions options, Supplier<CompletableFuture<T>> supplier) {
+            this.options = options;
+            this.supplier = supplier;
+        }
+    }
+
+    /**
+     * Queues and limit for one endpoint
+     */
+    private final class Endpoint {
+        final String name;
+        final AdaptiveLimit limit = new AdaptiveLimit(config);
+        // One map per priority class; tenants in round-robin order
+        final List<LinkedHashMap<String, ArrayDeque<Task<?>>>> queues = new ArrayList<>();
+        final AtomicInteger drainRequests = new AtomicInteger();
+        int queued;
+        int inFlight;
+        // Timer for the earliest deadline among queued requests
+        ScheduledFuture<?> expiryTimer;
+        long expiryAtMillis = Long.MAX_VALUE;
+
+        Endpoint(String name) {
+            this.name = name;
+            for (int i = 0; i < RequestOptions.Priority.values().length; i++) {
+                queues.add(new LinkedHashMap<>());
+            }
+        }
+
+        synchronized boolean enqueue(Task<?> task) {
+            if (queued >= config.getMaxQueuedPerEndpoint()) {
+                return false;
+            }
+            queues.get(task.options.getPriority().ordinal())
+                .computeIfAbsent(task.options.getTenant(), tenant -> new ArrayDeque<>())
+                .addLast(task);
+            queued++;
+            if (task.options.hasDeadline() && task.options.getDeadlineMillis() < expiryAtMillis) {
+                scheduleExpiry(task.options.getDeadlineMillis());
+            }
+            return true;
+        }
+
+        private void scheduleExpiry(long atMillis) {
+            if (expiryTimer != null) {
+                expiryTimer.cancel(false);
+            }
+            expiryAtMillis = atMillis;
+            try {
+                expiryTimer = timer.schedule(this::expireLate,
+                    Math.max(0, atMillis - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // Shut down; drain still drops late requests
+                expiryTimer = null;
+                expiryAtMillis = Long.MAX_VALUE;
+            }
+        }
+
+        /**
+         * Fail queued requests whose deadline has passed, then set the timer
+         * for the next deadline
+         */
+        void expireLate() {
+            List<Task<?>> late = new ArrayList<>();
+            synchronized (this) {
+                expiryTimer = null;
+                expiryAtMillis = Long.MAX_VALUE;
+                long now = System.currentTimeMillis();
+                long next = Long.MAX_VALUE;
+                for (LinkedHashMap<String, ArrayDeque<Task<?>>> tenants : queues) {
+                    Iterator<ArrayDeque<Task<?>>> queueIt = tenants.values().iterator();
+                    while (queueIt.hasNext()) {
+                        ArrayDeque<Task<?>> queue = queueIt.next();
+                        Iterator<Task<?>> taskIt = queue.iterator();
+                        while (taskIt.hasNext()) {
+                            Task<?> task = taskIt.next();
+                            // Cancelled ones are counted when drain reaches them
+                            if (!task.options.hasDeadline() || task.result.isDone()) {
+                                continue;
+                            }
+                            if (task.options.getDeadlineMillis() <= now) {
+                                taskIt.remove();
+                                queued--;
+                                late.add(task);
+                            } else {
+                                next = Math.min(next, task.options.getDeadlineMillis());
+                            }
+                        }
+                        if (queue.isEmpty()) {
+                            queueIt.remove();
+                        }
+                    }
+                }
+                if (next != Long.MAX_VALUE) {
+                    scheduleExpiry(next);
+                }
+            }
+            expire(late);
+        }
+
+        private void expire(List<Task<?>> late) {
+            for (Task<?> task : late) {
+                expired.increment();
+                task.result.completeExceptionally(new TimeoutException(
+                    "Deadline passed before dispatch to " + name));
+            }
+        }
+
+        /**
+         * Dispatch queued requests while below the limit.
+         *
+         * A release from inside a dispatch (a task that completed at once)
+         * only asks for another pass of the loop already running.
+         */
+        void drain() {
+            if (drainRequests.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                dispatchReady();
+                missed = drainRequests.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void dispatchReady() {
+            List<Task<?>> ready = new ArrayList<>();
+            List<Task<?>> late = new ArrayList<>();
+            synchronized (this) {
+                long now = System.currentTimeMillis();
+                while (inFlight < limit.get()) {
+                    Task<?> task = next();
+                    if (task == null) {
+                        break;
+                    }
+                    if (task.result.isDone()) {
+                        cancelled.increment();
+                    } else if (task.options.hasDeadline() && task.options.getDeadlineMillis() <= now) {
+                        late.add(task);
+                    } else {
+                        inFlight++;
+                        ready.add(task);
+                    }
+                }
+            }
+            expire(late);
+            for (Task<?> task : ready) {
+                dispatched.increment();
+                run(task);
+            }
+        }
+
+        /**
+         * Take the next request: highest class first, tenants in turn
+         */
+        private Task<?> next() {
+            for (LinkedHashMap<String, ArrayDeque<Task<?>>> tenants : queues) {
+                Iterator<Map.Entry<String, ArrayDeque<Task<?>>>> it = tenants.entrySet().iterator();
+                if (!it.hasNext()) {
+                    continue;
+                }
+                Map.Entry<String, ArrayDeque<Task<?>>> first = it.next();
+                ArrayDeque<Task<?>> queue = first.getValue();
+                Task<?> task = queue.pollFirst();
+                it.remove();
+                if (!queue.isEmpty()) {
+                    // Back of the line for this tenant
+                    tenants.put(first.getKey(), queue);
+                }
+                queued--;
+                return task;
+            }
+            return null;
+        }
+
+        private <T> void run(Task<T> task) {
+            long start = nanoClock.getAsLong();
+            CompletableFuture<T> running;
+            try {
+                running = task.supplier.get();
+            } catch (RuntimeException e) {
+                running = CompletableFuture.failedFuture(e);
+            }
+            CompletableFuture<T> source = running;
+            task.result.whenComplete((value, error) -> {
+                if (task.result.isCancelled()) {
+                    source.cancel(false);
+                }
+            });
+            source.whenComplete((value, error) -> {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+                release(nanoClock.getAsLong() - start, cause);
+                if (cause != null) {
+                    task.result.completeExceptionally(cause);
+                } else {
+                    task.result.complete(value);
+                }
+            });
+        }
+
+        private void release(long latencyNanos, Throwable error) {
+            int active;
+            synchronized (this) {
+                active = inFlight--;
+            }
+            if (!(error instanceof CancellationException)) {
+                limit.onSample(latencyNanos, active, isTimeout(error));
+            }
+            drain();
+        }
+
+        private boolean isTimeout(Throwable error) {
+            for (Throwable t = error; t != null; t = t.getCause()) {
+                if (t instanceof TimeoutException || t instanceof java.net.http.HttpTimeoutException) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Gradient-based concurrency limit.
+     *
+     * Compares a short-run latency average with a long-run one: while they
+     * agree the limit grows by about its square root (room to probe for
+     * capacity), and as recent latency rises above the long-run level the
+     * limit shrinks in proportion. Timeouts cut it multiplicatively.
+     * Averages rather than single samples are compared because LLM latency
+     * varies widely with prompt and output length.
+     */
+    static final class AdaptiveLimit {
+        private static final double SHORT_WEIGHT = 0.1;
+        private static final double LONG_WEIGHT = 0.01;
+        private static final double SMOOTHING = 0.2;
+
+        private final SchedulerConfig config;
+        private double limit;
+        private double shortLatency;
+        private double longLatency;
+
+        AdaptiveLimit(SchedulerConfig config) {
+            this.config = config;
+            this.limit = config.getInitialLimit();
+        }
+
+        synchronized int get() {
+            return (int) limit;
+        }
+
+        /**
+         * @param inFlight requests running when this one finished, itself included
+         */
+        synchronized void onSample(long latencyNanos, int inFlight, boolean timedOut) {
+            if (timedOut) {
+                limit = Math.max(config.getMinLimit(), limit * config.getBackoffRatio());
+                return;
+            }
+            double latency = Math.max(1, latencyNanos);
+            if (longLatency == 0) {
+                shortLatency = latency;
+                longLatency = latency;
+                return;
+            }
+            shortLatency += (latency - shortLatency) * SHORT_WEIGHT;
+            longLatency += (latency - longLatency) * LONG_WEIGHT;
+
+            double gradient = Math.max(0.5, Math.min(1.0, config.getLatencyTolerance() * longLatency / shortLatency));
+            // Probe upwards only while latency holds and the limit is actually in use
+            double headroom = gradient >= 1.0 && inFlight * 2 >= limit ? Math.sqrt(limit) : 0;
+            double target = limit * gradient + headroom;
+            limit = limit * (1 - SMOOTHING) + target * SMOOTHING;
+            limit = Math.max(config.getMinLimit(), Math.min(config.getMaxLimit(), limit));
+        }
+    }
+
+    /**
+     * Scheduler statistics
+     */
+    public static class SchedulerStats {
+        private final long submitted;
+        private final long dispatched;
+        private final long expired;
+        private final long cancelled;
+        private final long rejected;
+        private final int queued;
+        private final int inFlight;
+        private final Map<String, Integer> limits;
+
+        public SchedulerStats(long submitted, long dispatched, long expired, long cancelled, long rejected,
+                              int queued, int inFlight, Map<String, Integer> limits) {
+            this.submitted = submitted;
+            this.dispatched = dispatched;
+            this.expired = expired;
+            this.cancelled = cancelled;
+            this.rejected = rejected;
+            this.queued = queued;
+            this.inFlight = inFlight;
+            this.limits = limits;
+        }
+
+        public long getSubmitted() { return submitted; }
+        public long getDispatched() { return dispatched; }
+        /** Requests dropped because their deadline passed while queued */
+        public long getExpired() { return expired; }
+        /** Requests dropped because the caller cancelled while queued */
+        public long getCancelled() { return cancelled; }
+        public long getRejected() { return rejected; }
+        public int getQueued() { return queued; }
+        public int getInFlight() { return inFlight; }
+        /** Concurrency limit per endpoint */
+        public Map<String, Integer> getLimits() { return limits; }
+
+        @Override
+        public String toString() {
+            return String.format(
+                "SchedulerStats{submitted=%d, dispatched=%d, expired=%d, cancelled=%d, rejected=%d, queued=%d, inFlight=%d, limits=%s}",
+                submitted, dispatched, expired, cancelled, rejected, queued, inFlight, limits);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package io.amcp.connectors.ai.async;
+
+/**
+ * A piece of a streamed LLM response.
+ *
+ * Tokens arrive in order; the last one of a response has {@code done} set
+ * and may carry empty text.
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+public class LLMToken {
+
+    private final String text;
+    private final int index;
+    private final boolean done;
+    private final String model;
+
+    public LLMToken(String text, int index, boolean done, String model) {
+        this.text = text;
+        this.index = index;
+        this.done = done;
+        this.model = model;
+    }
+
+    public String getText() { return text; }
+    /** Position of this token in the response, from 0 */
+    public int getIndex() { return index; }
+    public boolean isDone() { return done; }
+    public String getModel() { return model; }
+
+    @Override
+    public String toString() {
+        return String.format("LLMToken{index=%d, done=%s, text='%s'}", index, done, text);
+    }
+}
@@ -0,0 +1,237 @@
+package io.amcp.connectors.ai.async;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.amcp.connectors.ai.codec.OllamaCodec;
+import io.amcp.connectors.ai.codec.OllamaResponse;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+
+/**
+ * Reads an Ollama streaming response ({@code "stream": true}) as it arrives.
+ *
+ * The body is newline-delimited JSON, one object per chunk:
+ * {@code {"response":"Hel","done":false}} ... {@code {"response":"","done":true}}.
+ * Body buffers are requested one at a time and each chunk is handed to the
+ * token consumer before the next buffer is read, so a slow consumer slows
+ * the read instead of buffering the whole response. Lines are split on the
+ * raw bytes and decoded in place with {@link OllamaCodec}; only a line cut
+ * across two buffers is copied.
+ *
+ * A consumer may throw {@link CancellationException} to stop the stream.
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+public class NdjsonTokenSubscriber implements Flow.Subscriber<List<ByteBuffer>> {
+
+    private final String model;
+    private final Consumer<LLMToken> onToken;
+    private final CompletableFuture<String> result = new CompletableFuture<>();
+    private final StringBuilder text = new StringBuilder();
+    private Flow.Subscription subscription;
+    private int tokenCount;
+    private byte[] pending = new byte[256];
+    private int pendingLength;
+
+    public NdjsonTokenSubscriber(String model, Consumer<LLMToken> onToken) {
+        this.model = model;
+        this.onToken = onToken;
+    }
+
+    /**
+     * Body handler feeding this subscriber; non-200 responses fail the stream
+     * with an {@link LLMHttpException}, so callers can tell retryable statuses apart
+     */
+    public HttpResponse.BodyHandler<Void> bodyHandler() {
+        return responseInfo -> {
+            if (responseInfo.statusCode() != 200) {
+                fail(LLMHttpException.fromResponse(responseInfo.statusCode(), responseInfo.headers()));
+                return HttpResponse.BodySubscribers.discarding();
+            }
+            return HttpResponse.BodySubscribers.fromSubscriber(this);
+        };
+    }
+
+    /**
+     * Completes with the full response text once the final chunk arrives;
+     * cancelling it stops reading
+     */
+    public CompletableFuture<String> getResult() {
+        return result;
+    }
+
+    /**
+     * Number of tokens delivered so far
+     */
+    public synchronized int getTokenCount() {
+        return tokenCount;
+    }
+
+    /**
+     * Fail the stream, e.g. when the request could not be sent
+     */
+    public void fail(Throwable error) {
+        if (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        result.completeExceptionally(error);
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        synchronized (this) {
+            this.subscription = subscription;
+        }
+        result.whenComplete((response, error) -> {
+            if (error != null) {
+                subscription.cancel();
+            }
+        });
+        subscription.request(1);
+    }
+
+    @Override
+    public void onNext(List<ByteBuffer> buffers) {
+        if (result.isDone()) {
+            return;
+        }
+        try {
+            for (ByteBuffer buffer : buffers) {
+                if (!readLines(buffer)) {
+                    return;
+                }
+            }
+            subscription.request(1);
+        } catch (CancellationException e) {
+            result.cancel(false);
+        } catch (RuntimeException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Handle every complete line in the buffer and keep the remainder;
+     * false once the stream has finished
+     */
+    private boolean readLines(ByteBuffer buffer) {
+        byte[] data;
+        int start;
+        int end;
+        if (buffer.hasArray()) {
+            data = buffer.array();
+            start = buffer.arrayOffset() + buffer.position();
+            end = buffer.arrayOffset() + buffer.limit();
+        } else {
+            data = new byte[buffer.remaining()];
+            buffer.get(data);
+            start = 0;
+            end = data.length;
+        }
+        for (int i = start; i < end; i++) {
+            if (data[i] != '\n') {
+                continue;
+            }
+            boolean more;
+            if (pendingLength == 0) {
+                more = handleLine(data, start, i - start);
+            } else {
+                appendPending(data, start, i - start);
+                more = handleLine(pending, 0, pendingLength);
+                pendingLength = 0;
+            }
+            if (!more) {
+                return false;
+            }
+            start = i + 1;
+        }
+        appendPending(data, start, end - start);
+        return true;
+    }
+
+    private void appendPending(byte[] data, int offset, int length) {
+        if (pendingLength + length > pending.length) {
+            pending = Arrays.copyOf(pending, Math.max(pending.length * 2, pendingLength + length));
+        }
+        System.arraycopy(data, offset, pending, pendingLength, length);
+        pendingLength += length;
+    }
+
+    private boolean handleLine(byte[] data, int offset, int length) {
+        if (isBlank(data, offset, length)) {
+            return true;
+        }
+        OllamaResponse chunk;
+        try {
+            chunk = OllamaCodec.decodeResponse(data, offset, length);
+        } catch (JsonProcessingException e) {
+            fail(new IOException("Malformed stream chunk: "
+                + new String(data, offset, length, StandardCharsets.UTF_8), e));
+            return false;
+        } catch (IOException e) {
+            fail(e);
+            return false;
+        }
+        if (chunk.hasError()) {
+            fail(new IOException("LLM stream error: " + chunk.getError()));
+            return false;
+        }
+        String piece = chunk.getText();
+        boolean done = chunk.isDone();
+        if (!piece.isEmpty() || done) {
+            LLMToken token;
+            synchronized (this) {
+                text.append(piece);
+                token = new LLMToken(piece, tokenCount++, done, model);
+            }
+            onToken.accept(token);
+        }
+        if (done) {
+            synchronized (this) {
+                result.complete(text.toString());
+            }
+            return false;
+        }
+        return !result.isDone();
+    }
+
+    private static boolean isBlank(byte[] data, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            if (data[i] != ' ' && data[i] != '\r' && data[i] != '\t') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        fail(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        if (!result.isDone() && pendingLength > 0) {
+            try {
+                handleLine(pending, 0, pendingLength);
+            } catch (CancellationException e) {
+                result.cancel(false);
+            } catch (RuntimeException e) {
+                fail(e);
+            }
+            pendingLength = 0;
+        }
+        if (!result.isDone()) {
+            fail(new IOException("Stream ended before the final chunk"));
+        }
+    }
+}
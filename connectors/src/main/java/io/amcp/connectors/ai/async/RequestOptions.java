@@ -0,0 +1,162 @@
+package io.amcp.connectors.ai.async;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Scheduling options for one LLM request: priority class, tenant,
+ * deadline and session. Immutable; the {@code with} methods return copies.
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+public class RequestOptions {
+
+    /**
+     * Priority classes, highest first. A class is only served when every
+     * higher class has nothing queued.
+     */
+    public enum Priority {
+        /** A user is waiting on the answer, e.g. chat */
+        INTERACTIVE,
+        /** Agent-to-agent work */
+        NORMAL,
+        /** Background and bulk jobs */
+        BATCH
+    }
+
+    public static final String DEFAULT_TENANT = "default";
+    /** Parameters read by {@link #fromParameters}; they route a request and are not part of it */
+    public static final List<String> PARAMETER_KEYS =
+        List.of("priority", "tenant", "timeoutMs", "sessionId", "conversationId");
+    public static final RequestOptions DEFAULT = new RequestOptions(Priority.NORMAL, DEFAULT_TENANT, 0);
+
+    private final Priority priority;
+    private final String tenant;
+    private final long deadlineMillis;
+    private final String sessionId;
+
+    /**
+     * @param deadlineMillis epoch time after which the answer is no longer wanted; 0 for none
+     */
+    public RequestOptions(Priority priority, String tenant, long deadlineMillis) {
+        this(priority, tenant, deadlineMillis, null);
+    }
+
+    /**
+     * @param sessionId conversation whose requests should go to the same
+     *                  server, to reuse its cached context; null for none
+     */
+    public RequestOptions(Priority priority, String tenant, long deadlineMillis, String sessionId) {
+        this.priority = priority != null ? priority : Priority.NORMAL;
+        this.tenant = tenant != null ? tenant : DEFAULT_TENANT;
+        this.deadlineMillis = deadlineMillis;
+        this.sessionId = sessionId;
+    }
+
+    public static RequestOptions interactive(String tenant) {
+        return new RequestOptions(Priority.INTERACTIVE, tenant, 0);
+    }
+
+    public static RequestOptions batch(String tenant) {
+        return new RequestOptions(Priority.BATCH, tenant, 0);
+    }
+
+    /**
+     * Read options from tool request parameters: "priority"
+     * (interactive/normal/batch), "tenant", "timeoutMs" and "sessionId"
+     * (or "conversationId")
+     */
+    public static RequestOptions fromParameters(Map<String, Object> parameters) {
+        Priority priority = Priority.NORMAL;
+        Object value = parameters.get("priority");
+        if (value != null) {
+            try {
+                priority = Priority.valueOf(value.toString().trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                // Unknown class, keep the default
+            }
+        }
+        Object tenant = parameters.get("tenant");
+        long deadline = 0;
+        Object timeout = parameters.get("timeoutMs");
+        if (timeout != null) {
+            try {
+                deadline = System.currentTimeMillis() + Long.parseLong(timeout.toString().trim());
+            } catch (NumberFormatException e) {
+                // No deadline
+            }
+        }
+        Object session = parameters.get("sessionId");
+        if (session == null) {
+            session = parameters.get("conversationId");
+        }
+        return new RequestOptions(priority, tenant != null ? tenant.toString() : null, deadline,
+            session != null ? session.toString() : null);
+    }
+
+    /**
+     * The parameters without the scheduling ones, so two requests differing
+     * only in priority, tenant, timeout or session share a cache entry and
+     * coalesce; returns the map itself if it has none
+     */
+    public static Map<String, Object> withoutOptionParameters(Map<String, Object> parameters) {
+        if (parameters == null) {
+            return null;
+        }
+        Map<String, Object> stripped = null;
+        for (String key : PARAMETER_KEYS) {
+            if (parameters.containsKey(key)) {
+                if (stripped == null) {
+                    stripped = new HashMap<>(parameters);
+                }
+                stripped.remove(key);
+            }
+        }
+        return stripped != null ? stripped : parameters;
+    }
+
+    public RequestOptions withPriority(Priority priority) {
+        return new RequestOptions(priority, tenant, deadlineMillis, sessionId);
+    }
+
+    public RequestOptions withTenant(String tenant) {
+        return new RequestOptions(priority, tenant, deadlineMillis, sessionId);
+    }
+
+    public RequestOptions withDeadline(long deadlineMillis) {
+        return new RequestOptions(priority, tenant, deadlineMillis, sessionId);
+    }
+
+    public RequestOptions withSession(String sessionId) {
+        return new RequestOptions(priority, tenant, deadlineMillis, sessionId);
+    }
+
+    public RequestOptions withTimeout(Duration timeout) {
+        return withDeadline(System.currentTimeMillis() + timeout.toMillis());
+    }
+
+    public Priority getPriority() { return priority; }
+    public String getTenant() { return tenant; }
+    public long getDeadlineMillis() { return deadlineMillis; }
+    public String getSessionId() { return sessionId; }
+
+    public boolean hasDeadline() {
+        return deadlineMillis > 0;
+    }
+
+    /**
+     * Time left before the deadline; Long.MAX_VALUE without one
+     */
+    public long getRemainingMillis() {
+        return hasDeadline() ? deadlineMillis - System.currentTimeMillis() : Long.MAX_VALUE;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("RequestOptions{priority=%s, tenant=%s, deadline=%d, session=%s}",
+            priority, tenant, deadlineMillis, sessionId);
+    }
+}
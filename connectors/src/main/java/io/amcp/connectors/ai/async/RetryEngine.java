@@ -0,0 +1,296 @@
+package io.amcp.connectors.ai.async;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+/**
+ * Non-blocking retries for asynchronous requests.
+ *
+ * A failed attempt is re-submitted from a timer instead of sleeping on a
+ * worker, so an outage holds no threads while requests wait to retry.
+ *
+ * Features:
+ * - Exponential backoff with jitter, so callers failing together do not retry together
+ * - Retry-After from the server is honoured as a minimum delay; a request
+ *   asked to wait longer than the maximum backoff fails at once instead
+ * - Retry budget per endpoint: retries are limited to a share of requests,
+ *   so a failing endpoint is not hit with a multiple of its normal load
+ * - Deadlines: no retry is scheduled that would start after the deadline
+ * - Cancelling the result cancels the attempt in progress or the pending retry
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+public class RetryEngine {
+
+    /**
+     * Retry policy
+     */
+    public static class RetryPolicy {
+        private final int maxAttempts;
+        private final long baseDelayMillis;
+        private final long maxDelayMillis;
+        private final double budgetRatio;
+        private final double minRetriesPerSecond;
+
+        public RetryPolicy() {
+            this(3, 1000, 30000, 0.2, 1.0);
+        }
+
+        /**
+         * @param maxAttempts         attempts including the first
+         * @param budgetRatio         retries allowed per request sent, on average
+         * @param minRetriesPerSecond retries allowed regardless of traffic, so low
+         *                            volume endpoints can still retry
+         */
+        public RetryPolicy(int maxAttempts, long baseDelayMillis, long maxDelayMillis,
+                           double budgetRatio, double minRetriesPerSecond) {
+            if (maxAttempts < 1) {
+                throw new IllegalArgumentException("maxAttempts must be at least 1: " + maxAttempts);
+            }
+            this.maxAttempts = maxAttempts;
+            this.baseDelayMillis = baseDelayMillis;
+            this.maxDelayMillis = maxDelayMillis;
+            this.budgetRatio = budgetRatio;
+            this.minRetriesPerSecond = minRetriesPerSecond;
+        }
+
+        public int getMaxAttempts() { return maxAttempts; }
+        public long getBaseDelayMillis() { return baseDelayMillis; }
+        public long getMaxDelayMillis() { return maxDelayMillis; }
+        public double getBudgetRatio() { return budgetRatio; }
+        public double getMinRetriesPerSecond() { return minRetriesPerSecond; }
+
+        /**
+         * Backoff before the given retry (1 for the first): half fixed, half random
+         */
+        long backoffMillis(int retry) {
+            long exponential = baseDelayMillis << Math.min(retry, 30);
+            long capped = Math.min(maxDelayMillis, Math.max(0, exponential));
+            long half = capped / 2;
+            return half + (half > 0 ? ThreadLocalRandom.current().nextLong(half + 1) : 0);
+        }
+    }
+
+    private final RetryPolicy policy;
+    private final ScheduledExecutorService timer;
+    private final Map<String, RetryBudget> budgets = new ConcurrentHashMap<>();
+
+    // Statistics
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder budgetExhausted = new LongAdder();
+    private final LongAdder retryAfterHonoured = new LongAdder();
+
+    public RetryEngine(RetryPolicy policy) {
+        this.policy = policy;
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "amcp-llm-retry");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Run a request, retrying failures that may succeed later
+     *
+     * @param endpoint       budget key
+     * @param deadlineMillis epoch time after which no retry starts; 0 for none
+     * @param attempt        starts attempt n (from 1); must not block
+     */
+    public <T> CompletableFuture<T> execute(String endpoint, long deadlineMillis,
+                                           IntFunction<CompletableFuture<T>> attempt) {
+        requests.increment();
+        RetryBudget budget = budgets.computeIfAbsent(endpoint, key -> new RetryBudget(policy));
+        budget.deposit();
+        Execution<T> execution = new Execution<>(budget, deadlineMillis, attempt);
+        execution.start(1);
+        return execution.result;
+    }
+
+    /**
+     * Stop the timer; pending retries are dropped
+     */
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+
+    public RetryStats getStats() {
+        return new RetryStats(requests.sum(), retries.sum(), budgetExhausted.sum(), retryAfterHonoured.sum());
+    }
+
+    /**
+     * Whether a failure may go away on retry
+     */
+    static boolean isRetryable(Throwable error) {
+        if (error instanceof LLMHttpException) {
+            return ((LLMHttpException) error).isRetryable();
+        }
+        return error instanceof IOException || error instanceof TimeoutException;
+    }
+
+    /**
+     * One request and its attempts
+     */
+    private final class Execution<T> {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        final RetryBudget budget;
+        final long deadlineMillis;
+        final IntFunction<CompletableFuture<T>> attempt;
+        volatile Future<?> current;
+
+        Execution(RetryBudget budget, long deadlineMillis, IntFunction<CompletableFuture<T>> attempt) {
+            this.budget = budget;
+            this.deadlineMillis = deadlineMillis;
+            this.attempt = attempt;
+            result.whenComplete((value, error) -> {
+                Future<?> running = current;
+                if (result.isCancelled() && running != null) {
+                    running.cancel(false);
+                }
+            });
+        }
+
+        void start(int number) {
+            if (result.isDone()) {
+                return;
+            }
+            CompletableFuture<T> future;
+            try {
+                future = attempt.apply(number);
+            } catch (RuntimeException e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+            current = future;
+            if (result.isCancelled()) {
+                future.cancel(false);
+                return;
+            }
+            future.whenComplete((value, error) -> {
+                if (error == null) {
+                    result.complete(value);
+                } else {
+                    onFailure(number, unwrap(error));
+                }
+            });
+        }
+
+        void onFailure(int number, Throwable error) {
+            if (error instanceof CancellationException || !isRetryable(error) || number >= policy.getMaxAttempts()) {
+                result.completeExceptionally(error);
+                return;
+            }
+            long delay = policy.backoffMillis(number);
+            if (error instanceof LLMHttpException && ((LLMHttpException) error).getRetryAfterMillis() > delay) {
+                long retryAfter = ((LLMHttpException) error).getRetryAfterMillis();
+                if (retryAfter > policy.getMaxDelayMillis()) {
+                    // The server wants longer than any backoff we would wait; give up now
+                    result.completeExceptionally(error);
+                    return;
+                }
+                delay = retryAfter;
+                retryAfterHonoured.increment();
+            }
+            if (deadlineMillis > 0 && System.currentTimeMillis() + delay >= deadlineMillis) {
+                result.completeExceptionally(error);
+                return;
+            }
+            if (!budget.withdraw()) {
+                budgetExhausted.increment();
+                result.completeExceptionally(error);
+                return;
+            }
+            retries.increment();
+            try {
+                current = timer.schedule(() -> start(number + 1), delay, TimeUnit.MILLISECONDS);
+            } catch (java.util.concurrent.RejectedExecutionException e) {
+                // Shut down
+                result.completeExceptionally(error);
+            }
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    /**
+     * Token bucket of retries for one endpoint: each request adds a fraction
+     * of a token, time adds a trickle, and each retry takes a whole token
+     */
+    static final class RetryBudget {
+        private final RetryPolicy policy;
+        private final double maxTokens;
+        private double tokens;
+        private long lastRefillNanos = System.nanoTime();
+
+        RetryBudget(RetryPolicy policy) {
+            this.policy = policy;
+            this.maxTokens = Math.max(10, policy.getMinRetriesPerSecond() * 10);
+            this.tokens = maxTokens;
+        }
+
+        synchronized void deposit() {
+            refill();
+            tokens = Math.min(maxTokens, tokens + policy.getBudgetRatio());
+        }
+
+        synchronized boolean withdraw() {
+            refill();
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+
+        private void refill() {
+            long now = System.nanoTime();
+            double seconds = (now - lastRefillNanos) / 1_000_000_000.0;
+            lastRefillNanos = now;
+            tokens = Math.min(maxTokens, tokens + seconds * policy.getMinRetriesPerSecond());
+        }
+    }
+
+    /**
+     * Retry statistics
+     */
+    public static class RetryStats {
+        private final long requests;
+        private final long retries;
+        private final long budgetExhausted;
+        private final long retryAfterHonoured;
+
+        public RetryStats(long requests, long retries, long budgetExhausted, long retryAfterHonoured) {
+            this.requests = requests;
+            this.retries = retries;
+            this.budgetExhausted = budgetExhausted;
+            this.retryAfterHonoured = retryAfterHonoured;
+        }
+
+        public long getRequests() { return requests; }
+        public long getRetries() { return retries; }
+        /** Failures not retried because the endpoint's budget was spent */
+        public long getBudgetExhausted() { return budgetExhausted; }
+        /** Retries delayed by the server's Retry-After */
+        public long getRetryAfterHonoured() { return retryAfterHonoured; }
+
+        @Override
+        public String toString() {
+            return String.format("RetryStats{requests=%d, retries=%d, budgetExhausted=%d, retryAfter=%d}",
+                requests, retries, budgetExhausted, retryAfterHonoured);
+        }
+    }
+}
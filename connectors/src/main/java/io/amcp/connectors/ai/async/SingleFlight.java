@@ -0,0 +1,198 @@
+package io.amcp.connectors.ai.async;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls with the same key into one.
+ *
+ * The first caller for a key starts the call; callers arriving while it is
+ * in flight wait on the same result. Every caller gets its own future, so
+ * cancelling one does not affect the others; the shared call is cancelled
+ * only when every waiter has cancelled. That cancels the call's future
+ * without interrupting any thread, since the worker behind it may be
+ * shared (an HTTP client pool, a disk read). Once the call completes the
+ * key is released and the next caller starts a new one.
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+public class SingleFlight<T> {
+
+    private final ConcurrentHashMap<String, Flight<T>> inFlight = new ConcurrentHashMap<>();
+
+    // Statistics
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder cancelledCalls = new LongAdder();
+
+    /**
+     * Join the call in flight for a key, or start one
+     *
+     * @param call starts the shared call; invoked at most once per flight
+     * @return a future for this caller alone
+     */
+    public CompletableFuture<T> execute(String key, Supplier<CompletableFuture<T>> call) {
+        while (true) {
+            Flight<T> existing = inFlight.get(key);
+            if (existing != null) {
+                CompletableFuture<T> waiter = existing.join();
+                if (waiter != null) {
+                    coalesced.increment();
+                    return waiter;
+                }
+                // Cancelled by its last waiter; make way for a new flight
+                inFlight.remove(key, existing);
+                continue;
+            }
+
+            Flight<T> flight = new Flight<>(this);
+            if (inFlight.putIfAbsent(key, flight) != null) {
+                continue;
+            }
+            calls.increment();
+            CompletableFuture<T> waiter = flight.join();
+
+            CompletableFuture<T> source;
+            try {
+                source = call.get();
+            } catch (RuntimeException e) {
+                source = CompletableFuture.failedFuture(e);
+            }
+            flight.start(source, () -> inFlight.remove(key, flight));
+            return waiter;
+        }
+    }
+
+    /**
+     * Get the number of keys with a call in flight
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    public FlightStats getStats() {
+        return new FlightStats(calls.sum(), coalesced.sum(), cancelledCalls.sum(), inFlight.size());
+    }
+
+    /**
+     * One shared call and its waiters
+     */
+    private static final class Flight<T> {
+        private final SingleFlight<T> owner;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private CompletableFuture<T> source;
+        private Runnable release;
+        private int waiters;
+        private boolean abandoned;
+
+        Flight(SingleFlight<T> owner) {
+            this.owner = owner;
+        }
+
+        /**
+         * @return a new waiter, or null if the flight was abandoned
+         */
+        synchronized CompletableFuture<T> join() {
+            if (abandoned) {
+                return null;
+            }
+            waiters++;
+            CompletableFuture<T> waiter = new CompletableFuture<>();
+            result.whenComplete((value, error) -> {
+                if (error != null) {
+                    waiter.completeExceptionally(unwrap(error));
+                } else {
+                    waiter.complete(value);
+                }
+            });
+            waiter.whenComplete((value, error) -> {
+                if (waiter.isCancelled()) {
+                    leave();
+                }
+            });
+            return waiter;
+        }
+
+        void start(CompletableFuture<T> source, Runnable release) {
+            boolean cancelNow;
+            synchronized (this) {
+                this.source = source;
+                this.release = release;
+                cancelNow = abandoned;
+            }
+            source.whenComplete((value, error) -> {
+                // Release the key first, so callers that see the result can start afresh
+                release.run();
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(value);
+                }
+            });
+            if (cancelNow) {
+                source.cancel(false);
+            }
+        }
+
+        private void leave() {
+            CompletableFuture<T> toCancel;
+            Runnable toRelease;
+            synchronized (this) {
+                if (--waiters > 0 || result.isDone()) {
+                    return;
+                }
+                abandoned = true;
+                toCancel = source;
+                toRelease = release;
+            }
+            owner.cancelledCalls.increment();
+            if (toRelease != null) {
+                toRelease.run();
+            }
+            if (toCancel != null) {
+                toCancel.cancel(false);
+            }
+            result.completeExceptionally(new CancellationException("All waiters cancelled"));
+        }
+
+        private static Throwable unwrap(Throwable error) {
+            return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        }
+    }
+
+    /**
+     * Single-flight statistics
+     */
+    public static class FlightStats {
+        private final long calls;
+        private final long coalesced;
+        private final long cancelledCalls;
+        private final int inFlight;
+
+        public FlightStats(long calls, long coalesced, long cancelledCalls, int inFlight) {
+            this.calls = calls;
+            this.coalesced = coalesced;
+            this.cancelledCalls = cancelledCalls;
+            this.inFlight = inFlight;
+        }
+
+        /** Shared calls started */
+        public long getCalls() { return calls; }
+        /** Requests served by joining a call already in flight */
+        public long getCoalesced() { return coalesced; }
+        /** Shared calls cancelled because every waiter cancelled */
+        public long getCancelledCalls() { return cancelledCalls; }
+        public int getInFlight() { return inFlight; }
+
+        @Override
+        public String toString() {
+            return String.format("FlightStats{calls=%d, coalesced=%d, cancelled=%d, inFlight=%d}",
+                calls, coalesced, cancelledCalls, inFlight);
+        }
+    }
+}
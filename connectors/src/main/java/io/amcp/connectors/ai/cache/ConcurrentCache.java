@@ -0,0 +1,866 @@
+package io.amcp.connectors.ai.cache;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded concurrent cache shared by the LLM caches.
+ *
+ * A lookup is a hash map read plus a lossy record of the access in a striped
+ * buffer. The eviction policy is updated in batches by whichever thread holds
+ * the policy lock, so readers never wait on it. Every policy step is O(1).
+ *
+ * Features:
+ * - W-TinyLFU admission: new entries enter a small LRU window, and an entry
+ *   leaving the window displaces a main-space entry only if a count-min
+ *   sketch says it is used more often, so scans cannot flush the hot set
+ * - Segmented LRU main space (probation and protected)
+ * - Per-entry time to live, expired through a hierarchical timer wheel
+ * - Bounds on entry count or on total weight, e.g. bytes
+ * - Striped {@link LongAdder} statistics
+ *
+ * <pre>
+ * ConcurrentCache&lt;String, String&gt; cache = ConcurrentCache.&lt;String, String&gt;builder()
+ *     .maximumWeight(64L * 1024 * 1024)
+ *     .weigher((key, value) -&gt; 2 * (key.length() + value.length()))
+ *     .expireAfterWrite(1, TimeUnit.HOURS)
+ *     .build();
+ * </pre>
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+public class ConcurrentCache<K, V> {
+
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+    private static final int DEAD = 3;
+
+    private static final double WINDOW_PERCENT = 0.01;
+    private static final double PROTECTED_PERCENT = 0.80;
+
+    /**
+     * Computes the weight of an entry, e.g. its approximate size in bytes
+     */
+    @FunctionalInterface
+    public interface Weigher<K, V> {
+        int weigh(K key, V value);
+    }
+
+    private final ConcurrentHashMap<K, Node<K, V>> data = new ConcurrentHashMap<>();
+    private final ReentrantLock policyLock = new ReentrantLock();
+    private final ReadBuffer<K, V> readBuffer = new ReadBuffer<>();
+    private final boolean weighted;
+    private final Weigher<? super K, ? super V> weigher;
+    private final long maximum;
+    private final long windowMaximum;
+    private final long protectedMaximum;
+    private final long defaultTtlMillis;
+    private final LongSupplier clock;
+
+    // Policy state, guarded by policyLock
+    private final AccessOrder<K, V> window = new AccessOrder<>();
+    private final AccessOrder<K, V> probation = new AccessOrder<>();
+    private final AccessOrder<K, V> protectedSpace = new AccessOrder<>();
+    private final FrequencySketch sketch = new FrequencySketch();
+    private final TimerWheel<K, V> timerWheel;
+    private long weightedSize;
+    private long windowWeight;
+    private long protectedWeight;
+
+    // Statistics
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    private ConcurrentCache(Builder<K, V> builder) {
+        this.weighted = builder.maximumWeight >= 0;
+        this.weigher = weighted ? builder.weigher : (key, value) -> 1;
+        this.maximum = weighted ? builder.maximumWeight : builder.maximumSize;
+        long mainMaximum = maximum - Math.min(maximum, Math.max(1, (long) (maximum * WINDOW_PERCENT)));
+        this.windowMaximum = maximum - mainMaximum;
+        this.protectedMaximum = (long) (mainMaximum * PROTECTED_PERCENT);
+        this.defaultTtlMillis = builder.expireAfterWriteMillis;
+        this.clock = builder.clock;
+        this.timerWheel = new TimerWheel<>(clock.getAsLong());
+        sketch.ensureCapacity(weighted ? 64 : maximum);
+    }
+
+    public static <K, V> Builder<K, V> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Get a value, or null if absent or expired
+     */
+    public V getIfPresent(K key) {
+        Node<K, V> node = data.get(key);
+        if (node == null) {
+            misses.increment();
+            return null;
+        }
+        if (node.isExpired(clock.getAsLong())) {
+            // The timer wheel removes it on the next maintenance pass
+            misses.increment();
+            return null;
+        }
+        V value = node.value;
+        hits.increment();
+        if (readBuffer.offer(node)) {
+            tryMaintenance();
+        }
+        return value;
+    }
+
+    /**
+     * Insert or replace a value with the default time to live
+     */
+    public void put(K key, V value) {
+        insert(key, value, defaultTtlMillis);
+    }
+
+    /**
+     * Insert or replace a value with its own time to live
+     */
+    public void put(K key, V value, long ttl, TimeUnit unit) {
+        if (ttl <= 0) {
+            throw new IllegalArgumentException("Time to live must be positive: " + ttl);
+        }
+        insert(key, value, unit.toMillis(ttl));
+    }
+
+    private void insert(K key, V value, long ttlMillis) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(value, "value");
+        int weight = weigher.weigh(key, value);
+        if (weight < 0) {
+            throw new IllegalArgumentException("Negative weight for key " + key + ": " + weight);
+        }
+
+        policyLock.lock();
+        try {
+            long now = clock.getAsLong();
+            long expiresAt = ttlMillis > 0 && ttlMillis < Long.MAX_VALUE - now ? now + ttlMillis : Long.MAX_VALUE;
+            Node<K, V> node = data.get(key);
+            if (node == null) {
+                node = new Node<>(key, value, weight, expiresAt);
+                data.put(key, node);
+                onAdd(node);
+            } else {
+                node.value = value;
+                setWeight(node, weight);
+                timerWheel.deschedule(node);
+                node.expiresAt = expiresAt;
+                timerWheel.schedule(node);
+                onAccess(node);
+            }
+            maintenance(now);
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    /**
+     * Remove a value
+     *
+     * @return the removed value, or null if absent
+     */
+    public V remove(K key) {
+        policyLock.lock();
+        try {
+            Node<K, V> node = data.remove(key);
+            if (node == null) {
+                return null;
+            }
+            unlink(node);
+            return node.value;
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    /**
+     * Remove every entry
+     */
+    public void invalidateAll() {
+        policyLock.lock();
+        try {
+            readBuffer.drain(node -> { });
+            for (Node<K, V> node : data.values()) {
+                node.queue = DEAD;
+                node.prev = null;
+                node.next = null;
+            }
+            data.clear();
+            window.clear();
+            probation.clear();
+            protectedSpace.clear();
+            timerWheel.clear();
+            weightedSize = 0;
+            windowWeight = 0;
+            protectedWeight = 0;
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    /**
+     * Apply pending accesses and remove expired entries now rather than on
+     * the next write
+     */
+    public void cleanUp() {
+        policyLock.lock();
+        try {
+            maintenance(clock.getAsLong());
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    /**
+     * Get the number of entries, including any expired but not yet removed
+     */
+    public long size() {
+        return data.size();
+    }
+
+    /**
+     * Get the total weight, which is the entry count for unweighted caches
+     */
+    public long weightedSize() {
+        policyLock.lock();
+        try {
+            return weightedSize;
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    public long getMaximum() {
+        return maximum;
+    }
+
+    public CacheStatistics getStatistics() {
+        return new CacheStatistics(hits.sum(), misses.sum(), evictions.sum(), expirations.sum(),
+                                   data.size(), maximum);
+    }
+
+    public void resetStatistics() {
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+        expirations.reset();
+    }
+
+    private void tryMaintenance() {
+        if (policyLock.tryLock()) {
+            try {
+                maintenance(clock.getAsLong());
+            } finally {
+                policyLock.unlock();
+            }
+        }
+    }
+
+    private void maintenance(long now) {
+        readBuffer.drain(this::onAccess);
+        timerWheel.advance(now, this::expire);
+        evictEntries();
+    }
+
+    private void onAdd(Node<K, V> node) {
+        if (weighted && data.size() > sketch.capacity()) {
+            sketch.ensureCapacity(2L * data.size());
+        }
+        sketch.increment(node.key);
+        node.queue = WINDOW;
+        window.addLast(node);
+        windowWeight += node.weight;
+        weightedSize += node.weight;
+        timerWheel.schedule(node);
+    }
+
+    private void onAccess(Node<K, V> node) {
+        switch (node.queue) {
+            case WINDOW:
+                sketch.increment(node.key);
+                window.moveToLast(node);
+                break;
+            case PROBATION:
+                sketch.increment(node.key);
+                probation.unlink(node);
+                node.queue = PROTECTED;
+                protectedSpace.addLast(node);
+                protectedWeight += node.weight;
+                demoteProtected();
+                break;
+            case PROTECTED:
+                sketch.increment(node.key);
+                protectedSpace.moveToLast(node);
+                break;
+            default:
+                // Removed after the access was buffered
+                break;
+        }
+    }
+
+    private void setWeight(Node<K, V> node, int weight) {
+        int delta = weight - node.weight;
+        node.weight = weight;
+        weightedSize += delta;
+        if (node.queue == WINDOW) {
+            windowWeight += delta;
+        } else if (node.queue == PROTECTED) {
+            protectedWeight += delta;
+        }
+    }
+
+    private void demoteProtected() {
+        while (protectedWeight > protectedMaximum && protectedSpace.first != null) {
+            Node<K, V> demoted = protectedSpace.first;
+            protectedSpace.unlink(demoted);
+            protectedWeight -= demoted.weight;
+            demoted.queue = PROBATION;
+            probation.addLast(demoted);
+        }
+    }
+
+    /**
+     * Move window overflow into probation as candidates, then while over the
+     * bound let each candidate compete with the coldest older main entry;
+     * the less frequently used of the two is evicted
+     */
+    private void evictEntries() {
+        Node<K, V> candidate = null;
+        while (windowWeight > windowMaximum && window.first != null) {
+            Node<K, V> node = window.first;
+            window.unlink(node);
+            windowWeight -= node.weight;
+            node.queue = PROBATION;
+            probation.addLast(node);
+            if (candidate == null) {
+                candidate = node;
+            }
+        }
+
+        while (weightedSize > maximum) {
+            if (candidate == null) {
+                Node<K, V> victim = probation.first != null ? probation.first
+                    : protectedSpace.first != null ? protectedSpace.first : window.first;
+                if (victim == null) {
+                    break;
+                }
+                evict(victim);
+                continue;
+            }
+            Node<K, V> victim = probation.first != null ? probation.first : protectedSpace.first;
+            if (victim == candidate || victim == null || candidate.weight > maximum
+                    || !admit(candidate.key, victim.key)) {
+                Node<K, V> next = candidate.next;
+                evict(candidate);
+                candidate = next;
+            } else {
+                evict(victim);
+            }
+        }
+    }
+
+    private boolean admit(K candidateKey, K victimKey) {
+        int candidateFrequency = sketch.frequency(candidateKey);
+        int victimFrequency = sketch.frequency(victimKey);
+        if (candidateFrequency > victimFrequency) {
+            return true;
+        }
+        // A popular candidate occasionally wins a tie, so hash collisions
+        // cannot pin an attacker-chosen victim forever
+        return candidateFrequency >= 6 && (ThreadLocalRandom.current().nextInt() & 127) == 0;
+    }
+
+    private void evict(Node<K, V> node) {
+        data.remove(node.key, node);
+        unlink(node);
+        evictions.increment();
+    }
+
+    private void expire(Node<K, V> node) {
+        data.remove(node.key, node);
+        unlink(node);
+        expirations.increment();
+    }
+
+    private void unlink(Node<K, V> node) {
+        switch (node.queue) {
+            case WINDOW:
+                window.unlink(node);
+                windowWeight -= node.weight;
+                break;
+            case PROBATION:
+                probation.unlink(node);
+                break;
+            case PROTECTED:
+                protectedSpace.unlink(node);
+                protectedWeight -= node.weight;
+                break;
+            default:
+                return;
+        }
+        weightedSize -= node.weight;
+        node.queue = DEAD;
+        timerWheel.deschedule(node);
+    }
+
+    /**
+     * Cache entry; links are guarded by the policy lock
+     */
+    static final class Node<K, V> {
+        final K key;
+        volatile V value;
+        volatile long expiresAt;
+        int weight;
+        int queue = DEAD;
+        Node<K, V> prev;
+        Node<K, V> next;
+        Node<K, V> prevInTimer;
+        Node<K, V> nextInTimer;
+
+        Node(K key, V value, int weight, long expiresAt) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+
+    /**
+     * Intrusive doubly linked list in access order, eldest first
+     */
+    static final class AccessOrder<K, V> {
+        Node<K, V> first;
+        Node<K, V> last;
+
+        void addLast(Node<K, V> node) {
+            node.prev = last;
+            node.next = null;
+            if (last == null) {
+                first = node;
+            } else {
+                last.next = node;
+            }
+            last = node;
+        }
+
+        void unlink(Node<K, V> node) {
+            if (node.prev == null) {
+                first = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                last = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+        }
+
+        void moveToLast(Node<K, V> node) {
+            if (node != last) {
+                unlink(node);
+                addLast(node);
+            }
+        }
+
+        void clear() {
+            first = null;
+            last = null;
+        }
+    }
+
+    /**
+     * Count-min sketch of 4-bit counters, halved periodically so that old
+     * popularity fades
+     */
+    static final class FrequencySketch {
+        private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+        };
+        private static final long RESET_MASK = 0x7777777777777777L;
+
+        private long[] table;
+        private int tableMask;
+        private int sampleSize;
+        private int additions;
+
+        void ensureCapacity(long maximumSize) {
+            int capacity = (int) Math.min(Math.max(maximumSize, 16), 1 << 30);
+            if (table != null && table.length >= capacity) {
+                return;
+            }
+            table = new long[Integer.highestOneBit(capacity - 1) << 1];
+            tableMask = table.length - 1;
+            sampleSize = 10 * capacity;
+            additions = 0;
+        }
+
+        int capacity() {
+            return table.length;
+        }
+
+        int frequency(Object key) {
+            int hash = spread(key.hashCode());
+            int frequency = 15;
+            for (int i = 0; i < 4; i++) {
+                long count = (table[indexOf(hash, i)] >>> offsetOf(hash, i)) & 0xfL;
+                frequency = Math.min(frequency, (int) count);
+            }
+            return frequency;
+        }
+
+        void increment(Object key) {
+            int hash = spread(key.hashCode());
+            boolean added = false;
+            for (int i = 0; i < 4; i++) {
+                int index = indexOf(hash, i);
+                int offset = offsetOf(hash, i);
+                if (((table[index] >>> offset) & 0xfL) != 0xfL) {
+                    table[index] += 1L << offset;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= sampleSize) {
+                reset();
+            }
+        }
+
+        private void reset() {
+            for (int i = 0; i < table.length; i++) {
+                table[i] = (table[i] >>> 1) & RESET_MASK;
+            }
+            additions >>>= 1;
+        }
+
+        private int indexOf(int hash, int row) {
+            long h = (hash + SEEDS[row]) * SEEDS[row];
+            h += h >>> 32;
+            return (int) h & tableMask;
+        }
+
+        private static int offsetOf(int hash, int row) {
+            return ((hash >>> (row << 3)) & 15) << 2;
+        }
+
+        private static int spread(int hash) {
+            hash *= 0x9e3779b9;
+            return hash ^ (hash >>> 16);
+        }
+    }
+
+    /**
+     * Striped, lossy buffer of accesses awaiting the policy lock. A full
+     * stripe drops the access rather than block the reader.
+     */
+    static final class ReadBuffer<K, V> {
+        private static final int STRIPE_SIZE = 32;
+        private static final int STRIPE_MASK = STRIPE_SIZE - 1;
+        private static final int DRAIN_THRESHOLD = STRIPE_SIZE / 2;
+
+        private final Stripe<K, V>[] stripes;
+        private final int mask;
+
+        @SuppressWarnings("unchecked")
+        ReadBuffer() {
+            int count = Integer.highestOneBit(Math.max(4, Runtime.getRuntime().availableProcessors()) - 1) << 1;
+            stripes = new Stripe[Math.min(count, 64)];
+            for (int i = 0; i < stripes.length; i++) {
+                stripes[i] = new Stripe<>();
+            }
+            mask = stripes.length - 1;
+        }
+
+        /**
+         * @return true if the stripe is filling up and should be drained
+         */
+        boolean offer(Node<K, V> node) {
+            int probe = Thread.currentThread().hashCode() * 0x9e3779b9;
+            Stripe<K, V> stripe = stripes[(probe ^ (probe >>> 16)) & mask];
+            long tail = stripe.writeCounter.get();
+            long size = tail - stripe.readCounter;
+            if (size >= STRIPE_SIZE) {
+                return true;
+            }
+            if (stripe.writeCounter.compareAndSet(tail, tail + 1)) {
+                stripe.buffer.lazySet((int) (tail & STRIPE_MASK), node);
+            }
+            return size + 1 >= DRAIN_THRESHOLD;
+        }
+
+        /**
+         * Drain every stripe; must hold the policy lock
+         */
+        void drain(Consumer<Node<K, V>> consumer) {
+            for (Stripe<K, V> stripe : stripes) {
+                long head = stripe.readCounter;
+                long tail = stripe.writeCounter.get();
+                for (; head < tail; head++) {
+                    int index = (int) (head & STRIPE_MASK);
+                    Node<K, V> node = stripe.buffer.get(index);
+                    if (node == null) {
+                        // Claimed but not yet published; picked up next time
+                        break;
+                    }
+                    stripe.buffer.lazySet(index, null);
+                    consumer.accept(node);
+                }
+                stripe.readCounter = head;
+            }
+        }
+
+        static final class Stripe<K, V> {
+            final AtomicReferenceArray<Node<K, V>> buffer = new AtomicReferenceArray<>(STRIPE_SIZE);
+            final AtomicLong writeCounter = new AtomicLong();
+            volatile long readCounter;
+        }
+    }
+
+    /**
+     * Hierarchical timer wheel in milliseconds. Levels of buckets span about
+     * a second, a minute, an hour and a day; an entry sits in the bucket for
+     * its expiry at the finest level that covers it and is moved down a level
+     * as the wheel turns, so scheduling and expiry are O(1) per entry.
+     */
+    static final class TimerWheel<K, V> {
+        private static final int[] BUCKETS = {64, 64, 32, 4, 1};
+        private static final long[] SPANS = {
+            1L << 10, // 1.02s
+            1L << 16, // 1.09m
+            1L << 22, // 1.17h
+            1L << 27, // 1.55d
+            1L << 29, // 6.2d
+            1L << 29
+        };
+        private static final int[] SHIFT = {10, 16, 22, 27, 29};
+
+        private final Node<K, V>[][] wheel;
+        private long time;
+
+        @SuppressWarnings("unchecked")
+        TimerWheel(long now) {
+            this.time = now;
+            wheel = new Node[BUCKETS.length][];
+            for (int level = 0; level < BUCKETS.length; level++) {
+                wheel[level] = new Node[BUCKETS[level]];
+                for (int bucket = 0; bucket < BUCKETS[level]; bucket++) {
+                    wheel[level][bucket] = sentinel();
+                }
+            }
+        }
+
+        private static <K, V> Node<K, V> sentinel() {
+            Node<K, V> sentinel = new Node<>(null, null, 0, Long.MAX_VALUE);
+            sentinel.prevInTimer = sentinel;
+            sentinel.nextInTimer = sentinel;
+            return sentinel;
+        }
+
+        void schedule(Node<K, V> node) {
+            if (node.expiresAt == Long.MAX_VALUE) {
+                return;
+            }
+            Node<K, V> sentinel = findBucket(node.expiresAt);
+            node.prevInTimer = sentinel.prevInTimer;
+            node.nextInTimer = sentinel;
+            sentinel.prevInTimer.nextInTimer = node;
+            sentinel.prevInTimer = node;
+        }
+
+        void deschedule(Node<K, V> node) {
+            if (node.nextInTimer != null) {
+                node.nextInTimer.prevInTimer = node.prevInTimer;
+                node.prevInTimer.nextInTimer = node.nextInTimer;
+                node.nextInTimer = null;
+                node.prevInTimer = null;
+            }
+        }
+
+        /**
+         * Turn the wheel to the current time, expiring due entries and moving
+         * the rest of each passed bucket to a finer level
+         */
+        void advance(long now, Consumer<Node<K, V>> onExpired) {
+            long previous = time;
+            time = now;
+            for (int level = 0; level < SHIFT.length; level++) {
+                long previousTicks = previous >>> SHIFT[level];
+                long currentTicks = now >>> SHIFT[level];
+                long delta = currentTicks - previousTicks;
+                if (delta <= 0) {
+                    break;
+                }
+                expire(level, previousTicks, delta, onExpired);
+            }
+        }
+
+        private void expire(int level, long previousTicks, long delta,
+                            Consumer<Node<K, V>> onExpired) {
+            Node<K, V>[] buckets = wheel[level];
+            int mask = buckets.length - 1;
+            int steps = (int) Math.min(1 + delta, buckets.length);
+            int start = (int) (previousTicks & mask);
+            for (int i = start; i < start + steps; i++) {
+                Node<K, V> sentinel = buckets[i & mask];
+                Node<K, V> node = sentinel.nextInTimer;
+                sentinel.prevInTimer = sentinel;
+                sentinel.nextInTimer = sentinel;
+                while (node != sentinel) {
+                    Node<K, V> next = node.nextInTimer;
+                    node.prevInTimer = null;
+                    node.nextInTimer = null;
+                    if (node.isExpired(time)) {
+                        onExpired.accept(node);
+                    } else {
+                        schedule(node);
+                    }
+                    node = next;
+                }
+            }
+        }
+
+        private Node<K, V> findBucket(long expiresAt) {
+            long duration = expiresAt - time;
+            for (int level = 0; level < BUCKETS.length - 1; level++) {
+                if (duration < SPANS[level + 1]) {
+                    long ticks = expiresAt >>> SHIFT[level];
+                    return wheel[level][(int) (ticks & (BUCKETS[level] - 1))];
+                }
+            }
+            return wheel[BUCKETS.length - 1][0];
+        }
+
+        void clear() {
+            for (Node<K, V>[] buckets : wheel) {
+                for (Node<K, V> sentinel : buckets) {
+                    sentinel.prevInTimer = sentinel;
+                    sentinel.nextInTimer = sentinel;
+                }
+            }
+        }
+    }
+
+    /**
+     * Builder for {@link ConcurrentCache}
+     */
+    public static final class Builder<K, V> {
+        private long maximumSize = -1;
+        private long maximumWeight = -1;
+        private Weigher<? super K, ? super V> weigher;
+        private long expireAfterWriteMillis;
+        private LongSupplier clock = System::currentTimeMillis;
+
+        public Builder<K, V> maximumSize(long maximumSize) {
+            if (maximumSize < 0) {
+                throw new IllegalArgumentException("Maximum size must not be negative: " + maximumSize);
+            }
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        /**
+         * Bound the total weight instead of the entry count; requires a weigher
+         */
+        public Builder<K, V> maximumWeight(long maximumWeight) {
+            if (maximumWeight < 0) {
+                throw new IllegalArgumentException("Maximum weight must not be negative: " + maximumWeight);
+            }
+            this.maximumWeight = maximumWeight;
+            return this;
+        }
+
+        public Builder<K, V> weigher(Weigher<? super K, ? super V> weigher) {
+            this.weigher = Objects.requireNonNull(weigher, "weigher");
+            return this;
+        }
+
+        /**
+         * Default time to live for entries put without one
+         */
+        public Builder<K, V> expireAfterWrite(long duration, TimeUnit unit) {
+            if (duration <= 0) {
+                throw new IllegalArgumentException("Time to live must be positive: " + duration);
+            }
+            this.expireAfterWriteMillis = unit.toMillis(duration);
+            return this;
+        }
+
+        Builder<K, V> clock(LongSupplier clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        public ConcurrentCache<K, V> build() {
+            if ((maximumSize >= 0) == (maximumWeight >= 0)) {
+                throw new IllegalStateException("Exactly one of maximumSize or maximumWeight is required");
+            }
+            if ((maximumWeight >= 0) != (weigher != null)) {
+                throw new IllegalStateException("maximumWeight and weigher must be set together");
+            }
+            return new ConcurrentCache<>(this);
+        }
+    }
+
+    /**
+     * Cache counters
+     */
+    public static class CacheStatistics {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long expirations;
+        private final long size;
+        private final long maximum;
+
+        public CacheStatistics(long hits, long misses, long evictions, long expirations,
+                               long size, long maximum) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.expirations = expirations;
+            this.size = size;
+            this.maximum = maximum;
+        }
+
+        public long getHits() { return hits; }
+        public long getMisses() { return misses; }
+        public long getEvictions() { return evictions; }
+        public long getExpirations() { return expirations; }
+        public long getSize() { return size; }
+        public long getMaximum() { return maximum; }
+
+        public double getHitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                "CacheStatistics{size=%d, maximum=%d, hits=%d, misses=%d, hitRate=%.2f%%, evictions=%d, expirations=%d}",
+                size, maximum, hits, misses, getHitRate() * 100, evictions, expirations
+            );
+        }
+    }
+}
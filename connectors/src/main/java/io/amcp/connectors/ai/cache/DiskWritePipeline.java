@@ -0,0 +1,422 @@
+package io.amcp.connectors.ai.cache;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Single-writer pipeline that persists cache entries to a
+ * {@link SegmentedDiskStore} off the request path.
+ *
+ * Features:
+ * - One daemon writer thread instead of a thread per write
+ * - Bounded queue; a full queue drops the write (or waits a bounded time)
+ *   rather than slowing callers down
+ * - Coalescing: a key written again before it reaches disk is written once,
+ *   with the last value, in the place of its first write
+ * - Batched writes with a configurable fsync policy
+ * - Values are encoded on the writer thread, so coalesced values are never encoded
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+public class DiskWritePipeline<V> implements Closeable {
+
+    /**
+     * When the writer forces segment data to the device
+     */
+    public enum SyncPolicy {
+        /** Leave it to the operating system */
+        NEVER,
+        /** After every batch */
+        EVERY_BATCH,
+        /** After a batch, at most once per sync interval */
+        INTERVAL
+    }
+
+    /**
+     * Encodes a queued value into the stored record
+     */
+    @FunctionalInterface
+    public interface Encoder<V> {
+        byte[] encode(V value) throws IOException;
+    }
+
+    /**
+     * Pipeline configuration
+     */
+    public static class PipelineConfig {
+        private final int capacity;
+        private final int maxBatchSize;
+        private final long lingerMillis;
+        private final long maxBlockMillis;
+        private final SyncPolicy syncPolicy;
+        private final long syncIntervalMillis;
+
+        public PipelineConfig() {
+            this(4096, 256, 5, 0, SyncPolicy.INTERVAL, 1000);
+        }
+
+        /**
+         * @param capacity maximum number of distinct keys waiting to be written
+         * @param maxBatchSize maximum writes per batch
+         * @param lingerMillis how long the writer waits for a batch to fill
+         * @param maxBlockMillis how long a submit may wait for room before the
+         *                       write is dropped; 0 never blocks the caller
+         * @param syncPolicy when to fsync
+         * @param syncIntervalMillis minimum time between syncs for {@link SyncPolicy#INTERVAL}
+         */
+        public PipelineConfig(int capacity, int maxBatchSize, long lingerMillis, long maxBlockMillis,
+                              SyncPolicy syncPolicy, long syncIntervalMillis) {
+            if (capacity <= 0 || maxBatchSize <= 0) {
+                throw new IllegalArgumentException("Capacity and batch size must be positive");
+            }
+            this.capacity = capacity;
+            this.maxBatchSize = maxBatchSize;
+            this.lingerMillis = lingerMillis;
+            this.maxBlockMillis = maxBlockMillis;
+            this.syncPolicy = syncPolicy;
+            this.syncIntervalMillis = syncIntervalMillis;
+        }
+
+        public int getCapacity() { return capacity; }
+        public int getMaxBatchSize() { return maxBatchSize; }
+        public long getLingerMillis() { return lingerMillis; }
+        public long getMaxBlockMillis() { return maxBlockMillis; }
+        public SyncPolicy getSyncPolicy() { return syncPolicy; }
+        public long getSyncIntervalMillis() { return syncIntervalMillis; }
+    }
+
+    private final SegmentedDiskStore store;
+    private final Encoder<V> encoder;
+    private final PipelineConfig config;
+    private final Thread writer;
+
+    // Guarded by lock; insertion order is submission order
+    private final LinkedHashMap<String, PendingWrite<V>> pending = new LinkedHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition batchReady = lock.newCondition();
+    private final Condition progress = lock.newCondition();
+    private long sequence;
+    private boolean inFlight;
+    private boolean closed;
+    private long lastSync = System.currentTimeMillis();
+
+    // Statistics
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder blocked = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder syncs = new LongAdder();
+
+    public DiskWritePipeline(SegmentedDiskStore store, Encoder<V> encoder) {
+        this(store, encoder, new PipelineConfig());
+    }
+
+    public DiskWritePipeline(SegmentedDiskStore store, Encoder<V> encoder, PipelineConfig config) {
+        this.store = store;
+        this.encoder = encoder;
+        this.config = config;
+        this.writer = new Thread(this::runWriter, "amcp-cache-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Queue a write, replacing any queued write for the same key
+     *
+     * @return false if the write was dropped because the queue is full or closed
+     */
+    public boolean submit(String key, V value, long expiresAt) {
+        lock.lock();
+        try {
+            if (closed) {
+                dropped.increment();
+                return false;
+            }
+            PendingWrite<V> previous = pending.get(key);
+            if (previous == null && pending.size() >= config.getCapacity()) {
+                if (!awaitRoom()) {
+                    dropped.increment();
+                    return false;
+                }
+                // Another submit may have queued the key while we waited
+                previous = pending.get(key);
+            }
+            if (previous != null) {
+                coalesced.increment();
+            }
+            // A coalesced write keeps its place and sequence, so a flush that
+            // was waiting for the earlier value also waits for this one
+            long writeSequence = previous != null ? previous.sequence : ++sequence;
+            pending.put(key, new PendingWrite<>(key, value, expiresAt, writeSequence));
+            submitted.increment();
+            notEmpty.signal();
+            if (pending.size() >= config.getMaxBatchSize()) {
+                batchReady.signal();
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean awaitRoom() {
+        long remaining = TimeUnit.MILLISECONDS.toNanos(config.getMaxBlockMillis());
+        if (remaining <= 0) {
+            return false;
+        }
+        blocked.increment();
+        try {
+            while (pending.size() >= config.getCapacity() && !closed) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = progress.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return !closed;
+    }
+
+    /**
+     * Wait until every write submitted before this call has reached the store
+     */
+    public void flush() throws InterruptedException {
+        lock.lock();
+        try {
+            long target = sequence;
+            batchReady.signal();
+            while (inFlight || (!pending.isEmpty() && firstSequence() <= target)) {
+                progress.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drop queued writes and wait for any batch in progress, e.g. before
+     * clearing the store
+     */
+    public void discardPending() throws InterruptedException {
+        lock.lock();
+        try {
+            pending.clear();
+            progress.signalAll();
+            while (inFlight) {
+                progress.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stop accepting writes, write what is queued and sync
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            notEmpty.signal();
+            batchReady.signal();
+            progress.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getPendingCount() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long firstSequence() {
+        return pending.values().iterator().next().sequence;
+    }
+
+    private void runWriter() {
+        while (true) {
+            List<PendingWrite<V>> batch = nextBatch();
+            if (batch == null) {
+                break;
+            }
+            try {
+                writeBatch(batch);
+            } finally {
+                lock.lock();
+                try {
+                    inFlight = false;
+                    progress.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+        try {
+            store.sync();
+            syncs.increment();
+        } catch (IOException e) {
+            System.err.println("Failed to sync cache store: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return the next batch, or null once closed and drained
+     */
+    private List<PendingWrite<V>> nextBatch() {
+        lock.lock();
+        try {
+            while (pending.isEmpty()) {
+                if (closed) {
+                    return null;
+                }
+                notEmpty.awaitUninterruptibly();
+            }
+            if (pending.size() < config.getMaxBatchSize() && !closed && config.getLingerMillis() > 0) {
+                try {
+                    batchReady.await(config.getLingerMillis(), TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    // Write what is queued
+                }
+                if (pending.isEmpty()) {
+                    // Discarded while lingering
+                    return new ArrayList<>();
+                }
+            }
+            List<PendingWrite<V>> batch = new ArrayList<>(Math.min(pending.size(), config.getMaxBatchSize()));
+            Iterator<PendingWrite<V>> iterator = pending.values().iterator();
+            while (iterator.hasNext() && batch.size() < config.getMaxBatchSize()) {
+                batch.add(iterator.next());
+                iterator.remove();
+            }
+            inFlight = true;
+            progress.signalAll();
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void writeBatch(List<PendingWrite<V>> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        for (PendingWrite<V> write : batch) {
+            try {
+                store.put(write.key, encoder.encode(write.value), write.expiresAt);
+                written.increment();
+            } catch (IOException | RuntimeException e) {
+                failed.increment();
+                System.err.println("Failed to persist cache entry: " + e.getMessage());
+            }
+        }
+        batches.increment();
+
+        SyncPolicy policy = config.getSyncPolicy();
+        long now = System.currentTimeMillis();
+        if (policy == SyncPolicy.EVERY_BATCH
+                || (policy == SyncPolicy.INTERVAL && now - lastSync >= config.getSyncIntervalMillis())) {
+            try {
+                store.sync();
+                syncs.increment();
+                lastSync = now;
+            } catch (IOException e) {
+                System.err.println("Failed to sync cache store: " + e.getMessage());
+            }
+        }
+    }
+
+    public PipelineStatistics getStatistics() {
+        return new PipelineStatistics(submitted.sum(), coalesced.sum(), dropped.sum(), blocked.sum(),
+                                      written.sum(), failed.sum(), batches.sum(), syncs.sum(),
+                                      getPendingCount());
+    }
+
+    private static final class PendingWrite<V> {
+        final String key;
+        final V value;
+        final long expiresAt;
+        final long sequence;
+
+        PendingWrite(String key, V value, long expiresAt, long sequence) {
+            this.key = key;
+            this.value = value;
+            this.expiresAt = expiresAt;
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     * Pipeline counters
+     */
+    public static class PipelineStatistics {
+        private final long submitted;
+        private final long coalesced;
+        private final long dropped;
+        private final long blocked;
+        private final long written;
+        private final long failed;
+        private final long batches;
+        private final long syncs;
+        private final int pending;
+
+        public PipelineStatistics(long submitted, long coalesced, long dropped, long blocked, long written,
+                                  long failed, long batches, long syncs, int pending) {
+            this.submitted = submitted;
+            this.coalesced = coalesced;
+            this.dropped = dropped;
+            this.blocked = blocked;
+            this.written = written;
+            this.failed = failed;
+            this.batches = batches;
+            this.syncs = syncs;
+            this.pending = pending;
+        }
+
+        public long getSubmitted() { return submitted; }
+        public long getCoalesced() { return coalesced; }
+        public long getDropped() { return dropped; }
+        public long getBlocked() { return blocked; }
+        public long getWritten() { return written; }
+        public long getFailed() { return failed; }
+        public long getBatches() { return batches; }
+        public long getSyncs() { return syncs; }
+        public int getPending() { return pending; }
+
+        @Override
+        public String toString() {
+            return String.format(
+                "PipelineStatistics{submitted=%d, coalesced=%d, dropped=%d, blocked=%d, written=%d, failed=%d, batches=%d, syncs=%d, pending=%d}",
+                submitted, coalesced, dropped, blocked, written, failed, batches, syncs, pending
+            );
+        }
+    }
+}
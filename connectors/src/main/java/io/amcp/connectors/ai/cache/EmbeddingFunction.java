@@ -0,0 +1,18 @@
+package io.amcp.connectors.ai.cache;
+
+/**
+ * Maps text to a fixed-length vector for semantic lookups.
+ * Implementations must be thread-safe and deterministic; vectors are
+ * compared by cosine similarity.
+ * 
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+@FunctionalInterface
+public interface EmbeddingFunction {
+    
+    /**
+     * Embed text; every call must return vectors of the same length
+     */
+    float[] embed(String text);
+}
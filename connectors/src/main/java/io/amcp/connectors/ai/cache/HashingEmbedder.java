@@ -0,0 +1,129 @@
+package io.amcp.connectors.ai.cache;
+
+import java.util.Set;
+
+/**
+ * Local CPU embedder using feature hashing.
+ *
+ * Features are hashed to signed slots of the vector, and the result is
+ * L2-normalized:
+ * - Each content word, and the character trigrams of words so inflections
+ *   and typos still land nearby
+ * - Numbers, operators and negations, weighted above ordinary words so
+ *   "10 USD" / "100 USD" or "safe" / "not safe" stay apart
+ * - Bigrams of neighbouring tokens, including prepositions, so word order
+ *   counts: "from Paris to London" is not "from London to Paris"
+ *
+ * Filler words ("the", "please", "what's") are dropped, so rephrasings that
+ * only add filler embed identically. Feature hashing cannot tell antonyms
+ * apart ("buy" / "sell"), which is why {@link SemanticCache} uses a high
+ * threshold and also requires the literals of both prompts to match. No
+ * model, GPU or network is involved, and embedding a prompt takes
+ * microseconds.
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+public class HashingEmbedder implements EmbeddingFunction {
+
+    public static final int DEFAULT_DIMENSIONS = 512;
+
+    private static final float WORD_WEIGHT = 1.0f;
+    private static final float LITERAL_WEIGHT = 2.0f;
+    private static final float TRIGRAM_WEIGHT = 0.3f;
+    private static final float BIGRAM_WEIGHT = 1.0f;
+
+    // Carry no meaning of their own; dropped entirely
+    private static final Set<String> FILLER_WORDS = Set.of(
+        "a", "an", "the", "is", "are", "was", "were", "be", "do", "does", "did", "can", "could", "would",
+        "should", "i", "me", "my", "you", "your", "it", "its", "this", "that", "what", "whats", "which",
+        "please", "tell", "about", "give", "show", "how", "s"
+    );
+
+    // Relate their neighbours; kept for bigrams only
+    private static final Set<String> RELATION_WORDS = Set.of(
+        "and", "or", "of", "in", "on", "at", "to", "into", "for", "from", "by", "with", "than", "vs",
+        "versus", "before", "after", "over", "under"
+    );
+
+    private final int dimensions;
+
+    public HashingEmbedder() {
+        this(DEFAULT_DIMENSIONS);
+    }
+
+    public HashingEmbedder(int dimensions) {
+        if (dimensions < 16) {
+            throw new IllegalArgumentException("Too few dimensions: " + dimensions);
+        }
+        this.dimensions = dimensions;
+    }
+
+    public int getDimensions() {
+        return dimensions;
+    }
+
+    @Override
+    public float[] embed(String text) {
+        float[] vector = new float[dimensions];
+        String previous = null;
+        for (String token : PromptTokens.tokenize(text)) {
+            if (FILLER_WORDS.contains(token)) {
+                continue;
+            }
+            if (PromptTokens.isLiteral(token)) {
+                add(vector, hash(token, 0, token.length(), 0x9747b28c), LITERAL_WEIGHT);
+            } else if (!RELATION_WORDS.contains(token)) {
+                addWord(vector, token);
+            }
+            if (previous != null) {
+                String bigram = previous + ' ' + token;
+                add(vector, hash(bigram, 0, bigram.length(), 0x1b873593), BIGRAM_WEIGHT);
+            }
+            previous = token;
+        }
+        normalize(vector);
+        return vector;
+    }
+
+    private void addWord(float[] vector, String word) {
+        add(vector, hash(word, 0, word.length(), 0x9747b28c), WORD_WEIGHT);
+
+        // Trigrams over "^word$" so short words still contribute
+        String padded = "^" + word + "$";
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            add(vector, hash(padded, i, i + 3, 0x5bd1e995), TRIGRAM_WEIGHT);
+        }
+    }
+
+    private void add(float[] vector, int hash, float weight) {
+        int slot = Math.floorMod(hash, dimensions);
+        vector[slot] += (hash & 0x40000000) != 0 ? weight : -weight;
+    }
+
+    private static int hash(String text, int from, int to, int seed) {
+        int h = seed;
+        for (int i = from; i < to; i++) {
+            h ^= text.charAt(i);
+            h *= 0x01000193;
+        }
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        return h;
+    }
+
+    static void normalize(float[] vector) {
+        double sum = 0;
+        for (float value : vector) {
+            sum += value * value;
+        }
+        if (sum == 0) {
+            return;
+        }
+        float scale = (float) (1.0 / Math.sqrt(sum));
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] *= scale;
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package io.amcp.connectors.ai.cache;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * In-memory HNSW (hierarchical navigable small world) index over unit
+ * vectors, scored by dot product, i.e. cosine similarity.
+ *
+ * Each vector is linked to its nearest neighbours on layer 0 and, with
+ * geometrically falling probability, on sparser upper layers; a search
+ * descends greedily from the top layer and then explores a bounded beam on
+ * layer 0, so lookups touch O(log n) nodes instead of every vector.
+ * Removal marks a node deleted; deleted nodes still route searches but are
+ * never returned.
+ *
+ * Not thread-safe: callers serialize writes and may run searches
+ * concurrently with each other but not with writes.
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+final class HnswIndex {
+
+    /**
+     * A search result
+     */
+    static final class Neighbor {
+        final int id;
+        final float similarity;
+
+        Neighbor(int id, float similarity) {
+            this.id = id;
+            this.similarity = similarity;
+        }
+    }
+
+    private static final Comparator<Neighbor> CLOSEST_FIRST =
+        (a, b) -> Float.compare(b.similarity, a.similarity);
+    private static final Comparator<Neighbor> FARTHEST_FIRST =
+        (a, b) -> Float.compare(a.similarity, b.similarity);
+
+    private final int maxConnections;
+    private final int maxConnectionsLayer0;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final Random random;
+
+    private final List<Node> nodes = new ArrayList<>();
+    private int entryPoint = -1;
+    private int topLevel = -1;
+    private int deletedCount;
+
+    HnswIndex() {
+        this(16, 100, 42);
+    }
+
+    HnswIndex(int maxConnections, int efConstruction, long seed) {
+        this.maxConnections = maxConnections;
+        this.maxConnectionsLayer0 = 2 * maxConnections;
+        this.efConstruction = efConstruction;
+        this.levelMultiplier = 1.0 / Math.log(maxConnections);
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Add a vector
+     *
+     * @return its id, assigned sequentially from 0
+     */
+    int add(float[] vector) {
+        int id = nodes.size();
+        int level = (int) (-Math.log(1.0 - random.nextDouble()) * levelMultiplier);
+        Node node = new Node(vector, level, maxConnections, maxConnectionsLayer0);
+        nodes.add(node);
+        if (entryPoint < 0) {
+            entryPoint = id;
+            topLevel = level;
+            return id;
+        }
+
+        int current = entryPoint;
+        for (int layer = topLevel; layer > level; layer--) {
+            current = greedyClosest(vector, current, layer);
+        }
+        for (int layer = Math.min(level, topLevel); layer >= 0; layer--) {
+            List<Neighbor> candidates = searchLayer(vector, current, efConstruction, layer);
+            int limit = layer == 0 ? maxConnectionsLayer0 : maxConnections;
+            List<Neighbor> selected = selectNeighbors(candidates, maxConnections);
+            for (Neighbor neighbor : selected) {
+                node.link(layer, neighbor.id);
+                connect(neighbor.id, id, layer, limit);
+            }
+            current = candidates.get(0).id;
+        }
+        if (level > topLevel) {
+            entryPoint = id;
+            topLevel = level;
+        }
+        return id;
+    }
+
+    /**
+     * Mark a vector deleted
+     */
+    void remove(int id) {
+        Node node = nodes.get(id);
+        if (!node.deleted) {
+            node.deleted = true;
+            deletedCount++;
+        }
+    }
+
+    boolean isDeleted(int id) {
+        return nodes.get(id).deleted;
+    }
+
+    /**
+     * Find up to k live vectors most similar to the query, closest first
+     *
+     * @param ef beam width on layer 0; larger is more accurate and slower
+     */
+    List<Neighbor> search(float[] query, int k, int ef) {
+        if (entryPoint < 0) {
+            return new ArrayList<>();
+        }
+        int current = entryPoint;
+        for (int layer = topLevel; layer > 0; layer--) {
+            current = greedyClosest(query, current, layer);
+        }
+        List<Neighbor> candidates = searchLayer(query, current, Math.max(ef, k), 0);
+        List<Neighbor> results = new ArrayList<>(k);
+        for (Neighbor candidate : candidates) {
+            if (!nodes.get(candidate.id).deleted) {
+                results.add(candidate);
+                if (results.size() == k) {
+                    break;
+                }
+            }
+        }
+        return results;
+    }
+
+    float[] vector(int id) {
+        return nodes.get(id).vector;
+    }
+
+    int size() {
+        return nodes.size();
+    }
+
+    int liveCount() {
+        return nodes.size() - deletedCount;
+    }
+
+    int deletedCount() {
+        return deletedCount;
+    }
+
+    private int greedyClosest(float[] query, int start, int layer) {
+        int current = start;
+        float best = dot(query, nodes.get(current).vector);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            Node node = nodes.get(current);
+            int[] links = node.links[layer];
+            for (int i = 0; i < node.linkCounts[layer]; i++) {
+                float similarity = dot(query, nodes.get(links[i]).vector);
+                if (similarity > best) {
+                    best = similarity;
+                    current = links[i];
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Beam search on one layer
+     *
+     * @return up to ef nodes, closest first, deleted ones included
+     */
+    private List<Neighbor> searchLayer(float[] query, int start, int ef, int layer) {
+        BitSet visited = new BitSet(nodes.size());
+        PriorityQueue<Neighbor> candidates = new PriorityQueue<>(CLOSEST_FIRST);
+        PriorityQueue<Neighbor> results = new PriorityQueue<>(FARTHEST_FIRST);
+        Neighbor first = new Neighbor(start, dot(query, nodes.get(start).vector));
+        visited.set(start);
+        candidates.add(first);
+        results.add(first);
+
+        while (!candidates.isEmpty()) {
+            Neighbor candidate = candidates.poll();
+            if (candidate.similarity < results.peek().similarity && results.size() >= ef) {
+                break;
+            }
+            Node node = nodes.get(candidate.id);
+            int[] links = node.links[layer];
+            for (int i = 0; i < node.linkCounts[layer]; i++) {
+                int neighborId = links[i];
+                if (visited.get(neighborId)) {
+                    continue;
+                }
+                visited.set(neighborId);
+                float similarity = dot(query, nodes.get(neighborId).vector);
+                if (results.size() < ef || similarity > results.peek().similarity) {
+                    Neighbor neighbor = new Neighbor(neighborId, similarity);
+                    candidates.add(neighbor);
+                    results.add(neighbor);
+                    if (results.size() > ef) {
+                        results.poll();
+                    }
+                }
+            }
+        }
+
+        List<Neighbor> ordered = new ArrayList<>(results);
+        ordered.sort(CLOSEST_FIRST);
+        return ordered;
+    }
+
+    /**
+     * Keep candidates that are closer to the new node than to any neighbour
+     * already kept, which preserves links in several directions; fill any
+     * remaining slots with the closest leftovers
+     */
+    private List<Neighbor> selectNeighbors(List<Neighbor> candidates, int count) {
+        List<Neighbor> selected = new ArrayList<>(count);
+        List<Neighbor> skipped = new ArrayList<>();
+        for (Neighbor candidate : candidates) {
+            if (selected.size() >= count) {
+                break;
+            }
+            float[] vector = nodes.get(candidate.id).vector;
+            boolean diverse = true;
+            for (Neighbor kept : selected) {
+                if (dot(vector, nodes.get(kept.id).vector) > candidate.similarity) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                selected.add(candidate);
+            } else {
+                skipped.add(candidate);
+            }
+        }
+        for (int i = 0; i < skipped.size() && selected.size() < count; i++) {
+            selected.add(skipped.get(i));
+        }
+        return selected;
+    }
+
+    /**
+     * Link from an existing node, dropping its least similar link if full
+     */
+    private void connect(int from, int to, int layer, int limit) {
+        Node node = nodes.get(from);
+        if (node.linkCounts[layer] < limit) {
+            node.link(layer, to);
+            return;
+        }
+        int[] links = node.links[layer];
+        int weakest = -1;
+        float weakestSimilarity = dot(node.vector, nodes.get(to).vector);
+        for (int i = 0; i < limit; i++) {
+            float similarity = dot(node.vector, nodes.get(links[i]).vector);
+            if (similarity < weakestSimilarity) {
+                weakestSimilarity = similarity;
+                weakest = i;
+            }
+        }
+        if (weakest >= 0) {
+            links[weakest] = to;
+        }
+    }
+
+    static float dot(float[] a, float[] b) {
+        float sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    private static final class Node {
+        final float[] vector;
+        final int[][] links;
+        final int[] linkCounts;
+        boolean deleted;
+
+        Node(float[] vector, int level, int maxConnections, int maxConnectionsLayer0) {
+            this.vector = vector;
+            this.links = new int[level + 1][];
+            this.linkCounts = new int[level + 1];
+            links[0] = new int[maxConnectionsLayer0];
+            for (int layer = 1; layer <= level; layer++) {
+                links[layer] = new int[maxConnections];
+            }
+        }
+
+        void link(int layer, int to) {
+            links[layer][linkCounts[layer]++] = to;
+        }
+    }
+}
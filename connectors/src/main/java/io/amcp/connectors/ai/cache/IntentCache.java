@@ -2,7 +2,6 @@ package io.amcp.connectors.ai.cache;
 
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -12,7 +11,7 @@ import java.util.concurrent.TimeUnit;
  * Features:
  * - Thread-safe concurrent cache
  * - TTL-based expiration
- * - LRU eviction policy
+ * - Frequency-aware eviction with O(1) updates ({@link ConcurrentCache})
  * - Cache statistics and monitoring
  * 
  * @author AMCP Development Team
@@ -23,23 +22,21 @@ public class IntentCache {
     private static final int DEFAULT_MAX_SIZE = 1000;
     private static final long DEFAULT_TTL_MINUTES = 60;
     
-    private final Map<String, CacheEntry> cache;
+    private final ConcurrentCache<String, CachedIntent> cache;
     private final int maxSize;
-    private final long ttlMillis;
-    
-    // Statistics
-    private long hits = 0;
-    private long misses = 0;
-    private long evictions = 0;
     
     public IntentCache() {
         this(DEFAULT_MAX_SIZE, DEFAULT_TTL_MINUTES);
     }
     
     public IntentCache(int maxSize, long ttlMinutes) {
-        this.cache = new ConcurrentHashMap<>();
+        ConcurrentCache.Builder<String, CachedIntent> builder = ConcurrentCache.<String, CachedIntent>builder()
+            .maximumSize(maxSize);
+        if (ttlMinutes > 0) {
+            builder.expireAfterWrite(ttlMinutes, TimeUnit.MINUTES);
+        }
+        this.cache = builder.build();
         this.maxSize = maxSize;
-        this.ttlMillis = TimeUnit.MINUTES.toMillis(ttlMinutes);
     }
     
     /**
@@ -71,73 +68,18 @@ public class IntentCache {
         public long getTimestamp() { return timestamp; }
     }
     
-    /**
-     * Internal cache entry with metadata
-     */
-    private static class CacheEntry {
-        private final CachedIntent intent;
-        private final long expiryTime;
-        private long lastAccessTime;
-        private int accessCount;
-        
-        public CacheEntry(CachedIntent intent, long ttlMillis) {
-            this.intent = intent;
-            this.expiryTime = System.currentTimeMillis() + ttlMillis;
-            this.lastAccessTime = System.currentTimeMillis();
-            this.accessCount = 0;
-        }
-        
-        public boolean isExpired() {
-            return System.currentTimeMillis() > expiryTime;
-        }
-        
-        public void recordAccess() {
-            this.lastAccessTime = System.currentTimeMillis();
-            this.accessCount++;
-        }
-        
-        public CachedIntent getIntent() { return intent; }
-        public long getLastAccessTime() { return lastAccessTime; }
-        public int getAccessCount() { return accessCount; }
-    }
-    
     /**
      * Get cached intent for a query
      */
     public Optional<CachedIntent> get(String query) {
-        String key = normalizeQuery(query);
-        CacheEntry entry = cache.get(key);
-        
-        if (entry == null) {
-            misses++;
-            return Optional.empty();
-        }
-        
-        if (entry.isExpired()) {
-            cache.remove(key);
-            misses++;
-            evictions++;
-            return Optional.empty();
-        }
-        
-        entry.recordAccess();
-        hits++;
-        return Optional.of(entry.getIntent());
+        return Optional.ofNullable(cache.getIfPresent(normalizeQuery(query)));
     }
     
     /**
      * Put intent in cache
      */
     public void put(String query, CachedIntent intent) {
-        String key = normalizeQuery(query);
-        
-        // Check size limit and evict if necessary
-        if (cache.size() >= maxSize) {
-            evictLRU();
-        }
-        
-        CacheEntry entry = new CacheEntry(intent, ttlMillis);
-        cache.put(key, entry);
+        cache.put(normalizeQuery(query), intent);
     }
     
     /**
@@ -147,60 +89,33 @@ public class IntentCache {
         return query.toLowerCase().trim().replaceAll("\\s+", " ");
     }
     
-    /**
-     * Evict least recently used entry
-     */
-    private void evictLRU() {
-        String lruKey = null;
-        long oldestAccess = Long.MAX_VALUE;
-        
-        for (Map.Entry<String, CacheEntry> entry : cache.entrySet()) {
-            if (entry.getValue().getLastAccessTime() < oldestAccess) {
-                oldestAccess = entry.getValue().getLastAccessTime();
-                lruKey = entry.getKey();
-            }
-        }
-        
-        if (lruKey != null) {
-            cache.remove(lruKey);
-            evictions++;
-        }
-    }
-    
     /**
      * Clear expired entries
      */
     public void cleanupExpired() {
-        cache.entrySet().removeIf(entry -> {
-            if (entry.getValue().isExpired()) {
-                evictions++;
-                return true;
-            }
-            return false;
-        });
+        cache.cleanUp();
     }
     
     /**
      * Clear all cache entries
      */
     public void clear() {
-        cache.clear();
-        hits = 0;
-        misses = 0;
-        evictions = 0;
+        cache.invalidateAll();
+        cache.resetStatistics();
     }
     
     /**
      * Get cache statistics
      */
     public CacheStats getStats() {
+        ConcurrentCache.CacheStatistics stats = cache.getStatistics();
         return new CacheStats(
-            cache.size(),
+            (int) stats.getSize(),
             maxSize,
-            hits,
-            misses,
-            evictions,
-            getHitRate()
+            stats.getHits(),
+            stats.getMisses(),
+            stats.getEvictions() + stats.getExpirations(),
+            stats.getHitRate()
         );
     }
     
@@ -208,8 +123,7 @@ public class IntentCache {
      * Calculate cache hit rate
      */
     public double getHitRate() {
-        long total = hits + misses;
-        return total == 0 ? 0.0 : (double) hits / total;
+        return cache.getStatistics().getHitRate();
     }
     
     /**
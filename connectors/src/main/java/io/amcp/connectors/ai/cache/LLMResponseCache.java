@@ -1,10 +1,12 @@
 package io.amcp.connectors.ai.cache;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.security.MessageDigest;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Persistent caching layer for LLM responses.
@@ -12,9 +14,15 @@ import java.util.concurrent.ConcurrentHashMap;
  * 
  * Features:
  * - Two-tier caching (memory + disk)
- * - Persistent storage across restarts
- * - Configurable TTL and size limits
- * - Automatic cleanup of stale entries
+ * - Persistent storage across restarts in a log-structured
+ *   {@link SegmentedDiskStore}: one positioned read per disk lookup.
+ *   Caches on one directory in this process share its store; a cache whose
+ *   directory another process has open runs memory-only
+ * - Configurable TTL and size limits; the memory tier is a
+ *   {@link ConcurrentCache}, so eviction is O(1) and frequency-aware
+ * - Automatic cleanup of stale entries without scanning the directory
+ * - Disk writes batched and coalesced on one {@link DiskWritePipeline} thread
+ * - Optional {@link SemanticCache} tier answering paraphrased prompts
  * 
  * @author AMCP Development Team
  * @version 1.5.0
@@ -25,27 +33,48 @@ public class LLMResponseCache {
     private static final long DEFAULT_TTL_HOURS = 24;
     private static final int DEFAULT_MAX_MEMORY_ENTRIES = 500;
     
+    // Open disk stores by directory, shared by the caches using them
+    private static final Map<Path, SharedStore> OPEN_STORES = new HashMap<>();
+    
     private final Path cacheDirectory;
+    private final SegmentedDiskStore diskStore;
+    private final DiskWritePipeline<CachedResponse> diskWriter;
     private final long ttlMillis;
     private final int maxMemoryEntries;
-    private final Map<String, CachedResponse> memoryCache;
+    private final ConcurrentCache<String, CachedResponse> memoryCache;
     
     // Statistics
-    private long memoryHits = 0;
-    private long diskHits = 0;
-    private long misses = 0;
+    private final LongAdder memoryHits = new LongAdder();
+    private final LongAdder diskHits = new LongAdder();
+    private final LongAdder semanticHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    
+    private volatile SemanticCache semanticCache;
+    private boolean closed;
     
     public LLMResponseCache() {
         this(DEFAULT_CACHE_DIR, DEFAULT_TTL_HOURS, DEFAULT_MAX_MEMORY_ENTRIES);
     }
     
     public LLMResponseCache(String cacheDir, long ttlHours, int maxMemoryEntries) {
+        this(cacheDir, ttlHours, maxMemoryEntries, new DiskWritePipeline.PipelineConfig());
+    }
+    
+    /**
+     * @param writeConfig queueing, batching and fsync settings for disk writes
+     */
+    public LLMResponseCache(String cacheDir, long ttlHours, int maxMemoryEntries,
+                            DiskWritePipeline.PipelineConfig writeConfig) {
         this.cacheDirectory = Paths.get(System.getProperty("user.home"), cacheDir);
         this.ttlMillis = ttlHours * 3600 * 1000;
         this.maxMemoryEntries = maxMemoryEntries;
-        this.memoryCache = new ConcurrentHashMap<>();
-        
-        initializeCacheDirectory();
+        this.memoryCache = ConcurrentCache.<String, CachedResponse>builder()
+            .maximumSize(maxMemoryEntries)
+            .build();
+        this.diskStore = openDiskStore(cacheDirectory);
+        this.diskWriter = diskStore != null
+            ? new DiskWritePipeline<>(diskStore, LLMResponseCache::encode, writeConfig)
+            : null;
     }
     
     /**
@@ -61,11 +90,16 @@ public class LLMResponseCache {
         
         public CachedResponse(String prompt, String response, String model,
                              Map<String, Object> parameters, long ttlMillis) {
+            this(prompt, response, model, parameters, System.currentTimeMillis(), ttlMillis);
+        }
+        
+        private CachedResponse(String prompt, String response, String model,
+                               Map<String, Object> parameters, long timestamp, long ttlMillis) {
             this.prompt = prompt;
             this.response = response;
             this.model = model;
             this.parameters = new HashMap<>(parameters);
-            this.timestamp = System.currentTimeMillis();
+            this.timestamp = timestamp;
             this.expiryTime = timestamp + ttlMillis;
         }
         
@@ -82,13 +116,56 @@ public class LLMResponseCache {
     }
     
     /**
-     * Initialize cache directory
+     * A disk store and the number of caches using it
      */
-    private void initializeCacheDirectory() {
-        try {
-            Files.createDirectories(cacheDirectory);
-        } catch (IOException e) {
-            System.err.println("Failed to create cache directory: " + e.getMessage());
+    private static final class SharedStore {
+        final SegmentedDiskStore store;
+        int references;
+        
+        SharedStore(SegmentedDiskStore store) {
+            this.store = store;
+        }
+    }
+    
+    /**
+     * Open the disk tier, or join the one already open on the directory;
+     * without one the cache runs memory-only
+     */
+    private static SegmentedDiskStore openDiskStore(Path directory) {
+        synchronized (OPEN_STORES) {
+            try {
+                Files.createDirectories(directory);
+                Path key = directory.toRealPath();
+                SharedStore shared = OPEN_STORES.get(key);
+                if (shared == null) {
+                    shared = new SharedStore(new SegmentedDiskStore(key));
+                    OPEN_STORES.put(key, shared);
+                }
+                shared.references++;
+                return shared.store;
+            } catch (IOException e) {
+                System.err.println("Failed to open cache directory, caching in memory only: " + e.getMessage());
+                return null;
+            }
+        }
+    }
+    
+    /**
+     * Leave the disk tier; the last cache using it closes it
+     */
+    private static void releaseDiskStore(SegmentedDiskStore store) throws IOException {
+        synchronized (OPEN_STORES) {
+            Iterator<Map.Entry<Path, SharedStore>> it = OPEN_STORES.entrySet().iterator();
+            while (it.hasNext()) {
+                SharedStore shared = it.next().getValue();
+                if (shared.store == store) {
+                    if (--shared.references == 0) {
+                        it.remove();
+                        store.close();
+                    }
+                    return;
+                }
+            }
         }
     }
     
@@ -99,9 +176,9 @@ public class LLMResponseCache {
         String cacheKey = generateCacheKey(prompt, model, parameters);
         
         // Check memory cache first
-        CachedResponse memoryEntry = memoryCache.get(cacheKey);
-        if (memoryEntry != null && !memoryEntry.isExpired()) {
-            memoryHits++;
+        CachedResponse memoryEntry = memoryCache.getIfPresent(cacheKey);
+        if (memoryEntry != null) {
+            memoryHits.increment();
             return Optional.of(memoryEntry.getResponse());
         }
         
@@ -109,12 +186,22 @@ public class LLMResponseCache {
         Optional<CachedResponse> diskEntry = loadFromDisk(cacheKey);
         if (diskEntry.isPresent() && !diskEntry.get().isExpired()) {
             // Promote to memory cache
-            memoryCache.put(cacheKey, diskEntry.get());
-            diskHits++;
+            putInMemory(cacheKey, diskEntry.get());
+            diskHits.increment();
             return Optional.of(diskEntry.get().getResponse());
         }
         
-        misses++;
+        // Check for an equivalent prompt
+        SemanticCache semantic = semanticCache;
+        if (semantic != null) {
+            Optional<SemanticCache.Match> match = semantic.lookup(prompt, model, parameters);
+            if (match.isPresent()) {
+                semanticHits.increment();
+                return Optional.of(match.get().getResponse());
+            }
+        }
+        
+        misses.increment();
         return Optional.empty();
     }
     
@@ -126,19 +213,62 @@ public class LLMResponseCache {
         CachedResponse cachedResponse = new CachedResponse(prompt, response, model, parameters, ttlMillis);
         
         // Store in memory cache
-        if (memoryCache.size() >= maxMemoryEntries) {
-            evictOldestMemoryEntry();
-        }
-        memoryCache.put(cacheKey, cachedResponse);
+        putInMemory(cacheKey, cachedResponse);
         
         // Persist to disk asynchronously
         persistToDiskAsync(cacheKey, cachedResponse);
+        
+        SemanticCache semantic = semanticCache;
+        if (semantic != null) {
+            semantic.put(prompt, response, model, parameters);
+        }
+    }
+    
+    /**
+     * Answer paraphrased prompts from the cache with the default local
+     * embedder and threshold
+     */
+    public void enableSemanticCache() {
+        enableSemanticCache(new SemanticCache(ttlMillis));
+    }
+    
+    /**
+     * Answer paraphrased prompts from the cache. The semantic tier is held in
+     * memory and indexes responses put from now on.
+     */
+    public void enableSemanticCache(SemanticCache semanticCache) {
+        this.semanticCache = semanticCache;
+    }
+    
+    public SemanticCache getSemanticCache() {
+        return semanticCache;
+    }
+    
+    /**
+     * Find the response to a similar prompt, e.g. as a fallback when the
+     * model is unavailable; empty if the semantic tier is disabled
+     */
+    public Optional<SemanticCache.Match> findSimilar(String prompt, String model,
+                                                     Map<String, Object> parameters, double minSimilarity) {
+        SemanticCache semantic = semanticCache;
+        if (semantic == null) {
+            return Optional.empty();
+        }
+        return semantic.lookup(prompt, model, parameters, minSimilarity);
     }
     
     /**
      * Generate cache key from prompt, model, and parameters
      */
     private String generateCacheKey(String prompt, String model, Map<String, Object> parameters) {
+        return cacheKey(prompt, model, parameters);
+    }
+
+    /**
+     * Key under which a request is cached; parameters are taken in key order,
+     * so equal requests map to the same key however their maps were built
+     */
+    public static String cacheKey(String prompt, String model, Map<String, Object> parameters) {
         try {
             String combined = prompt + "|" + model + "|" + serializeParameters(parameters);
             MessageDigest digest = MessageDigest.getInstance("SHA-256");
@@ -153,7 +283,7 @@ public class LLMResponseCache {
     /**
      * Serialize parameters to string
      */
-    private String serializeParameters(Map<String, Object> parameters) {
+    private static String serializeParameters(Map<String, Object> parameters) {
         StringBuilder sb = new StringBuilder();
         parameters.entrySet().stream()
             .sorted(Map.Entry.comparingByKey())
@@ -164,7 +294,7 @@ public class LLMResponseCache {
     /**
      * Convert bytes to hex string
      */
-    private String bytesToHex(byte[] bytes) {
+    private static String bytesToHex(byte[] bytes) {
         StringBuilder result = new StringBuilder();
         for (byte b : bytes) {
             result.append(String.format("%02x", b));
@@ -176,34 +306,19 @@ public class LLMResponseCache {
      * Load cached response from disk
      */
     private Optional<CachedResponse> loadFromDisk(String cacheKey) {
-        Path cacheFile = cacheDirectory.resolve(cacheKey + ".cache");
-        
-        if (!Files.exists(cacheFile)) {
+        if (diskStore == null) {
             return Optional.empty();
         }
-        
-        try (ObjectInputStream ois = new ObjectInputStream(
-                new BufferedInputStream(Files.newInputStream(cacheFile)))) {
-            
-            String prompt = ois.readUTF();
-            String response = ois.readUTF();
-            String model = ois.readUTF();
-            long timestamp = ois.readLong();
-            long expiryTime = ois.readLong();
-            
-            @SuppressWarnings("unchecked")
-            Map<String, Object> parameters = (Map<String, Object>) ois.readObject();
-            
-            CachedResponse cachedResponse = new CachedResponse(
-                prompt, response, model, parameters, expiryTime - timestamp
-            );
-            
-            return Optional.of(cachedResponse);
-            
-        } catch (Exception e) {
-            // Cache file corrupted or unreadable, delete it
+        byte[] record = diskStore.get(cacheKey);
+        if (record == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(decode(record));
+        } catch (IOException e) {
+            // Unreadable entry, drop it
             try {
-                Files.deleteIfExists(cacheFile);
+                diskStore.remove(cacheKey);
             } catch (IOException ex) {
                 // Ignore
             }
@@ -212,119 +327,207 @@ public class LLMResponseCache {
     }
     
     /**
-     * Persist cached response to disk asynchronously
+     * Queue cached response for the disk writer; never blocks the caller
+     * unless the pipeline is configured to
      */
     private void persistToDiskAsync(String cacheKey, CachedResponse response) {
-        new Thread(() -> persistToDisk(cacheKey, response)).start();
+        if (diskWriter != null) {
+            diskWriter.submit(cacheKey, response, response.getExpiryTime());
+        }
     }
     
     /**
-     * Persist cached response to disk
+     * Encode a response as length-prefixed UTF-8 strings, so responses of any
+     * size round-trip, followed by the timestamps and typed parameters
      */
-    private void persistToDisk(String cacheKey, CachedResponse response) {
-        Path cacheFile = cacheDirectory.resolve(cacheKey + ".cache");
-        
-        try (ObjectOutputStream oos = new ObjectOutputStream(
-                new BufferedOutputStream(Files.newOutputStream(cacheFile)))) {
-            
-            oos.writeUTF(response.getPrompt());
-            oos.writeUTF(response.getResponse());
-            oos.writeUTF(response.getModel());
-            oos.writeLong(response.getTimestamp());
-            oos.writeLong(response.getExpiryTime());
-            oos.writeObject(new HashMap<>(response.getParameters()));
-            
-        } catch (IOException e) {
-            System.err.println("Failed to persist cache entry: " + e.getMessage());
+    static byte[] encode(CachedResponse response) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256 + response.getResponse().length());
+        DataOutputStream out = new DataOutputStream(bytes);
+        writeString(out, response.getPrompt());
+        writeString(out, response.getResponse());
+        writeString(out, response.getModel());
+        out.writeLong(response.getTimestamp());
+        out.writeLong(response.getExpiryTime());
+        out.writeInt(response.getParameters().size());
+        for (Map.Entry<String, Object> entry : response.getParameters().entrySet()) {
+            writeString(out, entry.getKey());
+            writeParameter(out, entry.getValue());
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+    
+    static CachedResponse decode(byte[] record) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+        String prompt = readString(in);
+        String response = readString(in);
+        String model = readString(in);
+        long timestamp = in.readLong();
+        long expiryTime = in.readLong();
+        int count = in.readInt();
+        Map<String, Object> parameters = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            parameters.put(readString(in), readParameter(in));
+        }
+        return new CachedResponse(prompt, response, model, parameters, timestamp, expiryTime - timestamp);
+    }
+    
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+    
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > in.available()) {
+            throw new IOException("Corrupt string length: " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    private static void writeParameter(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte('N');
+        } else if (value instanceof Integer) {
+            out.writeByte('I');
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte('J');
+            out.writeLong((Long) value);
+        } else if (value instanceof Double) {
+            out.writeByte('D');
+            out.writeDouble((Double) value);
+        } else if (value instanceof Float) {
+            out.writeByte('F');
+            out.writeFloat((Float) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte('Z');
+            out.writeBoolean((Boolean) value);
+        } else {
+            // Keys are built from toString(), so that is all a hit needs to match
+            out.writeByte('S');
+            writeString(out, value.toString());
+        }
+    }
+    
+    private static Object readParameter(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case 'N': return null;
+            case 'I': return in.readInt();
+            case 'J': return in.readLong();
+            case 'D': return in.readDouble();
+            case 'F': return in.readFloat();
+            case 'Z': return in.readBoolean();
+            case 'S': return readString(in);
+            default: throw new IOException("Unknown parameter type: " + type);
         }
     }
     
     /**
-     * Evict oldest memory entry
+     * Store in the memory tier until the response's own expiry time
      */
-    private void evictOldestMemoryEntry() {
-        String oldestKey = null;
-        long oldestTime = Long.MAX_VALUE;
-        
-        for (Map.Entry<String, CachedResponse> entry : memoryCache.entrySet()) {
-            if (entry.getValue().getTimestamp() < oldestTime) {
-                oldestTime = entry.getValue().getTimestamp();
-                oldestKey = entry.getKey();
-            }
-        }
-        
-        if (oldestKey != null) {
-            memoryCache.remove(oldestKey);
+    private void putInMemory(String cacheKey, CachedResponse response) {
+        long remainingMillis = response.getExpiryTime() - System.currentTimeMillis();
+        if (remainingMillis > 0) {
+            memoryCache.put(cacheKey, response, remainingMillis, TimeUnit.MILLISECONDS);
         }
     }
     
     /**
-     * Cleanup expired entries from disk
+     * Cleanup expired entries from disk. Expiry is tracked in the disk index,
+     * so this drops index entries and then compacts segments that are mostly
+     * garbage; the directory is never scanned.
      */
     public void cleanupExpired() {
-        try {
-            Files.list(cacheDirectory)
-                .filter(path -> path.toString().endsWith(".cache"))
-                .forEach(path -> {
-                    try {
-                        String cacheKey = path.getFileName().toString().replace(".cache", "");
-                        Optional<CachedResponse> response = loadFromDisk(cacheKey);
-                        if (response.isEmpty() || response.get().isExpired()) {
-                            Files.deleteIfExists(path);
-                        }
-                    } catch (IOException e) {
-                        // Ignore
-                    }
-                });
-        } catch (IOException e) {
-            System.err.println("Failed to cleanup expired cache entries: " + e.getMessage());
+        if (diskStore != null) {
+            try {
+                diskStore.purgeExpired();
+                diskStore.compact();
+            } catch (IOException e) {
+                System.err.println("Failed to cleanup expired cache entries: " + e.getMessage());
+            }
         }
         
         // Cleanup memory cache
-        memoryCache.entrySet().removeIf(entry -> entry.getValue().isExpired());
+        memoryCache.cleanUp();
     }
     
     /**
      * Clear all cache entries
      */
     public void clear() {
-        memoryCache.clear();
+        memoryCache.invalidateAll();
+        if (semanticCache != null) {
+            semanticCache.clear();
+        }
         
-        try {
-            Files.list(cacheDirectory)
-                .filter(path -> path.toString().endsWith(".cache"))
-                .forEach(path -> {
-                    try {
-                        Files.deleteIfExists(path);
-                    } catch (IOException e) {
-                        // Ignore
-                    }
-                });
-        } catch (IOException e) {
-            System.err.println("Failed to clear cache: " + e.getMessage());
+        if (diskStore != null) {
+            try {
+                diskWriter.discardPending();
+                diskStore.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                System.err.println("Failed to clear cache: " + e.getMessage());
+            }
         }
         
-        memoryHits = 0;
-        diskHits = 0;
-        misses = 0;
+        memoryHits.reset();
+        diskHits.reset();
+        semanticHits.reset();
+        misses.reset();
+    }
+    
+    /**
+     * Wait until responses put so far have been written to disk
+     */
+    public void flush() throws InterruptedException {
+        if (diskWriter != null) {
+            diskWriter.flush();
+        }
+    }
+    
+    /**
+     * Close the disk tier, writing queued responses and syncing; a store
+     * shared with other caches stays open until the last of them closes
+     */
+    public synchronized void close() {
+        if (diskStore != null && !closed) {
+            closed = true;
+            diskWriter.close();
+            try {
+                releaseDiskStore(diskStore);
+            } catch (IOException e) {
+                System.err.println("Failed to close cache: " + e.getMessage());
+            }
+        }
     }
     
     /**
      * Get cache statistics
      */
     public CacheStats getStats() {
-        long totalHits = memoryHits + diskHits;
-        long total = totalHits + misses;
+        long memoryHitCount = memoryHits.sum();
+        long diskHitCount = diskHits.sum();
+        long semanticHitCount = semanticHits.sum();
+        long missCount = misses.sum();
+        long totalHits = memoryHitCount + diskHitCount + semanticHitCount;
+        long total = totalHits + missCount;
         double hitRate = total == 0 ? 0.0 : (double) totalHits / total;
         
         return new CacheStats(
-            memoryCache.size(),
+            (int) memoryCache.size(),
             maxMemoryEntries,
-            memoryHits,
-            diskHits,
-            misses,
+            memoryHitCount,
+            diskHitCount,
+            missCount,
             hitRate,
-            getDiskCacheSize()
+            getDiskCacheSize(),
+            semanticHitCount
         );
     }
     
@@ -332,13 +535,21 @@ public class LLMResponseCache {
      * Get disk cache size
      */
     private long getDiskCacheSize() {
-        try {
-            return Files.list(cacheDirectory)
-                .filter(path -> path.toString().endsWith(".cache"))
-                .count();
-        } catch (IOException e) {
-            return 0;
-        }
+        return diskStore != null ? diskStore.size() : 0;
+    }
+    
+    /**
+     * Get disk tier statistics, or null if the cache is memory-only
+     */
+    public SegmentedDiskStore.StoreStatistics getDiskStatistics() {
+        return diskStore != null ? diskStore.getStatistics() : null;
+    }
+    
+    /**
+     * Get disk writer statistics, or null if the cache is memory-only
+     */
+    public DiskWritePipeline.PipelineStatistics getWriteStatistics() {
+        return diskWriter != null ? diskWriter.getStatistics() : null;
     }
     
     /**
@@ -352,9 +563,15 @@ public class LLMResponseCache {
         private final long misses;
         private final double hitRate;
         private final long diskSize;
+        private final long semanticHits;
         
         public CacheStats(int memorySize, int maxMemorySize, long memoryHits,
                          long diskHits, long misses, double hitRate, long diskSize) {
+            this(memorySize, maxMemorySize, memoryHits, diskHits, misses, hitRate, diskSize, 0);
+        }
+        
+        public CacheStats(int memorySize, int maxMemorySize, long memoryHits, long diskHits,
+                         long misses, double hitRate, long diskSize, long semanticHits) {
             this.memorySize = memorySize;
             this.maxMemorySize = maxMemorySize;
             this.memoryHits = memoryHits;
@@ -362,6 +579,7 @@ public class LLMResponseCache {
             this.misses = misses;
             this.hitRate = hitRate;
             this.diskSize = diskSize;
+            this.semanticHits = semanticHits;
         }
         
         public int getMemorySize() { return memorySize; }
@@ -371,12 +589,18 @@ public class LLMResponseCache {
         public long getMisses() { return misses; }
         public double getHitRate() { return hitRate; }
         public long getDiskSize() { return diskSize; }
+        public long getSemanticHits() { return semanticHits; }
+        
+        /**
+         * Hits on the exact prompt, from memory or disk
+         */
+        public long getExactHits() { return memoryHits + diskHits; }
         
         @Override
         public String toString() {
             return String.format(
-                "LLMCacheStats{memory=%d/%d, disk=%d, memHits=%d, diskHits=%d, misses=%d, hitRate=%.2f%%}",
-                memorySize, maxMemorySize, diskSize, memoryHits, diskHits, misses, hitRate * 100
+                "LLMCacheStats{memory=%d/%d, disk=%d, memHits=%d, diskHits=%d, semanticHits=%d, misses=%d, hitRate=%.2f%%}",
+                memorySize, maxMemorySize, diskSize, memoryHits, diskHits, semanticHits, misses, hitRate * 100
             );
         }
     }
@@ -0,0 +1,130 @@
+package io.amcp.connectors.ai.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Splits prompts into the tokens used by the semantic tier.
+ *
+ * Words are lower-cased with apostrophes dropped ("what's" -> "whats"), and
+ * a {@code n't} contraction becomes its stem plus {@code not}. Numbers keep
+ * their decimal point and lose thousands separators ("1,000.5" ->
+ * "1000.5"). Arithmetic and comparison operators are tokens of their own;
+ * {@code -} and {@code /} count as operators only next to a digit, so
+ * "follow-up" stays two words.
+ *
+ * Numbers, operators and negations are the literals of a prompt: two prompts
+ * whose literals differ never ask the same thing, however close they look.
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+final class PromptTokens {
+
+    private static final String OPERATORS = "+-*/=<>%^\u00d7\u00f7";
+    private static final Set<String> NEGATIONS = Set.of("not", "no", "never", "without", "nor");
+
+    private PromptTokens() {
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder token = new StringBuilder(16);
+        boolean apostrophe = false;
+        int length = text.length();
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                token.append(Character.toLowerCase(c));
+            } else if ((c == '.' || c == ',') && isNumberSoFar(token) && i + 1 < length
+                       && Character.isDigit(text.charAt(i + 1))) {
+                if (c == '.') {
+                    token.append(c);
+                }
+            } else if ((c == '\'' || c == '\u2019') && token.length() > 0) {
+                apostrophe = true;
+            } else {
+                emit(tokens, token, apostrophe);
+                token.setLength(0);
+                apostrophe = false;
+                if (OPERATORS.indexOf(c) >= 0 && (c != '-' && c != '/' || nextToDigit(text, i))) {
+                    tokens.add(String.valueOf(c));
+                }
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Numbers, operators and negations, in order
+     */
+    static String literals(String text) {
+        StringBuilder literals = new StringBuilder();
+        for (String token : tokenize(text)) {
+            if (isLiteral(token)) {
+                literals.append(token).append(' ');
+            }
+        }
+        return literals.toString();
+    }
+
+    static boolean isLiteral(String token) {
+        return isNumber(token) || isOperator(token) || isNegation(token);
+    }
+
+    static boolean isNumber(String token) {
+        return !token.isEmpty() && Character.isDigit(token.charAt(0)) && isNumberSoFar(token);
+    }
+
+    static boolean isOperator(String token) {
+        return token.length() == 1 && OPERATORS.indexOf(token.charAt(0)) >= 0;
+    }
+
+    static boolean isNegation(String token) {
+        return NEGATIONS.contains(token);
+    }
+
+    private static void emit(List<String> tokens, StringBuilder token, boolean apostrophe) {
+        if (token.length() == 0) {
+            return;
+        }
+        String word = token.toString();
+        if (apostrophe && word.length() > 2 && word.endsWith("nt")) {
+            // "isn't" -> "is not", "can't" -> "ca not"
+            tokens.add(word.substring(0, word.length() - 2));
+            tokens.add("not");
+        } else {
+            tokens.add(word);
+        }
+    }
+
+    private static boolean isNumberSoFar(CharSequence token) {
+        if (token.length() == 0) {
+            return false;
+        }
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (!Character.isDigit(c) && c != '.') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Whether the nearest non-blank character on either side is a digit
+     */
+    private static boolean nextToDigit(String text, int index) {
+        int before = index - 1;
+        while (before >= 0 && text.charAt(before) == ' ') {
+            before--;
+        }
+        int after = index + 1;
+        while (after < text.length() && text.charAt(after) == ' ') {
+            after++;
+        }
+        return (before >= 0 && Character.isDigit(text.charAt(before)))
+            || (after < text.length() && Character.isDigit(text.charAt(after)));
+    }
+}
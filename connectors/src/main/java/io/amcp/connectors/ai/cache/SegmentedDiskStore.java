@@ -0,0 +1,643 @@
+package io.amcp.connectors.ai.cache;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32C;
+
+/**
+ * Log-structured key/value store backing the disk tier of the LLM caches.
+ *
+ * <p>Records are appended to segment files ({@code segment-NNNNNN.log}) and
+ * located through an in-memory index of key to segment, offset, length and
+ * expiry, so a lookup is one positioned read and expiry never touches the
+ * disk. A segment is sealed once it reaches the size limit. Overwritten,
+ * removed and expired records stay in their segment as garbage until
+ * {@link #compact()} copies the live records of mostly-dead segments forward
+ * and deletes them.</p>
+ *
+ * <p>Each record is {@code [u32 body length][u32 CRC32C][body]} where the body
+ * is {@code [u8 type][u64 expiresAt][u16 key length][key][value]}, so values
+ * have no size cap beyond the segment limit. On open the index is rebuilt by
+ * scanning the segments in order; a torn or corrupt tail left by a crash is
+ * truncated. Removals are logged as tombstones, which compaction carries
+ * forward until no older segment can hold the removed key.</p>
+ *
+ * <p>A store holds an exclusive lock on a {@code LOCK} file in its directory
+ * while open: every store keeps its own index and write offset, so a second
+ * store on the same directory, in this process or another, would overwrite
+ * and delete the first one's records. Opening a locked directory fails.</p>
+ *
+ * <p>Writes and compaction are serialized; reads are lock-free. A thread
+ * interrupted during a read or write closes the segment's channel for every
+ * thread, so the channel is reopened rather than left closed.</p>
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+public class SegmentedDiskStore implements Closeable {
+
+    public static final long DEFAULT_MAX_SEGMENT_BYTES = 16L * 1024 * 1024;
+    public static final double DEFAULT_COMPACTION_THRESHOLD = 0.5;
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String LOCK_FILE = "LOCK";
+    private static final int HEADER_BYTES = 8;
+    private static final int BODY_FIXED_BYTES = 1 + 8 + 2;
+    private static final byte TYPE_PUT = 1;
+    private static final byte TYPE_DELETE = 2;
+
+    private final Path directory;
+    private final long maxSegmentBytes;
+    private final double compactionThreshold;
+    private final ConcurrentHashMap<String, Location> index = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Integer, Segment> segments = new ConcurrentSkipListMap<>();
+    private final AtomicLong compactedSegments = new AtomicLong(0);
+    private final AtomicLong truncatedBytes = new AtomicLong(0);
+    // Holds the directory lock until closed
+    private final FileChannel lockChannel;
+    private Segment active;
+    private boolean closed;
+
+    public SegmentedDiskStore(Path directory) throws IOException {
+        this(directory, DEFAULT_MAX_SEGMENT_BYTES, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    /**
+     * @param compactionThreshold sealed segments whose live fraction falls
+     *                            below this are rewritten by {@link #compact()}
+     * @throws IOException if the directory cannot be read, or another store has it open
+     */
+    public SegmentedDiskStore(Path directory, long maxSegmentBytes, double compactionThreshold) throws IOException {
+        if (maxSegmentBytes < 1024) {
+            throw new IllegalArgumentException("Segment size too small: " + maxSegmentBytes);
+        }
+        this.directory = directory;
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.compactionThreshold = compactionThreshold;
+        Files.createDirectories(directory);
+        this.lockChannel = FileChannel.open(directory.resolve(LOCK_FILE),
+                                            StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock acquired;
+        try {
+            acquired = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // Held by another store in this process
+            acquired = null;
+        }
+        if (acquired == null) {
+            lockChannel.close();
+            throw new IOException("Cache directory is in use by another store: " + directory);
+        }
+        try {
+            recover();
+        } catch (IOException | RuntimeException e) {
+            closeSegments();
+            lockChannel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Read a value with one positioned read
+     *
+     * @return the value, or null if absent, expired or unreadable
+     */
+    public byte[] get(String key) {
+        // Retry once if compaction moved the record between lookup and read
+        for (int attempt = 0; attempt < 2; attempt++) {
+            Location location = index.get(key);
+            if (location == null) {
+                return null;
+            }
+            if (location.isExpired(System.currentTimeMillis())) {
+                expire(key, location);
+                return null;
+            }
+            Segment segment = segments.get(location.segmentId);
+            if (segment == null) {
+                continue;
+            }
+            FileChannel channel = segment.channel;
+            try {
+                ByteBuffer record = ByteBuffer.allocate(location.length);
+                readFully(channel, record, location.offset);
+                record.flip();
+                byte[] value = decodeValue(record, key);
+                if (value != null) {
+                    return value;
+                }
+                System.err.println("Corrupt cache record for key " + key + " in " + segment.path.getFileName());
+                remove(key);
+                return null;
+            } catch (ClosedByInterruptException e) {
+                // This caller gave up; the read closed the channel for everyone else
+                reopen(segment, channel);
+                return null;
+            } catch (ClosedChannelException e) {
+                // Segment compacted away and the index now points elsewhere, or
+                // another reader was interrupted and closed the channel
+                reopen(segment, channel);
+            } catch (IOException e) {
+                System.err.println("Failed to read cache record: " + e.getMessage());
+                return null;
+            }
+        }
+        return null;
+    }
+
+    public boolean contains(String key) {
+        Location location = index.get(key);
+        return location != null && !location.isExpired(System.currentTimeMillis());
+    }
+
+    /**
+     * Append a value, replacing any previous value for the key
+     *
+     * @param expiresAt epoch millis after which the value is dropped, or
+     *                  {@link Long#MAX_VALUE} for no expiry
+     */
+    public synchronized void put(String key, byte[] value, long expiresAt) throws IOException {
+        ensureOpen();
+        Location location = append(encode(TYPE_PUT, key, value, expiresAt), expiresAt);
+        segments.get(location.segmentId).liveBytes += location.length;
+        Location previous = index.put(key, location);
+        if (previous != null) {
+            release(previous);
+        }
+    }
+
+    /**
+     * Remove a key, logging a tombstone so the removal survives a restart
+     */
+    public synchronized boolean remove(String key) throws IOException {
+        ensureOpen();
+        Location previous = index.remove(key);
+        if (previous == null) {
+            return false;
+        }
+        release(previous);
+        append(encode(TYPE_DELETE, key, new byte[0], 0), 0);
+        return true;
+    }
+
+    /**
+     * Drop expired entries from the index; their bytes become garbage for
+     * {@link #compact()}. Touches memory only.
+     *
+     * @return number of entries dropped
+     */
+    public synchronized int purgeExpired() {
+        long now = System.currentTimeMillis();
+        int purged = 0;
+        Iterator<Map.Entry<String, Location>> iterator = index.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Location location = iterator.next().getValue();
+            if (location.isExpired(now)) {
+                iterator.remove();
+                release(location);
+                purged++;
+            }
+        }
+        return purged;
+    }
+
+    /**
+     * Rewrite sealed segments whose live fraction is below the threshold
+     *
+     * @return number of segments reclaimed
+     */
+    public synchronized int compact() throws IOException {
+        ensureOpen();
+        List<Segment> candidates = new ArrayList<>();
+        for (Segment segment : segments.values()) {
+            if (segment != active && segment.liveBytes < segment.size * compactionThreshold) {
+                candidates.add(segment);
+            }
+        }
+        for (Segment segment : candidates) {
+            rewrite(segment);
+        }
+        return candidates.size();
+    }
+
+    /**
+     * Force appended records to the storage device
+     */
+    public synchronized void sync() throws IOException {
+        if (!closed) {
+            active.channel.force(false);
+        }
+    }
+
+    /**
+     * Delete every segment and start empty
+     */
+    public synchronized void clear() throws IOException {
+        ensureOpen();
+        index.clear();
+        for (Segment segment : segments.values()) {
+            segment.channel.close();
+            Files.deleteIfExists(segment.path);
+        }
+        segments.clear();
+        active = openSegment(1);
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            active.channel.force(false);
+            closeSegments();
+        } finally {
+            // Closing the channel releases the lock
+            lockChannel.close();
+        }
+    }
+
+    private void closeSegments() throws IOException {
+        for (Segment segment : segments.values()) {
+            segment.channel.close();
+        }
+    }
+
+    public StoreStatistics getStatistics() {
+        long totalBytes = 0;
+        long liveBytes = 0;
+        for (Segment segment : segments.values()) {
+            totalBytes += segment.size;
+            liveBytes += segment.liveBytes;
+        }
+        return new StoreStatistics(index.size(), segments.size(), totalBytes, liveBytes,
+                                   compactedSegments.get(), truncatedBytes.get());
+    }
+
+    private void expire(String key, Location location) {
+        synchronized (this) {
+            if (index.remove(key, location)) {
+                release(location);
+            }
+        }
+    }
+
+    private void release(Location location) {
+        Segment segment = segments.get(location.segmentId);
+        if (segment != null) {
+            segment.liveBytes -= location.length;
+        }
+    }
+
+    private Location append(ByteBuffer record, long expiresAt) throws IOException {
+        int length = record.remaining();
+        if (active.size > 0 && active.size + length > maxSegmentBytes) {
+            active.channel.force(false);
+            active = openSegment(active.id + 1);
+        }
+        long offset = active.size;
+        long position = offset;
+        FileChannel channel = active.channel;
+        try {
+            while (record.hasRemaining()) {
+                position += channel.write(record, position);
+            }
+        } catch (ClosedByInterruptException e) {
+            // Nothing past the old size is indexed, so the next append overwrites the partial record
+            reopen(active, channel);
+            throw e;
+        }
+        active.size += length;
+        return new Location(active.id, offset, length, expiresAt);
+    }
+
+    /**
+     * Copy a segment's live records and needed tombstones to the active
+     * segment, make them durable, then delete the segment
+     */
+    private void rewrite(Segment segment) throws IOException {
+        boolean oldest = segments.firstKey() == segment.id;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        long offset = 0;
+        while (offset + HEADER_BYTES <= segment.size) {
+            header.clear();
+            readFully(segment.channel, header, offset);
+            header.flip();
+            int bodyLength = header.getInt();
+            if (bodyLength < BODY_FIXED_BYTES || offset + HEADER_BYTES + bodyLength > segment.size) {
+                break;
+            }
+            int length = HEADER_BYTES + bodyLength;
+            ByteBuffer record = ByteBuffer.allocate(length);
+            readFully(segment.channel, record, offset);
+            record.flip();
+            Parsed parsed = parse(record.duplicate());
+            if (parsed == null) {
+                break;
+            }
+            if (parsed.type == TYPE_PUT) {
+                Location current = index.get(parsed.key);
+                if (current != null && current.segmentId == segment.id && current.offset == offset) {
+                    Location moved = append(record, parsed.expiresAt);
+                    segments.get(moved.segmentId).liveBytes += moved.length;
+                    index.put(parsed.key, moved);
+                }
+            } else if (!oldest && !index.containsKey(parsed.key)) {
+                // An older segment may still hold the removed value
+                append(record, 0);
+            }
+            offset += length;
+        }
+
+        active.channel.force(false);
+        segments.remove(segment.id);
+        segment.channel.close();
+        Files.deleteIfExists(segment.path);
+        compactedSegments.incrementAndGet();
+    }
+
+    /**
+     * Rebuild the index from the segments, oldest first
+     */
+    private void recover() throws IOException {
+        TreeMap<Integer, Path> found = new TreeMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                try {
+                    int id = Integer.parseInt(name.substring(SEGMENT_PREFIX.length(),
+                                                             name.length() - SEGMENT_SUFFIX.length()));
+                    found.put(id, path);
+                } catch (NumberFormatException e) {
+                    // Not one of ours
+                }
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        for (Map.Entry<Integer, Path> entry : found.entrySet()) {
+            Segment segment = openSegment(entry.getKey());
+            long validBytes = replay(segment, now);
+            if (validBytes < segment.size) {
+                truncatedBytes.addAndGet(segment.size - validBytes);
+                System.err.println("Truncating " + (segment.size - validBytes) + " bytes of damaged cache log in "
+                    + segment.path.getFileName());
+                segment.channel.truncate(validBytes);
+                segment.size = validBytes;
+            }
+        }
+        active = segments.isEmpty() ? openSegment(1) : segments.lastEntry().getValue();
+    }
+
+    /**
+     * Apply a segment's records to the index
+     *
+     * @return length of the valid prefix
+     */
+    private long replay(Segment segment, long now) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        long offset = 0;
+        while (offset + HEADER_BYTES <= segment.size) {
+            header.clear();
+            readFully(segment.channel, header, offset);
+            header.flip();
+            int bodyLength = header.getInt();
+            if (bodyLength < BODY_FIXED_BYTES || offset + HEADER_BYTES + bodyLength > segment.size) {
+                break;
+            }
+            ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + bodyLength);
+            readFully(segment.channel, record, offset);
+            record.flip();
+            Parsed parsed = parse(record);
+            if (parsed == null) {
+                break;
+            }
+            int length = HEADER_BYTES + bodyLength;
+            Location previous;
+            if (parsed.type == TYPE_PUT && parsed.expiresAt > now) {
+                segment.liveBytes += length;
+                previous = index.put(parsed.key, new Location(segment.id, offset, length, parsed.expiresAt));
+            } else {
+                previous = index.remove(parsed.key);
+            }
+            if (previous != null) {
+                release(previous);
+            }
+            offset += length;
+        }
+        return offset;
+    }
+
+    private Segment openSegment(int id) throws IOException {
+        Path path = directory.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                               StandardOpenOption.WRITE);
+        Segment segment = new Segment(id, path, channel);
+        segment.size = channel.size();
+        segments.put(id, segment);
+        return segment;
+    }
+
+    /**
+     * Replace a channel closed by an interrupted thread, unless the segment
+     * was compacted away or the store closed meanwhile
+     */
+    private void reopen(Segment segment, FileChannel broken) {
+        if (broken.isOpen() || segment.channel != broken || segments.get(segment.id) != segment) {
+            return;
+        }
+        synchronized (this) {
+            if (closed || segments.get(segment.id) != segment || segment.channel != broken) {
+                return;
+            }
+            try {
+                segment.channel = FileChannel.open(segment.path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            } catch (IOException e) {
+                System.err.println("Failed to reopen cache segment " + segment.path.getFileName() + ": "
+                    + e.getMessage());
+            }
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Store is closed: " + directory);
+        }
+    }
+
+    private static ByteBuffer encode(byte type, String key, byte[] value, long expiresAt) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        if (keyBytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("Key too long: " + keyBytes.length + " bytes");
+        }
+        int bodyLength = BODY_FIXED_BYTES + keyBytes.length + value.length;
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + bodyLength);
+        record.putInt(bodyLength);
+        record.putInt(0);
+        record.put(type);
+        record.putLong(expiresAt);
+        record.putShort((short) keyBytes.length);
+        record.put(keyBytes);
+        record.put(value);
+
+        CRC32C crc = new CRC32C();
+        crc.update(record.array(), HEADER_BYTES, bodyLength);
+        record.putInt(4, (int) crc.getValue());
+        record.flip();
+        return record;
+    }
+
+    /**
+     * Check and parse a full record
+     *
+     * @return null if the checksum or layout is wrong
+     */
+    private static Parsed parse(ByteBuffer record) {
+        int bodyLength = record.getInt();
+        int checksum = record.getInt();
+        if (bodyLength < BODY_FIXED_BYTES || record.remaining() != bodyLength) {
+            return null;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(record.array(), HEADER_BYTES, bodyLength);
+        if ((int) crc.getValue() != checksum) {
+            return null;
+        }
+        byte type = record.get();
+        long expiresAt = record.getLong();
+        int keyLength = record.getShort() & 0xFFFF;
+        if (keyLength > record.remaining() || (type != TYPE_PUT && type != TYPE_DELETE)) {
+            return null;
+        }
+        String key = new String(record.array(), record.position(), keyLength, StandardCharsets.UTF_8);
+        record.position(record.position() + keyLength);
+        return new Parsed(type, expiresAt, key, record);
+    }
+
+    private static byte[] decodeValue(ByteBuffer record, String expectedKey) {
+        Parsed parsed = parse(record);
+        if (parsed == null || parsed.type != TYPE_PUT || !parsed.key.equals(expectedKey)) {
+            return null;
+        }
+        byte[] value = new byte[parsed.value.remaining()];
+        parsed.value.get(value);
+        return value;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Unexpected end of cache segment");
+            }
+        }
+    }
+
+    private static final class Segment {
+        final int id;
+        final Path path;
+        // Replaced by reopen() if an interrupt closes it
+        volatile FileChannel channel;
+        volatile long size;
+        // Guarded by the store lock
+        volatile long liveBytes;
+
+        Segment(int id, Path path, FileChannel channel) {
+            this.id = id;
+            this.path = path;
+            this.channel = channel;
+        }
+    }
+
+    private static final class Location {
+        final int segmentId;
+        final long offset;
+        final int length;
+        final long expiresAt;
+
+        Location(int segmentId, long offset, int length, long expiresAt) {
+            this.segmentId = segmentId;
+            this.offset = offset;
+            this.length = length;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+
+    private static final class Parsed {
+        final byte type;
+        final long expiresAt;
+        final String key;
+        final ByteBuffer value;
+
+        Parsed(byte type, long expiresAt, String key, ByteBuffer value) {
+            this.type = type;
+            this.expiresAt = expiresAt;
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Store counters
+     */
+    public static class StoreStatistics {
+        private final int entries;
+        private final int segments;
+        private final long totalBytes;
+        private final long liveBytes;
+        private final long compactedSegments;
+        private final long truncatedBytes;
+
+        public StoreStatistics(int entries, int segments, long totalBytes, long liveBytes,
+                               long compactedSegments, long truncatedBytes) {
+            this.entries = entries;
+            this.segments = segments;
+            this.totalBytes = totalBytes;
+            this.liveBytes = liveBytes;
+            this.compactedSegments = compactedSegments;
+            this.truncatedBytes = truncatedBytes;
+        }
+
+        public int getEntries() { return entries; }
+        public int getSegments() { return segments; }
+        public long getTotalBytes() { return totalBytes; }
+        public long getLiveBytes() { return liveBytes; }
+        public long getCompactedSegments() { return compactedSegments; }
+        public long getTruncatedBytes() { return truncatedBytes; }
+
+        @Override
+        public String toString() {
+            return String.format("StoreStatistics{entries=%d, segments=%d, bytes=%d, live=%d, compacted=%d, truncated=%d}",
+                               entries, segments, totalBytes, liveBytes, compactedSegments, truncatedBytes);
+        }
+    }
+}
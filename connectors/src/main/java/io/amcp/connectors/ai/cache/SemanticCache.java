@@ -0,0 +1,367 @@
+package io.amcp.connectors.ai.cache;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Semantic tier for LLM responses: finds a cached response whose prompt
+ * means the same as a new one, so rephrasings ("weather in Paris" /
+ * "What is the weather in Paris?") are answered without inference.
+ *
+ * Features:
+ * - Pluggable {@link EmbeddingFunction}; a local {@link HashingEmbedder} by default
+ * - One {@link HnswIndex} per model and parameter set, so a hit never crosses
+ *   models or sampling settings
+ * - Similarity threshold per model
+ * - Literal check: a hit also needs the same numbers, operators and
+ *   negations in the same order ("2+3" never answers "2*3")
+ * - Bounded size per partition, oldest entries evicted first, with TTL
+ * - Metrics on lookups, hits and similarity
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+public class SemanticCache {
+
+    public static final double DEFAULT_THRESHOLD = 0.9;
+    private static final int DEFAULT_MAX_ENTRIES = 10000;
+    private static final int SEARCH_CANDIDATES = 4;
+    private static final int SEARCH_EF = 64;
+
+    private final EmbeddingFunction embedder;
+    private final double defaultThreshold;
+    private final int maxEntriesPerPartition;
+    private final long ttlMillis;
+    private final Map<String, Double> modelThresholds = new ConcurrentHashMap<>();
+    private final Map<String, Partition> partitions = new ConcurrentHashMap<>();
+
+    // Statistics
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder nearMisses = new LongAdder();
+    private final LongAdder lookupNanos = new LongAdder();
+    private final LongAdder hitSimilarityMicros = new LongAdder();
+
+    public SemanticCache(long ttlMillis) {
+        this(new HashingEmbedder(), DEFAULT_THRESHOLD, DEFAULT_MAX_ENTRIES, ttlMillis);
+    }
+
+    public SemanticCache(EmbeddingFunction embedder, double defaultThreshold,
+                         int maxEntriesPerPartition, long ttlMillis) {
+        this.embedder = embedder;
+        this.defaultThreshold = defaultThreshold;
+        this.maxEntriesPerPartition = maxEntriesPerPartition;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * A semantic match
+     */
+    public static class Match {
+        private final String prompt;
+        private final String response;
+        private final double similarity;
+
+        public Match(String prompt, String response, double similarity) {
+            this.prompt = prompt;
+            this.response = response;
+            this.similarity = similarity;
+        }
+
+        public String getPrompt() { return prompt; }
+        public String getResponse() { return response; }
+        public double getSimilarity() { return similarity; }
+    }
+
+    /**
+     * Set the minimum cosine similarity for hits on one model
+     */
+    public void setThreshold(String model, double threshold) {
+        if (threshold <= 0 || threshold > 1) {
+            throw new IllegalArgumentException("Threshold must be in (0, 1]: " + threshold);
+        }
+        modelThresholds.put(model, threshold);
+    }
+
+    public double getThreshold(String model) {
+        return modelThresholds.getOrDefault(model, defaultThreshold);
+    }
+
+    /**
+     * Find a response to an equivalent prompt using the model's threshold
+     */
+    public Optional<Match> lookup(String prompt, String model, Map<String, Object> parameters) {
+        return lookup(prompt, model, parameters, getThreshold(model));
+    }
+
+    /**
+     * Find a response to a similar prompt with at least the given similarity
+     */
+    public Optional<Match> lookup(String prompt, String model, Map<String, Object> parameters,
+                                  double minSimilarity) {
+        long start = System.nanoTime();
+        lookups.increment();
+        try {
+            Partition partition = partitions.get(partitionKey(model, parameters));
+            if (partition == null) {
+                return Optional.empty();
+            }
+            Match match = partition.search(embedder.embed(prompt), PromptTokens.literals(prompt), minSimilarity);
+            if (match == null) {
+                return Optional.empty();
+            }
+            hits.increment();
+            hitSimilarityMicros.add((long) (match.getSimilarity() * 1_000_000));
+            return Optional.of(match);
+        } finally {
+            lookupNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Index a response under its prompt
+     */
+    public void put(String prompt, String response, String model, Map<String, Object> parameters) {
+        float[] vector = embedder.embed(prompt);
+        partitions.computeIfAbsent(partitionKey(model, parameters), key -> new Partition())
+            .add(prompt, response, vector, PromptTokens.literals(prompt), System.currentTimeMillis() + ttlMillis);
+    }
+
+    public void clear() {
+        partitions.clear();
+        lookups.reset();
+        hits.reset();
+        nearMisses.reset();
+        lookupNanos.reset();
+        hitSimilarityMicros.reset();
+    }
+
+    public int size() {
+        int size = 0;
+        for (Partition partition : partitions.values()) {
+            size += partition.liveCount();
+        }
+        return size;
+    }
+
+    /**
+     * Model and parameters in a stable order; responses only match within one
+     */
+    private static String partitionKey(String model, Map<String, Object> parameters) {
+        StringBuilder key = new StringBuilder(model);
+        for (Map.Entry<String, Object> entry : new TreeMap<>(parameters).entrySet()) {
+            key.append('|').append(entry.getKey()).append('=').append(entry.getValue());
+        }
+        return key.toString();
+    }
+
+    /**
+     * Get semantic cache statistics
+     */
+    public SemanticStats getStats() {
+        long lookupCount = lookups.sum();
+        long hitCount = hits.sum();
+        return new SemanticStats(
+            size(),
+            partitions.size(),
+            lookupCount,
+            hitCount,
+            nearMisses.sum(),
+            hitCount == 0 ? 0.0 : hitSimilarityMicros.sum() / 1_000_000.0 / hitCount,
+            lookupCount == 0 ? 0.0 : lookupNanos.sum() / 1000.0 / lookupCount
+        );
+    }
+
+    /**
+     * Entries for one model and parameter set
+     */
+    private final class Partition {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private HnswIndex index = new HnswIndex();
+        private List<Entry> entries = new ArrayList<>();
+        private final Map<String, Integer> idsByPrompt = new HashMap<>();
+        private final ArrayDeque<Integer> insertionOrder = new ArrayDeque<>();
+
+        Match search(float[] query, String literals, double minSimilarity) {
+            long now = System.currentTimeMillis();
+            List<Integer> expired = null;
+            HnswIndex searched = null;
+            lock.readLock().lock();
+            try {
+                searched = index;
+                for (HnswIndex.Neighbor neighbor : searched.search(query, SEARCH_CANDIDATES, SEARCH_EF)) {
+                    Entry entry = entries.get(neighbor.id);
+                    if (entry.expiresAt <= now) {
+                        if (expired == null) {
+                            expired = new ArrayList<>();
+                        }
+                        expired.add(neighbor.id);
+                        continue;
+                    }
+                    if (neighbor.similarity < minSimilarity) {
+                        // Closest remaining entry is below the threshold
+                        nearMisses.increment();
+                        return null;
+                    }
+                    if (entry.literals.equals(literals)) {
+                        return new Match(entry.prompt, entry.response, neighbor.similarity);
+                    }
+                    // Close, but asks about other numbers or the opposite; try the next
+                }
+            } finally {
+                lock.readLock().unlock();
+                if (expired != null) {
+                    removeAll(searched, expired);
+                }
+            }
+            return null;
+        }
+
+        void add(String prompt, String response, float[] vector, String literals, long expiresAt) {
+            float[] unit = vector.clone();
+            HashingEmbedder.normalize(unit);
+            lock.writeLock().lock();
+            try {
+                Integer previous = idsByPrompt.get(prompt);
+                if (previous != null) {
+                    delete(previous);
+                }
+                int id = index.add(unit);
+                entries.add(new Entry(prompt, response, literals, expiresAt));
+                idsByPrompt.put(prompt, id);
+                insertionOrder.addLast(id);
+                while (index.liveCount() > maxEntriesPerPartition && !insertionOrder.isEmpty()) {
+                    delete(insertionOrder.pollFirst());
+                }
+                if (index.deletedCount() > 64 && index.deletedCount() > index.liveCount()) {
+                    rebuild();
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void removeAll(HnswIndex searched, List<Integer> ids) {
+            lock.writeLock().lock();
+            try {
+                if (index != searched) {
+                    // Rebuilt since the search; ids have been reassigned
+                    return;
+                }
+                for (int id : ids) {
+                    delete(id);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void delete(int id) {
+            if (!index.isDeleted(id)) {
+                index.remove(id);
+                idsByPrompt.remove(entries.get(id).prompt, id);
+            }
+        }
+
+        /**
+         * Re-index live entries once most of the graph is tombstones
+         */
+        private void rebuild() {
+            HnswIndex rebuilt = new HnswIndex();
+            List<Entry> live = new ArrayList<>(index.liveCount());
+            idsByPrompt.clear();
+            ArrayDeque<Integer> order = new ArrayDeque<>();
+            for (int oldId : insertionOrder) {
+                if (index.isDeleted(oldId)) {
+                    continue;
+                }
+                int id = rebuilt.add(index.vector(oldId));
+                Entry entry = entries.get(oldId);
+                live.add(entry);
+                idsByPrompt.put(entry.prompt, id);
+                order.addLast(id);
+            }
+            index = rebuilt;
+            entries = live;
+            insertionOrder.clear();
+            insertionOrder.addAll(order);
+        }
+
+        int liveCount() {
+            lock.readLock().lock();
+            try {
+                return index.liveCount();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+    }
+
+    private static final class Entry {
+        final String prompt;
+        final String response;
+        final String literals;
+        final long expiresAt;
+
+        Entry(String prompt, String response, String literals, long expiresAt) {
+            this.prompt = prompt;
+            this.response = response;
+            this.literals = literals;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Semantic cache statistics
+     */
+    public static class SemanticStats {
+        private final int entries;
+        private final int partitions;
+        private final long lookups;
+        private final long hits;
+        private final long nearMisses;
+        private final double averageHitSimilarity;
+        private final double averageLookupMicros;
+
+        public SemanticStats(int entries, int partitions, long lookups, long hits, long nearMisses,
+                             double averageHitSimilarity, double averageLookupMicros) {
+            this.entries = entries;
+            this.partitions = partitions;
+            this.lookups = lookups;
+            this.hits = hits;
+            this.nearMisses = nearMisses;
+            this.averageHitSimilarity = averageHitSimilarity;
+            this.averageLookupMicros = averageLookupMicros;
+        }
+
+        public int getEntries() { return entries; }
+        public int getPartitions() { return partitions; }
+        public long getLookups() { return lookups; }
+        public long getHits() { return hits; }
+        /** Lookups whose closest entry fell below the threshold */
+        public long getNearMisses() { return nearMisses; }
+        public double getAverageHitSimilarity() { return averageHitSimilarity; }
+        public double getAverageLookupMicros() { return averageLookupMicros; }
+
+        public double getHitRate() {
+            return lookups == 0 ? 0.0 : (double) hits / lookups;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                "SemanticStats{entries=%d, partitions=%d, lookups=%d, hits=%d, nearMisses=%d, hitRate=%.2f%%, avgSimilarity=%.3f, avgLookup=%.1fus}",
+                entries, partitions, lookups, hits, nearMisses, getHitRate() * 100,
+                averageHitSimilarity, averageLookupMicros
+            );
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package io.amcp.connectors.ai.codec;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Body of an Ollama {@code /api/chat} request.
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+public class OllamaChatRequest {
+
+    private final String model;
+    private final List<OllamaMessage> messages;
+    private final boolean stream;
+    private final Map<String, Object> options;
+
+    public OllamaChatRequest(String model, List<OllamaMessage> messages, boolean stream,
+                             Map<String, Object> options) {
+        this.model = model;
+        this.messages = messages;
+        this.stream = stream;
+        this.options = options != null ? options : Map.of();
+    }
+
+    public String getModel() { return model; }
+    public List<OllamaMessage> getMessages() { return messages; }
+    public boolean isStream() { return stream; }
+    public Map<String, Object> getOptions() { return options; }
+}
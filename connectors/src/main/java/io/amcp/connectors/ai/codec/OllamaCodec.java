@@ -0,0 +1,270 @@
+package io.amcp.connectors.ai.codec;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JSON codec for LLM request and response bodies, on Jackson's streaming
+ * {@link JsonParser} and {@link JsonGenerator}.
+ *
+ * Features:
+ * - Encodes requests straight to UTF-8 bytes and decodes responses from
+ *   bytes (or a slice of a buffer), with no intermediate String or tree
+ * - Correct escaping both ways, including quotes and unicode in prompts
+ * - Unknown fields are skipped, so newer server versions still decode
+ * - The output buffer is kept per thread and Jackson recycles its own
+ *   buffers, so encoding a request allocates little beyond the result
+ * - Generic {@link #readObject} for JSON produced by models
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+public final class OllamaCodec {
+
+    private static final JsonFactory FACTORY = new JsonFactory();
+    private static final ThreadLocal<ByteArrayBuilder> OUTPUT =
+        ThreadLocal.withInitial(() -> new ByteArrayBuilder(1024));
+
+    private OllamaCodec() {
+    }
+
+    /**
+     * Encode a generate request
+     */
+    public static byte[] encode(OllamaGenerateRequest request) throws IOException {
+        ByteArrayBuilder out = OUTPUT.get();
+        out.reset();
+        try (JsonGenerator generator = FACTORY.createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeStringField("model", request.getModel());
+            generator.writeStringField("prompt", request.getPrompt());
+            if (request.getSystem() != null) {
+                generator.writeStringField("system", request.getSystem());
+            }
+            generator.writeBooleanField("stream", request.isStream());
+            writeOptions(generator, request.getOptions());
+            generator.writeEndObject();
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Encode a chat request
+     */
+    public static byte[] encode(OllamaChatRequest request) throws IOException {
+        ByteArrayBuilder out = OUTPUT.get();
+        out.reset();
+        try (JsonGenerator generator = FACTORY.createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeStringField("model", request.getModel());
+            generator.writeArrayFieldStart("messages");
+            for (OllamaMessage message : request.getMessages()) {
+                generator.writeStartObject();
+                generator.writeStringField("role", message.getRole());
+                generator.writeStringField("content", message.getContent());
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.writeBooleanField("stream", request.isStream());
+            writeOptions(generator, request.getOptions());
+            generator.writeEndObject();
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decode a generate or chat response, or one streamed chunk
+     */
+    public static OllamaResponse decodeResponse(byte[] data) throws IOException {
+        return decodeResponse(data, 0, data.length);
+    }
+
+    /**
+     * Decode a response from a slice of a buffer
+     */
+    public static OllamaResponse decodeResponse(byte[] data, int offset, int length) throws IOException {
+        try (JsonParser parser = FACTORY.createParser(data, offset, length)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected a JSON object");
+            }
+            String model = null;
+            String response = null;
+            OllamaMessage message = null;
+            boolean done = false;
+            String doneReason = null;
+            String error = null;
+            long totalDuration = 0;
+            int promptEvalCount = 0;
+            int evalCount = 0;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "model":
+                        model = parser.getValueAsString();
+                        break;
+                    case "response":
+                        response = parser.getValueAsString();
+                        break;
+                    case "message":
+                        message = value == JsonToken.START_OBJECT ? readMessage(parser) : null;
+                        break;
+                    case "done":
+                        done = parser.getValueAsBoolean();
+                        break;
+                    case "done_reason":
+                        doneReason = parser.getValueAsString();
+                        break;
+                    case "error":
+                        error = value == JsonToken.VALUE_NULL ? null : parser.getValueAsString();
+                        break;
+                    case "total_duration":
+                        totalDuration = parser.getValueAsLong();
+                        break;
+                    case "prompt_eval_count":
+                        promptEvalCount = parser.getValueAsInt();
+                        break;
+                    case "eval_count":
+                        evalCount = parser.getValueAsInt();
+                        break;
+                    default:
+                        // context, timings and fields added by newer servers
+                        parser.skipChildren();
+                        break;
+                }
+            }
+            return new OllamaResponse(model, response, message, done, doneReason, error,
+                totalDuration, promptEvalCount, evalCount);
+        }
+    }
+
+    /**
+     * Read a JSON object into mutable maps and lists; numbers become
+     * Integer, Long, Double or BigInteger/BigDecimal as they fit
+     */
+    public static Map<String, Object> readObject(String json) throws IOException {
+        try (JsonParser parser = FACTORY.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected a JSON object");
+            }
+            return readMap(parser);
+        }
+    }
+
+    /**
+     * Read a JSON object from UTF-8 bytes
+     */
+    public static Map<String, Object> readObject(byte[] data) throws IOException {
+        try (JsonParser parser = FACTORY.createParser(data)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected a JSON object");
+            }
+            return readMap(parser);
+        }
+    }
+
+    private static OllamaMessage readMessage(JsonParser parser) throws IOException {
+        String role = null;
+        String content = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if ("role".equals(field)) {
+                role = parser.getValueAsString();
+            } else if ("content".equals(field)) {
+                content = parser.getValueAsString();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return new OllamaMessage(role, content);
+    }
+
+    private static Map<String, Object> readMap(JsonParser parser) throws IOException {
+        Map<String, Object> map = new HashMap<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            map.put(field, readValue(parser));
+        }
+        return map;
+    }
+
+    private static Object readValue(JsonParser parser) throws IOException {
+        switch (parser.currentToken()) {
+            case START_OBJECT:
+                return readMap(parser);
+            case START_ARRAY:
+                List<Object> list = new ArrayList<>();
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    list.add(readValue(parser));
+                }
+                return list;
+            case VALUE_STRING:
+                return parser.getText();
+            case VALUE_NUMBER_INT:
+                return parser.getNumberValue();
+            case VALUE_NUMBER_FLOAT:
+                return parser.getDoubleValue();
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            default:
+                return null;
+        }
+    }
+
+    private static void writeOptions(JsonGenerator generator, Map<String, Object> options) throws IOException {
+        if (options.isEmpty()) {
+            return;
+        }
+        generator.writeFieldName("options");
+        writeValue(generator, options);
+    }
+
+    private static void writeValue(JsonGenerator generator, Object value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else if (value instanceof String) {
+            generator.writeString((String) value);
+        } else if (value instanceof Boolean) {
+            generator.writeBoolean((Boolean) value);
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            generator.writeNumber(((Number) value).longValue());
+        } else if (value instanceof BigInteger) {
+            generator.writeNumber((BigInteger) value);
+        } else if (value instanceof BigDecimal) {
+            generator.writeNumber((BigDecimal) value);
+        } else if (value instanceof Number) {
+            generator.writeNumber(((Number) value).doubleValue());
+        } else if (value instanceof Map) {
+            generator.writeStartObject();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                generator.writeFieldName(String.valueOf(entry.getKey()));
+                writeValue(generator, entry.getValue());
+            }
+            generator.writeEndObject();
+        } else if (value instanceof Iterable) {
+            generator.writeStartArray();
+            for (Object item : (Iterable<?>) value) {
+                writeValue(generator, item);
+            }
+            generator.writeEndArray();
+        } else {
+            generator.writeString(value.toString());
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package io.amcp.connectors.ai.codec;
+
+import java.util.Map;
+
+/**
+ * Body of an Ollama {@code /api/generate} request.
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+public class OllamaGenerateRequest {
+
+    private final String model;
+    private final String prompt;
+    private final String system;
+    private final boolean stream;
+    private final Map<String, Object> options;
+
+    public OllamaGenerateRequest(String model, String prompt, boolean stream, Map<String, Object> options) {
+        this(model, prompt, null, stream, options);
+    }
+
+    /**
+     * @param system  system prompt, or null for the model's default
+     * @param options model options such as temperature and num_predict; may be empty
+     */
+    public OllamaGenerateRequest(String model, String prompt, String system, boolean stream,
+                                 Map<String, Object> options) {
+        this.model = model;
+        this.prompt = prompt;
+        this.system = system;
+        this.stream = stream;
+        this.options = options != null ? options : Map.of();
+    }
+
+    public String getModel() { return model; }
+    public String getPrompt() { return prompt; }
+    public String getSystem() { return system; }
+    public boolean isStream() { return stream; }
+    public Map<String, Object> getOptions() { return options; }
+}
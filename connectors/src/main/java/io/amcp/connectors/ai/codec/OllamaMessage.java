@@ -0,0 +1,24 @@
+package io.amcp.connectors.ai.codec;
+
+/**
+ * One message of an Ollama {@code /api/chat} conversation.
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+public class OllamaMessage {
+
+    private final String role;
+    private final String content;
+
+    /**
+     * @param role "system", "user" or "assistant"
+     */
+    public OllamaMessage(String role, String content) {
+        this.role = role;
+        this.content = content;
+    }
+
+    public String getRole() { return role; }
+    public String getContent() { return content; }
+}
@@ -0,0 +1,68 @@
+package io.amcp.connectors.ai.codec;
+
+/**
+ * A response, or one streamed chunk, from Ollama's generate or chat API.
+ *
+ * Generate responses carry their text in {@code response}, chat responses
+ * in {@code message}; {@link #getText()} returns whichever is present.
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+public class OllamaResponse {
+
+    private final String model;
+    private final String response;
+    private final OllamaMessage message;
+    private final boolean done;
+    private final String doneReason;
+    private final String error;
+    private final long totalDurationNanos;
+    private final int promptEvalCount;
+    private final int evalCount;
+
+    public OllamaResponse(String model, String response, OllamaMessage message, boolean done, String doneReason,
+                          String error, long totalDurationNanos, int promptEvalCount, int evalCount) {
+        this.model = model;
+        this.response = response;
+        this.message = message;
+        this.done = done;
+        this.doneReason = doneReason;
+        this.error = error;
+        this.totalDurationNanos = totalDurationNanos;
+        this.promptEvalCount = promptEvalCount;
+        this.evalCount = evalCount;
+    }
+
+    public String getModel() { return model; }
+    /** Generated text of a generate response; null for chat */
+    public String getResponse() { return response; }
+    /** Reply of a chat response; null for generate */
+    public OllamaMessage getMessage() { return message; }
+    public boolean isDone() { return done; }
+    public String getDoneReason() { return doneReason; }
+    /** Error reported by the server, or null */
+    public String getError() { return error; }
+    public long getTotalDurationNanos() { return totalDurationNanos; }
+    /** Tokens in the prompt */
+    public int getPromptEvalCount() { return promptEvalCount; }
+    /** Tokens generated */
+    public int getEvalCount() { return evalCount; }
+
+    public boolean hasError() {
+        return error != null;
+    }
+
+    /**
+     * Generated text, from either API; empty if none
+     */
+    public String getText() {
+        if (response != null) {
+            return response;
+        }
+        if (message != null && message.getContent() != null) {
+            return message.getContent();
+        }
+        return "";
+    }
+}
@@ -1,6 +1,7 @@
 package io.amcp.connectors.ai.fallback;
 
 import io.amcp.connectors.ai.cache.LLMResponseCache;
+import io.amcp.connectors.ai.cache.SemanticCache;
 
 import java.io.*;
 import java.nio.file.*;
@@ -15,6 +16,7 @@ import java.util.stream.Collectors;
  * Features:
  * - Pattern-based response matching from cached LLM responses
  * - Keyword extraction and similarity scoring
+ * - Semantic lookup of cached responses to similar prompts
  * - Template-based response generation
  * - Automatic rule learning from successful LLM interactions
  * - Configurable fallback strategies
@@ -27,6 +29,9 @@ public class LLMFallbackSystem {
     private static final String DEFAULT_RULES_DIR = ".amcp/fallback-rules";
     private static final int DEFAULT_MIN_CONFIDENCE = 70; // Minimum confidence percentage
     private static final int DEFAULT_MAX_FALLBACK_RESPONSES = 100;
+    // A little below a cache hit, since the alternative is a generic response,
+    // but a wrong answer served as a fallback is still a wrong answer
+    private static final double SEMANTIC_FALLBACK_SIMILARITY = 0.85;
     
     private final Path rulesDirectory;
     private final LLMResponseCache responseCache;
@@ -207,15 +212,18 @@ public class LLMFallbackSystem {
      * Attempt semantic fallback using cached responses
      */
     private Optional<String> attemptSemanticFallback(String prompt, String model, Map<String, Object> parameters) {
-        // This is a simplified semantic matching - could be enhanced with embeddings
-        List<String> promptKeywords = extractKeywords(prompt);
-        
-        // Check if we have enough cached responses to attempt semantic matching
-        if (responseCache != null && rules.size() < maxFallbackResponses) {
-            // Future enhancement: Use responseCache to find semantically similar cached responses
-            // For now, we rely on the rule-based system
+        // A cached answer to a similar prompt beats a generic one
+        if (responseCache != null) {
+            Optional<SemanticCache.Match> match =
+                responseCache.findSimilar(prompt, model, parameters, SEMANTIC_FALLBACK_SIMILARITY);
+            if (match.isPresent()) {
+                logMessage(String.format("Semantic match %.2f with cached prompt: %s",
+                    match.get().getSimilarity(), truncate(match.get().getPrompt(), 50)));
+                return Optional.of(match.get().getResponse());
+            }
         }
         
+        List<String> promptKeywords = extractKeywords(prompt);
         if (!promptKeywords.isEmpty()) {
             String genericResponse = generateGenericResponse(prompt, promptKeywords);
             return Optional.of(genericResponse);
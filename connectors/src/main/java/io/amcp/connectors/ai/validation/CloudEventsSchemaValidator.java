@@ -1,10 +1,15 @@
 package io.amcp.connectors.ai.validation;
 
+import io.amcp.cloudevents.CloudEventValidator;
+
 import java.util.*;
 
 /**
  * CloudEvents 1.0 specification schema validator.
  * Validates CloudEvents structure and required fields before dispatch.
+ * Agent schemas are compiled to flat field arrays when registered, and
+ * attribute formats are checked by scanning characters rather than with
+ * regular expressions.
  * 
  * @author AMCP Development Team
  * @version 1.5.0
@@ -12,9 +17,9 @@ import java.util.*;
 public class CloudEventsSchemaValidator {
     
     // CloudEvents 1.0 required attributes
-    private static final Set<String> REQUIRED_ATTRIBUTES = Set.of(
+    private static final String[] REQUIRED_ATTRIBUTES = {
         "id", "source", "specversion", "type"
-    );
+    };
     
     // CloudEvents 1.0 optional attributes
     private static final Set<String> OPTIONAL_ATTRIBUTES = Set.of(
@@ -25,7 +30,7 @@ public class CloudEventsSchemaValidator {
     private static final Set<String> VALID_SPECVERSIONS = Set.of("1.0");
     
     // Agent-specific schema definitions
-    private final Map<String, AgentSchema> agentSchemas = new HashMap<>();
+    private final Map<String, CompiledSchema> agentSchemas = new HashMap<>();
     
     public CloudEventsSchemaValidator() {
         initializeAgentSchemas();
@@ -45,7 +50,7 @@ public class CloudEventsSchemaValidator {
         
         // Validate required attributes
         for (String required : REQUIRED_ATTRIBUTES) {
-            if (!event.containsKey(required) || event.get(required) == null) {
+            if (event.get(required) == null) {
                 errors.add("Missing required attribute: " + required);
             }
         }
@@ -74,6 +79,12 @@ public class CloudEventsSchemaValidator {
             warnings.add("Invalid datacontenttype: " + datacontenttype);
         }
         
+        // Validate time format (RFC 3339) if present
+        Object time = event.get("time");
+        if (time instanceof String && !CloudEventValidator.isTimestamp((String) time)) {
+            warnings.add("Time should be an RFC 3339 timestamp: " + time);
+        }
+        
         // Validate data payload if present
         if (event.containsKey("data")) {
             Object data = event.get("data");
@@ -93,31 +104,23 @@ public class CloudEventsSchemaValidator {
         List<String> errors = new ArrayList<>();
         List<String> warnings = new ArrayList<>();
         
-        AgentSchema schema = agentSchemas.get(agentType);
+        CompiledSchema schema = agentSchemas.get(agentType);
         if (schema == null) {
             warnings.add("No schema defined for agent type: " + agentType);
             return new ValidationResult(true, errors, warnings);
         }
         
-        // Validate required fields
-        for (String required : schema.requiredFields) {
-            if (!payload.containsKey(required) || payload.get(required) == null) {
-                errors.add("Missing required field for " + agentType + ": " + required);
-            }
-        }
-        
-        // Validate field types
-        for (Map.Entry<String, Class<?>> entry : schema.fieldTypes.entrySet()) {
-            String field = entry.getKey();
-            Class<?> expectedType = entry.getValue();
-            
-            if (payload.containsKey(field)) {
-                Object value = payload.get(field);
-                if (value != null && !expectedType.isInstance(value)) {
-                    errors.add("Invalid type for field " + field + ": expected " + 
-                              expectedType.getSimpleName() + ", got " + 
-                              value.getClass().getSimpleName());
+        // One lookup per field checks both presence and type
+        for (int i = 0; i < schema.fields.length; i++) {
+            Object value = payload.get(schema.fields[i]);
+            if (value == null) {
+                if (schema.required[i]) {
+                    errors.add("Missing required field for " + agentType + ": " + schema.fields[i]);
                 }
+            } else if (!schema.types[i].isInstance(value)) {
+                errors.add("Invalid type for field " + schema.fields[i] + ": expected " + 
+                          schema.types[i].getSimpleName() + ", got " + 
+                          value.getClass().getSimpleName());
             }
         }
         
@@ -176,13 +179,59 @@ public class CloudEventsSchemaValidator {
     }
     
     private boolean isValidEventType(String type) {
-        // Check for reverse-DNS notation (e.g., io.amcp.orchestration.task.request)
-        return type != null && type.matches("^[a-z][a-z0-9]*\\.[a-z][a-z0-9]*(\\.[a-z][a-z0-9]*)*$");
+        // Check for reverse-DNS notation (e.g., io.amcp.orchestration.task.request):
+        // two or more segments of [a-z][a-z0-9]*
+        if (type == null) {
+            return false;
+        }
+        int segments = 0;
+        boolean segmentStart = true;
+        for (int i = 0; i < type.length(); i++) {
+            char c = type.charAt(i);
+            if (c == '.') {
+                if (segmentStart) {
+                    return false;
+                }
+                segmentStart = true;
+            } else if (segmentStart) {
+                if (c < 'a' || c > 'z') {
+                    return false;
+                }
+                segments++;
+                segmentStart = false;
+            } else if (!isLowerAlphanumeric(c)) {
+                return false;
+            }
+        }
+        return !segmentStart && segments >= 2;
     }
     
     private boolean isValidContentType(String contentType) {
-        // Basic content type validation
-        return contentType != null && contentType.matches("^[a-z]+/[a-z0-9+.-]+$");
+        // Basic content type validation: [a-z]+/[a-z0-9+.-]+
+        if (contentType == null) {
+            return false;
+        }
+        int slash = contentType.indexOf('/');
+        if (slash <= 0 || slash == contentType.length() - 1) {
+            return false;
+        }
+        for (int i = 0; i < slash; i++) {
+            char c = contentType.charAt(i);
+            if (c < 'a' || c > 'z') {
+                return false;
+            }
+        }
+        for (int i = slash + 1; i < contentType.length(); i++) {
+            char c = contentType.charAt(i);
+            if (!isLowerAlphanumeric(c) && c != '+' && c != '.' && c != '-') {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static boolean isLowerAlphanumeric(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9');
     }
     
     private void initializeAgentSchemas() {
@@ -191,30 +240,31 @@ public class CloudEventsSchemaValidator {
         weatherSchema.addRequiredField("location", String.class);
         weatherSchema.addOptionalField("query", String.class);
         weatherSchema.addOptionalField("parameters", Map.class);
-        agentSchemas.put("WeatherAgent", weatherSchema);
+        agentSchemas.put("WeatherAgent", weatherSchema.compile());
         
         // TravelPlannerAgent schema
         AgentSchema travelSchema = new AgentSchema("TravelPlannerAgent");
         travelSchema.addRequiredField("query", String.class);
         travelSchema.addOptionalField("taskType", String.class);
         travelSchema.addOptionalField("parameters", Map.class);
-        agentSchemas.put("TravelPlannerAgent", travelSchema);
+        agentSchemas.put("TravelPlannerAgent", travelSchema.compile());
         
         // ChatAgent schema
         AgentSchema chatSchema = new AgentSchema("ChatAgent");
         chatSchema.addRequiredField("query", String.class);
         chatSchema.addOptionalField("conversationId", String.class);
         chatSchema.addOptionalField("priorMessages", List.class);
-        agentSchemas.put("ChatAgent", chatSchema);
-        agentSchemas.put("ManagerAgent", chatSchema);
-        agentSchemas.put("TechAgent", chatSchema);
-        agentSchemas.put("CultureAgent", chatSchema);
+        CompiledSchema compiledChat = chatSchema.compile();
+        agentSchemas.put("ChatAgent", compiledChat);
+        agentSchemas.put("ManagerAgent", compiledChat);
+        agentSchemas.put("TechAgent", compiledChat);
+        agentSchemas.put("CultureAgent", compiledChat);
         
         // QuoteAgent schema
         AgentSchema quoteSchema = new AgentSchema("QuoteAgent");
         quoteSchema.addRequiredField("query", String.class);
         quoteSchema.addOptionalField("category", String.class);
-        agentSchemas.put("QuoteAgent", quoteSchema);
+        agentSchemas.put("QuoteAgent", quoteSchema.compile());
     }
     
     /**
@@ -237,6 +287,33 @@ public class CloudEventsSchemaValidator {
         public void addOptionalField(String field, Class<?> type) {
             fieldTypes.put(field, type);
         }
+        
+        public CompiledSchema compile() {
+            return new CompiledSchema(this);
+        }
+    }
+    
+    /**
+     * Agent schema flattened into parallel arrays, checked in one pass
+     */
+    private static final class CompiledSchema {
+        final String[] fields;
+        final Class<?>[] types;
+        final boolean[] required;
+        
+        CompiledSchema(AgentSchema schema) {
+            int size = schema.fieldTypes.size();
+            fields = new String[size];
+            types = new Class<?>[size];
+            required = new boolean[size];
+            int i = 0;
+            for (Map.Entry<String, Class<?>> entry : schema.fieldTypes.entrySet()) {
+                fields[i] = entry.getKey();
+                types[i] = entry.getValue();
+                required[i] = schema.requiredFields.contains(entry.getKey());
+                i++;
+            }
+        }
     }
     
     /**
@@ -17,6 +17,8 @@ public class AuthenticationContext implements Serializable {
     private final long expirationTime;
     private final Map<String, String> headers;
     private final Map<String, Object> properties;
+    // Set by the layer that verified the credentials; never taken from the wire
+    private final transient SecurityContext securityContext;
     
     private AuthenticationContext(Builder builder) {
         this.token = builder.token;
@@ -24,6 +26,7 @@ public class AuthenticationContext implements Serializable {
         this.expirationTime = builder.expirationTime;
         this.headers = new HashMap<>(builder.headers);
         this.properties = new HashMap<>(builder.properties);
+        this.securityContext = builder.securityContext;
     }
     
     public String getToken() {
@@ -68,6 +71,23 @@ public class AuthenticationContext implements Serializable {
         return null;
     }
     
+    /**
+     * Security context of the verified caller, or null when the credentials
+     * have not been verified. Unlike the free-form properties this is only
+     * set by the authenticating layer and is not serialized.
+     */
+    public SecurityContext getSecurityContext() {
+        return securityContext;
+    }
+    
+    /**
+     * ID of the verified, authenticated caller, or null
+     */
+    public String getVerifiedPrincipalId() {
+        return securityContext != null && securityContext.isAuthenticated()
+            ? securityContext.getPrincipalId() : null;
+    }
+    
     public static Builder builder() {
         return new Builder();
     }
@@ -78,6 +98,7 @@ public class AuthenticationContext implements Serializable {
         private long expirationTime = 0;
         private Map<String, String> headers = new HashMap<>();
         private Map<String, Object> properties = new HashMap<>();
+        private SecurityContext securityContext;
         
         public Builder token(String token) {
             this.token = token;
@@ -114,6 +135,11 @@ public class AuthenticationContext implements Serializable {
             return this;
         }
         
+        public Builder securityContext(SecurityContext securityContext) {
+            this.securityContext = securityContext;
+            return this;
+        }
+        
         public AuthenticationContext build() {
             return new AuthenticationContext(this);
         }
@@ -128,12 +154,13 @@ public class AuthenticationContext implements Serializable {
                Objects.equals(token, that.token) &&
                Objects.equals(tokenType, that.tokenType) &&
                Objects.equals(headers, that.headers) &&
-               Objects.equals(properties, that.properties);
+               Objects.equals(properties, that.properties) &&
+               Objects.equals(securityContext, that.securityContext);
     }
     
     @Override
     public int hashCode() {
-        return Objects.hash(token, tokenType, expirationTime, headers, properties);
+        return Objects.hash(token, tokenType, expirationTime, headers, properties, securityContext);
     }
     
     @Override
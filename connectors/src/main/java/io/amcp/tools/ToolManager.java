@@ -3,6 +3,8 @@ package io.amcp.tools;
 import io.amcp.tools.mcp.DuckDuckGoMCPConnector;
 import io.amcp.tools.mcp.WeatherAPIMCPConnector;
 import io.amcp.tools.bridge.A2ABridgeConnector;
+import io.amcp.ratelimit.AdmissionController;
+import io.amcp.ratelimit.RateLimitExceededException;
 
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
@@ -10,7 +12,9 @@ import java.util.Map;
 import java.util.HashMap;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
 
 /**
  * AMCP v1.4 Tool Manager.
@@ -27,6 +31,8 @@ public class ToolManager {
     private final AtomicLong requestCounter = new AtomicLong(0);
     
     private volatile boolean initialized = false;
+    private volatile AdmissionController admissionController;
+    private volatile BiFunction<String, ToolRequest, String> rateLimitKey = ToolManager::defaultRateLimitKey;
     
     private ToolManager() {
         // Private constructor for singleton
@@ -118,6 +124,59 @@ public class ToolManager {
             );
         }
         
+        AdmissionController admission = admissionController;
+        if (admission == null) {
+            return invokeConnector(toolId, connector, request);
+        }
+        return admission.admit(rateLimitKey.apply(toolId, request))
+            .handle((admitted, error) -> error)
+            .thenCompose(error -> {
+                if (error == null) {
+                    return invokeConnector(toolId, connector, request);
+                }
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+                Map<String, Object> metadata = new HashMap<>();
+                metadata.put("tool_id", toolId);
+                if (cause instanceof RateLimitExceededException) {
+                    metadata.put("retry_after_ms", ((RateLimitExceededException) cause).getRetryAfterMillis());
+                }
+                return CompletableFuture.completedFuture(
+                    ToolResponse.error(cause.getMessage(), request.getRequestId(), 0, metadata));
+            });
+    }
+    
+    /**
+     * Apply admission control to tool executions. Calls over the limit get an
+     * error response carrying {@code retry_after_ms}; pass null to disable.
+     *
+     * @param keyFunction derives the rate limit key from the tool ID and
+     *                    request; null keeps the default of tool plus principal
+     */
+    public void setRateLimit(AdmissionController admission, BiFunction<String, ToolRequest, String> keyFunction) {
+        this.admissionController = admission;
+        this.rateLimitKey = keyFunction != null ? keyFunction : ToolManager::defaultRateLimitKey;
+    }
+    
+    public AdmissionController getAdmissionController() {
+        return admissionController;
+    }
+    
+    /**
+     * Default rate limit key: the tool plus the caller's verified principal.
+     * Free-form authentication properties are ignored since the caller sets
+     * them; requests without a verified principal share the anonymous key.
+     */
+    static String defaultRateLimitKey(String toolId, ToolRequest request) {
+        String principal = null;
+        if (request.getAuthContext() != null) {
+            principal = request.getAuthContext().getVerifiedPrincipalId();
+        }
+        return toolId + ":" + (principal != null ? principal : "anonymous");
+    }
+    
+    private CompletableFuture<ToolResponse> invokeConnector(String toolId, ToolConnector connector,
+                                                           ToolRequest request) {
         return connector.invoke(request)
                 .thenApply(response -> {
                     // Add tool manager metadata
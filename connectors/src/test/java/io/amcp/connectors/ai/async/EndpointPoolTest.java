@@ -0,0 +1,363 @@
+package io.amcp.connectors.ai.async;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for routing, outlier ejection, health probes and sticky sessions
+ * in the LLM endpoint pool.
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+class EndpointPoolTest {
+
+    private static final String A = "http://gpu-a:11434";
+    private static final String B = "http://gpu-b:11434";
+    private static final String C = "http://gpu-c:11434";
+
+    private final AtomicLong clock = new AtomicLong();
+    private final List<HttpServer> servers = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        servers.forEach(server -> server.stop(0));
+    }
+
+    private EndpointPool pool(EndpointPool.RoutingStrategy strategy, int failuresToEject, int stickyOverflow,
+                              String... urls) {
+        EndpointPool pool = new EndpointPool(new EndpointPool.PoolConfig(
+            strategy, 0.3, failuresToEject, 1000, 10000, 0, stickyOverflow), clock::get);
+        for (String url : urls) {
+            pool.addEndpoint(url);
+        }
+        return pool;
+    }
+
+    @Test
+    @DisplayName("Test requests go to the backend with the fewest in flight")
+    void testLeastOutstanding() {
+        // Given
+        EndpointPool pool = pool(EndpointPool.RoutingStrategy.LEAST_OUTSTANDING, 3, 4, A, B, C);
+
+        // When
+        EndpointPool.Lease first = pool.acquire("llama3", null);
+        EndpointPool.Lease second = pool.acquire("llama3", null);
+        EndpointPool.Lease third = pool.acquire("llama3", null);
+        first.release(null);
+        EndpointPool.Lease fourth = pool.acquire("llama3", null);
+
+        // Then
+        assertEquals(Set.of(A, B, C), Set.of(first.getBaseUrl(), second.getBaseUrl(), third.getBaseUrl()));
+        assertEquals(first.getBaseUrl(), fourth.getBaseUrl());
+        assertEquals(1, pool.getStats().getEndpoint(second.getBaseUrl()).getOutstanding());
+    }
+
+    @Test
+    @DisplayName("Test latency routing prefers the faster backend and serves listed models only")
+    void testLatencyEwmaAndModels() {
+        // Given
+        EndpointPool pool = pool(EndpointPool.RoutingStrategy.LATENCY_EWMA, 3, 4, A, B);
+        pool.addEndpoint(C, "codellama");
+        EndpointPool.Lease fast = pool.acquire("llama3", null);
+        EndpointPool.Lease slow = pool.acquire("llama3", null);
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(10));
+        fast.release(null);
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(490));
+        slow.release(null);
+
+        // When
+        Set<String> chosen = new HashSet<>();
+        for (int i = 0; i < 3; i++) {
+            chosen.add(pool.acquire("llama3", null).getBaseUrl());
+        }
+
+        // Then
+        assertNotEquals(fast.getBaseUrl(), slow.getBaseUrl());
+        assertEquals(Set.of(fast.getBaseUrl()), chosen);
+        assertEquals(10.0, pool.getStats().getEndpoint(fast.getBaseUrl()).getLatencyEwmaMillis(), 0.01);
+        assertEquals(C, pool.acquire("codellama", null).getBaseUrl());
+    }
+
+    @Test
+    @DisplayName("Test consecutive failures eject a backend until its ejection time passes")
+    void testOutlierEjection() {
+        // Given
+        EndpointPool pool = pool(EndpointPool.RoutingStrategy.LEAST_OUTSTANDING, 3, 4, A, B);
+
+        // When - every request on A fails with a connection error
+        for (int i = 0; i < 3; i++) {
+            EndpointPool.Lease first = pool.acquire("llama3", null);
+            EndpointPool.Lease second = pool.acquire("llama3", null);
+            for (EndpointPool.Lease lease : List.of(first, second)) {
+                lease.release(A.equals(lease.getBaseUrl()) ? new IOException("Connection refused") : null);
+            }
+        }
+        List<String> whileEjected = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            whileEjected.add(pool.acquire("llama3", null).getBaseUrl());
+        }
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1001));
+        String afterEjection = pool.acquire("llama3", null).getBaseUrl();
+
+        // Then
+        assertEquals(List.of(B, B, B, B), whileEjected);
+        assertEquals(A, afterEjection);
+        EndpointPool.EndpointStats stats = pool.getStats().getEndpoint(A);
+        assertEquals(1, stats.getEjections());
+        assertEquals(3, stats.getFailures());
+        assertFalse(stats.isEjected());
+    }
+
+    @Test
+    @DisplayName("Test latency routing balances by load until every backend is measured")
+    void testLatencyWarmUpAndSeeding() {
+        // Given - A has a latency, B has none yet
+        EndpointPool pool = pool(EndpointPool.RoutingStrategy.LATENCY_EWMA, 3, 4, A, B);
+        EndpointPool.Lease first = pool.acquire("llama3", null);
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        first.release(null);
+        String measured = first.getBaseUrl();
+
+        // When
+        List<EndpointPool.Lease> leases = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            leases.add(pool.acquire("llama3", null));
+        }
+
+        // Then - the unmeasured backend does not take every request
+        long onMeasured = leases.stream().filter(lease -> lease.getBaseUrl().equals(measured)).count();
+        assertEquals(2, onMeasured);
+
+        // When - both are measured and a third backend joins
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(200));
+        leases.forEach(lease -> lease.release(null));
+        pool.addEndpoint(C);
+        String next = pool.acquire("llama3", null).getBaseUrl();
+
+        // Then - C starts from the median instead of 0 and does not win by default
+        EndpointPool.PoolStats stats = pool.getStats();
+        double a = stats.getEndpoint(A).getLatencyEwmaMillis();
+        double b = stats.getEndpoint(B).getLatencyEwmaMillis();
+        assertEquals((a + b) / 2, stats.getEndpoint(C).getLatencyEwmaMillis(), 0.01);
+        assertEquals(a < b ? A : B, next);
+    }
+
+    @Test
+    @DisplayName("Test ejection time grows with repeated ejections and resets after a quiet period")
+    void testEjectionBackoffDecays() {
+        // Given - base ejection 1s, at most 10s
+        EndpointPool pool = pool(EndpointPool.RoutingStrategy.LEAST_OUTSTANDING, 1, 4, A);
+
+        // When - two failures in quick succession
+        pool.acquire("llama3", null).release(new IOException("Connection refused"));
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1001));
+        pool.acquire("llama3", null).release(new IOException("Connection refused"));
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1001));
+        boolean availableAfterOneSecond = pool.hasAvailableEndpoint();
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+        boolean availableAfterTwoSeconds = pool.hasAvailableEndpoint();
+
+        // When - an unrelated failure long after
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(60));
+        pool.acquire("llama3", null).release(new IOException("Connection reset"));
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1001));
+
+        // Then - the second ejection lasted 2s, the third only 1s again
+        assertFalse(availableAfterOneSecond);
+        assertTrue(availableAfterTwoSeconds);
+        assertTrue(pool.hasAvailableEndpoint());
+        assertEquals(3, pool.getStats().getEndpoint(A).getEjections());
+    }
+
+    @Test
+    @DisplayName("Test missing models eject, other client errors do not, and a fully ejected pool still routes")
+    void testClientErrorsAndPanicRouting() {
+        // Given
+        EndpointPool pool = pool(EndpointPool.RoutingStrategy.LEAST_OUTSTANDING, 1, 4, A);
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            pool.acquire("llama3", null).release(new LLMHttpException(400, -1));
+        }
+        boolean availableAfterClientErrors = pool.hasAvailableEndpoint();
+        pool.acquire("llama3", null).release(new LLMHttpException(404, -1));
+        boolean availableAfterMissingModel = pool.hasAvailableEndpoint();
+        EndpointPool.Lease panic = pool.acquire("llama3", null);
+
+        // Then
+        assertTrue(availableAfterClientErrors);
+        assertFalse(availableAfterMissingModel);
+        assertEquals(A, panic.getBaseUrl());
+        assertEquals(1, pool.getStats().getPanicRoutes());
+        assertEquals(1, pool.getStats().getEndpoint(A).getEjections());
+    }
+
+    @Test
+    @DisplayName("Test server errors eject a backend")
+    void testServerErrorsEject() {
+        // Given
+        EndpointPool pool = pool(EndpointPool.RoutingStrategy.LEAST_OUTSTANDING, 2, 4, A, B);
+
+        // When
+        for (int i = 0; i < 2; i++) {
+            EndpointPool.Lease first = pool.acquire("llama3", null);
+            EndpointPool.Lease second = pool.acquire("llama3", null);
+            for (EndpointPool.Lease lease : List.of(first, second)) {
+                lease.release(A.equals(lease.getBaseUrl()) ? new LLMHttpException(500, -1) : null);
+            }
+        }
+
+        // Then
+        assertTrue(pool.getStats().getEndpoint(A).isEjected());
+        assertEquals(B, pool.acquire("llama3", null).getBaseUrl());
+    }
+
+    @Test
+    @DisplayName("Test sessions stay on one backend and move only when it is ejected or overloaded")
+    void testStickySessions() {
+        // Given
+        EndpointPool pool = pool(EndpointPool.RoutingStrategy.LEAST_OUTSTANDING, 1, 2, A, B, C);
+        Map<String, String> placement = new HashMap<>();
+        for (int i = 0; i < 60; i++) {
+            EndpointPool.Lease lease = pool.acquire("llama3", "conv-" + i);
+            placement.put("conv-" + i, lease.getBaseUrl());
+            lease.release(null);
+        }
+
+        // When - the backend of conv-0 fails once
+        String home = placement.get("conv-0");
+        for (int i = 0; i < 10; i++) {
+            EndpointPool.Lease lease = pool.acquire("llama3", "conv-0");
+            assertEquals(home, lease.getBaseUrl());
+            lease.release(null);
+        }
+        pool.acquire("llama3", "conv-0").release(new IOException("Connection reset"));
+        Map<String, String> afterEjection = new HashMap<>();
+        for (String session : placement.keySet()) {
+            EndpointPool.Lease lease = pool.acquire("llama3", session);
+            afterEjection.put(session, lease.getBaseUrl());
+            lease.release(null);
+        }
+
+        // Then
+        assertEquals(3, new HashSet<>(placement.values()).size(), "sessions should spread over all backends");
+        for (String session : placement.keySet()) {
+            if (placement.get(session).equals(home)) {
+                assertNotEquals(home, afterEjection.get(session));
+            } else {
+                assertEquals(placement.get(session), afterEjection.get(session), "only sessions on " + home + " move");
+            }
+        }
+
+        // When - one session floods its backend
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        List<String> flood = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            flood.add(pool.acquire("llama3", "conv-0").getBaseUrl());
+        }
+
+        // Then
+        assertEquals(List.of(home, home, home), flood.subList(0, 3));
+        assertNotEquals(home, flood.get(3));
+        assertEquals(1, pool.getStats().getStickyOverflows());
+    }
+
+    @Test
+    @DisplayName("Test health probes take failing servers out of rotation and back")
+    void testHealthProbes() throws Exception {
+        // Given
+        int[] status = {200, 503};
+        String healthy = startServer("healthy", () -> status[0]);
+        String failing = startServer("failing", () -> status[1]);
+        EndpointPool pool = pool(EndpointPool.RoutingStrategy.LEAST_OUTSTANDING, 3, 4, healthy, failing);
+        HttpClient client = HttpClient.newHttpClient();
+
+        // When
+        pool.checkHealth(client).get(5, TimeUnit.SECONDS);
+        Set<String> whileFailing = new HashSet<>();
+        for (int i = 0; i < 3; i++) {
+            whileFailing.add(pool.acquire("llama3", null).getBaseUrl());
+        }
+        status[1] = 200;
+        pool.checkHealth(client).get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals(Set.of(healthy), whileFailing);
+        assertTrue(pool.getStats().getEndpoint(failing).isHealthy());
+        assertEquals(failing, pool.acquire("llama3", null).getBaseUrl());
+    }
+
+    @Test
+    @DisplayName("Test connector balances requests and keeps sessions on one server")
+    void testConnectorRouting() throws Exception {
+        // Given
+        String first = startServer("first", () -> 200);
+        String second = startServer("second", () -> 200);
+        EndpointPool pool = new EndpointPool(new EndpointPool.PoolConfig(
+            EndpointPool.RoutingStrategy.LEAST_OUTSTANDING, 0.3, 3, 1000, 10000, 0, 4));
+        pool.addEndpoint(first).addEndpoint(second);
+        AsyncLLMConnector connector = new AsyncLLMConnector(pool, 5, 1, false);
+
+        try {
+            // When
+            Set<String> unpinned = new HashSet<>();
+            Set<String> pinned = new HashSet<>();
+            RequestOptions session = RequestOptions.DEFAULT.withSession("conversation-42");
+            for (int i = 0; i < 6; i++) {
+                unpinned.add(connector.generateAsync("question " + i, "stub", Map.of()).get(5, TimeUnit.SECONDS));
+            }
+            for (int i = 0; i < 6; i++) {
+                pinned.add(connector.generateAsync("turn " + i, "stub", Map.of(), session).get(5, TimeUnit.SECONDS));
+            }
+
+            // Then
+            assertEquals(Set.of("first", "second"), unpinned);
+            assertEquals(1, pinned.size());
+            EndpointPool.PoolStats stats = connector.getEndpointStats();
+            assertEquals(6, stats.getStickyRoutes());
+            assertEquals(12, stats.getEndpoint(first).getRequests() + stats.getEndpoint(second).getRequests());
+        } finally {
+            connector.shutdown();
+        }
+    }
+
+    /**
+     * Stub server answering generate requests with its name
+     */
+    private String startServer(String name, IntSupplier tagsStatus) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/tags", exchange -> {
+            exchange.sendResponseHeaders(tagsStatus.getAsInt(), -1);
+            exchange.close();
+        });
+        server.createContext("/api/generate", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            byte[] body = ("{\"response\":\"" + name + "\",\"done\":true}").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        servers.add(server);
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+}
@@ -0,0 +1,291 @@
+package io.amcp.connectors.ai.async;
+
+import com.sun.net.httpserver.HttpServer;
+import io.amcp.tools.ToolRequest;
+import io.amcp.tools.ToolResponse;
+import org.junit.jupiter.api.*;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for priority, fairness, deadline and adaptive limit handling in
+ * the LLM request scheduler.
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+class LLMRequestSchedulerTest {
+
+    private static final String ENDPOINT = "http://localhost:11434/llama3";
+
+    private final List<String> order = new CopyOnWriteArrayList<>();
+
+    private LLMRequestScheduler singleSlotScheduler() {
+        return new LLMRequestScheduler(new LLMRequestScheduler.SchedulerConfig(1, 1, 1, 1.5, 0.9, 100));
+    }
+
+    @Test
+    @DisplayName("Test interactive requests are dispatched before queued batch work")
+    void testPriorityOrder() throws Exception {
+        // Given
+        LLMRequestScheduler scheduler = singleSlotScheduler();
+        CompletableFuture<String> blocker = new CompletableFuture<>();
+        scheduler.submit(ENDPOINT, RequestOptions.DEFAULT, () -> blocker);
+        CompletableFuture<String> batch1 = scheduler.submit(ENDPOINT, RequestOptions.batch("jobs"), () -> record("batch-1"));
+        CompletableFuture<String> batch2 = scheduler.submit(ENDPOINT, RequestOptions.batch("jobs"), () -> record("batch-2"));
+        CompletableFuture<String> chat = scheduler.submit(ENDPOINT, RequestOptions.interactive("chat"), () -> record("chat"));
+
+        // When
+        blocker.complete("done");
+
+        // Then
+        CompletableFuture.allOf(batch1, batch2, chat).get(5, TimeUnit.SECONDS);
+        assertEquals(List.of("chat", "batch-1", "batch-2"), order);
+    }
+
+    @Test
+    @DisplayName("Test tenants in the same class take turns")
+    void testTenantFairness() throws Exception {
+        // Given
+        LLMRequestScheduler scheduler = singleSlotScheduler();
+        CompletableFuture<String> blocker = new CompletableFuture<>();
+        scheduler.submit(ENDPOINT, RequestOptions.DEFAULT, () -> blocker);
+        RequestOptions tenantA = RequestOptions.DEFAULT.withTenant("a");
+        RequestOptions tenantB = RequestOptions.DEFAULT.withTenant("b");
+        CompletableFuture<?>[] futures = {
+            scheduler.submit(ENDPOINT, tenantA, () -> record("a1")),
+            scheduler.submit(ENDPOINT, tenantA, () -> record("a2")),
+            scheduler.submit(ENDPOINT, tenantA, () -> record("a3")),
+            scheduler.submit(ENDPOINT, tenantB, () -> record("b1"))
+        };
+
+        // When
+        blocker.complete("done");
+
+        // Then
+        CompletableFuture.allOf(futures).get(5, TimeUnit.SECONDS);
+        assertEquals(List.of("a1", "b1", "a2", "a3"), order);
+    }
+
+    @Test
+    @DisplayName("Test expired and cancelled requests are dropped before dispatch")
+    void testExpiredAndCancelledDropped() throws Exception {
+        // Given
+        LLMRequestScheduler scheduler = singleSlotScheduler();
+        CompletableFuture<String> blocker = new CompletableFuture<>();
+        scheduler.submit(ENDPOINT, RequestOptions.DEFAULT, () -> blocker);
+        AtomicBoolean expiredRan = new AtomicBoolean();
+        AtomicBoolean cancelledRan = new AtomicBoolean();
+        CompletableFuture<String> expired = scheduler.submit(ENDPOINT,
+            RequestOptions.DEFAULT.withDeadline(System.currentTimeMillis() + 20), () -> {
+                expiredRan.set(true);
+                return CompletableFuture.completedFuture("late");
+            });
+        CompletableFuture<String> cancelled = scheduler.submit(ENDPOINT, RequestOptions.DEFAULT, () -> {
+            cancelledRan.set(true);
+            return CompletableFuture.completedFuture("unwanted");
+        });
+        CompletableFuture<String> live = scheduler.submit(ENDPOINT, RequestOptions.DEFAULT, () -> record("live"));
+
+        // When
+        cancelled.cancel(true);
+        Thread.sleep(50);
+        blocker.complete("done");
+
+        // Then
+        ExecutionException error = assertThrows(ExecutionException.class, () -> expired.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, error.getCause());
+        assertEquals("live", live.get(5, TimeUnit.SECONDS));
+        assertFalse(expiredRan.get());
+        assertFalse(cancelledRan.get());
+        LLMRequestScheduler.SchedulerStats stats = scheduler.getStats();
+        assertEquals(1, stats.getExpired());
+        assertEquals(1, stats.getCancelled());
+        assertEquals(2, stats.getDispatched());
+    }
+
+    @Test
+    @DisplayName("Test queued requests expire at their deadline while no slot frees up")
+    void testDeadlineTimer() throws Exception {
+        // Given
+        LLMRequestScheduler scheduler = singleSlotScheduler();
+        scheduler.submit(ENDPOINT, RequestOptions.DEFAULT, CompletableFuture::new);
+        long start = System.currentTimeMillis();
+
+        // When - the slot is never released
+        CompletableFuture<String> later = scheduler.submit(ENDPOINT,
+            RequestOptions.DEFAULT.withDeadline(start + 300), () -> record("later"));
+        CompletableFuture<String> sooner = scheduler.submit(ENDPOINT,
+            RequestOptions.DEFAULT.withDeadline(start + 50), () -> record("sooner"));
+        CompletableFuture<String> noDeadline = scheduler.submit(ENDPOINT, RequestOptions.DEFAULT, () -> record("none"));
+
+        // Then
+        ExecutionException error = assertThrows(ExecutionException.class, () -> sooner.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, error.getCause());
+        assertFalse(later.isDone());
+        error = assertThrows(ExecutionException.class, () -> later.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, error.getCause());
+        assertTrue(System.currentTimeMillis() - start >= 300);
+        assertFalse(noDeadline.isDone());
+        assertEquals(2, scheduler.getStats().getExpired());
+        assertEquals(1, scheduler.getStats().getQueued());
+        assertTrue(order.isEmpty());
+        scheduler.shutdown();
+    }
+
+    @Test
+    @DisplayName("Test a long queue of requests that complete at once does not recurse")
+    void testSynchronousCompletionsDoNotRecurse() throws Exception {
+        // Given
+        LLMRequestScheduler scheduler = new LLMRequestScheduler(
+            new LLMRequestScheduler.SchedulerConfig(1, 1, 1, 1.5, 0.9, 50_000));
+        CompletableFuture<String> blocker = new CompletableFuture<>();
+        scheduler.submit(ENDPOINT, RequestOptions.DEFAULT, () -> blocker);
+        List<CompletableFuture<String>> queued = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            queued.add(scheduler.submit(ENDPOINT, RequestOptions.DEFAULT, () -> CompletableFuture.completedFuture("ok")));
+        }
+
+        // When
+        blocker.complete("done");
+
+        // Then
+        CompletableFuture.allOf(queued.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+        assertEquals(50_001, scheduler.getStats().getDispatched());
+        assertEquals(0, scheduler.getStats().getInFlight());
+    }
+
+    @Test
+    @DisplayName("Test tool requests differing only in scheduling parameters share one call")
+    void testSchedulingParametersNotPartOfRequest() throws Exception {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/generate", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            calls.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "{\"response\":\"shared\",\"done\":true}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        AsyncLLMConnector connector = new AsyncLLMConnector(
+            "http://127.0.0.1:" + server.getAddress().getPort(), 5, 1, false);
+
+        try {
+            // When
+            CompletableFuture<ToolResponse> first = connector.invoke(new ToolRequest("generate", Map.of(
+                "prompt", "Summarise the report", "model", "stub", "temperature", 0.2,
+                "timeoutMs", 30000, "priority", "interactive", "sessionId", "conv-1")));
+            CompletableFuture<ToolResponse> second = connector.invoke(new ToolRequest("generate", Map.of(
+                "prompt", "Summarise the report", "model", "stub", "temperature", 0.2,
+                "timeoutMs", 60000, "tenant", "reports", "conversationId", "conv-2")));
+            Thread.sleep(200);
+            release.countDown();
+
+            // Then
+            assertTrue(first.get(5, TimeUnit.SECONDS).isSuccess());
+            assertTrue(second.get(5, TimeUnit.SECONDS).isSuccess());
+            assertEquals(1, calls.get());
+            assertEquals(1, connector.getStats().getFlightStats().getCoalesced());
+            assertEquals(Map.of("temperature", 0.2), RequestOptions.withoutOptionParameters(
+                Map.of("temperature", 0.2, "tenant", "a", "timeoutMs", 10, "sessionId", "s")));
+        } finally {
+            connector.shutdown();
+            server.stop(0);
+        }
+    }
+
+    @Test
+    @DisplayName("Test concurrency limit grows under steady latency and shrinks when latency rises")
+    void testAdaptiveLimit() throws Exception {
+        // Given
+        AtomicLong now = new AtomicLong();
+        LLMRequestScheduler scheduler = new LLMRequestScheduler(
+            new LLMRequestScheduler.SchedulerConfig(4, 1, 32, 1.5, 0.9, 1000), now::get);
+
+        // When: requests keep the limit busy and take 100ms each
+        runWave(scheduler, now, 200, 100);
+        int grown = scheduler.getLimit(ENDPOINT);
+
+        // Then
+        assertTrue(grown > 4, "limit should grow, was " + grown);
+
+        // When: latency jumps to 1s
+        runWave(scheduler, now, 40, 1000);
+        int shrunk = scheduler.getLimit(ENDPOINT);
+
+        // Then
+        assertTrue(shrunk < grown, "limit should shrink, was " + grown + " now " + shrunk);
+    }
+
+    @Test
+    @DisplayName("Test timeouts cut the limit")
+    void testTimeoutBackoff() throws Exception {
+        // Given
+        LLMRequestScheduler scheduler = new LLMRequestScheduler(
+            new LLMRequestScheduler.SchedulerConfig(10, 1, 32, 1.5, 0.5, 1000));
+
+        // When
+        CompletableFuture<String> timedOut = scheduler.submit(ENDPOINT, RequestOptions.DEFAULT,
+            () -> CompletableFuture.failedFuture(new java.net.http.HttpTimeoutException("request timed out")));
+
+        // Then
+        assertThrows(ExecutionException.class, () -> timedOut.get(5, TimeUnit.SECONDS));
+        assertEquals(5, scheduler.getLimit(ENDPOINT));
+    }
+
+    /**
+     * Run requests in rounds that fill the current limit, each taking the
+     * given latency on the fake clock
+     */
+    private void runWave(LLMRequestScheduler scheduler, AtomicLong now, int requests, long latencyMillis)
+            throws Exception {
+        int done = 0;
+        while (done < requests) {
+            int batch = scheduler.getLimit(ENDPOINT);
+            List<CompletableFuture<String>> running = new CopyOnWriteArrayList<>();
+            List<CompletableFuture<String>> results = new CopyOnWriteArrayList<>();
+            for (int i = 0; i < batch; i++) {
+                CompletableFuture<String> source = new CompletableFuture<>();
+                running.add(source);
+                results.add(scheduler.submit(ENDPOINT, RequestOptions.DEFAULT, () -> source));
+            }
+            now.addAndGet(TimeUnit.MILLISECONDS.toNanos(latencyMillis));
+            for (CompletableFuture<String> source : running) {
+                source.complete("ok");
+            }
+            CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+            done += batch;
+        }
+    }
+
+    private CompletableFuture<String> record(String name) {
+        order.add(name);
+        return CompletableFuture.completedFuture(name);
+    }
+}
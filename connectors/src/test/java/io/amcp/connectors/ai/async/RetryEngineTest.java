@@ -0,0 +1,220 @@
+package io.amcp.connectors.ai.async;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for timer-scheduled retries: backoff, Retry-After, budgets,
+ * deadlines and cancellation.
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+class RetryEngineTest {
+
+    private RetryEngine engine;
+
+    @AfterEach
+    void tearDown() {
+        if (engine != null) {
+            engine.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Test transient failures are retried until success")
+    void testRetryUntilSuccess() throws Exception {
+        // Given
+        engine = new RetryEngine(new RetryEngine.RetryPolicy(3, 10, 100, 0.2, 1.0));
+        AtomicInteger attempts = new AtomicInteger();
+
+        // When
+        CompletableFuture<String> result = engine.execute("endpoint", 0, attempt -> {
+            attempts.incrementAndGet();
+            return attempt < 3
+                ? CompletableFuture.failedFuture(new IOException("connection refused"))
+                : CompletableFuture.completedFuture("ok");
+        });
+
+        // Then
+        assertEquals("ok", result.get(5, TimeUnit.SECONDS));
+        assertEquals(3, attempts.get());
+        assertEquals(2, engine.getStats().getRetries());
+    }
+
+    @Test
+    @DisplayName("Test client errors are not retried")
+    void testClientErrorNotRetried() {
+        // Given
+        engine = new RetryEngine(new RetryEngine.RetryPolicy(3, 10, 100, 0.2, 1.0));
+        AtomicInteger attempts = new AtomicInteger();
+
+        // When
+        CompletableFuture<String> result = engine.execute("endpoint", 0, attempt -> {
+            attempts.incrementAndGet();
+            return CompletableFuture.failedFuture(new LLMHttpException(400, -1));
+        });
+
+        // Then
+        ExecutionException error = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(LLMHttpException.class, error.getCause());
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    @DisplayName("Test Retry-After delays the retry")
+    void testRetryAfterHonoured() throws Exception {
+        // Given
+        engine = new RetryEngine(new RetryEngine.RetryPolicy(2, 1, 1000, 0.2, 1.0));
+        long start = System.currentTimeMillis();
+
+        // When
+        CompletableFuture<String> result = engine.execute("endpoint", 0, attempt -> attempt == 1
+            ? CompletableFuture.failedFuture(new LLMHttpException(503, 200))
+            : CompletableFuture.completedFuture("ok"));
+
+        // Then
+        assertEquals("ok", result.get(5, TimeUnit.SECONDS));
+        assertTrue(System.currentTimeMillis() - start >= 200);
+        assertEquals(1, engine.getStats().getRetryAfterHonoured());
+    }
+
+    @Test
+    @DisplayName("Test a Retry-After beyond the maximum backoff fails at once")
+    void testRetryAfterTooLong() {
+        // Given
+        engine = new RetryEngine(new RetryEngine.RetryPolicy(3, 1, 1000, 0.2, 1.0));
+        AtomicInteger attempts = new AtomicInteger();
+
+        // When - the server asks for an hour
+        CompletableFuture<String> result = engine.execute("endpoint", 0, attempt -> {
+            attempts.incrementAndGet();
+            return CompletableFuture.failedFuture(new LLMHttpException(503, 3_600_000));
+        });
+
+        // Then
+        ExecutionException error = assertThrows(ExecutionException.class, () -> result.get(1, TimeUnit.SECONDS));
+        assertEquals(3_600_000, assertInstanceOf(LLMHttpException.class, error.getCause()).getRetryAfterMillis());
+        assertEquals(1, attempts.get());
+        assertEquals(0, engine.getStats().getRetries());
+    }
+
+    @Test
+    @DisplayName("Test retries stop once the endpoint budget is spent")
+    void testRetryBudget() throws Exception {
+        // Given: no budget earned from traffic or time, only the initial reserve of 10
+        engine = new RetryEngine(new RetryEngine.RetryPolicy(2, 1, 1, 0.0, 0.0));
+        CompletableFuture<?>[] results = new CompletableFuture<?>[15];
+
+        // When
+        for (int i = 0; i < results.length; i++) {
+            results[i] = engine.execute("failing", 0,
+                attempt -> CompletableFuture.failedFuture(new IOException("connection refused")));
+        }
+        CompletableFuture.allOf(results).handle((value, error) -> null).get(5, TimeUnit.SECONDS);
+
+        // Then
+        RetryEngine.RetryStats stats = engine.getStats();
+        assertEquals(10, stats.getRetries());
+        assertEquals(5, stats.getBudgetExhausted());
+    }
+
+    @Test
+    @DisplayName("Test no retry is scheduled past the deadline and cancelling drops a pending retry")
+    void testDeadlineAndCancel() throws Exception {
+        // Given
+        engine = new RetryEngine(new RetryEngine.RetryPolicy(3, 500, 1000, 0.2, 1.0));
+        AtomicInteger attempts = new AtomicInteger();
+
+        // When
+        CompletableFuture<String> late = engine.execute("endpoint", System.currentTimeMillis() + 100, attempt -> {
+            attempts.incrementAndGet();
+            return CompletableFuture.failedFuture(new IOException("connection refused"));
+        });
+
+        // Then
+        assertThrows(ExecutionException.class, () -> late.get(5, TimeUnit.SECONDS));
+        assertEquals(1, attempts.get());
+
+        // When
+        attempts.set(0);
+        CompletableFuture<String> cancelled = engine.execute("endpoint", 0, attempt -> {
+            attempts.incrementAndGet();
+            return CompletableFuture.failedFuture(new IOException("connection refused"));
+        });
+        cancelled.cancel(true);
+        Thread.sleep(1200);
+
+        // Then
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    @DisplayName("Test Retry-After accepts seconds and HTTP dates")
+    void testParseRetryAfter() {
+        assertEquals(3000, LLMHttpException.parseRetryAfter("3"));
+        String date = ZonedDateTime.now().plusSeconds(60).format(DateTimeFormatter.RFC_1123_DATE_TIME);
+        long millis = LLMHttpException.parseRetryAfter(date);
+        assertTrue(millis > 50_000 && millis <= 60_000, "was " + millis);
+        assertEquals(-1, LLMHttpException.parseRetryAfter("soon"));
+    }
+
+    @Test
+    @DisplayName("Test connector retries a throttled request without blocking")
+    void testConnectorRetriesThrottledRequest() throws Exception {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/generate", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            if (calls.incrementAndGet() == 1) {
+                exchange.getResponseHeaders().add("Retry-After", "0");
+                exchange.sendResponseHeaders(503, -1);
+                exchange.close();
+                return;
+            }
+            byte[] body = "{\"model\":\"stub\",\"response\":\"recovered\",\"done\":true}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        AsyncLLMConnector connector = new AsyncLLMConnector(
+            "http://127.0.0.1:" + server.getAddress().getPort(), 5, 3, false);
+
+        try {
+            // When
+            CompletableFuture<String> pending = connector.generateAsync("Say hello", "stub", Map.of());
+            while (calls.get() < 1) {
+                Thread.sleep(10);
+            }
+            Thread.sleep(200);
+            int inFlightDuringBackoff = connector.getSchedulerStats().getInFlight();
+            String response = pending.get(10, TimeUnit.SECONDS);
+
+            // Then
+            assertEquals(0, inFlightDuringBackoff, "no scheduler slot is held while waiting to retry");
+            assertEquals("recovered", response);
+            assertEquals(2, calls.get());
+            assertEquals(1, connector.getRetryStats().getRetries());
+        } finally {
+            connector.shutdown();
+            server.stop(0);
+        }
+    }
+}
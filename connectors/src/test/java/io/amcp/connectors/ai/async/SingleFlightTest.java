@@ -0,0 +1,175 @@
+package io.amcp.connectors.ai.async;
+
+import io.amcp.connectors.ai.cache.LLMResponseCache;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for in-flight request deduplication.
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+class SingleFlightTest {
+
+    @Test
+    @DisplayName("Test concurrent identical requests share one call")
+    void testConcurrentRequestsShareOneCall() throws Exception {
+        // Given
+        SingleFlight<String> flight = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<String> source = new CompletableFuture<>();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch ready = new CountDownLatch(1);
+        List<CompletableFuture<CompletableFuture<String>>> submitted = new ArrayList<>();
+
+        // When
+        for (int i = 0; i < 16; i++) {
+            submitted.add(CompletableFuture.supplyAsync(() -> {
+                awaitQuietly(ready);
+                return flight.execute("key", () -> {
+                    calls.incrementAndGet();
+                    return source;
+                });
+            }, executor));
+        }
+        ready.countDown();
+        List<CompletableFuture<String>> waiters = new ArrayList<>();
+        for (CompletableFuture<CompletableFuture<String>> future : submitted) {
+            waiters.add(future.get(5, TimeUnit.SECONDS));
+        }
+        source.complete("response");
+
+        // Then
+        for (CompletableFuture<String> waiter : waiters) {
+            assertEquals("response", waiter.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, calls.get());
+        SingleFlight.FlightStats stats = flight.getStats();
+        assertEquals(1, stats.getCalls());
+        assertEquals(15, stats.getCoalesced());
+        assertEquals(0, stats.getInFlight());
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Test a completed call releases its key")
+    void testCompletedCallReleasesKey() throws Exception {
+        // Given
+        SingleFlight<String> flight = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+
+        // When
+        String first = flight.execute("key", () -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture("first");
+        }).get();
+        String second = flight.execute("key", () -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture("second");
+        }).get();
+
+        // Then
+        assertEquals("first", first);
+        assertEquals("second", second);
+        assertEquals(2, calls.get());
+        assertEquals(0, flight.getInFlightCount());
+    }
+
+    @Test
+    @DisplayName("Test cancelling one waiter leaves the shared call running")
+    void testCancelOneWaiter() throws Exception {
+        // Given
+        SingleFlight<String> flight = new SingleFlight<>();
+        CompletableFuture<String> source = new CompletableFuture<>();
+        CompletableFuture<String> first = flight.execute("key", () -> source);
+        CompletableFuture<String> second = flight.execute("key", () -> source);
+
+        // When
+        first.cancel(true);
+        source.complete("response");
+
+        // Then
+        assertTrue(first.isCancelled());
+        assertFalse(source.isCancelled());
+        assertEquals("response", second.get(5, TimeUnit.SECONDS));
+        assertEquals(0, flight.getStats().getCancelledCalls());
+    }
+
+    @Test
+    @DisplayName("Test cancelling every waiter cancels the shared call")
+    void testCancelAllWaiters() throws Exception {
+        // Given
+        SingleFlight<String> flight = new SingleFlight<>();
+        CompletableFuture<String> source = new CompletableFuture<>();
+        CompletableFuture<String> first = flight.execute("key", () -> source);
+        CompletableFuture<String> second = flight.execute("key", () -> source);
+
+        // When
+        first.cancel(true);
+        second.cancel(true);
+        CompletableFuture<String> next = flight.execute("key", () -> CompletableFuture.completedFuture("fresh"));
+
+        // Then
+        assertTrue(source.isCancelled());
+        assertEquals("fresh", next.get(5, TimeUnit.SECONDS));
+        assertEquals(1, flight.getStats().getCancelledCalls());
+    }
+
+    @Test
+    @DisplayName("Test failures reach every waiter")
+    void testFailureReachesWaiters() {
+        // Given
+        SingleFlight<String> flight = new SingleFlight<>();
+        CompletableFuture<String> source = new CompletableFuture<>();
+        CompletableFuture<String> first = flight.execute("key", () -> source);
+        CompletableFuture<String> second = flight.execute("key", () -> source);
+
+        // When
+        source.completeExceptionally(new IllegalStateException("model unavailable"));
+
+        // Then
+        Exception error = assertThrows(Exception.class, () -> first.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, error.getCause());
+        error = assertThrows(Exception.class, () -> second.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, error.getCause());
+    }
+
+    @Test
+    @DisplayName("Test request key ignores parameter order")
+    void testRequestKeyIgnoresParameterOrder() {
+        // Given
+        Map<String, Object> ordered = new LinkedHashMap<>();
+        ordered.put("temperature", 0.7);
+        ordered.put("max_tokens", 100);
+        Map<String, Object> reversed = new LinkedHashMap<>();
+        reversed.put("max_tokens", 100);
+        reversed.put("temperature", 0.7);
+
+        // When / Then
+        assertEquals(LLMResponseCache.cacheKey("prompt", "llama3", ordered),
+            LLMResponseCache.cacheKey("prompt", "llama3", reversed));
+        assertNotEquals(LLMResponseCache.cacheKey("prompt", "llama3", ordered),
+            LLMResponseCache.cacheKey("prompt", "mistral", ordered));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
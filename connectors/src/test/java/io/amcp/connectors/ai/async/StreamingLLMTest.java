@@ -0,0 +1,304 @@
+package io.amcp.connectors.ai.async;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.amcp.connectors.ai.OllamaSpringAIConnector;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for streamed LLM responses against a local stub of the Ollama
+ * generate endpoint.
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+class StreamingLLMTest {
+
+    private HttpServer server;
+    private AsyncLLMConnector connector;
+    private final CountDownLatch releaseRest = new CountDownLatch(1);
+    private volatile List<String> chunks;
+    private volatile int status = 200;
+    private final AtomicInteger failuresLeft = new AtomicInteger();
+    private final AtomicInteger requests = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        chunks = List.of(
+            "{\"model\":\"stub\",\"response\":\"Hello\",\"done\":false}",
+            "{\"model\":\"stub\",\"response\":\", \",\"done\":false}",
+            "{\"model\":\"stub\",\"response\":\"world\",\"done\":false}",
+            "{\"model\":\"stub\",\"response\":\"\",\"done\":true}"
+        );
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/generate", this::handleGenerate);
+        server.start();
+        connector = new AsyncLLMConnector(baseUrl(), 5, 1, false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseRest.countDown();
+        connector.shutdown();
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("Test tokens arrive before the response is complete")
+    void testTokensArriveIncrementally() throws Exception {
+        // Given
+        List<LLMToken> tokens = new CopyOnWriteArrayList<>();
+        CountDownLatch firstToken = new CountDownLatch(1);
+
+        // When
+        CompletableFuture<String> response = connector.generateStream("Say hello", "stub", Map.of(), token -> {
+            tokens.add(token);
+            firstToken.countDown();
+        });
+
+        // Then
+        assertTrue(firstToken.await(5, TimeUnit.SECONDS), "first token should arrive while the server waits");
+        assertFalse(response.isDone());
+        assertEquals("Hello", tokens.get(0).getText());
+
+        releaseRest.countDown();
+        assertEquals("Hello, world", response.get(5, TimeUnit.SECONDS));
+        assertEquals(4, tokens.size());
+        assertTrue(tokens.get(3).isDone());
+        assertEquals(3, tokens.get(3).getIndex());
+    }
+
+    @Test
+    @DisplayName("Test token publisher emits every token and completes")
+    void testPublisher() throws Exception {
+        // Given
+        releaseRest.countDown();
+        List<String> received = new CopyOnWriteArrayList<>();
+        CompletableFuture<Void> completed = new CompletableFuture<>();
+
+        // When
+        connector.streamAsync("Say hello", "stub", Map.of()).subscribe(new Flow.Subscriber<LLMToken>() {
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(LLMToken item) {
+                received.add(item.getText());
+                subscription.request(1);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                completed.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                completed.complete(null);
+            }
+        });
+
+        // Then
+        completed.get(5, TimeUnit.SECONDS);
+        assertEquals(List.of("Hello", ", ", "world", ""), received);
+    }
+
+    @Test
+    @DisplayName("Test error chunks and bad status fail the stream")
+    void testStreamErrors() {
+        // Given
+        releaseRest.countDown();
+        chunks = List.of("{\"error\":\"model 'stub' not found\"}");
+
+        // When
+        CompletableFuture<String> errorChunk = connector.generateStream("Say hello", "stub", Map.of(), token -> { });
+
+        // Then
+        ExecutionException error = assertThrows(ExecutionException.class, () -> errorChunk.get(5, TimeUnit.SECONDS));
+        assertTrue(error.getCause().getMessage().contains("not found"));
+
+        // When
+        status = 500;
+        CompletableFuture<String> badStatus = connector.generateStream("Say hello", "stub", Map.of(), token -> { });
+
+        // Then
+        error = assertThrows(ExecutionException.class, () -> badStatus.get(5, TimeUnit.SECONDS));
+        assertTrue(error.getCause().getMessage().contains("500"));
+        assertEquals(500, assertInstanceOf(LLMHttpException.class, error.getCause()).getStatusCode());
+        assertEquals(2, connector.getStats().getFailedRequests());
+    }
+
+    @Test
+    @DisplayName("Test OLLAMA connector streams chat responses")
+    void testOllamaConnectorStreamChat() throws Exception {
+        // Given
+        releaseRest.countDown();
+        OllamaSpringAIConnector ollama = new OllamaSpringAIConnector(baseUrl(), "stub", 5);
+        StringBuilder streamed = new StringBuilder();
+
+        // When
+        Map<String, Object> result = ollama.streamChat("Say hello", "stub", "conversation-1",
+            token -> streamed.append(token.getText())).get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals("Hello, world", result.get("response"));
+        assertEquals("Hello, world", streamed.toString());
+        assertEquals("conversation-1", result.get("conversationId"));
+        ollama.shutdown().join();
+    }
+
+    @Test
+    @DisplayName("Test OLLAMA connector retries a stream that fails before its first token")
+    void testOllamaConnectorStreamRetry() throws Exception {
+        // Given
+        releaseRest.countDown();
+        failuresLeft.set(1);
+        OllamaSpringAIConnector ollama = new OllamaSpringAIConnector(baseUrl(), "stub", 5);
+        StringBuilder streamed = new StringBuilder();
+
+        try {
+            // When
+            Map<String, Object> result = ollama.streamChat("Say hello", "stub", "conversation-1",
+                token -> streamed.append(token.getText())).get(5, TimeUnit.SECONDS);
+
+            // Then
+            assertEquals("Hello, world", result.get("response"));
+            assertEquals("Hello, world", streamed.toString());
+            assertEquals(2, requests.get());
+
+            // When - a client error is not retried
+            status = 404;
+            CompletableFuture<Map<String, Object>> missing = ollama.streamChat("Say hello", "stub",
+                "conversation-1", token -> { });
+
+            // Then
+            ExecutionException error = assertThrows(ExecutionException.class, () -> missing.get(5, TimeUnit.SECONDS));
+            assertEquals(404, assertInstanceOf(LLMHttpException.class, error.getCause()).getStatusCode());
+            assertEquals(3, requests.get());
+        } finally {
+            ollama.shutdown().join();
+        }
+    }
+
+    @Test
+    @DisplayName("Test token publisher fails a subscriber that falls a buffer behind instead of blocking")
+    void testPublisherOverflow() throws Exception {
+        // Given
+        releaseRest.countDown();
+        List<String> many = new ArrayList<>();
+        for (int i = 0; i < Flow.defaultBufferSize() * 2; i++) {
+            many.add("{\"response\":\"t" + i + "\",\"done\":false}");
+        }
+        many.add("{\"response\":\"\",\"done\":true}");
+        chunks = many;
+        CompletableFuture<Throwable> failed = new CompletableFuture<>();
+
+        // When - the subscriber takes one token and never asks for more
+        connector.streamAsync("Say hello", "stub", Map.of()).subscribe(new Flow.Subscriber<LLMToken>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(LLMToken item) {
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                failed.complete(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                failed.complete(null);
+            }
+        });
+
+        // Then
+        assertInstanceOf(IllegalStateException.class, failed.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Test chunks split across body buffers are reassembled")
+    void testChunksSplitAcrossBuffers() throws Exception {
+        // Given
+        List<String> received = new CopyOnWriteArrayList<>();
+        NdjsonTokenSubscriber subscriber = new NdjsonTokenSubscriber("stub", token -> received.add(token.getText()));
+        byte[] body = ("{\"response\":\"caf\u00e9 \\\"ok\\\"\",\"done\":false}\n\n"
+            + "{\"response\":\"\u2603\",\"done\":false}\n"
+            + "{\"response\":\"\",\"done\":true}").getBytes(StandardCharsets.UTF_8);
+        subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+            }
+
+            @Override
+            public void cancel() {
+            }
+        });
+
+        // When - three bytes at a time, cutting lines and multi-byte characters
+        for (int i = 0; i < body.length; i += 3) {
+            int end = Math.min(body.length, i + 3);
+            subscriber.onNext(List.of(ByteBuffer.wrap(Arrays.copyOfRange(body, i, end))));
+        }
+        subscriber.onComplete();
+
+        // Then
+        assertEquals("caf\u00e9 \"ok\"\u2603", subscriber.getResult().get(5, TimeUnit.SECONDS));
+        assertEquals(List.of("caf\u00e9 \"ok\"", "\u2603", ""), received);
+    }
+
+    private String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    private void handleGenerate(HttpExchange exchange) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        requests.incrementAndGet();
+        int code = failuresLeft.getAndUpdate(left -> Math.max(0, left - 1)) > 0 ? 503 : status;
+        if (code != 200) {
+            exchange.sendResponseHeaders(code, -1);
+            exchange.close();
+            return;
+        }
+        exchange.getResponseHeaders().add("Content-Type", "application/x-ndjson");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream body = exchange.getResponseBody()) {
+            for (int i = 0; i < chunks.size(); i++) {
+                body.write((chunks.get(i) + "\n").getBytes(StandardCharsets.UTF_8));
+                body.flush();
+                if (i == 0) {
+                    releaseRest.await(5, TimeUnit.SECONDS);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package io.amcp.connectors.ai.cache;
+
+import org.junit.jupiter.api.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the shared cache core: bounds, scan resistance, timer wheel
+ * expiry and concurrent statistics.
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+class ConcurrentCacheTest {
+
+    @Test
+    @DisplayName("Test size bound holds at 100k entries")
+    void testSizeBound() {
+        // Given
+        ConcurrentCache<Integer, Integer> cache = ConcurrentCache.<Integer, Integer>builder()
+            .maximumSize(1000)
+            .build();
+
+        // When
+        for (int i = 0; i < 100_000; i++) {
+            cache.put(i, i);
+        }
+
+        // Then
+        assertEquals(1000, cache.size());
+        assertEquals(1000, cache.weightedSize());
+        assertEquals(99_000, cache.getStatistics().getEvictions());
+    }
+
+    @Test
+    @DisplayName("Test frequently used entries survive a scan")
+    void testScanResistance() {
+        // Given - a hot set that is read repeatedly
+        ConcurrentCache<String, String> cache = ConcurrentCache.<String, String>builder()
+            .maximumSize(100)
+            .build();
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 50; i++) {
+                cache.put("hot-" + i, "value");
+                cache.getIfPresent("hot-" + i);
+            }
+        }
+        cache.cleanUp();
+
+        // When - a one-off scan far larger than the cache
+        for (int i = 0; i < 10_000; i++) {
+            cache.put("scan-" + i, "value");
+        }
+
+        // Then
+        int survivors = 0;
+        for (int i = 0; i < 50; i++) {
+            if (cache.getIfPresent("hot-" + i) != null) {
+                survivors++;
+            }
+        }
+        assertTrue(survivors >= 45, "hot entries surviving the scan: " + survivors);
+    }
+
+    @Test
+    @DisplayName("Test entries expire through the timer wheel")
+    void testExpiry() {
+        // Given
+        AtomicLong now = new AtomicLong(1_000_000);
+        ConcurrentCache<String, String> cache = ConcurrentCache.<String, String>builder()
+            .maximumSize(100)
+            .expireAfterWrite(1, TimeUnit.MINUTES)
+            .clock(now::get)
+            .build();
+        cache.put("default", "value");
+        cache.put("short", "value", 2, TimeUnit.SECONDS);
+        cache.put("long", "value", 2, TimeUnit.HOURS);
+
+        // When / Then
+        now.addAndGet(3_000);
+        assertNull(cache.getIfPresent("short"));
+        assertNotNull(cache.getIfPresent("default"));
+        cache.cleanUp();
+        assertEquals(2, cache.size());
+
+        now.addAndGet(TimeUnit.MINUTES.toMillis(1));
+        cache.cleanUp();
+        assertEquals(1, cache.size());
+        assertNotNull(cache.getIfPresent("long"));
+
+        now.addAndGet(TimeUnit.HOURS.toMillis(2));
+        cache.cleanUp();
+        assertEquals(0, cache.size());
+        assertEquals(3, cache.getStatistics().getExpirations());
+    }
+
+    @Test
+    @DisplayName("Test weight bound counts bytes rather than entries")
+    void testWeightBound() {
+        // Given
+        ConcurrentCache<String, byte[]> cache = ConcurrentCache.<String, byte[]>builder()
+            .maximumWeight(10_000)
+            .weigher((key, value) -> value.length)
+            .build();
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            cache.put("small-" + i, new byte[10]);
+        }
+        cache.put("large", new byte[9_500]);
+        cache.put("too-large", new byte[20_000]);
+
+        // Then
+        assertTrue(cache.weightedSize() <= 10_000);
+        assertNull(cache.getIfPresent("too-large"));
+    }
+
+    @Test
+    @DisplayName("Test statistics are exact under concurrent reads")
+    void testConcurrentStatistics() throws Exception {
+        // Given
+        ConcurrentCache<Integer, Integer> cache = ConcurrentCache.<Integer, Integer>builder()
+            .maximumSize(10_000)
+            .build();
+        for (int i = 0; i < 1000; i++) {
+            cache.put(i, i);
+        }
+        int threads = 8;
+        int readsPerThread = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+
+        // When - half the reads hit, half miss
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                for (int i = 0; i < readsPerThread; i++) {
+                    cache.getIfPresent(i % 2000);
+                }
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        // Then
+        ConcurrentCache.CacheStatistics stats = cache.getStatistics();
+        assertEquals(threads * readsPerThread / 2, stats.getHits());
+        assertEquals(threads * readsPerThread / 2, stats.getMisses());
+        assertEquals(1000, cache.size());
+    }
+}
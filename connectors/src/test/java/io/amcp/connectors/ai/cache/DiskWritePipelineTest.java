@@ -0,0 +1,175 @@
+package io.amcp.connectors.ai.cache;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the cache write pipeline: coalescing, dropping when full, and
+ * draining on flush and close.
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+class DiskWritePipelineTest {
+
+    @TempDir
+    Path tempDir;
+
+    private SegmentedDiskStore store;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        store = new SegmentedDiskStore(tempDir);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        store.close();
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    @DisplayName("Test repeated writes to a key are coalesced, last value wins")
+    void testCoalescing() throws Exception {
+        // Given - a writer stalled on its first record
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        DiskWritePipeline<String> pipeline = new DiskWritePipeline<>(store, value -> {
+            if (value.equals("blocker")) {
+                started.countDown();
+                awaitQuietly(release);
+            }
+            return bytes(value);
+        }, new DiskWritePipeline.PipelineConfig(100, 10, 0, 0, DiskWritePipeline.SyncPolicy.NEVER, 0));
+        pipeline.submit("blocker", "blocker", Long.MAX_VALUE);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // When
+        for (int i = 0; i < 50; i++) {
+            pipeline.submit("key", "value-" + i, Long.MAX_VALUE);
+        }
+        release.countDown();
+        pipeline.flush();
+
+        // Then
+        assertArrayEquals(bytes("value-49"), store.get("key"));
+        DiskWritePipeline.PipelineStatistics stats = pipeline.getStatistics();
+        assertEquals(49, stats.getCoalesced());
+        assertEquals(2, stats.getWritten());
+        pipeline.close();
+    }
+
+    @Test
+    @DisplayName("Test flush waits for a key coalesced after the flush began")
+    void testFlushWaitsForCoalescedKey() throws Exception {
+        // Given - a writer stalled on its first record and a flush waiting behind it
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        DiskWritePipeline<String> pipeline = new DiskWritePipeline<>(store, value -> {
+            if (value.equals("blocker")) {
+                started.countDown();
+                awaitQuietly(release);
+            }
+            return bytes(value);
+        }, new DiskWritePipeline.PipelineConfig(100, 10, 200, 0, DiskWritePipeline.SyncPolicy.NEVER, 0));
+        pipeline.submit("blocker", "blocker", Long.MAX_VALUE);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        pipeline.submit("key", "before-flush", Long.MAX_VALUE);
+        Thread flusher = new Thread(() -> {
+            try {
+                pipeline.flush();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        flusher.start();
+        while (flusher.getState() != Thread.State.WAITING) {
+            Thread.sleep(1);
+        }
+
+        // When - the key is written again while the writer lingers for a batch
+        pipeline.submit("key", "after-flush", Long.MAX_VALUE);
+        release.countDown();
+        flusher.join(5000);
+
+        // Then - the flush returned only once the key was on disk
+        assertFalse(flusher.isAlive());
+        assertArrayEquals(bytes("after-flush"), store.get("key"));
+        pipeline.close();
+    }
+
+    @Test
+    @DisplayName("Test a full queue drops writes instead of blocking")
+    void testDropWhenFull() throws Exception {
+        // Given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        DiskWritePipeline<String> pipeline = new DiskWritePipeline<>(store, value -> {
+            if (value.equals("blocker")) {
+                started.countDown();
+                awaitQuietly(release);
+            }
+            return bytes(value);
+        }, new DiskWritePipeline.PipelineConfig(3, 10, 0, 0, DiskWritePipeline.SyncPolicy.EVERY_BATCH, 0));
+        pipeline.submit("blocker", "blocker", Long.MAX_VALUE);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // When
+        int accepted = 0;
+        for (int i = 0; i < 10; i++) {
+            if (pipeline.submit("key-" + i, "value", Long.MAX_VALUE)) {
+                accepted++;
+            }
+        }
+        release.countDown();
+        pipeline.close();
+
+        // Then
+        assertEquals(3, accepted);
+        DiskWritePipeline.PipelineStatistics stats = pipeline.getStatistics();
+        assertEquals(7, stats.getDropped());
+        assertEquals(4, stats.getWritten());
+        assertEquals(4, store.size());
+        assertFalse(pipeline.submit("late", "value", Long.MAX_VALUE));
+    }
+
+    @Test
+    @DisplayName("Test a burst of cache puts uses one writer and reaches disk")
+    void testCacheBurst() throws Exception {
+        // Given
+        LLMResponseCache cache = new LLMResponseCache(tempDir.resolve("cache").toString(), 1, 10);
+        int threadsBefore = Thread.activeCount();
+
+        // When
+        for (int i = 0; i < 1000; i++) {
+            cache.put("prompt " + i, "response " + i, "model", Map.of());
+        }
+        int threadsDuring = Thread.activeCount();
+        cache.flush();
+
+        // Then
+        assertTrue(threadsDuring - threadsBefore < 5, "threads started: " + (threadsDuring - threadsBefore));
+        assertEquals(1000, cache.getStats().getDiskSize());
+        assertEquals(1000, cache.getWriteStatistics().getWritten());
+        cache.close();
+    }
+}
@@ -23,6 +23,11 @@ class LLMResponseCacheTest {
     
     private LLMResponseCache cache;
     
+    @AfterEach
+    void tearDown() {
+        cache.close();
+    }
+    
     @BeforeEach
     void setUp() {
         // Create cache with test directory and short TTL for testing
@@ -309,6 +314,30 @@ class LLMResponseCacheTest {
         assertEquals(response2, result.get());
     }
     
+    @Test
+    @DisplayName("Test caches on one directory share its store")
+    void testCachesShareStore() throws Exception {
+        // Given
+        LLMResponseCache other = new LLMResponseCache(tempDir.toString(), 1, 10);
+        Map<String, Object> parameters = Map.of("temperature", 0.2);
+
+        // When
+        cache.put("First prompt", "First response", "gemma:2b", parameters);
+        cache.flush();
+        Optional<String> seenByOther = other.get("First prompt", "gemma:2b", parameters);
+        other.close();
+        cache.put("Second prompt", "Second response", "gemma:2b", parameters);
+        cache.flush();
+        cache.close();
+        LLMResponseCache reopened = new LLMResponseCache(tempDir.toString(), 1, 10);
+
+        // Then
+        assertEquals(Optional.of("First response"), seenByOther);
+        assertEquals(2, reopened.getDiskStatistics().getEntries());
+        assertEquals(Optional.of("Second response"), reopened.get("Second prompt", "gemma:2b", parameters));
+        reopened.close();
+    }
+    
     @Test
     @DisplayName("Test cache with empty and null values")
     void testCacheWithEmptyValues() {
@@ -0,0 +1,181 @@
+package io.amcp.connectors.ai.cache;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the segmented log store behind LLMResponseCache: recovery,
+ * torn-tail truncation, tombstones, compaction and the directory lock.
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+class SegmentedDiskStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("Test values and deletes survive reopening")
+    void testReopen() throws Exception {
+        // Given
+        try (SegmentedDiskStore store = new SegmentedDiskStore(tempDir)) {
+            store.put("a", bytes("first"), Long.MAX_VALUE);
+            store.put("b", bytes("second"), Long.MAX_VALUE);
+            store.put("a", bytes("replaced"), Long.MAX_VALUE);
+            store.remove("b");
+        }
+
+        // When
+        try (SegmentedDiskStore store = new SegmentedDiskStore(tempDir)) {
+            // Then
+            assertArrayEquals(bytes("replaced"), store.get("a"));
+            assertNull(store.get("b"));
+            assertEquals(1, store.size());
+        }
+    }
+
+    @Test
+    @DisplayName("Test a second store cannot open a directory in use")
+    void testDirectoryLock() throws Exception {
+        // Given
+        try (SegmentedDiskStore store = new SegmentedDiskStore(tempDir)) {
+            store.put("a", bytes("first"), Long.MAX_VALUE);
+
+            // When / Then
+            IOException error = assertThrows(IOException.class, () -> new SegmentedDiskStore(tempDir));
+            assertTrue(error.getMessage().contains("in use"));
+            assertArrayEquals(bytes("first"), store.get("a"));
+        }
+
+        // When - the first store has closed
+        try (SegmentedDiskStore store = new SegmentedDiskStore(tempDir)) {
+            // Then
+            assertArrayEquals(bytes("first"), store.get("a"));
+        }
+    }
+
+    @Test
+    @DisplayName("Test torn tail is truncated on recovery")
+    void testTornTail() throws Exception {
+        // Given
+        try (SegmentedDiskStore store = new SegmentedDiskStore(tempDir)) {
+            store.put("kept", bytes("value"), Long.MAX_VALUE);
+            store.put("torn", bytes("partially written value"), Long.MAX_VALUE);
+        }
+        Path segment;
+        try (var files = Files.list(tempDir)) {
+            segment = files.filter(path -> path.getFileName().toString().endsWith(".log"))
+                .findFirst().orElseThrow();
+        }
+        long fullSize = Files.size(segment);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(fullSize - 5);
+        }
+
+        // When
+        try (SegmentedDiskStore store = new SegmentedDiskStore(tempDir)) {
+            // Then
+            assertArrayEquals(bytes("value"), store.get("kept"));
+            assertNull(store.get("torn"));
+            assertTrue(store.getStatistics().getTruncatedBytes() > 0);
+
+            store.put("after", bytes("appended"), Long.MAX_VALUE);
+        }
+        try (SegmentedDiskStore store = new SegmentedDiskStore(tempDir)) {
+            assertArrayEquals(bytes("appended"), store.get("after"));
+        }
+    }
+
+    @Test
+    @DisplayName("Test expired entries are dropped and compacted away")
+    void testExpiryAndCompaction() throws Exception {
+        try (SegmentedDiskStore store = new SegmentedDiskStore(tempDir, 4096, 0.5)) {
+            // Given - several sealed segments of short-lived entries and one survivor
+            byte[] payload = new byte[512];
+            long past = System.currentTimeMillis() - 1;
+            store.put("survivor", bytes("live"), Long.MAX_VALUE);
+            for (int i = 0; i < 40; i++) {
+                store.put("expired-" + i, payload, past);
+            }
+            int segmentsBefore = store.getStatistics().getSegments();
+            assertTrue(segmentsBefore > 2);
+
+            // When
+            assertEquals(40, store.purgeExpired());
+            int compacted = store.compact();
+
+            // Then
+            assertTrue(compacted > 0);
+            assertTrue(store.getStatistics().getSegments() < segmentsBefore);
+            assertArrayEquals(bytes("live"), store.get("survivor"));
+            assertEquals(1, store.size());
+        }
+        try (SegmentedDiskStore store = new SegmentedDiskStore(tempDir, 4096, 0.5)) {
+            assertArrayEquals(bytes("live"), store.get("survivor"));
+            assertEquals(1, store.size());
+        }
+    }
+
+    @Test
+    @DisplayName("Test cached responses larger than 64KB round-trip")
+    void testLargeResponse() throws Exception {
+        // Given
+        char[] text = new char[200_000];
+        Arrays.fill(text, 'x');
+        String response = new String(text);
+        LLMResponseCache cache = new LLMResponseCache(tempDir.toString(), 1, 10);
+        cache.put("prompt", response, "model", Map.of("temperature", 0.5, "stream", false));
+
+        // When - a fresh instance has only the disk tier
+        cache.flush();
+        cache.close();
+        LLMResponseCache reopened = new LLMResponseCache(tempDir.toString(), 1, 10);
+        Optional<String> result = reopened.get("prompt", "model", Map.of("temperature", 0.5, "stream", false));
+
+        // Then
+        assertTrue(result.isPresent());
+        assertEquals(response, result.get());
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("Test an interrupted reader does not close the store for others")
+    void testInterruptedRead() throws Exception {
+        // Given
+        try (SegmentedDiskStore store = new SegmentedDiskStore(tempDir)) {
+            store.put("a", bytes("value"), Long.MAX_VALUE);
+            byte[][] interruptedRead = new byte[1][];
+            Thread reader = new Thread(() -> {
+                Thread.currentThread().interrupt();
+                interruptedRead[0] = store.get("a");
+            });
+
+            // When
+            reader.start();
+            reader.join(5000);
+            store.put("b", bytes("written after"), Long.MAX_VALUE);
+
+            // Then
+            assertNull(interruptedRead[0]);
+            assertArrayEquals(bytes("value"), store.get("a"));
+            assertArrayEquals(bytes("written after"), store.get("b"));
+        }
+    }
+}
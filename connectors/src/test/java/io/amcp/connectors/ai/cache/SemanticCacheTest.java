@@ -0,0 +1,200 @@
+package io.amcp.connectors.ai.cache;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the semantic cache tier: paraphrase hits, thresholds per model,
+ * partitioning and HNSW recall.
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+class SemanticCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final Map<String, Object> parameters = Map.of("temperature", 0.7);
+
+    @Test
+    @DisplayName("Test rephrased prompts hit and different topics miss")
+    void testParaphraseHit() {
+        // Given
+        SemanticCache cache = new SemanticCache(60_000);
+        cache.put("weather in Paris", "Sunny, 22C", "llama3", parameters);
+        cache.put("weather in London", "Rain, 14C", "llama3", parameters);
+        cache.put("How do I reverse a list in Python?", "Use reversed()", "llama3", parameters);
+
+        // When
+        Optional<SemanticCache.Match> paraphrase =
+            cache.lookup("What is the weather in Paris?", "llama3", parameters);
+        Optional<SemanticCache.Match> otherCity = cache.lookup("weather in Berlin", "llama3", parameters);
+        Optional<SemanticCache.Match> otherModel =
+            cache.lookup("What is the weather in Paris?", "mistral", parameters);
+
+        // Then
+        assertTrue(paraphrase.isPresent());
+        assertEquals("Sunny, 22C", paraphrase.get().getResponse());
+        assertFalse(otherCity.isPresent());
+        assertFalse(otherModel.isPresent());
+        SemanticCache.SemanticStats stats = cache.getStats();
+        assertEquals(3, stats.getLookups());
+        assertEquals(1, stats.getHits());
+    }
+
+    @Test
+    @DisplayName("Test similarity threshold is set per model")
+    void testThresholdPerModel() {
+        // Given
+        SemanticCache cache = new SemanticCache(60_000);
+        cache.put("weather in Paris", "Sunny", "strict", parameters);
+        cache.put("weather in Paris", "Sunny", "loose", parameters);
+        cache.setThreshold("strict", 0.99);
+        cache.setThreshold("loose", 0.5);
+
+        // When / Then
+        assertFalse(cache.lookup("Paris weather today", "strict", parameters).isPresent());
+        assertTrue(cache.lookup("Paris weather today", "loose", parameters).isPresent());
+        assertEquals(1, cache.getStats().getNearMisses());
+    }
+
+    @Test
+    @DisplayName("Test response cache reports semantic hits separately")
+    void testResponseCacheSemanticTier() {
+        // Given
+        LLMResponseCache responseCache = new LLMResponseCache(tempDir.toString(), 1, 10);
+        responseCache.enableSemanticCache();
+        responseCache.put("weather in Paris", "Sunny, 22C", "llama3", parameters);
+
+        // When
+        Optional<String> exact = responseCache.get("weather in Paris", "llama3", parameters);
+        Optional<String> semantic = responseCache.get("Tell me the weather in Paris please", "llama3", parameters);
+        Optional<String> miss = responseCache.get("Explain quantum tunnelling", "llama3", parameters);
+
+        // Then
+        assertEquals("Sunny, 22C", exact.orElseThrow());
+        assertEquals("Sunny, 22C", semantic.orElseThrow());
+        assertTrue(miss.isEmpty());
+        LLMResponseCache.CacheStats stats = responseCache.getStats();
+        assertEquals(1, stats.getExactHits());
+        assertEquals(1, stats.getSemanticHits());
+        assertEquals(1, stats.getMisses());
+        responseCache.close();
+    }
+
+    @Test
+    @DisplayName("Test prompts that look alike but have different answers never match")
+    void testDifferentAnswersMiss() {
+        // Given
+        String[][] pairs = {
+            {"What is 2+3?", "What is 2*3?"},
+            {"Book a flight from Paris to London", "Book a flight from London to Paris"},
+            {"Is it safe to eat raw eggs?", "Is it not safe to eat raw eggs?"},
+            {"Is it safe to eat raw eggs?", "Isn't it safe to eat raw eggs?"},
+            {"Convert 10 USD to EUR", "Convert 100 USD to EUR"},
+            {"Should I buy Tesla stock?", "Should I sell Tesla stock?"},
+            {"Translate hello to French", "Translate hello to Spanish"}
+        };
+
+        for (String[] pair : pairs) {
+            SemanticCache cache = new SemanticCache(60_000);
+            cache.put(pair[0], "answer to " + pair[0], "llama3", parameters);
+
+            // When - at the hit threshold and at the fallback threshold
+            Optional<SemanticCache.Match> hit = cache.lookup(pair[1], "llama3", parameters);
+            Optional<SemanticCache.Match> fallback = cache.lookup(pair[1], "llama3", parameters, 0.85);
+
+            // Then
+            assertFalse(hit.isPresent(), pair[0] + " answered " + pair[1]);
+            assertFalse(fallback.isPresent(), pair[0] + " answered " + pair[1] + " as a fallback");
+        }
+    }
+
+    @Test
+    @DisplayName("Test differing numbers, operators or negations miss at any similarity")
+    void testLiteralsMustMatch() {
+        // Given
+        SemanticCache cache = new SemanticCache(60_000);
+        cache.put("What is 2+3?", "5", "llama3", parameters);
+        cache.put("Convert 1,000 USD to EUR", "920 EUR", "llama3", parameters);
+        cache.put("Is it safe to eat raw eggs?", "Mostly", "llama3", parameters);
+
+        // When / Then
+        assertFalse(cache.lookup("What is 2*3?", "llama3", parameters, 0.01).isPresent());
+        assertFalse(cache.lookup("Convert 100 USD to EUR", "llama3", parameters, 0.01).isPresent());
+        assertFalse(cache.lookup("Is it not safe to eat raw eggs?", "llama3", parameters, 0.01).isPresent());
+        assertEquals("5", cache.lookup("what is 2 + 3", "llama3", parameters).orElseThrow().getResponse());
+        assertEquals("920 EUR",
+                     cache.lookup("Convert 1000 USD to EUR", "llama3", parameters).orElseThrow().getResponse());
+    }
+
+    @Test
+    @DisplayName("Test HNSW search finds the true nearest neighbour")
+    void testIndexRecall() {
+        // Given
+        Random random = new Random(7);
+        int dimensions = 64;
+        float[][] vectors = new float[5000][];
+        HnswIndex index = new HnswIndex();
+        for (int i = 0; i < vectors.length; i++) {
+            vectors[i] = randomUnitVector(random, dimensions);
+            assertEquals(i, index.add(vectors[i]));
+        }
+
+        // When
+        int found = 0;
+        int queries = 200;
+        for (int q = 0; q < queries; q++) {
+            float[] query = randomUnitVector(random, dimensions);
+            int exact = 0;
+            for (int i = 1; i < vectors.length; i++) {
+                if (HnswIndex.dot(query, vectors[i]) > HnswIndex.dot(query, vectors[exact])) {
+                    exact = i;
+                }
+            }
+            List<HnswIndex.Neighbor> result = index.search(query, 1, 64);
+            if (!result.isEmpty() && result.get(0).id == exact) {
+                found++;
+            }
+        }
+
+        // Then
+        assertTrue(found >= queries * 0.9, "recall@1: " + found + "/" + queries);
+    }
+
+    @Test
+    @DisplayName("Test partitions stay bounded and re-index after evictions")
+    void testBoundedPartition() {
+        // Given
+        SemanticCache cache = new SemanticCache(new HashingEmbedder(), 0.8, 100, 60_000);
+
+        // When
+        for (int i = 0; i < 1000; i++) {
+            cache.put("question number " + i + " about topic " + (i * 7919), "answer " + i, "llama3", parameters);
+        }
+
+        // Then
+        assertEquals(100, cache.size());
+        Optional<SemanticCache.Match> latest =
+            cache.lookup("question number 999 about topic " + (999 * 7919), "llama3", parameters);
+        assertEquals("answer 999", latest.orElseThrow().getResponse());
+    }
+
+    private static float[] randomUnitVector(Random random, int dimensions) {
+        float[] vector = new float[dimensions];
+        for (int i = 0; i < dimensions; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        HashingEmbedder.normalize(vector);
+        return vector;
+    }
+}
@@ -0,0 +1,167 @@
+package io.amcp.connectors.ai.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compares the streaming codec with the hand-rolled JSON handling it
+ * replaced in {@code AsyncLLMConnector}.
+ *
+ * <p>Run with {@code mvn -pl connectors exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=io.amcp.connectors.ai.codec.OllamaCodecBenchmark}. Reports
+ * mean time to encode a generate request and to decode a generate response
+ * to its text, for a chat-sized and a ~100KB payload. The legacy path works
+ * on Strings, so its timings include the UTF-8 conversion to and from the
+ * wire bytes.</p>
+ */
+public class OllamaCodecBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 2_000;
+    private static final int MEASURED_ITERATIONS = 5_000;
+
+    public static void main(String[] args) throws Exception {
+        System.out.printf("%-8s %-8s %10s %14s %14s%n", "payload", "codec", "bytes", "encode(ns)", "decode(ns)");
+        run("small", text(200));
+        run("large", text(100 * 1024));
+    }
+
+    private static void run(String label, String text) throws Exception {
+        Map<String, Object> options = new HashMap<>();
+        options.put("temperature", 0.7);
+        options.put("num_predict", 512);
+        options.put("num_thread", 8);
+        // A generate response: the text plus the metadata Ollama sends with it
+        byte[] generateResponse = ("{\"model\":\"qwen2:7b\",\"created_at\":\"2024-06-01T12:00:00Z\",\"response\":"
+            + quoted(text) + ",\"done\":true,\"context\":[1,2,3,4,5,6,7,8],\"total_duration\":5123456789,"
+            + "\"eval_count\":" + text.length() / 4 + "}").getBytes(StandardCharsets.UTF_8);
+
+        Result codec = measure(
+            () -> OllamaCodec.encode(new OllamaGenerateRequest("qwen2:7b", text, false, options)),
+            data -> OllamaCodec.decodeResponse(data).getResponse(),
+            generateResponse);
+        Result legacy = measure(
+            () -> legacyRequest("qwen2:7b", text, options).getBytes(StandardCharsets.UTF_8),
+            data -> legacyParseResponse(new String(data, StandardCharsets.UTF_8)),
+            generateResponse);
+
+        print(label, "jackson", codec);
+        print(label, "legacy", legacy);
+    }
+
+    private static Result measure(Encoder encoder, Decoder decoder, byte[] response) throws Exception {
+        byte[] encoded = null;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            encoded = encoder.encode();
+            decoder.decode(response);
+        }
+
+        long encodeNanos = 0;
+        long decodeNanos = 0;
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            long start = System.nanoTime();
+            encoded = encoder.encode();
+            encodeNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            decoder.decode(response);
+            decodeNanos += System.nanoTime() - start;
+        }
+        return new Result(encoded.length, encodeNanos / MEASURED_ITERATIONS, decodeNanos / MEASURED_ITERATIONS);
+    }
+
+    private static void print(String label, String codec, Result result) {
+        System.out.printf("%-8s %-8s %10d %14d %14d%n", label, codec, result.bytes, result.encodeNanos,
+                          result.decodeNanos);
+    }
+
+    private static String text(int size) {
+        StringBuilder text = new StringBuilder(size + 64);
+        int line = 0;
+        while (text.length() < size) {
+            text.append("Step ").append(line++).append(": the forecast says \"mild\" with 18°C winds.\n");
+        }
+        return text.toString();
+    }
+
+    private static String quoted(String text) throws Exception {
+        String json = new String(OllamaCodec.encode(new OllamaGenerateRequest("m", text, false, null)),
+                                 StandardCharsets.UTF_8);
+        return json.substring(json.indexOf("\"prompt\":") + 9, json.lastIndexOf(",\"stream\""));
+    }
+
+    // The implementation replaced by OllamaCodec, kept here as the baseline
+
+    private static String legacyRequest(String model, String prompt, Map<String, Object> options) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("model", model);
+        payload.put("prompt", prompt);
+        payload.put("stream", false);
+        payload.put("options", options);
+        return legacyToJson(payload);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String legacyToJson(Map<String, Object> map) {
+        StringBuilder json = new StringBuilder("{");
+        boolean first = true;
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            if (!first) json.append(",");
+            first = false;
+            json.append("\"").append(entry.getKey()).append("\":");
+            Object value = entry.getValue();
+            if (value instanceof String) {
+                json.append("\"").append(legacyEscape((String) value)).append("\"");
+            } else if (value instanceof Map) {
+                json.append(legacyToJson((Map<String, Object>) value));
+            } else {
+                json.append(value);
+            }
+        }
+        json.append("}");
+        return json.toString();
+    }
+
+    private static String legacyEscape(String str) {
+        return str.replace("\\", "\\\\")
+                  .replace("\"", "\\\"")
+                  .replace("\n", "\\n")
+                  .replace("\r", "\\r")
+                  .replace("\t", "\\t");
+    }
+
+    private static String legacyParseResponse(String jsonResponse) {
+        int responseStart = jsonResponse.indexOf("\"response\":");
+        int valueStart = jsonResponse.indexOf("\"", responseStart + 11) + 1;
+        int valueEnd = jsonResponse.indexOf("\"", valueStart);
+        while (valueEnd > 0 && jsonResponse.charAt(valueEnd - 1) == '\\') {
+            valueEnd = jsonResponse.indexOf("\"", valueEnd + 1);
+        }
+        return jsonResponse.substring(valueStart, valueEnd)
+            .replace("\\n", "\n")
+            .replace("\\\"", "\"")
+            .replace("\\\\", "\\");
+    }
+
+    @FunctionalInterface
+    private interface Encoder {
+        byte[] encode() throws Exception;
+    }
+
+    @FunctionalInterface
+    private interface Decoder {
+        Object decode(byte[] data) throws Exception;
+    }
+
+    private static final class Result {
+        final int bytes;
+        final long encodeNanos;
+        final long decodeNanos;
+
+        Result(int bytes, long encodeNanos, long decodeNanos) {
+            this.bytes = bytes;
+            this.encodeNanos = encodeNanos;
+            this.decodeNanos = decodeNanos;
+        }
+    }
+}
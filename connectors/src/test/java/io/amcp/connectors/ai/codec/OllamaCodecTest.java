@@ -0,0 +1,133 @@
+package io.amcp.connectors.ai.codec;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the streaming JSON codec of Ollama requests and responses.
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+class OllamaCodecTest {
+
+    private static final String TRICKY = "Line one\nsaid \"hi\" \\ tab\t café ☃ \u0001";
+
+    @Test
+    @DisplayName("Test generate request escapes prompt and nests options")
+    void testEncodeGenerateRequest() throws IOException {
+        // Given
+        Map<String, Object> options = new LinkedHashMap<>();
+        options.put("temperature", 0.7);
+        options.put("num_predict", 128);
+        OllamaGenerateRequest request = new OllamaGenerateRequest("qwen2:7b", TRICKY, false, options);
+
+        // When
+        Map<String, Object> decoded = OllamaCodec.readObject(OllamaCodec.encode(request));
+
+        // Then
+        assertEquals("qwen2:7b", decoded.get("model"));
+        assertEquals(TRICKY, decoded.get("prompt"));
+        assertEquals(Boolean.FALSE, decoded.get("stream"));
+        assertFalse(decoded.containsKey("system"));
+        assertEquals(Map.of("temperature", 0.7, "num_predict", 128), decoded.get("options"));
+    }
+
+    @Test
+    @DisplayName("Test chat request keeps message order and content")
+    void testEncodeChatRequest() throws IOException {
+        // Given
+        OllamaChatRequest request = new OllamaChatRequest("llama3", List.of(
+            new OllamaMessage("system", "Be brief"),
+            new OllamaMessage("user", TRICKY)), true, null);
+
+        // When
+        String json = new String(OllamaCodec.encode(request), StandardCharsets.UTF_8);
+        Map<String, Object> decoded = OllamaCodec.readObject(json);
+
+        // Then
+        assertFalse(json.contains("options"));
+        assertEquals(List.of(
+            Map.of("role", "system", "content", "Be brief"),
+            Map.of("role", "user", "content", TRICKY)), decoded.get("messages"));
+        assertEquals(Boolean.TRUE, decoded.get("stream"));
+    }
+
+    @Test
+    @DisplayName("Test generate response decodes escapes and skips unknown fields")
+    void testDecodeGenerateResponse() throws IOException {
+        // Given
+        String json = "{\"model\":\"qwen2:7b\",\"created_at\":\"2024-01-01T00:00:00Z\","
+            + "\"response\":\"He said \\\"yes\\\"\\n\\u00e9\",\"done\":true,\"done_reason\":\"stop\","
+            + "\"context\":[1,2,[3]],\"timings\":{\"a\":{\"b\":1}},"
+            + "\"total_duration\":5000000000,\"prompt_eval_count\":12,\"eval_count\":34}";
+
+        // When
+        OllamaResponse response = OllamaCodec.decodeResponse(json.getBytes(StandardCharsets.UTF_8));
+
+        // Then
+        assertEquals("qwen2:7b", response.getModel());
+        assertEquals("He said \"yes\"\né", response.getResponse());
+        assertEquals(response.getResponse(), response.getText());
+        assertTrue(response.isDone());
+        assertEquals("stop", response.getDoneReason());
+        assertEquals(5_000_000_000L, response.getTotalDurationNanos());
+        assertEquals(12, response.getPromptEvalCount());
+        assertEquals(34, response.getEvalCount());
+        assertFalse(response.hasError());
+    }
+
+    @Test
+    @DisplayName("Test chat responses, errors and buffer slices decode")
+    void testDecodeChatAndErrorResponses() throws IOException {
+        // Given
+        byte[] chat = "{\"message\":{\"role\":\"assistant\",\"content\":\"Hi\",\"images\":null},\"done\":false}"
+            .getBytes(StandardCharsets.UTF_8);
+        byte[] framed = "xx{\"error\":\"model not found\"}yy".getBytes(StandardCharsets.UTF_8);
+
+        // When
+        OllamaResponse chatResponse = OllamaCodec.decodeResponse(chat);
+        OllamaResponse errorResponse = OllamaCodec.decodeResponse(framed, 2, framed.length - 4);
+
+        // Then
+        assertNull(chatResponse.getResponse());
+        assertEquals("assistant", chatResponse.getMessage().getRole());
+        assertEquals("Hi", chatResponse.getText());
+        assertTrue(errorResponse.hasError());
+        assertEquals("model not found", errorResponse.getError());
+        assertEquals("", errorResponse.getText());
+        assertThrows(IOException.class, () -> OllamaCodec.decodeResponse("[1]".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    @DisplayName("Test model JSON reads into mutable nested maps")
+    void testReadObject() throws IOException {
+        // Given
+        String json = "{\"intent\":\"weather\",\"confidence\":0.92,\"parameters\":"
+            + "{\"location\":\"Paris, France\",\"days\":3,\"tags\":[\"a\",\"b,c\"]},\"urgent\":false,\"note\":null}";
+
+        // When
+        Map<String, Object> parsed = OllamaCodec.readObject(json);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> parameters = (Map<String, Object>) parsed.get("parameters");
+        parameters.put("originalQuery", "weather in Paris");
+
+        // Then
+        assertEquals("weather", parsed.get("intent"));
+        assertEquals(0.92, parsed.get("confidence"));
+        assertEquals("Paris, France", parameters.get("location"));
+        assertEquals(3, parameters.get("days"));
+        assertEquals(List.of("a", "b,c"), parameters.get("tags"));
+        assertEquals(Boolean.FALSE, parsed.get("urgent"));
+        assertTrue(parsed.containsKey("note"));
+        assertNull(parsed.get("note"));
+    }
+}
@@ -0,0 +1,48 @@
+package io.amcp.tools;
+
+import io.amcp.security.AuthenticationContext;
+import io.amcp.security.SecurityContext;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the default rate limit key of tool executions.
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+class ToolManagerRateLimitTest {
+
+    @Test
+    @DisplayName("Test the key uses the verified principal and ignores claimed properties")
+    void testDefaultKeyUsesVerifiedPrincipal() {
+        // Given
+        SecurityContext alice = SecurityContext.builder()
+            .principalId("alice").tenantId("default").authenticated(true).build();
+        SecurityContext unverified = SecurityContext.builder()
+            .principalId("bob").tenantId("default").build();
+
+        // When
+        String verified = ToolManager.defaultRateLimitKey("weather", request(AuthenticationContext.builder()
+            .token("t").securityContext(alice).property("principalId", "carol").build()));
+        String claimed = ToolManager.defaultRateLimitKey("weather", request(AuthenticationContext.builder()
+            .token("t").property("principalId", "alice").build()));
+        String notAuthenticated = ToolManager.defaultRateLimitKey("weather", request(AuthenticationContext.builder()
+            .token("t").securityContext(unverified).build()));
+        String noContext = ToolManager.defaultRateLimitKey("weather", request(null));
+
+        // Then
+        assertEquals("weather:alice", verified);
+        assertEquals("weather:anonymous", claimed);
+        assertEquals("weather:anonymous", notAuthenticated);
+        assertEquals("weather:anonymous", noContext);
+    }
+
+    private static ToolRequest request(AuthenticationContext authContext) {
+        return new ToolRequest("forecast", Map.of("city", "Paris"), "req-1", authContext);
+    }
+}
@@ -84,6 +84,9 @@ public class CloudEvent {
     // Extension attributes
     private final Map<String, Object> extensions;
     
+    // Set by validate() and cleared by any later change
+    private transient volatile boolean validated;
+    
     // Static ObjectMapper for JSON operations
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
         .registerModule(new JavaTimeModule());
@@ -146,9 +149,17 @@ public class CloudEvent {
     public void setExtension(String name, Object value) {
         if (!isContextAttribute(name)) {
             extensions.put(name, value);
+            validated = false;
         }
     }
     
+    /**
+     * Extension attribute names, without copying the map.
+     */
+    Iterable<String> extensionNames() {
+        return extensions.keySet();
+    }
+    
     /**
      * Get a specific extension attribute.
      */
@@ -161,42 +172,43 @@ public class CloudEvent {
      */
     @JsonIgnore
     private boolean isContextAttribute(String name) {
-        return "specversion".equals(name) || "type".equals(name) || 
-               "source".equals(name) || "id".equals(name) || 
-               "time".equals(name) || "datacontenttype".equals(name) || 
-               "dataschema".equals(name) || "subject".equals(name) || 
-               "data".equals(name);
+        switch (name) {
+            case "specversion":
+            case "type":
+            case "source":
+            case "id":
+            case "time":
+            case "datacontenttype":
+            case "dataschema":
+            case "subject":
+            case "data":
+                return true;
+            default:
+                return false;
+        }
     }
     
     /**
-     * Validate this CloudEvent according to v1.0 specification.
+     * Validate this CloudEvent according to v1.0 specification. A successful
+     * result is remembered, so validating again is free until the event changes.
      * 
      * @throws CloudEventValidationException if validation fails
      */
     public void validate() throws CloudEventValidationException {
-        if (specVersion == null || specVersion.trim().isEmpty()) {
-            throw new CloudEventValidationException("specversion is required");
-        }
-        if (!"1.0".equals(specVersion)) {
-            throw new CloudEventValidationException("specversion must be '1.0'");
-        }
-        if (type == null || type.trim().isEmpty()) {
-            throw new CloudEventValidationException("type is required");
-        }
-        if (source == null) {
-            throw new CloudEventValidationException("source is required");
-        }
-        if (id == null || id.trim().isEmpty()) {
-            throw new CloudEventValidationException("id is required");
-        }
-        
-        // Validate extension attribute names (must not start with 'ce-')
-        for (String extName : extensions.keySet()) {
-            if (extName.startsWith("ce-")) {
-                throw new CloudEventValidationException(
-                    "Extension attribute names must not start with 'ce-': " + extName);
-            }
+        if (validated) {
+            return;
         }
+        CloudEventValidator.specification().validate(this);
+        validated = true;
+    }
+    
+    /**
+     * Check whether this event has passed {@link #validate()} since it was
+     * last modified.
+     */
+    @JsonIgnore
+    public boolean isValidated() {
+        return validated;
     }
     
     /**
@@ -0,0 +1,258 @@
+package io.amcp.cloudevents;
+
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Signs CloudEvents so receivers can check who sent them and that they were
+ * not altered in transit.
+ *
+ * <p>Events addressed to a known recipient are signed with HMAC-SHA256 under
+ * the session key the {@link EventKeyRing} derives for that sender pair, which
+ * costs one MAC per event. Events without a fixed recipient are signed with
+ * the sender's Ed25519 key. The signature travels in extension attributes:</p>
+ * <ul>
+ *   <li>{@code amcpsigalg} - {@code hs256} or {@code ed25519}</li>
+ *   <li>{@code amcpsigner} - sender id</li>
+ *   <li>{@code amcpsigfor} - recipient id (HMAC only)</li>
+ *   <li>{@code amcpsigts} - signing time, epoch milliseconds</li>
+ *   <li>{@code amcpsig} - base64url signature</li>
+ * </ul>
+ *
+ * <p>The signature covers those attributes together with id, type, source,
+ * subject and data. {@code time} and other extensions are not covered, since
+ * brokers re-stamp them when converting between event models.</p>
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+public class CloudEventSigner {
+
+    public static final String EXT_ALGORITHM = "amcpsigalg";
+    public static final String EXT_SIGNER = "amcpsigner";
+    public static final String EXT_RECIPIENT = "amcpsigfor";
+    public static final String EXT_TIMESTAMP = "amcpsigts";
+    public static final String EXT_SIGNATURE = "amcpsig";
+
+    public static final String ALG_HMAC = "hs256";
+    public static final String ALG_ED25519 = "ed25519";
+
+    static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private static final ObjectMapper CANONICAL_MAPPER = JsonMapper.builder()
+        .addModule(new JavaTimeModule())
+        .enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+        .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+        .build();
+
+    private static final ThreadLocal<ByteArrayOutputStream> BUFFERS =
+        ThreadLocal.withInitial(() -> new ByteArrayOutputStream(512));
+
+    private final EventKeyRing keyRing;
+    private final LongSupplier clock;
+    private final ThreadLocal<Primitives> primitives = ThreadLocal.withInitial(Primitives::new);
+    private final AtomicLong signedEvents = new AtomicLong(0);
+
+    public CloudEventSigner(EventKeyRing keyRing) {
+        this(keyRing, System::currentTimeMillis);
+    }
+
+    CloudEventSigner(EventKeyRing keyRing, LongSupplier clock) {
+        this.keyRing = keyRing;
+        this.clock = clock;
+    }
+
+    /**
+     * Sign an event with the local Ed25519 key, for any recipient
+     */
+    public CloudEvent sign(CloudEvent event) {
+        return sign(event, null);
+    }
+
+    /**
+     * Sign an event for one recipient with the pair's HMAC session key, or with
+     * Ed25519 if the recipient is null
+     */
+    public CloudEvent sign(CloudEvent event, String recipient) {
+        return event.toBuilder().extensions(signatureAttributes(event, recipient)).build();
+    }
+
+    /**
+     * Compute the signature attributes for an event without copying it, e.g.
+     * to carry them as AMCP event metadata
+     *
+     * @throws CloudEventException if no suitable key is available
+     */
+    public Map<String, Object> signatureAttributes(CloudEvent event, String recipient) {
+        String sender = keyRing.getLocalId();
+        long timestamp = clock.getAsLong();
+        String algorithm = recipient != null ? ALG_HMAC : ALG_ED25519;
+        byte[] content = canonicalBytes(event, algorithm, sender, recipient, timestamp);
+
+        byte[] signature;
+        try {
+            if (recipient != null) {
+                SecretKey key = keyRing.sessionKey(sender, recipient);
+                if (key == null) {
+                    throw new CloudEventException("No secret shared with recipient " + recipient);
+                }
+                signature = primitives.get().mac(key).doFinal(content);
+            } else {
+                PrivateKey key = keyRing.signingKey();
+                if (key == null) {
+                    throw new CloudEventException("No Ed25519 signing key installed for " + sender);
+                }
+                Signature signer = primitives.get().signer(key);
+                signer.update(content);
+                signature = signer.sign();
+            }
+        } catch (GeneralSecurityException e) {
+            throw new CloudEventException("Failed to sign CloudEvent " + event.getId(), e);
+        }
+        signedEvents.incrementAndGet();
+
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        attributes.put(EXT_ALGORITHM, algorithm);
+        attributes.put(EXT_SIGNER, sender);
+        if (recipient != null) {
+            attributes.put(EXT_RECIPIENT, recipient);
+        }
+        attributes.put(EXT_TIMESTAMP, Long.toString(timestamp));
+        attributes.put(EXT_SIGNATURE, Base64.getUrlEncoder().withoutPadding().encodeToString(signature));
+        return attributes;
+    }
+
+    public EventKeyRing getKeyRing() {
+        return keyRing;
+    }
+
+    public long getSignedEvents() {
+        return signedEvents.get();
+    }
+
+    /**
+     * Check whether an extension name is one of the signature attributes
+     */
+    public static boolean isSignatureAttribute(String name) {
+        return name.startsWith("amcpsig");
+    }
+
+    /**
+     * Encode the signed content of an event: each field length-prefixed so
+     * no two distinct events share an encoding
+     */
+    static byte[] canonicalBytes(CloudEvent event, String algorithm, String sender,
+                                 String recipient, long timestamp) {
+        ByteArrayOutputStream out = BUFFERS.get();
+        out.reset();
+        writeString(out, algorithm);
+        writeString(out, sender);
+        writeString(out, recipient != null ? recipient : "");
+        writeLong(out, timestamp);
+        writeString(out, event.getId());
+        writeString(out, event.getType());
+        writeString(out, event.getSource().toString());
+        writeString(out, event.getSubject().orElse(""));
+        writeBytes(out, dataBytes(event.getData().orElse(null)));
+        return out.toByteArray();
+    }
+
+    private static byte[] dataBytes(Object data) {
+        if (data == null) {
+            return new byte[0];
+        }
+        if (data instanceof byte[]) {
+            return (byte[]) data;
+        }
+        if (data instanceof String) {
+            return ((String) data).getBytes(StandardCharsets.UTF_8);
+        }
+        try {
+            return CANONICAL_MAPPER.writeValueAsBytes(data);
+        } catch (Exception e) {
+            throw new CloudEventException("Failed to encode CloudEvent data for signing", e);
+        }
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        writeBytes(out, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void writeBytes(ByteArrayOutputStream out, byte[] value) {
+        int length = value.length;
+        out.write(length >>> 24);
+        out.write(length >>> 16);
+        out.write(length >>> 8);
+        out.write(length);
+        out.write(value, 0, length);
+    }
+
+    private static void writeLong(ByteArrayOutputStream out, long value) {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            out.write((int) (value >>> shift));
+        }
+    }
+
+    /**
+     * Per-thread MAC and signature instances, re-keyed only when the key
+     * changes so a run of events from one sender initializes them once
+     */
+    static final class Primitives {
+        private Mac mac;
+        private SecretKey macKey;
+        private Signature signer;
+        private PrivateKey signerKey;
+        private Signature verifier;
+        private PublicKey verifierKey;
+
+        Mac mac(SecretKey key) throws GeneralSecurityException {
+            if (mac == null) {
+                mac = Mac.getInstance(HMAC_ALGORITHM);
+            }
+            if (macKey != key) {
+                mac.init(key);
+                macKey = key;
+            }
+            return mac;
+        }
+
+        Signature signer(PrivateKey key) throws GeneralSecurityException {
+            if (signer == null) {
+                signer = Signature.getInstance("Ed25519");
+            }
+            if (signerKey != key) {
+                signer.initSign(key);
+                signerKey = key;
+            }
+            return signer;
+        }
+
+        Signature verifier(PublicKey key) throws GeneralSecurityException {
+            if (verifier == null) {
+                verifier = Signature.getInstance("Ed25519");
+            }
+            if (verifierKey != key) {
+                verifier.initVerify(key);
+                verifierKey = key;
+            }
+            return verifier;
+        }
+    }
+}
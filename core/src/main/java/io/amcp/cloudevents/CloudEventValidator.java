@@ -0,0 +1,359 @@
+package io.amcp.cloudevents;
+
+import io.amcp.core.Event;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Compiled CloudEvents validator.
+ *
+ * <p>A validator is built once from the v1.0 specification rules plus any
+ * schema constraints and compiled into a flat array of checks, so validating
+ * an event is a single pass with no map lookups or regular expressions. The
+ * specification validator backs {@link CloudEvent#validate()}.</p>
+ *
+ * <p>AMCP events can be checked without converting them: for the
+ * specification rules, {@link #validate(Event, CloudEventsAdapter)} inspects
+ * only the fields the adapter maps into required attributes, and falls back
+ * to a full conversion if any of them is unusual.</p>
+ *
+ * <pre>
+ * CloudEventValidator validator = CloudEventValidator.builder()
+ *     .typePrefix("io.amcp.weather.")
+ *     .requireSubject()
+ *     .allowedContentTypes("application/json")
+ *     .build();
+ * validator.validate(event);
+ * </pre>
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+public final class CloudEventValidator {
+
+    /**
+     * One step of the compiled program
+     */
+    @FunctionalInterface
+    interface Check {
+        /**
+         * @return an error message, or null if the event passes
+         */
+        String apply(CloudEvent event);
+    }
+
+    private static final Check[] SPECIFICATION_CHECKS = {
+        event -> event.getSpecVersion() == null || event.getSpecVersion().isBlank()
+            ? "specversion is required" : null,
+        event -> !"1.0".equals(event.getSpecVersion()) ? "specversion must be '1.0'" : null,
+        event -> event.getType() == null || event.getType().isBlank() ? "type is required" : null,
+        event -> event.getSource() == null ? "source is required" : null,
+        event -> event.getId() == null || event.getId().isBlank() ? "id is required" : null,
+        CloudEventValidator::checkExtensionNames
+    };
+
+    private static final boolean[] URI_CHARS = new boolean[128];
+
+    static {
+        String allowed = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789"
+            + "-._~:/?#@!$&'()*+,;=";
+        for (int i = 0; i < allowed.length(); i++) {
+            URI_CHARS[allowed.charAt(i)] = true;
+        }
+    }
+
+    private static final CloudEventValidator SPECIFICATION = new CloudEventValidator(SPECIFICATION_CHECKS, true);
+
+    private final Check[] program;
+    private final boolean specificationOnly;
+
+    private CloudEventValidator(Check[] program, boolean specificationOnly) {
+        this.program = program;
+        this.specificationOnly = specificationOnly;
+    }
+
+    /**
+     * Gets the validator for the CloudEvents v1.0 rules alone
+     */
+    public static CloudEventValidator specification() {
+        return SPECIFICATION;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Validate an event, reporting the first failed check
+     *
+     * @throws CloudEventValidationException if a check fails
+     */
+    public void validate(CloudEvent event) throws CloudEventValidationException {
+        String error = firstError(event);
+        if (error != null) {
+            throw new CloudEventValidationException(error);
+        }
+    }
+
+    public boolean isValid(CloudEvent event) {
+        return firstError(event) == null;
+    }
+
+    /**
+     * Validate an AMCP event as the CloudEvent the adapter would produce for it
+     *
+     * @throws CloudEventValidationException if a check fails
+     */
+    public void validate(Event event, CloudEventsAdapter adapter) throws CloudEventValidationException {
+        if (specificationOnly && isPlainlyValid(event, adapter)) {
+            return;
+        }
+        CloudEvent cloudEvent;
+        try {
+            cloudEvent = adapter.convertToCloudEvent(event);
+        } catch (CloudEventException e) {
+            throw new CloudEventValidationException("Event cannot be represented as a CloudEvent", e);
+        }
+        validate(cloudEvent);
+    }
+
+    /**
+     * Whether this validator applies only the specification rules
+     */
+    public boolean isSpecificationOnly() {
+        return specificationOnly;
+    }
+
+    /**
+     * Gets the number of checks in the compiled program
+     */
+    public int getCheckCount() {
+        return program.length;
+    }
+
+    private String firstError(CloudEvent event) {
+        for (Check check : program) {
+            String error = check.apply(event);
+            if (error != null) {
+                return error;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The adapter always sets specversion and a type, and prefixes metadata
+     * extensions, so only the id and the source it derives can fail
+     */
+    private static boolean isPlainlyValid(Event event, CloudEventsAdapter adapter) {
+        String id = event.getId();
+        if (id == null || id.isBlank() || event.getTopic() == null) {
+            return false;
+        }
+        if (event.getSender() != null) {
+            // Appended to "//amcp/agent/", so no scheme can be misread
+            return isUriReference(event.getSender().toString());
+        }
+        String source = adapter.getDefaultSource();
+        return source != null && source.startsWith("//") && isUriReference(source);
+    }
+
+    private static String checkExtensionNames(CloudEvent event) {
+        // Extension attribute names must not start with 'ce-'
+        for (String name : event.extensionNames()) {
+            if (name.startsWith("ce-")) {
+                return "Extension attribute names must not start with 'ce-': " + name;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Check that a string is acceptable to {@link java.net.URI#create} as a
+     * reference: no whitespace, controls or excluded ASCII characters, and
+     * well-formed percent escapes, at most one fragment. Conservative: brackets
+     * are rejected even where an IPv6 host would allow them, and schemes are
+     * not checked.
+     */
+    public static boolean isUriReference(String value) {
+        if (value == null || value.isEmpty()) {
+            return false;
+        }
+        int length = value.length();
+        boolean fragment = false;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c == '#') {
+                if (fragment) {
+                    return false;
+                }
+                fragment = true;
+            } else if (c == '%') {
+                if (i + 2 >= length || !isHex(value.charAt(i + 1)) || !isHex(value.charAt(i + 2))) {
+                    return false;
+                }
+                i += 2;
+            } else if (c < 0x80) {
+                if (!URI_CHARS[c]) {
+                    return false;
+                }
+            } else if (Character.isISOControl(c) || Character.isSpaceChar(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check that a string is an RFC 3339 timestamp, e.g.
+     * {@code 2024-05-01T12:30:00.250+02:00}, including calendar ranges
+     */
+    public static boolean isTimestamp(String value) {
+        if (value == null || value.length() < 20) {
+            return false;
+        }
+        int year = digits(value, 0, 4);
+        int month = digits(value, 5, 2);
+        int day = digits(value, 8, 2);
+        int hour = digits(value, 11, 2);
+        int minute = digits(value, 14, 2);
+        int second = digits(value, 17, 2);
+        if (year < 0 || value.charAt(4) != '-' || month < 1 || month > 12 || value.charAt(7) != '-'
+                || day < 1 || day > daysInMonth(year, month)) {
+            return false;
+        }
+        char separator = value.charAt(10);
+        if (separator != 'T' && separator != 't' && separator != ' ') {
+            return false;
+        }
+        if (hour < 0 || hour > 23 || value.charAt(13) != ':' || minute < 0 || minute > 59
+                || value.charAt(16) != ':' || second < 0 || second > 60) {
+            return false;
+        }
+
+        int position = 19;
+        if (value.charAt(position) == '.') {
+            int start = ++position;
+            while (position < value.length() && isDigit(value.charAt(position))) {
+                position++;
+            }
+            if (position == start || position == value.length()) {
+                return false;
+            }
+        }
+
+        char zone = value.charAt(position);
+        if (zone == 'Z' || zone == 'z') {
+            return position + 1 == value.length();
+        }
+        if ((zone != '+' && zone != '-') || position + 6 != value.length()) {
+            return false;
+        }
+        int offsetHour = digits(value, position + 1, 2);
+        int offsetMinute = digits(value, position + 4, 2);
+        return offsetHour >= 0 && offsetHour <= 23 && value.charAt(position + 3) == ':'
+            && offsetMinute >= 0 && offsetMinute <= 59;
+    }
+
+    private static boolean isHex(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Parse a fixed-width run of digits, or -1 if any is not a digit
+     */
+    private static int digits(String value, int offset, int count) {
+        if (offset + count > value.length()) {
+            return -1;
+        }
+        int result = 0;
+        for (int i = offset; i < offset + count; i++) {
+            char c = value.charAt(i);
+            if (!isDigit(c)) {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+                return leap ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * Collects schema constraints on top of the specification rules
+     */
+    public static class Builder {
+        private final List<Check> checks = new ArrayList<>(Arrays.asList(SPECIFICATION_CHECKS));
+        private boolean constrained;
+
+        /**
+         * Require the type to start with a prefix, e.g. {@code io.amcp.weather.}
+         */
+        public Builder typePrefix(String prefix) {
+            return add(event -> event.getType() != null && !event.getType().startsWith(prefix)
+                ? "type must start with '" + prefix + "': " + event.getType() : null);
+        }
+
+        public Builder requireSubject() {
+            return add(event -> event.getSubject().isEmpty() ? "subject is required" : null);
+        }
+
+        public Builder requireTime() {
+            return add(event -> event.getTime().isEmpty() ? "time is required" : null);
+        }
+
+        public Builder requireExtension(String name) {
+            return add(event -> event.getExtension(name).isEmpty()
+                ? "extension attribute is required: " + name : null);
+        }
+
+        /**
+         * Restrict datacontenttype, when present, to the given media types
+         */
+        public Builder allowedContentTypes(String... contentTypes) {
+            String[] allowed = contentTypes.clone();
+            return add(event -> {
+                Optional<String> contentType = event.getDataContentType();
+                if (contentType.isEmpty()) {
+                    return null;
+                }
+                for (String candidate : allowed) {
+                    if (candidate.equals(contentType.get())) {
+                        return null;
+                    }
+                }
+                return "datacontenttype not allowed: " + contentType.get();
+            });
+        }
+
+        private Builder add(Check check) {
+            checks.add(check);
+            constrained = true;
+            return this;
+        }
+
+        public CloudEventValidator build() {
+            return new CloudEventValidator(checks.toArray(new Check[0]), !constrained);
+        }
+    }
+}
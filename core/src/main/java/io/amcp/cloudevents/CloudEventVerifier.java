@@ -0,0 +1,265 @@
+package io.amcp.cloudevents;
+
+import javax.crypto.SecretKey;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Verifies signatures produced by {@link CloudEventSigner} and rejects replays.
+ *
+ * <p>Checks run cheapest first: missing attributes, then the signing time
+ * against the replay window, then the replay cache keyed by source and
+ * event id, and only then the MAC or Ed25519 check. An event delivered to several
+ * subscribers is verified once; later deliveries of the same envelope are
+ * answered from the cache. {@link #verifyAll(List)} orders a batch by sender
+ * so each per-thread MAC or signature instance is keyed once per sender
+ * rather than once per event.</p>
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+public class CloudEventVerifier {
+
+    public static final long DEFAULT_WINDOW_MS = 300000; // 5 minutes
+    public static final long DEFAULT_MAX_CLOCK_SKEW_MS = 30000;
+
+    /**
+     * Outcome of verifying one event
+     */
+    public enum Result {
+        VERIFIED,
+        UNSIGNED,
+        UNKNOWN_KEY,
+        WRONG_RECIPIENT,
+        STALE,
+        REPLAYED,
+        INVALID;
+
+        public boolean isVerified() {
+            return this == VERIFIED;
+        }
+    }
+
+    private final EventKeyRing keyRing;
+    private final long windowMillis;
+    private final long maxClockSkewMillis;
+    private final LongSupplier clock;
+    private final ReplayWindow replayWindow = new ReplayWindow();
+    private final ThreadLocal<CloudEventSigner.Primitives> primitives =
+        ThreadLocal.withInitial(CloudEventSigner.Primitives::new);
+
+    private final AtomicLong verifiedEvents = new AtomicLong(0);
+    private final AtomicLong cachedVerifications = new AtomicLong(0);
+    private final AtomicLong replayedEvents = new AtomicLong(0);
+    private final AtomicLong rejectedEvents = new AtomicLong(0);
+
+    public CloudEventVerifier(EventKeyRing keyRing) {
+        this(keyRing, DEFAULT_WINDOW_MS, DEFAULT_MAX_CLOCK_SKEW_MS);
+    }
+
+    public CloudEventVerifier(EventKeyRing keyRing, long windowMillis, long maxClockSkewMillis) {
+        this(keyRing, windowMillis, maxClockSkewMillis, System::currentTimeMillis);
+    }
+
+    CloudEventVerifier(EventKeyRing keyRing, long windowMillis, long maxClockSkewMillis, LongSupplier clock) {
+        if (windowMillis <= 0) {
+            throw new IllegalArgumentException("Replay window must be positive: " + windowMillis);
+        }
+        this.keyRing = keyRing;
+        this.windowMillis = windowMillis;
+        this.maxClockSkewMillis = maxClockSkewMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Verify an event received on its own
+     */
+    public Result verify(CloudEvent event) {
+        return verify(event, event);
+    }
+
+    /**
+     * Verify an event, treating repeated calls with the same carrier object as
+     * one delivery fanned out rather than a replay
+     *
+     * @param carrier the object the event arrived in, e.g. the broker's event instance
+     */
+    public Result verify(CloudEvent event, Object carrier) {
+        Result result = check(event, carrier);
+        if (result == Result.VERIFIED) {
+            verifiedEvents.incrementAndGet();
+        } else if (result == Result.REPLAYED) {
+            replayedEvents.incrementAndGet();
+        } else {
+            rejectedEvents.incrementAndGet();
+        }
+        return result;
+    }
+
+    /**
+     * Verify a batch, grouping events by sender so key setup is paid once per
+     * sender
+     *
+     * @return results in the order of the input
+     */
+    public List<Result> verifyAll(List<CloudEvent> events) {
+        Integer[] order = new Integer[events.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparing(i -> senderKey(events.get(i))));
+
+        Result[] results = new Result[order.length];
+        for (Integer index : order) {
+            results[index] = verify(events.get(index));
+        }
+        return Arrays.asList(results);
+    }
+
+    private Result check(CloudEvent event, Object carrier) {
+        String algorithm = attribute(event, CloudEventSigner.EXT_ALGORITHM);
+        String sender = attribute(event, CloudEventSigner.EXT_SIGNER);
+        String timestampText = attribute(event, CloudEventSigner.EXT_TIMESTAMP);
+        String signatureText = attribute(event, CloudEventSigner.EXT_SIGNATURE);
+        String recipient = attribute(event, CloudEventSigner.EXT_RECIPIENT);
+        if (algorithm == null || sender == null || timestampText == null || signatureText == null) {
+            return Result.UNSIGNED;
+        }
+
+        long timestamp;
+        try {
+            timestamp = Long.parseLong(timestampText);
+        } catch (NumberFormatException e) {
+            return Result.INVALID;
+        }
+        long now = clock.getAsLong();
+        if (timestamp < now - windowMillis || timestamp > now + maxClockSkewMillis) {
+            return Result.STALE;
+        }
+
+        ReplayWindow.Entry seen = replayWindow.lookup(event.getSource(), event.getId(), now);
+        if (seen != null) {
+            if (seen.isSameDelivery(signatureText, carrier)) {
+                cachedVerifications.incrementAndGet();
+                return Result.VERIFIED;
+            }
+            return Result.REPLAYED;
+        }
+
+        Result signatureResult = checkSignature(event, algorithm, sender, recipient, timestamp, signatureText);
+        if (signatureResult != Result.VERIFIED) {
+            return signatureResult;
+        }
+
+        long expiresAt = timestamp + windowMillis + maxClockSkewMillis;
+        ReplayWindow.Entry winner = replayWindow.record(event.getSource(), event.getId(), signatureText, carrier, expiresAt, now);
+        if (winner != null && !winner.isSameDelivery(signatureText, carrier)) {
+            return Result.REPLAYED;
+        }
+        return Result.VERIFIED;
+    }
+
+    private Result checkSignature(CloudEvent event, String algorithm, String sender, String recipient,
+                                  long timestamp, String signatureText) {
+        byte[] signature;
+        try {
+            signature = Base64.getUrlDecoder().decode(signatureText);
+        } catch (IllegalArgumentException e) {
+            return Result.INVALID;
+        }
+
+        try {
+            if (CloudEventSigner.ALG_HMAC.equals(algorithm)) {
+                if (!keyRing.getLocalId().equals(recipient)) {
+                    return Result.WRONG_RECIPIENT;
+                }
+                SecretKey key = keyRing.sessionKey(sender, recipient);
+                if (key == null) {
+                    return Result.UNKNOWN_KEY;
+                }
+                byte[] content = CloudEventSigner.canonicalBytes(event, algorithm, sender, recipient, timestamp);
+                byte[] expected = primitives.get().mac(key).doFinal(content);
+                return MessageDigest.isEqual(expected, signature) ? Result.VERIFIED : Result.INVALID;
+            }
+            if (CloudEventSigner.ALG_ED25519.equals(algorithm)) {
+                if (recipient != null) {
+                    return Result.INVALID;
+                }
+                PublicKey key = keyRing.publicKey(sender);
+                if (key == null) {
+                    return Result.UNKNOWN_KEY;
+                }
+                byte[] content = CloudEventSigner.canonicalBytes(event, algorithm, sender, null, timestamp);
+                Signature verifier = primitives.get().verifier(key);
+                verifier.update(content);
+                return verifier.verify(signature) ? Result.VERIFIED : Result.INVALID;
+            }
+            return Result.INVALID;
+        } catch (GeneralSecurityException e) {
+            // Discard instances that may hold partial input
+            primitives.remove();
+            return Result.INVALID;
+        }
+    }
+
+    private static String senderKey(CloudEvent event) {
+        String algorithm = attribute(event, CloudEventSigner.EXT_ALGORITHM);
+        String sender = attribute(event, CloudEventSigner.EXT_SIGNER);
+        return (algorithm != null ? algorithm : "") + "\n" + (sender != null ? sender : "");
+    }
+
+    private static String attribute(CloudEvent event, String name) {
+        Optional<Object> value = event.getExtension(name);
+        return value.map(Object::toString).orElse(null);
+    }
+
+    public EventKeyRing getKeyRing() {
+        return keyRing;
+    }
+
+    public VerificationStatistics getStatistics() {
+        return new VerificationStatistics(verifiedEvents.get(), cachedVerifications.get(),
+                                          replayedEvents.get(), rejectedEvents.get(), replayWindow.size());
+    }
+
+    /**
+     * Verification counters
+     */
+    public static class VerificationStatistics {
+        private final long verifiedEvents;
+        private final long cachedVerifications;
+        private final long replayedEvents;
+        private final long rejectedEvents;
+        private final int windowEntries;
+
+        public VerificationStatistics(long verifiedEvents, long cachedVerifications, long replayedEvents,
+                                      long rejectedEvents, int windowEntries) {
+            this.verifiedEvents = verifiedEvents;
+            this.cachedVerifications = cachedVerifications;
+            this.replayedEvents = replayedEvents;
+            this.rejectedEvents = rejectedEvents;
+            this.windowEntries = windowEntries;
+        }
+
+        public long getVerifiedEvents() { return verifiedEvents; }
+        public long getCachedVerifications() { return cachedVerifications; }
+        public long getReplayedEvents() { return replayedEvents; }
+        public long getRejectedEvents() { return rejectedEvents; }
+        public int getWindowEntries() { return windowEntries; }
+
+        @Override
+        public String toString() {
+            return String.format("VerificationStatistics{verified=%d, cached=%d, replayed=%d, rejected=%d, window=%d}",
+                               verifiedEvents, cachedVerifications, replayedEvents, rejectedEvents, windowEntries);
+        }
+    }
+}
@@ -117,9 +117,13 @@ public class CloudEventsAdapter {
                 builder.extension("amcp-timestamp", amcpEvent.getTimestamp().toString());
             }
             
-            // Add metadata as extensions
+            // Add metadata as extensions; signature attributes keep their names
             amcpEvent.getMetadata().forEach((key, value) -> {
-                builder.extension("amcp-meta-" + key, value);
+                if (CloudEventSigner.isSignatureAttribute(key)) {
+                    builder.extension(key, value);
+                } else {
+                    builder.extension("amcp-meta-" + key, value);
+                }
             });
             
             return builder.build();
@@ -154,6 +158,8 @@ public class CloudEventsAdapter {
                 if (key.startsWith("amcp-meta-")) {
                     String metaKey = key.substring("amcp-meta-".length());
                     builder.metadata(metaKey, value.toString());
+                } else if (CloudEventSigner.isSignatureAttribute(key)) {
+                    builder.metadata(key, value.toString());
                 } else if (!key.startsWith("amcp-")) {
                     // Non-AMCP extensions become metadata
                     builder.metadata("cloudevent-" + key, value.toString());
@@ -226,6 +232,13 @@ public class CloudEventsAdapter {
             );
     }
     
+    /**
+     * Get the source used for events without a sender.
+     */
+    public String getDefaultSource() {
+        return defaultSource;
+    }
+    
     /**
      * Get the underlying EventBroker.
      */
@@ -33,6 +33,12 @@ public class CloudEventsEventBroker implements EventBroker {
     private final EventBroker underlying;
     private final CloudEventsAdapter adapter;
     private final boolean strictValidation;
+    private final CloudEventValidator validator;
+    private final ValidatedEvents validated = new ValidatedEvents();
+    private volatile boolean trustInternalEvents;
+    private volatile CloudEventSigner signer;
+    private volatile String signingRecipient;
+    private volatile CloudEventVerifier verifier;
     
     /**
      * Create a CloudEvents EventBroker with default configuration.
@@ -48,9 +54,22 @@ public class CloudEventsEventBroker implements EventBroker {
      * @param strictValidation Whether to enforce strict CloudEvents validation
      */
     public CloudEventsEventBroker(EventBroker underlying, boolean strictValidation) {
+        this(underlying, strictValidation, CloudEventValidator.specification());
+    }
+    
+    /**
+     * Create a CloudEvents EventBroker that validates against a compiled schema.
+     * 
+     * @param underlying The underlying EventBroker implementation
+     * @param strictValidation Whether to enforce strict CloudEvents validation
+     * @param validator Validator applied on publish and delivery
+     */
+    public CloudEventsEventBroker(EventBroker underlying, boolean strictValidation,
+                                  CloudEventValidator validator) {
         this.underlying = underlying;
         this.adapter = new CloudEventsAdapter(underlying);
         this.strictValidation = strictValidation;
+        this.validator = validator;
     }
     
     @Override
@@ -70,19 +89,66 @@ public class CloudEventsEventBroker implements EventBroker {
     
     @Override
     public CompletableFuture<Void> publish(Event event) {
-        if (strictValidation) {
-            // Convert to CloudEvent to validate compliance
+        boolean validate = strictValidation && !trustInternalEvents;
+        if (validate && !validated.contains(event)) {
             try {
-                CloudEvent cloudEvent = adapter.convertToCloudEvent(event);
-                cloudEvent.validate();
+                validator.validate(event, adapter);
             } catch (Exception e) {
                 return CompletableFuture.failedFuture(
                     new CloudEventValidationException("Event failed CloudEvents validation", e));
             }
         }
+        CloudEventSigner activeSigner = signer;
+        if (activeSigner != null) {
+            try {
+                CloudEvent cloudEvent = adapter.convertToCloudEvent(event);
+                event = event.toBuilder()
+                    .metadata(activeSigner.signatureAttributes(cloudEvent, signingRecipient))
+                    .build();
+            } catch (Exception e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        if (strictValidation && event != null) {
+            // Delivery to local subscribers need not check it again
+            validated.add(event);
+        }
         return underlying.publish(event);
     }
     
+    /**
+     * Trust events produced in this process: skip validation on publish and
+     * mark them validated so subscribers skip it too. Events reaching the
+     * underlying broker by other routes are still validated on delivery.
+     * 
+     * @param trusted Whether locally published events are trusted
+     */
+    public void setTrustInternalEvents(boolean trusted) {
+        this.trustInternalEvents = trusted;
+    }
+    
+    /**
+     * Sign every event published through this broker.
+     * 
+     * @param signer The signer holding the local keys
+     * @param recipient Recipient to sign for with its HMAC session key, or null
+     *                  to sign with the local Ed25519 key
+     */
+    public void enableSigning(CloudEventSigner signer, String recipient) {
+        this.signer = signer;
+        this.signingRecipient = recipient;
+    }
+    
+    /**
+     * Verify the signature of every event delivered to subscriptions made after
+     * this call; events that fail are not delivered.
+     * 
+     * @param verifier The verifier holding trusted keys and the replay window
+     */
+    public void enableVerification(CloudEventVerifier verifier) {
+        this.verifier = verifier;
+    }
+    
     /**
      * Publish a CloudEvent directly.
      * 
@@ -90,14 +156,24 @@ public class CloudEventsEventBroker implements EventBroker {
      * @return CompletableFuture that completes when publication is done
      */
     public CompletableFuture<Void> publishCloudEvent(CloudEvent cloudEvent) {
-        return adapter.publishCloudEvent(cloudEvent);
+        try {
+            validator.validate(cloudEvent);
+            Event amcpEvent = adapter.convertToAMCPEvent(cloudEvent);
+            // Checked in CloudEvent form; no need to convert back to check again
+            validated.add(amcpEvent);
+            return publish(amcpEvent);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
     }
     
     @Override
     public CompletableFuture<Void> subscribe(EventSubscriber subscriber, String topicPattern) {
+        subscriber = withVerification(subscriber);
         if (strictValidation) {
             // Wrap subscriber to validate CloudEvents compliance
-            EventSubscriber wrappedSubscriber = new CloudEventsValidatingSubscriber(subscriber, adapter);
+            EventSubscriber wrappedSubscriber =
+                new CloudEventsValidatingSubscriber(subscriber, adapter, validator, validated);
             return underlying.subscribe(wrappedSubscriber, topicPattern);
         } else {
             return underlying.subscribe(subscriber, topicPattern);
@@ -116,7 +192,14 @@ public class CloudEventsEventBroker implements EventBroker {
             Consumer<CloudEvent> cloudEventConsumer) {
         
         EventSubscriber subscriber = new CloudEventConsumerAdapter(cloudEventConsumer, adapter);
-        return underlying.subscribe(subscriber, topicPattern);
+        return underlying.subscribe(withVerification(subscriber), topicPattern);
+    }
+    
+    private EventSubscriber withVerification(EventSubscriber subscriber) {
+        CloudEventVerifier activeVerifier = verifier;
+        return activeVerifier != null
+            ? new SignatureVerifyingSubscriber(subscriber, adapter, activeVerifier)
+            : subscriber;
     }
     
     @Override
@@ -151,22 +234,38 @@ public class CloudEventsEventBroker implements EventBroker {
     }
     
     /**
-     * EventSubscriber wrapper that validates CloudEvents compliance.
+     * Whether this broker has already validated this event instance
+     */
+    boolean isValidated(Event event) {
+        return validated.contains(event);
+    }
+    
+    /**
+     * EventSubscriber wrapper that validates CloudEvents compliance, once per
+     * event instance across all subscribers.
      */
     private static class CloudEventsValidatingSubscriber implements EventSubscriber {
         private final EventSubscriber delegate;
         private final CloudEventsAdapter adapter;
+        private final CloudEventValidator validator;
+        private final ValidatedEvents validated;
         
-        public CloudEventsValidatingSubscriber(EventSubscriber delegate, CloudEventsAdapter adapter) {
+        public CloudEventsValidatingSubscriber(EventSubscriber delegate, CloudEventsAdapter adapter,
+                                               CloudEventValidator validator, ValidatedEvents validated) {
             this.delegate = delegate;
             this.adapter = adapter;
+            this.validator = validator;
+            this.validated = validated;
         }
         
         @Override
         public CompletableFuture<Void> handleEvent(Event event) {
+            if (validated.contains(event)) {
+                return delegate.handleEvent(event);
+            }
             try {
-                CloudEvent cloudEvent = adapter.convertToCloudEvent(event);
-                cloudEvent.validate();
+                validator.validate(event, adapter);
+                validated.add(event);
                 return delegate.handleEvent(event);
             } catch (Exception e) {
                 // Log validation error but continue processing
@@ -182,6 +281,46 @@ public class CloudEventsEventBroker implements EventBroker {
         }
     }
     
+    /**
+     * EventSubscriber wrapper that drops events whose signature does not verify.
+     */
+    private static class SignatureVerifyingSubscriber implements EventSubscriber {
+        private final EventSubscriber delegate;
+        private final CloudEventsAdapter adapter;
+        private final CloudEventVerifier verifier;
+        
+        public SignatureVerifyingSubscriber(EventSubscriber delegate, CloudEventsAdapter adapter,
+                                            CloudEventVerifier verifier) {
+            this.delegate = delegate;
+            this.adapter = adapter;
+            this.verifier = verifier;
+        }
+        
+        @Override
+        public CompletableFuture<Void> handleEvent(Event event) {
+            CloudEventVerifier.Result result;
+            try {
+                // The event instance is the carrier, so fan-out to other
+                // subscribers is served from the verification cache
+                result = verifier.verify(adapter.convertToCloudEvent(event), event);
+            } catch (Exception e) {
+                return CompletableFuture.failedFuture(e);
+            }
+            if (!result.isVerified()) {
+                System.err.println("CloudEvents signature check failed for event " + 
+                    event.getId() + ": " + result);
+                return CompletableFuture.failedFuture(new CloudEventException(
+                    "Event " + event.getId() + " rejected: " + result));
+            }
+            return delegate.handleEvent(event);
+        }
+        
+        @Override
+        public String getSubscriberId() {
+            return delegate.getSubscriberId();
+        }
+    }
+    
     /**
      * Adapter to convert CloudEvent consumer into EventSubscriber.
      */
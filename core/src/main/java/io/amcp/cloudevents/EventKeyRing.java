@@ -0,0 +1,186 @@
+package io.amcp.cloudevents;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keys used to sign and verify CloudEvents on behalf of one local participant.
+ *
+ * <p>Two kinds of key are held. An Ed25519 key pair signs events for any
+ * recipient, and the public keys of other senders verify theirs. A secret
+ * shared with a peer is never used directly: an HMAC session key is derived
+ * from it with HKDF-SHA256 once per (sender, recipient) direction and cached,
+ * so per-event cost is a single HMAC. Replacing or removing a peer's secret
+ * drops the session keys derived from it.</p>
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+public class EventKeyRing {
+
+    private static final byte[] HKDF_SALT = "amcp-cloudevents-v1".getBytes(StandardCharsets.UTF_8);
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final String localId;
+    private final Map<String, byte[]> sharedSecrets = new ConcurrentHashMap<>();
+    private final Map<String, PublicKey> publicKeys = new ConcurrentHashMap<>();
+    private final Map<SessionId, SecretKey> sessionKeys = new ConcurrentHashMap<>();
+    private volatile KeyPair signingKey;
+
+    public EventKeyRing(String localId) {
+        if (localId == null || localId.isEmpty()) {
+            throw new IllegalArgumentException("Local id is required");
+        }
+        this.localId = localId;
+    }
+
+    public String getLocalId() {
+        return localId;
+    }
+
+    /**
+     * Generate and install a fresh Ed25519 signing key pair
+     */
+    public KeyPair generateSigningKey() {
+        try {
+            KeyPair keyPair = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+            setSigningKey(keyPair);
+            return keyPair;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Ed25519 is not available", e);
+        }
+    }
+
+    public void setSigningKey(KeyPair keyPair) {
+        this.signingKey = keyPair;
+        publicKeys.put(localId, keyPair.getPublic());
+    }
+
+    /**
+     * Gets the local public key to hand to peers, or null if none is installed
+     */
+    public PublicKey getPublicKey() {
+        KeyPair keyPair = signingKey;
+        return keyPair != null ? keyPair.getPublic() : null;
+    }
+
+    /**
+     * Trust a sender's Ed25519 public key
+     */
+    public void addPublicKey(String senderId, PublicKey publicKey) {
+        publicKeys.put(senderId, publicKey);
+    }
+
+    /**
+     * Install the secret shared with a peer; session keys for both directions
+     * are derived from it on first use
+     */
+    public void addSharedSecret(String peerId, byte[] secret) {
+        if (secret == null || secret.length < 16) {
+            throw new IllegalArgumentException("Shared secret must be at least 16 bytes");
+        }
+        sharedSecrets.put(peerId, secret.clone());
+        dropSessionKeys(peerId);
+    }
+
+    /**
+     * Forget every key associated with a peer
+     */
+    public void removePeer(String peerId) {
+        byte[] secret = sharedSecrets.remove(peerId);
+        if (secret != null) {
+            Arrays.fill(secret, (byte) 0);
+        }
+        publicKeys.remove(peerId);
+        dropSessionKeys(peerId);
+    }
+
+    /**
+     * Gets the number of session keys derived so far
+     */
+    public int getSessionKeyCount() {
+        return sessionKeys.size();
+    }
+
+    PrivateKey signingKey() {
+        KeyPair keyPair = signingKey;
+        return keyPair != null ? keyPair.getPrivate() : null;
+    }
+
+    PublicKey publicKey(String senderId) {
+        return publicKeys.get(senderId);
+    }
+
+    /**
+     * Gets the session key for events from sender to recipient, deriving it on
+     * first use; null if no secret is shared with the other party
+     */
+    SecretKey sessionKey(String sender, String recipient) {
+        SessionId id = new SessionId(sender, recipient);
+        SecretKey key = sessionKeys.get(id);
+        if (key != null) {
+            return key;
+        }
+        String peer = localId.equals(sender) ? recipient : sender;
+        byte[] secret = sharedSecrets.get(peer);
+        if (secret == null) {
+            return null;
+        }
+        return sessionKeys.computeIfAbsent(id, ignored -> derive(secret, sender, recipient));
+    }
+
+    private void dropSessionKeys(String peerId) {
+        sessionKeys.keySet().removeIf(id -> id.sender.equals(peerId) || id.recipient.equals(peerId));
+    }
+
+    /**
+     * HKDF-SHA256 (RFC 5869) with a single output block
+     */
+    private static SecretKey derive(byte[] secret, String sender, String recipient) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(new SecretKeySpec(HKDF_SALT, HMAC_ALGORITHM));
+            byte[] prk = mac.doFinal(secret);
+
+            mac.init(new SecretKeySpec(prk, HMAC_ALGORITHM));
+            mac.update(("event-session\n" + sender + "\n" + recipient).getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 1);
+            return new SecretKeySpec(mac.doFinal(), HMAC_ALGORITHM);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+
+    private static final class SessionId {
+        final String sender;
+        final String recipient;
+
+        SessionId(String sender, String recipient) {
+            this.sender = sender;
+            this.recipient = recipient;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof SessionId)) return false;
+            SessionId that = (SessionId) o;
+            return sender.equals(that.sender) && recipient.equals(that.recipient);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * sender.hashCode() + recipient.hashCode();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package io.amcp.cloudevents;
+
+import java.lang.ref.WeakReference;
+import java.net.URI;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Event ids accepted within the replay window.
+ *
+ * <p>CloudEvents ids are only unique per source, so entries are keyed by
+ * source and id: two producers reusing an id do not collide.</p>
+ *
+ * <p>Each entry remembers the signature it was accepted with and the object
+ * that carried it, so the same delivery fanned out to several subscribers is
+ * recognised and served from the cache, while the same id arriving again in a
+ * different envelope is a replay. Entries expire once their signing time falls
+ * out of the window; the verifier rejects such events as stale anyway, which
+ * keeps the map bounded by the event rate times the window.</p>
+ */
+final class ReplayWindow {
+
+    private static final int SWEEP_INTERVAL = 1024;
+
+    private final ConcurrentHashMap<Key, Entry> seen = new ConcurrentHashMap<>();
+    private final AtomicInteger insertsSinceSweep = new AtomicInteger(0);
+
+    /**
+     * Look up an accepted event id
+     *
+     * @return the live entry, or null if the id has not been accepted within the window
+     */
+    Entry lookup(URI source, String eventId, long now) {
+        Key key = new Key(source, eventId);
+        Entry entry = seen.get(key);
+        if (entry != null && now >= entry.expiresAt) {
+            seen.remove(key, entry);
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Record an accepted event id
+     *
+     * @return null if recorded, otherwise the live entry that got there first
+     */
+    Entry record(URI source, String eventId, String signature, Object carrier, long expiresAt, long now) {
+        if (insertsSinceSweep.incrementAndGet() >= SWEEP_INTERVAL) {
+            insertsSinceSweep.set(0);
+            sweep(now);
+        }
+        Key key = new Key(source, eventId);
+        Entry fresh = new Entry(signature, carrier, expiresAt);
+        Entry existing = seen.putIfAbsent(key, fresh);
+        if (existing != null && now >= existing.expiresAt) {
+            return seen.replace(key, existing, fresh) ? null : seen.get(key);
+        }
+        return existing;
+    }
+
+    void sweep(long now) {
+        seen.values().removeIf(entry -> now >= entry.expiresAt);
+    }
+
+    int size() {
+        return seen.size();
+    }
+
+    private static final class Key {
+        final URI source;
+        final String eventId;
+
+        Key(URI source, String eventId) {
+            this.source = source;
+            this.eventId = eventId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return Objects.equals(source, other.source) && Objects.equals(eventId, other.eventId);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Objects.hashCode(source) + Objects.hashCode(eventId);
+        }
+    }
+
+    static final class Entry {
+        final String signature;
+        final WeakReference<Object> carrier;
+        final long expiresAt;
+
+        Entry(String signature, Object carrier, long expiresAt) {
+            this.signature = signature;
+            this.carrier = new WeakReference<>(carrier);
+            this.expiresAt = expiresAt;
+        }
+
+        /**
+         * Whether this entry was recorded for the same delivery
+         */
+        boolean isSameDelivery(String signature, Object carrier) {
+            return carrier != null && this.carrier.get() == carrier && this.signature.equals(signature);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package io.amcp.cloudevents;
+
+import io.amcp.core.Event;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Event instances a broker has already validated.
+ *
+ * <p>Held by the broker rather than on the event so that nothing outside it
+ * can mark an event as checked. Membership is by identity, since events are
+ * equal by id and a different instance with the same id has not been
+ * checked; references are weak, so an entry goes away with its event.</p>
+ */
+final class ValidatedEvents {
+
+    private final Set<Ref> events = ConcurrentHashMap.newKeySet();
+    private final ReferenceQueue<Event> cleared = new ReferenceQueue<>();
+
+    void add(Event event) {
+        expunge();
+        events.add(new Ref(event, cleared));
+    }
+
+    boolean contains(Event event) {
+        return event != null && events.contains(new Ref(event, null));
+    }
+
+    int size() {
+        expunge();
+        return events.size();
+    }
+
+    private void expunge() {
+        Reference<? extends Event> ref;
+        while ((ref = cleared.poll()) != null) {
+            events.remove(ref);
+        }
+    }
+
+    private static final class Ref extends WeakReference<Event> {
+        private final int hash;
+
+        Ref(Event event, ReferenceQueue<Event> queue) {
+            super(event, queue);
+            this.hash = System.identityHashCode(event);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Ref)) return false;
+            Event event = get();
+            return event != null && event == ((Ref) o).get();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
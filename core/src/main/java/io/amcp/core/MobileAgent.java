@@ -112,6 +112,10 @@ public interface MobileAgent extends Agent {
      * </ul>
      * </p>
      * 
+     * <p>Implementations replicating over ATP should use
+     * {@code ATPManager.replicateAgent}, which encodes the state once and
+     * transfers it to all contexts in parallel.</p>
+     * 
      * @param contexts the target contexts for replication
      * @return CompletableFuture containing the AgentIDs of all created replicas
      */
@@ -2,11 +2,30 @@ package io.amcp.core.impl;
 
 import io.amcp.core.*;
 import io.amcp.messaging.EventBroker;
+import io.amcp.messaging.impl.RateLimitedEventBroker;
+import io.amcp.mobility.MigrationRouter;
 import io.amcp.mobility.MobilityManager;
+import io.amcp.mobility.RoutedLiveMigrationSource;
 import io.amcp.mobility.MigrationOptions;
+import io.amcp.mobility.placement.ContextLoadReport;
+import io.amcp.mobility.placement.LoadTracker;
+import io.amcp.mobility.placement.PlacementSite;
+import io.amcp.ratelimit.RateLimitKeys;
 import io.amcp.security.SecurityContext;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -15,10 +34,35 @@ import java.util.concurrent.atomic.AtomicLong;
  * 
  * <p>This implementation provides basic context management functionality
  * suitable for single-node deployments and testing scenarios.</p>
+ * 
+ * <p>Agents can migrate between contexts in the same JVM. Events addressed to
+ * an agent pass through a {@link MigrationRouter}, so events arriving while it
+ * is in transit are buffered and forwarded to the destination once it has been
+ * received, and later events to the old context follow a forwarding pointer.</p>
+ * 
+ * <p>Deliveries are measured by a {@link LoadTracker}, which makes the context
+ * a {@link PlacementSite} for load-driven rebalancing.</p>
  */
-public class SimpleAgentContext implements AgentContext {
+public class SimpleAgentContext implements AgentContext, PlacementSite {
+    
+    /** Largest serialized agent accepted from another context */
+    public static final int MAX_SERIALIZED_AGENT_BYTES = 16 * 1024 * 1024;
+    
+    /**
+     * Limits and platform classes for a migrated agent. Its own classes are
+     * admitted by {@link MigratedAgentFilter}; everything else is rejected
+     * before it is instantiated.
+     */
+    private static final ObjectInputFilter AGENT_LIMITS = ObjectInputFilter.Config.createFilter(
+        "maxdepth=16;maxrefs=10000;maxarray=65536;maxbytes=" + MAX_SERIALIZED_AGENT_BYTES);
+    private static final ObjectInputFilter AGENT_PLATFORM_CLASSES = ObjectInputFilter.Config.createFilter(
+        "java.lang.*;java.math.*;java.time.*;java.util.*;java.util.concurrent.*;java.util.concurrent.atomic.*;"
+        + "java.util.concurrent.locks.*;io.amcp.**;!*");
     
     private static final AtomicLong contextIdGenerator = new AtomicLong(1);
+    // Weakly held so contexts that are dropped without shutdown() do not leak
+    private static final ConcurrentHashMap<String, WeakReference<SimpleAgentContext>> localContexts =
+        new ConcurrentHashMap<>();
     
     private final String contextId;
     private final EventBroker eventBroker;
@@ -26,6 +70,9 @@ public class SimpleAgentContext implements AgentContext {
     private final SecurityContext securityContext;
     private final ConcurrentHashMap<AgentID, Agent> agents;
     private final ConcurrentHashMap<AgentID, AgentLifecycle> agentStates;
+    private final ConcurrentHashMap<AgentID, Set<String>> agentSubscriptions;
+    private final MigrationRouter migrationRouter;
+    private final LoadTracker loadTracker;
     
     public SimpleAgentContext(EventBroker eventBroker, MobilityManager mobilityManager) {
         this(eventBroker, mobilityManager, null);
@@ -38,6 +85,23 @@ public class SimpleAgentContext implements AgentContext {
         this.securityContext = securityContext;
         this.agents = new ConcurrentHashMap<>();
         this.agentStates = new ConcurrentHashMap<>();
+        this.agentSubscriptions = new ConcurrentHashMap<>();
+        this.migrationRouter = new MigrationRouter();
+        this.loadTracker = new LoadTracker();
+        localContexts.values().removeIf(reference -> reference.get() == null);
+        localContexts.put(contextId, new WeakReference<>(this));
+    }
+    
+    /**
+     * Find a live context of this JVM by ID
+     */
+    private static SimpleAgentContext findLocalContext(String contextId) {
+        WeakReference<SimpleAgentContext> reference = localContexts.get(contextId);
+        SimpleAgentContext context = reference != null ? reference.get() : null;
+        if (reference != null && context == null) {
+            localContexts.remove(contextId, reference);
+        }
+        return context;
     }
     
     @Override
@@ -117,14 +181,20 @@ public class SimpleAgentContext implements AgentContext {
     
     @Override
     public CompletableFuture<Void> publishEvent(Event event) {
-        return eventBroker.publish(event);
+        // Attribute the event to this context's principal so the broker can
+        // rate-limit and audit per principal
+        if (eventBroker instanceof RateLimitedEventBroker) {
+            return ((RateLimitedEventBroker) eventBroker).publish(event, securityContext);
+        }
+        return eventBroker.publish(RateLimitKeys.withVerifiedPrincipal(event, securityContext));
     }
     
     @Override
     public CompletableFuture<Void> subscribe(AgentID agentId, String topicPattern) {
         Agent agent = agents.get(agentId);
         if (agent != null) {
-            EventBroker.EventSubscriber subscriber = new AgentEventSubscriber(agent);
+            agentSubscriptions.computeIfAbsent(agentId, id -> ConcurrentHashMap.newKeySet()).add(topicPattern);
+            EventBroker.EventSubscriber subscriber = new AgentEventSubscriber(agentId);
             return eventBroker.subscribe(subscriber, topicPattern);
         }
         return CompletableFuture.failedFuture(new IllegalArgumentException("Agent not found: " + agentId));
@@ -134,20 +204,165 @@ public class SimpleAgentContext implements AgentContext {
     public CompletableFuture<Void> unsubscribe(AgentID agentId, String topicPattern) {
         Agent agent = agents.get(agentId);
         if (agent != null) {
-            EventBroker.EventSubscriber subscriber = new AgentEventSubscriber(agent);
+            Set<String> patterns = agentSubscriptions.get(agentId);
+            if (patterns != null) {
+                patterns.remove(topicPattern);
+            }
+            EventBroker.EventSubscriber subscriber = new AgentEventSubscriber(agentId);
             return eventBroker.unsubscribe(subscriber, topicPattern);
         }
         return CompletableFuture.failedFuture(new IllegalArgumentException("Agent not found: " + agentId));
     }
     
+    /**
+     * Deliver an event to an agent of this context, following its migration
+     * route if it is in transit or has moved on
+     */
+    public CompletableFuture<Void> deliverEvent(AgentID agentId, Event event) {
+        return migrationRouter.route(agentId, event, e -> deliverLocally(agentId, e));
+    }
+    
+    public MigrationRouter getMigrationRouter() {
+        return migrationRouter;
+    }
+    
+    public LoadTracker getLoadTracker() {
+        return loadTracker;
+    }
+    
+    @Override
+    public ContextLoadReport reportLoad() {
+        return loadTracker.report(contextId, agents.keySet());
+    }
+    
     @Override
     public CompletableFuture<Void> migrateAgent(AgentID agentId, String destinationContext, MigrationOptions options) {
-        return CompletableFuture.completedFuture(null); // Simple implementation - no migration
+        Agent agent = agents.get(agentId);
+        if (agent == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Agent not found: " + agentId));
+        }
+        SimpleAgentContext destination = findLocalContext(destinationContext);
+        if (destination == null || destination == this) {
+            return CompletableFuture.failedFuture(
+                new IllegalArgumentException("Unknown destination context: " + destinationContext));
+        }
+        
+        // Hold the agent's events from here until it is running at the destination
+        migrationRouter.beginMigration(agentId, destinationContext);
+        AgentLifecycle previousState = agentStates.put(agentId, AgentLifecycle.MIGRATING);
+        
+        return CompletableFuture.supplyAsync(() -> {
+            awaitHandlers(agentId);
+            agent.onBeforeMigration(destinationContext);
+            return serializeAgent(agent);
+        }).thenCompose(serialized -> destination.receiveAgent(serialized, contextId))
+          .thenCompose(receivedId -> commitMigration(agentId, destination))
+          .whenComplete((result, error) -> {
+              if (error != null && migrationRouter.isInTransit(agentId)) {
+                  // Agent stays here: release held events to the local instance
+                  agentStates.put(agentId, previousState != null ? previousState : AgentLifecycle.ACTIVE);
+                  migrationRouter.abortMigration(agentId, e -> deliverLocally(agentId, e));
+              }
+          });
     }
     
     @Override
     public CompletableFuture<AgentID> receiveAgent(byte[] serializedAgent, String sourceContext) {
-        return CompletableFuture.completedFuture(null); // Simple implementation - no migration
+        return CompletableFuture.supplyAsync(() -> {
+            Agent agent = deserializeAgent(serializedAgent);
+            AgentID agentId = agent.getAgentId();
+            
+            // An agent returning here replaces the pointer it left behind
+            migrationRouter.clearRoute(agentId);
+            agents.put(agentId, agent);
+            agentStates.put(agentId, AgentLifecycle.ACTIVE);
+            agent.onAfterMigration(sourceContext);
+            return agentId;
+        });
+    }
+    
+    /**
+     * Wait for handlers that were already running when the agent's events
+     * started to be held, so it is not serialized while they change it
+     */
+    private void awaitHandlers(AgentID agentId) {
+        try {
+            if (!migrationRouter.awaitLocalDeliveries(agentId, RoutedLiveMigrationSource.DEFAULT_DRAIN_TIMEOUT_MS)) {
+                throw new IllegalStateException("Handlers of agent " + agentId + " still running");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException("Interrupted waiting for handlers of agent " + agentId, e);
+        }
+    }
+    
+    private CompletableFuture<Void> commitMigration(AgentID agentId, SimpleAgentContext destination) {
+        agents.remove(agentId);
+        agentStates.remove(agentId);
+        migrationRouter.completeMigration(agentId, destination::deliverEvent);
+        
+        // Move subscriptions to the destination. Subscribing there before
+        // unsubscribing here means a shared broker may deliver an event twice
+        // during the switch, but never drops one. With separate brokers the
+        // subscription here stays as a forwarding path for local publishers.
+        Set<String> patterns = agentSubscriptions.remove(agentId);
+        if (patterns == null || patterns.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        List<CompletableFuture<Void>> moves = new ArrayList<>();
+        for (String pattern : patterns) {
+            CompletableFuture<Void> move = destination.subscribe(agentId, pattern);
+            if (destination.getEventBroker() == eventBroker) {
+                move = move.thenCompose(v -> eventBroker.unsubscribe(new AgentEventSubscriber(agentId), pattern));
+            }
+            moves.add(move);
+        }
+        return CompletableFuture.allOf(moves.toArray(new CompletableFuture[0]));
+    }
+    
+    private CompletableFuture<Void> deliverLocally(AgentID agentId, Event event) {
+        Agent agent = agents.get(agentId);
+        if (agent == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Agent not found: " + agentId));
+        }
+        long start = loadTracker.beginDelivery();
+        CompletableFuture<Void> handled;
+        try {
+            handled = agent.handleEvent(event);
+        } catch (RuntimeException e) {
+            loadTracker.endDelivery();
+            return CompletableFuture.failedFuture(e);
+        } finally {
+            loadTracker.recordHandled(agentId, event.getSender(), start);
+        }
+        if (handled == null) {
+            loadTracker.endDelivery();
+            return CompletableFuture.completedFuture(null);
+        }
+        return handled.whenComplete((result, error) -> loadTracker.endDelivery());
+    }
+    
+    private static byte[] serializeAgent(Agent agent) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(agent);
+        } catch (IOException e) {
+            throw new CompletionException("Failed to serialize agent " + agent.getAgentId(), e);
+        }
+        return bytes.toByteArray();
+    }
+    
+    private static Agent deserializeAgent(byte[] serializedAgent) {
+        if (serializedAgent.length > MAX_SERIALIZED_AGENT_BYTES) {
+            throw new CompletionException(new IOException("Migrated agent of " + serializedAgent.length
+                + " bytes exceeds " + MAX_SERIALIZED_AGENT_BYTES));
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serializedAgent))) {
+            in.setObjectInputFilter(new MigratedAgentFilter());
+            return (Agent) in.readObject();
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            throw new CompletionException("Failed to deserialize migrated agent", e);
+        }
     }
     
     @Override
@@ -167,12 +382,12 @@ public class SimpleAgentContext implements AgentContext {
             
             @Override
             public long getTotalEventsProcessed() {
-                return 0; // Simple implementation
+                return loadTracker.getTotalEvents();
             }
             
             @Override
             public double getAverageEventProcessingTime() {
-                return 0.0; // Simple implementation
+                return loadTracker.getAverageHandlerMillis();
             }
             
             @Override
@@ -197,27 +412,83 @@ public class SimpleAgentContext implements AgentContext {
                 .map(this::deactivateAgent)
                 .toArray(CompletableFuture[]::new)
         );
+        localContexts.remove(contextId);
         return allDeactivated.thenCompose(v -> eventBroker.stop());
     }
     
     /**
-     * Simple EventSubscriber that delegates to an Agent.
+     * Filter for one migrated agent: the root object must be an {@link Agent},
+     * and besides platform classes only classes from the agent's own package
+     * may appear in its state
      */
-    private static class AgentEventSubscriber implements EventBroker.EventSubscriber {
-        private final Agent agent;
+    private static final class MigratedAgentFilter implements ObjectInputFilter {
+        private String agentPackage;
         
-        public AgentEventSubscriber(Agent agent) {
-            this.agent = agent;
+        @Override
+        public Status checkInput(FilterInfo info) {
+            Status limits = AGENT_LIMITS.checkInput(info);
+            if (limits == Status.REJECTED || info.serialClass() == null) {
+                return limits;
+            }
+            Class<?> type = info.serialClass();
+            while (type.isArray()) {
+                type = type.getComponentType();
+            }
+            if (type.isPrimitive()) {
+                return Status.ALLOWED;
+            }
+            if (agentPackage == null) {
+                // The first class read is that of the root object
+                if (!Agent.class.isAssignableFrom(type)) {
+                    return Status.REJECTED;
+                }
+                agentPackage = type.getPackageName();
+                return Status.ALLOWED;
+            }
+            if (type.getPackageName().equals(agentPackage)) {
+                return Status.ALLOWED;
+            }
+            return AGENT_PLATFORM_CLASSES.checkInput(info);
+        }
+    }
+    
+    /**
+     * EventSubscriber that delivers to an agent of this context through the
+     * migration router. Equality is by context and agent ID so subscriptions
+     * can be removed with a fresh instance.
+     */
+    private class AgentEventSubscriber implements EventBroker.EventSubscriber {
+        private final AgentID agentId;
+        
+        public AgentEventSubscriber(AgentID agentId) {
+            this.agentId = agentId;
         }
         
         @Override
         public CompletableFuture<Void> handleEvent(Event event) {
-            return agent.handleEvent(event);
+            return deliverEvent(agentId, event);
         }
         
         @Override
         public String getSubscriberId() {
-            return agent.getAgentId().toString();
+            return agentId.toString();
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (!(obj instanceof AgentEventSubscriber)) return false;
+            AgentEventSubscriber other = (AgentEventSubscriber) obj;
+            return context() == other.context() && agentId.equals(other.agentId);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(contextId, agentId);
+        }
+        
+        private SimpleAgentContext context() {
+            return SimpleAgentContext.this;
         }
     }
 }
\ No newline at end of file
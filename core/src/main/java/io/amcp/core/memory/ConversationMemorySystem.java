@@ -22,6 +22,7 @@ import java.util.stream.Collectors;
  * - Memory search and retrieval
  * - Conversation summarization
  * - Memory optimization and cleanup
+ * - Sharded session storage with timing-wheel idle expiry
  * 
  * @author AMCP Development Team
  * @version 1.5.0
@@ -29,7 +30,7 @@ import java.util.stream.Collectors;
 public class ConversationMemorySystem {
     
     // Memory storage
-    private final ConcurrentHashMap<String, ConversationSession> sessions;
+    private final ShardedSessionStore sessions;
     private final ConcurrentHashMap<String, UserProfile> userProfiles;
     
     // Memory configuration
@@ -37,7 +38,6 @@ public class ConversationMemorySystem {
     
     // Memory state
     private volatile boolean isRunning;
-    private volatile long lastCleanup;
     
     public ConversationMemorySystem() {
         this(new MemoryConfiguration());
@@ -45,10 +45,12 @@ public class ConversationMemorySystem {
     
     public ConversationMemorySystem(MemoryConfiguration configuration) {
         this.configuration = configuration;
-        this.sessions = new ConcurrentHashMap<>();
+        this.sessions = new ShardedSessionStore(
+            configuration.getShardCount(),
+            configuration.getSessionTimeoutMinutes() * 60L * 1000L,
+            configuration.getExpiryTickMillis());
         this.userProfiles = new ConcurrentHashMap<>();
         this.isRunning = false;
-        this.lastCleanup = System.currentTimeMillis();
     }
     
     /**
@@ -101,8 +103,12 @@ public class ConversationMemorySystem {
             
             ConversationSession session = sessions.get(sessionId);
             if (session == null) {
-                session = new ConversationSession(sessionId, userId);
-                sessions.put(sessionId, session);
+                ConversationSession created = new ConversationSession(sessionId, userId);
+                session = sessions.putIfAbsent(created);
+                if (session != null) {
+                    return session;
+                }
+                session = created;
                 
                 // Update user profile
                 updateUserProfile(userId, sessionId);
@@ -165,12 +171,10 @@ public class ConversationMemorySystem {
         return CompletableFuture.supplyAsync(() -> {
             List<ConversationMessage> results = new ArrayList<>();
             
-            for (ConversationSession session : sessions.values()) {
-                if (session.getUserId().equals(userId)) {
-                    for (ConversationMessage message : session.getMessages()) {
-                        if (message.getContent().toLowerCase().contains(searchQuery.toLowerCase())) {
-                            results.add(message);
-                        }
+            for (ConversationSession session : sessions.getUserSessions(userId)) {
+                for (ConversationMessage message : session.getMessages()) {
+                    if (message.getContent().toLowerCase().contains(searchQuery.toLowerCase())) {
+                        results.add(message);
                     }
                 }
             }
@@ -258,12 +262,13 @@ public class ConversationMemorySystem {
      */
     public CompletableFuture<MemoryStatistics> getStatistics() {
         return CompletableFuture.supplyAsync(() -> {
-            int totalSessions = sessions.size();
-            int activeSessions = (int) sessions.values().stream()
+            List<ConversationSession> allSessions = sessions.getAllSessions();
+            int totalSessions = allSessions.size();
+            int activeSessions = (int) allSessions.stream()
                 .filter(s -> s.isActive(configuration.getSessionTimeoutMinutes()))
                 .count();
             int totalUsers = userProfiles.size();
-            int totalMessages = sessions.values().stream()
+            int totalMessages = allSessions.stream()
                 .mapToInt(s -> s.getMessages().size())
                 .sum();
                 
@@ -271,6 +276,13 @@ public class ConversationMemorySystem {
         });
     }
     
+    /**
+     * Gets per-shard session store statistics
+     */
+    public CompletableFuture<List<ShardedSessionStore.ShardStatistics>> getShardStatistics() {
+        return CompletableFuture.supplyAsync(sessions::getShardStatistics);
+    }
+    
     /**
      * Clears conversation history for a session
      */
@@ -286,14 +298,7 @@ public class ConversationMemorySystem {
      */
     public CompletableFuture<Void> clearUserSessions(String userId) {
         return CompletableFuture.runAsync(() -> {
-            int removed = 0;
-            for (Iterator<Map.Entry<String, ConversationSession>> it = sessions.entrySet().iterator(); it.hasNext(); ) {
-                Map.Entry<String, ConversationSession> entry = it.next();
-                if (entry.getValue().getUserId().equals(userId)) {
-                    it.remove();
-                    removed++;
-                }
-            }
+            int removed = sessions.removeUserSessions(userId);
             
             userProfiles.remove(userId);
             logMessage("🗑️ Cleared " + removed + " sessions for user: " + userId);
@@ -377,11 +382,14 @@ public class ConversationMemorySystem {
     }
     
     private void startBackgroundCleanup() {
+        long intervalMillis = configuration.getCleanupIntervalMinutes() > 0
+            ? configuration.getCleanupIntervalMinutes() * 60L * 1000L
+            : configuration.getExpiryTickMillis();
         CompletableFuture.runAsync(() -> {
             while (isRunning) {
                 try {
                     performCleanup();
-                    Thread.sleep(configuration.getCleanupIntervalMinutes() * 60 * 1000);
+                    Thread.sleep(intervalMillis);
                 } catch (InterruptedException e) {
                     Thread.currentThread().interrupt();
                     break;
@@ -392,28 +400,17 @@ public class ConversationMemorySystem {
         });
     }
     
+    /**
+     * Advances the session expiry wheels. Only sessions whose idle deadline
+     * falls in the elapsed ticks are examined, so this is cheap enough to run
+     * often regardless of how many sessions are live; the cleanup interval
+     * sets how often, and a non-positive interval sweeps every tick.
+     */
     private void performCleanup() {
-        long now = System.currentTimeMillis();
-        if (now - lastCleanup > configuration.getCleanupIntervalMinutes() * 60 * 1000) {
-            
-            int removed = 0;
-            long timeoutThreshold = now - (configuration.getSessionTimeoutMinutes() * 60 * 1000);
-            
-            for (Iterator<Map.Entry<String, ConversationSession>> it = sessions.entrySet().iterator(); it.hasNext(); ) {
-                Map.Entry<String, ConversationSession> entry = it.next();
-                ConversationSession session = entry.getValue();
-                
-                if (session.getLastActivity().toEpochMilli() < timeoutThreshold) {
-                    it.remove();
-                    removed++;
-                }
-            }
-            
-            if (removed > 0) {
-                logMessage("🧹 Cleaned up " + removed + " inactive sessions");
-            }
-            
-            lastCleanup = now;
+        int removed = sessions.expireIdle(System.currentTimeMillis());
+        
+        if (removed > 0) {
+            logMessage("🧹 Cleaned up " + removed + " inactive sessions");
         }
     }
     
@@ -648,6 +645,8 @@ public class ConversationMemorySystem {
         private int cleanupIntervalMinutes = 15;
         private boolean autoCleanupEnabled = true;
         private boolean persistOnShutdown = false;
+        private int shardCount = Math.max(1, Runtime.getRuntime().availableProcessors() * 2);
+        private long expiryTickMillis = 1000;
         
         // Getters and setters
         public int getContextWindowSize() { return contextWindowSize; }
@@ -656,6 +655,7 @@ public class ConversationMemorySystem {
         public int getSessionTimeoutMinutes() { return sessionTimeoutMinutes; }
         public void setSessionTimeoutMinutes(int timeout) { this.sessionTimeoutMinutes = timeout; }
         
+        /** Time between expiry sweeps; 0 or less sweeps every expiry tick */
         public int getCleanupIntervalMinutes() { return cleanupIntervalMinutes; }
         public void setCleanupIntervalMinutes(int interval) { this.cleanupIntervalMinutes = interval; }
         
@@ -664,6 +664,12 @@ public class ConversationMemorySystem {
         
         public boolean isPersistOnShutdown() { return persistOnShutdown; }
         public void setPersistOnShutdown(boolean persist) { this.persistOnShutdown = persist; }
+        
+        public int getShardCount() { return shardCount; }
+        public void setShardCount(int count) { this.shardCount = count; }
+        
+        public long getExpiryTickMillis() { return expiryTickMillis; }
+        public void setExpiryTickMillis(long tickMillis) { this.expiryTickMillis = tickMillis; }
     }
     
     /**
@@ -0,0 +1,170 @@
+package io.amcp.core.memory;
+
+import java.util.ArrayDeque;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel for coarse-grained expiry scheduling.
+ *
+ * <p>Entries are placed in one of several wheels depending on how far in the
+ * future their deadline lies. Level 0 has one slot per tick, each higher level
+ * has slots that are {@code wheelSize} times wider. When the lower bits of the
+ * current tick roll over, the matching slot of the next level is cascaded down,
+ * so scheduling and expiry are both O(1) amortized per entry, independent of
+ * how many entries are pending.</p>
+ *
+ * <p>Deadlines beyond the range of the top level are parked in its farthest
+ * slot and re-placed when that slot is cascaded. The wheel is thread-safe;
+ * expiry callbacks run on the thread calling {@link #advance(long, Consumer)}
+ * and may re-schedule entries.</p>
+ *
+ * @param <T> the type of scheduled items
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+public class HierarchicalTimingWheel<T> {
+
+    private static final int DEFAULT_WHEEL_BITS = 6;  // 64 slots per level
+    private static final int DEFAULT_LEVELS = 4;      // 64^4 ticks of range
+
+    private final long tickMillis;
+    private final long startMillis;
+    private final int bits;
+    private final int levels;
+    private final int mask;
+    private final ArrayDeque<Entry<T>>[][] slots;
+
+    private long currentTick;
+    private int pending;
+
+    public HierarchicalTimingWheel(long tickMillis) {
+        this(tickMillis, DEFAULT_WHEEL_BITS, DEFAULT_LEVELS, System.currentTimeMillis());
+    }
+
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimingWheel(long tickMillis, int wheelBits, int levels, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick must be positive: " + tickMillis);
+        }
+        if (wheelBits < 1 || levels < 1 || wheelBits * levels > 62) {
+            throw new IllegalArgumentException("Invalid wheel geometry: bits=" + wheelBits + ", levels=" + levels);
+        }
+        this.tickMillis = tickMillis;
+        this.startMillis = startMillis;
+        this.bits = wheelBits;
+        this.levels = levels;
+        this.mask = (1 << wheelBits) - 1;
+        this.slots = new ArrayDeque[levels][1 << wheelBits];
+        this.currentTick = 0;
+        this.pending = 0;
+    }
+
+    /**
+     * Schedules an item to expire at the given wall-clock deadline. Deadlines in
+     * the past fire on the next tick.
+     */
+    public synchronized void schedule(T item, long deadlineMillis) {
+        long tick = Math.max(deadlineTick(deadlineMillis), currentTick + 1);
+        insert(new Entry<>(item, tick));
+        pending++;
+    }
+
+    /**
+     * Advances the wheel to the given wall-clock time, invoking the callback for
+     * every entry whose deadline has passed.
+     *
+     * @return the number of entries that fired
+     */
+    public synchronized int advance(long nowMillis, Consumer<T> onExpire) {
+        long targetTick = Math.max(0, nowMillis - startMillis) / tickMillis;
+        int fired = 0;
+
+        while (currentTick < targetTick) {
+            currentTick++;
+
+            // Cascade higher levels whose window starts at this tick
+            for (int level = levels - 1; level > 0; level--) {
+                long levelMask = (1L << (bits * level)) - 1;
+                if ((currentTick & levelMask) == 0) {
+                    cascade(level, (int) ((currentTick >>> (bits * level)) & mask));
+                }
+            }
+
+            int index = (int) (currentTick & mask);
+            ArrayDeque<Entry<T>> due = slots[0][index];
+            if (due == null || due.isEmpty()) {
+                continue;
+            }
+            slots[0][index] = null;
+
+            for (Entry<T> entry : due) {
+                pending--;
+                fired++;
+                onExpire.accept(entry.item);
+            }
+        }
+
+        return fired;
+    }
+
+    /**
+     * Gets the number of scheduled entries that have not fired yet
+     */
+    public synchronized int size() {
+        return pending;
+    }
+
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    private long deadlineTick(long millis) {
+        long elapsed = millis - startMillis;
+        return elapsed <= 0 ? 0 : (elapsed + tickMillis - 1) / tickMillis;
+    }
+
+    private void insert(Entry<T> entry) {
+        for (int level = 0; level < levels; level++) {
+            int shift = bits * level;
+            long distance = (entry.tick >>> shift) - (currentTick >>> shift);
+            if (distance <= mask) {
+                add(level, (int) ((entry.tick >>> shift) & mask), entry);
+                return;
+            }
+        }
+
+        // Beyond the wheel's range: park in the farthest top-level slot
+        int top = levels - 1;
+        add(top, (int) (((currentTick >>> (bits * top)) + mask) & mask), entry);
+    }
+
+    private void cascade(int level, int index) {
+        ArrayDeque<Entry<T>> bucket = slots[level][index];
+        if (bucket == null || bucket.isEmpty()) {
+            return;
+        }
+        slots[level][index] = null;
+        for (Entry<T> entry : bucket) {
+            insert(entry);
+        }
+    }
+
+    private void add(int level, int index, Entry<T> entry) {
+        ArrayDeque<Entry<T>> bucket = slots[level][index];
+        if (bucket == null) {
+            bucket = new ArrayDeque<>();
+            slots[level][index] = bucket;
+        }
+        bucket.add(entry);
+    }
+
+    private static final class Entry<T> {
+        final T item;
+        final long tick;
+
+        Entry(T item, long tick) {
+            this.item = item;
+            this.tick = tick;
+        }
+    }
+}
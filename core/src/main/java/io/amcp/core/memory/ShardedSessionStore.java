@@ -0,0 +1,313 @@
+package io.amcp.core.memory;
+
+import io.amcp.core.memory.ConversationMemorySystem.ConversationSession;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sharded storage for conversation sessions with timing-wheel idle expiry.
+ *
+ * <p>Sessions are partitioned by a hash of their user ID so that per-user
+ * operations (search, bulk clear) only touch a single shard, and each shard
+ * owns its own {@link HierarchicalTimingWheel}. A session is scheduled once
+ * at its idle deadline; when that slot fires the session's last activity is
+ * re-checked and it is either removed or re-scheduled. Recording activity is
+ * therefore a single volatile write, and expiry costs O(1) amortized per
+ * session instead of a periodic sweep over every session.</p>
+ *
+ * <p>A session-ID directory maps each session to its owning shard so lookups
+ * by session ID stay a pair of hash lookups. All structural changes for a
+ * session ID are serialized through that directory.</p>
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+public class ShardedSessionStore {
+
+    private final Shard[] shards;
+    private final int shardMask;
+    private final ConcurrentHashMap<String, Shard> directory;
+    private final long idleTimeoutMillis;
+    private final LongAdder misses;
+
+    public ShardedSessionStore(int shardCount, long idleTimeoutMillis, long tickMillis) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Shard count must be positive: " + shardCount);
+        }
+        int size = tableSizeFor(shardCount);
+        long startMillis = System.currentTimeMillis();
+
+        this.shards = new Shard[size];
+        for (int i = 0; i < size; i++) {
+            shards[i] = new Shard(i, new HierarchicalTimingWheel<>(tickMillis, 6, 4, startMillis));
+        }
+        this.shardMask = size - 1;
+        this.directory = new ConcurrentHashMap<>();
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.misses = new LongAdder();
+    }
+
+    /**
+     * Gets a session by ID, or null if it does not exist
+     */
+    public ConversationSession get(String sessionId) {
+        Shard shard = directory.get(sessionId);
+        ConversationSession session = shard != null ? shard.sessions.get(sessionId) : null;
+        if (session != null) {
+            shard.hits.increment();
+        } else {
+            misses.increment();
+        }
+        return session;
+    }
+
+    /**
+     * Stores a session unless one with the same ID already exists.
+     *
+     * @return the existing session, or null if the given session was stored
+     */
+    public ConversationSession putIfAbsent(ConversationSession session) {
+        String sessionId = session.getSessionId();
+        Shard target = shardFor(session.getUserId());
+        ConversationSession[] existing = new ConversationSession[1];
+
+        directory.compute(sessionId, (id, owner) -> {
+            if (owner != null) {
+                existing[0] = owner.sessions.get(id);
+                return owner;
+            }
+            target.sessions.put(id, session);
+            target.created.increment();
+            target.wheel.schedule(session, deadlineOf(session));
+            return target;
+        });
+
+        return existing[0];
+    }
+
+    /**
+     * Removes a session by ID
+     *
+     * @return the removed session, or null if it did not exist
+     */
+    public ConversationSession remove(String sessionId) {
+        ConversationSession[] removed = new ConversationSession[1];
+
+        directory.computeIfPresent(sessionId, (id, owner) -> {
+            removed[0] = owner.sessions.remove(id);
+            if (removed[0] != null) {
+                owner.removed.increment();
+            }
+            return null;
+        });
+
+        return removed[0];
+    }
+
+    /**
+     * Removes every session belonging to a user, scanning only that user's shard
+     *
+     * @return the number of sessions removed
+     */
+    public int removeUserSessions(String userId) {
+        int removed = 0;
+        for (ConversationSession session : getUserSessions(userId)) {
+            if (remove(session.getSessionId()) != null) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Gets all sessions belonging to a user, scanning only that user's shard
+     */
+    public List<ConversationSession> getUserSessions(String userId) {
+        List<ConversationSession> result = new ArrayList<>();
+        for (ConversationSession session : shardFor(userId).sessions.values()) {
+            if (session.getUserId().equals(userId)) {
+                result.add(session);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets a snapshot of all sessions across shards
+     */
+    public List<ConversationSession> getAllSessions() {
+        List<ConversationSession> result = new ArrayList<>(size());
+        for (Shard shard : shards) {
+            result.addAll(shard.sessions.values());
+        }
+        return result;
+    }
+
+    /**
+     * Advances every shard's expiry wheel to the given time, removing sessions
+     * that have been idle longer than the timeout.
+     *
+     * @return the number of sessions expired
+     */
+    public int expireIdle(long nowMillis) {
+        int expired = 0;
+        for (Shard shard : shards) {
+            expired += expireIdle(shard, nowMillis);
+        }
+        return expired;
+    }
+
+    /**
+     * Removes all sessions. Pending wheel entries are discarded lazily when they fire.
+     */
+    public void clear() {
+        for (String sessionId : new ArrayList<>(directory.keySet())) {
+            remove(sessionId);
+        }
+    }
+
+    public int size() {
+        int total = 0;
+        for (Shard shard : shards) {
+            total += shard.sessions.size();
+        }
+        return total;
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Gets a statistics snapshot for every shard
+     */
+    public List<ShardStatistics> getShardStatistics() {
+        List<ShardStatistics> stats = new ArrayList<>(shards.length);
+        for (Shard shard : shards) {
+            stats.add(new ShardStatistics(
+                shard.index,
+                shard.sessions.size(),
+                shard.wheel.size(),
+                shard.created.sum(),
+                shard.removed.sum(),
+                shard.expired.sum(),
+                shard.hits.sum()
+            ));
+        }
+        return stats;
+    }
+
+    private int expireIdle(Shard shard, long nowMillis) {
+        List<ConversationSession> due = new ArrayList<>();
+        shard.wheel.advance(nowMillis, due::add);
+
+        int expired = 0;
+        for (ConversationSession session : due) {
+            if (expireOrReschedule(shard, session, nowMillis)) {
+                expired++;
+            }
+        }
+        return expired;
+    }
+
+    private boolean expireOrReschedule(Shard shard, ConversationSession session, long nowMillis) {
+        boolean[] expired = new boolean[1];
+        String sessionId = session.getSessionId();
+
+        directory.computeIfPresent(sessionId, (id, owner) -> {
+            // Stale entry for a session that was removed or replaced
+            if (owner != shard || shard.sessions.get(id) != session) {
+                return owner;
+            }
+            long deadline = deadlineOf(session);
+            if (deadline > nowMillis) {
+                shard.wheel.schedule(session, deadline);
+                return owner;
+            }
+            shard.sessions.remove(id);
+            shard.expired.increment();
+            expired[0] = true;
+            return null;
+        });
+
+        return expired[0];
+    }
+
+    private long deadlineOf(ConversationSession session) {
+        return session.getLastActivity().toEpochMilli() + idleTimeoutMillis;
+    }
+
+    private Shard shardFor(String userId) {
+        int h = userId != null ? userId.hashCode() : 0;
+        h ^= (h >>> 16);
+        return shards[h & shardMask];
+    }
+
+    private static int tableSizeFor(int n) {
+        int size = Integer.highestOneBit(n);
+        return size == n ? size : size << 1;
+    }
+
+    private static final class Shard {
+        final int index;
+        final ConcurrentHashMap<String, ConversationSession> sessions;
+        final HierarchicalTimingWheel<ConversationSession> wheel;
+        final LongAdder created = new LongAdder();
+        final LongAdder removed = new LongAdder();
+        final LongAdder expired = new LongAdder();
+        final LongAdder hits = new LongAdder();
+
+        Shard(int index, HierarchicalTimingWheel<ConversationSession> wheel) {
+            this.index = index;
+            this.sessions = new ConcurrentHashMap<>();
+            this.wheel = wheel;
+        }
+    }
+
+    /**
+     * Point-in-time statistics for a single shard
+     */
+    public static class ShardStatistics {
+        private final int shardIndex;
+        private final int sessionCount;
+        private final int pendingExpiries;
+        private final long created;
+        private final long removed;
+        private final long expired;
+        private final long hits;
+
+        public ShardStatistics(int shardIndex, int sessionCount, int pendingExpiries,
+                               long created, long removed, long expired, long hits) {
+            this.shardIndex = shardIndex;
+            this.sessionCount = sessionCount;
+            this.pendingExpiries = pendingExpiries;
+            this.created = created;
+            this.removed = removed;
+            this.expired = expired;
+            this.hits = hits;
+        }
+
+        // Getters
+        public int getShardIndex() { return shardIndex; }
+        public int getSessionCount() { return sessionCount; }
+        public int getPendingExpiries() { return pendingExpiries; }
+        public long getCreated() { return created; }
+        public long getRemoved() { return removed; }
+        public long getExpired() { return expired; }
+        public long getHits() { return hits; }
+
+        @Override
+        public String toString() {
+            return String.format("Shard{#%d, sessions=%d, pending=%d, created=%d, removed=%d, expired=%d, hits=%d}",
+                shardIndex, sessionCount, pendingExpiries, created, removed, expired, hits);
+        }
+    }
+}
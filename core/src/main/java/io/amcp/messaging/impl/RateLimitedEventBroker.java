@@ -0,0 +1,100 @@
+package io.amcp.messaging.impl;
+
+import io.amcp.core.Event;
+import io.amcp.messaging.EventBroker;
+import io.amcp.mobility.BrokerMetrics;
+import io.amcp.ratelimit.AdmissionController;
+import io.amcp.ratelimit.RateLimitKeys;
+import io.amcp.security.SecurityContext;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Event broker decorator that applies admission control to publishing.
+ *
+ * <p>Every published event is admitted under the key the extractor derives
+ * from it, e.g. {@link io.amcp.ratelimit.RateLimitKeys#SENDER}, before it is
+ * handed to the wrapped broker. Events over the limit fail their publish
+ * future with {@link io.amcp.ratelimit.RateLimitExceededException}, or are
+ * delayed, depending on the controller's mode.</p>
+ *
+ * <p>A principal claimed in the event metadata is never trusted: events are
+ * attributed with {@link io.amcp.ratelimit.RateLimitKeys#withVerifiedPrincipal}
+ * before the key is derived, using the security context passed to
+ * {@link #publish(Event, SecurityContext)}. Plain {@link #publish(Event)} has
+ * none, so its events are limited by sender under
+ * {@link io.amcp.ratelimit.RateLimitKeys#PRINCIPAL}.</p>
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+public class RateLimitedEventBroker implements EventBroker {
+
+    private final EventBroker delegate;
+    private final AdmissionController admission;
+    private final Function<Event, String> keyExtractor;
+
+    public RateLimitedEventBroker(EventBroker delegate, AdmissionController admission,
+                                  Function<Event, String> keyExtractor) {
+        this.delegate = delegate;
+        this.admission = admission;
+        this.keyExtractor = keyExtractor;
+    }
+
+    @Override
+    public CompletableFuture<Void> publish(Event event) {
+        return publish(event, null);
+    }
+
+    /**
+     * Publish on behalf of a security context, which attributes the event to
+     * its principal if it is authenticated
+     */
+    public CompletableFuture<Void> publish(Event event, SecurityContext securityContext) {
+        Event attributed = RateLimitKeys.withVerifiedPrincipal(event, securityContext);
+        CompletableFuture<Void> admitted = admission.admit(keyExtractor.apply(attributed));
+        if (admitted.isDone() && !admitted.isCompletedExceptionally()) {
+            return delegate.publish(attributed);
+        }
+        return admitted.thenCompose(ignored -> delegate.publish(attributed));
+    }
+
+    @Override
+    public CompletableFuture<Void> subscribe(EventSubscriber subscriber, String topicPattern) {
+        return delegate.subscribe(subscriber, topicPattern);
+    }
+
+    @Override
+    public CompletableFuture<Void> unsubscribe(EventSubscriber subscriber, String topicPattern) {
+        return delegate.unsubscribe(subscriber, topicPattern);
+    }
+
+    @Override
+    public CompletableFuture<Void> start() {
+        return delegate.start();
+    }
+
+    @Override
+    public CompletableFuture<Void> stop() {
+        return delegate.stop();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return delegate.isRunning();
+    }
+
+    @Override
+    public BrokerMetrics getMetrics() {
+        return delegate.getMetrics();
+    }
+
+    public AdmissionController getAdmissionController() {
+        return admission;
+    }
+
+    public EventBroker getDelegate() {
+        return delegate;
+    }
+}
@@ -5,16 +5,66 @@ import java.io.Serializable;
 /**
  * Options for agent migration operations.
  * 
+ * <p>By default an agent is stopped and its whole state shipped at once.
+ * {@link #preCopy(int, int)} selects live migration: state is copied in rounds
+ * while the agent keeps running, and the agent is only paused for the final
+ * round once the remaining delta is small.</p>
+ * 
  * @author AMCP Development Team  
- * @version 1.4.0
+ * @version 1.5.0
  * @since 1.4.0
  */
 public final class MigrationOptions implements Serializable {
     
-    private static final long serialVersionUID = 1L;
+    private static final long serialVersionUID = 2L;
+    
+    private static final int DEFAULT_MAX_ROUNDS = 5;
+    private static final int DEFAULT_STOP_COPY_THRESHOLD = 64;
+    
+    private final boolean preCopy;
+    private final int maxPreCopyRounds;
+    private final int stopCopyThreshold;
+    
+    private MigrationOptions(boolean preCopy, int maxPreCopyRounds, int stopCopyThreshold) {
+        this.preCopy = preCopy;
+        this.maxPreCopyRounds = maxPreCopyRounds;
+        this.stopCopyThreshold = stopCopyThreshold;
+    }
     
     public static MigrationOptions defaultOptions() {
-        return new MigrationOptions();
+        return new MigrationOptions(false, 0, 0);
+    }
+    
+    /**
+     * Live migration with default round limits
+     */
+    public static MigrationOptions preCopy() {
+        return preCopy(DEFAULT_MAX_ROUNDS, DEFAULT_STOP_COPY_THRESHOLD);
+    }
+    
+    /**
+     * Live migration with explicit limits
+     * 
+     * @param maxRounds maximum number of delta rounds before forcing stop-and-copy
+     * @param stopCopyThreshold dirty key count at or below which the agent is paused for the final round
+     */
+    public static MigrationOptions preCopy(int maxRounds, int stopCopyThreshold) {
+        if (maxRounds < 0 || stopCopyThreshold < 0) {
+            throw new IllegalArgumentException("Pre-copy limits must not be negative");
+        }
+        return new MigrationOptions(true, maxRounds, stopCopyThreshold);
+    }
+    
+    public boolean isPreCopy() {
+        return preCopy;
+    }
+    
+    public int getMaxPreCopyRounds() {
+        return maxPreCopyRounds;
+    }
+    
+    public int getStopCopyThreshold() {
+        return stopCopyThreshold;
     }
     
-}
\ No newline at end of file
+}
@@ -0,0 +1,377 @@
+package io.amcp.mobility;
+
+import io.amcp.core.AgentID;
+import io.amcp.core.Event;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Migration-aware event routing for agents moving between contexts.
+ *
+ * <p>Agents without a route are delivered to locally. While an agent is in
+ * transit its events are held in a bounded per-agent buffer; events beyond the
+ * capacity fail immediately so publishers see backpressure instead of a
+ * timeout. When the migration completes, the buffer is forwarded to the
+ * destination in arrival order and a forwarding pointer replaces the route, so
+ * stale senders still reach the agent. Pointers expire after a period without
+ * use. If the migration is aborted, buffered events are replayed locally.</p>
+ *
+ * <p>Local deliveries are counted per agent until their handler completes, so
+ * a migration can wait with {@link #awaitLocalDeliveries(AgentID, long)} for
+ * handlers that started before its route was set.</p>
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+public class MigrationRouter {
+
+    public static final int DEFAULT_BUFFER_CAPACITY = 1024;
+    public static final long DEFAULT_POINTER_TTL_MS = 300000; // 5 minutes
+
+    /**
+     * Delivers an event to an agent that now lives in another context
+     */
+    @FunctionalInterface
+    public interface EventForwarder {
+        CompletableFuture<Void> forward(AgentID agentId, Event event);
+    }
+
+    private enum Status {
+        IN_TRANSIT,
+        FORWARDED,
+        CLOSED
+    }
+
+    private final ConcurrentHashMap<AgentID, Route> routes = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<AgentID, LocalDeliveries> localDeliveries = new ConcurrentHashMap<>();
+    private final int bufferCapacity;
+    private final long pointerTtlMillis;
+
+    private final AtomicLong bufferedEvents = new AtomicLong(0);
+    private final AtomicLong forwardedEvents = new AtomicLong(0);
+    private final AtomicLong rejectedEvents = new AtomicLong(0);
+
+    public MigrationRouter() {
+        this(DEFAULT_BUFFER_CAPACITY, DEFAULT_POINTER_TTL_MS);
+    }
+
+    public MigrationRouter(int bufferCapacity, long pointerTtlMillis) {
+        if (bufferCapacity <= 0) {
+            throw new IllegalArgumentException("Buffer capacity must be positive: " + bufferCapacity);
+        }
+        this.bufferCapacity = bufferCapacity;
+        this.pointerTtlMillis = pointerTtlMillis;
+    }
+
+    /**
+     * Route an event to an agent: locally, into its migration buffer, or to the
+     * context it migrated to
+     */
+    public CompletableFuture<Void> route(AgentID agentId, Event event,
+                                         Function<Event, CompletableFuture<Void>> localDelivery) {
+        // Counted before the route lookup, so a migration that sets its route
+        // after this point still waits for the delivery
+        startLocalDelivery(agentId);
+        CompletableFuture<Void> routed;
+        try {
+            routed = routeAway(agentId, event);
+        } catch (RuntimeException e) {
+            endLocalDelivery(agentId);
+            throw e;
+        }
+        if (routed != null) {
+            endLocalDelivery(agentId);
+            return routed;
+        }
+        return trackLocalDelivery(agentId, event, localDelivery);
+    }
+
+    /**
+     * Buffer or forward an event, or return null if it is for the local instance
+     */
+    private CompletableFuture<Void> routeAway(AgentID agentId, Event event) {
+        Route route = routes.get(agentId);
+        if (route == null) {
+            return null;
+        }
+
+        EventForwarder forwarder;
+        synchronized (route) {
+            if (route.status == Status.IN_TRANSIT) {
+                if (route.buffer.size() >= bufferCapacity) {
+                    rejectedEvents.incrementAndGet();
+                    return CompletableFuture.failedFuture(new RejectedExecutionException(
+                        "Migration buffer full for agent " + agentId));
+                }
+                PendingEvent pending = new PendingEvent(event);
+                route.buffer.addLast(pending);
+                bufferedEvents.incrementAndGet();
+                return pending.completion;
+            }
+
+            long now = System.currentTimeMillis();
+            if (route.status == Status.CLOSED) {
+                forwarder = null;
+            } else if (now >= route.expiresAt) {
+                routes.remove(agentId, route);
+                forwarder = null;
+            } else {
+                route.expiresAt = now + pointerTtlMillis;
+                forwarder = route.forwarder;
+            }
+        }
+
+        if (forwarder == null) {
+            return null;
+        }
+        forwardedEvents.incrementAndGet();
+        return forwarder.forward(agentId, event);
+    }
+
+    /**
+     * Wait until the local handlers of an agent that were running or about to
+     * run have completed. Call after {@link #beginMigration} so no new ones start.
+     *
+     * @return false if they are still running after the timeout
+     */
+    public boolean awaitLocalDeliveries(AgentID agentId, long timeoutMillis) throws InterruptedException {
+        LocalDeliveries deliveries = localDeliveries.get(agentId);
+        if (deliveries == null) {
+            return true;
+        }
+        try {
+            deliveries.idle.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (ExecutionException e) {
+            return true; // never completed exceptionally
+        }
+    }
+
+    public int getLocalDeliveryCount(AgentID agentId) {
+        LocalDeliveries deliveries = localDeliveries.get(agentId);
+        return deliveries != null ? deliveries.count : 0;
+    }
+
+    private CompletableFuture<Void> deliverLocally(AgentID agentId, Event event,
+                                                   Function<Event, CompletableFuture<Void>> localDelivery) {
+        startLocalDelivery(agentId);
+        return trackLocalDelivery(agentId, event, localDelivery);
+    }
+
+    private CompletableFuture<Void> trackLocalDelivery(AgentID agentId, Event event,
+                                                       Function<Event, CompletableFuture<Void>> localDelivery) {
+        CompletableFuture<Void> handled;
+        try {
+            handled = localDelivery.apply(event);
+        } catch (RuntimeException e) {
+            endLocalDelivery(agentId);
+            throw e;
+        }
+        if (handled == null) {
+            endLocalDelivery(agentId);
+            return CompletableFuture.completedFuture(null);
+        }
+        handled.whenComplete((result, error) -> endLocalDelivery(agentId));
+        return handled;
+    }
+
+    private void startLocalDelivery(AgentID agentId) {
+        localDeliveries.compute(agentId, (id, deliveries) -> {
+            LocalDeliveries counted = deliveries != null ? deliveries : new LocalDeliveries();
+            counted.count++;
+            return counted;
+        });
+    }
+
+    private void endLocalDelivery(AgentID agentId) {
+        localDeliveries.computeIfPresent(agentId, (id, deliveries) -> {
+            if (--deliveries.count > 0) {
+                return deliveries;
+            }
+            deliveries.idle.complete(null);
+            return null;
+        });
+    }
+
+    /**
+     * Start holding events for an agent that is leaving this context
+     *
+     * @throws IllegalStateException if the agent is already in transit
+     */
+    public void beginMigration(AgentID agentId, String destinationContext) {
+        purgeExpiredPointers();
+        Route fresh = new Route(destinationContext);
+        routes.compute(agentId, (id, existing) -> {
+            if (existing != null && existing.status == Status.IN_TRANSIT) {
+                throw new IllegalStateException("Agent " + agentId + " is already migrating");
+            }
+            return fresh;
+        });
+    }
+
+    /**
+     * Forward buffered events to the destination in order and leave a
+     * forwarding pointer for later senders
+     */
+    public void completeMigration(AgentID agentId, EventForwarder destination) {
+        Route route = routes.get(agentId);
+        if (route == null) {
+            return;
+        }
+        synchronized (route) {
+            if (route.status != Status.IN_TRANSIT) {
+                return;
+            }
+            // Forward while holding the lock so new events queue behind the buffer
+            PendingEvent pending;
+            while ((pending = route.buffer.pollFirst()) != null) {
+                forwardedEvents.incrementAndGet();
+                propagate(destination.forward(agentId, pending.event), pending.completion);
+            }
+            route.status = Status.FORWARDED;
+            route.forwarder = destination;
+            route.expiresAt = System.currentTimeMillis() + pointerTtlMillis;
+        }
+    }
+
+    /**
+     * Cancel an in-flight migration and replay buffered events locally
+     */
+    public void abortMigration(AgentID agentId, Function<Event, CompletableFuture<Void>> localDelivery) {
+        Route route = routes.get(agentId);
+        if (route == null) {
+            return;
+        }
+        synchronized (route) {
+            if (route.status != Status.IN_TRANSIT) {
+                return;
+            }
+            PendingEvent pending;
+            while ((pending = route.buffer.pollFirst()) != null) {
+                propagate(deliverLocally(agentId, pending.event, localDelivery), pending.completion);
+            }
+            // Callers that already looked up this route deliver locally from now on
+            route.status = Status.CLOSED;
+            routes.remove(agentId, route);
+        }
+    }
+
+    /**
+     * Drop any route for an agent, e.g. when it migrates back to this context
+     */
+    public void clearRoute(AgentID agentId) {
+        routes.remove(agentId);
+    }
+
+    public boolean isInTransit(AgentID agentId) {
+        Route route = routes.get(agentId);
+        return route != null && route.status == Status.IN_TRANSIT;
+    }
+
+    /**
+     * Gets the context an agent was forwarded to, or null if there is no live pointer
+     */
+    public String getForwardingTarget(AgentID agentId) {
+        Route route = routes.get(agentId);
+        if (route == null || route.status != Status.FORWARDED
+                || System.currentTimeMillis() >= route.expiresAt) {
+            return null;
+        }
+        return route.destinationContext;
+    }
+
+    public int getBufferedCount(AgentID agentId) {
+        Route route = routes.get(agentId);
+        if (route == null) {
+            return 0;
+        }
+        synchronized (route) {
+            return route.buffer.size();
+        }
+    }
+
+    public RouterStatistics getStatistics() {
+        return new RouterStatistics(routes.size(), bufferedEvents.get(), forwardedEvents.get(),
+                                    rejectedEvents.get());
+    }
+
+    private void purgeExpiredPointers() {
+        long now = System.currentTimeMillis();
+        routes.values().removeIf(route -> route.status == Status.FORWARDED && now >= route.expiresAt);
+    }
+
+    private static void propagate(CompletableFuture<Void> source, CompletableFuture<Void> target) {
+        source.whenComplete((result, error) -> {
+            if (error != null) {
+                target.completeExceptionally(error);
+            } else {
+                target.complete(null);
+            }
+        });
+    }
+
+    private static final class Route {
+        final String destinationContext;
+        final ArrayDeque<PendingEvent> buffer = new ArrayDeque<>();
+        volatile Status status = Status.IN_TRANSIT;
+        EventForwarder forwarder;
+        volatile long expiresAt = Long.MAX_VALUE;
+
+        Route(String destinationContext) {
+            this.destinationContext = destinationContext;
+        }
+    }
+
+    private static final class LocalDeliveries {
+        // Only changed inside compute on the map, which serializes updates per agent
+        volatile int count;
+        final CompletableFuture<Void> idle = new CompletableFuture<>();
+    }
+
+    private static final class PendingEvent {
+        final Event event;
+        final CompletableFuture<Void> completion = new CompletableFuture<>();
+
+        PendingEvent(Event event) {
+            this.event = event;
+        }
+    }
+
+    /**
+     * Router counters
+     */
+    public static class RouterStatistics {
+        private final int activeRoutes;
+        private final long bufferedEvents;
+        private final long forwardedEvents;
+        private final long rejectedEvents;
+
+        public RouterStatistics(int activeRoutes, long bufferedEvents, long forwardedEvents, long rejectedEvents) {
+            this.activeRoutes = activeRoutes;
+            this.bufferedEvents = bufferedEvents;
+            this.forwardedEvents = forwardedEvents;
+            this.rejectedEvents = rejectedEvents;
+        }
+
+        public int getActiveRoutes() { return activeRoutes; }
+        public long getBufferedEvents() { return bufferedEvents; }
+        public long getForwardedEvents() { return forwardedEvents; }
+        public long getRejectedEvents() { return rejectedEvents; }
+
+        @Override
+        public String toString() {
+            return String.format("RouterStatistics{routes=%d, buffered=%d, forwarded=%d, rejected=%d}",
+                               activeRoutes, bufferedEvents, forwardedEvents, rejectedEvents);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package io.amcp.mobility;
+
+import io.amcp.core.AgentID;
+import io.amcp.core.Event;
+import io.amcp.mobility.atp.ATPManager;
+import io.amcp.mobility.snapshot.DirtyTrackingState;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Connects pre-copy live migration to a {@link MigrationRouter}: suspending
+ * the agent starts buffering its events, committing forwards them to the
+ * destination and leaves a forwarding pointer, and resuming replays them
+ * locally.
+ *
+ * <p>The router stops new deliveries on suspension, and {@link #suspend()}
+ * then waits for handlers already running, so their state changes are in the
+ * final round. If they do not finish in time the migration is aborted.</p>
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+public class RoutedLiveMigrationSource implements ATPManager.LiveMigrationSource {
+
+    public static final long DEFAULT_DRAIN_TIMEOUT_MS = 10000;
+
+    private final AgentID agentId;
+    private final String agentType;
+    private final DirtyTrackingState state;
+    private final MigrationRouter router;
+    private final String destinationContext;
+    private final MigrationRouter.EventForwarder forwarder;
+    private final Function<Event, CompletableFuture<Void>> localDelivery;
+    private final long drainTimeoutMillis;
+
+    public RoutedLiveMigrationSource(AgentID agentId, String agentType, DirtyTrackingState state,
+                                     MigrationRouter router, String destinationContext,
+                                     MigrationRouter.EventForwarder forwarder,
+                                     Function<Event, CompletableFuture<Void>> localDelivery) {
+        this(agentId, agentType, state, router, destinationContext, forwarder, localDelivery,
+             DEFAULT_DRAIN_TIMEOUT_MS);
+    }
+
+    public RoutedLiveMigrationSource(AgentID agentId, String agentType, DirtyTrackingState state,
+                                     MigrationRouter router, String destinationContext,
+                                     MigrationRouter.EventForwarder forwarder,
+                                     Function<Event, CompletableFuture<Void>> localDelivery,
+                                     long drainTimeoutMillis) {
+        this.agentId = agentId;
+        this.agentType = agentType;
+        this.state = state;
+        this.router = router;
+        this.destinationContext = destinationContext;
+        this.forwarder = forwarder;
+        this.localDelivery = localDelivery;
+        this.drainTimeoutMillis = drainTimeoutMillis;
+    }
+
+    @Override
+    public AgentID getAgentId() {
+        return agentId;
+    }
+
+    @Override
+    public String getAgentType() {
+        return agentType;
+    }
+
+    @Override
+    public DirtyTrackingState getState() {
+        return state;
+    }
+
+    @Override
+    public void suspend() {
+        router.beginMigration(agentId, destinationContext);
+        boolean drained;
+        try {
+            drained = router.awaitLocalDeliveries(agentId, drainTimeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            drained = false;
+        }
+        if (!drained) {
+            router.abortMigration(agentId, localDelivery);
+            throw new IllegalStateException("Handlers of agent " + agentId + " still running after "
+                + drainTimeoutMillis + "ms");
+        }
+    }
+
+    @Override
+    public void commit(String targetHost) {
+        router.completeMigration(agentId, forwarder);
+    }
+
+    @Override
+    public void resume() {
+        router.abortMigration(agentId, localDelivery);
+    }
+}
@@ -1,111 +1,142 @@
 package io.amcp.mobility.atp;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Serializable;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * AMCP v1.4 ATP Connection.
  * Represents a connection between two AMCP hosts using the Agent Transfer Protocol.
+ *
+ * <p>Messages are written to a multiplexed {@link ATPTransport.Channel}; each
+ * call to {@link #sendMessage(ATPMessage)} uses a fresh stream so concurrent
+ * migrations interleave on the same socket. Incoming messages are routed by the
+ * transport listener to {@link #handleIncomingMessage(ATPMessage)}.</p>
  */
 public class ATPConnection {
-    
+
+    private static final String PROTOCOL_VERSION = "AMCP-ATP/1.4";
+    private static final long CONNECT_TIMEOUT_MS = 10000;
+
     private final String connectionId;
     private final String localHostId;
     private final String remoteHost;
     private final int remotePort;
     private final ATPSecurityManager securityManager;
-    
+    private final ATPTransport transport;
+
     private final AtomicBoolean connected = new AtomicBoolean(false);
     private final AtomicBoolean healthy = new AtomicBoolean(false);
     private final AtomicLong messagesSent = new AtomicLong(0);
     private final AtomicLong messagesReceived = new AtomicLong(0);
-    
-    private final BlockingQueue<ATPMessage> outgoingMessages = new LinkedBlockingQueue<>();
-    private final BlockingQueue<ATPMessage> incomingMessages = new LinkedBlockingQueue<>();
-    
+
+    private volatile ATPTransport.Channel channel;
+    private volatile CompletableFuture<ATPMessage> handshakeResponse;
+    private volatile String remoteHostId;
     private volatile long connectionTime;
     private volatile long lastHeartbeat;
     private String authenticationToken;
-    
-    public ATPConnection(String connectionId, String localHostId, String remoteHost, 
-                        int remotePort, ATPSecurityManager securityManager) {
+
+    public ATPConnection(String connectionId, String localHostId, String remoteHost,
+                        int remotePort, ATPSecurityManager securityManager, ATPTransport transport) {
         this.connectionId = connectionId;
         this.localHostId = localHostId;
         this.remoteHost = remoteHost;
         this.remotePort = remotePort;
         this.securityManager = securityManager;
+        this.transport = transport;
     }
-    
+
     /**
      * Establish connection to remote host
      */
     public boolean connect() {
         try {
-            // Simulate connection establishment
-            Thread.sleep(100); // Simulate network delay
-            
+            ATPTransport.Channel opened = transport.connect(remoteHost, remotePort)
+                .get(CONNECT_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            opened.setAttachment(this);
+            this.channel = opened;
+
             // Perform handshake
             boolean handshakeSuccess = performHandshake();
             if (!handshakeSuccess) {
+                opened.close();
                 return false;
             }
-            
+
             this.connectionTime = System.currentTimeMillis();
             this.lastHeartbeat = System.currentTimeMillis();
             this.connected.set(true);
             this.healthy.set(true);
-            
-            // Start message processing threads
-            startMessageProcessing();
-            
+
             return true;
-            
+
         } catch (Exception e) {
+            ATPTransport.Channel opened = channel;
+            if (opened != null) {
+                opened.close();
+            }
             return false;
         }
     }
-    
+
     /**
-     * Send ATP message to remote host
+     * Send ATP message to remote host on a new stream
      */
     public boolean sendMessage(ATPMessage message) {
+        ATPTransport.Channel current = channel;
+        return current != null && sendMessage(current.openStream(), message);
+    }
+
+    /**
+     * Send ATP message to remote host on the given stream
+     */
+    public boolean sendMessage(int streamId, ATPMessage message) {
         if (!isHealthy()) {
             return false;
         }
-        
+
         try {
             // Add authentication token if available
             if (authenticationToken != null) {
                 message.setHeader("auth_token", authenticationToken);
             }
-            
-            // Add to outgoing queue
-            boolean queued = outgoingMessages.offer(message);
-            if (queued) {
-                messagesSent.incrementAndGet();
-            }
-            return queued;
-            
-        } catch (Exception e) {
+
+            channel.send(streamId, message.toBytes());
+            messagesSent.incrementAndGet();
+            return true;
+
+        } catch (IOException e) {
             return false;
         }
     }
-    
+
     /**
-     * Receive ATP message from remote host
+     * Allocate a new stream on this connection's channel
      */
-    public ATPMessage receiveMessage(int timeoutMs) {
-        try {
-            return incomingMessages.poll(timeoutMs, java.util.concurrent.TimeUnit.MILLISECONDS);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            return null;
+    public int openStream() {
+        ATPTransport.Channel current = channel;
+        if (current == null) {
+            throw new IllegalStateException("Connection " + connectionId + " is not established");
+        }
+        return current.openStream();
+    }
+
+    /**
+     * Open an output stream that writes one message incrementally to the given stream
+     */
+    public OutputStream openOutputStream(int streamId) throws IOException {
+        if (!isHealthy()) {
+            throw new IOException("Connection " + connectionId + " is not healthy");
         }
+        messagesSent.incrementAndGet();
+        return channel.openOutputStream(streamId);
     }
-    
+
     /**
      * Send heartbeat to remote host
      */
@@ -117,23 +148,22 @@ public class ATPConnection {
             "heartbeat_" + System.currentTimeMillis(),
             null
         );
-        
-        boolean sent = sendMessage(heartbeat);
+
+        boolean sent = sendMessage(ATPTransport.CONTROL_STREAM, heartbeat);
         if (sent) {
             this.lastHeartbeat = System.currentTimeMillis();
         }
         return sent;
     }
-    
+
     /**
      * Close connection
      */
     public void close() {
-        this.connected.set(false);
-        this.healthy.set(false);
-        
+        ATPTransport.Channel current = channel;
+
         // Send close message
-        if (isConnected()) {
+        if (isConnected() && current != null && current.isOpen()) {
             ATPMessage closeMsg = new ATPMessage(
                 ATPMessage.MessageType.CLOSE_CONNECTION,
                 localHostId,
@@ -141,46 +171,69 @@ public class ATPConnection {
                 "close_" + System.currentTimeMillis(),
                 null
             );
-            outgoingMessages.offer(closeMsg);
+            try {
+                current.send(ATPTransport.CONTROL_STREAM, closeMsg.toBytes())
+                    .whenComplete((v, error) -> current.close());
+            } catch (IOException e) {
+                current.close();
+            }
         }
-        
-        // Clear queues
-        outgoingMessages.clear();
-        incomingMessages.clear();
+
+        this.connected.set(false);
+        this.healthy.set(false);
     }
-    
+
     /**
      * Check if connection is established
      */
     public boolean isConnected() {
         return connected.get();
     }
-    
+
     /**
      * Check if connection is healthy
      */
     public boolean isHealthy() {
         if (!isConnected()) return false;
-        
+
+        ATPTransport.Channel current = channel;
+        if (current == null || !current.isOpen()) {
+            healthy.set(false);
+            return false;
+        }
+
         // Check heartbeat age (5 minutes max)
         long heartbeatAge = System.currentTimeMillis() - lastHeartbeat;
         if (heartbeatAge > 300000) { // 5 minutes
             healthy.set(false);
             return false;
         }
-        
+
         return healthy.get();
     }
-    
+
     private boolean performHandshake() {
         try {
+            // Authenticate the remote host before exposing our credentials
+            if (securityManager != null) {
+                ATPSecurityManager.AuthenticationResult authResult =
+                    securityManager.authenticateHost(remoteHost, "default_credentials").get();
+
+                if (authResult.isSuccess()) {
+                    this.authenticationToken = authResult.getToken();
+                } else {
+                    return false;
+                }
+            }
+
             // Create handshake request
             HandshakeRequest handshakeRequest = new HandshakeRequest(
                 localHostId,
-                "AMCP-ATP/1.4",
+                PROTOCOL_VERSION,
+                "default_credentials",
                 System.currentTimeMillis()
             );
-            
+
             ATPMessage handshakeMsg = new ATPMessage(
                 ATPMessage.MessageType.HANDSHAKE_REQUEST,
                 localHostId,
@@ -188,97 +241,49 @@ public class ATPConnection {
                 "handshake_" + System.currentTimeMillis(),
                 handshakeRequest
             );
-            
-            // Simulate sending handshake
-            Thread.sleep(50); // Simulate network delay
-            
-            // Simulate receiving handshake response
-            HandshakeResponse response = new HandshakeResponse(
-                remoteHost,
-                "AMCP-ATP/1.4",
-                true,
-                "Handshake successful",
-                System.currentTimeMillis()
-            );
-            
-            // Simulate authentication
-            if (securityManager != null) {
-                ATPSecurityManager.AuthenticationResult authResult = 
-                    securityManager.authenticateHost(remoteHost, "default_credentials").get();
-                
-                if (authResult.isSuccess()) {
-                    this.authenticationToken = authResult.getToken();
-                } else {
-                    return false;
-                }
+
+            CompletableFuture<ATPMessage> response = new CompletableFuture<>();
+            this.handshakeResponse = response;
+            channel.send(ATPTransport.CONTROL_STREAM, handshakeMsg.toBytes());
+
+            ATPMessage reply = response.get(CONNECT_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            ATPMessageHandler.HandshakeResponse accepted = reply.getPayload(ATPMessageHandler.HandshakeResponse.class);
+            if (accepted == null || !accepted.isSuccess()) {
+                return false;
             }
-            
-            return response.isSuccess();
-            
+
+            this.remoteHostId = reply.getSourceHost();
+            return true;
+
         } catch (Exception e) {
             return false;
+        } finally {
+            this.handshakeResponse = null;
         }
     }
-    
-    private void startMessageProcessing() {
-        // Start outgoing message processor
-        CompletableFuture.runAsync(() -> {
-            while (isConnected()) {
-                try {
-                    ATPMessage message = outgoingMessages.take();
-                    processOutgoingMessage(message);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    break;
-                } catch (Exception e) {
-                    // Log error and continue
-                }
-            }
-        });
-        
-        // Start incoming message processor
-        CompletableFuture.runAsync(() -> {
-            while (isConnected()) {
-                try {
-                    // Simulate receiving messages
-                    Thread.sleep(1000); // Check every second
-                    
-                    // In a real implementation, this would read from network socket
-                    // For now, we'll just maintain the connection
-                    
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    break;
-                } catch (Exception e) {
-                    // Log error and continue
-                }
-            }
-        });
-    }
-    
-    private void processOutgoingMessage(ATPMessage message) {
-        try {
-            // Simulate message transmission
-            Thread.sleep(10); // Network delay
-            
-            // In a real implementation, this would serialize and send the message
-            // For now, we'll just track that it was processed
-            
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-    }
-    
-    // Package-private method for message handler
-    void handleIncomingMessage(ATPMessage message) {
-        incomingMessages.offer(message);
+
+    /**
+     * Handle a message received on this connection's channel.
+     *
+     * @return true if the message was consumed by the connection itself
+     */
+    boolean handleIncomingMessage(ATPMessage message) {
         messagesReceived.incrementAndGet();
+        this.lastHeartbeat = System.currentTimeMillis();
+
+        CompletableFuture<ATPMessage> pendingHandshake = handshakeResponse;
+        if (pendingHandshake != null && message.getType() == ATPMessage.MessageType.HANDSHAKE_RESPONSE) {
+            pendingHandshake.complete(message);
+            return true;
+        }
+        return false;
     }
-    
+
     // Getters
     public String getConnectionId() { return connectionId; }
     public String getLocalHostId() { return localHostId; }
     public String getRemoteHost() { return remoteHost; }
+    public String getRemoteHostId() { return remoteHostId; }
     public int getRemotePort() { return remotePort; }
     public String getTargetUrl() { return remoteHost + ":" + remotePort; }
     public long getConnectionTime() { return connectionTime; }
@@ -286,45 +291,28 @@ public class ATPConnection {
     public long getMessagesSent() { return messagesSent.get(); }
     public long getMessagesReceived() { return messagesReceived.get(); }
     public String getAuthenticationToken() { return authenticationToken; }
-    
+    public ATPTransport.Channel getChannel() { return channel; }
+
     // Inner classes
-    
-    private static class HandshakeRequest {
-        private final String hostId;
-        private final String protocolVersion;
-        private final long timestamp;
-        
-        public HandshakeRequest(String hostId, String protocolVersion, long timestamp) {
-            this.hostId = hostId;
-            this.protocolVersion = protocolVersion;
-            this.timestamp = timestamp;
-        }
-        
-        public String getHostId() { return hostId; }
-        public String getProtocolVersion() { return protocolVersion; }
-        public long getTimestamp() { return timestamp; }
-    }
-    
-    private static class HandshakeResponse {
+
+    static class HandshakeRequest implements Serializable {
+        private static final long serialVersionUID = 1L;
+
         private final String hostId;
         private final String protocolVersion;
-        private final boolean success;
-        private final String message;
+        private final String credentials;
         private final long timestamp;
-        
-        public HandshakeResponse(String hostId, String protocolVersion, boolean success, 
-                               String message, long timestamp) {
+
+        public HandshakeRequest(String hostId, String protocolVersion, String credentials, long timestamp) {
             this.hostId = hostId;
             this.protocolVersion = protocolVersion;
-            this.success = success;
-            this.message = message;
+            this.credentials = credentials;
             this.timestamp = timestamp;
         }
-        
+
         public String getHostId() { return hostId; }
         public String getProtocolVersion() { return protocolVersion; }
-        public boolean isSuccess() { return success; }
-        public String getMessage() { return message; }
+        public String getCredentials() { return credentials; }
         public long getTimestamp() { return timestamp; }
     }
-}
\ No newline at end of file
+}
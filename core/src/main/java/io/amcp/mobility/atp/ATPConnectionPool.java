@@ -0,0 +1,641 @@
+package io.amcp.mobility.atp;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool of outbound ATP connections, keyed by peer address.
+ *
+ * <p>Callers {@link #acquire lease} a connection for the duration of one
+ * logical stream. A lease goes to the least-loaded healthy connection of the
+ * peer with fewer than {@link Config#getMaxStreamsPerConnection()} leases;
+ * when all are full a new connection is opened, up to
+ * {@link Config#getMaxConnectionsPerPeer()}, and beyond that callers wait
+ * until a lease is returned or the acquire timeout expires. Concurrent
+ * acquires for a new peer share one connection attempt, so a burst of
+ * migrations pays for one handshake rather than one each.</p>
+ *
+ * <p>A periodic maintenance pass sends heartbeats on idle connections, evicts
+ * connections that are unhealthy or idle past the idle timeout, and keeps the
+ * configured minimum of connections open to peers registered through
+ * {@link #warmUp}.</p>
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+public class ATPConnectionPool implements AutoCloseable {
+
+    /**
+     * Opens and handshakes a connection to a peer; may block
+     */
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        ATPConnection connect(String host, int port) throws IOException;
+    }
+
+    private final Config config;
+    private final ConnectionFactory factory;
+    private final ScheduledExecutorService timer;
+    private final ExecutorService connector;
+    private final Map<String, Peer> peers = new ConcurrentHashMap<>();
+    private final ScheduledFuture<?> maintenance;
+    private volatile boolean closed;
+
+    private final AtomicLong leasesGranted = new AtomicLong(0);
+    private final AtomicLong connectionsCreated = new AtomicLong(0);
+    private final AtomicLong connectFailures = new AtomicLong(0);
+    private final AtomicLong connectNanos = new AtomicLong(0);
+    private final AtomicLong idleEvictions = new AtomicLong(0);
+    private final AtomicLong unhealthyEvictions = new AtomicLong(0);
+    private final AtomicLong waits = new AtomicLong(0);
+    private final AtomicLong acquireTimeouts = new AtomicLong(0);
+
+    /**
+     * @param timer schedules acquire timeouts and maintenance; not owned by the pool
+     */
+    public ATPConnectionPool(Config config, ConnectionFactory factory, ScheduledExecutorService timer) {
+        this.config = config;
+        this.factory = factory;
+        this.timer = timer;
+        AtomicInteger threadCount = new AtomicInteger(0);
+        this.connector = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "atp-connect-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.maintenance = timer.scheduleWithFixedDelay(this::maintain, config.getHealthCheckIntervalMillis(),
+            config.getHealthCheckIntervalMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Lease a connection to the peer. The lease must be closed once the stream
+     * it was taken for is complete.
+     */
+    public CompletableFuture<Lease> acquire(String host, int port) {
+        if (closed) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Connection pool closed"));
+        }
+        Waiter waiter = new Waiter();
+        Peer candidate;
+        List<Grant> grants;
+        int connects;
+        while (true) {
+            candidate = peers.computeIfAbsent(key(host, port), key -> new Peer(host, port));
+            synchronized (candidate) {
+                // Maintenance may have retired the peer between the lookup and the lock
+                if (candidate.retired) {
+                    continue;
+                }
+                candidate.waiters.addLast(waiter);
+                grants = dispatch(candidate);
+                connects = reserveConnects(candidate);
+                boolean granted = grants.stream().anyMatch(grant -> grant.waiter == waiter);
+                if (!granted && connects == 0
+                        && candidate.connections.size() + candidate.connecting >= config.getMaxConnectionsPerPeer()) {
+                    waits.incrementAndGet();
+                }
+            }
+            break;
+        }
+        Peer peer = candidate;
+        complete(grants);
+        startConnects(peer, connects);
+
+        if (!waiter.future.isDone()) {
+            ScheduledFuture<?> timeout = timer.schedule(() -> {
+                boolean queued;
+                synchronized (peer) {
+                    queued = peer.waiters.remove(waiter);
+                }
+                if (queued) {
+                    acquireTimeouts.incrementAndGet();
+                    waiter.future.completeExceptionally(new TimeoutException(
+                        "No ATP connection to " + peer.key + " within " + config.getAcquireTimeoutMillis() + "ms"));
+                }
+            }, config.getAcquireTimeoutMillis(), TimeUnit.MILLISECONDS);
+            waiter.future.whenComplete((lease, error) -> timeout.cancel(false));
+        }
+        return waiter.future;
+    }
+
+    /**
+     * Mark the peer as known and open its minimum number of idle connections
+     * ahead of use
+     *
+     * @return future that completes once the connections are open
+     */
+    public CompletableFuture<Void> warmUp(String host, int port) {
+        if (closed) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Connection pool closed"));
+        }
+        Peer peer;
+        int connects;
+        while (true) {
+            peer = peers.computeIfAbsent(key(host, port), key -> new Peer(host, port));
+            synchronized (peer) {
+                if (peer.retired) {
+                    continue;
+                }
+                peer.known = true;
+                connects = Math.max(0, config.getMinIdlePerKnownPeer() - peer.connections.size() - peer.connecting);
+                peer.connecting += connects;
+            }
+            break;
+        }
+        return startConnects(peer, connects);
+    }
+
+    /**
+     * Drop a connection whose channel has closed
+     */
+    public void remove(ATPConnection connection) {
+        Peer peer = peers.get(key(connection.getRemoteHost(), connection.getRemotePort()));
+        if (peer == null) {
+            return;
+        }
+        int connects;
+        synchronized (peer) {
+            if (!peer.connections.removeIf(pooled -> pooled.connection == connection)) {
+                return;
+            }
+            unhealthyEvictions.incrementAndGet();
+            connects = reserveConnects(peer);
+        }
+        startConnects(peer, connects);
+    }
+
+    public PoolStatistics getStatistics() {
+        int open = 0;
+        int leased = 0;
+        int waiting = 0;
+        for (Peer peer : peers.values()) {
+            synchronized (peer) {
+                open += peer.connections.size();
+                waiting += peer.waiters.size();
+                for (PooledConnection pooled : peer.connections) {
+                    leased += pooled.leases;
+                }
+            }
+        }
+        long created = connectionsCreated.get();
+        return new PoolStatistics(peers.size(), open, leased, waiting, leasesGranted.get(), created,
+                                  connectFailures.get(), created == 0 ? 0.0 : connectNanos.get() / 1_000_000.0 / created,
+                                  idleEvictions.get(), unhealthyEvictions.get(), waits.get(), acquireTimeouts.get());
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        maintenance.cancel(false);
+        for (Peer peer : peers.values()) {
+            List<PooledConnection> connections;
+            List<Waiter> waiters;
+            synchronized (peer) {
+                connections = new ArrayList<>(peer.connections);
+                waiters = new ArrayList<>(peer.waiters);
+                peer.connections.clear();
+                peer.waiters.clear();
+            }
+            for (PooledConnection pooled : connections) {
+                pooled.connection.close();
+            }
+            for (Waiter waiter : waiters) {
+                waiter.future.completeExceptionally(new IllegalStateException("Connection pool closed"));
+            }
+        }
+        peers.clear();
+        connector.shutdownNow();
+    }
+
+    // Called with the peer locked
+
+    /**
+     * Hand out leases to waiters while connections have free stream slots
+     */
+    private List<Grant> dispatch(Peer peer) {
+        List<Grant> grants = new ArrayList<>();
+        while (!peer.waiters.isEmpty()) {
+            PooledConnection pooled = leastLoaded(peer);
+            if (pooled == null) {
+                break;
+            }
+            Waiter waiter = peer.waiters.pollFirst();
+            if (waiter.future.isDone()) {
+                continue;
+            }
+            pooled.leases++;
+            grants.add(new Grant(waiter, new Lease(peer, pooled)));
+        }
+        return grants;
+    }
+
+    private PooledConnection leastLoaded(Peer peer) {
+        PooledConnection best = null;
+        Iterator<PooledConnection> it = peer.connections.iterator();
+        while (it.hasNext()) {
+            PooledConnection pooled = it.next();
+            if (!pooled.connection.isHealthy()) {
+                it.remove();
+                unhealthyEvictions.incrementAndGet();
+                pooled.connection.close();
+                continue;
+            }
+            if (pooled.leases < config.getMaxStreamsPerConnection()
+                    && (best == null || pooled.leases < best.leases)) {
+                best = pooled;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Reserve new connections for waiters that the open and connecting
+     * connections cannot serve
+     */
+    private int reserveConnects(Peer peer) {
+        int pendingCapacity = peer.connecting * config.getMaxStreamsPerConnection();
+        int needed = (int) Math.ceil((double) (peer.waiters.size() - pendingCapacity)
+                                     / config.getMaxStreamsPerConnection());
+        int available = config.getMaxConnectionsPerPeer() - peer.connections.size() - peer.connecting;
+        int connects = Math.max(0, Math.min(needed, available));
+        peer.connecting += connects;
+        return connects;
+    }
+
+    // Called without locks
+
+    private CompletableFuture<Void> startConnects(Peer peer, int count) {
+        List<CompletableFuture<Void>> connects = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            connects.add(CompletableFuture.runAsync(() -> connect(peer), connector));
+        }
+        return CompletableFuture.allOf(connects.toArray(new CompletableFuture[0]));
+    }
+
+    private void connect(Peer peer) {
+        long start = System.nanoTime();
+        ATPConnection connection;
+        try {
+            connection = factory.connect(peer.host, peer.port);
+        } catch (IOException | RuntimeException e) {
+            connectFailures.incrementAndGet();
+            List<Waiter> failed = new ArrayList<>();
+            synchronized (peer) {
+                peer.connecting--;
+                // Nothing left that could serve the waiters
+                if (peer.connections.isEmpty() && peer.connecting == 0) {
+                    failed.addAll(peer.waiters);
+                    peer.waiters.clear();
+                }
+            }
+            for (Waiter waiter : failed) {
+                waiter.future.completeExceptionally(e);
+            }
+            throw new CompletionException(e);
+        }
+        connectNanos.addAndGet(System.nanoTime() - start);
+        connectionsCreated.incrementAndGet();
+
+        List<Grant> grants;
+        synchronized (peer) {
+            peer.connecting--;
+            if (closed) {
+                grants = List.of();
+            } else {
+                peer.connections.add(new PooledConnection(connection));
+                grants = dispatch(peer);
+            }
+        }
+        if (closed) {
+            connection.close();
+            return;
+        }
+        complete(grants);
+    }
+
+    private void release(Peer peer, PooledConnection pooled) {
+        List<Grant> grants;
+        synchronized (peer) {
+            pooled.leases--;
+            pooled.lastUsed = System.currentTimeMillis();
+            grants = dispatch(peer);
+        }
+        complete(grants);
+    }
+
+    private void complete(List<Grant> grants) {
+        for (Grant grant : grants) {
+            leasesGranted.incrementAndGet();
+            if (!grant.waiter.future.complete(grant.lease)) {
+                // The waiter timed out meanwhile
+                grant.lease.close();
+            }
+        }
+    }
+
+    private void maintain() {
+        long now = System.currentTimeMillis();
+        for (Peer peer : peers.values()) {
+            List<ATPConnection> evicted = new ArrayList<>();
+            List<ATPConnection> idle = new ArrayList<>();
+            int connects;
+            synchronized (peer) {
+                Iterator<PooledConnection> it = peer.connections.iterator();
+                while (it.hasNext()) {
+                    PooledConnection pooled = it.next();
+                    if (!pooled.connection.isHealthy()) {
+                        it.remove();
+                        unhealthyEvictions.incrementAndGet();
+                        evicted.add(pooled.connection);
+                    } else if (pooled.leases == 0) {
+                        boolean keep = peer.known && peer.connections.size() <= config.getMinIdlePerKnownPeer();
+                        if (!keep && now - pooled.lastUsed >= config.getIdleTimeoutMillis()) {
+                            it.remove();
+                            idleEvictions.incrementAndGet();
+                            evicted.add(pooled.connection);
+                        } else {
+                            idle.add(pooled.connection);
+                        }
+                    }
+                }
+                connects = reserveConnects(peer);
+                if (peer.known) {
+                    int missing = config.getMinIdlePerKnownPeer() - peer.connections.size() - peer.connecting;
+                    if (missing > 0) {
+                        peer.connecting += missing;
+                        connects += missing;
+                    }
+                } else if (peer.connections.isEmpty() && peer.waiters.isEmpty() && peer.connecting == 0) {
+                    // Retired under the lock acquire takes, so no waiter can join it afterwards
+                    peer.retired = true;
+                    peers.remove(peer.key, peer);
+                }
+            }
+            for (ATPConnection connection : evicted) {
+                connection.close();
+            }
+            // Heartbeats keep idle connections verified; a failed send means the channel is gone
+            for (ATPConnection connection : idle) {
+                if (!connection.sendHeartbeat()) {
+                    remove(connection);
+                    connection.close();
+                }
+            }
+            startConnects(peer, connects);
+        }
+    }
+
+    private static String key(String host, int port) {
+        return host + ":" + port;
+    }
+
+    private static final class Peer {
+        final String host;
+        final int port;
+        final String key;
+        final List<PooledConnection> connections = new ArrayList<>();
+        final ArrayDeque<Waiter> waiters = new ArrayDeque<>();
+        int connecting;
+        boolean known;
+        boolean retired; // removed from the pool map; callers must look the peer up again
+
+        Peer(String host, int port) {
+            this.host = host;
+            this.port = port;
+            this.key = key(host, port);
+        }
+    }
+
+    private static final class PooledConnection {
+        final ATPConnection connection;
+        int leases;
+        long lastUsed = System.currentTimeMillis();
+
+        PooledConnection(ATPConnection connection) {
+            this.connection = connection;
+        }
+    }
+
+    private static final class Waiter {
+        final CompletableFuture<Lease> future = new CompletableFuture<>();
+    }
+
+    private static final class Grant {
+        final Waiter waiter;
+        final Lease lease;
+
+        Grant(Waiter waiter, Lease lease) {
+            this.waiter = waiter;
+            this.lease = lease;
+        }
+    }
+
+    /**
+     * A connection borrowed from the pool; closing the lease returns it
+     */
+    public final class Lease implements AutoCloseable {
+        private final Peer peer;
+        private final PooledConnection pooled;
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        private Lease(Peer peer, PooledConnection pooled) {
+            this.peer = peer;
+            this.pooled = pooled;
+        }
+
+        public ATPConnection getConnection() {
+            return pooled.connection;
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                release(peer, pooled);
+            }
+        }
+    }
+
+    /**
+     * Pool limits and timings
+     */
+    public static final class Config {
+        private final int maxConnectionsPerPeer;
+        private final int maxStreamsPerConnection;
+        private final int minIdlePerKnownPeer;
+        private final long idleTimeoutMillis;
+        private final long healthCheckIntervalMillis;
+        private final long acquireTimeoutMillis;
+
+        private Config(Builder builder) {
+            this.maxConnectionsPerPeer = builder.maxConnectionsPerPeer;
+            this.maxStreamsPerConnection = builder.maxStreamsPerConnection;
+            this.minIdlePerKnownPeer = builder.minIdlePerKnownPeer;
+            this.idleTimeoutMillis = builder.idleTimeoutMillis;
+            this.healthCheckIntervalMillis = builder.healthCheckIntervalMillis;
+            this.acquireTimeoutMillis = builder.acquireTimeoutMillis;
+        }
+
+        public static Config defaults() {
+            return builder().build();
+        }
+
+        public static Builder builder() {
+            return new Builder();
+        }
+
+        public int getMaxConnectionsPerPeer() { return maxConnectionsPerPeer; }
+        public int getMaxStreamsPerConnection() { return maxStreamsPerConnection; }
+        public int getMinIdlePerKnownPeer() { return minIdlePerKnownPeer; }
+        public long getIdleTimeoutMillis() { return idleTimeoutMillis; }
+        public long getHealthCheckIntervalMillis() { return healthCheckIntervalMillis; }
+        public long getAcquireTimeoutMillis() { return acquireTimeoutMillis; }
+
+        /**
+         * Builder for pool configurations
+         */
+        public static final class Builder {
+            private int maxConnectionsPerPeer = 4;
+            private int maxStreamsPerConnection = 32;
+            private int minIdlePerKnownPeer = 1;
+            private long idleTimeoutMillis = 120000;
+            private long healthCheckIntervalMillis = 30000;
+            private long acquireTimeoutMillis = 10000;
+
+            private Builder() {
+            }
+
+            public Builder maxConnectionsPerPeer(int max) {
+                if (max <= 0) {
+                    throw new IllegalArgumentException("Max connections per peer must be positive: " + max);
+                }
+                this.maxConnectionsPerPeer = max;
+                return this;
+            }
+
+            /**
+             * Concurrent leases, and thus concurrent streams, per connection
+             */
+            public Builder maxStreamsPerConnection(int max) {
+                if (max <= 0) {
+                    throw new IllegalArgumentException("Max streams per connection must be positive: " + max);
+                }
+                this.maxStreamsPerConnection = max;
+                return this;
+            }
+
+            /**
+             * Connections kept open to peers registered with {@link ATPConnectionPool#warmUp}
+             */
+            public Builder minIdlePerKnownPeer(int min) {
+                this.minIdlePerKnownPeer = Math.max(0, min);
+                return this;
+            }
+
+            public Builder idleTimeoutMillis(long millis) {
+                this.idleTimeoutMillis = millis;
+                return this;
+            }
+
+            public Builder healthCheckIntervalMillis(long millis) {
+                if (millis <= 0) {
+                    throw new IllegalArgumentException("Health check interval must be positive: " + millis);
+                }
+                this.healthCheckIntervalMillis = millis;
+                return this;
+            }
+
+            public Builder acquireTimeoutMillis(long millis) {
+                this.acquireTimeoutMillis = millis;
+                return this;
+            }
+
+            public Config build() {
+                return new Config(this);
+            }
+        }
+    }
+
+    /**
+     * Pool metrics
+     */
+    public static class PoolStatistics {
+        private final int peers;
+        private final int openConnections;
+        private final int activeLeases;
+        private final int waitingAcquires;
+        private final long leasesGranted;
+        private final long connectionsCreated;
+        private final long connectFailures;
+        private final double averageConnectMillis;
+        private final long idleEvictions;
+        private final long unhealthyEvictions;
+        private final long waits;
+        private final long acquireTimeouts;
+
+        public PoolStatistics(int peers, int openConnections, int activeLeases, int waitingAcquires,
+                              long leasesGranted, long connectionsCreated, long connectFailures,
+                              double averageConnectMillis, long idleEvictions, long unhealthyEvictions,
+                              long waits, long acquireTimeouts) {
+            this.peers = peers;
+            this.openConnections = openConnections;
+            this.activeLeases = activeLeases;
+            this.waitingAcquires = waitingAcquires;
+            this.leasesGranted = leasesGranted;
+            this.connectionsCreated = connectionsCreated;
+            this.connectFailures = connectFailures;
+            this.averageConnectMillis = averageConnectMillis;
+            this.idleEvictions = idleEvictions;
+            this.unhealthyEvictions = unhealthyEvictions;
+            this.waits = waits;
+            this.acquireTimeouts = acquireTimeouts;
+        }
+
+        public int getPeers() { return peers; }
+        public int getOpenConnections() { return openConnections; }
+        public int getActiveLeases() { return activeLeases; }
+        public int getWaitingAcquires() { return waitingAcquires; }
+        public long getLeasesGranted() { return leasesGranted; }
+        public long getConnectionsCreated() { return connectionsCreated; }
+        public long getConnectFailures() { return connectFailures; }
+        public double getAverageConnectMillis() { return averageConnectMillis; }
+        public long getIdleEvictions() { return idleEvictions; }
+        public long getUnhealthyEvictions() { return unhealthyEvictions; }
+        /**
+         * Gets the number of acquires queued because the peer was at its connection limit
+         */
+        public long getWaits() { return waits; }
+        public long getAcquireTimeouts() { return acquireTimeouts; }
+
+        /**
+         * Gets the fraction of leases served without opening a connection
+         */
+        public double getReuseRatio() {
+            return leasesGranted == 0 ? 0.0 : 1.0 - Math.min(1.0, (double) connectionsCreated / leasesGranted);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("PoolStatistics{peers=%d, open=%d, leased=%d, waiting=%d, granted=%d, created=%d, "
+                               + "failures=%d, connect=%.1fms, idleEvicted=%d, unhealthyEvicted=%d, waits=%d, "
+                               + "timeouts=%d}", peers, openConnections, activeLeases, waitingAcquires, leasesGranted,
+                               connectionsCreated, connectFailures, averageConnectMillis, idleEvictions,
+                               unhealthyEvictions, waits, acquireTimeouts);
+        }
+    }
+}
@@ -1,13 +1,38 @@
 package io.amcp.mobility.atp;
 
 import io.amcp.core.AgentID;
+import io.amcp.mobility.MigrationOptions;
 import io.amcp.mobility.MobilityState;
+import io.amcp.mobility.snapshot.AgentSnapshot;
+import io.amcp.mobility.snapshot.DirtyTrackingState;
+import io.amcp.mobility.snapshot.EncodedSnapshot;
+import io.amcp.mobility.snapshot.SnapshotCodec;
+import io.amcp.mobility.snapshot.SnapshotFormat;
+import io.amcp.mobility.snapshot.SnapshotFormatException;
+import io.amcp.mobility.snapshot.SnapshotReader;
+import io.amcp.mobility.snapshot.SnapshotWriter;
+import io.amcp.mobility.snapshot.StateDelta;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Serializable;
+import java.net.InetAddress;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.List;
 import java.util.ArrayList;
 
@@ -15,19 +40,44 @@ import java.util.ArrayList;
  * AMCP v1.4 Agent Transfer Protocol (ATP) Implementation.
  * Provides secure, reliable agent migration capabilities between AMCP environments
  * following the IBM Aglets ATP specification with modern enhancements.
+ *
+ * <p>All connections, inbound and outbound, share one non-blocking
+ * {@link ATPTransport}; incoming messages are decoded on a small decoder pool,
+ * never on the selector thread, and routed either to the owning
+ * {@link ATPConnection} or to the {@link ATPMessageHandler}. The listener binds
+ * to loopback unless a bind address is given.</p>
  */
 public class ATPManager {
     
     private static final String ATP_VERSION = "1.4.0";
     private static final int DEFAULT_PORT = 4434; // Traditional ATP port
+    private static final int DECODER_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+    private static final long STAGING_TIMEOUT_MS = 300000; // abandoned pre-copy state
+    public static final long DEFAULT_MAX_STAGED_BYTES_PER_MIGRATION = 256L * 1024 * 1024;
+    public static final long DEFAULT_MAX_STAGED_BYTES = 1024L * 1024 * 1024;
+    private static final long MIGRATION_TIMEOUT_MS = 30000;
+    private static final AtomicLong migrationSequence = new AtomicLong(0);
+    private static final AtomicLong connectionSequence = new AtomicLong(0);
     
-    private final Map<String, ATPConnection> connections = new ConcurrentHashMap<>();
-    private final Map<String, PendingMigration> pendingMigrations = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService timer;
+    private final ExecutorService[] decoders;
+    private final ATPConnectionPool connectionPool;
+    private final CompletionRegistry<String, ATPMigrationResult> pendingMigrations;
+    private final Map<String, StagedMigration> stagedMigrations = new ConcurrentHashMap<>();
+    private final AtomicLong stagedBytes = new AtomicLong(0);
+    // Host each inbound channel authenticated as during its handshake
+    private final Map<ATPTransport.Channel, String> authenticatedPeers = new ConcurrentHashMap<>();
     private final ATPSecurityManager securityManager;
     private final ATPMessageHandler messageHandler;
+    private final ATPTransport transport;
+    private final ReplicationEngine replicationEngine;
     
+    private volatile AgentStateRestorer stateRestorer = snapshot -> true;
+    private volatile long maxStagedBytesPerMigration = DEFAULT_MAX_STAGED_BYTES_PER_MIGRATION;
+    private volatile long maxStagedBytes = DEFAULT_MAX_STAGED_BYTES;
     private volatile boolean started = false;
     private String localHostId;
+    private final String bindAddress;
     private int port;
     
     public ATPManager() {
@@ -35,10 +85,57 @@ public class ATPManager {
     }
     
     public ATPManager(String localHostId, int port) {
+        this(localHostId, port, null);
+    }
+    
+    /**
+     * Create an ATP manager whose transport is secured with the given TLS context
+     * (null for plaintext)
+     */
+    public ATPManager(String localHostId, int port, javax.net.ssl.SSLContext sslContext) {
+        this(localHostId, port, sslContext, ATPConnectionPool.Config.defaults());
+    }
+    
+    /**
+     * Create an ATP manager with explicit limits for its outbound connection
+     * pool, listening on the loopback interface
+     */
+    public ATPManager(String localHostId, int port, javax.net.ssl.SSLContext sslContext,
+                      ATPConnectionPool.Config poolConfig) {
+        this(localHostId, InetAddress.getLoopbackAddress().getHostAddress(), port, sslContext, poolConfig);
+    }
+    
+    /**
+     * Create an ATP manager listening on the given local address. Remote hosts
+     * can only migrate agents here once it is bound to a reachable interface.
+     */
+    public ATPManager(String localHostId, String bindAddress, int port, javax.net.ssl.SSLContext sslContext,
+                      ATPConnectionPool.Config poolConfig) {
         this.localHostId = localHostId != null ? localHostId : generateHostId();
+        this.bindAddress = bindAddress;
         this.port = port;
         this.securityManager = new ATPSecurityManager();
         this.messageHandler = new ATPMessageHandler(this);
+        this.transport = new ATPTransport(this.localHostId, sslContext, new TransportListener());
+        // One timer thread serves the timeouts of all in-flight migrations
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "atp-timer-" + this.localHostId);
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Messages are decoded off the selector; each channel sticks to one decoder to keep its order
+        this.decoders = new ExecutorService[DECODER_THREADS];
+        for (int i = 0; i < decoders.length; i++) {
+            String threadName = "atp-decoder-" + this.localHostId + "-" + i;
+            decoders[i] = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, threadName);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        this.pendingMigrations = new CompletionRegistry<>(timer);
+        this.connectionPool = new ATPConnectionPool(poolConfig, this::openConnection, timer);
+        this.replicationEngine = new ReplicationEngine(this);
     }
     
     /**
@@ -52,7 +149,11 @@ public class ATPManager {
             
             try {
                 // Initialize security manager
-                securityManager.initialize();
+                securityManager.initialize().join();
+                
+                // Start transport and listen for inbound connections
+                transport.start();
+                this.port = transport.listen(bindAddress, port);
                 
                 // Start message handler
                 messageHandler.start(port);
@@ -72,6 +173,17 @@ public class ATPManager {
      */
     public CompletableFuture<ATPMigrationResult> migrateAgent(AgentID agentId, String targetHost, 
                                                              int targetPort, MobilityState state) {
+        return migrateAgent(AgentSnapshot.empty(agentId, state), targetHost, targetPort);
+    }
+    
+    /**
+     * Migrate an agent and its captured state to a remote host. The request is
+     * streamed in the compact snapshot format, so large state is framed and
+     * compressed block by block instead of being serialized in one piece.
+     */
+    public CompletableFuture<ATPMigrationResult> migrateAgent(AgentSnapshot snapshot, String targetHost,
+                                                             int targetPort) {
+        AgentID agentId = snapshot.getAgentId();
         return CompletableFuture.supplyAsync(() -> {
             if (!started) {
                 throw new IllegalStateException("ATP Manager not started");
@@ -81,51 +193,140 @@ public class ATPManager {
                 // Generate migration ID
                 String migrationId = generateMigrationId(agentId);
                 
-                // Create ATP connection to target host
-                ATPConnection connection = getOrCreateConnection(targetHost, targetPort);
-                
                 // Prepare migration request
                 ATPMigrationRequest request = new ATPMigrationRequest(
                     migrationId,
-                    agentId,
                     localHostId,
                     targetHost,
-                    state,
+                    snapshot,
                     System.currentTimeMillis()
                 );
                 
-                // Register pending migration
-                PendingMigration pending = new PendingMigration(
-                    migrationId, agentId, request, System.currentTimeMillis()
-                );
-                pendingMigrations.put(migrationId, pending);
+                // Register before sending so a fast response cannot be missed
+                CompletableFuture<ATPMigrationResult> completion = registerMigration(migrationId);
                 
-                // Send migration request
-                ATPMessage atpMessage = new ATPMessage(
-                    ATPMessage.MessageType.MIGRATE_REQUEST,
-                    localHostId,
-                    targetHost,
-                    migrationId,
-                    request
-                );
+                // Stream migration request over a pooled connection
+                try (ATPConnectionPool.Lease lease = connectionPool.acquire(targetHost, targetPort).get();
+                     OutputStream out = lease.getConnection().openOutputStream(lease.getConnection().openStream())) {
+                    request.writeTo(out);
+                } catch (IOException | ExecutionException e) {
+                    pendingMigrations.fail(migrationId, e);
+                    throw new RuntimeException("Failed to send migration request", e);
+                }
+                
+                return completion;
+                
+            } catch (Exception e) {
+                throw new RuntimeException("Migration failed for agent " + agentId, e);
+            }
+        }).thenCompose(completion -> completion.thenApplyAsync(result -> {
+            logMessage("Migration " + result.getMigrationId() + " completed with status: " + result.getStatus());
+            return result;
+        }));
+    }
+    
+    /**
+     * Live-migrate an agent using pre-copy. The full state is copied while the
+     * agent keeps running, followed by rounds carrying only the keys dirtied
+     * since the previous round. Once the delta is at most
+     * {@link MigrationOptions#getStopCopyThreshold()} keys, stops shrinking, or
+     * the round limit is reached, the agent is suspended, the last delta is
+     * sent and the source commits as soon as the target acknowledges. Downtime
+     * therefore depends on the final delta, not on the total state size.
+     * 
+     * <p>Without {@link MigrationOptions#isPreCopy()} the agent is suspended
+     * first and its whole state is sent in a single stop-and-copy round.</p>
+     */
+    public CompletableFuture<LiveMigrationResult> liveMigrateAgent(LiveMigrationSource source, String targetHost,
+                                                                  int targetPort, MigrationOptions options) {
+        return CompletableFuture.supplyAsync(() -> {
+            if (!started) {
+                throw new IllegalStateException("ATP Manager not started");
+            }
+            
+            AgentID agentId = source.getAgentId();
+            String migrationId = generateMigrationId(agentId);
+            DirtyTrackingState state = source.getState();
+            boolean suspended = false;
+            
+            // The lease covers the stream until the final round is sent
+            try (ATPConnectionPool.Lease lease = connectionPool.acquire(targetHost, targetPort).get()) {
+                ATPConnection connection = lease.getConnection();
+                // All rounds share one stream so the target applies them in order
+                int streamId = connection.openStream();
+                long bytesSent = 0;
+                long sequence = 0;
                 
-                boolean sent = connection.sendMessage(atpMessage);
-                if (!sent) {
-                    pendingMigrations.remove(migrationId);
-                    throw new RuntimeException("Failed to send migration request");
+                if (!options.isPreCopy()) {
+                    long pausedAt = System.nanoTime();
+                    source.suspend();
+                    suspended = true;
+                    AgentSnapshot full = captureSnapshot(source, state.checkpoint());
+                    CompletableFuture<ATPMigrationResult> completion = registerMigration(migrationId);
+                    bytesSent += sendRound(connection, streamId, new ATPMigrationRequest(
+                        migrationId, localHostId, targetHost, full, System.currentTimeMillis()));
+                    return finishLiveMigration(completion, source, migrationId, targetHost, 0,
+                                               full.getState().size(), bytesSent, pausedAt);
                 }
                 
-                // Wait for response (with timeout)
-                ATPMigrationResult result = waitForMigrationResult(migrationId, 30000); // 30 second timeout
+                // Round 0: full copy while the agent keeps running
+                ATPMigrationRequest initial = new ATPMigrationRequest(
+                    migrationId, localHostId, targetHost, ATPMigrationRequest.Phase.PRECOPY, sequence++,
+                    captureSnapshot(source, state.checkpoint()), Collections.emptySet(), System.currentTimeMillis()
+                );
+                bytesSent += sendRound(connection, streamId, initial);
                 
-                logMessage("Migration " + migrationId + " completed with status: " + result.getStatus());
+                // Delta rounds until the dirty set is small or stops converging
+                StateDelta delta = state.drainDelta();
+                int previousSize = Integer.MAX_VALUE;
+                int rounds = 1;
+                while (rounds <= options.getMaxPreCopyRounds()
+                        && delta.size() > options.getStopCopyThreshold()
+                        && delta.size() < previousSize) {
+                    bytesSent += sendRound(connection, streamId, deltaRequest(
+                        migrationId, targetHost, ATPMigrationRequest.Phase.DELTA, sequence++, source, delta));
+                    rounds++;
+                    previousSize = delta.size();
+                    delta = state.drainDelta();
+                }
+                
+                // Stop-and-copy: the source buffers events from here on
+                long pausedAt = System.nanoTime();
+                source.suspend();
+                suspended = true;
+                StateDelta last = delta.merge(state.drainDelta());
+                // The target only answers the final round, so the timeout starts here
+                // rather than covering the pre-copy rounds of a large state
+                CompletableFuture<ATPMigrationResult> completion = registerMigration(migrationId);
+                bytesSent += sendRound(connection, streamId, deltaRequest(
+                    migrationId, targetHost, ATPMigrationRequest.Phase.FINAL, sequence, source, last));
                 
-                return result;
+                return finishLiveMigration(completion, source, migrationId, targetHost, rounds, last.size(),
+                                           bytesSent, pausedAt);
                 
             } catch (Exception e) {
-                throw new RuntimeException("Migration failed for agent " + agentId, e);
+                pendingMigrations.fail(migrationId, e);
+                if (suspended) {
+                    source.resume();
+                }
+                throw new RuntimeException("Live migration failed for agent " + agentId, e);
             }
-        });
+        }).thenCompose(completion -> completion);
+    }
+    
+    /**
+     * Copy an agent to several hosts at once. The snapshot is encoded a single
+     * time and streamed to all targets concurrently, each copy under its own
+     * replica ID, so the total time is close to that of one transfer.
+     * 
+     * @return handle reporting the completion of each target separately
+     */
+    public ReplicationEngine.Replication replicateAgent(AgentSnapshot snapshot,
+                                                        List<ReplicationEngine.ReplicaTarget> targets) {
+        if (!started) {
+            throw new IllegalStateException("ATP Manager not started");
+        }
+        return replicationEngine.replicate(snapshot, targets);
     }
     
     /**
@@ -162,7 +363,7 @@ public class ATPManager {
                 }
                 
                 // Deserialize and restore agent state
-                boolean stateRestored = restoreAgentState(request.getAgentId(), request.getMobilityState());
+                boolean stateRestored = stateRestorer.restore(request.getSnapshot());
                 if (!stateRestored) {
                     return ATPMigrationResult.failure(
                         request.getMigrationId(),
@@ -195,43 +396,29 @@ public class ATPManager {
     }
     
     /**
-     * Establish ATP connection to remote host
+     * Establish ATP connection to remote host, reusing a pooled connection
+     * when one has capacity. Streams opened on the returned connection are not
+     * counted against the pool; use {@link #getConnectionPool()} to lease one.
      */
     public CompletableFuture<ATPConnection> establishConnection(String targetHost, int targetPort) {
-        return CompletableFuture.supplyAsync(() -> {
-            String connectionId = targetHost + ":" + targetPort;
-            
-            ATPConnection existing = connections.get(connectionId);
-            if (existing != null && existing.isHealthy()) {
-                return existing;
-            }
-            
-            try {
-                ATPConnection connection = new ATPConnection(
-                    connectionId,
-                    localHostId,
-                    targetHost,
-                    targetPort,
-                    securityManager
-                );
-                
-                boolean connected = connection.connect();
-                if (!connected) {
-                    throw new RuntimeException("Failed to connect to " + targetHost + ":" + targetPort);
-                }
-                
-                connections.put(connectionId, connection);
-                
-                logMessage("Established ATP connection to " + targetHost + ":" + targetPort);
-                
-                return connection;
-                
-            } catch (Exception e) {
-                throw new RuntimeException("Failed to establish ATP connection", e);
-            }
+        return connectionPool.acquire(targetHost, targetPort).thenApply(lease -> {
+            lease.close();
+            return lease.getConnection();
         });
     }
     
+    /**
+     * Open connections to a peer ahead of the first migration and keep them
+     * warm while idle
+     */
+    public CompletableFuture<Void> warmUpConnections(String targetHost, int targetPort) {
+        return connectionPool.warmUp(targetHost, targetPort);
+    }
+    
+    public ATPConnectionPool getConnectionPool() {
+        return connectionPool;
+    }
+    
     /**
      * Get ATP protocol status and statistics
      */
@@ -240,7 +427,7 @@ public class ATPManager {
             localHostId,
             port,
             started,
-            connections.size(),
+            connectionPool.getStatistics().getOpenConnections(),
             pendingMigrations.size(),
             ATP_VERSION
         );
@@ -250,6 +437,57 @@ public class ATPManager {
         return localHostId;
     }
     
+    /**
+     * Get the port the manager listens on (resolved after start when 0 was requested)
+     */
+    public int getPort() {
+        return port;
+    }
+    
+    /**
+     * Get the local address the listener binds to (null for all interfaces)
+     */
+    public String getBindAddress() {
+        return bindAddress;
+    }
+    
+    /**
+     * Set the hook that re-creates migrated agents from their snapshots
+     */
+    public void setStateRestorer(AgentStateRestorer stateRestorer) {
+        this.stateRestorer = stateRestorer != null ? stateRestorer : snapshot -> true;
+    }
+    
+    /**
+     * Limit the encoded pre-copy rounds held for incoming live migrations, per
+     * migration and across all of them. A migration over either limit is
+     * dropped and its final round answered with a failure.
+     */
+    public void setStagingLimits(long maxBytesPerMigration, long maxTotalBytes) {
+        this.maxStagedBytesPerMigration = maxBytesPerMigration;
+        this.maxStagedBytes = maxTotalBytes;
+    }
+    
+    /**
+     * Gets the encoded bytes of pre-copy rounds currently held
+     */
+    public long getStagedBytes() {
+        return stagedBytes.get();
+    }
+    
+    ATPSecurityManager getSecurityManager() {
+        return securityManager;
+    }
+    
+    /**
+     * Record the host an inbound channel authenticated as
+     */
+    void peerAuthenticated(ATPTransport.Channel channel, String hostId) {
+        if (channel != null) {
+            authenticatedPeers.put(channel, hostId);
+        }
+    }
+    
     /**
      * Shutdown ATP manager and close all connections
      */
@@ -258,23 +496,29 @@ public class ATPManager {
             this.started = false;
             
             // Close all connections
-            for (ATPConnection connection : connections.values()) {
-                try {
-                    connection.close();
-                } catch (Exception e) {
-                    logMessage("Error closing ATP connection: " + e.getMessage());
-                }
+            try {
+                connectionPool.close();
+            } catch (Exception e) {
+                logMessage("Error closing ATP connections: " + e.getMessage());
             }
-            connections.clear();
             
-            // Clear pending migrations
-            pendingMigrations.clear();
+            // Fail in-flight migrations and stop their timeouts
+            pendingMigrations.completeAll(migrationId ->
+                ATPMigrationResult.failure(migrationId, "ATP Manager shut down"));
+            timer.shutdownNow();
+            for (ExecutorService decoder : decoders) {
+                decoder.shutdownNow();
+            }
+            replicationEngine.close();
             
             // Shutdown message handler
             if (messageHandler != null) {
                 messageHandler.shutdown();
             }
             
+            // Stop the transport and close inbound channels
+            transport.close();
+            
             // Shutdown security manager
             if (securityManager != null) {
                 securityManager.shutdown();
@@ -284,16 +528,155 @@ public class ATPManager {
         });
     }
     
-    private ATPConnection getOrCreateConnection(String targetHost, int targetPort) throws Exception {
-        String connectionId = targetHost + ":" + targetPort;
+    /**
+     * Connection factory for the pool
+     */
+    private ATPConnection openConnection(String targetHost, int targetPort) throws IOException {
+        String connectionId = targetHost + ":" + targetPort + "#" + connectionSequence.incrementAndGet();
+        ATPConnection connection = new ATPConnection(
+            connectionId,
+            localHostId,
+            targetHost,
+            targetPort,
+            securityManager,
+            transport
+        );
         
-        ATPConnection connection = connections.get(connectionId);
-        if (connection != null && connection.isHealthy()) {
-            return connection;
+        if (!connection.connect()) {
+            throw new IOException("Failed to connect to " + targetHost + ":" + targetPort);
         }
         
-        // Establish new connection
-        return establishConnection(targetHost, targetPort).get();
+        logMessage("Established ATP connection to " + targetHost + ":" + targetPort);
+        return connection;
+    }
+    
+    /**
+     * Commit or resume the source once the target acknowledges the last round
+     */
+    private CompletableFuture<LiveMigrationResult> finishLiveMigration(
+            CompletableFuture<ATPMigrationResult> completion, LiveMigrationSource source, String migrationId,
+            String targetHost, int preCopyRounds, int finalRoundSize, long transferred, long pausedAt) {
+        return completion.thenApplyAsync(result -> {
+            if (result.isSuccess()) {
+                source.commit(targetHost);
+            } else {
+                source.resume();
+            }
+            long downtimeMillis = (System.nanoTime() - pausedAt) / 1_000_000;
+            
+            logMessage("Live migration " + migrationId + " completed with status: " + result.getStatus()
+                + " after " + preCopyRounds + " pre-copy rounds, " + transferred + " bytes, "
+                + downtimeMillis + "ms downtime");
+            
+            return new LiveMigrationResult(result, preCopyRounds, finalRoundSize, transferred, downtimeMillis);
+        });
+    }
+    
+    private long sendRound(ATPConnection connection, int streamId, ATPMigrationRequest request) throws IOException {
+        try (OutputStream out = connection.openOutputStream(streamId)) {
+            return request.writeTo(out);
+        }
+    }
+    
+    private ATPMigrationRequest deltaRequest(String migrationId, String targetHost, ATPMigrationRequest.Phase phase,
+                                             long sequence, LiveMigrationSource source, StateDelta delta) {
+        return new ATPMigrationRequest(
+            migrationId, localHostId, targetHost, phase, sequence,
+            captureSnapshot(source, delta.getChanged()), delta.getRemoved(), System.currentTimeMillis()
+        );
+    }
+    
+    private AgentSnapshot captureSnapshot(LiveMigrationSource source, Map<String, Object> state) {
+        return new AgentSnapshot(source.getAgentId(), source.getAgentType(), MobilityState.MIGRATING, state);
+    }
+    
+    /**
+     * Apply a pre-copy round on the receiving side. Rounds of one migration
+     * arrive in order on a single stream and are applied on the transport thread.
+     * Only a peer that authenticated on this channel as the request's source
+     * host, and is authorized for the agent, may stage state here, and the
+     * rounds held are bounded per migration and in total.
+     * 
+     * @param encodedBytes size of the round as received
+     * @return the assembled request once the final round arrives, otherwise null
+     */
+    ATPMigrationRequest stageMigration(ATPMigrationRequest request, ATPTransport.Channel channel,
+                                       long encodedBytes) throws IOException {
+        String migrationId = request.getMigrationId();
+        
+        if (request.getPhase() == ATPMigrationRequest.Phase.PRECOPY) {
+            String peer = authenticatedPeers.get(channel);
+            if (peer == null || !peer.equals(request.getSourceHost())
+                    || !securityManager.isAuthorized(peer, request.getAgentId())) {
+                throw new IOException("Pre-copy of " + migrationId + " from unauthenticated peer "
+                    + request.getSourceHost());
+            }
+            purgeStaleStagings();
+            StagedMigration staged = new StagedMigration(request, channel);
+            reserveStaging(staged, encodedBytes);
+            discardStaging(stagedMigrations.put(migrationId, staged));
+            return null;
+        }
+        
+        StagedMigration staged = stagedMigrations.get(migrationId);
+        if (staged == null || staged.channel != channel || staged.nextSequence != request.getSequence()) {
+            if (staged != null && staged.channel == channel) {
+                discardStaging(staged);
+            }
+            throw new SnapshotFormatException("Pre-copy round " + request.getSequence()
+                + " of " + migrationId + " out of order");
+        }
+        try {
+            reserveStaging(staged, encodedBytes);
+        } catch (IOException e) {
+            discardStaging(staged);
+            throw e;
+        }
+        staged.apply(request);
+        
+        if (request.getPhase() != ATPMigrationRequest.Phase.FINAL) {
+            return null;
+        }
+        discardStaging(staged);
+        return staged.assemble(request);
+    }
+    
+    private void reserveStaging(StagedMigration staged, long encodedBytes) throws IOException {
+        synchronized (staged) {
+            if (staged.bytes + encodedBytes > maxStagedBytesPerMigration) {
+                throw new IOException("Pre-copy of " + staged.initial.getMigrationId()
+                    + " exceeds " + maxStagedBytesPerMigration + " staged bytes");
+            }
+            if (stagedBytes.addAndGet(encodedBytes) > maxStagedBytes) {
+                stagedBytes.addAndGet(-encodedBytes);
+                throw new IOException("Pre-copy of " + staged.initial.getMigrationId()
+                    + " would exceed " + maxStagedBytes + " staged bytes in total");
+            }
+            staged.bytes += encodedBytes;
+        }
+    }
+    
+    /**
+     * Drop a staged migration and release the bytes it held
+     */
+    private void discardStaging(StagedMigration staged) {
+        if (staged == null) {
+            return;
+        }
+        stagedMigrations.remove(staged.initial.getMigrationId(), staged);
+        synchronized (staged) {
+            stagedBytes.addAndGet(-staged.bytes);
+            staged.bytes = 0;
+        }
+    }
+    
+    private void purgeStaleStagings() {
+        long cutoff = System.currentTimeMillis() - STAGING_TIMEOUT_MS;
+        for (StagedMigration staged : stagedMigrations.values()) {
+            if (staged.lastUpdate < cutoff) {
+                discardStaging(staged);
+            }
+        }
     }
     
     private boolean validateMigrationRequest(ATPMigrationRequest request) {
@@ -322,17 +705,6 @@ public class ATPManager {
         }
     }
     
-    private boolean restoreAgentState(AgentID agentId, MobilityState state) {
-        // Simulate state restoration
-        try {
-            Thread.sleep(20); // Simulate state restoration time
-            return true;
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            return false;
-        }
-    }
-    
     private boolean activateAgent(AgentID agentId) {
         // Simulate agent activation
         try {
@@ -344,76 +716,327 @@ public class ATPManager {
         }
     }
     
-    private ATPMigrationResult waitForMigrationResult(String migrationId, int timeoutMs) {
-        long startTime = System.currentTimeMillis();
-        
-        while (System.currentTimeMillis() - startTime < timeoutMs) {
-            PendingMigration pending = pendingMigrations.get(migrationId);
-            if (pending != null && pending.getResult() != null) {
-                pendingMigrations.remove(migrationId);
-                return pending.getResult();
-            }
-            
-            try {
-                Thread.sleep(100); // Poll every 100ms
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                break;
-            }
-        }
-        
-        // Timeout
-        pendingMigrations.remove(migrationId);
-        return ATPMigrationResult.failure(migrationId, "Migration timeout");
+    CompletableFuture<ATPMigrationResult> registerMigration(String migrationId) {
+        return pendingMigrations.register(migrationId, MIGRATION_TIMEOUT_MS,
+            id -> ATPMigrationResult.failure(id, "Migration timeout"));
     }
     
     private String generateHostId() {
         return "host_" + System.currentTimeMillis() + "_" + (int)(Math.random() * 1000);
     }
     
-    private String generateMigrationId(AgentID agentId) {
-        return "migration_" + agentId.toString() + "_" + System.currentTimeMillis();
+    String generateMigrationId(AgentID agentId) {
+        return "migration_" + agentId.toString() + "_" + System.currentTimeMillis()
+            + "_" + migrationSequence.incrementAndGet();
+    }
+    
+    void failMigration(String migrationId, Throwable error) {
+        pendingMigrations.fail(migrationId, error);
     }
     
-    private void logMessage(String message) {
+    void logMessage(String message) {
         System.out.println("[ATP] " + message);
     }
     
     // Package-private method for message handler
     void handleMigrationResponse(String migrationId, ATPMigrationResult result) {
-        PendingMigration pending = pendingMigrations.get(migrationId);
-        if (pending != null) {
-            pending.setResult(result);
-        }
+        pendingMigrations.complete(migrationId, result);
     }
     
     // Inner classes
     
+    /**
+     * Restores a migrated agent from its snapshot on the receiving host
+     */
+    @FunctionalInterface
+    public interface AgentStateRestorer {
+        boolean restore(AgentSnapshot snapshot) throws Exception;
+    }
+    
+    /**
+     * Agent being live-migrated. Implementations expose the agent's
+     * dirty-tracked state and control its event processing around the
+     * stop-and-copy phase.
+     */
+    public interface LiveMigrationSource {
+        AgentID getAgentId();
+        
+        String getAgentType();
+        
+        DirtyTrackingState getState();
+        
+        /**
+         * Stop processing events and start buffering them for the final round.
+         * Must not return while the agent can still mutate its state.
+         */
+        void suspend();
+        
+        /**
+         * Switch routing to the target host and forward the buffered events there
+         */
+        void commit(String targetHost);
+        
+        /**
+         * Migration failed after suspension: resume local processing of buffered events
+         */
+        void resume();
+    }
+    
+    /**
+     * Decodes transport messages and routes them to their connection or the handler
+     */
+    private class TransportListener implements ATPTransport.Listener {
+        @Override
+        public void onMessage(ATPTransport.Channel channel, int streamId, byte[] data) {
+            ExecutorService decoder = decoders[Math.floorMod(System.identityHashCode(channel), decoders.length)];
+            try {
+                decoder.execute(() -> decode(channel, streamId, data));
+            } catch (RejectedExecutionException e) {
+                logMessage("Dropping message from " + channel + ": ATP Manager shut down");
+            }
+        }
+        
+        private void decode(ATPTransport.Channel channel, int streamId, byte[] data) {
+            ATPMessage message;
+            try {
+                if (SnapshotFormat.isSnapshot(data)) {
+                    // Migration requests arrive in snapshot format rather than as serialized messages
+                    ATPMigrationRequest request = ATPMigrationRequest.readFrom(new ByteArrayInputStream(data));
+                    if (request.getPhase() != ATPMigrationRequest.Phase.FULL) {
+                        request = stageLiveRound(request, channel, streamId, data.length);
+                        if (request == null) {
+                            return;
+                        }
+                    }
+                    message = new ATPMessage(
+                        ATPMessage.MessageType.MIGRATE_REQUEST,
+                        request.getSourceHost(),
+                        localHostId,
+                        request.getMigrationId(),
+                        request
+                    );
+                } else {
+                    message = ATPMessage.fromBytes(data);
+                }
+            } catch (IOException e) {
+                logMessage("Dropping undecodable message from " + channel + ": " + e.getMessage());
+                return;
+            }
+            
+            Object attachment = channel.getAttachment();
+            if (attachment instanceof ATPConnection
+                    && ((ATPConnection) attachment).handleIncomingMessage(message)) {
+                return;
+            }
+            // Resolve migration acknowledgements here rather than via the handler pool
+            if (message.getType() == ATPMessage.MessageType.MIGRATE_RESPONSE) {
+                ATPMigrationResult result = message.getPayload(ATPMigrationResult.class);
+                if (result != null && pendingMigrations.complete(result.getMigrationId(), result)) {
+                    return;
+                }
+            }
+            messageHandler.processMessage(message, channel, streamId);
+        }
+        
+        private ATPMigrationRequest stageLiveRound(ATPMigrationRequest request, ATPTransport.Channel channel,
+                                                   int streamId, long encodedBytes) {
+            try {
+                return stageMigration(request, channel, encodedBytes);
+            } catch (IOException e) {
+                logMessage(e.getMessage());
+                if (request.getPhase() == ATPMigrationRequest.Phase.FINAL) {
+                    ATPMessage failure = new ATPMessage(
+                        ATPMessage.MessageType.MIGRATE_RESPONSE,
+                        localHostId,
+                        request.getSourceHost(),
+                        "migration_response_" + request.getMigrationId(),
+                        ATPMigrationResult.failure(request.getMigrationId(), "Incomplete pre-copy state")
+                    );
+                    try {
+                        channel.send(streamId, failure.toBytes());
+                    } catch (IOException sendError) {
+                        logMessage("Failed to report pre-copy failure: " + sendError.getMessage());
+                    }
+                }
+                return null;
+            }
+        }
+        
+        @Override
+        public void onChannelClosed(ATPTransport.Channel channel) {
+            Object attachment = channel.getAttachment();
+            if (attachment instanceof ATPConnection) {
+                connectionPool.remove((ATPConnection) attachment);
+            }
+            authenticatedPeers.remove(channel);
+            for (StagedMigration staged : stagedMigrations.values()) {
+                if (staged.channel == channel) {
+                    discardStaging(staged);
+                }
+            }
+        }
+    }
+    
     public static class ATPMigrationRequest implements Serializable {
-        private static final long serialVersionUID = 1L;
+        private static final long serialVersionUID = 2L;
+        
+        // Envelope fields; 1-99 are reserved for the embedded snapshot
+        private static final int FIELD_MIGRATION_ID = 100;
+        private static final int FIELD_SOURCE_HOST = 101;
+        private static final int FIELD_TARGET_HOST = 102;
+        private static final int FIELD_TIMESTAMP = 103;
+        private static final int FIELD_PHASE = 104;
+        private static final int FIELD_SEQUENCE = 105;
+        
+        /**
+         * Role of a request in a migration
+         */
+        public enum Phase {
+            /** Complete state of a stopped agent */
+            FULL,
+            /** Initial full copy taken while the agent keeps running */
+            PRECOPY,
+            /** Changes since the previous round, agent still running */
+            DELTA,
+            /** Last changes after the agent was paused; the target commits */
+            FINAL
+        }
         
         private final String migrationId;
         private final AgentID agentId;
         private final String sourceHost;
         private final String targetHost;
-        private final MobilityState mobilityState;
+        private final Phase phase;
+        private final long sequence;
+        private final AgentSnapshot snapshot;
+        private final Set<String> removedKeys;
         private final long timestamp;
         
         public ATPMigrationRequest(String migrationId, AgentID agentId, String sourceHost,
                                   String targetHost, MobilityState mobilityState, long timestamp) {
+            this(migrationId, sourceHost, targetHost, AgentSnapshot.empty(agentId, mobilityState), timestamp);
+        }
+        
+        public ATPMigrationRequest(String migrationId, String sourceHost, String targetHost,
+                                  AgentSnapshot snapshot, long timestamp) {
+            this(migrationId, sourceHost, targetHost, Phase.FULL, 0, snapshot, Collections.emptySet(), timestamp);
+        }
+        
+        public ATPMigrationRequest(String migrationId, String sourceHost, String targetHost, Phase phase,
+                                  long sequence, AgentSnapshot snapshot, Set<String> removedKeys, long timestamp) {
             this.migrationId = migrationId;
-            this.agentId = agentId;
+            this.agentId = snapshot.getAgentId();
             this.sourceHost = sourceHost;
             this.targetHost = targetHost;
-            this.mobilityState = mobilityState;
+            this.phase = phase;
+            this.sequence = sequence;
+            this.snapshot = snapshot;
+            this.removedKeys = Collections.unmodifiableSet(new LinkedHashSet<>(removedKeys));
             this.timestamp = timestamp;
         }
         
+        /**
+         * Write this request in the snapshot format, leaving the stream open
+         * 
+         * @return the number of encoded bytes written
+         */
+        public long writeTo(OutputStream out) throws IOException {
+            SnapshotWriter writer = new SnapshotWriter(out);
+            writeEnvelope(writer, migrationId, sourceHost, targetHost, timestamp);
+            if (phase != Phase.FULL) {
+                writer.writeVarint(FIELD_PHASE, phase.ordinal());
+                writer.writeVarint(FIELD_SEQUENCE, sequence);
+            }
+            if (phase == Phase.DELTA || phase == Phase.FINAL) {
+                // Delta rounds carry only the changed entries and removed keys
+                SnapshotCodec.writeIdentity(writer, snapshot.getAgentId());
+                SnapshotCodec.writeHeader(writer, snapshot);
+                SnapshotCodec.writeDelta(writer, new StateDelta(snapshot.getState(), removedKeys));
+            } else {
+                SnapshotCodec.writeFields(writer, snapshot);
+            }
+            writer.finish();
+            return writer.getBytesWritten();
+        }
+        
+        /**
+         * Write a full migration request for a pre-encoded snapshot under the
+         * given identity, leaving the stream open
+         * 
+         * @return the number of encoded bytes written
+         */
+        public static long writeTo(OutputStream out, String migrationId, String sourceHost, String targetHost,
+                                   long timestamp, EncodedSnapshot snapshot, AgentID identity) throws IOException {
+            SnapshotWriter writer = new SnapshotWriter(out);
+            writeEnvelope(writer, migrationId, sourceHost, targetHost, timestamp);
+            snapshot.writeTo(writer, identity);
+            writer.finish();
+            return writer.getBytesWritten();
+        }
+        
+        private static void writeEnvelope(SnapshotWriter writer, String migrationId, String sourceHost,
+                                          String targetHost, long timestamp) throws IOException {
+            writer.writeString(FIELD_MIGRATION_ID, migrationId);
+            writer.writeString(FIELD_SOURCE_HOST, sourceHost);
+            if (targetHost != null) {
+                writer.writeString(FIELD_TARGET_HOST, targetHost);
+            }
+            writer.writeVarint(FIELD_TIMESTAMP, timestamp);
+        }
+        
+        /**
+         * Read a request written by {@link #writeTo(OutputStream)}
+         */
+        public static ATPMigrationRequest readFrom(InputStream in) throws IOException {
+            SnapshotReader reader = new SnapshotReader(in);
+            AgentSnapshot.Builder snapshot = new AgentSnapshot.Builder();
+            Set<String> removedKeys = new LinkedHashSet<>();
+            String migrationId = null;
+            String sourceHost = null;
+            String targetHost = null;
+            Phase phase = Phase.FULL;
+            long sequence = 0;
+            long timestamp = 0;
+            
+            int tag;
+            while ((tag = reader.readTag()) != -1) {
+                switch (SnapshotReader.fieldOf(tag)) {
+                    case FIELD_MIGRATION_ID: migrationId = reader.readString(); break;
+                    case FIELD_SOURCE_HOST: sourceHost = reader.readString(); break;
+                    case FIELD_TARGET_HOST: targetHost = reader.readString(); break;
+                    case FIELD_TIMESTAMP: timestamp = reader.readVarint(); break;
+                    case FIELD_SEQUENCE: sequence = reader.readVarint(); break;
+                    case FIELD_PHASE:
+                        long ordinal = reader.readVarint();
+                        if (ordinal < 0 || ordinal >= Phase.values().length) {
+                            throw new SnapshotFormatException("Unknown migration phase: " + ordinal);
+                        }
+                        phase = Phase.values()[(int) ordinal];
+                        break;
+                    case SnapshotCodec.FIELD_REMOVED_KEY: removedKeys.add(reader.readString()); break;
+                    default:
+                        if (!SnapshotCodec.readField(reader, tag, snapshot)) {
+                            reader.skip(tag);
+                        }
+                }
+            }
+            
+            if (migrationId == null) {
+                throw new SnapshotFormatException("Migration request without migration id");
+            }
+            return new ATPMigrationRequest(migrationId, sourceHost, targetHost, phase, sequence,
+                                           snapshot.build(), removedKeys, timestamp);
+        }
+        
         public String getMigrationId() { return migrationId; }
         public AgentID getAgentId() { return agentId; }
         public String getSourceHost() { return sourceHost; }
         public String getTargetHost() { return targetHost; }
-        public MobilityState getMobilityState() { return mobilityState; }
+        public Phase getPhase() { return phase; }
+        public long getSequence() { return sequence; }
+        public AgentSnapshot getSnapshot() { return snapshot; }
+        public Set<String> getRemovedKeys() { return removedKeys; }
+        public MobilityState getMobilityState() { return snapshot.getMobilityState(); }
         public long getTimestamp() { return timestamp; }
     }
     
@@ -451,6 +1074,33 @@ public class ATPManager {
         public long getTimestamp() { return timestamp; }
     }
     
+    /**
+     * Outcome and cost of a live migration
+     */
+    public static class LiveMigrationResult {
+        private final ATPMigrationResult result;
+        private final int preCopyRounds;
+        private final int finalDeltaSize;
+        private final long bytesTransferred;
+        private final long downtimeMillis;
+        
+        public LiveMigrationResult(ATPMigrationResult result, int preCopyRounds, int finalDeltaSize,
+                                  long bytesTransferred, long downtimeMillis) {
+            this.result = result;
+            this.preCopyRounds = preCopyRounds;
+            this.finalDeltaSize = finalDeltaSize;
+            this.bytesTransferred = bytesTransferred;
+            this.downtimeMillis = downtimeMillis;
+        }
+        
+        public ATPMigrationResult getResult() { return result; }
+        public boolean isSuccess() { return result.isSuccess(); }
+        public int getPreCopyRounds() { return preCopyRounds; }
+        public int getFinalDeltaSize() { return finalDeltaSize; }
+        public long getBytesTransferred() { return bytesTransferred; }
+        public long getDowntimeMillis() { return downtimeMillis; }
+    }
+    
     public static class ATPStatus {
         private final String localHostId;
         private final int port;
@@ -477,25 +1127,45 @@ public class ATPManager {
         public String getVersion() { return version; }
     }
     
-    private static class PendingMigration {
-        private final String migrationId;
-        private final AgentID agentId;
-        private final ATPMigrationRequest request;
-        private final long startTime;
-        private volatile ATPMigrationResult result;
+    /**
+     * Pre-copy state accumulated on the target until the final round
+     */
+    private static class StagedMigration {
+        private final ATPMigrationRequest initial;
+        private final ATPTransport.Channel channel;
+        private final Map<String, Object> state;
+        private long nextSequence;
+        private long bytes; // guarded by this
+        private volatile long lastUpdate;
         
-        public PendingMigration(String migrationId, AgentID agentId, ATPMigrationRequest request, long startTime) {
-            this.migrationId = migrationId;
-            this.agentId = agentId;
-            this.request = request;
-            this.startTime = startTime;
+        StagedMigration(ATPMigrationRequest initial, ATPTransport.Channel channel) {
+            this.initial = initial;
+            this.channel = channel;
+            this.state = new LinkedHashMap<>(initial.getSnapshot().getState());
+            this.nextSequence = initial.getSequence() + 1;
+            this.lastUpdate = System.currentTimeMillis();
         }
         
-        public String getMigrationId() { return migrationId; }
-        public AgentID getAgentId() { return agentId; }
-        public ATPMigrationRequest getRequest() { return request; }
-        public long getStartTime() { return startTime; }
-        public ATPMigrationResult getResult() { return result; }
-        public void setResult(ATPMigrationResult result) { this.result = result; }
+        void apply(ATPMigrationRequest round) {
+            for (String key : round.getRemovedKeys()) {
+                state.remove(key);
+            }
+            state.putAll(round.getSnapshot().getState());
+            nextSequence++;
+            lastUpdate = System.currentTimeMillis();
+        }
+        
+        ATPMigrationRequest assemble(ATPMigrationRequest last) {
+            AgentSnapshot finalSnapshot = last.getSnapshot();
+            AgentSnapshot merged = new AgentSnapshot(
+                initial.getAgentId(),
+                finalSnapshot.getAgentType() != null ? finalSnapshot.getAgentType() : initial.getSnapshot().getAgentType(),
+                finalSnapshot.getMobilityState(),
+                finalSnapshot.getCapturedAt(),
+                state
+            );
+            return new ATPMigrationRequest(last.getMigrationId(), last.getSourceHost(), last.getTargetHost(),
+                                           merged, last.getTimestamp());
+        }
     }
 }
\ No newline at end of file
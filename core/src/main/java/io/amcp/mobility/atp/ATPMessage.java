@@ -1,5 +1,11 @@
 package io.amcp.mobility.atp;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.Map;
 import java.util.HashMap;
@@ -11,6 +17,25 @@ import java.util.HashMap;
 public class ATPMessage implements Serializable {
     private static final long serialVersionUID = 1L;
     
+    /** Largest serialized message accepted from a peer; agent state travels in snapshot format */
+    public static final int MAX_SERIALIZED_BYTES = 1024 * 1024;
+    
+    /**
+     * Classes a peer may put in a serialized message: the message itself, the
+     * protocol payloads and plain header values. Everything else is rejected
+     * before it is instantiated.
+     */
+    private static final ObjectInputFilter MESSAGE_FILTER = ObjectInputFilter.Config.createFilter(
+        "maxdepth=8;maxrefs=1024;maxarray=4096;maxbytes=" + MAX_SERIALIZED_BYTES + ";"
+        + "io.amcp.mobility.atp.ATPMessage;"
+        + "io.amcp.mobility.atp.ATPMessage$MessageType;"
+        + "io.amcp.mobility.atp.ATPConnection$HandshakeRequest;"
+        + "io.amcp.mobility.atp.ATPMessageHandler$HandshakeResponse;"
+        + "io.amcp.mobility.atp.ATPMessageHandler$ErrorMessage;"
+        + "io.amcp.mobility.atp.ATPManager$ATPMigrationResult;"
+        + "java.util.HashMap;java.util.Map$Entry;java.lang.Enum;java.lang.String;java.lang.Boolean;java.lang.Number;"
+        + "java.lang.Integer;java.lang.Long;java.lang.Double;!*");
+    
     public enum MessageType {
         HANDSHAKE_REQUEST,
         HANDSHAKE_RESPONSE,
@@ -74,6 +99,33 @@ public class ATPMessage implements Serializable {
         headers.put(key, value);
     }
     
+    /**
+     * Encode this message for the ATP transport
+     */
+    public byte[] toBytes() throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+        try (ObjectOutputStream out = new ObjectOutputStream(buffer)) {
+            out.writeObject(this);
+        }
+        return buffer.toByteArray();
+    }
+    
+    /**
+     * Decode a message received from the ATP transport. Only the ATP message
+     * and payload classes are accepted, within fixed size and depth limits.
+     */
+    public static ATPMessage fromBytes(byte[] data) throws IOException {
+        if (data.length > MAX_SERIALIZED_BYTES) {
+            throw new IOException("ATP message of " + data.length + " bytes exceeds " + MAX_SERIALIZED_BYTES);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(data))) {
+            in.setObjectInputFilter(MESSAGE_FILTER);
+            return (ATPMessage) in.readObject();
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Invalid ATP message", e);
+        }
+    }
+    
     @Override
     public String toString() {
         return "ATPMessage{" +
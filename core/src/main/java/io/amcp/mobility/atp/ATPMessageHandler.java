@@ -3,6 +3,8 @@ package io.amcp.mobility.atp;
 import io.amcp.mobility.atp.ATPManager.ATPMigrationRequest;
 import io.amcp.mobility.atp.ATPManager.ATPMigrationResult;
 
+import java.io.IOException;
+import java.io.Serializable;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.Map;
@@ -10,6 +12,9 @@ import java.util.Map;
 /**
  * AMCP v1.4 ATP Message Handler.
  * Handles incoming and outgoing ATP messages for the ATP Manager.
+ *
+ * <p>Replies are written back on the channel and stream the request arrived on,
+ * so request/response pairs stay correlated on multiplexed connections.</p>
  */
 public class ATPMessageHandler {
     
@@ -34,31 +39,28 @@ public class ATPMessageHandler {
         
         this.port = port;
         this.started = true;
-        
-        // In a real implementation, this would start a network server
-        // For this demo, we'll simulate the message handling
-        startMessageListener();
     }
     
     /**
-     * Process incoming ATP message
+     * Process incoming ATP message received on the given channel and stream
      */
-    public CompletableFuture<Void> processMessage(ATPMessage message) {
+    public CompletableFuture<Void> processMessage(ATPMessage message, ATPTransport.Channel channel, int streamId) {
         return CompletableFuture.runAsync(() -> {
             if (!started) {
                 return;
             }
             
+            ReplyContext reply = new ReplyContext(channel, streamId);
             try {
                 MessageProcessor processor = messageProcessors.get(message.getType().name());
                 if (processor != null) {
-                    processor.processMessage(message);
+                    processor.processMessage(message, reply);
                 } else {
-                    handleUnknownMessage(message);
+                    handleUnknownMessage(message, reply);
                 }
                 
             } catch (Exception e) {
-                handleMessageError(message, e);
+                handleMessageError(message, reply, e);
             }
         });
     }
@@ -97,37 +99,25 @@ public class ATPMessageHandler {
                             this::processCloseConnection);
     }
     
-    private void startMessageListener() {
-        CompletableFuture.runAsync(() -> {
-            while (started) {
-                try {
-                    // Simulate message listening
-                    Thread.sleep(100);
-                    
-                    // In a real implementation, this would:
-                    // 1. Listen on network socket
-                    // 2. Accept incoming connections
-                    // 3. Read ATP messages from streams
-                    // 4. Route messages to appropriate processors
-                    
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    break;
-                } catch (Exception e) {
-                    // Log error and continue
-                }
-            }
-        });
-    }
-    
-    private void processHandshakeRequest(ATPMessage message) {
+    private void processHandshakeRequest(ATPMessage message, ReplyContext reply) {
         try {
             String sourceHost = message.getSourceHost();
+            ATPConnection.HandshakeRequest request = message.getPayload(ATPConnection.HandshakeRequest.class);
+            
+            // Authenticate the initiating host so its migrations are authorized here
+            boolean authenticated = request != null && atpManager.getSecurityManager()
+                .authenticateHost(request.getHostId(), request.getCredentials())
+                .get()
+                .isSuccess();
+            if (authenticated) {
+                // Live migration rounds on this channel are staged only for this host
+                atpManager.peerAuthenticated(reply.channel, request.getHostId());
+            }
             
             // Create handshake response
             HandshakeResponse response = new HandshakeResponse(
-                true,
-                "Handshake accepted",
+                authenticated,
+                authenticated ? "Handshake accepted" : "Authentication failed",
                 "AMCP-ATP/1.4"
             );
             
@@ -139,14 +129,14 @@ public class ATPMessageHandler {
                 response
             );
             
-            // Send response (simplified - in real implementation would use network)
+            reply.send(responseMessage);
             
         } catch (Exception e) {
-            sendErrorMessage(message.getSourceHost(), "Handshake failed: " + e.getMessage());
+            sendErrorMessage(message.getSourceHost(), reply, "Handshake failed: " + e.getMessage());
         }
     }
     
-    private void processHandshakeResponse(ATPMessage message) {
+    private void processHandshakeResponse(ATPMessage message, ReplyContext reply) {
         try {
             HandshakeResponse response = message.getPayload(HandshakeResponse.class);
             if (response != null && response.isSuccess()) {
@@ -161,11 +151,11 @@ public class ATPMessageHandler {
         }
     }
     
-    private void processMigrationRequest(ATPMessage message) {
+    private void processMigrationRequest(ATPMessage message, ReplyContext reply) {
         try {
             ATPMigrationRequest request = message.getPayload(ATPMigrationRequest.class);
             if (request == null) {
-                sendErrorMessage(message.getSourceHost(), "Invalid migration request");
+                sendErrorMessage(message.getSourceHost(), reply, "Invalid migration request");
                 return;
             }
             
@@ -180,16 +170,17 @@ public class ATPMessageHandler {
                     result
                 );
                 
-                // In real implementation, would send via network
-                logMessage("Migration response sent for " + request.getMigrationId());
+                if (reply.send(responseMessage)) {
+                    logMessage("Migration response sent for " + request.getMigrationId());
+                }
             });
             
         } catch (Exception e) {
-            sendErrorMessage(message.getSourceHost(), "Migration processing failed: " + e.getMessage());
+            sendErrorMessage(message.getSourceHost(), reply, "Migration processing failed: " + e.getMessage());
         }
     }
     
-    private void processMigrationResponse(ATPMessage message) {
+    private void processMigrationResponse(ATPMessage message, ReplyContext reply) {
         try {
             ATPMigrationResult result = message.getPayload(ATPMigrationResult.class);
             if (result != null) {
@@ -203,29 +194,18 @@ public class ATPMessageHandler {
         }
     }
     
-    private void processHeartbeat(ATPMessage message) {
+    private void processHeartbeat(ATPMessage message, ReplyContext reply) {
         try {
-            // Update connection heartbeat timestamp
-            String sourceHost = message.getSourceHost();
-            logMessage("Heartbeat received from " + sourceHost);
-            
-            // Send heartbeat response
-            ATPMessage heartbeatResponse = new ATPMessage(
-                ATPMessage.MessageType.HEARTBEAT,
-                atpManager.getLocalHostId(),
-                sourceHost,
-                "heartbeat_response_" + System.currentTimeMillis(),
-                null
-            );
-            
-            // In real implementation, would send via network
+            // Connection heartbeat timestamps are refreshed on receipt; heartbeats
+            // are not echoed so two peers never ping-pong indefinitely
+            logMessage("Heartbeat received from " + message.getSourceHost());
             
         } catch (Exception e) {
             logMessage("Error processing heartbeat: " + e.getMessage());
         }
     }
     
-    private void processError(ATPMessage message) {
+    private void processError(ATPMessage message, ReplyContext reply) {
         try {
             ErrorMessage error = message.getPayload(ErrorMessage.class);
             if (error != null) {
@@ -237,30 +217,32 @@ public class ATPMessageHandler {
         }
     }
     
-    private void processCloseConnection(ATPMessage message) {
+    private void processCloseConnection(ATPMessage message, ReplyContext reply) {
         try {
             String sourceHost = message.getSourceHost();
             logMessage("Connection close request from " + sourceHost);
             
             // Clean up connection resources
-            // In real implementation, would close network connections
+            if (reply.channel != null) {
+                reply.channel.close();
+            }
             
         } catch (Exception e) {
             logMessage("Error processing connection close: " + e.getMessage());
         }
     }
     
-    private void handleUnknownMessage(ATPMessage message) {
+    private void handleUnknownMessage(ATPMessage message, ReplyContext reply) {
         logMessage("Unknown message type: " + message.getType() + " from " + message.getSourceHost());
-        sendErrorMessage(message.getSourceHost(), "Unknown message type: " + message.getType());
+        sendErrorMessage(message.getSourceHost(), reply, "Unknown message type: " + message.getType());
     }
     
-    private void handleMessageError(ATPMessage message, Exception error) {
+    private void handleMessageError(ATPMessage message, ReplyContext reply, Exception error) {
         logMessage("Error processing message from " + message.getSourceHost() + ": " + error.getMessage());
-        sendErrorMessage(message.getSourceHost(), "Message processing error: " + error.getMessage());
+        sendErrorMessage(message.getSourceHost(), reply, "Message processing error: " + error.getMessage());
     }
     
-    private void sendErrorMessage(String targetHost, String errorMessage) {
+    private void sendErrorMessage(String targetHost, ReplyContext reply, String errorMessage) {
         try {
             ErrorMessage error = new ErrorMessage(
                 "MESSAGE_PROCESSING_ERROR",
@@ -276,8 +258,9 @@ public class ATPMessageHandler {
                 error
             );
             
-            // In real implementation, would send via network
-            logMessage("Error message sent to " + targetHost);
+            if (reply.send(errorMsg)) {
+                logMessage("Error message sent to " + targetHost);
+            }
             
         } catch (Exception e) {
             logMessage("Failed to send error message: " + e.getMessage());
@@ -291,12 +274,39 @@ public class ATPMessageHandler {
     // Functional interface for message processors
     @FunctionalInterface
     private interface MessageProcessor {
-        void processMessage(ATPMessage message) throws Exception;
+        void processMessage(ATPMessage message, ReplyContext reply) throws Exception;
+    }
+    
+    /**
+     * Channel and stream a message arrived on, used to route replies
+     */
+    private static final class ReplyContext {
+        private final ATPTransport.Channel channel;
+        private final int streamId;
+        
+        ReplyContext(ATPTransport.Channel channel, int streamId) {
+            this.channel = channel;
+            this.streamId = streamId;
+        }
+        
+        boolean send(ATPMessage message) {
+            if (channel == null || !channel.isOpen()) {
+                return false;
+            }
+            try {
+                channel.send(streamId, message.toBytes());
+                return true;
+            } catch (IOException e) {
+                return false;
+            }
+        }
     }
     
     // Inner classes for message payloads
     
-    private static class HandshakeResponse {
+    static class HandshakeResponse implements Serializable {
+        private static final long serialVersionUID = 1L;
+        
         private final boolean success;
         private final String message;
         private final String protocolVersion;
@@ -312,7 +322,9 @@ public class ATPMessageHandler {
         public String getProtocolVersion() { return protocolVersion; }
     }
     
-    private static class ErrorMessage {
+    static class ErrorMessage implements Serializable {
+        private static final long serialVersionUID = 1L;
+        
         private final String errorCode;
         private final String message;
         private final long timestamp;
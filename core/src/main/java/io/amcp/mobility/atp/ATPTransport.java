@@ -0,0 +1,925 @@
+package io.amcp.mobility.atp;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLException;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * AMCP v1.5 ATP Transport.
+ * Non-blocking TCP transport for the Agent Transfer Protocol built on a single
+ * NIO selector thread.
+ *
+ * <p>Wire format is a sequence of length-prefixed frames:
+ * <pre>
+ *   int32 length | int32 streamId | int8 flags | payload[length - 5]
+ * </pre>
+ * A message is split into frames of at most {@link #MAX_FRAME_PAYLOAD} bytes;
+ * the last frame carries {@link #FLAG_END}. Frames of different streams are
+ * interleaved round-robin, so many migrations can share one connection without
+ * a large agent state blocking small control messages.</p>
+ *
+ * <p>TLS is optional: when an {@link SSLContext} is supplied every channel is
+ * wrapped in an {@link SSLEngine} driven by the same selector loop.</p>
+ *
+ * <p>Listener callbacks run on the selector thread and must not block.</p>
+ */
+public class ATPTransport implements AutoCloseable {
+
+    public static final int MAX_FRAME_PAYLOAD = 64 * 1024;
+    public static final byte FLAG_END = 0x01;
+    public static final int CONTROL_STREAM = 0;
+
+    private static final int HEADER_SIZE = 9; // length(4) + streamId(4) + flags(1)
+    private static final long STREAM_HIGH_WATER_BYTES = 1024 * 1024;
+    private static final int DEFAULT_MAX_MESSAGE_BYTES = 32 * 1024 * 1024;
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+    /**
+     * Receives complete messages and channel lifecycle notifications
+     */
+    public interface Listener {
+        void onMessage(Channel channel, int streamId, byte[] message);
+
+        default void onChannelClosed(Channel channel) {
+        }
+    }
+
+    private final String name;
+    private final SSLContext sslContext;
+    private final Listener listener;
+    private final int maxMessageBytes;
+
+    private final Queue<Runnable> pendingTasks = new ConcurrentLinkedQueue<>();
+    private final Set<Channel> channels = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicLong bytesSent = new AtomicLong(0);
+    private final AtomicLong bytesReceived = new AtomicLong(0);
+
+    private volatile Selector selector;
+    private volatile Thread ioThread;
+
+    public ATPTransport(String name, Listener listener) {
+        this(name, null, listener, DEFAULT_MAX_MESSAGE_BYTES);
+    }
+
+    public ATPTransport(String name, SSLContext sslContext, Listener listener) {
+        this(name, sslContext, listener, DEFAULT_MAX_MESSAGE_BYTES);
+    }
+
+    public ATPTransport(String name, SSLContext sslContext, Listener listener, int maxMessageBytes) {
+        this.name = name;
+        this.sslContext = sslContext;
+        this.listener = listener;
+        this.maxMessageBytes = maxMessageBytes;
+    }
+
+    /**
+     * Open the selector and start the I/O thread
+     */
+    public void start() throws IOException {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        this.selector = Selector.open();
+        this.ioThread = new Thread(this::runLoop, "atp-io-" + name);
+        ioThread.setDaemon(true);
+        ioThread.start();
+    }
+
+    /**
+     * Bind a listening socket on all interfaces and the given port (0 for an
+     * ephemeral port)
+     *
+     * @return the bound port
+     */
+    public int listen(int port) throws IOException {
+        return listen(null, port);
+    }
+
+    /**
+     * Bind a listening socket on the given address (null for all interfaces)
+     * and port (0 for an ephemeral port)
+     *
+     * @return the bound port
+     */
+    public int listen(String bindAddress, int port) throws IOException {
+        ensureRunning();
+        ServerSocketChannel server = ServerSocketChannel.open();
+        server.configureBlocking(false);
+        server.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        server.bind(bindAddress != null ? new InetSocketAddress(bindAddress, port) : new InetSocketAddress(port));
+
+        CompletableFuture<Void> registered = new CompletableFuture<>();
+        submit(() -> {
+            try {
+                server.register(selector, SelectionKey.OP_ACCEPT);
+                registered.complete(null);
+            } catch (ClosedChannelException e) {
+                registered.completeExceptionally(e);
+            }
+        });
+        registered.join();
+
+        return ((InetSocketAddress) server.getLocalAddress()).getPort();
+    }
+
+    /**
+     * Open a connection to a remote transport. The future completes once the
+     * TCP connection (and TLS handshake, if enabled) is established.
+     */
+    public CompletableFuture<Channel> connect(String host, int port) {
+        CompletableFuture<Channel> result = new CompletableFuture<>();
+        try {
+            ensureRunning();
+            SocketChannel socket = SocketChannel.open();
+            socket.configureBlocking(false);
+            socket.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            boolean connected = socket.connect(new InetSocketAddress(host, port));
+
+            submit(() -> {
+                try {
+                    Channel channel = new Channel(socket, true, host, port, result);
+                    channel.key = socket.register(selector, connected ? 0 : SelectionKey.OP_CONNECT, channel);
+                    if (connected) {
+                        channel.onConnected();
+                    }
+                } catch (IOException e) {
+                    closeQuietly(socket);
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (IOException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * Close all channels and stop the I/O thread
+     */
+    @Override
+    public void close() {
+        if (!running.compareAndSet(true, false)) {
+            return;
+        }
+        Selector sel = selector;
+        if (sel != null) {
+            sel.wakeup();
+        }
+        Thread thread = ioThread;
+        if (thread != null && thread != Thread.currentThread()) {
+            try {
+                thread.join(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public boolean isSecure() {
+        return sslContext != null;
+    }
+
+    public int getOpenChannels() {
+        return channels.size();
+    }
+
+    public long getBytesSent() {
+        return bytesSent.get();
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived.get();
+    }
+
+    // Selector loop
+
+    private void runLoop() {
+        try {
+            while (running.get()) {
+                Runnable task;
+                while ((task = pendingTasks.poll()) != null) {
+                    task.run();
+                }
+
+                selector.select(1000);
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    handleKey(key);
+                }
+            }
+        } catch (IOException e) {
+            logMessage("Selector failure: " + e.getMessage());
+        } finally {
+            shutdownSelector();
+        }
+    }
+
+    private void handleKey(SelectionKey key) {
+        if (!key.isValid()) {
+            return;
+        }
+        if (key.isAcceptable()) {
+            accept((ServerSocketChannel) key.channel());
+            return;
+        }
+
+        Channel channel = (Channel) key.attachment();
+        try {
+            if (key.isConnectable()) {
+                if (channel.socket.finishConnect()) {
+                    channel.onConnected();
+                }
+            }
+            if (key.isValid() && key.isReadable()) {
+                channel.onReadable();
+            }
+            if (key.isValid() && key.isWritable()) {
+                channel.flush();
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.closeInternal(e);
+        }
+    }
+
+    private void accept(ServerSocketChannel server) {
+        try {
+            SocketChannel socket = server.accept();
+            if (socket == null) {
+                return;
+            }
+            socket.configureBlocking(false);
+            socket.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            InetSocketAddress remote = (InetSocketAddress) socket.getRemoteAddress();
+            Channel channel = new Channel(socket, false, remote.getHostString(), remote.getPort(), null);
+            channel.key = socket.register(selector, SelectionKey.OP_READ, channel);
+            channel.onConnected();
+        } catch (IOException e) {
+            logMessage("Accept failed: " + e.getMessage());
+        }
+    }
+
+    private void shutdownSelector() {
+        for (Channel channel : channels) {
+            channel.closeInternal(new ClosedChannelException());
+        }
+        try {
+            for (SelectionKey key : selector.keys()) {
+                closeQuietly(key.channel());
+            }
+            selector.close();
+        } catch (IOException e) {
+            logMessage("Error closing selector: " + e.getMessage());
+        }
+    }
+
+    private void submit(Runnable task) {
+        pendingTasks.add(task);
+        selector.wakeup();
+    }
+
+    private void ensureRunning() throws IOException {
+        if (!running.get()) {
+            throw new IOException("ATP transport " + name + " is not running");
+        }
+    }
+
+    private static void closeQuietly(java.nio.channels.Channel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // ignore
+        }
+    }
+
+    private void logMessage(String message) {
+        System.out.println("[ATP-Transport] " + message);
+    }
+
+    /**
+     * A single multiplexed connection. Thread-safe for senders; all socket I/O
+     * happens on the selector thread.
+     */
+    public final class Channel {
+
+        private final SocketChannel socket;
+        private final boolean client;
+        private final String remoteHost;
+        private final int remotePort;
+        private final CompletableFuture<Channel> connectFuture;
+        private final AtomicInteger nextStreamId;
+
+        // Sender side
+        private final Queue<OutboundMessage> submissions = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+        private final AtomicLong queuedBytes = new AtomicLong(0);
+        private final ArrayDeque<OutboundMessage> active = new ArrayDeque<>();
+        private final ByteBuffer plainOut;
+        private OutboundMessage inFlight; // message whose final frame is being written
+
+        // Receiver side
+        private final ByteBuffer plainIn;
+        private final Map<Integer, ByteArrayOutputStream> partial = new HashMap<>();
+        private long partialBytes; // reassembly buffered over all streams of this channel
+
+        // TLS state (null when plaintext)
+        private final SSLEngine engine;
+        private final ByteBuffer netIn;
+        private final ByteBuffer netOut;
+        private boolean handshakeDone;
+
+        private final AtomicBoolean open = new AtomicBoolean(true);
+        private final AtomicLong messagesSent = new AtomicLong(0);
+        private final AtomicLong messagesReceived = new AtomicLong(0);
+        private SelectionKey key;
+        private volatile Object attachment;
+
+        private Channel(SocketChannel socket, boolean client, String remoteHost, int remotePort,
+                        CompletableFuture<Channel> connectFuture) {
+            this.socket = socket;
+            this.client = client;
+            this.remoteHost = remoteHost;
+            this.remotePort = remotePort;
+            this.connectFuture = connectFuture;
+            // Client-initiated streams are odd, server-initiated even; 0 is the control stream
+            this.nextStreamId = new AtomicInteger(client ? 1 : 2);
+
+            int frameCapacity = HEADER_SIZE + MAX_FRAME_PAYLOAD;
+            this.plainOut = ByteBuffer.allocate(frameCapacity);
+            plainOut.flip();
+
+            if (sslContext != null) {
+                this.engine = sslContext.createSSLEngine(remoteHost, remotePort);
+                engine.setUseClientMode(client);
+                int packetSize = engine.getSession().getPacketBufferSize();
+                int appSize = engine.getSession().getApplicationBufferSize();
+                this.netIn = ByteBuffer.allocate(packetSize);
+                this.netOut = ByteBuffer.allocate(packetSize);
+                netOut.flip();
+                this.plainIn = ByteBuffer.allocate(frameCapacity + appSize);
+            } else {
+                this.engine = null;
+                this.netIn = null;
+                this.netOut = null;
+                this.plainIn = ByteBuffer.allocate(frameCapacity * 2);
+            }
+        }
+
+        /**
+         * Allocate a new stream ID on this channel
+         */
+        public int openStream() {
+            return nextStreamId.getAndAdd(2);
+        }
+
+        /**
+         * Queue a message for sending on the given stream. The future completes
+         * once the last frame has been handed to the socket.
+         */
+        public CompletableFuture<Void> send(int streamId, byte[] message) {
+            return submitOutbound(streamId, message, true);
+        }
+
+        /**
+         * Open a blocking output stream that writes one message to the given
+         * stream incrementally. Data is framed every {@link #MAX_FRAME_PAYLOAD}
+         * bytes and the message ends when the stream is closed, so large payloads
+         * never need to be fully buffered by the sender. Writers block while more
+         * than {@code STREAM_HIGH_WATER_BYTES} are queued on this channel; must not
+         * be used from a listener callback.
+         */
+        public OutputStream openOutputStream(int streamId) {
+            return new StreamOutput(streamId);
+        }
+
+        private CompletableFuture<Void> submitOutbound(int streamId, byte[] data, boolean end) {
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            if (!open.get()) {
+                future.completeExceptionally(new ClosedChannelException());
+                return future;
+            }
+            submissions.add(new OutboundMessage(streamId, data, end, future));
+            queuedBytes.addAndGet(data.length);
+            scheduleFlush();
+            return future;
+        }
+
+        /**
+         * Close the channel, failing any messages not yet written
+         */
+        public void close() {
+            if (open.get()) {
+                submit(() -> closeInternal(null));
+            }
+        }
+
+        public boolean isOpen() {
+            return open.get();
+        }
+
+        public boolean isClient() {
+            return client;
+        }
+
+        public String getRemoteHost() {
+            return remoteHost;
+        }
+
+        public int getRemotePort() {
+            return remotePort;
+        }
+
+        public SocketAddress getLocalAddress() throws IOException {
+            return socket.getLocalAddress();
+        }
+
+        public long getQueuedBytes() {
+            return queuedBytes.get();
+        }
+
+        public long getMessagesSent() {
+            return messagesSent.get();
+        }
+
+        public long getMessagesReceived() {
+            return messagesReceived.get();
+        }
+
+        public Object getAttachment() {
+            return attachment;
+        }
+
+        public void setAttachment(Object attachment) {
+            this.attachment = attachment;
+        }
+
+        @Override
+        public String toString() {
+            return "ATPChannel{" + remoteHost + ":" + remotePort + (client ? ", client" : ", server")
+                + (engine != null ? ", tls" : "") + "}";
+        }
+
+        // Selector-thread methods
+
+        private void onConnected() throws IOException {
+            channels.add(this);
+            key.interestOps(SelectionKey.OP_READ);
+            if (engine != null) {
+                engine.beginHandshake();
+                flush();
+            } else {
+                handshakeDone = true;
+                completeConnect();
+            }
+        }
+
+        private void completeConnect() {
+            if (connectFuture != null) {
+                connectFuture.complete(this);
+            }
+            if (!submissions.isEmpty()) {
+                scheduleFlush();
+            }
+        }
+
+        private void scheduleFlush() {
+            if (flushScheduled.compareAndSet(false, true)) {
+                submit(() -> {
+                    flushScheduled.set(false);
+                    if (!open.get() || key == null || !key.isValid()) {
+                        return;
+                    }
+                    try {
+                        flush();
+                    } catch (IOException | RuntimeException e) {
+                        closeInternal(e);
+                    }
+                });
+            }
+        }
+
+        private void onReadable() throws IOException {
+            ByteBuffer target = engine != null ? netIn : plainIn;
+            int read = socket.read(target);
+            if (read < 0) {
+                closeInternal(null);
+                return;
+            }
+            bytesReceived.addAndGet(read);
+
+            if (engine != null) {
+                unwrapAll();
+            }
+            parseFrames();
+        }
+
+        private void unwrapAll() throws IOException {
+            while (netIn.position() > 0) {
+                netIn.flip();
+                SSLEngineResult result = engine.unwrap(netIn, plainIn);
+                netIn.compact();
+                runDelegatedTasks();
+
+                switch (result.getStatus()) {
+                    case BUFFER_UNDERFLOW:
+                        return;
+                    case BUFFER_OVERFLOW:
+                        parseFrames();
+                        if (plainIn.remaining() < engine.getSession().getApplicationBufferSize()) {
+                            throw new IOException("Frame buffer exhausted on " + this);
+                        }
+                        continue;
+                    case CLOSED:
+                        closeInternal(null);
+                        return;
+                    default:
+                        break;
+                }
+
+                checkHandshake(result);
+                if (engine.getHandshakeStatus() == SSLEngineResult.HandshakeStatus.NEED_WRAP) {
+                    flush();
+                }
+                if (result.bytesConsumed() == 0 && result.bytesProduced() == 0) {
+                    return;
+                }
+            }
+        }
+
+        private void parseFrames() throws IOException {
+            plainIn.flip();
+            try {
+                while (plainIn.remaining() >= HEADER_SIZE) {
+                    int start = plainIn.position();
+                    int length = plainIn.getInt(start);
+                    if (length < HEADER_SIZE - 4 || length > MAX_FRAME_PAYLOAD + HEADER_SIZE - 4) {
+                        throw new IOException("Invalid frame length " + length + " on " + this);
+                    }
+                    if (plainIn.remaining() < length + 4) {
+                        break;
+                    }
+                    int streamId = plainIn.getInt(start + 4);
+                    byte flags = plainIn.get(start + 8);
+                    int payloadLength = length - (HEADER_SIZE - 4);
+                    plainIn.position(start + HEADER_SIZE);
+                    onFrame(streamId, flags, payloadLength);
+                }
+            } finally {
+                plainIn.compact();
+            }
+        }
+
+        private void onFrame(int streamId, byte flags, int payloadLength) throws IOException {
+            ByteArrayOutputStream buffer = partial.get(streamId);
+            boolean end = (flags & FLAG_END) != 0;
+
+            if (buffer == null && end) {
+                // Single-frame message: no reassembly needed
+                byte[] message = new byte[payloadLength];
+                plainIn.get(message);
+                deliver(streamId, message);
+                return;
+            }
+
+            if (buffer == null) {
+                buffer = new ByteArrayOutputStream(Math.max(payloadLength * 2, 1024));
+                partial.put(streamId, buffer);
+            }
+            if (partialBytes + payloadLength > maxMessageBytes) {
+                throw new IOException("Message on stream " + streamId + " exceeds " + maxMessageBytes + " bytes");
+            }
+            buffer.write(plainIn.array(), plainIn.arrayOffset() + plainIn.position(), payloadLength);
+            plainIn.position(plainIn.position() + payloadLength);
+            partialBytes += payloadLength;
+
+            if (end) {
+                partial.remove(streamId);
+                partialBytes -= buffer.size();
+                deliver(streamId, buffer.toByteArray());
+            }
+        }
+
+        private void deliver(int streamId, byte[] message) {
+            messagesReceived.incrementAndGet();
+            try {
+                listener.onMessage(this, streamId, message);
+            } catch (RuntimeException e) {
+                logMessage("Listener failed for stream " + streamId + ": " + e.getMessage());
+            }
+        }
+
+        private void flush() throws IOException {
+            if (engine == null) {
+                flushPlain();
+            } else {
+                flushTls();
+            }
+        }
+
+        private void flushPlain() throws IOException {
+            while (true) {
+                if (!plainOut.hasRemaining() && !nextFrame()) {
+                    setWriteInterest(false);
+                    return;
+                }
+                bytesSent.addAndGet(socket.write(plainOut));
+                if (plainOut.hasRemaining()) {
+                    setWriteInterest(true);
+                    return;
+                }
+                completeWrittenMessage();
+            }
+        }
+
+        private void flushTls() throws IOException {
+            while (true) {
+                if (netOut.hasRemaining()) {
+                    bytesSent.addAndGet(socket.write(netOut));
+                    if (netOut.hasRemaining()) {
+                        setWriteInterest(true);
+                        return;
+                    }
+                }
+                completeWrittenMessage();
+
+                ByteBuffer source;
+                if (!handshakeDone) {
+                    if (engine.getHandshakeStatus() != SSLEngineResult.HandshakeStatus.NEED_WRAP) {
+                        setWriteInterest(false);
+                        return;
+                    }
+                    source = EMPTY;
+                } else {
+                    if (!plainOut.hasRemaining() && !nextFrame()) {
+                        setWriteInterest(false);
+                        return;
+                    }
+                    source = plainOut;
+                }
+
+                netOut.clear();
+                SSLEngineResult result = engine.wrap(source, netOut);
+                netOut.flip();
+                if (result.getStatus() == SSLEngineResult.Status.CLOSED) {
+                    throw new SSLException("TLS engine closed on " + this);
+                }
+                runDelegatedTasks();
+                checkHandshake(result);
+            }
+        }
+
+        private void checkHandshake(SSLEngineResult result) {
+            if (handshakeDone) {
+                return;
+            }
+            if (result.getHandshakeStatus() == SSLEngineResult.HandshakeStatus.FINISHED
+                    || engine.getHandshakeStatus() == SSLEngineResult.HandshakeStatus.NOT_HANDSHAKING) {
+                handshakeDone = true;
+                completeConnect();
+            }
+        }
+
+        private void runDelegatedTasks() {
+            Runnable task;
+            while ((task = engine.getDelegatedTask()) != null) {
+                task.run();
+            }
+        }
+
+        /**
+         * Encode the next frame into plainOut, rotating round-robin across streams
+         */
+        private boolean nextFrame() {
+            OutboundMessage submitted;
+            while ((submitted = submissions.poll()) != null) {
+                active.addLast(submitted);
+            }
+
+            OutboundMessage message = active.pollFirst();
+            if (message == null) {
+                return false;
+            }
+
+            int chunk = Math.min(MAX_FRAME_PAYLOAD, message.data.length - message.offset);
+            boolean last = message.offset + chunk == message.data.length;
+
+            plainOut.clear();
+            plainOut.putInt(HEADER_SIZE - 4 + chunk);
+            plainOut.putInt(message.streamId);
+            plainOut.put(last && message.end ? FLAG_END : 0);
+            plainOut.put(message.data, message.offset, chunk);
+            plainOut.flip();
+
+            message.offset += chunk;
+            queuedBytes.addAndGet(-chunk);
+            if (last) {
+                inFlight = message;
+            } else {
+                active.addLast(message);
+            }
+            return true;
+        }
+
+        private void completeWrittenMessage() {
+            if (inFlight != null && !plainOut.hasRemaining()) {
+                if (inFlight.end) {
+                    messagesSent.incrementAndGet();
+                }
+                inFlight.future.complete(null);
+                inFlight = null;
+            }
+        }
+
+        private void setWriteInterest(boolean enabled) {
+            if (key == null || !key.isValid()) {
+                return;
+            }
+            int ops = key.interestOps();
+            int updated = enabled ? ops | SelectionKey.OP_WRITE : ops & ~SelectionKey.OP_WRITE;
+            if (ops != updated) {
+                key.interestOps(updated);
+            }
+        }
+
+        private void closeInternal(Throwable cause) {
+            if (!open.compareAndSet(true, false)) {
+                return;
+            }
+            channels.remove(this);
+            if (key != null) {
+                key.cancel();
+            }
+            closeQuietly(socket);
+
+            Throwable failure = cause != null ? cause : new ClosedChannelException();
+            if (connectFuture != null && !connectFuture.isDone()) {
+                connectFuture.completeExceptionally(failure);
+            }
+            if (inFlight != null) {
+                inFlight.future.completeExceptionally(failure);
+                inFlight = null;
+            }
+            OutboundMessage pending;
+            while ((pending = active.poll()) != null) {
+                pending.future.completeExceptionally(failure);
+            }
+            while ((pending = submissions.poll()) != null) {
+                pending.future.completeExceptionally(failure);
+            }
+            partial.clear();
+            partialBytes = 0;
+
+            if (cause != null && !(cause instanceof ClosedChannelException)) {
+                logMessage("Channel " + this + " closed: " + cause.getMessage());
+            }
+            try {
+                listener.onChannelClosed(this);
+            } catch (RuntimeException e) {
+                logMessage("Listener failed on close: " + e.getMessage());
+            }
+        }
+
+        /**
+         * Frames written bytes as partial messages of one stream; each part is at
+         * most one frame so parts of the same stream keep their order in the
+         * round-robin rotation.
+         */
+        private final class StreamOutput extends OutputStream {
+            private final int streamId;
+            private final ArrayDeque<CompletableFuture<Void>> unacknowledged = new ArrayDeque<>();
+            private byte[] buffer = new byte[MAX_FRAME_PAYLOAD];
+            private int count;
+            private boolean closed;
+
+            StreamOutput(int streamId) {
+                this.streamId = streamId;
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                ensureOpen();
+                if (count == buffer.length) {
+                    emit(false);
+                }
+                buffer[count++] = (byte) b;
+            }
+
+            @Override
+            public void write(byte[] data, int offset, int length) throws IOException {
+                ensureOpen();
+                while (length > 0) {
+                    if (count == buffer.length) {
+                        emit(false);
+                    }
+                    int chunk = Math.min(length, buffer.length - count);
+                    System.arraycopy(data, offset, buffer, count, chunk);
+                    count += chunk;
+                    offset += chunk;
+                    length -= chunk;
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (closed) {
+                    return;
+                }
+                emit(true);
+                closed = true;
+                // Surface write failures of the final part to the caller
+                awaitWritten(unacknowledged.pollLast());
+                unacknowledged.clear();
+            }
+
+            private void emit(boolean end) throws IOException {
+                ensureOpen();
+                byte[] part = count == buffer.length ? buffer : Arrays.copyOf(buffer, count);
+                unacknowledged.addLast(submitOutbound(streamId, part, end));
+                buffer = end ? null : new byte[MAX_FRAME_PAYLOAD];
+                count = 0;
+
+                // Backpressure: wait for older parts to drain past the high-water mark
+                while (queuedBytes.get() > STREAM_HIGH_WATER_BYTES && unacknowledged.size() > 1) {
+                    awaitWritten(unacknowledged.pollFirst());
+                }
+                while (!unacknowledged.isEmpty() && unacknowledged.peekFirst().isDone()) {
+                    awaitWritten(unacknowledged.pollFirst());
+                }
+            }
+
+            private void ensureOpen() throws IOException {
+                if (closed) {
+                    throw new IOException("Stream " + streamId + " already closed");
+                }
+                if (!open.get()) {
+                    throw new ClosedChannelException();
+                }
+            }
+
+            private void awaitWritten(CompletableFuture<Void> future) throws IOException {
+                if (future == null) {
+                    return;
+                }
+                try {
+                    future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while streaming to " + Channel.this);
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+                }
+            }
+        }
+    }
+
+    private static final class OutboundMessage {
+        final int streamId;
+        final byte[] data;
+        final boolean end; // false for a partial message written through openOutputStream
+        final CompletableFuture<Void> future;
+        int offset;
+
+        OutboundMessage(int streamId, byte[] data, boolean end, CompletableFuture<Void> future) {
+            this.streamId = streamId;
+            this.data = data;
+            this.end = end;
+            this.future = future;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package io.amcp.mobility.atp;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Correlates outstanding requests with the responses that complete them.
+ *
+ * <p>Each registered key owns a {@link CompletableFuture} that is completed
+ * directly by whoever receives the matching response, typically the transport
+ * thread. Timeouts are scheduled on a shared timer and cancelled as soon as the
+ * future completes, so any number of outstanding requests costs no threads and
+ * responses are observed without polling delay.</p>
+ *
+ * @param <K> correlation key type
+ * @param <V> response type
+ */
+class CompletionRegistry<K, V> {
+
+    private final Map<K, CompletableFuture<V>> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService timer;
+
+    CompletionRegistry(ScheduledExecutorService timer) {
+        this.timer = timer;
+    }
+
+    /**
+     * Register a key and get the future its response will complete
+     *
+     * @param onTimeout produces the value the future completes with if no
+     *                  response arrives within the timeout
+     * @return the pending future, already failed if the timeout could not be scheduled
+     */
+    CompletableFuture<V> register(K key, long timeoutMs, Function<K, V> onTimeout) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        if (pending.putIfAbsent(key, future) != null) {
+            throw new IllegalStateException("Duplicate pending request: " + key);
+        }
+
+        ScheduledFuture<?> timeout;
+        try {
+            timeout = timer.schedule(() -> {
+                future.complete(onTimeout.apply(key));
+            }, timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Timer already shut down: nothing would ever complete the entry
+            pending.remove(key, future);
+            future.completeExceptionally(e);
+            return future;
+        }
+
+        future.whenComplete((value, error) -> {
+            pending.remove(key, future);
+            timeout.cancel(false);
+        });
+        return future;
+    }
+
+    /**
+     * Complete the future registered for the key
+     *
+     * @return false if nothing was pending for the key
+     */
+    boolean complete(K key, V value) {
+        CompletableFuture<V> future = pending.get(key);
+        return future != null && future.complete(value);
+    }
+
+    /**
+     * Fail the future registered for the key, e.g. when its request could not be sent
+     */
+    boolean fail(K key, Throwable error) {
+        CompletableFuture<V> future = pending.get(key);
+        return future != null && future.completeExceptionally(error);
+    }
+
+    /**
+     * Complete every pending future, e.g. on shutdown
+     */
+    void completeAll(Function<K, V> value) {
+        for (Map.Entry<K, CompletableFuture<V>> entry : pending.entrySet()) {
+            entry.getValue().complete(value.apply(entry.getKey()));
+        }
+    }
+
+    int size() {
+        return pending.size();
+    }
+}
@@ -0,0 +1,257 @@
+package io.amcp.mobility.atp;
+
+import io.amcp.core.AgentID;
+import io.amcp.mobility.snapshot.AgentSnapshot;
+import io.amcp.mobility.snapshot.EncodedSnapshot;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Fans one agent snapshot out to many ATP hosts.
+ *
+ * <p>The snapshot is encoded once; every target then receives the same
+ * compressed blocks behind its own envelope and replica identity. Connections
+ * to all targets are established while the snapshot is being encoded, and the
+ * transfers run in parallel on a bounded pool of sender threads, each writing
+ * to its own connection, so replicating to N hosts takes roughly one transfer
+ * time rather than N. Each target completes independently and a failure of one
+ * does not affect the others.</p>
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+public class ReplicationEngine implements AutoCloseable {
+
+    public static final int DEFAULT_MAX_PARALLEL_TRANSFERS = 16;
+
+    private final ATPManager manager;
+    private final ExecutorService senders;
+
+    ReplicationEngine(ATPManager manager) {
+        this(manager, DEFAULT_MAX_PARALLEL_TRANSFERS);
+    }
+
+    ReplicationEngine(ATPManager manager, int maxParallelTransfers) {
+        this.manager = manager;
+        AtomicInteger threadCount = new AtomicInteger(0);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            maxParallelTransfers, maxParallelTransfers, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+            runnable -> {
+                Thread thread = new Thread(runnable,
+                    "atp-replication-" + manager.getLocalHostId() + "-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        executor.allowCoreThreadTimeOut(true);
+        this.senders = executor;
+    }
+
+    /**
+     * Start replicating the snapshot to every target
+     */
+    public Replication replicate(AgentSnapshot snapshot, List<ReplicaTarget> targets) {
+        Objects.requireNonNull(snapshot, "snapshot");
+        long startedAt = System.currentTimeMillis();
+
+        CompletableFuture<EncodedSnapshot> encoded = CompletableFuture.supplyAsync(() -> {
+            try {
+                return EncodedSnapshot.encode(snapshot);
+            } catch (IOException e) {
+                throw new CompletionException("Failed to encode snapshot of " + snapshot.getAgentId(), e);
+            }
+        }, senders);
+
+        Map<ReplicaTarget, CompletableFuture<ReplicaResult>> replicas = new LinkedHashMap<>();
+        for (ReplicaTarget target : targets) {
+            AgentID replicaId = target.getReplicaId() != null
+                ? target.getReplicaId()
+                : new AgentID(snapshot.getAgentId().getName());
+            replicas.put(target, send(encoded, target, replicaId, startedAt));
+        }
+        return new Replication(snapshot.getAgentId(), replicas);
+    }
+
+    @Override
+    public void close() {
+        senders.shutdownNow();
+    }
+
+    private CompletableFuture<ReplicaResult> send(CompletableFuture<EncodedSnapshot> encoded, ReplicaTarget target,
+                                                  AgentID replicaId, long startedAt) {
+        String migrationId = manager.generateMigrationId(replicaId);
+        CompletableFuture<ATPConnectionPool.Lease> connection =
+            manager.getConnectionPool().acquire(target.getHost(), target.getPort());
+
+        // Encoding and connecting overlap; the lease is returned even if encoding failed
+        return connection.thenCompose(lease -> encoded.handleAsync((snapshot, error) -> {
+                try (lease) {
+                    if (error != null) {
+                        throw error instanceof CompletionException ? (CompletionException) error
+                                                                   : new CompletionException(error);
+                    }
+                    return transfer(snapshot, lease.getConnection(), target, replicaId, migrationId, startedAt);
+                }
+            }, senders))
+            .thenCompose(completion -> completion)
+            .exceptionally(error -> {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+                manager.logMessage("Replication of " + replicaId + " to " + target + " failed: " + cause.getMessage());
+                return new ReplicaResult(target, replicaId,
+                    ATPManager.ATPMigrationResult.failure(migrationId, cause.getMessage()),
+                    0, System.currentTimeMillis() - startedAt);
+            });
+    }
+
+    private CompletableFuture<ReplicaResult> transfer(EncodedSnapshot snapshot, ATPConnection connection,
+                                                      ReplicaTarget target, AgentID replicaId, String migrationId,
+                                                      long startedAt) {
+        // Register before sending so a fast response cannot be missed
+        CompletableFuture<ATPManager.ATPMigrationResult> completion = manager.registerMigration(migrationId);
+        long bytesSent;
+        try (OutputStream out = connection.openOutputStream(connection.openStream())) {
+            bytesSent = ATPManager.ATPMigrationRequest.writeTo(out, migrationId, manager.getLocalHostId(),
+                target.getHost(), System.currentTimeMillis(), snapshot, replicaId);
+        } catch (IOException e) {
+            manager.failMigration(migrationId, e);
+            throw new CompletionException("Failed to send replica to " + target, e);
+        }
+        return completion.thenApply(result ->
+            new ReplicaResult(target, replicaId, result, bytesSent, System.currentTimeMillis() - startedAt));
+    }
+
+    /**
+     * A host to replicate to and the identity the copy gets there
+     */
+    public static final class ReplicaTarget {
+        private final String host;
+        private final int port;
+        private final AgentID replicaId;
+
+        private ReplicaTarget(String host, int port, AgentID replicaId) {
+            this.host = Objects.requireNonNull(host, "host");
+            this.port = port;
+            this.replicaId = replicaId;
+        }
+
+        /**
+         * Target whose replica gets a fresh ID with the original agent's name
+         */
+        public static ReplicaTarget of(String host, int port) {
+            return new ReplicaTarget(host, port, null);
+        }
+
+        /**
+         * Target whose replica gets the given ID
+         */
+        public static ReplicaTarget of(String host, int port, AgentID replicaId) {
+            return new ReplicaTarget(host, port, replicaId);
+        }
+
+        public String getHost() { return host; }
+        public int getPort() { return port; }
+        public AgentID getReplicaId() { return replicaId; }
+
+        @Override
+        public String toString() {
+            return host + ":" + port;
+        }
+    }
+
+    /**
+     * Outcome of replicating to one target
+     */
+    public static final class ReplicaResult {
+        private final ReplicaTarget target;
+        private final AgentID replicaId;
+        private final ATPManager.ATPMigrationResult result;
+        private final long bytesSent;
+        private final long elapsedMillis;
+
+        public ReplicaResult(ReplicaTarget target, AgentID replicaId, ATPManager.ATPMigrationResult result,
+                             long bytesSent, long elapsedMillis) {
+            this.target = target;
+            this.replicaId = replicaId;
+            this.result = result;
+            this.bytesSent = bytesSent;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public ReplicaTarget getTarget() { return target; }
+        public AgentID getReplicaId() { return replicaId; }
+        public ATPManager.ATPMigrationResult getResult() { return result; }
+        public boolean isSuccess() { return result.isSuccess(); }
+        public long getBytesSent() { return bytesSent; }
+
+        /**
+         * Gets the time from the start of the replication until this target acknowledged
+         */
+        public long getElapsedMillis() { return elapsedMillis; }
+
+        @Override
+        public String toString() {
+            return String.format("ReplicaResult{target=%s, replica=%s, status=%s, bytes=%d, elapsed=%dms}",
+                               target, replicaId, result.getStatus(), bytesSent, elapsedMillis);
+        }
+    }
+
+    /**
+     * Handle on a running replication. Each target's future completes as soon
+     * as that target acknowledges or fails; futures never complete
+     * exceptionally, failures are reported in the {@link ReplicaResult}.
+     */
+    public static final class Replication {
+        private final AgentID agentId;
+        private final Map<ReplicaTarget, CompletableFuture<ReplicaResult>> replicas;
+
+        Replication(AgentID agentId, Map<ReplicaTarget, CompletableFuture<ReplicaResult>> replicas) {
+            this.agentId = agentId;
+            this.replicas = Collections.unmodifiableMap(replicas);
+        }
+
+        public AgentID getAgentId() {
+            return agentId;
+        }
+
+        /**
+         * Gets the completion of each target, in the order the targets were given
+         */
+        public Map<ReplicaTarget, CompletableFuture<ReplicaResult>> getReplicas() {
+            return replicas;
+        }
+
+        /**
+         * Completes with the results of all targets once every one has finished
+         */
+        public CompletableFuture<List<ReplicaResult>> whenAllComplete() {
+            List<CompletableFuture<ReplicaResult>> futures = new ArrayList<>(replicas.values());
+            return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .thenApply(v -> futures.stream().map(CompletableFuture::join).collect(Collectors.toList()));
+        }
+
+        /**
+         * Completes with the IDs of the replicas that were created successfully
+         */
+        public CompletableFuture<List<AgentID>> replicaIds() {
+            return whenAllComplete().thenApply(results -> results.stream()
+                .filter(ReplicaResult::isSuccess)
+                .map(ReplicaResult::getReplicaId)
+                .collect(Collectors.toList()));
+        }
+    }
+}
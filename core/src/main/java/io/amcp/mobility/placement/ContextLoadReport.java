@@ -0,0 +1,118 @@
+package io.amcp.mobility.placement;
+
+import io.amcp.core.AgentID;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Load of one agent context over a measurement window, as seen by the
+ * {@link PlacementEngine}.
+ *
+ * <p>CPU figures are in cores. Traffic is reported per receiving agent as the
+ * rate of events received from each sending agent, and may include agents
+ * that have recently left the context while their rates decay.</p>
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+public final class ContextLoadReport {
+
+    private final String contextId;
+    private final double cpuCapacityCores;
+    private final double cpuUsedCores;
+    private final int queueDepth;
+    private final Map<AgentID, AgentLoad> agentLoads;
+    private final Map<AgentID, Map<AgentID, Double>> traffic;
+    private final long capturedAt;
+
+    public ContextLoadReport(String contextId, double cpuCapacityCores, double cpuUsedCores, int queueDepth,
+                             Map<AgentID, AgentLoad> agentLoads, Map<AgentID, Map<AgentID, Double>> traffic) {
+        if (!(cpuCapacityCores > 0) || Double.isInfinite(cpuCapacityCores)) {
+            throw new IllegalArgumentException("CPU capacity must be positive and finite: " + cpuCapacityCores);
+        }
+        this.contextId = contextId;
+        this.cpuCapacityCores = cpuCapacityCores;
+        this.cpuUsedCores = cpuUsedCores;
+        this.queueDepth = queueDepth;
+        this.agentLoads = Collections.unmodifiableMap(new LinkedHashMap<>(agentLoads));
+        Map<AgentID, Map<AgentID, Double>> copy = new LinkedHashMap<>();
+        for (Map.Entry<AgentID, Map<AgentID, Double>> entry : traffic.entrySet()) {
+            copy.put(entry.getKey(), Collections.unmodifiableMap(new LinkedHashMap<>(entry.getValue())));
+        }
+        this.traffic = Collections.unmodifiableMap(copy);
+        this.capturedAt = System.currentTimeMillis();
+    }
+
+    public String getContextId() {
+        return contextId;
+    }
+
+    public double getCpuCapacityCores() {
+        return cpuCapacityCores;
+    }
+
+    public double getCpuUsedCores() {
+        return cpuUsedCores;
+    }
+
+    /**
+     * Gets the CPU in use as a fraction of capacity
+     */
+    public double getCpuUtilization() {
+        return cpuUsedCores / cpuCapacityCores;
+    }
+
+    /**
+     * Gets the peak number of deliveries in progress during the window
+     */
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    /**
+     * Gets the load of each agent resident in the context
+     */
+    public Map<AgentID, AgentLoad> getAgentLoads() {
+        return agentLoads;
+    }
+
+    /**
+     * Gets event rates per receiving agent and sender, in events per second
+     */
+    public Map<AgentID, Map<AgentID, Double>> getTraffic() {
+        return traffic;
+    }
+
+    public long getCapturedAt() {
+        return capturedAt;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ContextLoadReport{context=%s, cpu=%.2f/%.2f, queueDepth=%d, agents=%d}",
+                           contextId, cpuUsedCores, cpuCapacityCores, queueDepth, agentLoads.size());
+    }
+
+    /**
+     * Load contributed by a single agent
+     */
+    public static final class AgentLoad {
+        private final double cpuCores;
+        private final double eventRate;
+
+        public AgentLoad(double cpuCores, double eventRate) {
+            this.cpuCores = cpuCores;
+            this.eventRate = eventRate;
+        }
+
+        public double getCpuCores() { return cpuCores; }
+        public double getEventRate() { return eventRate; }
+
+        @Override
+        public String toString() {
+            return String.format("AgentLoad{cpu=%.3f, rate=%.1f/s}", cpuCores, eventRate);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package io.amcp.mobility.placement;
+
+import io.amcp.core.AgentID;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records the load an agent context's deliveries put on it: CPU time spent in
+ * event handlers, the number of deliveries in progress, and which agents send
+ * events to which.
+ *
+ * <p>Recording is lock-free and cheap enough for every delivery. Each call to
+ * {@link #report} closes a measurement window and folds it into exponentially
+ * smoothed rates, so a single quiet or busy window does not swing placement
+ * decisions. CPU time is per-thread CPU time where the JVM supports it, and
+ * wall time spent in the handler otherwise.</p>
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+public class LoadTracker {
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final boolean THREAD_CPU_TIME =
+        THREADS.isCurrentThreadCpuTimeSupported() && THREADS.isThreadCpuTimeEnabled();
+
+    /** Weight of the latest window in the smoothed rates */
+    private static final double SMOOTHING = 0.5;
+    /** Rates below this many events (or core-seconds) per second are dropped */
+    private static final double MIN_RATE = 0.01;
+
+    private final ConcurrentHashMap<AgentID, AgentCounters> window = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger(0);
+    private final AtomicInteger peakInFlight = new AtomicInteger(0);
+    private final LongAdder totalEvents = new LongAdder();
+    private final LongAdder totalHandlerNanos = new LongAdder();
+    private volatile double cpuCapacityCores;
+
+    // Smoothed state, guarded by this
+    private final Map<AgentID, Double> agentCpu = new HashMap<>();
+    private final Map<AgentID, Double> agentRate = new HashMap<>();
+    private final Map<AgentID, Map<AgentID, Double>> traffic = new HashMap<>();
+    private long windowStart = System.nanoTime();
+
+    public LoadTracker() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public LoadTracker(double cpuCapacityCores) {
+        setCpuCapacity(cpuCapacityCores);
+    }
+
+    /**
+     * Set the CPU capacity the context's utilization is measured against
+     */
+    public void setCpuCapacity(double cores) {
+        if (!(cores > 0) || Double.isInfinite(cores)) {
+            throw new IllegalArgumentException("CPU capacity must be positive and finite: " + cores);
+        }
+        this.cpuCapacityCores = cores;
+    }
+
+    public double getCpuCapacity() {
+        return cpuCapacityCores;
+    }
+
+    /**
+     * Mark the start of a delivery
+     *
+     * @return the start time to pass to {@link #recordHandled}
+     */
+    public long beginDelivery() {
+        int depth = inFlight.incrementAndGet();
+        peakInFlight.accumulateAndGet(depth, Math::max);
+        return now();
+    }
+
+    /**
+     * Record the handler call of a delivery returning, on the thread that made it
+     *
+     * @param sender the sending agent, or null if the event has none
+     */
+    public void recordHandled(AgentID receiver, AgentID sender, long startTime) {
+        long elapsed = Math.max(0, now() - startTime);
+        window.computeIfAbsent(receiver, id -> new AgentCounters()).record(sender, elapsed);
+        totalEvents.increment();
+        totalHandlerNanos.add(elapsed);
+    }
+
+    /**
+     * Mark a delivery as finished, once its handler's future completes
+     */
+    public void endDelivery() {
+        inFlight.decrementAndGet();
+    }
+
+    public long getTotalEvents() {
+        return totalEvents.sum();
+    }
+
+    /**
+     * Gets the average handler time in milliseconds
+     */
+    public double getAverageHandlerMillis() {
+        long events = totalEvents.sum();
+        return events == 0 ? 0.0 : totalHandlerNanos.sum() / 1_000_000.0 / events;
+    }
+
+    /**
+     * Close the current window and report the smoothed load
+     *
+     * @param residents agents currently running in the context
+     */
+    public synchronized ContextLoadReport report(String contextId, Set<AgentID> residents) {
+        long nowNanos = System.nanoTime();
+        double seconds = Math.max(1e-3, (nowNanos - windowStart) / 1e9);
+        windowStart = nowNanos;
+
+        Map<AgentID, Double> windowCpu = new HashMap<>();
+        Map<AgentID, Double> windowRate = new HashMap<>();
+        Map<AgentID, Map<AgentID, Double>> windowTraffic = new HashMap<>();
+        Iterator<Map.Entry<AgentID, AgentCounters>> it = window.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<AgentID, AgentCounters> entry = it.next();
+            AgentCounters counters = entry.getValue();
+            long events = counters.events.sumThenReset();
+            if (events == 0) {
+                // Idle since the last report; a racing delivery only loses one count
+                it.remove();
+                continue;
+            }
+            windowCpu.put(entry.getKey(), counters.nanos.sumThenReset() / 1e9 / seconds);
+            windowRate.put(entry.getKey(), events / seconds);
+            Map<AgentID, Double> senders = new HashMap<>();
+            counters.senders.forEach((sender, count) -> {
+                long sent = count.sumThenReset();
+                if (sent > 0) {
+                    senders.put(sender, sent / seconds);
+                }
+            });
+            counters.senders.values().removeIf(count -> count.sum() == 0);
+            windowTraffic.put(entry.getKey(), senders);
+        }
+
+        smooth(agentCpu, windowCpu);
+        smooth(agentRate, windowRate);
+        Set<AgentID> receivers = new HashSet<>(traffic.keySet());
+        receivers.addAll(windowTraffic.keySet());
+        for (AgentID receiver : receivers) {
+            Map<AgentID, Double> rates = traffic.computeIfAbsent(receiver, id -> new HashMap<>());
+            smooth(rates, windowTraffic.getOrDefault(receiver, Map.of()));
+            if (rates.isEmpty()) {
+                traffic.remove(receiver);
+            }
+        }
+
+        // Only residents count towards CPU in use: the decaying history of an
+        // agent that left would otherwise keep a drained context looking hot
+        double cpuUsed = 0.0;
+        Map<AgentID, ContextLoadReport.AgentLoad> loads = new LinkedHashMap<>();
+        for (AgentID agentId : residents) {
+            double cores = agentCpu.getOrDefault(agentId, 0.0);
+            cpuUsed += cores;
+            loads.put(agentId, new ContextLoadReport.AgentLoad(cores, agentRate.getOrDefault(agentId, 0.0)));
+        }
+        int queueDepth = peakInFlight.getAndSet(inFlight.get());
+        return new ContextLoadReport(contextId, cpuCapacityCores, cpuUsed, queueDepth, loads, traffic);
+    }
+
+    private static void smooth(Map<AgentID, Double> smoothed, Map<AgentID, Double> latest) {
+        Set<AgentID> keys = new HashSet<>(smoothed.keySet());
+        keys.addAll(latest.keySet());
+        for (AgentID key : keys) {
+            double value = SMOOTHING * latest.getOrDefault(key, 0.0)
+                + (1 - SMOOTHING) * smoothed.getOrDefault(key, 0.0);
+            if (value < MIN_RATE) {
+                smoothed.remove(key);
+            } else {
+                smoothed.put(key, value);
+            }
+        }
+    }
+
+    private static long now() {
+        return THREAD_CPU_TIME ? THREADS.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+
+    private static final class AgentCounters {
+        final LongAdder events = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+        final ConcurrentHashMap<AgentID, LongAdder> senders = new ConcurrentHashMap<>();
+
+        void record(AgentID sender, long elapsedNanos) {
+            events.increment();
+            nanos.add(elapsedNanos);
+            if (sender != null) {
+                senders.computeIfAbsent(sender, id -> new LongAdder()).increment();
+            }
+        }
+    }
+}
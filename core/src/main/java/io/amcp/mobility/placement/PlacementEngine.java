@@ -0,0 +1,456 @@
+package io.amcp.mobility.placement;
+
+import io.amcp.core.Agent;
+import io.amcp.core.AgentID;
+import io.amcp.core.MobileAgent;
+import io.amcp.mobility.MobilityAssessment;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Load-driven placement of agents across contexts.
+ *
+ * <p>Each round the engine collects a {@link ContextLoadReport} from every
+ * context and proposes migrations of two kinds:</p>
+ * <ul>
+ *   <li>{@link PlacementProposal.Reason#DRAIN DRAIN} moves agents out of hot
+ *   contexts, preferring agents whose move loses the least traffic with their
+ *   peers, until the context is projected to fall below the low watermark</li>
+ *   <li>{@link PlacementProposal.Reason#CO_LOCATE CO_LOCATE} moves an agent to
+ *   the context holding the agents it exchanges most events with</li>
+ * </ul>
+ *
+ * <p>Proposals are chosen greedily, one at a time, against a model of the
+ * cluster that is updated after each choice, so two chatty agents are not both
+ * moved towards each other and several agents are not all drained into the same
+ * context. See {@link PlacementPolicy} for the thresholds that prevent
+ * thrashing. {@link #propose} only computes proposals; {@link #rebalance}
+ * also executes them, skipping {@link MobileAgent}s whose
+ * {@link MobileAgent#assessMobility mobility assessment} is not feasible.</p>
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+public class PlacementEngine {
+
+    private final PlacementPolicy policy;
+    private final Set<String> hotContexts = new HashSet<>(); // guarded by this
+    private final ConcurrentHashMap<AgentID, Long> lastMoved = new ConcurrentHashMap<>();
+
+    private final AtomicLong rounds = new AtomicLong(0);
+    private final AtomicLong proposedMigrations = new AtomicLong(0);
+    private final AtomicLong completedMigrations = new AtomicLong(0);
+    private final AtomicLong failedMigrations = new AtomicLong(0);
+
+    private volatile ScheduledExecutorService scheduler;
+
+    public PlacementEngine() {
+        this(PlacementPolicy.defaultPolicy());
+    }
+
+    public PlacementEngine(PlacementPolicy policy) {
+        this.policy = Objects.requireNonNull(policy, "policy");
+    }
+
+    public PlacementPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Collect load reports from the contexts and compute the migrations that
+     * should run, without executing them
+     */
+    public List<PlacementProposal> propose(Collection<? extends PlacementSite> sites) {
+        List<ContextLoadReport> reports = new ArrayList<>();
+        for (PlacementSite site : sites) {
+            reports.add(site.reportLoad());
+        }
+        return evaluate(reports);
+    }
+
+    /**
+     * Compute proposals and execute them
+     *
+     * @return future of the proposals whose migration completed
+     */
+    public CompletableFuture<List<PlacementProposal>> rebalance(Collection<? extends PlacementSite> sites) {
+        Map<String, PlacementSite> byId = new HashMap<>();
+        for (PlacementSite site : sites) {
+            byId.put(site.getContextId(), site);
+        }
+        List<PlacementProposal> proposals = propose(sites);
+
+        List<CompletableFuture<PlacementProposal>> migrations = new ArrayList<>();
+        for (PlacementProposal proposal : proposals) {
+            recordMigration(proposal.getAgentId());
+            migrations.add(execute(byId.get(proposal.getSourceContext()), proposal));
+        }
+        return CompletableFuture.allOf(migrations.toArray(new CompletableFuture[0]))
+            .thenApply(v -> migrations.stream()
+                .map(CompletableFuture::join)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Compute proposals from load reports
+     */
+    public synchronized List<PlacementProposal> evaluate(Collection<ContextLoadReport> reports) {
+        rounds.incrementAndGet();
+        long now = System.currentTimeMillis();
+        lastMoved.values().removeIf(movedAt -> now - movedAt >= policy.getAgentCooldownMillis());
+
+        ClusterModel model = new ClusterModel(reports);
+        updateHotContexts(model);
+
+        Set<AgentID> frozen = new HashSet<>(model.duplicates);
+        frozen.addAll(lastMoved.keySet());
+
+        List<PlacementProposal> proposals = new ArrayList<>();
+        while (proposals.size() < policy.getMaxMigrationsPerRound()) {
+            Candidate best = null;
+            for (Map.Entry<AgentID, SiteModel> entry : model.location.entrySet()) {
+                AgentID agentId = entry.getKey();
+                if (frozen.contains(agentId)) {
+                    continue;
+                }
+                Candidate candidate = bestMove(model, agentId, entry.getValue());
+                if (candidate != null && (best == null || candidate.isBetterThan(best))) {
+                    best = candidate;
+                }
+            }
+            if (best == null) {
+                break;
+            }
+            model.move(best.agentId, best.source, best.target);
+            frozen.add(best.agentId);
+            proposals.add(new PlacementProposal(best.agentId, best.source.contextId, best.target.contextId,
+                                                best.reason, best.trafficGain));
+        }
+
+        proposedMigrations.addAndGet(proposals.size());
+        for (PlacementProposal proposal : proposals) {
+            logMessage("Proposing " + proposal);
+        }
+        return proposals;
+    }
+
+    /**
+     * Start the agent's cooldown, for callers that execute proposals themselves
+     */
+    public void recordMigration(AgentID agentId) {
+        lastMoved.put(agentId, System.currentTimeMillis());
+    }
+
+    public synchronized boolean isHot(String contextId) {
+        return hotContexts.contains(contextId);
+    }
+
+    /**
+     * Rebalance periodically on a background thread
+     *
+     * @param sites supplies the contexts to balance on each round
+     */
+    public synchronized void start(Supplier<? extends Collection<? extends PlacementSite>> sites, long intervalMillis) {
+        if (scheduler != null) {
+            throw new IllegalStateException("Placement engine already started");
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "placement-engine");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Fixed delay: a round starts only after the previous round's migrations finished
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                rebalance(sites.get()).join();
+            } catch (RuntimeException e) {
+                logMessage("Rebalance round failed: " + e.getMessage());
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    public synchronized PlacementStatistics getStatistics() {
+        return new PlacementStatistics(rounds.get(), proposedMigrations.get(), completedMigrations.get(),
+                                       failedMigrations.get(), hotContexts.size());
+    }
+
+    private void updateHotContexts(ClusterModel model) {
+        hotContexts.retainAll(model.sites.keySet());
+        for (SiteModel site : model.sites.values()) {
+            double load = site.load();
+            if (load >= policy.getHighWatermark()) {
+                hotContexts.add(site.contextId);
+            } else if (load < policy.getLowWatermark()) {
+                hotContexts.remove(site.contextId);
+            }
+        }
+    }
+
+    private Candidate bestMove(ClusterModel model, AgentID agentId, SiteModel source) {
+        ContextLoadReport.AgentLoad load = source.agents.get(agentId);
+        boolean draining = hotContexts.contains(source.contextId)
+            && source.load() > policy.getLowWatermark()
+            && (load.getCpuCores() > 0 || load.getEventRate() > 0);
+        double sourceAffinity = model.affinity(agentId, source);
+
+        Candidate best = null;
+        for (SiteModel target : model.sites.values()) {
+            if (target == source || hotContexts.contains(target.contextId)) {
+                continue;
+            }
+            double targetLoad = target.loadWith(load, source.queueShare(load));
+            if (targetLoad > policy.getLowWatermark()) {
+                continue;
+            }
+            double targetAffinity = model.affinity(agentId, target);
+            double gain = targetAffinity - sourceAffinity;
+
+            Candidate candidate;
+            if (draining) {
+                candidate = new Candidate(agentId, source, target, PlacementProposal.Reason.DRAIN, gain, targetLoad);
+            } else if (gain >= policy.getMinTrafficGain()
+                    && targetAffinity >= sourceAffinity * (1 + policy.getAffinityMargin())) {
+                candidate = new Candidate(agentId, source, target, PlacementProposal.Reason.CO_LOCATE, gain, targetLoad);
+            } else {
+                continue;
+            }
+            if (best == null || candidate.isBetterThan(best)) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    private CompletableFuture<PlacementProposal> execute(PlacementSite site, PlacementProposal proposal) {
+        if (site == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        Agent agent = site.getAgent(proposal.getAgentId());
+        if (agent == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Boolean> feasible = agent instanceof MobileAgent
+            ? ((MobileAgent) agent).assessMobility(proposal.getTargetContext()).thenApply(MobilityAssessment::isFeasible)
+            : CompletableFuture.completedFuture(true);
+
+        return feasible.thenCompose(ok -> {
+            if (!ok) {
+                logMessage("Skipping " + proposal.getAgentId() + ": migration to "
+                           + proposal.getTargetContext() + " assessed as not feasible");
+                return CompletableFuture.<PlacementProposal>completedFuture(null);
+            }
+            return site.migrateAgent(proposal.getAgentId(), proposal.getTargetContext(), policy.getMigrationOptions())
+                .thenApply(v -> {
+                    completedMigrations.incrementAndGet();
+                    return proposal;
+                });
+        }).exceptionally(error -> {
+            failedMigrations.incrementAndGet();
+            logMessage("Migration of " + proposal.getAgentId() + " failed: " + error.getMessage());
+            return null;
+        });
+    }
+
+    private void logMessage(String message) {
+        System.out.println("[PLACEMENT] " + message);
+    }
+
+    /**
+     * Mutable view of the cluster used while choosing the moves of one round
+     */
+    private final class ClusterModel {
+        final Map<String, SiteModel> sites = new LinkedHashMap<>();
+        final Map<AgentID, SiteModel> location = new LinkedHashMap<>();
+        final Set<AgentID> duplicates = new HashSet<>();
+        final Map<AgentID, Map<AgentID, Double>> affinity = new HashMap<>();
+
+        ClusterModel(Collection<ContextLoadReport> reports) {
+            for (ContextLoadReport report : reports) {
+                SiteModel site = new SiteModel(report);
+                sites.put(report.getContextId(), site);
+                for (AgentID agentId : report.getAgentLoads().keySet()) {
+                    // An agent reported twice is mid-migration; leave it alone
+                    if (location.putIfAbsent(agentId, site) != null) {
+                        duplicates.add(agentId);
+                    }
+                }
+                // Traffic is symmetric for placement: both directions cross the same boundary
+                report.getTraffic().forEach((receiver, senders) -> senders.forEach((sender, rate) -> {
+                    if (!receiver.equals(sender)) {
+                        affinity.computeIfAbsent(receiver, id -> new HashMap<>()).merge(sender, rate, Double::sum);
+                        affinity.computeIfAbsent(sender, id -> new HashMap<>()).merge(receiver, rate, Double::sum);
+                    }
+                }));
+            }
+        }
+
+        /**
+         * Events per second the agent exchanges with agents placed at the site
+         */
+        double affinity(AgentID agentId, SiteModel site) {
+            Map<AgentID, Double> peers = affinity.get(agentId);
+            if (peers == null) {
+                return 0.0;
+            }
+            double total = 0.0;
+            for (Map.Entry<AgentID, Double> peer : peers.entrySet()) {
+                if (location.get(peer.getKey()) == site) {
+                    total += peer.getValue();
+                }
+            }
+            return total;
+        }
+
+        void move(AgentID agentId, SiteModel source, SiteModel target) {
+            ContextLoadReport.AgentLoad load = source.agents.remove(agentId);
+            double queueShare = source.queueShare(load);
+            source.cpuUsed -= load.getCpuCores();
+            source.eventRate -= load.getEventRate();
+            source.queueDepth -= queueShare;
+            target.agents.put(agentId, load);
+            target.cpuUsed += load.getCpuCores();
+            target.eventRate += load.getEventRate();
+            target.queueDepth += queueShare;
+            location.put(agentId, target);
+        }
+    }
+
+    private final class SiteModel {
+        final String contextId;
+        final double cpuCapacity;
+        final Map<AgentID, ContextLoadReport.AgentLoad> agents;
+        double cpuUsed;
+        double queueDepth;
+        double eventRate;
+
+        SiteModel(ContextLoadReport report) {
+            this.contextId = report.getContextId();
+            this.cpuCapacity = report.getCpuCapacityCores();
+            this.agents = new LinkedHashMap<>(report.getAgentLoads());
+            this.cpuUsed = report.getCpuUsedCores();
+            this.queueDepth = report.getQueueDepth();
+            for (ContextLoadReport.AgentLoad load : agents.values()) {
+                eventRate += load.getEventRate();
+            }
+        }
+
+        double load() {
+            return Math.max(cpuShare(cpuUsed), queueDepth / policy.getQueueDepthLimit());
+        }
+
+        /**
+         * CPU as a fraction of capacity; a site without usable capacity counts as
+         * fully loaded, so it is drained and never chosen as a target
+         */
+        double cpuShare(double cores) {
+            if (!(cpuCapacity > 0) || Double.isInfinite(cpuCapacity)) {
+                return Double.POSITIVE_INFINITY;
+            }
+            return cores / cpuCapacity;
+        }
+
+        /**
+         * Load after taking on an agent and its share of another site's queue
+         */
+        double loadWith(ContextLoadReport.AgentLoad load, double queueShare) {
+            return Math.max(cpuShare(cpuUsed + load.getCpuCores()),
+                            (queueDepth + queueShare) / policy.getQueueDepthLimit());
+        }
+
+        /**
+         * Part of this site's queue attributed to an agent, by its share of the event rate
+         */
+        double queueShare(ContextLoadReport.AgentLoad load) {
+            return eventRate > 0 ? queueDepth * load.getEventRate() / eventRate : 0.0;
+        }
+    }
+
+    private static final class Candidate {
+        final AgentID agentId;
+        final SiteModel source;
+        final SiteModel target;
+        final PlacementProposal.Reason reason;
+        final double trafficGain;
+        final double targetLoad;
+
+        Candidate(AgentID agentId, SiteModel source, SiteModel target, PlacementProposal.Reason reason,
+                  double trafficGain, double targetLoad) {
+            this.agentId = agentId;
+            this.source = source;
+            this.target = target;
+            this.reason = reason;
+            this.trafficGain = trafficGain;
+            this.targetLoad = targetLoad;
+        }
+
+        /**
+         * Draining beats co-location; then more traffic gained; then the
+         * cooler destination
+         */
+        boolean isBetterThan(Candidate other) {
+            if (reason != other.reason) {
+                return reason == PlacementProposal.Reason.DRAIN;
+            }
+            if (trafficGain != other.trafficGain) {
+                return trafficGain > other.trafficGain;
+            }
+            return targetLoad < other.targetLoad;
+        }
+    }
+
+    /**
+     * Placement counters
+     */
+    public static class PlacementStatistics {
+        private final long rounds;
+        private final long proposedMigrations;
+        private final long completedMigrations;
+        private final long failedMigrations;
+        private final int hotContexts;
+
+        public PlacementStatistics(long rounds, long proposedMigrations, long completedMigrations,
+                                   long failedMigrations, int hotContexts) {
+            this.rounds = rounds;
+            this.proposedMigrations = proposedMigrations;
+            this.completedMigrations = completedMigrations;
+            this.failedMigrations = failedMigrations;
+            this.hotContexts = hotContexts;
+        }
+
+        public long getRounds() { return rounds; }
+        public long getProposedMigrations() { return proposedMigrations; }
+        public long getCompletedMigrations() { return completedMigrations; }
+        public long getFailedMigrations() { return failedMigrations; }
+        public int getHotContexts() { return hotContexts; }
+
+        @Override
+        public String toString() {
+            return String.format("PlacementStatistics{rounds=%d, proposed=%d, completed=%d, failed=%d, hot=%d}",
+                               rounds, proposedMigrations, completedMigrations, failedMigrations, hotContexts);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package io.amcp.mobility.placement;
+
+import io.amcp.mobility.MigrationOptions;
+
+/**
+ * Thresholds that govern when the {@link PlacementEngine} moves agents.
+ *
+ * <p>A context's load is the larger of its CPU utilization and its queue depth
+ * relative to {@link #getQueueDepthLimit()}. A context becomes hot when its
+ * load reaches the high watermark and stays hot until it falls below the low
+ * watermark; migrations never push a destination above the low watermark. The
+ * gap between the two, together with the minimum traffic gain, the affinity
+ * margin and the per-agent cooldown, keeps agents from bouncing between
+ * contexts on small fluctuations.</p>
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+public final class PlacementPolicy {
+
+    private final double highWatermark;
+    private final double lowWatermark;
+    private final int queueDepthLimit;
+    private final double minTrafficGain;
+    private final double affinityMargin;
+    private final int maxMigrationsPerRound;
+    private final long agentCooldownMillis;
+    private final MigrationOptions migrationOptions;
+
+    private PlacementPolicy(Builder builder) {
+        this.highWatermark = builder.highWatermark;
+        this.lowWatermark = builder.lowWatermark;
+        this.queueDepthLimit = builder.queueDepthLimit;
+        this.minTrafficGain = builder.minTrafficGain;
+        this.affinityMargin = builder.affinityMargin;
+        this.maxMigrationsPerRound = builder.maxMigrationsPerRound;
+        this.agentCooldownMillis = builder.agentCooldownMillis;
+        this.migrationOptions = builder.migrationOptions;
+    }
+
+    public static PlacementPolicy defaultPolicy() {
+        return builder().build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public double getHighWatermark() { return highWatermark; }
+    public double getLowWatermark() { return lowWatermark; }
+    public int getQueueDepthLimit() { return queueDepthLimit; }
+    public double getMinTrafficGain() { return minTrafficGain; }
+    public double getAffinityMargin() { return affinityMargin; }
+    public int getMaxMigrationsPerRound() { return maxMigrationsPerRound; }
+    public long getAgentCooldownMillis() { return agentCooldownMillis; }
+    public MigrationOptions getMigrationOptions() { return migrationOptions; }
+
+    /**
+     * Builder for placement policies
+     */
+    public static final class Builder {
+        private double highWatermark = 0.85;
+        private double lowWatermark = 0.65;
+        private int queueDepthLimit = 64;
+        private double minTrafficGain = 1.0;
+        private double affinityMargin = 0.25;
+        private int maxMigrationsPerRound = 4;
+        private long agentCooldownMillis = 60000;
+        private MigrationOptions migrationOptions = MigrationOptions.defaultOptions();
+
+        private Builder() {
+        }
+
+        /**
+         * Load fraction at which a context starts being drained, and the one
+         * below which it stops
+         */
+        public Builder watermarks(double low, double high) {
+            if (low <= 0 || high <= low) {
+                throw new IllegalArgumentException("Watermarks must satisfy 0 < low < high: " + low + ", " + high);
+            }
+            this.lowWatermark = low;
+            this.highWatermark = high;
+            return this;
+        }
+
+        /**
+         * Queue depth that counts as full load
+         */
+        public Builder queueDepthLimit(int limit) {
+            if (limit <= 0) {
+                throw new IllegalArgumentException("Queue depth limit must be positive: " + limit);
+            }
+            this.queueDepthLimit = limit;
+            return this;
+        }
+
+        /**
+         * Minimum events per second a co-location move must bring next to the agent
+         */
+        public Builder minTrafficGain(double eventsPerSecond) {
+            this.minTrafficGain = eventsPerSecond;
+            return this;
+        }
+
+        /**
+         * Fraction by which traffic with the destination must exceed traffic
+         * with the current context before an agent is co-located
+         */
+        public Builder affinityMargin(double margin) {
+            this.affinityMargin = margin;
+            return this;
+        }
+
+        public Builder maxMigrationsPerRound(int max) {
+            if (max <= 0) {
+                throw new IllegalArgumentException("Max migrations per round must be positive: " + max);
+            }
+            this.maxMigrationsPerRound = max;
+            return this;
+        }
+
+        /**
+         * Minimum time between two moves of the same agent
+         */
+        public Builder agentCooldownMillis(long millis) {
+            this.agentCooldownMillis = millis;
+            return this;
+        }
+
+        public Builder migrationOptions(MigrationOptions options) {
+            this.migrationOptions = options;
+            return this;
+        }
+
+        public PlacementPolicy build() {
+            return new PlacementPolicy(this);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package io.amcp.mobility.placement;
+
+import io.amcp.core.AgentID;
+
+/**
+ * A migration proposed by the {@link PlacementEngine}.
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+public final class PlacementProposal {
+
+    /**
+     * Why an agent should move
+     */
+    public enum Reason {
+        /** Relieve a context whose load is above the high watermark */
+        DRAIN,
+        /** Run the agent next to the agents it exchanges most events with */
+        CO_LOCATE
+    }
+
+    private final AgentID agentId;
+    private final String sourceContext;
+    private final String targetContext;
+    private final Reason reason;
+    private final double trafficGain;
+
+    public PlacementProposal(AgentID agentId, String sourceContext, String targetContext,
+                             Reason reason, double trafficGain) {
+        this.agentId = agentId;
+        this.sourceContext = sourceContext;
+        this.targetContext = targetContext;
+        this.reason = reason;
+        this.trafficGain = trafficGain;
+    }
+
+    public AgentID getAgentId() {
+        return agentId;
+    }
+
+    public String getSourceContext() {
+        return sourceContext;
+    }
+
+    public String getTargetContext() {
+        return targetContext;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    /**
+     * Gets the change in events per second exchanged with agents in the same
+     * context; negative when draining separates an agent from its peers
+     */
+    public double getTrafficGain() {
+        return trafficGain;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PlacementProposal{agent=%s, %s -> %s, reason=%s, trafficGain=%.1f/s}",
+                           agentId, sourceContext, targetContext, reason, trafficGain);
+    }
+}
@@ -0,0 +1,29 @@
+package io.amcp.mobility.placement;
+
+import io.amcp.core.Agent;
+import io.amcp.core.AgentID;
+import io.amcp.mobility.MigrationOptions;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * An agent context the {@link PlacementEngine} can observe and move agents
+ * out of. The methods other than {@link #reportLoad()} match those of
+ * {@link io.amcp.core.AgentContext}, so contexts implement this directly.
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+public interface PlacementSite {
+
+    String getContextId();
+
+    /**
+     * Close the current measurement window and report the context's load
+     */
+    ContextLoadReport reportLoad();
+
+    Agent getAgent(AgentID agentId);
+
+    CompletableFuture<Void> migrateAgent(AgentID agentId, String destinationContext, MigrationOptions options);
+}
@@ -0,0 +1,131 @@
+package io.amcp.mobility.snapshot;
+
+import io.amcp.core.AgentID;
+import io.amcp.mobility.MobilityState;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Point-in-time capture of an agent's transferable state.
+ *
+ * <p>State values should be of the types with a compact encoding in
+ * {@link SnapshotFormat} (primitives, strings, byte arrays, lists and maps of
+ * those); other {@link Serializable} values are carried via Java
+ * serialization.</p>
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+public final class AgentSnapshot implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final AgentID agentId;
+    private final String agentType;
+    private final MobilityState mobilityState;
+    private final long capturedAt;
+    private final Map<String, Object> state;
+
+    public AgentSnapshot(AgentID agentId, String agentType, MobilityState mobilityState,
+                         Map<String, Object> state) {
+        this(agentId, agentType, mobilityState, System.currentTimeMillis(), state);
+    }
+
+    public AgentSnapshot(AgentID agentId, String agentType, MobilityState mobilityState,
+                         long capturedAt, Map<String, Object> state) {
+        this.agentId = agentId;
+        this.agentType = agentType;
+        this.mobilityState = mobilityState;
+        this.capturedAt = capturedAt;
+        this.state = Collections.unmodifiableMap(
+            state != null ? new LinkedHashMap<>(state) : new LinkedHashMap<>());
+    }
+
+    /**
+     * Creates a snapshot carrying no agent state
+     */
+    public static AgentSnapshot empty(AgentID agentId, MobilityState mobilityState) {
+        return new AgentSnapshot(agentId, null, mobilityState, null);
+    }
+
+    public AgentID getAgentId() {
+        return agentId;
+    }
+
+    public String getAgentType() {
+        return agentType;
+    }
+
+    public MobilityState getMobilityState() {
+        return mobilityState;
+    }
+
+    public long getCapturedAt() {
+        return capturedAt;
+    }
+
+    public Map<String, Object> getState() {
+        return state;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("AgentSnapshot{agent=%s, type=%s, state=%s, entries=%d}",
+                           agentId, agentType, mobilityState, state.size());
+    }
+
+    /**
+     * Mutable accumulator used while decoding a snapshot
+     */
+    public static final class Builder {
+        private String agentIdValue;
+        private String agentName;
+        private String agentType;
+        private MobilityState mobilityState;
+        private long capturedAt;
+        private final Map<String, Object> state = new LinkedHashMap<>();
+
+        public Builder agentId(String id) {
+            this.agentIdValue = id;
+            return this;
+        }
+
+        public Builder agentName(String name) {
+            this.agentName = name;
+            return this;
+        }
+
+        public Builder agentType(String type) {
+            this.agentType = type;
+            return this;
+        }
+
+        public Builder mobilityState(MobilityState mobilityState) {
+            this.mobilityState = mobilityState;
+            return this;
+        }
+
+        public Builder capturedAt(long capturedAt) {
+            this.capturedAt = capturedAt;
+            return this;
+        }
+
+        public Builder put(String key, Object value) {
+            state.put(key, value);
+            return this;
+        }
+
+        public Builder remove(String key) {
+            state.remove(key);
+            return this;
+        }
+
+        public AgentSnapshot build() {
+            AgentID agentId = agentIdValue != null ? new AgentID(agentIdValue, agentName) : null;
+            return new AgentSnapshot(agentId, agentType, mobilityState, capturedAt, state);
+        }
+    }
+}
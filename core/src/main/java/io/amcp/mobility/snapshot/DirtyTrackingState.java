@@ -0,0 +1,113 @@
+package io.amcp.mobility.snapshot;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Agent state store that records which keys changed since the last
+ * checkpoint, so live migration can ship only the delta of each pre-copy round
+ * while the agent keeps running.
+ *
+ * <p>Thread-safe: agents may mutate state concurrently with
+ * {@link #checkpoint()} and {@link #drainDelta()}. A key written during a
+ * drain is either included in that delta or reported again by the next one,
+ * never lost. Values mutated in place must be flagged with
+ * {@link #markDirty(String)}. Null values are not stored; putting null
+ * removes the key.</p>
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+public class DirtyTrackingState {
+
+    private final ConcurrentHashMap<String, Object> values = new ConcurrentHashMap<>();
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+
+    public Object get(String key) {
+        return values.get(key);
+    }
+
+    public Object put(String key, Object value) {
+        if (value == null) {
+            return remove(key);
+        }
+        Object previous = values.put(key, value);
+        dirty.add(key);
+        return previous;
+    }
+
+    public Object remove(String key) {
+        Object previous = values.remove(key);
+        if (previous != null) {
+            dirty.add(key);
+        }
+        return previous;
+    }
+
+    /**
+     * Flag a key whose value was mutated in place
+     */
+    public void markDirty(String key) {
+        if (values.containsKey(key)) {
+            dirty.add(key);
+        }
+    }
+
+    public boolean containsKey(String key) {
+        return values.containsKey(key);
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    /**
+     * Gets the number of keys changed since the last checkpoint or drain
+     */
+    public int getDirtyCount() {
+        return dirty.size();
+    }
+
+    /**
+     * Read-only live view of the current state
+     */
+    public Map<String, Object> asMap() {
+        return Collections.unmodifiableMap(values);
+    }
+
+    /**
+     * Copy the full state and restart dirty tracking from this point
+     */
+    public Map<String, Object> checkpoint() {
+        // Clear before copying: a concurrent write is then in the copy, the
+        // dirty set, or both - but never in neither
+        dirty.clear();
+        return new LinkedHashMap<>(values);
+    }
+
+    /**
+     * Collect and reset the changes made since the last checkpoint or drain
+     */
+    public StateDelta drainDelta() {
+        Map<String, Object> changed = new LinkedHashMap<>();
+        Set<String> removed = new HashSet<>();
+
+        for (String key : dirty) {
+            // Unmark before reading so a racing write re-marks the key
+            if (!dirty.remove(key)) {
+                continue;
+            }
+            Object value = values.get(key);
+            if (value != null) {
+                changed.put(key, value);
+            } else {
+                removed.add(key);
+            }
+        }
+        return new StateDelta(changed, removed);
+    }
+}
@@ -0,0 +1,62 @@
+package io.amcp.mobility.snapshot;
+
+import io.amcp.core.AgentID;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A snapshot body encoded once and written any number of times.
+ *
+ * <p>Holds the compressed, checksummed blocks of every snapshot field except
+ * the agent identity. {@link #writeTo} prepends the identity given by the
+ * caller, so one encoding can be sent to many destinations, each under its own
+ * replica ID, without compressing the state again.</p>
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+public final class EncodedSnapshot {
+
+    private final AgentID agentId;
+    private final byte[] blocks;
+
+    private EncodedSnapshot(AgentID agentId, byte[] blocks) {
+        this.agentId = agentId;
+        this.blocks = blocks;
+    }
+
+    public static EncodedSnapshot encode(AgentSnapshot snapshot) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SnapshotWriter writer = new SnapshotWriter(out);
+        SnapshotCodec.writeBody(writer, snapshot);
+        writer.finish();
+        byte[] encoded = out.toByteArray();
+        // Keep only the blocks: drop the header and the end marker
+        return new EncodedSnapshot(snapshot.getAgentId(),
+                                   Arrays.copyOfRange(encoded, SnapshotFormat.HEADER_LENGTH, encoded.length - 1));
+    }
+
+    /**
+     * Gets the identity of the agent the snapshot was taken from
+     */
+    public AgentID getAgentId() {
+        return agentId;
+    }
+
+    /**
+     * Gets the size of the encoded body in bytes
+     */
+    public int size() {
+        return blocks.length;
+    }
+
+    /**
+     * Write the snapshot into an open writer under the given identity
+     */
+    public void writeTo(SnapshotWriter writer, AgentID identity) throws IOException {
+        SnapshotCodec.writeIdentity(writer, identity);
+        writer.writeEncodedBlocks(blocks);
+    }
+}
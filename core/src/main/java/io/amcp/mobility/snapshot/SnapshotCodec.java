@@ -0,0 +1,156 @@
+package io.amcp.mobility.snapshot;
+
+import io.amcp.core.AgentID;
+import io.amcp.mobility.MobilityState;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+
+/**
+ * Encodes and decodes {@link AgentSnapshot}s in the AMCP snapshot format.
+ *
+ * <p>Field numbers 1-99 belong to the snapshot itself; envelopes such as the
+ * ATP migration request embed the snapshot fields and use 100 and above for
+ * their own, so one stream carries both without nesting.</p>
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+public final class SnapshotCodec {
+
+    public static final int FIELD_AGENT_ID = 1;
+    public static final int FIELD_AGENT_NAME = 2;
+    public static final int FIELD_AGENT_TYPE = 3;
+    public static final int FIELD_MOBILITY_STATE = 4;
+    public static final int FIELD_CAPTURED_AT = 5;
+    public static final int FIELD_STATE_ENTRY = 6;
+    public static final int FIELD_REMOVED_KEY = 7;
+
+    private SnapshotCodec() {
+    }
+
+    public static byte[] encode(AgentSnapshot snapshot) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        encode(snapshot, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Encode a snapshot to the given stream, which is left open
+     */
+    public static void encode(AgentSnapshot snapshot, OutputStream out) throws IOException {
+        SnapshotWriter writer = new SnapshotWriter(out);
+        writeFields(writer, snapshot);
+        writer.finish();
+    }
+
+    public static AgentSnapshot decode(byte[] data) throws IOException {
+        return decode(new ByteArrayInputStream(data));
+    }
+
+    public static AgentSnapshot decode(InputStream in) throws IOException {
+        SnapshotReader reader = new SnapshotReader(in);
+        AgentSnapshot.Builder builder = new AgentSnapshot.Builder();
+        int tag;
+        while ((tag = reader.readTag()) != -1) {
+            if (!readField(reader, tag, builder)) {
+                reader.skip(tag);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Write the snapshot's fields into an open writer
+     */
+    public static void writeFields(SnapshotWriter writer, AgentSnapshot snapshot) throws IOException {
+        writeIdentity(writer, snapshot.getAgentId());
+        writeBody(writer, snapshot);
+    }
+
+    /**
+     * Write the agent identity fields
+     */
+    public static void writeIdentity(SnapshotWriter writer, AgentID agentId) throws IOException {
+        if (agentId != null) {
+            writer.writeString(FIELD_AGENT_ID, agentId.getId());
+            writer.writeString(FIELD_AGENT_NAME, agentId.getName());
+        }
+    }
+
+    /**
+     * Write every snapshot field except the agent identity
+     */
+    public static void writeBody(SnapshotWriter writer, AgentSnapshot snapshot) throws IOException {
+        writeHeader(writer, snapshot);
+        for (Map.Entry<String, Object> entry : snapshot.getState().entrySet()) {
+            writer.writeEntry(FIELD_STATE_ENTRY, entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Write the agent type, mobility state and capture time
+     */
+    public static void writeHeader(SnapshotWriter writer, AgentSnapshot snapshot) throws IOException {
+        if (snapshot.getAgentType() != null) {
+            writer.writeString(FIELD_AGENT_TYPE, snapshot.getAgentType());
+        }
+        if (snapshot.getMobilityState() != null) {
+            writer.writeString(FIELD_MOBILITY_STATE, snapshot.getMobilityState().name());
+        }
+        writer.writeVarint(FIELD_CAPTURED_AT, snapshot.getCapturedAt());
+    }
+
+    /**
+     * Write a state delta: changed entries as {@link #FIELD_STATE_ENTRY}, removed
+     * keys as {@link #FIELD_REMOVED_KEY}
+     */
+    public static void writeDelta(SnapshotWriter writer, StateDelta delta) throws IOException {
+        for (Map.Entry<String, Object> entry : delta.getChanged().entrySet()) {
+            writer.writeEntry(FIELD_STATE_ENTRY, entry.getKey(), entry.getValue());
+        }
+        for (String key : delta.getRemoved()) {
+            writer.writeString(FIELD_REMOVED_KEY, key);
+        }
+    }
+
+    /**
+     * Read one snapshot field into the builder
+     *
+     * @return false if the tag is not a snapshot field and was not consumed
+     */
+    public static boolean readField(SnapshotReader reader, int tag, AgentSnapshot.Builder builder) throws IOException {
+        switch (SnapshotReader.fieldOf(tag)) {
+            case FIELD_AGENT_ID:
+                builder.agentId(reader.readString());
+                return true;
+            case FIELD_AGENT_NAME:
+                builder.agentName(reader.readString());
+                return true;
+            case FIELD_AGENT_TYPE:
+                builder.agentType(reader.readString());
+                return true;
+            case FIELD_MOBILITY_STATE:
+                String name = reader.readString();
+                try {
+                    builder.mobilityState(MobilityState.valueOf(name));
+                } catch (IllegalArgumentException e) {
+                    throw new SnapshotFormatException("Unknown mobility state: " + name, e);
+                }
+                return true;
+            case FIELD_CAPTURED_AT:
+                builder.capturedAt(reader.readVarint());
+                return true;
+            case FIELD_STATE_ENTRY:
+                Map.Entry<String, Object> entry = reader.readEntry();
+                builder.put(entry.getKey(), entry.getValue());
+                return true;
+            default:
+                return false;
+        }
+    }
+}
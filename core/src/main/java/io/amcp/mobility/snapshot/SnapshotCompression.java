@@ -0,0 +1,33 @@
+package io.amcp.mobility.snapshot;
+
+/**
+ * Block compression codecs supported by the agent snapshot format.
+ * 
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+public enum SnapshotCompression {
+    /** Blocks are stored raw */
+    NONE(0),
+    /** Blocks are deflated at the fastest level; incompressible blocks fall back to raw */
+    DEFLATE(1);
+    
+    private final int id;
+    
+    SnapshotCompression(int id) {
+        this.id = id;
+    }
+    
+    public int getId() {
+        return id;
+    }
+    
+    public static SnapshotCompression fromId(int id) throws SnapshotFormatException {
+        for (SnapshotCompression compression : values()) {
+            if (compression.id == id) {
+                return compression;
+            }
+        }
+        throw new SnapshotFormatException("Unknown snapshot compression: " + id);
+    }
+}
@@ -0,0 +1,59 @@
+package io.amcp.mobility.snapshot;
+
+/**
+ * Constants of the AMCP binary agent snapshot format (version 1).
+ * 
+ * <p>Wire types follow the usual tag layout {@code field << 3 | wireType}.
+ * Typed values (state entries) are length-delimited and start with a one-byte
+ * value type, so unknown fields can always be skipped.</p>
+ * 
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+public final class SnapshotFormat {
+    
+    public static final byte[] MAGIC = {'A', 'M', 'S', 'N'};
+    public static final int VERSION = 1;
+    public static final int HEADER_LENGTH = MAGIC.length + 2;
+    public static final int BLOCK_SIZE = 64 * 1024;
+    public static final int END_MARKER = 0xFF;
+    /** Deepest list and map nesting a value may have; deeper input is rejected */
+    public static final int MAX_NESTING_DEPTH = 64;
+    
+    // Wire types
+    public static final int WIRE_VARINT = 0;
+    public static final int WIRE_FIXED64 = 1;
+    public static final int WIRE_LENGTH = 2;
+    
+    // Value types
+    public static final int TYPE_NULL = 0;
+    public static final int TYPE_TRUE = 1;
+    public static final int TYPE_FALSE = 2;
+    public static final int TYPE_INT = 3;
+    public static final int TYPE_LONG = 4;
+    public static final int TYPE_DOUBLE = 5;
+    public static final int TYPE_FLOAT = 6;
+    public static final int TYPE_STRING = 7;
+    public static final int TYPE_BYTES = 8;
+    public static final int TYPE_LIST = 9;
+    public static final int TYPE_MAP = 10;
+    public static final int TYPE_SERIALIZED = 11;
+    
+    private SnapshotFormat() {
+    }
+    
+    /**
+     * Check whether a buffer starts with the snapshot magic
+     */
+    public static boolean isSnapshot(byte[] data) {
+        if (data == null || data.length < MAGIC.length) {
+            return false;
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (data[i] != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
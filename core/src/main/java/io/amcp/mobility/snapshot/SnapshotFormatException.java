@@ -0,0 +1,23 @@
+package io.amcp.mobility.snapshot;
+
+import java.io.IOException;
+
+/**
+ * Thrown when an agent snapshot stream is malformed, corrupted or of an
+ * unsupported version.
+ * 
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+public class SnapshotFormatException extends IOException {
+    
+    private static final long serialVersionUID = 1L;
+    
+    public SnapshotFormatException(String message) {
+        super(message);
+    }
+    
+    public SnapshotFormatException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
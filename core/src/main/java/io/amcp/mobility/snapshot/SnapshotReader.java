@@ -0,0 +1,509 @@
+package io.amcp.mobility.snapshot;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Streaming reader for the AMCP agent snapshot format written by
+ * {@link SnapshotWriter}.
+ *
+ * <p>Blocks are read, checksum-verified and decompressed one at a time, so
+ * memory use is bounded by the block size plus the decoded values. Typical
+ * use:
+ * <pre>{@code
+ * int tag;
+ * while ((tag = reader.readTag()) != -1) {
+ *     switch (SnapshotReader.fieldOf(tag)) {
+ *         case 1: name = reader.readString(); break;
+ *         default: reader.skip(tag);
+ *     }
+ * }
+ * }</pre></p>
+ *
+ * <p>Snapshots arrive from remote hosts, so the reader never trusts declared
+ * lengths: the total decoded size is capped, a length beyond what is left of
+ * that budget is rejected, and large values grow with the data actually read.
+ * Values in the Java serialization fallback may only use JDK value classes
+ * from {@code java.lang}, {@code java.math}, {@code java.time} and
+ * {@code java.util}.</p>
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+public class SnapshotReader implements AutoCloseable {
+
+    /** Default cap on the decoded size of one snapshot */
+    public static final long DEFAULT_MAX_DECODED_BYTES = 128L * 1024 * 1024;
+
+    private static final ObjectInputFilter SERIALIZED_VALUE_FILTER = ObjectInputFilter.Config.createFilter(
+        "maxdepth=16;maxrefs=10000;maxarray=65536;java.lang.*;java.math.*;java.time.*;java.util.*;!*");
+
+    private final InputStream in;
+    private final int version;
+    private final SnapshotCompression compression;
+    private final byte[] block = new byte[SnapshotFormat.BLOCK_SIZE];
+    private final byte[] stored = new byte[SnapshotFormat.BLOCK_SIZE];
+    private final CRC32C crc = new CRC32C();
+    private final long maxDecodedBytes;
+    private Inflater inflater;
+    private long decodedBytes;
+
+    private int position;
+    private int limit;
+    private int blockIndex;
+    private boolean ended;
+
+    public SnapshotReader(InputStream in) throws IOException {
+        this(in, DEFAULT_MAX_DECODED_BYTES);
+    }
+
+    /**
+     * Create a reader that fails once the snapshot decodes to more than
+     * {@code maxDecodedBytes}
+     */
+    public SnapshotReader(InputStream in, long maxDecodedBytes) throws IOException {
+        this.in = in;
+        this.maxDecodedBytes = maxDecodedBytes;
+
+        byte[] magic = new byte[SnapshotFormat.MAGIC.length];
+        readFully(in, magic, magic.length);
+        if (!SnapshotFormat.isSnapshot(magic)) {
+            throw new SnapshotFormatException("Not an agent snapshot stream");
+        }
+        this.version = in.read();
+        if (version < 1 || version > SnapshotFormat.VERSION) {
+            throw new SnapshotFormatException("Unsupported snapshot version: " + version);
+        }
+        this.compression = SnapshotCompression.fromId(in.read());
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public SnapshotCompression getCompression() {
+        return compression;
+    }
+
+    public static int fieldOf(int tag) {
+        return tag >>> 3;
+    }
+
+    public static int wireTypeOf(int tag) {
+        return tag & 0x7;
+    }
+
+    /**
+     * Read the next field tag
+     *
+     * @return the tag, or -1 when the snapshot has ended
+     */
+    public int readTag() throws IOException {
+        if (position == limit && !nextBlock()) {
+            return -1;
+        }
+        long tag = readRawVarint();
+        if (tag <= 0 || tag > Integer.MAX_VALUE) {
+            throw new SnapshotFormatException("Invalid field tag: " + tag);
+        }
+        return (int) tag;
+    }
+
+    public long readVarint() throws IOException {
+        return readRawVarint();
+    }
+
+    public long readSignedVarint() throws IOException {
+        return unZigZag(readRawVarint());
+    }
+
+    public boolean readBoolean() throws IOException {
+        return readRawVarint() != 0;
+    }
+
+    public double readDouble() throws IOException {
+        return Double.longBitsToDouble(readRawFixed(8));
+    }
+
+    public String readString() throws IOException {
+        return new String(readBytes(), StandardCharsets.UTF_8);
+    }
+
+    public byte[] readBytes() throws IOException {
+        return readRawBytes(readLength());
+    }
+
+    /**
+     * Read a typed value written with {@link SnapshotWriter#writeValue(int, Object)}
+     */
+    public Object readValue() throws IOException {
+        int length = readLength();
+        return readValueBody(length);
+    }
+
+    /**
+     * Read a key/value entry written with {@link SnapshotWriter#writeEntry(int, String, Object)}
+     */
+    public Map.Entry<String, Object> readEntry() throws IOException {
+        int length = readLength();
+        int keyLength = readLength();
+        byte[] key = readRawBytes(keyLength);
+        int remaining = length - SnapshotWriter.varintSize(keyLength) - keyLength;
+        Object value = readValueBody(remaining);
+        return new AbstractMap.SimpleEntry<>(new String(key, StandardCharsets.UTF_8), value);
+    }
+
+    /**
+     * Skip the value of a field this reader does not understand
+     */
+    public void skip(int tag) throws IOException {
+        switch (wireTypeOf(tag)) {
+            case SnapshotFormat.WIRE_VARINT:
+                readRawVarint();
+                break;
+            case SnapshotFormat.WIRE_FIXED64:
+                readRawFixed(8);
+                break;
+            case SnapshotFormat.WIRE_LENGTH:
+                skipRaw(readLength());
+                break;
+            default:
+                throw new SnapshotFormatException("Unknown wire type " + wireTypeOf(tag) + " for field " + fieldOf(tag));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (inflater != null) {
+            inflater.end();
+        }
+        in.close();
+    }
+
+    // Value decoding
+
+    private Object readValueBody(int length) throws IOException {
+        if (length < 1) {
+            throw new SnapshotFormatException("Empty typed value");
+        }
+        int type = readRawByte();
+
+        // Streamed fast path for large scalar payloads
+        if (type == SnapshotFormat.TYPE_BYTES || type == SnapshotFormat.TYPE_STRING) {
+            byte[] data = readBytes();
+            return type == SnapshotFormat.TYPE_BYTES ? data : new String(data, StandardCharsets.UTF_8);
+        }
+
+        byte[] body = readRawBytes(length - 1);
+        ValueDecoder decoder = new ValueDecoder(body);
+        Object value = decoder.decode(type, 0);
+        if (decoder.offset != body.length) {
+            throw new SnapshotFormatException("Trailing bytes in typed value");
+        }
+        return value;
+    }
+
+    /**
+     * Decodes nested value bodies from an in-memory buffer
+     */
+    private static final class ValueDecoder {
+        private final byte[] data;
+        private int offset;
+
+        ValueDecoder(byte[] data) {
+            this.data = data;
+        }
+
+        Object decode(int type, int depth) throws IOException {
+            switch (type) {
+                case SnapshotFormat.TYPE_NULL:
+                    return null;
+                case SnapshotFormat.TYPE_TRUE:
+                    return Boolean.TRUE;
+                case SnapshotFormat.TYPE_FALSE:
+                    return Boolean.FALSE;
+                case SnapshotFormat.TYPE_INT:
+                    return (int) unZigZag(varint());
+                case SnapshotFormat.TYPE_LONG:
+                    return unZigZag(varint());
+                case SnapshotFormat.TYPE_DOUBLE:
+                    return Double.longBitsToDouble(fixed(8));
+                case SnapshotFormat.TYPE_FLOAT:
+                    return Float.intBitsToFloat((int) fixed(4));
+                case SnapshotFormat.TYPE_STRING:
+                    return new String(bytes(), StandardCharsets.UTF_8);
+                case SnapshotFormat.TYPE_BYTES:
+                    return bytes();
+                case SnapshotFormat.TYPE_LIST: {
+                    checkDepth(depth);
+                    int size = count();
+                    List<Object> list = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) {
+                        list.add(decode(nextByte(), depth + 1));
+                    }
+                    return list;
+                }
+                case SnapshotFormat.TYPE_MAP: {
+                    checkDepth(depth);
+                    int size = count();
+                    Map<String, Object> map = new LinkedHashMap<>();
+                    for (int i = 0; i < size; i++) {
+                        String key = new String(bytes(), StandardCharsets.UTF_8);
+                        map.put(key, decode(nextByte(), depth + 1));
+                    }
+                    return map;
+                }
+                case SnapshotFormat.TYPE_SERIALIZED:
+                    return deserialize(bytes());
+                default:
+                    throw new SnapshotFormatException("Unknown value type: " + type);
+            }
+        }
+
+        private static void checkDepth(int depth) throws SnapshotFormatException {
+            if (depth >= SnapshotFormat.MAX_NESTING_DEPTH) {
+                throw new SnapshotFormatException("Typed value nested deeper than " + SnapshotFormat.MAX_NESTING_DEPTH);
+            }
+        }
+
+        private int nextByte() throws SnapshotFormatException {
+            if (offset >= data.length) {
+                throw new SnapshotFormatException("Truncated typed value");
+            }
+            return data[offset++] & 0xFF;
+        }
+
+        private long varint() throws SnapshotFormatException {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = nextByte();
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new SnapshotFormatException("Malformed varint");
+        }
+
+        private long fixed(int size) throws SnapshotFormatException {
+            long result = 0;
+            for (int i = 0; i < size; i++) {
+                result |= (long) nextByte() << (8 * i);
+            }
+            return result;
+        }
+
+        private int count() throws SnapshotFormatException {
+            long value = varint();
+            if (value < 0 || value > data.length - offset) {
+                throw new SnapshotFormatException("Invalid element count: " + value);
+            }
+            return (int) value;
+        }
+
+        private byte[] bytes() throws SnapshotFormatException {
+            long length = varint();
+            if (length < 0 || length > data.length - offset) {
+                throw new SnapshotFormatException("Invalid length: " + length);
+            }
+            byte[] result = new byte[(int) length];
+            System.arraycopy(data, offset, result, 0, result.length);
+            offset += result.length;
+            return result;
+        }
+
+        private static Object deserialize(byte[] data) throws IOException {
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(data))) {
+                in.setObjectInputFilter(SERIALIZED_VALUE_FILTER);
+                return in.readObject();
+            } catch (ClassNotFoundException e) {
+                throw new SnapshotFormatException("Unknown class in serialized value", e);
+            } catch (InvalidClassException e) {
+                throw new SnapshotFormatException("Rejected class in serialized value: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    // Raw decoding across blocks
+
+    /**
+     * Read a length, which cannot exceed what is left of the decoded-size budget
+     */
+    private int readLength() throws IOException {
+        long length = readRawVarint();
+        long remaining = Math.min(Integer.MAX_VALUE, maxDecodedBytes - decodedBytes + (limit - position));
+        if (length < 0 || length > remaining) {
+            throw new SnapshotFormatException("Invalid length: " + length);
+        }
+        return (int) length;
+    }
+
+    /**
+     * Read a declared number of bytes, growing the array with the data
+     * actually received so a forged length cannot force a large allocation
+     */
+    private byte[] readRawBytes(int length) throws IOException {
+        byte[] data = new byte[Math.min(length, SnapshotFormat.BLOCK_SIZE)];
+        int read = 0;
+        while (read < length) {
+            if (read == data.length) {
+                data = Arrays.copyOf(data, (int) Math.min(length, 2L * data.length));
+            }
+            readRaw(data, read, data.length - read);
+            read = data.length;
+        }
+        return data;
+    }
+
+    private long readRawVarint() throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readRawByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new SnapshotFormatException("Malformed varint");
+    }
+
+    private long readRawFixed(int size) throws IOException {
+        long result = 0;
+        for (int i = 0; i < size; i++) {
+            result |= (long) readRawByte() << (8 * i);
+        }
+        return result;
+    }
+
+    private int readRawByte() throws IOException {
+        if (position == limit && !nextBlock()) {
+            throw new SnapshotFormatException("Unexpected end of snapshot");
+        }
+        return block[position++] & 0xFF;
+    }
+
+    private void readRaw(byte[] target, int offset, int length) throws IOException {
+        while (length > 0) {
+            if (position == limit && !nextBlock()) {
+                throw new SnapshotFormatException("Unexpected end of snapshot");
+            }
+            int chunk = Math.min(length, limit - position);
+            System.arraycopy(block, position, target, offset, chunk);
+            position += chunk;
+            offset += chunk;
+            length -= chunk;
+        }
+    }
+
+    private void skipRaw(int length) throws IOException {
+        while (length > 0) {
+            if (position == limit && !nextBlock()) {
+                throw new SnapshotFormatException("Unexpected end of snapshot");
+            }
+            int chunk = Math.min(length, limit - position);
+            position += chunk;
+            length -= chunk;
+        }
+    }
+
+    private boolean nextBlock() throws IOException {
+        if (ended) {
+            return false;
+        }
+
+        int codec = in.read();
+        if (codec < 0) {
+            throw new SnapshotFormatException("Snapshot stream truncated before end marker");
+        }
+        if (codec == SnapshotFormat.END_MARKER) {
+            ended = true;
+            return false;
+        }
+
+        int rawLength = readStreamVarint();
+        int storedLength = readStreamVarint();
+        if (rawLength <= 0 || rawLength > block.length || storedLength <= 0 || storedLength > rawLength) {
+            throw new SnapshotFormatException("Invalid block " + blockIndex + " header");
+        }
+        if (decodedBytes + rawLength > maxDecodedBytes) {
+            throw new SnapshotFormatException("Snapshot exceeds " + maxDecodedBytes + " decoded bytes");
+        }
+        int expectedCrc = (in.read() << 24) | (in.read() << 16) | (in.read() << 8) | in.read();
+
+        if (SnapshotCompression.fromId(codec) == SnapshotCompression.DEFLATE) {
+            readFully(in, stored, storedLength);
+            if (inflater == null) {
+                inflater = new Inflater();
+            }
+            inflater.reset();
+            inflater.setInput(stored, 0, storedLength);
+            try {
+                int inflated = inflater.inflate(block, 0, rawLength);
+                if (inflated != rawLength) {
+                    throw new SnapshotFormatException("Block " + blockIndex + " inflated to " + inflated + " bytes, expected " + rawLength);
+                }
+            } catch (DataFormatException e) {
+                throw new SnapshotFormatException("Corrupt compressed block " + blockIndex, e);
+            }
+        } else {
+            readFully(in, block, rawLength);
+        }
+
+        crc.reset();
+        crc.update(block, 0, rawLength);
+        if ((int) crc.getValue() != expectedCrc) {
+            throw new SnapshotFormatException("Checksum mismatch in block " + blockIndex);
+        }
+
+        blockIndex++;
+        decodedBytes += rawLength;
+        position = 0;
+        limit = rawLength;
+        return true;
+    }
+
+    private int readStreamVarint() throws IOException {
+        int result = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Truncated block header");
+            }
+            result |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new SnapshotFormatException("Malformed block header varint");
+    }
+
+    private static void readFully(InputStream in, byte[] target, int length) throws IOException {
+        int offset = 0;
+        while (offset < length) {
+            int read = in.read(target, offset, length - offset);
+            if (read < 0) {
+                throw new EOFException("Truncated snapshot stream");
+            }
+            offset += read;
+        }
+    }
+
+    static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,377 @@
+package io.amcp.mobility.snapshot;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+import java.util.zip.Deflater;
+
+/**
+ * Streaming writer for the AMCP agent snapshot format.
+ *
+ * <p>A snapshot is a header followed by a sequence of checksummed blocks:
+ * <pre>
+ *   header: "AMSN" | u8 version | u8 compression
+ *   block:  u8 codec | varint rawLength | varint storedLength | i32 crc32c(raw) | data
+ *   end:    u8 0xFF
+ * </pre>
+ * The logical content spread over the blocks is a stream of field-tagged
+ * records ({@code varint (field << 3 | wireType)} followed by the value), so
+ * readers can skip fields they do not know and the format can evolve without
+ * breaking older hosts.</p>
+ *
+ * <p>Blocks are emitted as soon as {@link SnapshotFormat#BLOCK_SIZE} bytes have
+ * been written, so multi-megabyte state is never fully buffered in encoded
+ * form. Not thread-safe.</p>
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+public class SnapshotWriter implements AutoCloseable {
+
+    private final OutputStream out;
+    private final SnapshotCompression compression;
+    private final byte[] block;
+    private final byte[] compressed;
+    private final Deflater deflater;
+    private final CRC32C crc = new CRC32C();
+    private final byte[] scratch = new byte[10];
+
+    private int position;
+    private long bytesWritten;
+    private boolean finished;
+
+    public SnapshotWriter(OutputStream out) throws IOException {
+        this(out, SnapshotCompression.DEFLATE);
+    }
+
+    public SnapshotWriter(OutputStream out, SnapshotCompression compression) throws IOException {
+        this.out = out;
+        this.compression = compression;
+        this.block = new byte[SnapshotFormat.BLOCK_SIZE];
+        this.compressed = compression == SnapshotCompression.DEFLATE ? new byte[SnapshotFormat.BLOCK_SIZE] : null;
+        this.deflater = compression == SnapshotCompression.DEFLATE ? new Deflater(Deflater.BEST_SPEED) : null;
+
+        out.write(SnapshotFormat.MAGIC);
+        out.write(SnapshotFormat.VERSION);
+        out.write(compression.getId());
+        bytesWritten = SnapshotFormat.HEADER_LENGTH;
+    }
+
+    // Field writers
+
+    public void writeVarint(int field, long value) throws IOException {
+        writeTag(field, SnapshotFormat.WIRE_VARINT);
+        writeRawVarint(value);
+    }
+
+    public void writeSignedVarint(int field, long value) throws IOException {
+        writeVarint(field, zigZag(value));
+    }
+
+    public void writeBoolean(int field, boolean value) throws IOException {
+        writeVarint(field, value ? 1 : 0);
+    }
+
+    public void writeDouble(int field, double value) throws IOException {
+        writeTag(field, SnapshotFormat.WIRE_FIXED64);
+        writeRawFixed64(Double.doubleToRawLongBits(value));
+    }
+
+    public void writeString(int field, String value) throws IOException {
+        writeBytes(field, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public void writeBytes(int field, byte[] value) throws IOException {
+        writeTag(field, SnapshotFormat.WIRE_LENGTH);
+        writeRawVarint(value.length);
+        writeRaw(value, 0, value.length);
+    }
+
+    /**
+     * Write a self-describing typed value (see {@link SnapshotFormat} value types)
+     */
+    public void writeValue(int field, Object value) throws IOException {
+        writeTag(field, SnapshotFormat.WIRE_LENGTH);
+        writeLengthPrefixedValue(null, value);
+    }
+
+    /**
+     * Write a key/value entry as a single length-delimited field. Large byte
+     * array and string values are streamed without an intermediate copy.
+     */
+    public void writeEntry(int field, String key, Object value) throws IOException {
+        writeTag(field, SnapshotFormat.WIRE_LENGTH);
+        writeLengthPrefixedValue(key.getBytes(StandardCharsets.UTF_8), value);
+    }
+
+    /**
+     * Copy blocks that were encoded earlier, see {@link EncodedSnapshot}
+     */
+    void writeEncodedBlocks(byte[] blocks) throws IOException {
+        if (finished) {
+            throw new IOException("Snapshot writer already finished");
+        }
+        flushBlock();
+        out.write(blocks);
+        bytesWritten += blocks.length;
+    }
+
+    /**
+     * Flush all buffered data and write the end marker without closing the
+     * underlying stream
+     */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        flushBlock();
+        out.write(SnapshotFormat.END_MARKER);
+        bytesWritten++;
+        out.flush();
+        finished = true;
+        if (deflater != null) {
+            deflater.end();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Encoded bytes emitted to the underlying stream so far
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    // Value encoding
+
+    private void writeLengthPrefixedValue(byte[] key, Object value) throws IOException {
+        int keyLength = key != null ? varintSize(key.length) + key.length : 0;
+
+        if (value instanceof byte[] || value instanceof String) {
+            byte[] data = value instanceof byte[]
+                ? (byte[]) value
+                : ((String) value).getBytes(StandardCharsets.UTF_8);
+            int type = value instanceof byte[] ? SnapshotFormat.TYPE_BYTES : SnapshotFormat.TYPE_STRING;
+
+            writeRawVarint(keyLength + 1 + varintSize(data.length) + data.length);
+            writeKey(key);
+            writeRawByte(type);
+            writeRawVarint(data.length);
+            writeRaw(data, 0, data.length);
+            return;
+        }
+
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream(32);
+        encodeValue(encoded, value);
+        writeRawVarint(keyLength + encoded.size());
+        writeKey(key);
+        byte[] bytes = encoded.toByteArray();
+        writeRaw(bytes, 0, bytes.length);
+    }
+
+    private void writeKey(byte[] key) throws IOException {
+        if (key != null) {
+            writeRawVarint(key.length);
+            writeRaw(key, 0, key.length);
+        }
+    }
+
+    static void encodeValue(ByteArrayOutputStream out, Object value) throws IOException {
+        encodeValue(out, value, 0);
+    }
+
+    private static void encodeValue(ByteArrayOutputStream out, Object value, int depth) throws IOException {
+        if ((value instanceof List || value instanceof Map) && depth >= SnapshotFormat.MAX_NESTING_DEPTH) {
+            throw new IllegalArgumentException("State nested deeper than " + SnapshotFormat.MAX_NESTING_DEPTH);
+        }
+        if (value == null) {
+            out.write(SnapshotFormat.TYPE_NULL);
+        } else if (value instanceof Boolean) {
+            out.write((Boolean) value ? SnapshotFormat.TYPE_TRUE : SnapshotFormat.TYPE_FALSE);
+        } else if (value instanceof Integer) {
+            out.write(SnapshotFormat.TYPE_INT);
+            putVarint(out, zigZag((Integer) value));
+        } else if (value instanceof Long) {
+            out.write(SnapshotFormat.TYPE_LONG);
+            putVarint(out, zigZag((Long) value));
+        } else if (value instanceof Double) {
+            out.write(SnapshotFormat.TYPE_DOUBLE);
+            putFixed64(out, Double.doubleToRawLongBits((Double) value));
+        } else if (value instanceof Float) {
+            out.write(SnapshotFormat.TYPE_FLOAT);
+            putFixed32(out, Float.floatToRawIntBits((Float) value));
+        } else if (value instanceof String) {
+            out.write(SnapshotFormat.TYPE_STRING);
+            putBytes(out, ((String) value).getBytes(StandardCharsets.UTF_8));
+        } else if (value instanceof byte[]) {
+            out.write(SnapshotFormat.TYPE_BYTES);
+            putBytes(out, (byte[]) value);
+        } else if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            out.write(SnapshotFormat.TYPE_LIST);
+            putVarint(out, list.size());
+            for (Object element : list) {
+                encodeValue(out, element, depth + 1);
+            }
+        } else if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            out.write(SnapshotFormat.TYPE_MAP);
+            putVarint(out, map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                putBytes(out, String.valueOf(entry.getKey()).getBytes(StandardCharsets.UTF_8));
+                encodeValue(out, entry.getValue(), depth + 1);
+            }
+        } else {
+            // Fallback for types without a compact encoding
+            ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+            try (ObjectOutputStream oos = new ObjectOutputStream(serialized)) {
+                oos.writeObject(value);
+            }
+            out.write(SnapshotFormat.TYPE_SERIALIZED);
+            putBytes(out, serialized.toByteArray());
+        }
+    }
+
+    // Raw encoding into the current block
+
+    private void writeTag(int field, int wireType) throws IOException {
+        if (field <= 0) {
+            throw new IllegalArgumentException("Field numbers must be positive: " + field);
+        }
+        writeRawVarint(((long) field << 3) | wireType);
+    }
+
+    private void writeRawVarint(long value) throws IOException {
+        int length = 0;
+        while ((value & ~0x7FL) != 0) {
+            scratch[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        scratch[length++] = (byte) value;
+        writeRaw(scratch, 0, length);
+    }
+
+    private void writeRawFixed64(long value) throws IOException {
+        for (int i = 0; i < 8; i++) {
+            scratch[i] = (byte) (value >>> (8 * i));
+        }
+        writeRaw(scratch, 0, 8);
+    }
+
+    private void writeRawByte(int value) throws IOException {
+        if (position == block.length) {
+            flushBlock();
+        }
+        block[position++] = (byte) value;
+    }
+
+    private void writeRaw(byte[] data, int offset, int length) throws IOException {
+        if (finished) {
+            throw new IOException("Snapshot writer already finished");
+        }
+        while (length > 0) {
+            if (position == block.length) {
+                flushBlock();
+            }
+            int chunk = Math.min(length, block.length - position);
+            System.arraycopy(data, offset, block, position, chunk);
+            position += chunk;
+            offset += chunk;
+            length -= chunk;
+        }
+    }
+
+    private void flushBlock() throws IOException {
+        if (position == 0) {
+            return;
+        }
+
+        crc.reset();
+        crc.update(block, 0, position);
+        int checksum = (int) crc.getValue();
+
+        byte[] data = block;
+        int storedLength = position;
+        int codec = SnapshotCompression.NONE.getId();
+
+        if (deflater != null) {
+            deflater.reset();
+            deflater.setInput(block, 0, position);
+            deflater.finish();
+            int deflated = deflater.deflate(compressed, 0, compressed.length);
+            // Keep compressed output only if it fit and actually saved space
+            if (deflater.finished() && deflated < position) {
+                data = compressed;
+                storedLength = deflated;
+                codec = SnapshotCompression.DEFLATE.getId();
+            }
+        }
+
+        ByteArrayOutputStream header = new ByteArrayOutputStream(16);
+        header.write(codec);
+        putVarint(header, position);
+        putVarint(header, storedLength);
+        header.write(checksum >>> 24);
+        header.write(checksum >>> 16);
+        header.write(checksum >>> 8);
+        header.write(checksum);
+        header.writeTo(out);
+        out.write(data, 0, storedLength);
+
+        bytesWritten += header.size() + storedLength;
+        position = 0;
+    }
+
+    // Helpers shared with the reader
+
+    static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static int varintSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            size++;
+            value >>>= 7;
+        }
+        return size;
+    }
+
+    private static void putVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static void putFixed64(ByteArrayOutputStream out, long value) {
+        for (int i = 0; i < 8; i++) {
+            out.write((int) (value >>> (8 * i)));
+        }
+    }
+
+    private static void putFixed32(ByteArrayOutputStream out, int value) {
+        for (int i = 0; i < 4; i++) {
+            out.write(value >>> (8 * i));
+        }
+    }
+
+    private static void putBytes(ByteArrayOutputStream out, byte[] data) {
+        putVarint(out, data.length);
+        out.write(data, 0, data.length);
+    }
+}
@@ -0,0 +1,77 @@
+package io.amcp.mobility.snapshot;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Changes made to a {@link DirtyTrackingState} since its previous checkpoint:
+ * entries written and keys removed.
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+public final class StateDelta {
+
+    private final Map<String, Object> changed;
+    private final Set<String> removed;
+
+    public StateDelta(Map<String, Object> changed, Set<String> removed) {
+        this.changed = Collections.unmodifiableMap(new LinkedHashMap<>(changed));
+        this.removed = Collections.unmodifiableSet(new LinkedHashSet<>(removed));
+    }
+
+    public Map<String, Object> getChanged() {
+        return changed;
+    }
+
+    public Set<String> getRemoved() {
+        return removed;
+    }
+
+    /**
+     * Number of keys touched by this delta
+     */
+    public int size() {
+        return changed.size() + removed.size();
+    }
+
+    public boolean isEmpty() {
+        return changed.isEmpty() && removed.isEmpty();
+    }
+
+    /**
+     * Combine this delta with a later one; the later delta wins for keys
+     * touched by both
+     */
+    public StateDelta merge(StateDelta later) {
+        Map<String, Object> mergedChanged = new LinkedHashMap<>(changed);
+        Set<String> mergedRemoved = new LinkedHashSet<>(removed);
+        for (String key : later.removed) {
+            mergedChanged.remove(key);
+            mergedRemoved.add(key);
+        }
+        for (Map.Entry<String, Object> entry : later.changed.entrySet()) {
+            mergedRemoved.remove(entry.getKey());
+            mergedChanged.put(entry.getKey(), entry.getValue());
+        }
+        return new StateDelta(mergedChanged, mergedRemoved);
+    }
+
+    /**
+     * Apply this delta to a state map
+     */
+    public void applyTo(Map<String, Object> state) {
+        for (String key : removed) {
+            state.remove(key);
+        }
+        state.putAll(changed);
+    }
+
+    @Override
+    public String toString() {
+        return "StateDelta{changed=" + changed.size() + ", removed=" + removed.size() + "}";
+    }
+}
@@ -0,0 +1,189 @@
+package io.amcp.ratelimit;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Applies a {@link RateLimiter} at an ingestion point and decides what
+ * happens to requests over the limit: rejected at once, or delayed until a
+ * permit is available as long as the wait stays within the maximum delay.
+ *
+ * <p>Delayed requests wait on a shared timer rather than a blocked thread,
+ * so a flood of throttled publishers costs no threads. The timer only hands
+ * each retry to the controller's executor, so the work that follows an
+ * admission never runs on, or holds up, the timer thread.</p>
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+public class AdmissionController {
+
+    /**
+     * What happens to a request over the limit
+     */
+    public enum Mode {
+        /** Fail with {@link RateLimitExceededException} */
+        REJECT,
+        /** Wait for a permit, up to the maximum delay, then reject */
+        DELAY
+    }
+
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "rate-limit-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final RateLimiter limiter;
+    private final Mode mode;
+    private final long maxDelayNanos;
+    private final Executor executor;
+
+    private final AtomicLong admitted = new AtomicLong(0);
+    private final AtomicLong delayed = new AtomicLong(0);
+    private final AtomicLong rejected = new AtomicLong(0);
+    private final AtomicLong delayNanos = new AtomicLong(0);
+
+    /**
+     * Controller that rejects requests over the limit
+     */
+    public AdmissionController(RateLimiter limiter) {
+        this(limiter, Mode.REJECT, 0);
+    }
+
+    public AdmissionController(RateLimiter limiter, Mode mode, long maxDelayMillis) {
+        this(limiter, mode, maxDelayMillis, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param executor runs delayed admissions and whatever is chained on them
+     */
+    public AdmissionController(RateLimiter limiter, Mode mode, long maxDelayMillis, Executor executor) {
+        this.limiter = limiter;
+        this.mode = mode;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        this.executor = executor;
+    }
+
+    /**
+     * Admit a request for the key
+     *
+     * @return future that completes when the request is admitted, or fails with
+     *         {@link RateLimitExceededException}
+     */
+    public CompletableFuture<Void> admit(String key) {
+        long wait = limiter.tryAcquire(key);
+        if (wait == 0) {
+            admitted.incrementAndGet();
+            return CompletableFuture.completedFuture(null);
+        }
+        if (mode == Mode.REJECT || wait > maxDelayNanos) {
+            return reject(key, wait);
+        }
+
+        delayed.incrementAndGet();
+        CompletableFuture<Void> admission = new CompletableFuture<>();
+        retryAfter(key, wait, System.nanoTime(), admission);
+        return admission;
+    }
+
+    /**
+     * Admit a request only if a permit is available now, regardless of mode
+     */
+    public boolean tryAdmit(String key) {
+        if (limiter.tryAcquire(key) == 0) {
+            admitted.incrementAndGet();
+            return true;
+        }
+        rejected.incrementAndGet();
+        return false;
+    }
+
+    public RateLimiter getLimiter() {
+        return limiter;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public AdmissionStatistics getStatistics() {
+        return new AdmissionStatistics(admitted.get(), delayed.get(), rejected.get(),
+                                       delayNanos.get() / 1_000_000, limiter.getTrackedKeys());
+    }
+
+    private void retryAfter(String key, long wait, long startedAt, CompletableFuture<Void> admission) {
+        TIMER.schedule(() -> {
+            try {
+                executor.execute(() -> retry(key, startedAt, admission));
+            } catch (RejectedExecutionException e) {
+                rejected.incrementAndGet();
+                admission.completeExceptionally(e);
+            }
+        }, wait, TimeUnit.NANOSECONDS);
+    }
+
+    private void retry(String key, long startedAt, CompletableFuture<Void> admission) {
+        long next = limiter.tryAcquire(key);
+        long waited = System.nanoTime() - startedAt;
+        if (next == 0) {
+            admitted.incrementAndGet();
+            delayNanos.addAndGet(waited);
+            admission.complete(null);
+        } else if (waited + next > maxDelayNanos) {
+            delayNanos.addAndGet(waited);
+            rejected.incrementAndGet();
+            admission.completeExceptionally(
+                new RateLimitExceededException(key, TimeUnit.NANOSECONDS.toMillis(next)));
+        } else {
+            // Another caller took the permit first
+            retryAfter(key, next, startedAt, admission);
+        }
+    }
+
+    private CompletableFuture<Void> reject(String key, long wait) {
+        rejected.incrementAndGet();
+        return CompletableFuture.failedFuture(new RateLimitExceededException(key, TimeUnit.NANOSECONDS.toMillis(wait)));
+    }
+
+    /**
+     * Admission counters
+     */
+    public static class AdmissionStatistics {
+        private final long admitted;
+        private final long delayed;
+        private final long rejected;
+        private final long totalDelayMillis;
+        private final int trackedKeys;
+
+        public AdmissionStatistics(long admitted, long delayed, long rejected, long totalDelayMillis,
+                                   int trackedKeys) {
+            this.admitted = admitted;
+            this.delayed = delayed;
+            this.rejected = rejected;
+            this.totalDelayMillis = totalDelayMillis;
+            this.trackedKeys = trackedKeys;
+        }
+
+        public long getAdmitted() { return admitted; }
+        /**
+         * Gets the number of requests that had to wait, whether later admitted or rejected
+         */
+        public long getDelayed() { return delayed; }
+        public long getRejected() { return rejected; }
+        public long getTotalDelayMillis() { return totalDelayMillis; }
+        public int getTrackedKeys() { return trackedKeys; }
+
+        @Override
+        public String toString() {
+            return String.format("AdmissionStatistics{admitted=%d, delayed=%d, rejected=%d, delay=%dms, keys=%d}",
+                               admitted, delayed, rejected, totalDelayMillis, trackedKeys);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package io.amcp.ratelimit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Per-key limiter state with idle eviction. Once the configured number of
+ * keys is reached, states that no longer affect admission are swept, at most
+ * once per second.
+ *
+ * @param <S> state type
+ */
+final class KeyedStateMap<S> {
+
+    private static final long SWEEP_INTERVAL_NANOS = 1_000_000_000L;
+
+    /**
+     * Decides whether a state can be dropped without changing admission
+     */
+    @FunctionalInterface
+    interface IdleCheck<S> {
+        boolean isIdle(S state, long now);
+    }
+
+    private final ConcurrentHashMap<String, S> states = new ConcurrentHashMap<>();
+    private final int maxKeys;
+    private final IdleCheck<S> idleCheck;
+    private final AtomicLong nextSweep = new AtomicLong(Long.MIN_VALUE);
+
+    KeyedStateMap(int maxKeys, IdleCheck<S> idleCheck) {
+        this.maxKeys = maxKeys;
+        this.idleCheck = idleCheck;
+    }
+
+    S get(String key, Function<String, S> factory, long now) {
+        S state = states.get(key);
+        if (state != null) {
+            return state;
+        }
+        if (states.size() >= maxKeys) {
+            sweep(now);
+        }
+        return states.computeIfAbsent(key, factory);
+    }
+
+    int size() {
+        return states.size();
+    }
+
+    private void sweep(long now) {
+        long due = nextSweep.get();
+        if (now - due < 0 || !nextSweep.compareAndSet(due, now + SWEEP_INTERVAL_NANOS)) {
+            return;
+        }
+        states.values().removeIf(state -> idleCheck.isIdle(state, now));
+    }
+}
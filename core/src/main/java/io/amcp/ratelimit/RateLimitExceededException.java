@@ -0,0 +1,30 @@
+package io.amcp.ratelimit;
+
+/**
+ * Thrown when a rate limit rejects a request
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+public class RateLimitExceededException extends RuntimeException {
+
+    private final String key;
+    private final long retryAfterMillis;
+
+    public RateLimitExceededException(String key, long retryAfterMillis) {
+        super("Rate limit exceeded for " + key + ", retry after " + retryAfterMillis + "ms");
+        this.key = key;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Gets the estimated wait before a retry can be admitted
+     */
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
@@ -0,0 +1,76 @@
+package io.amcp.ratelimit;
+
+import io.amcp.core.Event;
+import io.amcp.security.SecurityContext;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Key extractors for rate limiting events
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+public final class RateLimitKeys {
+
+    /**
+     * Event metadata key carrying the ID of the principal that published the
+     * event. It is only trusted after {@link #withVerifiedPrincipal}, which
+     * rate-limited brokers and agent contexts apply to every publish, so
+     * publishers cannot choose the principal they are limited as.
+     */
+    public static final String PRINCIPAL_METADATA = "principalId";
+
+    private static final String ANONYMOUS = "anonymous";
+
+    /** Limit each sending agent */
+    public static final Function<Event, String> SENDER = event ->
+        event.getSender() != null ? event.getSender().toString() : ANONYMOUS;
+
+    /** Limit each principal, falling back to the sending agent */
+    public static final Function<Event, String> PRINCIPAL = event -> {
+        Object principal = event.getMetadata(PRINCIPAL_METADATA);
+        return principal != null ? principal.toString() : SENDER.apply(event);
+    };
+
+    /** Limit each topic */
+    public static final Function<Event, String> TOPIC = Event::getTopic;
+
+    /**
+     * Attribute an event to the principal of an authenticated security
+     * context. Whatever principal the publisher put in the metadata is
+     * replaced, or dropped when there is no authenticated context.
+     */
+    public static Event withVerifiedPrincipal(Event event, SecurityContext securityContext) {
+        Object claimed = event.getMetadata(PRINCIPAL_METADATA);
+        if (securityContext == null || !securityContext.isAuthenticated()) {
+            if (claimed == null) {
+                return event;
+            }
+            Map<String, Object> metadata = event.getMetadata();
+            metadata.remove(PRINCIPAL_METADATA);
+            return Event.builder()
+                .id(event.getId())
+                .topic(event.getTopic())
+                .payload(event.getPayload())
+                .sender(event.getSender())
+                .timestamp(event.getTimestamp())
+                .correlationId(event.getCorrelationId())
+                .deliveryOptions(event.getDeliveryOptions())
+                .metadata(metadata)
+                .build();
+        }
+        String principal = securityContext.getPrincipalId();
+        if (Objects.equals(principal, claimed)) {
+            return event;
+        }
+        return event.toBuilder()
+            .metadata(PRINCIPAL_METADATA, principal)
+            .build();
+    }
+
+    private RateLimitKeys() {
+    }
+}
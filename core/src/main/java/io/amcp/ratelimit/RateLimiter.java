@@ -0,0 +1,32 @@
+package io.amcp.ratelimit;
+
+/**
+ * Per-key admission limit.
+ *
+ * <p>Implementations keep independent state for each key, e.g. an agent ID,
+ * a principal or a topic, and update it without locks so checks on the
+ * publish path do not serialize callers.</p>
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+public interface RateLimiter {
+
+    /**
+     * Try to take one permit for the key
+     *
+     * @return 0 if the permit was taken, otherwise the estimated nanoseconds
+     *         until one may be available; no permit is taken in that case
+     */
+    long tryAcquire(String key);
+
+    /**
+     * Gets the number of keys with live state
+     */
+    int getTrackedKeys();
+
+    /**
+     * Gets the permits per second this limiter allows each key
+     */
+    double getRate();
+}
@@ -0,0 +1,112 @@
+package io.amcp.ratelimit;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Sliding window limiter: each key may take at most {@code limit} permits in
+ * any window of the configured length.
+ *
+ * <p>Uses the sliding window counter approximation: counts are kept for the
+ * current and previous fixed windows, and the previous count is weighted by
+ * the share of it still inside the sliding window. Each key's counters are an
+ * immutable snapshot replaced by CAS, so updates need no locks.</p>
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+public class SlidingWindowRateLimiter implements RateLimiter {
+
+    public static final int DEFAULT_MAX_KEYS = 100000;
+
+    private final int limit;
+    private final long windowNanos;
+    private final long origin = System.nanoTime();
+    private final KeyedStateMap<AtomicReference<Window>> windows;
+
+    public SlidingWindowRateLimiter(int limit, long windowMillis) {
+        this(limit, windowMillis, DEFAULT_MAX_KEYS);
+    }
+
+    public SlidingWindowRateLimiter(int limit, long windowMillis, int maxKeys) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive: " + limit);
+        }
+        if (windowMillis <= 0) {
+            throw new IllegalArgumentException("Window must be positive: " + windowMillis);
+        }
+        this.limit = limit;
+        this.windowNanos = windowMillis * 1_000_000L;
+        // Counters two windows old no longer weigh on admission
+        this.windows = new KeyedStateMap<>(maxKeys,
+            (state, now) -> windowIndex(now) - state.get().index >= 2);
+    }
+
+    @Override
+    public long tryAcquire(String key) {
+        long now = System.nanoTime();
+        long index = windowIndex(now);
+        AtomicReference<Window> state = windows.get(key, k -> new AtomicReference<>(new Window(index, 0, 0)), now);
+        while (true) {
+            Window current = state.get();
+            // Another thread may already have rolled the window past our clock reading
+            long target = Math.max(index, current.index);
+            Window rolled = current.rollTo(target);
+            long elapsedInWindow = Math.max(0, (now - origin) - target * windowNanos);
+            double previousWeight = 1.0 - (double) elapsedInWindow / windowNanos;
+            double estimated = rolled.previous * previousWeight + rolled.count;
+            if (estimated + 1 > limit) {
+                return retryAfter(rolled, elapsedInWindow);
+            }
+            if (state.compareAndSet(current, new Window(target, rolled.count + 1, rolled.previous))) {
+                return 0;
+            }
+        }
+    }
+
+    @Override
+    public int getTrackedKeys() {
+        return windows.size();
+    }
+
+    @Override
+    public double getRate() {
+        return limit * 1_000_000_000.0 / windowNanos;
+    }
+
+    private long windowIndex(long now) {
+        return (now - origin) / windowNanos;
+    }
+
+    /**
+     * Estimate the wait until the weighted count leaves room for one permit
+     */
+    private long retryAfter(Window window, long elapsedInWindow) {
+        long untilNextWindow = windowNanos - elapsedInWindow;
+        if (window.count + 1 > limit || window.previous == 0) {
+            return untilNextWindow;
+        }
+        // Weight of the previous window that must expire: previous * w + count + 1 <= limit
+        double targetWeight = (double) (limit - window.count - 1) / window.previous;
+        long wait = (long) ((1.0 - targetWeight) * windowNanos) - elapsedInWindow;
+        return Math.max(1, Math.min(wait, untilNextWindow));
+    }
+
+    private static final class Window {
+        final long index;
+        final int count;
+        final int previous;
+
+        Window(long index, int count, int previous) {
+            this.index = index;
+            this.count = count;
+            this.previous = previous;
+        }
+
+        Window rollTo(long target) {
+            if (target == index) {
+                return this;
+            }
+            return new Window(target, 0, target == index + 1 ? count : 0);
+        }
+    }
+}
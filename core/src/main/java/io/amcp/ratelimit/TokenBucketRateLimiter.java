@@ -0,0 +1,71 @@
+package io.amcp.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket limiter: each key may take {@code burst} permits at once and
+ * refills at {@code permitsPerSecond}.
+ *
+ * <p>Implemented as the generic cell rate algorithm, which keeps the bucket
+ * as a single "theoretical arrival time" per key. A permit advances that time
+ * by one emission interval and is admitted if the result stays within the
+ * burst tolerance of now, so each check is one CAS on one {@code long}.</p>
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+public class TokenBucketRateLimiter implements RateLimiter {
+
+    public static final int DEFAULT_MAX_KEYS = 100000;
+
+    private final double permitsPerSecond;
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final KeyedStateMap<AtomicLong> buckets;
+
+    public TokenBucketRateLimiter(double permitsPerSecond, int burst) {
+        this(permitsPerSecond, burst, DEFAULT_MAX_KEYS);
+    }
+
+    public TokenBucketRateLimiter(double permitsPerSecond, int burst, int maxKeys) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("Rate must be positive: " + permitsPerSecond);
+        }
+        if (burst <= 0) {
+            throw new IllegalArgumentException("Burst must be positive: " + burst);
+        }
+        this.permitsPerSecond = permitsPerSecond;
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / permitsPerSecond));
+        this.toleranceNanos = intervalNanos * burst;
+        // A bucket whose arrival time has passed is full, the same as a new one
+        this.buckets = new KeyedStateMap<>(maxKeys, (tat, now) -> tat.get() - now <= 0);
+    }
+
+    @Override
+    public long tryAcquire(String key) {
+        long now = System.nanoTime();
+        AtomicLong tat = buckets.get(key, k -> new AtomicLong(now), now);
+        while (true) {
+            long current = tat.get();
+            long start = current - now > 0 ? current : now;
+            long next = start + intervalNanos;
+            long excess = next - now - toleranceNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            if (tat.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    @Override
+    public int getTrackedKeys() {
+        return buckets.size();
+    }
+
+    @Override
+    public double getRate() {
+        return permitsPerSecond;
+    }
+}
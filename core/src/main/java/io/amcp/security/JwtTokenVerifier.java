@@ -0,0 +1,135 @@
+package io.amcp.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.jwk.source.JWKSourceBuilder;
+import com.nimbusds.jose.proc.BadJOSEException;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.proc.ConfigurableJWTProcessor;
+import com.nimbusds.jwt.proc.DefaultJWTClaimsVerifier;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+
+import java.net.URL;
+import java.text.ParseException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Verifies JWT access tokens locally: the signature against keys from a
+ * cached JWKS, then expiry, not-before, issuer and audience. Valid tokens are
+ * accepted without contacting the authorization server.
+ *
+ * <p>Remote key sets are fetched through nimbus' {@link JWKSourceBuilder},
+ * which caches the set, refreshes it ahead of expiry and refetches on an
+ * unknown key ID, so key rotation is picked up without a request per
+ * token.</p>
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+public class JwtTokenVerifier {
+
+    private static final Set<JWSAlgorithm> ALGORITHMS = new HashSet<>();
+
+    static {
+        ALGORITHMS.addAll(JWSAlgorithm.Family.RSA);
+        ALGORITHMS.addAll(JWSAlgorithm.Family.EC);
+    }
+
+    private final ConfigurableJWTProcessor<com.nimbusds.jose.proc.SecurityContext> processor;
+
+    private JwtTokenVerifier(JWKSource<com.nimbusds.jose.proc.SecurityContext> keys, String issuer,
+                             String audience) {
+        this.processor = new DefaultJWTProcessor<>();
+        processor.setJWSKeySelector(new JWSVerificationKeySelector<>(ALGORITHMS, keys));
+
+        JWTClaimsSet.Builder exactMatch = new JWTClaimsSet.Builder();
+        if (issuer != null) {
+            exactMatch.issuer(issuer);
+        }
+        Set<String> required = new HashSet<>(List.of("exp"));
+        processor.setJWTClaimsSetVerifier(new DefaultJWTClaimsVerifier<>(audience, exactMatch.build(), required));
+    }
+
+    /**
+     * Verifier with keys fetched and cached from a JWKS endpoint
+     *
+     * @param audience required audience, or null to accept any
+     */
+    public static JwtTokenVerifier forJwksUrl(URL jwksUrl, String issuer, String audience) {
+        JWKSource<com.nimbusds.jose.proc.SecurityContext> keys = JWKSourceBuilder
+            .<com.nimbusds.jose.proc.SecurityContext>create(jwksUrl)
+            .retrying(true)
+            .build();
+        return new JwtTokenVerifier(keys, issuer, audience);
+    }
+
+    /**
+     * Verifier with a fixed key set
+     */
+    public static JwtTokenVerifier forKeys(JWKSet keys, String issuer, String audience) {
+        return new JwtTokenVerifier(new ImmutableJWKSet<>(keys), issuer, audience);
+    }
+
+    /**
+     * Check whether a token has the three-part compact JWS shape
+     */
+    public static boolean isJwt(String token) {
+        int first = token.indexOf('.');
+        int second = first < 0 ? -1 : token.indexOf('.', first + 1);
+        return first > 0 && second > first + 1 && token.indexOf('.', second + 1) < 0;
+    }
+
+    /**
+     * Verify a token and map its claims onto an access token
+     *
+     * @throws TokenVerificationException if the token is malformed, badly
+     *                                    signed or its claims are rejected
+     */
+    public OAuth2Manager.AccessToken verify(String token) throws TokenVerificationException {
+        JWTClaimsSet claims;
+        try {
+            claims = processor.process(token, null);
+        } catch (ParseException | BadJOSEException | JOSEException e) {
+            throw new TokenVerificationException(e.getMessage(), e);
+        }
+
+        String clientId;
+        try {
+            clientId = claims.getStringClaim("client_id");
+            if (clientId == null) {
+                clientId = claims.getStringClaim("azp");
+            }
+        } catch (ParseException e) {
+            throw new TokenVerificationException("Client claim is not a string", e);
+        }
+        return new OAuth2Manager.AccessToken(token, clientId, claims.getSubject(), scopesOf(claims),
+                                             claims.getExpirationTime().getTime());
+    }
+
+    private static String[] scopesOf(JWTClaimsSet claims) {
+        Object scope = claims.getClaim("scope");
+        if (scope instanceof String && !((String) scope).isBlank()) {
+            return ((String) scope).trim().split("\\s+");
+        }
+        Object scp = claims.getClaim("scp");
+        if (scp instanceof List) {
+            return ((List<?>) scp).stream().map(String::valueOf).toArray(String[]::new);
+        }
+        return new String[0];
+    }
+
+    /**
+     * Thrown when a JWT fails verification
+     */
+    public static class TokenVerificationException extends Exception {
+        public TokenVerificationException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+}
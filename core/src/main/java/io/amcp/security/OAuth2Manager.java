@@ -2,6 +2,9 @@ package io.amcp.security;
 
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
 import java.security.SecureRandom;
@@ -25,6 +28,14 @@ public class OAuth2Manager {
     private final Map<String, RefreshToken> refreshTokens = new ConcurrentHashMap<>();
     private final Map<String, AuthorizationCode> authCodes = new ConcurrentHashMap<>();
     
+    // Validation results keyed by token hash, so the hot path stays off the network
+    private final TokenValidationCache<TokenValidationResult> validationCache = new TokenValidationCache<>();
+    private final TokenValidationCache<TokenIntrospectionResult> introspectionCache = new TokenValidationCache<>();
+    // Revoked self-contained tokens by hash, kept until the token would have expired
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+    private final List<Consumer<String>> revocationListeners = new CopyOnWriteArrayList<>();
+    private volatile JwtTokenVerifier jwtVerifier;
+    
     private final AtomicLong tokenCounter = new AtomicLong(0);
     private final SecureRandom secureRandom = new SecureRandom();
     
@@ -242,25 +253,30 @@ public class OAuth2Manager {
     }
     
     /**
-     * Validate access token
+     * Validate access token. Results are cached by token hash: valid tokens
+     * until their expiry (at most the cache TTL), invalid ones briefly. JWTs
+     * are verified locally when a {@link JwtTokenVerifier} is configured.
      */
     public CompletableFuture<TokenValidationResult> validateToken(String accessToken) {
+        if (!initialized) {
+            return CompletableFuture.completedFuture(TokenValidationResult.invalid("OAuth2Manager not initialized"));
+        }
+        
+        TokenValidationResult cached = validationCache.get(accessToken);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        
+        // A revocation while the check runs must not let its result back into the cache
+        long generation = validationCache.generation();
         return CompletableFuture.supplyAsync(() -> {
-            if (!initialized) {
-                return TokenValidationResult.invalid("OAuth2Manager not initialized");
-            }
-            
-            AccessToken token = activeTokens.get(accessToken);
-            if (token == null) {
-                return TokenValidationResult.invalid("Token not found");
+            TokenValidationResult result = checkAccessToken(accessToken);
+            if (result.isValid()) {
+                validationCache.putValid(accessToken, result, result.getToken().getExpiresAt(), generation);
+            } else {
+                validationCache.putInvalid(accessToken, result, generation);
             }
-            
-            if (token.isExpired()) {
-                activeTokens.remove(accessToken);
-                return TokenValidationResult.invalid("Token expired");
-            }
-            
-            return TokenValidationResult.valid(token);
+            return result;
         });
     }
     
@@ -283,30 +299,83 @@ public class OAuth2Manager {
                 revoked = true;
             }
             
+            // Self-contained tokens stay verifiable, so remember them until they expire
+            JwtTokenVerifier verifier = jwtVerifier;
+            if (!revoked && verifier != null && JwtTokenVerifier.isJwt(token)) {
+                try {
+                    recordRevocation(TokenValidationCache.hash(token), verifier.verify(token).getExpiresAt());
+                    revoked = true;
+                } catch (JwtTokenVerifier.TokenVerificationException e) {
+                    // Not a valid token, nothing to revoke
+                }
+            }
+            
+            String tokenHash = TokenValidationCache.hash(token);
+            invalidateCachedToken(tokenHash);
+            if (revoked) {
+                for (Consumer<String> listener : revocationListeners) {
+                    listener.accept(tokenHash);
+                }
+            }
+            
             return revoked;
         });
     }
     
+    /**
+     * Apply a revocation made elsewhere, e.g. received from another node or a
+     * revocation feed. The token is identified by its
+     * {@link TokenValidationCache#hash(String) hash}.
+     */
+    public void onTokenRevoked(String tokenHash) {
+        recordRevocation(tokenHash, System.currentTimeMillis() + DEFAULT_REFRESH_TOKEN_LIFETIME * 1000L);
+        invalidateCachedToken(tokenHash);
+    }
+    
+    /**
+     * Register a hook called with the hash of every token revoked here, for
+     * propagating revocations to other nodes
+     */
+    public void addRevocationListener(Consumer<String> listener) {
+        revocationListeners.add(listener);
+    }
+    
+    /**
+     * Accept JWT access tokens verified locally with the given verifier
+     * (null to accept only tokens issued by this manager)
+     */
+    public void setJwtVerifier(JwtTokenVerifier verifier) {
+        this.jwtVerifier = verifier;
+        validationCache.clear();
+        introspectionCache.clear();
+    }
+    
+    public TokenValidationCache.CacheStatistics getValidationCacheStatistics() {
+        return validationCache.getStatistics();
+    }
+    
     /**
      * Get token introspection information
      */
     public CompletableFuture<TokenIntrospectionResult> introspectToken(String token) {
+        if (!initialized) {
+            return CompletableFuture.completedFuture(TokenIntrospectionResult.inactive());
+        }
+        
+        TokenIntrospectionResult cached = introspectionCache.get(token);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        
+        long generation = introspectionCache.generation();
         return CompletableFuture.supplyAsync(() -> {
-            if (!initialized) {
-                return TokenIntrospectionResult.inactive();
-            }
-            
-            AccessToken accessToken = activeTokens.get(token);
-            if (accessToken != null && !accessToken.isExpired()) {
-                return TokenIntrospectionResult.active(accessToken);
+            TokenIntrospectionResult result = checkIntrospection(token);
+            if (result.isActive()) {
+                introspectionCache.putValid(token, result, result.getExpiresAt(), generation);
+            } else {
+                introspectionCache.putInvalid(token, result, generation);
             }
-            
-            RefreshToken refreshToken = refreshTokens.get(token);
-            if (refreshToken != null && !refreshToken.isExpired()) {
-                return TokenIntrospectionResult.active(refreshToken);
-            }
-            
-            return TokenIntrospectionResult.inactive();
+            return result;
         });
     }
     
@@ -320,9 +389,76 @@ public class OAuth2Manager {
             refreshTokens.clear();
             authCodes.clear();
             registeredClients.clear();
+            validationCache.clear();
+            introspectionCache.clear();
+            revokedTokens.clear();
         });
     }
     
+    private TokenValidationResult checkAccessToken(String accessToken) {
+        AccessToken token = activeTokens.get(accessToken);
+        if (token != null) {
+            if (token.isExpired()) {
+                activeTokens.remove(accessToken);
+                return TokenValidationResult.invalid("Token expired");
+            }
+            return TokenValidationResult.valid(token);
+        }
+        
+        JwtTokenVerifier verifier = jwtVerifier;
+        if (verifier != null && JwtTokenVerifier.isJwt(accessToken)) {
+            if (isRevoked(accessToken)) {
+                return TokenValidationResult.invalid("Token revoked");
+            }
+            try {
+                return TokenValidationResult.valid(verifier.verify(accessToken));
+            } catch (JwtTokenVerifier.TokenVerificationException e) {
+                return TokenValidationResult.invalid("Invalid token: " + e.getMessage());
+            }
+        }
+        
+        return TokenValidationResult.invalid("Token not found");
+    }
+    
+    private TokenIntrospectionResult checkIntrospection(String token) {
+        AccessToken accessToken = activeTokens.get(token);
+        if (accessToken != null && !accessToken.isExpired()) {
+            return TokenIntrospectionResult.active(accessToken);
+        }
+        
+        RefreshToken refreshToken = refreshTokens.get(token);
+        if (refreshToken != null && !refreshToken.isExpired()) {
+            return TokenIntrospectionResult.active(refreshToken);
+        }
+        
+        JwtTokenVerifier verifier = jwtVerifier;
+        if (verifier != null && JwtTokenVerifier.isJwt(token) && !isRevoked(token)) {
+            try {
+                return TokenIntrospectionResult.active(verifier.verify(token));
+            } catch (JwtTokenVerifier.TokenVerificationException e) {
+                return TokenIntrospectionResult.inactive();
+            }
+        }
+        
+        return TokenIntrospectionResult.inactive();
+    }
+    
+    private boolean isRevoked(String token) {
+        Long until = revokedTokens.get(TokenValidationCache.hash(token));
+        return until != null && System.currentTimeMillis() < until;
+    }
+    
+    private void recordRevocation(String tokenHash, long until) {
+        long now = System.currentTimeMillis();
+        revokedTokens.values().removeIf(expiry -> expiry <= now);
+        revokedTokens.put(tokenHash, until);
+    }
+    
+    private void invalidateCachedToken(String tokenHash) {
+        validationCache.invalidateHash(tokenHash);
+        introspectionCache.invalidateHash(tokenHash);
+    }
+    
     private void registerDefaultClients() {
         // Register default AMCP system client
         OAuth2Client systemClient = new OAuth2Client(
@@ -0,0 +1,322 @@
+package io.amcp.security;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiled role-based authorization model.
+ *
+ * <p>Permission strings are interned to dense integer IDs and every role is
+ * compiled once to a bitset of the IDs it grants. A {@link SecurityContext}
+ * ORs the bitsets of its roles and explicit grants into one
+ * {@link CompiledPermissions} and keeps it until the model changes, so a
+ * permission check is a map lookup and a bit test instead of rebuilding sets.</p>
+ *
+ * <p>Wildcards are trailing: {@code system:*} grants every permission starting
+ * with {@code system:}, and {@code *} or {@code *:*} grants everything.
+ * Wildcard prefixes are kept in a trie; when a permission is interned the trie
+ * yields the IDs of all wildcards that cover it, stored with the permission so
+ * wildcard grants are also checked with a bitset intersection.</p>
+ *
+ * <p>Only role definitions grow the intern table. Explicit grants of a context
+ * that no role mentions are kept with its {@link CompiledPermissions}, so
+ * per-principal permissions cannot grow the shared model without bound.</p>
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+public final class PermissionModel {
+
+    private static final PermissionModel DEFAULT = withDefaultRoles();
+
+    private final Map<String, Permission> permissions = new ConcurrentHashMap<>();
+    private final List<String> names = new ArrayList<>();
+    private final TrieNode wildcards = new TrieNode();
+    private final Map<String, BitSet> roles = new ConcurrentHashMap<>();
+    private volatile long version;
+
+    /**
+     * Gets the shared model with the built-in AMCP roles
+     */
+    public static PermissionModel getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Create a model with the built-in USER, ADMIN, SUPER_ADMIN and SYSTEM roles
+     */
+    public static PermissionModel withDefaultRoles() {
+        PermissionModel model = new PermissionModel();
+        model.defineRole("USER", Set.of(
+            "event:publish",
+            "event:subscribe",
+            "agent:create",
+            "agent:read"
+        ));
+        model.defineRole("ADMIN", Set.of(
+            "event:publish",
+            "event:subscribe",
+            "event:admin",
+            "agent:create",
+            "agent:read",
+            "agent:update",
+            "agent:delete",
+            "system:monitor",
+            "tenant:manage"
+        ));
+        model.defineRole("SUPER_ADMIN", Set.of(
+            "*:*"  // All permissions
+        ));
+        model.defineRole("SYSTEM", Set.of(
+            "system:*",
+            "event:*",
+            "agent:*",
+            "tenant:*"
+        ));
+        return model;
+    }
+
+    /**
+     * Define or replace a role. Contexts recompile their permissions on next use.
+     */
+    public synchronized void defineRole(String role, Collection<String> granted) {
+        BitSet bits = new BitSet();
+        for (String permission : granted) {
+            bits.set(intern(permission).id);
+        }
+        roles.put(role, bits);
+        version++;
+    }
+
+    public synchronized void removeRole(String role) {
+        if (roles.remove(role) != null) {
+            version++;
+        }
+    }
+
+    /**
+     * Gets the permissions granted by a role, or an empty set if it is not defined
+     */
+    public Set<String> getRolePermissions(String role) {
+        BitSet bits = roles.get(role);
+        return bits == null ? Collections.emptySet() : namesOf(bits);
+    }
+
+    /**
+     * Version counter bumped by every role change
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Compile the permissions of a set of roles plus explicit grants
+     */
+    public CompiledPermissions compile(Collection<String> roleNames, Collection<String> explicit) {
+        long compiledVersion = version;
+        BitSet bits = new BitSet();
+        for (String role : roleNames) {
+            BitSet roleBits = roles.get(role);
+            if (roleBits != null) {
+                bits.or(roleBits);
+            }
+        }
+        Set<String> unlisted = Collections.emptySet();
+        for (String permission : explicit) {
+            Permission known = permissions.get(permission);
+            if (known != null) {
+                bits.set(known.id);
+            } else {
+                if (unlisted.isEmpty()) {
+                    unlisted = new LinkedHashSet<>();
+                }
+                unlisted.add(permission);
+            }
+        }
+        return new CompiledPermissions(this, bits, unlisted, compiledVersion);
+    }
+
+    /**
+     * Check a permission against a compiled grant set
+     */
+    boolean implies(BitSet granted, String permission) {
+        Permission known = permissions.get(permission);
+        if (known != null) {
+            return granted.get(known.id) || granted.intersects(known.impliedBy);
+        }
+        // Never seen: only a wildcard can grant it
+        return matchWildcards(permission, granted);
+    }
+
+    /**
+     * Number of interned permission strings
+     */
+    synchronized int size() {
+        return names.size();
+    }
+
+    Set<String> namesOf(BitSet bits) {
+        Set<String> result = new LinkedHashSet<>();
+        synchronized (this) {
+            for (int id = bits.nextSetBit(0); id >= 0; id = bits.nextSetBit(id + 1)) {
+                result.add(names.get(id));
+            }
+        }
+        return Collections.unmodifiableSet(result);
+    }
+
+    // Called with the model locked
+
+    private Permission intern(String permission) {
+        Permission existing = permissions.get(permission);
+        if (existing != null) {
+            return existing;
+        }
+
+        int id = names.size();
+        names.add(permission);
+        Permission created = new Permission(id, collectWildcards(permission));
+        permissions.put(permission, created);
+
+        String prefix = wildcardPrefix(permission);
+        if (prefix != null) {
+            insertWildcard(prefix, id);
+            // Existing permissions covered by the new wildcard gain it as an implier
+            for (Map.Entry<String, Permission> entry : new HashMap<>(permissions).entrySet()) {
+                if (entry.getValue().id != id && entry.getKey().startsWith(prefix)) {
+                    BitSet impliedBy = (BitSet) entry.getValue().impliedBy.clone();
+                    impliedBy.set(id);
+                    permissions.put(entry.getKey(), new Permission(entry.getValue().id, impliedBy));
+                }
+            }
+        }
+        return created;
+    }
+
+    private void insertWildcard(String prefix, int id) {
+        TrieNode node = wildcards;
+        for (int i = 0; i < prefix.length(); i++) {
+            node = node.children.computeIfAbsent(prefix.charAt(i), c -> new TrieNode());
+        }
+        node.wildcardIds.add(id);
+    }
+
+    private BitSet collectWildcards(String permission) {
+        BitSet result = new BitSet();
+        TrieNode node = wildcards;
+        int i = 0;
+        while (node != null) {
+            for (int id : node.wildcardIds) {
+                result.set(id);
+            }
+            if (i == permission.length()) {
+                break;
+            }
+            node = node.children.get(permission.charAt(i++));
+        }
+        return result;
+    }
+
+    private boolean matchWildcards(String permission, BitSet granted) {
+        synchronized (this) {
+            return granted.intersects(collectWildcards(permission));
+        }
+    }
+
+    /**
+     * Gets the prefix a wildcard permission covers, or null if it is not a wildcard
+     */
+    private static String wildcardPrefix(String permission) {
+        if (permission.equals("*") || permission.equals("*:*")) {
+            return "";
+        }
+        if (permission.endsWith("*")) {
+            return permission.substring(0, permission.length() - 1);
+        }
+        return null;
+    }
+
+    private static final class Permission {
+        final int id;
+        final BitSet impliedBy;
+
+        Permission(int id, BitSet impliedBy) {
+            this.id = id;
+            this.impliedBy = impliedBy;
+        }
+    }
+
+    private static final class TrieNode {
+        final Map<Character, TrieNode> children = new HashMap<>();
+        final List<Integer> wildcardIds = new ArrayList<>(1);
+    }
+
+    /**
+     * Immutable permission set compiled against one version of a model
+     */
+    public static final class CompiledPermissions {
+        private final PermissionModel model;
+        private final BitSet bits;
+        private final Set<String> unlisted;
+        private final List<String> unlistedPrefixes = new ArrayList<>();
+        private final long version;
+        private volatile Set<String> names;
+
+        private CompiledPermissions(PermissionModel model, BitSet bits, Set<String> unlisted, long version) {
+            this.model = model;
+            this.bits = bits;
+            this.unlisted = unlisted;
+            this.version = version;
+            for (String permission : unlisted) {
+                String prefix = wildcardPrefix(permission);
+                if (prefix != null) {
+                    unlistedPrefixes.add(prefix);
+                }
+            }
+        }
+
+        public boolean isPermitted(String permission) {
+            if (model.implies(bits, permission) || unlisted.contains(permission)) {
+                return true;
+            }
+            for (String prefix : unlistedPrefixes) {
+                if (permission.startsWith(prefix)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Whether the model changed since this set was compiled
+         */
+        public boolean isStale() {
+            return version != model.getVersion();
+        }
+
+        /**
+         * Gets the granted permission strings, wildcards unexpanded
+         */
+        public Set<String> getPermissions() {
+            Set<String> current = names;
+            if (current == null) {
+                current = model.namesOf(bits);
+                if (!unlisted.isEmpty()) {
+                    Set<String> all = new LinkedHashSet<>(current);
+                    all.addAll(unlisted);
+                    current = Collections.unmodifiableSet(all);
+                }
+                names = current;
+            }
+            return current;
+        }
+    }
+}
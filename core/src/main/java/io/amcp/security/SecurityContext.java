@@ -32,6 +32,8 @@ public class SecurityContext implements Principal {
     private final Instant expiresAt;
     private final Map<String, Object> securityMetadata;
     private final String authenticationMethod;
+    private final PermissionModel permissionModel;
+    private volatile PermissionModel.CompiledPermissions compiledPermissions;
     private volatile boolean authenticated;
     private volatile Instant lastAccessTime;
     
@@ -47,6 +49,7 @@ public class SecurityContext implements Principal {
         this.expiresAt = builder.expiresAt;
         this.securityMetadata = new ConcurrentHashMap<>(builder.securityMetadata);
         this.authenticationMethod = builder.authenticationMethod;
+        this.permissionModel = builder.permissionModel;
         this.authenticated = builder.authenticated;
         this.lastAccessTime = Instant.now();
     }
@@ -197,67 +200,42 @@ public class SecurityContext implements Principal {
     }
     
     /**
-     * Get effective permissions including role-based permissions
+     * Get effective permissions including role-based permissions. Wildcard
+     * grants such as {@code system:*} are returned as-is; use
+     * {@link #isPermitted(String)} to check a concrete permission.
      */
     public Set<String> getEffectivePermissions() {
-        Set<String> effective = new HashSet<>();
-        
-        // Add explicit permissions
-        permissions.forEach((key, value) -> {
-            if (Boolean.TRUE.equals(value)) {
-                effective.add(key);
-            }
-        });
-        
-        // Add role-based permissions
-        for (String role : roles) {
-            effective.addAll(getRolePermissions(role));
-        }
-        
-        return effective;
+        return compiledPermissions().getPermissions();
     }
     
-    private Set<String> getRolePermissions(String role) {
-        // This would typically be loaded from a role configuration
-        Map<String, Set<String>> rolePermissions = getRolePermissionsMap();
-        return rolePermissions.getOrDefault(role, Collections.emptySet());
+    /**
+     * Check a permission against explicit grants and role permissions,
+     * including wildcards
+     */
+    public boolean isPermitted(String permission) {
+        return compiledPermissions().isPermitted(permission);
     }
     
-    private Map<String, Set<String>> getRolePermissionsMap() {
-        // Default role permissions - would be configurable in production
-        Map<String, Set<String>> rolePermissions = new HashMap<>();
-        
-        rolePermissions.put("USER", Set.of(
-            "event:publish",
-            "event:subscribe",
-            "agent:create",
-            "agent:read"
-        ));
-        
-        rolePermissions.put("ADMIN", Set.of(
-            "event:publish",
-            "event:subscribe",
-            "event:admin",
-            "agent:create",
-            "agent:read",
-            "agent:update",
-            "agent:delete",
-            "system:monitor",
-            "tenant:manage"
-        ));
-        
-        rolePermissions.put("SUPER_ADMIN", Set.of(
-            "*:*"  // All permissions
-        ));
-        
-        rolePermissions.put("SYSTEM", Set.of(
-            "system:*",
-            "event:*",
-            "agent:*",
-            "tenant:*"
-        ));
-        
-        return rolePermissions;
+    public PermissionModel getPermissionModel() {
+        return permissionModel;
+    }
+    
+    /**
+     * Roles are compiled once and reused until the model's roles change
+     */
+    private PermissionModel.CompiledPermissions compiledPermissions() {
+        PermissionModel.CompiledPermissions compiled = compiledPermissions;
+        if (compiled == null || compiled.isStale()) {
+            List<String> granted = new ArrayList<>();
+            permissions.forEach((key, value) -> {
+                if (Boolean.TRUE.equals(value)) {
+                    granted.add(key);
+                }
+            });
+            compiled = permissionModel.compile(roles, granted);
+            compiledPermissions = compiled;
+        }
+        return compiled;
     }
     
     @Override
@@ -315,6 +293,7 @@ public class SecurityContext implements Principal {
         private Map<String, Object> securityMetadata = new HashMap<>();
         private String authenticationMethod = "unknown";
         private boolean authenticated = false;
+        private PermissionModel permissionModel = PermissionModel.getDefault();
         
         public Builder principalId(String principalId) {
             this.principalId = principalId;
@@ -396,6 +375,14 @@ public class SecurityContext implements Principal {
             return this;
         }
         
+        /**
+         * Role definitions to evaluate permissions against; defaults to the shared model
+         */
+        public Builder permissionModel(PermissionModel permissionModel) {
+            this.permissionModel = permissionModel;
+            return this;
+        }
+        
         public Builder authenticationMethod(String method) {
             this.authenticationMethod = method;
             return this;
@@ -0,0 +1,240 @@
+package io.amcp.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of token validation outcomes, keyed by a SHA-256 hash of the token so
+ * raw credentials are never held as map keys.
+ *
+ * <p>Positive entries live for at most the configured TTL and never past the
+ * token's own expiry, so a cached answer cannot outlive the token. Negative
+ * entries (unknown, malformed or badly signed tokens) are kept for a short
+ * TTL, which absorbs retries of a bad token without pinning a token that
+ * becomes valid later. Revocation must {@link #invalidate} the token.</p>
+ *
+ * <p>A validation that was in flight while a token was revoked must not put
+ * the stale result back. Callers take a {@link #generation()} before
+ * validating and pass it to the put methods; an entry is only kept if no
+ * invalidation happened in between.</p>
+ *
+ * @param <V> cached validation result type
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+public final class TokenValidationCache<V> {
+
+    public static final int DEFAULT_MAX_ENTRIES = 10000;
+    public static final long DEFAULT_TTL_MS = 300000; // 5 minutes
+    public static final long DEFAULT_NEGATIVE_TTL_MS = 30000;
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private final Map<String, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final long negativeTtlMillis;
+
+    private final AtomicLong hits = new AtomicLong(0);
+    private final AtomicLong negativeHits = new AtomicLong(0);
+    private final AtomicLong misses = new AtomicLong(0);
+    private final AtomicLong invalidations = new AtomicLong(0);
+    private final AtomicLong generation = new AtomicLong(0);
+
+    public TokenValidationCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_TTL_MS, DEFAULT_NEGATIVE_TTL_MS);
+    }
+
+    public TokenValidationCache(int maxEntries, long ttlMillis, long negativeTtlMillis) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Max entries must be positive: " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.negativeTtlMillis = negativeTtlMillis;
+    }
+
+    /**
+     * Gets the cached result for a token, or null if there is no live entry
+     */
+    public V get(String token) {
+        String tokenHash = hash(token);
+        Entry<V> entry = entries.get(tokenHash);
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        if (System.currentTimeMillis() >= entry.expiresAt) {
+            entries.remove(tokenHash, entry);
+            misses.incrementAndGet();
+            return null;
+        }
+        (entry.negative ? negativeHits : hits).incrementAndGet();
+        return entry.value;
+    }
+
+    /**
+     * Current invalidation generation; take it before validating a token and
+     * pass it to {@link #putValid} or {@link #putInvalid}
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Cache a successful validation until the TTL or the token's expiry,
+     * whichever comes first
+     */
+    public void putValid(String token, V value, long tokenExpiresAt) {
+        putValid(token, value, tokenExpiresAt, generation.get());
+    }
+
+    /**
+     * Cache a successful validation started at the given generation; dropped
+     * if anything was invalidated since
+     */
+    public void putValid(String token, V value, long tokenExpiresAt, long validatedAt) {
+        long expiresAt = Math.min(System.currentTimeMillis() + ttlMillis, tokenExpiresAt);
+        put(hash(token), new Entry<>(value, expiresAt, false), validatedAt);
+    }
+
+    /**
+     * Cache a failed validation for the negative TTL
+     */
+    public void putInvalid(String token, V value) {
+        putInvalid(token, value, generation.get());
+    }
+
+    /**
+     * Cache a failed validation started at the given generation
+     */
+    public void putInvalid(String token, V value, long validatedAt) {
+        put(hash(token), new Entry<>(value, System.currentTimeMillis() + negativeTtlMillis, true), validatedAt);
+    }
+
+    public void invalidate(String token) {
+        invalidateHash(hash(token));
+    }
+
+    /**
+     * Drop the entry for a token hash, e.g. one received from a revocation feed
+     */
+    public void invalidateHash(String tokenHash) {
+        generation.incrementAndGet();
+        if (entries.remove(tokenHash) != null) {
+            invalidations.incrementAndGet();
+        }
+    }
+
+    public void clear() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public CacheStatistics getStatistics() {
+        return new CacheStatistics(entries.size(), hits.get(), negativeHits.get(), misses.get(),
+                                   invalidations.get());
+    }
+
+    /**
+     * URL-safe Base64 SHA-256 of a token, the key under which it is cached
+     */
+    public static String hash(String token) {
+        MessageDigest digest = SHA256.get();
+        digest.reset();
+        byte[] hashed = digest.digest(token.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(hashed);
+    }
+
+    private void put(String tokenHash, Entry<V> entry, long validatedAt) {
+        if (entry.expiresAt <= System.currentTimeMillis() || generation.get() != validatedAt) {
+            return;
+        }
+        if (entries.size() >= maxEntries && !entries.containsKey(tokenHash)) {
+            makeRoom();
+        }
+        entries.put(tokenHash, entry);
+        // An invalidation racing with the put bumps the generation before removing
+        if (generation.get() != validatedAt) {
+            entries.remove(tokenHash, entry);
+        }
+    }
+
+    /**
+     * Drop expired entries, then arbitrary ones until a tenth of the capacity is free
+     */
+    private void makeRoom() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> now >= entry.expiresAt);
+        int target = maxEntries - Math.max(1, maxEntries / 10);
+        Iterator<String> it = entries.keySet().iterator();
+        while (entries.size() > target && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        final long expiresAt;
+        final boolean negative;
+
+        Entry(V value, long expiresAt, boolean negative) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+            this.negative = negative;
+        }
+    }
+
+    /**
+     * Cache counters
+     */
+    public static class CacheStatistics {
+        private final int size;
+        private final long hits;
+        private final long negativeHits;
+        private final long misses;
+        private final long invalidations;
+
+        public CacheStatistics(int size, long hits, long negativeHits, long misses, long invalidations) {
+            this.size = size;
+            this.hits = hits;
+            this.negativeHits = negativeHits;
+            this.misses = misses;
+            this.invalidations = invalidations;
+        }
+
+        public int getSize() { return size; }
+        public long getHits() { return hits; }
+        public long getNegativeHits() { return negativeHits; }
+        public long getMisses() { return misses; }
+        public long getInvalidations() { return invalidations; }
+
+        public double getHitRatio() {
+            long lookups = hits + negativeHits + misses;
+            return lookups == 0 ? 0.0 : (double) (hits + negativeHits) / lookups;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("CacheStatistics{size=%d, hits=%d, negativeHits=%d, misses=%d, invalidations=%d}",
+                               size, hits, negativeHits, misses, invalidations);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package io.amcp.security.audit;
+
+import io.amcp.security.SecurityAuditEntry;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Reads audit log files written by {@link SecurityAuditLog}.
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+public final class AuditLogReader {
+
+    private AuditLogReader() {
+    }
+
+    /**
+     * Read every intact record of one file. Reading stops at the first torn or
+     * corrupt record, which can only be the tail of a file cut short by a crash.
+     */
+    public static List<SecurityAuditEntry> read(Path file) throws IOException {
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (data.remaining() < AuditRecordCodec.HEADER_LENGTH) {
+            return new ArrayList<>();
+        }
+        byte[] magic = new byte[AuditRecordCodec.MAGIC.length];
+        data.get(magic);
+        if (!Arrays.equals(magic, AuditRecordCodec.MAGIC)) {
+            throw new IOException("Not an audit log: " + file);
+        }
+        byte version = data.get();
+        if (version != AuditRecordCodec.VERSION) {
+            throw new IOException("Unsupported audit log version " + version + ": " + file);
+        }
+
+        List<SecurityAuditEntry> entries = new ArrayList<>();
+        while (data.remaining() >= AuditRecordCodec.RECORD_OVERHEAD) {
+            int length = data.getInt();
+            int checksum = data.getInt();
+            if (length < 0 || length > AuditRecordCodec.MAX_RECORD_LENGTH || length > data.remaining()) {
+                break;
+            }
+            ByteBuffer payload = data.slice();
+            payload.limit(length);
+            if (!AuditRecordCodec.checksumMatches(payload, checksum)) {
+                break;
+            }
+            entries.add(AuditRecordCodec.decode(payload));
+            data.position(data.position() + length);
+        }
+        return entries;
+    }
+
+    /**
+     * Read all files of a log in the order they were written
+     */
+    public static List<SecurityAuditEntry> readAll(Path directory, String filePrefix) throws IOException {
+        List<SecurityAuditEntry> entries = new ArrayList<>();
+        for (Path file : listFiles(directory, filePrefix)) {
+            entries.addAll(read(file));
+        }
+        return entries;
+    }
+
+    /**
+     * List the files of a log, oldest first
+     */
+    static List<Path> listFiles(Path directory, String filePrefix) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> result = new ArrayList<>();
+            files.filter(path -> {
+                    String name = path.getFileName().toString();
+                    return name.startsWith(filePrefix + "-") && name.endsWith(SecurityAuditLog.FILE_SUFFIX);
+                })
+                .sorted()
+                .forEach(result::add);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package io.amcp.security.audit;
+
+import io.amcp.security.SecurityAuditEntry;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary encoding of audit entries in the audit log file.
+ *
+ * <p>A file starts with {@link #MAGIC} and a version byte, followed by
+ * records of {@code [u32 length][u32 CRC32C][payload]}. The payload holds the
+ * timestamp, a flags byte, the string fields as length-prefixed UTF-8 (length
+ * plus one, zero for null), the duration and the metadata pairs, with
+ * integers as varints. A torn record at the end of a file fails its length or
+ * checksum test and marks the end of readable data.</p>
+ *
+ * <p>A record whose payload would exceed {@link #MAX_RECORD_LENGTH} is
+ * re-encoded with every string cut to {@link #TRUNCATED_STRING_CHARS}
+ * characters, at most {@link #TRUNCATED_METADATA_PAIRS} metadata pairs and a
+ * {@code truncated} marker, so it stays readable.</p>
+ */
+final class AuditRecordCodec {
+
+    static final byte[] MAGIC = {'A', 'M', 'A', 'U'};
+    static final byte VERSION = 1;
+    static final int HEADER_LENGTH = MAGIC.length + 1;
+    static final int RECORD_OVERHEAD = 8;
+    static final int MAX_RECORD_LENGTH = 1 << 20;
+    static final int TRUNCATED_STRING_CHARS = 1024;
+    static final int TRUNCATED_METADATA_PAIRS = 64;
+    static final String TRUNCATED_KEY = "truncated";
+
+    private static final int FLAG_SUCCESS = 1;
+
+    private AuditRecordCodec() {
+    }
+
+    static byte[] header() {
+        byte[] header = new byte[HEADER_LENGTH];
+        System.arraycopy(MAGIC, 0, header, 0, MAGIC.length);
+        header[MAGIC.length] = VERSION;
+        return header;
+    }
+
+    /**
+     * Append one framed record to the buffer
+     */
+    static void encode(SecurityAuditEntry entry, RecordBuffer out) {
+        int start = out.size();
+        encodePayload(entry, out, Integer.MAX_VALUE, Integer.MAX_VALUE);
+        if (out.size() - start - RECORD_OVERHEAD > MAX_RECORD_LENGTH) {
+            out.truncate(start);
+            encodePayload(entry, out, TRUNCATED_STRING_CHARS, TRUNCATED_METADATA_PAIRS);
+        }
+
+        int payloadLength = out.size() - start - RECORD_OVERHEAD;
+        CRC32C crc = new CRC32C();
+        crc.update(out.array(), start + RECORD_OVERHEAD, payloadLength);
+        out.putInt(start, payloadLength);
+        out.putInt(start + 4, (int) crc.getValue());
+    }
+
+    private static void encodePayload(SecurityAuditEntry entry, RecordBuffer out, int maxChars, int maxPairs) {
+        out.skip(RECORD_OVERHEAD);
+
+        Instant timestamp = entry.getTimestamp();
+        out.writeVarLong(timestamp.getEpochSecond());
+        out.writeVarLong(timestamp.getNano());
+        out.write(entry.isSuccess() ? FLAG_SUCCESS : 0);
+        out.writeString(cut(entry.getPrincipalId(), maxChars));
+        out.writeString(cut(entry.getTenantId(), maxChars));
+        out.writeString(cut(entry.getSessionId(), maxChars));
+        out.writeString(cut(entry.getAction(), maxChars));
+        out.writeString(cut(entry.getResource(), maxChars));
+        out.writeString(cut(entry.getIpAddress(), maxChars));
+        out.writeString(cut(entry.getUserAgent(), maxChars));
+        out.writeString(cut(entry.getErrorMessage(), maxChars));
+        out.writeVarLong(entry.getDuration());
+
+        Map<String, String> metadata = entry.getMetadata();
+        boolean truncated = maxChars != Integer.MAX_VALUE;
+        int pairs = Math.min(metadata.size(), maxPairs);
+        out.writeVarLong(truncated ? pairs + 1L : pairs);
+        int written = 0;
+        for (Map.Entry<String, String> pair : metadata.entrySet()) {
+            if (written++ == pairs) {
+                break;
+            }
+            out.writeString(cut(pair.getKey(), maxChars));
+            out.writeString(cut(pair.getValue(), maxChars));
+        }
+        if (truncated) {
+            out.writeString(TRUNCATED_KEY);
+            out.writeString("true");
+        }
+    }
+
+    private static String cut(String value, int maxChars) {
+        if (value == null || value.length() <= maxChars) {
+            return value;
+        }
+        int end = Character.isHighSurrogate(value.charAt(maxChars - 1)) ? maxChars - 1 : maxChars;
+        return value.substring(0, end);
+    }
+
+    static SecurityAuditEntry decode(ByteBuffer payload) throws IOException {
+        SecurityAuditEntry.Builder builder = SecurityAuditEntry.builder();
+        long seconds = readVarLong(payload);
+        long nanos = readVarLong(payload);
+        builder.timestamp(Instant.ofEpochSecond(seconds, nanos));
+        builder.success((payload.get() & FLAG_SUCCESS) != 0);
+        builder.principalId(readString(payload));
+        builder.tenantId(readString(payload));
+        builder.sessionId(readString(payload));
+        builder.action(readString(payload));
+        builder.resource(readString(payload));
+        builder.ipAddress(readString(payload));
+        builder.userAgent(readString(payload));
+        builder.errorMessage(readString(payload));
+        builder.duration(readVarLong(payload));
+        long pairs = readVarLong(payload);
+        for (long i = 0; i < pairs; i++) {
+            builder.metadata(readString(payload), readString(payload));
+        }
+        return builder.build();
+    }
+
+    static boolean checksumMatches(ByteBuffer payload, int expected) {
+        CRC32C crc = new CRC32C();
+        crc.update(payload.duplicate());
+        return (int) crc.getValue() == expected;
+    }
+
+    private static long readVarLong(ByteBuffer in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in audit record");
+    }
+
+    private static String readString(ByteBuffer in) throws IOException {
+        long length = readVarLong(in);
+        if (length == 0) {
+            return null;
+        }
+        int bytes = (int) (length - 1);
+        if (bytes > in.remaining()) {
+            throw new IOException("String length " + bytes + " exceeds audit record");
+        }
+        String value = new String(in.array(), in.arrayOffset() + in.position(), bytes, StandardCharsets.UTF_8);
+        in.position(in.position() + bytes);
+        return value;
+    }
+
+    /**
+     * Growable byte buffer a whole batch of records is encoded into, so a
+     * batch reaches the file in one write
+     */
+    static final class RecordBuffer extends ByteArrayOutputStream {
+
+        RecordBuffer(int initialCapacity) {
+            super(initialCapacity);
+        }
+
+        byte[] array() {
+            return buf;
+        }
+
+        /**
+         * Drop everything after the given size, e.g. a record being re-encoded
+         */
+        void truncate(int size) {
+            count = size;
+        }
+
+        void skip(int bytes) {
+            for (int i = 0; i < bytes; i++) {
+                write(0);
+            }
+        }
+
+        void putInt(int offset, int value) {
+            buf[offset] = (byte) (value >>> 24);
+            buf[offset + 1] = (byte) (value >>> 16);
+            buf[offset + 2] = (byte) (value >>> 8);
+            buf[offset + 3] = (byte) value;
+        }
+
+        void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        void writeString(String value) {
+            if (value == null) {
+                writeVarLong(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length + 1L);
+            write(bytes, 0, bytes.length);
+        }
+    }
+}
@@ -0,0 +1,608 @@
+package io.amcp.security.audit;
+
+import io.amcp.security.SecurityAuditEntry;
+import io.amcp.security.SecurityContext;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous, batched sink for {@link SecurityAuditEntry} records.
+ *
+ * <p>Callers hand entries to a lock-free ring buffer and return immediately;
+ * a single writer thread drains the buffer in batches, encodes each batch
+ * into one buffer and appends it to the current log file with one write. The
+ * file is forced to disk once per batch, or at most once per
+ * {@link Config#getSyncIntervalMillis() sync interval}, so concurrent
+ * decisions share an fsync instead of paying one each. Files rotate at
+ * {@link Config#getMaxFileBytes()} and only the newest
+ * {@link Config#getMaxFiles()} are kept.</p>
+ *
+ * <p>When the buffer fills faster than the disk drains it, the
+ * {@link BackpressurePolicy} decides whether callers block, whether routine
+ * entries are sampled, or whether entries are dropped; every outcome is
+ * counted in {@link AuditStatistics}.</p>
+ *
+ * @author AMCP Development Team
+ * @version 1.5.0
+ */
+public class SecurityAuditLog implements AutoCloseable {
+
+    static final String FILE_SUFFIX = ".audit";
+
+    /**
+     * What {@link #record} does when the buffer cannot take an entry
+     */
+    public enum BackpressurePolicy {
+        /** Wait for space; no entry is lost, callers absorb the disk latency */
+        BLOCK,
+        /**
+         * Above the high-water mark keep one in {@link Config#getSampleRate()}
+         * low-severity entries; medium and high severity entries are kept until
+         * the buffer is full
+         */
+        SAMPLE,
+        /** Drop entries that do not fit */
+        DROP
+    }
+
+    private final Config config;
+    private final AuditRingBuffer<SecurityAuditEntry> buffer;
+    private final Thread writer;
+    private final ConcurrentLinkedQueue<FlushRequest> flushRequests = new ConcurrentLinkedQueue<>();
+    private final int highWaterMark;
+    private volatile boolean writerParked;
+    private volatile boolean closed;
+    private volatile boolean writerDone;
+    private volatile IOException lastError;
+
+    // Writer thread state
+    private FileChannel channel;
+    private Path currentFile;
+    private long currentFileBytes;
+    private long lastSyncNanos = System.nanoTime();
+    private boolean unsynced;
+    private long unsyncedFrom; // processed count when the oldest unsynced record was written
+    private boolean reopenFile;
+    private IOException unreportedFailure; // failure no pending flush covered yet
+    private int fileSequence;
+
+    private final AtomicLong accepted = new AtomicLong(0);
+    private final AtomicLong written = new AtomicLong(0);
+    private final AtomicLong processed = new AtomicLong(0); // written or failed, drives flush progress
+    private final AtomicLong dropped = new AtomicLong(0);
+    private final AtomicLong sampledOut = new AtomicLong(0);
+    private final AtomicLong blocked = new AtomicLong(0);
+    private final AtomicLong batches = new AtomicLong(0);
+    private final AtomicLong syncs = new AtomicLong(0);
+    private final AtomicLong rotations = new AtomicLong(0);
+    private final AtomicLong bytesWritten = new AtomicLong(0);
+    private final AtomicLong writeErrors = new AtomicLong(0);
+    private final AtomicLong sampleCounter = new AtomicLong(0);
+
+    public SecurityAuditLog(Config config) throws IOException {
+        this.config = config;
+        this.buffer = new AuditRingBuffer<>(config.getBufferCapacity());
+        this.highWaterMark = (int) (config.getBufferCapacity() * 0.75);
+        Files.createDirectories(config.getDirectory());
+        openNextFile();
+        this.writer = new Thread(this::runWriter, "security-audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Queue an entry for writing
+     *
+     * @return false if the entry was dropped or sampled out
+     */
+    public boolean record(SecurityAuditEntry entry) {
+        Objects.requireNonNull(entry, "entry");
+        if (closed) {
+            dropped.incrementAndGet();
+            return false;
+        }
+
+        if (config.getPolicy() == BackpressurePolicy.SAMPLE && buffer.size() >= highWaterMark
+                && entry.getSeverity() == SecurityAuditEntry.AuditSeverity.LOW
+                && sampleCounter.incrementAndGet() % config.getSampleRate() != 0) {
+            sampledOut.incrementAndGet();
+            return false;
+        }
+
+        if (buffer.offer(entry)) {
+            accepted.incrementAndGet();
+            wakeWriter();
+            return true;
+        }
+
+        if (config.getPolicy() != BackpressurePolicy.BLOCK) {
+            dropped.incrementAndGet();
+            return false;
+        }
+
+        blocked.incrementAndGet();
+        wakeWriter();
+        while (!buffer.offer(entry)) {
+            if (closed) {
+                dropped.incrementAndGet();
+                return false;
+            }
+            LockSupport.parkNanos(50_000);
+        }
+        accepted.incrementAndGet();
+        wakeWriter();
+        return true;
+    }
+
+    /**
+     * Record an authorization decision made for a security context
+     */
+    public boolean recordDecision(SecurityContext context, String action, String resource, boolean success) {
+        return record(context.createAuditEntry(action, resource, success));
+    }
+
+    /**
+     * Get a future that completes once every entry accepted so far is written
+     * and synced to disk. It completes exceptionally with the I/O error if a
+     * write or sync covering any of those entries failed.
+     */
+    public CompletableFuture<Void> flush() {
+        FlushRequest request = new FlushRequest(processed.get(), accepted.get());
+        flushRequests.add(request);
+        if (writerDone) {
+            // The writer may have finished before seeing the request
+            completeLateFlushes();
+        } else {
+            wakeWriter();
+        }
+        return request.future;
+    }
+
+    /**
+     * Stop accepting entries, write what is buffered and close the file
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Gets the file entries are currently appended to
+     */
+    public Path getCurrentFile() {
+        return currentFile;
+    }
+
+    public AuditStatistics getStatistics() {
+        return new AuditStatistics(accepted.get(), written.get(), dropped.get(), sampledOut.get(), blocked.get(),
+                                   batches.get(), syncs.get(), rotations.get(), bytesWritten.get(),
+                                   writeErrors.get(), buffer.size());
+    }
+
+    /**
+     * Gets the most recent write failure, or null if writes have succeeded
+     */
+    public IOException getLastError() {
+        return lastError;
+    }
+
+    private void wakeWriter() {
+        if (writerParked) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private void runWriter() {
+        List<SecurityAuditEntry> batch = new ArrayList<>(config.getBatchSize());
+        AuditRecordCodec.RecordBuffer encoded = new AuditRecordCodec.RecordBuffer(64 * 1024);
+        while (true) {
+            batch.clear();
+            buffer.drainTo(batch, config.getBatchSize());
+            if (!batch.isEmpty()) {
+                writeBatch(batch, encoded);
+                continue;
+            }
+
+            syncIfDue(!flushRequests.isEmpty());
+            completeFlushes();
+            if (closed && buffer.size() == 0) {
+                break;
+            }
+
+            writerParked = true;
+            // Re-check after announcing the park so a concurrent offer cannot be missed
+            if (buffer.size() == 0 && flushRequests.isEmpty() && !closed) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(Math.max(1, config.getSyncIntervalMillis())));
+            }
+            writerParked = false;
+        }
+
+        syncIfDue(true);
+        completeFlushes();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            recordError(e);
+        }
+        writerDone = true;
+        completeLateFlushes();
+    }
+
+    private void writeBatch(List<SecurityAuditEntry> batch, AuditRecordCodec.RecordBuffer encoded) {
+        encoded.reset();
+        for (SecurityAuditEntry entry : batch) {
+            AuditRecordCodec.encode(entry, encoded);
+        }
+        long batchFrom = processed.get();
+        try {
+            if (reopenFile) {
+                // A torn record ends the readable part of a file, so continue in a fresh one
+                closeQuietly();
+                openNextFile();
+                reopenFile = false;
+            } else if (currentFileBytes + encoded.size() > config.getMaxFileBytes()
+                    && currentFileBytes > AuditRecordCodec.HEADER_LENGTH) {
+                rotate();
+            }
+            ByteBuffer data = ByteBuffer.wrap(encoded.array(), 0, encoded.size());
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+            currentFileBytes += encoded.size();
+            bytesWritten.addAndGet(encoded.size());
+            if (!unsynced) {
+                unsyncedFrom = batchFrom;
+                unsynced = true;
+            }
+            batches.incrementAndGet();
+            written.addAndGet(batch.size());
+        } catch (IOException e) {
+            recordError(e);
+            reopenFile = true;
+            // Unsynced records before the batch are lost along with it
+            failFlushes(unsynced ? unsyncedFrom : batchFrom, batchFrom + batch.size(), e);
+            unsynced = false;
+        }
+        // Progress counts failed records too so flushes do not wait forever
+        processed.addAndGet(batch.size());
+        syncIfDue(false);
+        completeFlushes();
+    }
+
+    private void syncIfDue(boolean force) {
+        if (!unsynced) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (!force && now - lastSyncNanos < TimeUnit.MILLISECONDS.toNanos(config.getSyncIntervalMillis())) {
+            return;
+        }
+        try {
+            channel.force(false);
+            syncs.incrementAndGet();
+        } catch (IOException e) {
+            recordError(e);
+            failFlushes(unsyncedFrom, processed.get(), e);
+        }
+        unsynced = false;
+        lastSyncNanos = now;
+    }
+
+    private void completeFlushes() {
+        long done = processed.get();
+        FlushRequest request;
+        while ((request = flushRequests.peek()) != null) {
+            if (request.target > done) {
+                return;
+            }
+            if (unsynced) {
+                syncIfDue(true);
+            }
+            flushRequests.poll();
+            if (request.failure == null) {
+                request.failure = unreportedFailure;
+            }
+            unreportedFailure = null;
+            if (request.failure != null) {
+                request.future.completeExceptionally(request.failure);
+            } else {
+                request.future.complete(null);
+            }
+        }
+    }
+
+    /**
+     * Complete flushes requested while or after the writer finished. Every
+     * entry accepted before close has been processed by then.
+     */
+    private void completeLateFlushes() {
+        FlushRequest request;
+        while ((request = flushRequests.poll()) != null) {
+            if (request.failure != null) {
+                request.future.completeExceptionally(request.failure);
+            } else {
+                request.future.complete(null);
+            }
+        }
+    }
+
+    /**
+     * Mark pending flushes covering any record in (from, through] as failed.
+     * Without such a flush the next one to complete reports the failure, so
+     * a record lost before flush() was called is not acknowledged either.
+     */
+    private void failFlushes(long from, long through, IOException error) {
+        boolean reported = false;
+        for (FlushRequest request : flushRequests) {
+            if (request.from < through && from < request.target) {
+                if (request.failure == null) {
+                    request.failure = error;
+                }
+                reported = true;
+            }
+        }
+        if (!reported) {
+            unreportedFailure = error;
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Already failing; the next file is opened regardless
+        }
+    }
+
+    private void rotate() throws IOException {
+        channel.force(false);
+        syncs.incrementAndGet();
+        unsynced = false;
+        channel.close();
+        openNextFile();
+        rotations.incrementAndGet();
+        pruneOldFiles();
+    }
+
+    private void openNextFile() throws IOException {
+        String name = String.format("%s-%013d-%06d%s", config.getFilePrefix(), System.currentTimeMillis(),
+                                    fileSequence++, FILE_SUFFIX);
+        currentFile = config.getDirectory().resolve(name);
+        channel = FileChannel.open(currentFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.wrap(AuditRecordCodec.header());
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+        currentFileBytes = AuditRecordCodec.HEADER_LENGTH;
+    }
+
+    private void pruneOldFiles() throws IOException {
+        List<Path> files = AuditLogReader.listFiles(config.getDirectory(), config.getFilePrefix());
+        for (int i = 0; i < files.size() - config.getMaxFiles(); i++) {
+            Files.deleteIfExists(files.get(i));
+        }
+    }
+
+    private void recordError(IOException e) {
+        writeErrors.incrementAndGet();
+        lastError = e;
+        logMessage("Audit write failed: " + e.getMessage());
+    }
+
+    private void logMessage(String message) {
+        System.out.println("[AUDIT] " + message);
+    }
+
+    private static final class FlushRequest {
+        final long from;
+        final long target;
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        IOException failure; // writer thread only
+
+        FlushRequest(long from, long target) {
+            this.from = from;
+            this.target = target;
+        }
+    }
+
+    /**
+     * Audit log settings
+     */
+    public static final class Config {
+        private final Path directory;
+        private final String filePrefix;
+        private final int bufferCapacity;
+        private final int batchSize;
+        private final long syncIntervalMillis;
+        private final long maxFileBytes;
+        private final int maxFiles;
+        private final BackpressurePolicy policy;
+        private final int sampleRate;
+
+        private Config(Builder builder) {
+            this.directory = builder.directory;
+            this.filePrefix = builder.filePrefix;
+            this.bufferCapacity = builder.bufferCapacity;
+            this.batchSize = builder.batchSize;
+            this.syncIntervalMillis = builder.syncIntervalMillis;
+            this.maxFileBytes = builder.maxFileBytes;
+            this.maxFiles = builder.maxFiles;
+            this.policy = builder.policy;
+            this.sampleRate = builder.sampleRate;
+        }
+
+        public static Builder builder(Path directory) {
+            return new Builder(directory);
+        }
+
+        public Path getDirectory() { return directory; }
+        public String getFilePrefix() { return filePrefix; }
+        public int getBufferCapacity() { return bufferCapacity; }
+        public int getBatchSize() { return batchSize; }
+        public long getSyncIntervalMillis() { return syncIntervalMillis; }
+        public long getMaxFileBytes() { return maxFileBytes; }
+        public int getMaxFiles() { return maxFiles; }
+        public BackpressurePolicy getPolicy() { return policy; }
+        public int getSampleRate() { return sampleRate; }
+
+        /**
+         * Builder for audit log settings
+         */
+        public static final class Builder {
+            private final Path directory;
+            private String filePrefix = "security-audit";
+            private int bufferCapacity = 8192;
+            private int batchSize = 512;
+            private long syncIntervalMillis = 10;
+            private long maxFileBytes = 64L * 1024 * 1024;
+            private int maxFiles = 10;
+            private BackpressurePolicy policy = BackpressurePolicy.BLOCK;
+            private int sampleRate = 10;
+
+            private Builder(Path directory) {
+                this.directory = Objects.requireNonNull(directory, "directory");
+            }
+
+            public Builder filePrefix(String filePrefix) {
+                this.filePrefix = filePrefix;
+                return this;
+            }
+
+            /**
+             * Ring buffer slots; rounded up to a power of two
+             */
+            public Builder bufferCapacity(int capacity) {
+                if (capacity <= 0) {
+                    throw new IllegalArgumentException("Buffer capacity must be positive: " + capacity);
+                }
+                this.bufferCapacity = Math.max(2, Integer.highestOneBit(capacity - 1) << 1);
+                return this;
+            }
+
+            public Builder batchSize(int batchSize) {
+                if (batchSize <= 0) {
+                    throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+                }
+                this.batchSize = batchSize;
+                return this;
+            }
+
+            /**
+             * Longest time a written batch may stay unsynced; 0 syncs every batch
+             */
+            public Builder syncIntervalMillis(long millis) {
+                this.syncIntervalMillis = Math.max(0, millis);
+                return this;
+            }
+
+            public Builder maxFileBytes(long bytes) {
+                this.maxFileBytes = bytes;
+                return this;
+            }
+
+            public Builder maxFiles(int maxFiles) {
+                this.maxFiles = Math.max(1, maxFiles);
+                return this;
+            }
+
+            public Builder policy(BackpressurePolicy policy) {
+                this.policy = Objects.requireNonNull(policy, "policy");
+                return this;
+            }
+
+            /**
+             * Keep one in this many low-severity entries while sampling
+             */
+            public Builder sampleRate(int sampleRate) {
+                this.sampleRate = Math.max(1, sampleRate);
+                return this;
+            }
+
+            public Config build() {
+                return new Config(this);
+            }
+        }
+    }
+
+    /**
+     * Audit pipeline counters
+     */
+    public static class AuditStatistics {
+        private final long accepted;
+        private final long written;
+        private final long dropped;
+        private final long sampledOut;
+        private final long blocked;
+        private final long batches;
+        private final long syncs;
+        private final long rotations;
+        private final long bytesWritten;
+        private final long writeErrors;
+        private final int buffered;
+
+        public AuditStatistics(long accepted, long written, long dropped, long sampledOut, long blocked,
+                               long batches, long syncs, long rotations, long bytesWritten, long writeErrors,
+                               int buffered) {
+            this.accepted = accepted;
+            this.written = written;
+            this.dropped = dropped;
+            this.sampledOut = sampledOut;
+            this.blocked = blocked;
+            this.batches = batches;
+            this.syncs = syncs;
+            this.rotations = rotations;
+            this.bytesWritten = bytesWritten;
+            this.writeErrors = writeErrors;
+            this.buffered = buffered;
+        }
+
+        public long getAccepted() { return accepted; }
+        public long getWritten() { return written; }
+        public long getDropped() { return dropped; }
+        public long getSampledOut() { return sampledOut; }
+        public long getBlocked() { return blocked; }
+        public long getBatches() { return batches; }
+        public long getSyncs() { return syncs; }
+        public long getRotations() { return rotations; }
+        public long getBytesWritten() { return bytesWritten; }
+        public long getWriteErrors() { return writeErrors; }
+        public int getBuffered() { return buffered; }
+
+        /**
+         * Gets the average number of entries per write
+         */
+        public double getAverageBatchSize() {
+            return batches == 0 ? 0.0 : (double) written / batches;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("AuditStatistics{accepted=%d, written=%d, dropped=%d, sampledOut=%d, blocked=%d, "
+                               + "batches=%d, syncs=%d, rotations=%d, bytes=%d, errors=%d, buffered=%d}",
+                               accepted, written, dropped, sampledOut, blocked, batches, syncs, rotations,
+                               bytesWritten, writeErrors, buffered);
+        }
+    }
+}
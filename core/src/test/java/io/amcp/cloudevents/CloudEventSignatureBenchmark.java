@@ -0,0 +1,85 @@
+package io.amcp.cloudevents;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures the per-event cost of signing and verifying CloudEvents.
+ *
+ * <p>Run with {@code mvn -pl core exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=io.amcp.cloudevents.CloudEventSignatureBenchmark}. Reports
+ * mean sign and verify time per event for HMAC session keys and Ed25519, and
+ * for Ed25519 verified as a batch from several senders.</p>
+ */
+public class CloudEventSignatureBenchmark {
+
+    private static final int WARMUP_EVENTS = 2000;
+    private static final int MEASURED_EVENTS = 5000;
+    private static final int SENDERS = 8;
+
+    public static void main(String[] args) {
+        System.out.printf("%-16s %12s %12s%n", "mode", "sign(ns)", "verify(ns)");
+        run("hmac-session", true, false);
+        run("ed25519", false, false);
+        run("ed25519-batch", false, true);
+    }
+
+    private static void run(String label, boolean hmac, boolean batch) {
+        EventKeyRing receiver = new EventKeyRing("receiver");
+        List<CloudEventSigner> signers = new ArrayList<>();
+        for (int i = 0; i < SENDERS; i++) {
+            String name = "sender-" + i;
+            EventKeyRing ring = new EventKeyRing(name);
+            if (hmac) {
+                byte[] secret = ("shared-secret-for-" + name).getBytes(StandardCharsets.UTF_8);
+                ring.addSharedSecret("receiver", secret);
+                receiver.addSharedSecret(name, secret);
+            } else {
+                ring.generateSigningKey();
+                receiver.addPublicKey(name, ring.getPublicKey());
+            }
+            signers.add(new CloudEventSigner(ring));
+        }
+        String recipient = hmac ? "receiver" : null;
+
+        measure(signers, recipient, new CloudEventVerifier(receiver), "warmup", WARMUP_EVENTS, batch);
+        long[] nanos = measure(signers, recipient, new CloudEventVerifier(receiver), "run", MEASURED_EVENTS, batch);
+        System.out.printf("%-16s %12d %12d%n", label, nanos[0] / MEASURED_EVENTS, nanos[1] / MEASURED_EVENTS);
+    }
+
+    private static long[] measure(List<CloudEventSigner> signers, String recipient, CloudEventVerifier verifier,
+                                  String prefix, int count, boolean batch) {
+        List<CloudEvent> events = new ArrayList<>(count);
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            // Interleave senders, as a busy broker would see them
+            events.add(signers.get(i % signers.size()).sign(event(prefix + "-" + i), recipient));
+        }
+        long signNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        if (batch) {
+            verifier.verifyAll(events);
+        } else {
+            for (CloudEvent event : events) {
+                verifier.verify(event);
+            }
+        }
+        long verifyNanos = System.nanoTime() - start;
+        if (verifier.getStatistics().getVerifiedEvents() != count) {
+            throw new IllegalStateException("Verification failed: " + verifier.getStatistics());
+        }
+        return new long[] {signNanos, verifyNanos};
+    }
+
+    private static CloudEvent event(String id) {
+        return CloudEvent.builder()
+            .type("io.amcp.event.weather-updated")
+            .source("//amcp/agent/weather")
+            .id(id)
+            .subject("weather.updated")
+            .data("{\"city\":\"paris\",\"temperature\":22.5,\"condition\":\"sunny\"}")
+            .build();
+    }
+}
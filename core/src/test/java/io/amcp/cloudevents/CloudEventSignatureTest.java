@@ -0,0 +1,212 @@
+package io.amcp.cloudevents;
+
+import io.amcp.core.Event;
+import io.amcp.messaging.EventBroker;
+import io.amcp.messaging.impl.InMemoryEventBroker;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for CloudEvent signing, verification and replay rejection
+ */
+@DisplayName("CloudEvent Signature Tests")
+class CloudEventSignatureTest {
+
+    private static final byte[] SECRET = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    @DisplayName("Should verify HMAC signatures with session keys derived once per pair")
+    void testHmacSessionKeys() {
+        // Given
+        EventKeyRing alice = new EventKeyRing("alice");
+        EventKeyRing bob = new EventKeyRing("bob");
+        alice.addSharedSecret("bob", SECRET);
+        bob.addSharedSecret("alice", SECRET);
+        CloudEventSigner signer = new CloudEventSigner(alice);
+        CloudEventVerifier verifier = new CloudEventVerifier(bob);
+
+        // When
+        List<CloudEventVerifier.Result> results = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            results.add(verifier.verify(signer.sign(event("e-" + i, "{\"n\":" + i + "}"), "bob")));
+        }
+        CloudEvent tampered = signer.sign(event("e-x", "{\"n\":1}"), "bob").toBuilder()
+            .data("{\"n\":2}").build();
+
+        // Then
+        results.forEach(result -> assertEquals(CloudEventVerifier.Result.VERIFIED, result));
+        assertEquals(1, alice.getSessionKeyCount());
+        assertEquals(1, bob.getSessionKeyCount());
+        assertEquals(CloudEventVerifier.Result.INVALID, verifier.verify(tampered));
+        assertEquals(CloudEventVerifier.Result.WRONG_RECIPIENT,
+                     new CloudEventVerifier(alice).verify(signer.sign(event("e-y", "x"), "bob")));
+        assertEquals(CloudEventVerifier.Result.UNSIGNED, verifier.verify(event("e-z", "x")));
+    }
+
+    @Test
+    @DisplayName("Should verify Ed25519 signatures from trusted senders only")
+    void testEd25519() {
+        // Given
+        EventKeyRing sender = new EventKeyRing("sender");
+        sender.generateSigningKey();
+        EventKeyRing trusting = new EventKeyRing("receiver");
+        trusting.addPublicKey("sender", sender.getPublicKey());
+        CloudEventSigner signer = new CloudEventSigner(sender);
+
+        // When
+        CloudEvent signed = signer.sign(event("ed-1", Map.of("b", 2, "a", 1)));
+
+        // Then
+        assertEquals(CloudEventSigner.ALG_ED25519, signed.getExtension(CloudEventSigner.EXT_ALGORITHM).orElse(null));
+        assertEquals(CloudEventVerifier.Result.VERIFIED, new CloudEventVerifier(trusting).verify(signed));
+        assertEquals(CloudEventVerifier.Result.UNKNOWN_KEY,
+                     new CloudEventVerifier(new EventKeyRing("stranger")).verify(signed));
+    }
+
+    @Test
+    @DisplayName("Should reject replays within the window and stale events outside it")
+    void testReplayWindow() {
+        // Given
+        AtomicLong now = new AtomicLong(1_000_000);
+        EventKeyRing alice = new EventKeyRing("alice");
+        EventKeyRing bob = new EventKeyRing("bob");
+        alice.addSharedSecret("bob", SECRET);
+        bob.addSharedSecret("alice", SECRET);
+        CloudEventSigner signer = new CloudEventSigner(alice, now::get);
+        CloudEventVerifier verifier = new CloudEventVerifier(bob, 60000, 5000, now::get);
+        CloudEvent signed = signer.sign(event("r-1", "payload"), "bob");
+        CloudEvent copy = signed.toBuilder().build();
+
+        // When
+        CloudEventVerifier.Result first = verifier.verify(signed, signed);
+        CloudEventVerifier.Result fannedOut = verifier.verify(signed, signed);
+        CloudEventVerifier.Result replayed = verifier.verify(copy, copy);
+        now.addAndGet(61000);
+        CloudEventVerifier.Result stale = verifier.verify(copy, copy);
+
+        // Then
+        assertEquals(CloudEventVerifier.Result.VERIFIED, first);
+        assertEquals(CloudEventVerifier.Result.VERIFIED, fannedOut);
+        assertEquals(CloudEventVerifier.Result.REPLAYED, replayed);
+        assertEquals(CloudEventVerifier.Result.STALE, stale);
+        assertEquals(1, verifier.getStatistics().getCachedVerifications());
+        assertEquals(1, verifier.getStatistics().getReplayedEvents());
+    }
+
+    @Test
+    @DisplayName("Should accept the same id from different sources")
+    void testReplayKeyedBySource() {
+        // Given
+        EventKeyRing alice = new EventKeyRing("alice");
+        EventKeyRing bob = new EventKeyRing("bob");
+        alice.addSharedSecret("bob", SECRET);
+        bob.addSharedSecret("alice", SECRET);
+        CloudEventSigner signer = new CloudEventSigner(alice);
+        CloudEventVerifier verifier = new CloudEventVerifier(bob);
+        CloudEvent fromTest = signer.sign(event("shared-1", "payload"), "bob");
+        CloudEvent fromOther = signer.sign(event("shared-1", "payload").toBuilder()
+            .source("//amcp/other").build(), "bob");
+
+        // When
+        CloudEventVerifier.Result first = verifier.verify(fromTest);
+        CloudEventVerifier.Result otherSource = verifier.verify(fromOther);
+        CloudEventVerifier.Result replayed = verifier.verify(fromTest.toBuilder().build());
+
+        // Then
+        assertEquals(CloudEventVerifier.Result.VERIFIED, first);
+        assertEquals(CloudEventVerifier.Result.VERIFIED, otherSource);
+        assertEquals(CloudEventVerifier.Result.REPLAYED, replayed);
+    }
+
+    @Test
+    @DisplayName("Should verify a batch from several senders in input order")
+    void testVerifyAll() {
+        // Given
+        EventKeyRing receiver = new EventKeyRing("hub");
+        List<CloudEvent> batch = new ArrayList<>();
+        for (String name : List.of("s1", "s2", "s3")) {
+            EventKeyRing ring = new EventKeyRing(name);
+            ring.generateSigningKey();
+            receiver.addPublicKey(name, ring.getPublicKey());
+            CloudEventSigner signer = new CloudEventSigner(ring);
+            for (int i = 0; i < 3; i++) {
+                batch.add(signer.sign(event(name + "-" + i, "data")));
+            }
+        }
+        batch.add(2, event("unsigned", "data"));
+
+        // When
+        List<CloudEventVerifier.Result> results = new CloudEventVerifier(receiver).verifyAll(batch);
+
+        // Then
+        assertEquals(batch.size(), results.size());
+        for (int i = 0; i < results.size(); i++) {
+            CloudEventVerifier.Result expected = i == 2
+                ? CloudEventVerifier.Result.UNSIGNED : CloudEventVerifier.Result.VERIFIED;
+            assertEquals(expected, results.get(i), "event " + batch.get(i).getId());
+        }
+    }
+
+    @Test
+    @DisplayName("Should sign on publish and verify each delivery across subscribers")
+    void testBrokerSigning() throws Exception {
+        // Given
+        EventKeyRing keys = new EventKeyRing("node-1");
+        keys.generateSigningKey();
+        CloudEventVerifier verifier = new CloudEventVerifier(keys);
+        CloudEventsEventBroker broker = new CloudEventsEventBroker(new InMemoryEventBroker(), true);
+        broker.enableSigning(new CloudEventSigner(keys), null);
+        broker.enableVerification(verifier);
+        broker.start().get(5, TimeUnit.SECONDS);
+        CountDownLatch delivered = new CountDownLatch(2);
+        broker.subscribe(subscriber("a", delivered), "signed.topic").get(5, TimeUnit.SECONDS);
+        broker.subscribe(subscriber("b", delivered), "signed.topic").get(5, TimeUnit.SECONDS);
+
+        // When
+        broker.publish(Event.builder().topic("signed.topic").payload("hello").build()).get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        assertEquals(2, verifier.getStatistics().getVerifiedEvents());
+        // Concurrent deliveries may both verify, but neither is taken for a replay
+        assertEquals(0, verifier.getStatistics().getReplayedEvents());
+        assertEquals(0, verifier.getStatistics().getRejectedEvents());
+        broker.stop().get(5, TimeUnit.SECONDS);
+    }
+
+    private static EventBroker.EventSubscriber subscriber(String id, CountDownLatch latch) {
+        return new EventBroker.EventSubscriber() {
+            @Override
+            public CompletableFuture<Void> handleEvent(Event event) {
+                latch.countDown();
+                return CompletableFuture.completedFuture(null);
+            }
+
+            @Override
+            public String getSubscriberId() {
+                return id;
+            }
+        };
+    }
+
+    private static CloudEvent event(String id, Object data) {
+        return CloudEvent.builder()
+            .type("io.amcp.test")
+            .source("//amcp/test")
+            .id(id)
+            .subject("test")
+            .data(data)
+            .build();
+    }
+}
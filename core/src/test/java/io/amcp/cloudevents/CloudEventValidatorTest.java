@@ -0,0 +1,130 @@
+package io.amcp.cloudevents;
+
+import io.amcp.core.AgentID;
+import io.amcp.core.Event;
+import io.amcp.messaging.EventBroker;
+import io.amcp.messaging.impl.InMemoryEventBroker;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the compiled CloudEvents validator and validation memoization
+ */
+@DisplayName("CloudEventValidator Tests")
+class CloudEventValidatorTest {
+
+    @Test
+    @DisplayName("Should apply specification rules and compiled schema constraints")
+    void testCompiledSchema() {
+        // Given
+        CloudEventValidator validator = CloudEventValidator.builder()
+            .typePrefix("io.amcp.weather.")
+            .requireSubject()
+            .allowedContentTypes("application/json")
+            .build();
+        CloudEvent valid = event("io.amcp.weather.updated").subject("paris").build();
+
+        // When
+        CloudEventValidationException wrongType = assertThrows(CloudEventValidationException.class,
+            () -> validator.validate(event("io.amcp.chat.message").subject("x").build()));
+
+        // Then
+        assertTrue(validator.isValid(valid));
+        assertFalse(validator.isSpecificationOnly());
+        assertTrue(wrongType.getMessage().startsWith("type must start with"));
+        assertFalse(validator.isValid(event("io.amcp.weather.updated").build()), "subject required");
+        assertFalse(validator.isValid(event("io.amcp.weather.updated").subject("x")
+            .dataContentType("text/plain").build()));
+        assertTrue(CloudEventValidator.specification().isSpecificationOnly());
+    }
+
+    @Test
+    @DisplayName("Should remember validation until the event changes")
+    void testMemoizedValidation() {
+        // Given
+        CloudEvent event = event("io.amcp.test").build();
+
+        // When
+        boolean afterBuild = event.isValidated();
+        event.setExtension("ce-bad", "x");
+        boolean afterChange = event.isValidated();
+
+        // Then
+        assertTrue(afterBuild, "build() validates");
+        assertFalse(afterChange);
+        assertThrows(CloudEventValidationException.class, event::validate);
+        assertFalse(event.toJson().contains("validated"));
+    }
+
+    @Test
+    @DisplayName("Should check RFC 3339 timestamps and URI references without parsing")
+    void testAttributeScanners() {
+        assertTrue(CloudEventValidator.isTimestamp("2024-02-29T23:59:60Z"));
+        assertTrue(CloudEventValidator.isTimestamp("2024-05-01T12:30:00.250+02:00"));
+        assertFalse(CloudEventValidator.isTimestamp("2023-02-29T10:00:00Z"), "not a leap year");
+        assertFalse(CloudEventValidator.isTimestamp("2024-05-01T12:30:00"), "zone required");
+        assertFalse(CloudEventValidator.isTimestamp("2024-05-01T12:30:00.Z"));
+        assertFalse(CloudEventValidator.isTimestamp("2024-13-01T12:30:00Z"));
+
+        assertTrue(CloudEventValidator.isUriReference("//amcp/agent/weather@1234"));
+        assertTrue(CloudEventValidator.isUriReference("urn:amcp:agent:caf%C3%A9"));
+        assertFalse(CloudEventValidator.isUriReference("//amcp/agent/with space"));
+        assertFalse(CloudEventValidator.isUriReference("//amcp/%zz"));
+        assertFalse(CloudEventValidator.isUriReference("a#b#c"));
+    }
+
+    @Test
+    @DisplayName("Should validate once per event and skip trusted internal events")
+    void testBrokerValidatesOnce() throws Exception {
+        // Given
+        CloudEventsEventBroker broker = new CloudEventsEventBroker(new InMemoryEventBroker(), true);
+        broker.start().get(5, TimeUnit.SECONDS);
+        CountDownLatch delivered = new CountDownLatch(1);
+        broker.subscribe(new EventBroker.EventSubscriber() {
+            @Override
+            public CompletableFuture<Void> handleEvent(Event event) {
+                if (broker.isValidated(event)) {
+                    delivered.countDown();
+                }
+                return CompletableFuture.completedFuture(null);
+            }
+
+            @Override
+            public String getSubscriberId() {
+                return "validated-check";
+            }
+        }, "memo.topic").get(5, TimeUnit.SECONDS);
+        Event event = Event.builder().topic("memo.topic").sender(AgentID.named("agent")).payload("x").build();
+        Event blankId = Event.builder().id(" ").topic("memo.topic").build();
+
+        // When
+        broker.publish(event).get(5, TimeUnit.SECONDS);
+        ExecutionException rejected = assertThrows(ExecutionException.class,
+            () -> broker.publish(blankId).get(5, TimeUnit.SECONDS));
+        broker.setTrustInternalEvents(true);
+        Event trusted = Event.builder().id(" ").topic("memo.topic").build();
+        broker.publish(trusted).get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        assertTrue(broker.isValidated(event));
+        assertFalse(broker.isValidated(event.toBuilder().build()), "only the validated instance is skipped");
+        assertInstanceOf(CloudEventValidationException.class, rejected.getCause());
+        assertTrue(broker.isValidated(trusted), "trusted events are marked, not checked");
+        broker.stop().get(5, TimeUnit.SECONDS);
+    }
+
+    private static CloudEvent.Builder event(String type) {
+        return CloudEvent.builder()
+            .type(type)
+            .source("//amcp/test")
+            .id("evt-1");
+    }
+}
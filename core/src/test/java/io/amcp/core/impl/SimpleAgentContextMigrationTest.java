@@ -0,0 +1,189 @@
+package io.amcp.core.impl;
+
+import io.amcp.core.Agent;
+import io.amcp.core.AgentContext;
+import io.amcp.core.AgentID;
+import io.amcp.core.AgentLifecycle;
+import io.amcp.core.Event;
+import io.amcp.messaging.impl.InMemoryEventBroker;
+import io.amcp.mobility.MigrationOptions;
+import io.amcp.mobility.impl.SimpleMobilityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectOutputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for agent migration between local contexts
+ */
+@DisplayName("SimpleAgentContext Migration Tests")
+class SimpleAgentContextMigrationTest {
+
+    private static final List<String> handled = new CopyOnWriteArrayList<>();
+    private static final CountDownLatch releaseMigration = new CountDownLatch(1);
+
+    @Test
+    @DisplayName("Should buffer events during migration and forward them to the destination")
+    void testMigrationForwardsEvents() throws Exception {
+        // Given
+        InMemoryEventBroker broker = new InMemoryEventBroker();
+        broker.start().get(5, TimeUnit.SECONDS);
+        SimpleAgentContext source = new SimpleAgentContext(broker, new SimpleMobilityManager());
+        SimpleAgentContext destination = new SimpleAgentContext(broker, new SimpleMobilityManager());
+        RecordingAgent agent = new RecordingAgent(AgentID.named("courier"));
+        source.registerAgent(agent).get();
+        source.activateAgent(agent.getAgentId()).get(5, TimeUnit.SECONDS);
+        source.deliverEvent(agent.getAgentId(), event("before")).get(5, TimeUnit.SECONDS);
+
+        // When - events arrive while the agent is held in onBeforeMigration
+        CompletableFuture<Void> migration = source.migrateAgent(agent.getAgentId(), destination.getContextId(),
+                                                                MigrationOptions.defaultOptions());
+        List<CompletableFuture<Void>> inTransit = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            inTransit.add(source.deliverEvent(agent.getAgentId(), event("transit-" + i)));
+        }
+        assertEquals(AgentLifecycle.MIGRATING, source.getAgentState(agent.getAgentId()));
+        releaseMigration.countDown();
+        migration.get(5, TimeUnit.SECONDS);
+        CompletableFuture.allOf(inTransit.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+        source.deliverEvent(agent.getAgentId(), event("stale")).get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals(List.of("source:before", "destination:transit-0", "destination:transit-1",
+                             "destination:transit-2", "destination:stale"), handled);
+        assertFalse(source.hasAgent(agent.getAgentId()));
+        assertTrue(destination.hasAgent(agent.getAgentId()));
+        assertEquals(destination.getContextId(),
+                     source.getMigrationRouter().getForwardingTarget(agent.getAgentId()));
+        broker.stop().get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    @DisplayName("Should no longer resolve a context as migration target after its shutdown")
+    void testShutdownUnregistersContext() throws Exception {
+        // Given
+        InMemoryEventBroker broker = new InMemoryEventBroker();
+        broker.start().get(5, TimeUnit.SECONDS);
+        SimpleAgentContext source = new SimpleAgentContext(broker, new SimpleMobilityManager());
+        SimpleAgentContext retired = new SimpleAgentContext(new InMemoryEventBroker(), new SimpleMobilityManager());
+        RecordingAgent agent = new RecordingAgent(AgentID.named("stay-home"));
+        source.registerAgent(agent).get();
+
+        // When
+        retired.shutdown().get(5, TimeUnit.SECONDS);
+        CompletableFuture<Void> migration = source.migrateAgent(agent.getAgentId(), retired.getContextId(),
+                                                                MigrationOptions.defaultOptions());
+
+        // Then
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> migration.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalArgumentException.class, failure.getCause());
+        assertTrue(source.hasAgent(agent.getAgentId()));
+        source.shutdown().get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    @DisplayName("Should reject a migrated agent whose state holds classes outside the allow-list")
+    void testReceiveAgentFiltersClasses() throws Exception {
+        // Given
+        SimpleAgentContext destination = new SimpleAgentContext(new InMemoryEventBroker(), new SimpleMobilityManager());
+        CarrierAgent carrier = new CarrierAgent(AgentID.named("carrier"), URI.create("http://example.org"));
+        CarrierAgent plain = new CarrierAgent(AgentID.named("plain"), new ArrayList<>(List.of("cargo")));
+
+        // When
+        CompletableFuture<AgentID> rejected = destination.receiveAgent(serialize(carrier), "context-x");
+        CompletableFuture<AgentID> rejectedRoot = destination.receiveAgent(serialize(new ArrayList<>()), "context-x");
+        AgentID accepted = destination.receiveAgent(serialize(plain), "context-x").get(5, TimeUnit.SECONDS);
+
+        // Then
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> rejected.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(InvalidClassException.class, failure.getCause());
+        assertThrows(ExecutionException.class, () -> rejectedRoot.get(5, TimeUnit.SECONDS));
+        assertFalse(destination.hasAgent(carrier.getAgentId()));
+        assertEquals(plain.getAgentId(), accepted);
+        destination.shutdown().get(5, TimeUnit.SECONDS);
+    }
+
+    private static byte[] serialize(Object value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Event event(String payload) {
+        return Event.builder().topic("courier.task").payload(payload).build();
+    }
+
+    /**
+     * Serializable agent that records which instance handled each event
+     */
+    private static class RecordingAgent implements Agent {
+        private static final long serialVersionUID = 1L;
+
+        private final AgentID agentId;
+        private String location = "source";
+
+        RecordingAgent(AgentID agentId) {
+            this.agentId = agentId;
+        }
+
+        @Override public AgentID getAgentId() { return agentId; }
+        @Override public AgentContext getContext() { return null; }
+        @Override public AgentLifecycle getLifecycleState() { return AgentLifecycle.ACTIVE; }
+
+        @Override
+        public CompletableFuture<Void> handleEvent(Event event) {
+            handled.add(location + ":" + event.getPayload());
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override public CompletableFuture<Void> publishEvent(Event event) { return CompletableFuture.completedFuture(null); }
+        @Override public CompletableFuture<Void> subscribe(String topicPattern) { return CompletableFuture.completedFuture(null); }
+        @Override public CompletableFuture<Void> unsubscribe(String topicPattern) { return CompletableFuture.completedFuture(null); }
+        @Override public void onActivate() { }
+        @Override public void onDeactivate() { }
+        @Override public void onDestroy() { }
+
+        @Override
+        public void onBeforeMigration(String destinationContext) {
+            try {
+                releaseMigration.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void onAfterMigration(String sourceContext) {
+            location = "destination";
+        }
+    }
+
+    /**
+     * Agent carrying an arbitrary value in its state
+     */
+    private static class CarrierAgent extends RecordingAgent {
+        private static final long serialVersionUID = 1L;
+
+        private final Object cargo;
+
+        CarrierAgent(AgentID agentId, Object cargo) {
+            super(agentId);
+            this.cargo = cargo;
+        }
+    }
+}
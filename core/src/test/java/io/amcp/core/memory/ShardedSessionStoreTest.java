@@ -0,0 +1,108 @@
+package io.amcp.core.memory;
+
+import io.amcp.core.memory.ConversationMemorySystem.ConversationSession;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ShardedSessionStore and HierarchicalTimingWheel
+ */
+@DisplayName("ShardedSessionStore Tests")
+class ShardedSessionStoreTest {
+
+    @Test
+    @DisplayName("Should fire wheel entries at their deadline across levels")
+    void testWheelFiresAcrossLevels() {
+        // Given - 4 slots per level, 3 levels, 10ms ticks
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 2, 3, 0);
+        wheel.schedule("near", 30);
+        wheel.schedule("mid", 250);
+        wheel.schedule("far", 5000);
+        List<String> fired = new ArrayList<>();
+
+        // When/Then
+        wheel.advance(29, fired::add);
+        assertTrue(fired.isEmpty());
+
+        wheel.advance(30, fired::add);
+        assertEquals(List.of("near"), fired);
+
+        wheel.advance(249, fired::add);
+        assertEquals(List.of("near"), fired);
+
+        wheel.advance(250, fired::add);
+        assertEquals(List.of("near", "mid"), fired);
+
+        wheel.advance(4999, fired::add);
+        assertEquals(2, fired.size());
+        assertEquals(1, wheel.size());
+
+        wheel.advance(5000, fired::add);
+        assertEquals(List.of("near", "mid", "far"), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    @DisplayName("Should expire sessions past their idle deadline")
+    void testIdleExpiry() {
+        // Given
+        ShardedSessionStore store = new ShardedSessionStore(4, 50, 10);
+        ConversationSession first = new ConversationSession("s1", "alice");
+        ConversationSession second = new ConversationSession("s2", "bob");
+        assertNull(store.putIfAbsent(first));
+        assertNull(store.putIfAbsent(second));
+
+        // When
+        int expired = store.expireIdle(second.getLastActivity().toEpochMilli() + 60_000);
+
+        // Then
+        assertEquals(2, expired);
+        assertEquals(0, store.size());
+        assertNull(store.get("s1"));
+    }
+
+    @Test
+    @DisplayName("Should reschedule sessions with recent activity")
+    void testRescheduleOnActivity() throws InterruptedException {
+        // Given
+        ShardedSessionStore store = new ShardedSessionStore(2, 200, 10);
+        ConversationSession session = new ConversationSession("s1", "alice");
+        store.putIfAbsent(session);
+        long initialDeadline = session.getLastActivity().toEpochMilli() + 200;
+
+        // When - activity after scheduling pushes the deadline out
+        Thread.sleep(50);
+        session.updateLastActivity();
+        int expired = store.expireIdle(initialDeadline + 10);
+
+        // Then
+        assertEquals(0, expired);
+        assertSame(session, store.get("s1"));
+        assertEquals(1, store.getShardStatistics().stream().mapToInt(s -> s.getPendingExpiries()).sum());
+    }
+
+    @Test
+    @DisplayName("Should keep a user's sessions in one shard")
+    void testUserScopedOperations() {
+        // Given
+        ShardedSessionStore store = new ShardedSessionStore(8, 60_000, 1000);
+        store.putIfAbsent(new ConversationSession("a1", "alice"));
+        store.putIfAbsent(new ConversationSession("a2", "alice"));
+        store.putIfAbsent(new ConversationSession("b1", "bob"));
+
+        // When
+        ConversationSession duplicate = store.putIfAbsent(new ConversationSession("a1", "alice"));
+
+        // Then
+        assertNotNull(duplicate);
+        assertEquals(2, store.getUserSessions("alice").size());
+        assertEquals(2, store.removeUserSessions("alice"));
+        assertEquals(1, store.size());
+        assertNotNull(store.get("b1"));
+    }
+}
@@ -0,0 +1,163 @@
+package io.amcp.mobility;
+
+import io.amcp.core.AgentID;
+import io.amcp.core.Event;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for buffering and forwarding of events to migrating agents
+ */
+@DisplayName("MigrationRouter Tests")
+class MigrationRouterTest {
+
+    private final AgentID agentId = AgentID.named("mover");
+    private final List<String> local = new CopyOnWriteArrayList<>();
+    private final List<String> remote = new CopyOnWriteArrayList<>();
+
+    private CompletableFuture<Void> deliverLocal(Event event) {
+        local.add((String) event.getPayload());
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private CompletableFuture<Void> deliverRemote(AgentID id, Event event) {
+        remote.add((String) event.getPayload());
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private static Event event(String payload) {
+        return Event.builder().topic("orders.created").payload(payload).build();
+    }
+
+    @Test
+    @DisplayName("Should buffer events in transit and forward them in order")
+    void testBufferAndForward() throws Exception {
+        // Given
+        MigrationRouter router = new MigrationRouter();
+        router.route(agentId, event("before"), this::deliverLocal);
+        router.beginMigration(agentId, "context-2");
+
+        // When
+        List<CompletableFuture<Void>> held = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            held.add(router.route(agentId, event("held-" + i), this::deliverLocal));
+        }
+        assertFalse(held.get(0).isDone());
+        router.completeMigration(agentId, this::deliverRemote);
+        router.route(agentId, event("stale"), this::deliverLocal).get(1, TimeUnit.SECONDS);
+
+        // Then
+        CompletableFuture.allOf(held.toArray(new CompletableFuture[0])).get(1, TimeUnit.SECONDS);
+        assertEquals(List.of("before"), local);
+        assertEquals(List.of("held-0", "held-1", "held-2", "held-3", "held-4", "stale"), remote);
+        assertEquals("context-2", router.getForwardingTarget(agentId));
+        assertEquals(6, router.getStatistics().getForwardedEvents());
+    }
+
+    @Test
+    @DisplayName("Should reject events beyond the buffer capacity")
+    void testBoundedBuffer() {
+        // Given
+        MigrationRouter router = new MigrationRouter(2, 60000);
+        router.beginMigration(agentId, "context-2");
+        router.route(agentId, event("a"), this::deliverLocal);
+        router.route(agentId, event("b"), this::deliverLocal);
+
+        // When
+        CompletableFuture<Void> overflow = router.route(agentId, event("c"), this::deliverLocal);
+
+        // Then
+        ExecutionException error = assertThrows(ExecutionException.class, overflow::get);
+        assertInstanceOf(RejectedExecutionException.class, error.getCause());
+        assertEquals(2, router.getBufferedCount(agentId));
+        assertEquals(1, router.getStatistics().getRejectedEvents());
+        assertThrows(IllegalStateException.class, () -> router.beginMigration(agentId, "context-3"));
+    }
+
+    @Test
+    @DisplayName("Should replay buffered events locally when migration is aborted")
+    void testAbort() throws Exception {
+        // Given
+        MigrationRouter router = new MigrationRouter();
+        router.beginMigration(agentId, "context-2");
+        CompletableFuture<Void> held = router.route(agentId, event("held"), this::deliverLocal);
+
+        // When
+        router.abortMigration(agentId, this::deliverLocal);
+        router.route(agentId, event("after"), this::deliverLocal);
+
+        // Then
+        held.get(1, TimeUnit.SECONDS);
+        assertEquals(List.of("held", "after"), local);
+        assertTrue(remote.isEmpty());
+        assertFalse(router.isInTransit(agentId));
+    }
+
+    @Test
+    @DisplayName("Should drop forwarding pointers after their time to live")
+    void testPointerExpiry() throws Exception {
+        // Given
+        MigrationRouter router = new MigrationRouter(16, 20);
+        router.beginMigration(agentId, "context-2");
+        router.completeMigration(agentId, this::deliverRemote);
+
+        // When
+        Thread.sleep(50);
+        router.route(agentId, event("late"), this::deliverLocal);
+
+        // Then
+        assertNull(router.getForwardingTarget(agentId));
+        assertEquals(List.of("late"), local);
+        assertEquals(0, router.getStatistics().getActiveRoutes());
+    }
+
+    @Test
+    @DisplayName("Should wait for local handlers that were running when migration began")
+    void testAwaitLocalDeliveries() throws Exception {
+        // Given
+        MigrationRouter router = new MigrationRouter();
+        CompletableFuture<Void> running = new CompletableFuture<>();
+        router.route(agentId, event("running"), e -> running);
+        router.beginMigration(agentId, "context-2");
+
+        // When
+        boolean drainedEarly = router.awaitLocalDeliveries(agentId, 50);
+        running.complete(null);
+
+        // Then
+        assertFalse(drainedEarly);
+        assertTrue(router.awaitLocalDeliveries(agentId, 1000));
+        assertEquals(0, router.getLocalDeliveryCount(agentId));
+    }
+
+    @Test
+    @DisplayName("Should abort a live migration whose handlers do not finish")
+    void testSuspendWaitsForHandlers() throws Exception {
+        // Given
+        MigrationRouter router = new MigrationRouter();
+        CompletableFuture<Void> running = new CompletableFuture<>();
+        router.route(agentId, event("running"), e -> running);
+        RoutedLiveMigrationSource source = new RoutedLiveMigrationSource(
+            agentId, "MoverAgent", null, router, "context-2", this::deliverRemote, this::deliverLocal, 50);
+
+        // When
+        assertThrows(IllegalStateException.class, source::suspend);
+        boolean transitAfterTimeout = router.isInTransit(agentId);
+        running.complete(null);
+        source.suspend();
+
+        // Then
+        assertFalse(transitAfterTimeout);
+        assertTrue(router.isInTransit(agentId));
+    }
+}
@@ -0,0 +1,150 @@
+package io.amcp.mobility.atp;
+
+import io.amcp.core.AgentID;
+import io.amcp.mobility.MobilityState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Loopback tests for pooled ATP connections
+ */
+@DisplayName("ATPConnectionPool Tests")
+class ATPConnectionPoolTest {
+
+    private final List<AutoCloseable> resources = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (AutoCloseable resource : resources) {
+            resource.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Should reuse one connection for sequential and concurrent migrations")
+    void testReuse() throws Exception {
+        // Given
+        ATPManager target = startManager("host-b", ATPConnectionPool.Config.defaults());
+        ATPManager source = startManager("host-a", ATPConnectionPool.Config.defaults());
+
+        // When - a burst of migrations to a peer with no connection yet
+        List<CompletableFuture<ATPManager.ATPMigrationResult>> migrations = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            migrations.add(source.migrateAgent(AgentID.named("agent-" + i), "localhost", target.getPort(),
+                                               MobilityState.MIGRATING));
+        }
+        CompletableFuture.allOf(migrations.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+        source.migrateAgent(AgentID.named("agent-last"), "localhost", target.getPort(), MobilityState.MIGRATING)
+            .get(5, TimeUnit.SECONDS);
+
+        // Then
+        ATPConnectionPool.PoolStatistics stats = source.getConnectionPool().getStatistics();
+        assertEquals(1, stats.getConnectionsCreated());
+        assertEquals(21, stats.getLeasesGranted());
+        assertEquals(0, stats.getActiveLeases());
+        assertTrue(stats.getReuseRatio() > 0.9);
+    }
+
+    @Test
+    @DisplayName("Should open another connection when streams are exhausted and then queue")
+    void testMaxStreamsPerConnection() throws Exception {
+        // Given
+        ATPConnectionPool.Config config = ATPConnectionPool.Config.builder()
+            .maxStreamsPerConnection(1)
+            .maxConnectionsPerPeer(2)
+            .build();
+        ATPManager target = startManager("host-b", ATPConnectionPool.Config.defaults());
+        ATPManager source = startManager("host-a", config);
+        ATPConnectionPool pool = source.getConnectionPool();
+
+        // When
+        ATPConnectionPool.Lease first = pool.acquire("localhost", target.getPort()).get(5, TimeUnit.SECONDS);
+        ATPConnectionPool.Lease second = pool.acquire("localhost", target.getPort()).get(5, TimeUnit.SECONDS);
+        CompletableFuture<ATPConnectionPool.Lease> third = pool.acquire("localhost", target.getPort());
+
+        // Then - two connections at one stream each; the third caller waits for a release
+        assertNotSame(first.getConnection(), second.getConnection());
+        assertFalse(third.isDone());
+        assertEquals(1, pool.getStatistics().getWaits());
+
+        first.close();
+        ATPConnectionPool.Lease reused = third.get(5, TimeUnit.SECONDS);
+        assertSame(first.getConnection(), reused.getConnection());
+        assertEquals(2, pool.getStatistics().getConnectionsCreated());
+        reused.close();
+        second.close();
+    }
+
+    @Test
+    @DisplayName("Should time out waiting for a saturated peer")
+    void testAcquireTimeout() throws Exception {
+        // Given
+        ATPConnectionPool.Config config = ATPConnectionPool.Config.builder()
+            .maxStreamsPerConnection(1)
+            .maxConnectionsPerPeer(1)
+            .acquireTimeoutMillis(100)
+            .build();
+        ATPManager target = startManager("host-b", ATPConnectionPool.Config.defaults());
+        ATPManager source = startManager("host-a", config);
+        ATPConnectionPool pool = source.getConnectionPool();
+        ATPConnectionPool.Lease held = pool.acquire("localhost", target.getPort()).get(5, TimeUnit.SECONDS);
+
+        // When
+        ExecutionException error = assertThrows(ExecutionException.class, () ->
+            pool.acquire("localhost", target.getPort()).get(5, TimeUnit.SECONDS));
+
+        // Then
+        assertInstanceOf(TimeoutException.class, error.getCause());
+        assertEquals(1, pool.getStatistics().getAcquireTimeouts());
+        assertEquals(0, pool.getStatistics().getWaitingAcquires());
+        held.close();
+    }
+
+    @Test
+    @DisplayName("Should evict idle connections but keep known peers warm")
+    void testIdleEvictionAndWarmUp() throws Exception {
+        // Given
+        ATPConnectionPool.Config config = ATPConnectionPool.Config.builder()
+            .idleTimeoutMillis(100)
+            .healthCheckIntervalMillis(50)
+            .build();
+        ATPManager known = startManager("host-b", ATPConnectionPool.Config.defaults());
+        ATPManager casual = startManager("host-c", ATPConnectionPool.Config.defaults());
+        ATPManager source = startManager("host-a", config);
+        ATPConnectionPool pool = source.getConnectionPool();
+
+        // When
+        source.warmUpConnections("localhost", known.getPort()).get(5, TimeUnit.SECONDS);
+        pool.acquire("localhost", casual.getPort()).get(5, TimeUnit.SECONDS).close();
+        assertEquals(2, pool.getStatistics().getOpenConnections());
+        Thread.sleep(500);
+
+        // Then - the warmed peer keeps its connection, the other is closed
+        ATPConnectionPool.PoolStatistics stats = pool.getStatistics();
+        assertEquals(1, stats.getOpenConnections());
+        assertEquals(1, stats.getIdleEvictions());
+        assertEquals(1, source.getStatus().getActiveConnections());
+
+        ATPConnectionPool.Lease lease = pool.acquire("localhost", known.getPort()).get(5, TimeUnit.SECONDS);
+        assertTrue(lease.getConnection().isHealthy());
+        lease.close();
+        assertEquals(2, pool.getStatistics().getConnectionsCreated());
+    }
+
+    private ATPManager startManager(String hostId, ATPConnectionPool.Config config) throws Exception {
+        ATPManager manager = new ATPManager(hostId, 0, null, config);
+        manager.start().get(5, TimeUnit.SECONDS);
+        resources.add(() -> manager.shutdown().get(5, TimeUnit.SECONDS));
+        return manager;
+    }
+}
@@ -0,0 +1,424 @@
+package io.amcp.mobility.atp;
+
+import io.amcp.core.AgentID;
+import io.amcp.mobility.MigrationOptions;
+import io.amcp.mobility.MobilityState;
+import io.amcp.mobility.snapshot.AgentSnapshot;
+import io.amcp.mobility.snapshot.DirtyTrackingState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Loopback tests for the NIO ATP transport and end-to-end migration
+ */
+@DisplayName("ATPTransport Tests")
+class ATPTransportTest {
+
+    private final List<AutoCloseable> resources = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (AutoCloseable resource : resources) {
+            resource.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Should deliver framed messages across multiplexed streams")
+    void testMultiplexedStreams() throws Exception {
+        // Given - an echo server
+        ATPTransport server = new ATPTransport("server", (channel, streamId, message) ->
+            channel.send(streamId, message));
+        server.start();
+        resources.add(server);
+        int port = server.listen(0);
+
+        Map<Integer, CompletableFuture<byte[]>> replies = new ConcurrentHashMap<>();
+        ATPTransport client = new ATPTransport("client", (channel, streamId, message) ->
+            replies.get(streamId).complete(message));
+        client.start();
+        resources.add(client);
+
+        ATPTransport.Channel channel = client.connect("localhost", port).get(5, TimeUnit.SECONDS);
+
+        // When - a multi-frame message and many small ones share the connection
+        byte[] large = new byte[3 * ATPTransport.MAX_FRAME_PAYLOAD + 123];
+        Arrays.fill(large, (byte) 7);
+        int largeStream = channel.openStream();
+        replies.put(largeStream, new CompletableFuture<>());
+        channel.send(largeStream, large);
+
+        List<Integer> smallStreams = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            int stream = channel.openStream();
+            smallStreams.add(stream);
+            replies.put(stream, new CompletableFuture<>());
+            channel.send(stream, ("message-" + i).getBytes());
+        }
+
+        // Then
+        assertArrayEquals(large, replies.get(largeStream).get(5, TimeUnit.SECONDS));
+        for (int i = 0; i < smallStreams.size(); i++) {
+            byte[] echoed = replies.get(smallStreams.get(i)).get(5, TimeUnit.SECONDS);
+            assertEquals("message-" + i, new String(echoed));
+        }
+        assertEquals(51, channel.getMessagesSent());
+    }
+
+    @Test
+    @DisplayName("Should fail sends after the peer closes")
+    void testSendAfterClose() throws Exception {
+        // Given
+        ATPTransport server = new ATPTransport("server", (channel, streamId, message) -> channel.close());
+        server.start();
+        resources.add(server);
+        int port = server.listen(0);
+
+        CompletableFuture<Void> closed = new CompletableFuture<>();
+        ATPTransport client = new ATPTransport("client", new ATPTransport.Listener() {
+            @Override
+            public void onMessage(ATPTransport.Channel channel, int streamId, byte[] message) {
+            }
+
+            @Override
+            public void onChannelClosed(ATPTransport.Channel channel) {
+                closed.complete(null);
+            }
+        });
+        client.start();
+        resources.add(client);
+        ATPTransport.Channel channel = client.connect("localhost", port).get(5, TimeUnit.SECONDS);
+
+        // When
+        channel.send(channel.openStream(), new byte[] {1});
+        closed.get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertFalse(channel.isOpen());
+        assertThrows(Exception.class, () -> channel.send(1, new byte[] {2}).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Should migrate an agent between two managers over localhost")
+    void testMigrationOverLoopback() throws Exception {
+        // Given
+        ATPManager source = new ATPManager("host-a", 0);
+        ATPManager target = new ATPManager("host-b", 0);
+        source.start().get(5, TimeUnit.SECONDS);
+        target.start().get(5, TimeUnit.SECONDS);
+        resources.add(() -> source.shutdown().get(5, TimeUnit.SECONDS));
+        resources.add(() -> target.shutdown().get(5, TimeUnit.SECONDS));
+
+        // When
+        ATPManager.ATPMigrationResult result = source.migrateAgent(
+            AgentID.named("traveller"), "localhost", target.getPort(), MobilityState.MIGRATING
+        ).get(10, TimeUnit.SECONDS);
+
+        // Then
+        assertTrue(result.isSuccess(), result.getMessage());
+        assertEquals("host-b", result.getTargetHost());
+        assertEquals(1, source.getStatus().getActiveConnections());
+    }
+
+    @Test
+    @DisplayName("Should complete concurrent migrations as soon as they are acknowledged")
+    void testConcurrentMigrations() throws Exception {
+        // Given
+        ATPManager source = new ATPManager("host-a", 0);
+        ATPManager target = new ATPManager("host-b", 0);
+        source.start().get(5, TimeUnit.SECONDS);
+        target.start().get(5, TimeUnit.SECONDS);
+        resources.add(() -> source.shutdown().get(5, TimeUnit.SECONDS));
+        resources.add(() -> target.shutdown().get(5, TimeUnit.SECONDS));
+        source.establishConnection("localhost", target.getPort()).get(5, TimeUnit.SECONDS);
+
+        // When
+        List<CompletableFuture<ATPManager.ATPMigrationResult>> migrations = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < 100; i++) {
+            migrations.add(source.migrateAgent(AgentID.named("agent-" + i), "localhost", target.getPort(),
+                                               MobilityState.MIGRATING));
+        }
+        CompletableFuture.allOf(migrations.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Then
+        for (CompletableFuture<ATPManager.ATPMigrationResult> migration : migrations) {
+            assertTrue(migration.get().isSuccess());
+        }
+        assertEquals(0, source.getStatus().getPendingMigrations());
+        assertTrue(elapsedMillis < 5000, "took " + elapsedMillis + "ms");
+    }
+
+    @Test
+    @DisplayName("Should replicate one snapshot to several hosts in parallel")
+    void testReplicationFanOut() throws Exception {
+        // Given
+        ATPManager source = new ATPManager("host-a", 0);
+        source.start().get(5, TimeUnit.SECONDS);
+        resources.add(() -> source.shutdown().get(5, TimeUnit.SECONDS));
+
+        List<ReplicationEngine.ReplicaTarget> targets = new ArrayList<>();
+        Map<Integer, CompletableFuture<AgentSnapshot>> restored = new ConcurrentHashMap<>();
+        for (int i = 0; i < 4; i++) {
+            ATPManager target = new ATPManager("replica-host-" + i, 0);
+            CompletableFuture<AgentSnapshot> received = new CompletableFuture<>();
+            target.setStateRestorer(received::complete);
+            target.start().get(5, TimeUnit.SECONDS);
+            resources.add(() -> target.shutdown().get(5, TimeUnit.SECONDS));
+            restored.put(target.getPort(), received);
+            targets.add(ReplicationEngine.ReplicaTarget.of("localhost", target.getPort()));
+        }
+        // A target nobody listens on fails on its own
+        ReplicationEngine.ReplicaTarget unreachable = ReplicationEngine.ReplicaTarget.of("localhost", 1);
+        targets.add(unreachable);
+
+        byte[] model = new byte[1024 * 1024];
+        new Random(7).nextBytes(model);
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("model", model);
+        AgentSnapshot snapshot = new AgentSnapshot(AgentID.named("scaled"), "ChatAgent", MobilityState.MIGRATING, state);
+
+        // When
+        ReplicationEngine.Replication replication = source.replicateAgent(snapshot, targets);
+        List<ReplicationEngine.ReplicaResult> results = replication.whenAllComplete().get(20, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals(5, results.size());
+        assertFalse(replication.getReplicas().get(unreachable).get().isSuccess());
+        List<AgentID> replicaIds = replication.replicaIds().get();
+        assertEquals(4, replicaIds.size());
+        assertEquals(4, replicaIds.stream().distinct().count());
+        for (ReplicationEngine.ReplicaResult result : results.subList(0, 4)) {
+            assertTrue(result.isSuccess(), result.getResult().getMessage());
+            AgentSnapshot received = restored.get(result.getTarget().getPort()).get(5, TimeUnit.SECONDS);
+            assertEquals(result.getReplicaId(), received.getAgentId());
+            assertEquals("scaled", received.getAgentId().getName());
+            assertArrayEquals(model, (byte[]) received.getState().get("model"));
+        }
+    }
+
+    @Test
+    @DisplayName("Should stream a multi-megabyte snapshot and restore it on the target")
+    void testSnapshotMigration() throws Exception {
+        // Given
+        ATPManager source = new ATPManager("host-a", 0);
+        ATPManager target = new ATPManager("host-b", 0);
+        CompletableFuture<AgentSnapshot> restored = new CompletableFuture<>();
+        target.setStateRestorer(restored::complete);
+        source.start().get(5, TimeUnit.SECONDS);
+        target.start().get(5, TimeUnit.SECONDS);
+        resources.add(() -> source.shutdown().get(5, TimeUnit.SECONDS));
+        resources.add(() -> target.shutdown().get(5, TimeUnit.SECONDS));
+
+        byte[] model = new byte[3 * 1024 * 1024];
+        new Random(42).nextBytes(model);
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("model", model);
+        state.put("turns", 17);
+        AgentSnapshot snapshot = new AgentSnapshot(AgentID.named("heavy"), "ChatAgent", MobilityState.MIGRATING, state);
+
+        // When
+        ATPManager.ATPMigrationResult result = source.migrateAgent(snapshot, "localhost", target.getPort())
+            .get(10, TimeUnit.SECONDS);
+
+        // Then
+        assertTrue(result.isSuccess(), result.getMessage());
+        AgentSnapshot received = restored.get(5, TimeUnit.SECONDS);
+        assertEquals("heavy", received.getAgentId().getName());
+        assertEquals("ChatAgent", received.getAgentType());
+        assertEquals(17, received.getState().get("turns"));
+        assertArrayEquals(model, (byte[]) received.getState().get("model"));
+    }
+
+    @Test
+    @DisplayName("Should live-migrate a running agent with a short stop-and-copy")
+    void testPreCopyLiveMigration() throws Exception {
+        // Given - an agent with large state that keeps writing until suspended
+        ATPManager source = new ATPManager("host-a", 0);
+        ATPManager target = new ATPManager("host-b", 0);
+        CompletableFuture<AgentSnapshot> restored = new CompletableFuture<>();
+        target.setStateRestorer(restored::complete);
+        source.start().get(5, TimeUnit.SECONDS);
+        target.start().get(5, TimeUnit.SECONDS);
+        resources.add(() -> source.shutdown().get(5, TimeUnit.SECONDS));
+        resources.add(() -> target.shutdown().get(5, TimeUnit.SECONDS));
+
+        RunningAgent agent = new RunningAgent(AgentID.named("live"));
+        for (int i = 0; i < 2000; i++) {
+            agent.state.put("entry-" + i, new byte[1024]);
+        }
+        agent.state.put("obsolete", "gone after migration");
+        Thread writer = new Thread(agent::run);
+        writer.start();
+
+        // When
+        ATPManager.LiveMigrationResult result = source.liveMigrateAgent(
+            agent, "localhost", target.getPort(), MigrationOptions.preCopy(5, 8)
+        ).get(10, TimeUnit.SECONDS);
+        writer.join(5000);
+
+        // Then
+        assertTrue(result.isSuccess(), result.getResult().getMessage());
+        assertEquals("localhost", agent.committedTo);
+        assertTrue(result.getPreCopyRounds() >= 1);
+        AgentSnapshot received = restored.get(5, TimeUnit.SECONDS);
+        assertEquals(agent.state.size(), received.getState().size());
+        assertFalse(received.getState().containsKey("obsolete"));
+        for (Map.Entry<String, Object> entry : agent.state.asMap().entrySet()) {
+            Object value = received.getState().get(entry.getKey());
+            if (entry.getValue() instanceof byte[]) {
+                assertArrayEquals((byte[]) entry.getValue(), (byte[]) value, entry.getKey());
+            } else {
+                assertEquals(entry.getValue(), value, entry.getKey());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should suspend first and copy the whole state at once without pre-copy")
+    void testStopAndCopyWithoutPreCopy() throws Exception {
+        // Given
+        ATPManager source = new ATPManager("host-a", 0);
+        ATPManager target = new ATPManager("host-b", 0);
+        CompletableFuture<AgentSnapshot> restored = new CompletableFuture<>();
+        target.setStateRestorer(restored::complete);
+        source.start().get(5, TimeUnit.SECONDS);
+        target.start().get(5, TimeUnit.SECONDS);
+        resources.add(() -> source.shutdown().get(5, TimeUnit.SECONDS));
+        resources.add(() -> target.shutdown().get(5, TimeUnit.SECONDS));
+
+        RunningAgent agent = new RunningAgent(AgentID.named("stopped"));
+        for (int i = 0; i < 100; i++) {
+            agent.state.put("entry-" + i, i);
+        }
+
+        // When
+        ATPManager.LiveMigrationResult result = source.liveMigrateAgent(
+            agent, "localhost", target.getPort(), MigrationOptions.defaultOptions()
+        ).get(10, TimeUnit.SECONDS);
+
+        // Then
+        assertTrue(result.isSuccess(), result.getResult().getMessage());
+        assertTrue(agent.suspended.get());
+        assertEquals("localhost", agent.committedTo);
+        assertEquals(0, result.getPreCopyRounds());
+        assertEquals(100, result.getFinalDeltaSize());
+        assertEquals(agent.state.asMap(), restored.get(5, TimeUnit.SECONDS).getState());
+    }
+
+    @Test
+    @DisplayName("Should stage pre-copy rounds only for authenticated peers and within the byte limits")
+    void testStagingAuthenticationAndLimits() throws Exception {
+        // Given
+        ATPManager target = new ATPManager("host-b", 0);
+        target.start().get(5, TimeUnit.SECONDS);
+        resources.add(() -> target.shutdown().get(5, TimeUnit.SECONDS));
+        target.setStagingLimits(1000, 10000);
+        ATPTransport client = new ATPTransport("host-x", (channel, streamId, message) -> { });
+        client.start();
+        resources.add(client);
+        ATPTransport.Channel channel = client.connect("localhost", target.getPort()).get(5, TimeUnit.SECONDS);
+        AgentSnapshot snapshot = new AgentSnapshot(AgentID.named("staged"), "Agent", MobilityState.MIGRATING,
+                                                   Map.of("key", "value"));
+        ATPManager.ATPMigrationRequest initial = round("migration-1", ATPManager.ATPMigrationRequest.Phase.PRECOPY,
+                                                       0, snapshot);
+        ATPManager.ATPMigrationRequest delta = round("migration-1", ATPManager.ATPMigrationRequest.Phase.DELTA,
+                                                     1, snapshot);
+
+        // When / Then - rounds from a channel that has not authenticated as the source are refused
+        java.io.IOException refused = assertThrows(java.io.IOException.class,
+            () -> target.stageMigration(initial, channel, 600));
+        assertTrue(refused.getMessage().contains("unauthenticated"), refused.getMessage());
+
+        // When / Then - after authenticating, rounds are staged until the per-migration limit
+        target.getSecurityManager().authenticateHost("host-x", "default_credentials").get(5, TimeUnit.SECONDS);
+        target.peerAuthenticated(channel, "host-x");
+        assertNull(target.stageMigration(initial, channel, 600));
+        assertEquals(600, target.getStagedBytes());
+        java.io.IOException overLimit = assertThrows(java.io.IOException.class,
+            () -> target.stageMigration(delta, channel, 600));
+        assertTrue(overLimit.getMessage().contains("exceeds"), overLimit.getMessage());
+        assertEquals(0, target.getStagedBytes());
+    }
+
+    private static ATPManager.ATPMigrationRequest round(String migrationId, ATPManager.ATPMigrationRequest.Phase phase,
+                                                       long sequence, AgentSnapshot snapshot) {
+        return new ATPManager.ATPMigrationRequest(migrationId, "host-x", "host-b", phase, sequence, snapshot,
+                                                  java.util.Collections.emptySet(), System.currentTimeMillis());
+    }
+
+    @Test
+    @DisplayName("Should decode protocol messages and reject classes outside the ATP allowlist")
+    void testMessageDeserializationFilter() throws Exception {
+        // Given
+        ATPMessage handshake = new ATPMessage(ATPMessage.MessageType.MIGRATE_RESPONSE, "host-a", "host-b",
+            "response-1", ATPManager.ATPMigrationResult.failure("m-1", "rejected"), Map.of("attempt", 2));
+        ATPMessage foreignPayload = new ATPMessage(ATPMessage.MessageType.HEARTBEAT, "host-a", "host-b",
+            "heartbeat-1", new java.util.Date());
+        ATPMessage foreignHeader = new ATPMessage(ATPMessage.MessageType.HEARTBEAT, "host-a", "host-b",
+            "heartbeat-2", null, Map.of("nested", new ArrayList<>(List.of("x"))));
+
+        // When
+        ATPMessage decoded = ATPMessage.fromBytes(handshake.toBytes());
+
+        // Then
+        assertEquals("m-1", decoded.getPayload(ATPManager.ATPMigrationResult.class).getMigrationId());
+        assertEquals(2, decoded.getHeader("attempt"));
+        assertThrows(java.io.InvalidClassException.class, () -> ATPMessage.fromBytes(foreignPayload.toBytes()));
+        assertThrows(java.io.InvalidClassException.class, () -> ATPMessage.fromBytes(foreignHeader.toBytes()));
+        assertThrows(java.io.IOException.class,
+            () -> ATPMessage.fromBytes(new byte[ATPMessage.MAX_SERIALIZED_BYTES + 1]));
+    }
+
+    /**
+     * Agent that mutates a few hot keys until it is suspended for stop-and-copy
+     */
+    private static class RunningAgent implements ATPManager.LiveMigrationSource {
+        private final AgentID agentId;
+        private final DirtyTrackingState state = new DirtyTrackingState();
+        private final AtomicBoolean suspended = new AtomicBoolean(false);
+        private volatile String committedTo;
+
+        RunningAgent(AgentID agentId) {
+            this.agentId = agentId;
+        }
+
+        void run() {
+            long counter = 0;
+            while (true) {
+                synchronized (this) {
+                    if (suspended.get()) {
+                        return;
+                    }
+                    state.put("hot-" + (counter % 4), counter++);
+                    if (counter == 100) {
+                        state.remove("obsolete");
+                    }
+                }
+                Thread.onSpinWait();
+            }
+        }
+
+        @Override public AgentID getAgentId() { return agentId; }
+        @Override public String getAgentType() { return "RunningAgent"; }
+        @Override public DirtyTrackingState getState() { return state; }
+        @Override public synchronized void suspend() { suspended.set(true); }
+        @Override public void commit(String targetHost) { committedTo = targetHost; }
+        @Override public void resume() { suspended.set(false); }
+    }
+}
@@ -0,0 +1,87 @@
+package io.amcp.mobility.atp;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for future-based request completion with shared-timer timeouts
+ */
+@DisplayName("CompletionRegistry Tests")
+class CompletionRegistryTest {
+
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+
+    @AfterEach
+    void tearDown() {
+        timer.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Should complete thousands of pending requests without extra threads")
+    void testCompleteMany() throws Exception {
+        // Given
+        CompletionRegistry<Integer, String> registry = new CompletionRegistry<>(timer);
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+        int threadsBefore = Thread.activeCount();
+        for (int i = 0; i < 5000; i++) {
+            futures.add(registry.register(i, 60000, key -> "timeout"));
+        }
+
+        // When
+        for (int i = 0; i < 5000; i++) {
+            assertTrue(registry.complete(i, "ack-" + i));
+        }
+
+        // Then
+        for (int i = 0; i < 5000; i++) {
+            assertEquals("ack-" + i, futures.get(i).get(1, TimeUnit.SECONDS));
+        }
+        assertEquals(0, registry.size());
+        assertFalse(registry.complete(1, "late"));
+        assertTrue(Thread.activeCount() <= threadsBefore + 1);
+    }
+
+    @Test
+    @DisplayName("Should resolve with the timeout value when no response arrives")
+    void testTimeout() throws Exception {
+        // Given
+        CompletionRegistry<String, String> registry = new CompletionRegistry<>(timer);
+
+        // When
+        CompletableFuture<String> future = registry.register("m-1", 50, key -> key + " timed out");
+
+        // Then
+        assertEquals("m-1 timed out", future.get(2, TimeUnit.SECONDS));
+        assertEquals(0, registry.size());
+        assertThrows(IllegalStateException.class, () -> {
+            registry.register("m-2", 1000, key -> "");
+            registry.register("m-2", 1000, key -> "");
+        });
+    }
+
+    @Test
+    @DisplayName("Should fail and drop the entry when the timer is shut down")
+    void testRegisterAfterTimerShutdown() {
+        // Given
+        CompletionRegistry<String, String> registry = new CompletionRegistry<>(timer);
+        timer.shutdownNow();
+
+        // When
+        CompletableFuture<String> future = registry.register("late", 1000, key -> "timeout");
+
+        // Then
+        assertTrue(future.isCompletedExceptionally());
+        assertEquals(0, registry.size());
+        assertFalse(registry.complete("late", "ack"));
+    }
+}
@@ -0,0 +1,163 @@
+package io.amcp.mobility.placement;
+
+import io.amcp.core.AgentID;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for load-driven agent placement
+ */
+@DisplayName("PlacementEngine Tests")
+class PlacementEngineTest {
+
+    private static ContextLoadReport report(String contextId, double cpuUsed, Map<AgentID, Double> agentCpu,
+                                            Map<AgentID, Map<AgentID, Double>> traffic) {
+        Map<AgentID, ContextLoadReport.AgentLoad> loads = new LinkedHashMap<>();
+        agentCpu.forEach((id, cpu) -> loads.put(id, new ContextLoadReport.AgentLoad(cpu, 10.0)));
+        return new ContextLoadReport(contextId, 1.0, cpuUsed, 0, loads, traffic);
+    }
+
+    private static Map<AgentID, Double> agents(double cpuEach, AgentID... ids) {
+        Map<AgentID, Double> map = new LinkedHashMap<>();
+        for (AgentID id : ids) {
+            map.put(id, cpuEach);
+        }
+        return map;
+    }
+
+    @Test
+    @DisplayName("Should move only one of two chatty agents to co-locate them")
+    void testCoLocation() {
+        // Given
+        AgentID left = AgentID.named("left");
+        AgentID right = AgentID.named("right");
+        PlacementEngine engine = new PlacementEngine();
+
+        // When
+        List<PlacementProposal> proposals = engine.evaluate(List.of(
+            report("a", 0.1, agents(0.05, left), Map.of(left, Map.of(right, 50.0))),
+            report("b", 0.1, agents(0.05, right), Map.of(right, Map.of(left, 50.0)))));
+
+        // Then
+        assertEquals(1, proposals.size());
+        PlacementProposal proposal = proposals.get(0);
+        assertEquals(PlacementProposal.Reason.CO_LOCATE, proposal.getReason());
+        assertEquals(100.0, proposal.getTrafficGain(), 0.001);
+    }
+
+    @Test
+    @DisplayName("Should drain a hot context down to the low watermark")
+    void testDrain() {
+        // Given
+        AgentID[] workers = new AgentID[5];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = AgentID.named("worker-" + i);
+        }
+        PlacementEngine engine = new PlacementEngine();
+
+        // When
+        List<PlacementProposal> proposals = engine.evaluate(List.of(
+            report("hot", 0.95, agents(0.19, workers), Map.of()),
+            report("cool", 0.1, Map.of(), Map.of())));
+
+        // Then - two moves bring 0.95 to 0.57, below the 0.65 watermark
+        assertEquals(2, proposals.size());
+        for (PlacementProposal proposal : proposals) {
+            assertEquals(PlacementProposal.Reason.DRAIN, proposal.getReason());
+            assertEquals("cool", proposal.getTargetContext());
+        }
+        assertTrue(engine.isHot("hot"));
+    }
+
+    @Test
+    @DisplayName("Should only drain between the watermarks once a context has been hot")
+    void testHysteresis() {
+        // Given
+        AgentID[] workers = new AgentID[4];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = AgentID.named("busy-" + i);
+        }
+        PlacementEngine engine = new PlacementEngine();
+        ContextLoadReport cool = report("cool", 0.1, Map.of(), Map.of());
+
+        // When / Then - warm but never hot: left alone
+        assertTrue(engine.evaluate(List.of(report("warm", 0.8, agents(0.2, workers), Map.of()), cool)).isEmpty());
+        assertFalse(engine.isHot("warm"));
+
+        // When / Then - crossing the high watermark marks it hot
+        engine.evaluate(List.of(report("warm", 0.9, agents(0.225, workers), Map.of()), cool));
+        assertTrue(engine.isHot("warm"));
+
+        // When / Then - still hot at the same warm load, so it is drained now
+        List<PlacementProposal> proposals =
+            engine.evaluate(List.of(report("warm", 0.8, agents(0.2, workers[2], workers[3]), Map.of()), cool));
+        assertEquals(1, proposals.size());
+        assertEquals(PlacementProposal.Reason.DRAIN, proposals.get(0).getReason());
+    }
+
+    @Test
+    @DisplayName("Should not move an agent again during its cooldown")
+    void testCooldown() {
+        // Given
+        AgentID left = AgentID.named("cool-left");
+        AgentID right = AgentID.named("cool-right");
+        PlacementEngine engine = new PlacementEngine();
+        engine.recordMigration(left);
+        engine.recordMigration(right);
+
+        // When
+        List<PlacementProposal> proposals = engine.evaluate(List.of(
+            report("a", 0.1, agents(0.05, left), Map.of(left, Map.of(right, 50.0))),
+            report("b", 0.1, agents(0.05, right), Map.of(right, Map.of(left, 50.0)))));
+
+        // Then
+        assertTrue(proposals.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should co-locate chatty agents in a local simulation and then stay put")
+    void testSimulation() {
+        // Given
+        PlacementSimulation simulation = new PlacementSimulation(2, 64.0, PlacementPolicy.defaultPolicy());
+        for (int i = 0; i < 3; i++) {
+            AgentID left = simulation.addAgent("sim-left-" + i, 0, 0);
+            AgentID right = simulation.addAgent("sim-right-" + i, 1, 0);
+            simulation.link(left, right, 20);
+        }
+
+        // When
+        PlacementSimulation.RoundResult first = simulation.runRound(10);
+        PlacementSimulation.RoundResult second = simulation.runRound(10);
+        PlacementSimulation.RoundResult third = simulation.runRound(10);
+
+        // Then
+        assertEquals(1.0, first.getCrossContextRatio(), 0.001);
+        assertEquals(3, first.getMigrations().size());
+        assertEquals(0.0, second.getCrossContextRatio(), 0.001);
+        assertTrue(second.getMigrations().isEmpty());
+        assertTrue(third.getMigrations().isEmpty());
+        simulation.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should reject a load report without a usable CPU capacity")
+    void testUnusableCapacity() {
+        // Given
+        double[] capacities = {0.0, -1.0, Double.NaN, Double.POSITIVE_INFINITY};
+        LoadTracker tracker = new LoadTracker(1.0);
+
+        // When / Then
+        for (double capacity : capacities) {
+            assertThrows(IllegalArgumentException.class,
+                () -> new ContextLoadReport("broken", capacity, 0.5, 0, Map.of(), Map.of()));
+            assertThrows(IllegalArgumentException.class, () -> tracker.setCpuCapacity(capacity));
+        }
+        assertEquals(1.0, tracker.getCpuCapacity());
+    }
+}
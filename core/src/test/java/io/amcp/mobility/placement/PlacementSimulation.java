@@ -0,0 +1,287 @@
+package io.amcp.mobility.placement;
+
+import io.amcp.core.Agent;
+import io.amcp.core.AgentContext;
+import io.amcp.core.AgentID;
+import io.amcp.core.AgentLifecycle;
+import io.amcp.core.Event;
+import io.amcp.core.impl.SimpleAgentContext;
+import io.amcp.messaging.impl.InMemoryEventBroker;
+import io.amcp.mobility.MigrationOptions;
+import io.amcp.mobility.impl.SimpleMobilityManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Simulates several local agent contexts under load and lets a
+ * {@link PlacementEngine} rebalance them.
+ *
+ * <p>Agents burn a configurable amount of CPU per event. Linked agents
+ * exchange messages every tick; unlinked agents receive external work. Each
+ * round runs a number of ticks and then one rebalance, and reports per-context
+ * load and the fraction of messages that crossed contexts.</p>
+ *
+ * <p>Run with {@code mvn -pl core exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=io.amcp.mobility.placement.PlacementSimulation}.</p>
+ */
+public class PlacementSimulation {
+
+    private final InMemoryEventBroker broker = new InMemoryEventBroker();
+    private final List<SimpleAgentContext> contexts = new ArrayList<>();
+    private final List<Link> links = new ArrayList<>();
+    private final Map<AgentID, Integer> externalWork = new LinkedHashMap<>();
+    private final PlacementEngine engine;
+
+    private long localMessages;
+    private long remoteMessages;
+
+    public PlacementSimulation(int contextCount, double cpuCapacityCores, PlacementPolicy policy) {
+        broker.start().join();
+        for (int i = 0; i < contextCount; i++) {
+            SimpleAgentContext context = new SimpleAgentContext(broker, new SimpleMobilityManager());
+            context.getLoadTracker().setCpuCapacity(cpuCapacityCores);
+            contexts.add(context);
+        }
+        this.engine = new PlacementEngine(policy);
+    }
+
+    public List<SimpleAgentContext> getContexts() {
+        return contexts;
+    }
+
+    public PlacementEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Place an agent that spends the given CPU time on each event
+     */
+    public AgentID addAgent(String name, int contextIndex, long workMicros) {
+        SimulatedAgent agent = new SimulatedAgent(AgentID.named(name), workMicros);
+        SimpleAgentContext context = contexts.get(contextIndex);
+        context.registerAgent(agent).join();
+        context.activateAgent(agent.getAgentId()).join();
+        return agent.getAgentId();
+    }
+
+    /**
+     * Make two agents exchange the given number of messages in each direction per tick
+     */
+    public void link(AgentID first, AgentID second, int messagesPerTick) {
+        links.add(new Link(first, second, messagesPerTick));
+    }
+
+    /**
+     * Deliver the given number of external events to an agent per tick
+     */
+    public void addExternalWork(AgentID agentId, int eventsPerTick) {
+        externalWork.put(agentId, eventsPerTick);
+    }
+
+    public void tick() {
+        for (Link link : links) {
+            for (int i = 0; i < link.messagesPerTick; i++) {
+                send(link.first, link.second);
+                send(link.second, link.first);
+            }
+        }
+        externalWork.forEach((agentId, count) -> {
+            for (int i = 0; i < count; i++) {
+                SimpleAgentContext context = locate(agentId);
+                if (context != null) {
+                    context.deliverEvent(agentId, Event.builder().topic("sim.work").payload(i).build()).join();
+                }
+            }
+        });
+    }
+
+    /**
+     * Run the ticks of one round, then rebalance
+     */
+    public RoundResult runRound(int ticks) {
+        localMessages = 0;
+        remoteMessages = 0;
+        for (int i = 0; i < ticks; i++) {
+            tick();
+        }
+        long crossed = remoteMessages;
+        long total = localMessages + remoteMessages;
+
+        List<ContextLoadReport> reports = new ArrayList<>();
+        List<PlacementSite> sites = new ArrayList<>();
+        for (SimpleAgentContext context : contexts) {
+            sites.add(new RecordingSite(context, reports));
+        }
+        List<PlacementProposal> migrations = engine.rebalance(sites).join();
+        return new RoundResult(reports, migrations, total == 0 ? 0.0 : (double) crossed / total);
+    }
+
+    public SimpleAgentContext locate(AgentID agentId) {
+        for (SimpleAgentContext context : contexts) {
+            if (context.getAgentState(agentId) == AgentLifecycle.ACTIVE) {
+                return context;
+            }
+        }
+        return null;
+    }
+
+    public void shutdown() {
+        for (SimpleAgentContext context : contexts) {
+            context.shutdown().join();
+        }
+    }
+
+    private void send(AgentID from, AgentID to) {
+        SimpleAgentContext fromContext = locate(from);
+        SimpleAgentContext toContext = locate(to);
+        if (toContext == null) {
+            return;
+        }
+        if (fromContext == toContext) {
+            localMessages++;
+        } else {
+            remoteMessages++;
+        }
+        toContext.deliverEvent(to, Event.builder().topic("sim.chat").payload("ping").sender(from).build()).join();
+    }
+
+    public static void main(String[] args) {
+        PlacementPolicy policy = PlacementPolicy.builder().agentCooldownMillis(0).build();
+        PlacementSimulation simulation = new PlacementSimulation(3, 0.6, policy);
+
+        // Context 0 is overloaded by workers; chatty pairs are split across contexts 1 and 2
+        for (int i = 0; i < 4; i++) {
+            AgentID worker = simulation.addAgent("worker-" + i, 0, 200);
+            simulation.addExternalWork(worker, 10);
+        }
+        for (int i = 0; i < 3; i++) {
+            AgentID left = simulation.addAgent("left-" + i, 1, 20);
+            AgentID right = simulation.addAgent("right-" + i, 2, 20);
+            simulation.link(left, right, 20);
+        }
+
+        for (int round = 1; round <= 8; round++) {
+            RoundResult result = simulation.runRound(50);
+            System.out.printf("round %d: crossContext=%.0f%%%n", round, result.getCrossContextRatio() * 100);
+            for (ContextLoadReport report : result.getReports()) {
+                List<String> names = new ArrayList<>();
+                report.getAgentLoads().keySet().forEach(id -> names.add(id.getName()));
+                System.out.printf("  %-10s cpu=%5.1f%% queue=%d agents=%s%n", report.getContextId(),
+                                  report.getCpuUtilization() * 100, report.getQueueDepth(), names);
+            }
+            for (PlacementProposal proposal : result.getMigrations()) {
+                System.out.println("  moved " + proposal);
+            }
+        }
+        System.out.println(simulation.getEngine().getStatistics());
+        simulation.shutdown();
+    }
+
+    /**
+     * Outcome of one simulation round
+     */
+    public static class RoundResult {
+        private final List<ContextLoadReport> reports;
+        private final List<PlacementProposal> migrations;
+        private final double crossContextRatio;
+
+        RoundResult(List<ContextLoadReport> reports, List<PlacementProposal> migrations, double crossContextRatio) {
+            this.reports = reports;
+            this.migrations = migrations;
+            this.crossContextRatio = crossContextRatio;
+        }
+
+        public List<ContextLoadReport> getReports() { return reports; }
+        public List<PlacementProposal> getMigrations() { return migrations; }
+        public double getCrossContextRatio() { return crossContextRatio; }
+    }
+
+    /**
+     * Site that keeps a copy of each load report for the round result
+     */
+    private static final class RecordingSite implements PlacementSite {
+        private final SimpleAgentContext context;
+        private final List<ContextLoadReport> reports;
+
+        RecordingSite(SimpleAgentContext context, List<ContextLoadReport> reports) {
+            this.context = context;
+            this.reports = reports;
+        }
+
+        @Override
+        public String getContextId() {
+            return context.getContextId();
+        }
+
+        @Override
+        public ContextLoadReport reportLoad() {
+            ContextLoadReport report = context.reportLoad();
+            reports.add(report);
+            return report;
+        }
+
+        @Override
+        public Agent getAgent(AgentID agentId) {
+            return context.getAgent(agentId);
+        }
+
+        @Override
+        public CompletableFuture<Void> migrateAgent(AgentID agentId, String destinationContext,
+                                                    MigrationOptions options) {
+            return context.migrateAgent(agentId, destinationContext, options);
+        }
+    }
+
+    private static final class Link {
+        final AgentID first;
+        final AgentID second;
+        final int messagesPerTick;
+
+        Link(AgentID first, AgentID second, int messagesPerTick) {
+            this.first = first;
+            this.second = second;
+            this.messagesPerTick = messagesPerTick;
+        }
+    }
+
+    /**
+     * Agent that spins for a fixed time on every event
+     */
+    private static final class SimulatedAgent implements Agent {
+        private static final long serialVersionUID = 1L;
+
+        private final AgentID agentId;
+        private final long workNanos;
+
+        SimulatedAgent(AgentID agentId, long workMicros) {
+            this.agentId = agentId;
+            this.workNanos = workMicros * 1000;
+        }
+
+        @Override public AgentID getAgentId() { return agentId; }
+        @Override public AgentContext getContext() { return null; }
+        @Override public AgentLifecycle getLifecycleState() { return AgentLifecycle.ACTIVE; }
+
+        @Override
+        public CompletableFuture<Void> handleEvent(Event event) {
+            long until = System.nanoTime() + workNanos;
+            while (System.nanoTime() < until) {
+                Thread.onSpinWait();
+            }
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override public CompletableFuture<Void> publishEvent(Event event) { return CompletableFuture.completedFuture(null); }
+        @Override public CompletableFuture<Void> subscribe(String topicPattern) { return CompletableFuture.completedFuture(null); }
+        @Override public CompletableFuture<Void> unsubscribe(String topicPattern) { return CompletableFuture.completedFuture(null); }
+        @Override public void onActivate() { }
+        @Override public void onDeactivate() { }
+        @Override public void onDestroy() { }
+        @Override public void onBeforeMigration(String destinationContext) { }
+        @Override public void onAfterMigration(String sourceContext) { }
+    }
+}
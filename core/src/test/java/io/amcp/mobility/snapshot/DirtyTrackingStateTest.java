@@ -0,0 +1,58 @@
+package io.amcp.mobility.snapshot;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for dirty tracking and delta merging used by pre-copy migration
+ */
+@DisplayName("DirtyTrackingState Tests")
+class DirtyTrackingStateTest {
+
+    @Test
+    @DisplayName("Should report only keys changed since the last checkpoint")
+    void testDrainDelta() {
+        // Given
+        DirtyTrackingState state = new DirtyTrackingState();
+        state.put("a", 1);
+        state.put("b", 2);
+        state.put("c", 3);
+        Map<String, Object> copy = state.checkpoint();
+
+        // When
+        state.put("a", 10);
+        state.remove("b");
+        state.put("d", 4);
+        StateDelta delta = state.drainDelta();
+
+        // Then
+        assertEquals(Map.of("a", 10, "d", 4), delta.getChanged());
+        assertEquals(java.util.Set.of("b"), delta.getRemoved());
+        assertEquals(0, state.getDirtyCount());
+        assertTrue(state.drainDelta().isEmpty());
+
+        delta.applyTo(copy);
+        assertEquals(state.asMap(), copy);
+    }
+
+    @Test
+    @DisplayName("Should let the later delta win when merging")
+    void testMerge() {
+        // Given
+        StateDelta earlier = new StateDelta(Map.of("a", 1, "b", 2), java.util.Set.of("c"));
+        StateDelta later = new StateDelta(Map.of("c", 3), java.util.Set.of("a"));
+
+        // When
+        StateDelta merged = earlier.merge(later);
+        Map<String, Object> target = new HashMap<>(Map.of("a", 0, "c", 0, "z", 9));
+        merged.applyTo(target);
+
+        // Then
+        assertEquals(Map.of("b", 2, "c", 3, "z", 9), target);
+    }
+}
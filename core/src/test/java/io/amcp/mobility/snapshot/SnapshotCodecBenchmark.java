@@ -0,0 +1,137 @@
+package io.amcp.mobility.snapshot;
+
+import io.amcp.core.AgentID;
+import io.amcp.mobility.MobilityState;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Compares the snapshot codec with default Java serialization.
+ *
+ * <p>Run with {@code mvn -pl core exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=io.amcp.mobility.snapshot.SnapshotCodecBenchmark}. Reports
+ * encoded size and mean encode/decode time per snapshot for a small
+ * conversational state and a multi-megabyte state.</p>
+ */
+public class SnapshotCodecBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 20;
+    private static final int MEASURED_ITERATIONS = 50;
+
+    public static void main(String[] args) throws Exception {
+        System.out.printf("%-12s %-10s %12s %12s %12s%n", "state", "codec", "bytes", "encode(us)", "decode(us)");
+        run("small", conversationState(200));
+        run("large", largeState(4 * 1024 * 1024));
+    }
+
+    private static void run(String label, Map<String, Object> state) throws Exception {
+        AgentSnapshot snapshot = new AgentSnapshot(AgentID.named("bench"), "BenchmarkAgent",
+                                                   MobilityState.MIGRATING, state);
+
+        Result compact = measure(() -> SnapshotCodec.encode(snapshot), SnapshotCodec::decode);
+        Result java = measure(() -> serialize(snapshot), SnapshotCodecBenchmark::deserialize);
+
+        print(label, "snapshot", compact);
+        print(label, "java", java);
+    }
+
+    private static Result measure(Encoder encoder, Decoder decoder) throws Exception {
+        byte[] encoded = null;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            encoded = encoder.encode();
+            decoder.decode(encoded);
+        }
+
+        long encodeNanos = 0;
+        long decodeNanos = 0;
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            long start = System.nanoTime();
+            encoded = encoder.encode();
+            encodeNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            decoder.decode(encoded);
+            decodeNanos += System.nanoTime() - start;
+        }
+        return new Result(encoded.length, encodeNanos / MEASURED_ITERATIONS / 1000,
+                          decodeNanos / MEASURED_ITERATIONS / 1000);
+    }
+
+    private static void print(String label, String codec, Result result) {
+        System.out.printf("%-12s %-10s %12d %12d %12d%n", label, codec, result.bytes, result.encodeMicros,
+                          result.decodeMicros);
+    }
+
+    private static Map<String, Object> conversationState(int turns) {
+        Map<String, Object> state = new LinkedHashMap<>();
+        List<Object> history = new ArrayList<>();
+        for (int i = 0; i < turns; i++) {
+            Map<String, Object> turn = new LinkedHashMap<>();
+            turn.put("role", i % 2 == 0 ? "user" : "assistant");
+            turn.put("content", "What is the forecast for city " + (i % 25) + " tomorrow?");
+            turn.put("tokens", 12 + i % 7);
+            history.add(turn);
+        }
+        state.put("history", history);
+        state.put("temperature", 0.7);
+        state.put("sessionStart", System.currentTimeMillis());
+        return state;
+    }
+
+    private static Map<String, Object> largeState(int size) {
+        byte[] embeddings = new byte[size];
+        Random random = new Random(7);
+        // Half random, half repetitive so compression has realistic work to do
+        for (int i = 0; i < size; i++) {
+            embeddings[i] = i < size / 2 ? (byte) random.nextInt() : (byte) (i % 16);
+        }
+        Map<String, Object> state = conversationState(1000);
+        state.put("embeddings", embeddings);
+        return state;
+    }
+
+    private static byte[] serialize(Object value) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(out)) {
+            oos.writeObject(value);
+        }
+        return out.toByteArray();
+    }
+
+    private static Object deserialize(byte[] data) throws Exception {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(data))) {
+            return in.readObject();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Encoder {
+        byte[] encode() throws Exception;
+    }
+
+    @FunctionalInterface
+    private interface Decoder {
+        Object decode(byte[] data) throws Exception;
+    }
+
+    private static final class Result {
+        final int bytes;
+        final long encodeMicros;
+        final long decodeMicros;
+
+        Result(int bytes, long encodeMicros, long decodeMicros) {
+            this.bytes = bytes;
+            this.encodeMicros = encodeMicros;
+            this.decodeMicros = decodeMicros;
+        }
+    }
+}
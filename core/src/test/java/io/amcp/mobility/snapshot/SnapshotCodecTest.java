@@ -0,0 +1,226 @@
+package io.amcp.mobility.snapshot;
+
+import io.amcp.core.AgentID;
+import io.amcp.mobility.MobilityState;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the binary agent snapshot format
+ */
+@DisplayName("SnapshotCodec Tests")
+class SnapshotCodecTest {
+
+    @Test
+    @DisplayName("Should round-trip snapshots with nested and multi-block state")
+    void testRoundTrip() throws Exception {
+        // Given
+        byte[] blob = new byte[5 * SnapshotFormat.BLOCK_SIZE + 17];
+        for (int i = 0; i < blob.length; i++) {
+            blob[i] = (byte) (i % 251);
+        }
+        Map<String, Object> nested = new LinkedHashMap<>();
+        nested.put("lang", "fr");
+        nested.put("scores", List.of(1.5, -2, Long.MAX_VALUE));
+
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("blob", blob);
+        state.put("counter", -42);
+        state.put("active", true);
+        state.put("ratio", 0.25f);
+        state.put("nothing", null);
+        state.put("profile", nested);
+        state.put("since", java.time.LocalDate.of(2024, 1, 1));
+        AgentSnapshot snapshot = new AgentSnapshot(new AgentID("id-1", "weather"), "WeatherAgent",
+                                                   MobilityState.MIGRATING, 1234L, state);
+
+        // When
+        AgentSnapshot decoded = SnapshotCodec.decode(SnapshotCodec.encode(snapshot));
+
+        // Then
+        assertEquals("id-1", decoded.getAgentId().getId());
+        assertEquals("weather", decoded.getAgentId().getName());
+        assertEquals("WeatherAgent", decoded.getAgentType());
+        assertEquals(MobilityState.MIGRATING, decoded.getMobilityState());
+        assertEquals(1234L, decoded.getCapturedAt());
+        assertArrayEquals(blob, (byte[]) decoded.getState().get("blob"));
+        assertEquals(-42, decoded.getState().get("counter"));
+        assertEquals(true, decoded.getState().get("active"));
+        assertEquals(0.25f, decoded.getState().get("ratio"));
+        assertTrue(decoded.getState().containsKey("nothing"));
+        assertEquals(nested, decoded.getState().get("profile"));
+        assertEquals(java.time.LocalDate.of(2024, 1, 1), decoded.getState().get("since"));
+    }
+
+    @Test
+    @DisplayName("Should detect corrupted blocks through the checksum")
+    void testCorruptionDetected() throws Exception {
+        // Given - an uncompressed snapshot so the payload byte is easy to locate
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (SnapshotWriter writer = new SnapshotWriter(out, SnapshotCompression.NONE)) {
+            writer.writeString(SnapshotCodec.FIELD_AGENT_TYPE, "payload-to-corrupt");
+        }
+        byte[] encoded = out.toByteArray();
+
+        // When
+        encoded[encoded.length - 3] ^= 0x01;
+
+        // Then
+        assertThrows(SnapshotFormatException.class, () -> SnapshotCodec.decode(encoded));
+        assertThrows(SnapshotFormatException.class,
+                     () -> SnapshotCodec.decode(Arrays.copyOf(encoded, encoded.length - 1)));
+        assertThrows(SnapshotFormatException.class, () -> SnapshotCodec.decode("not a snapshot".getBytes()));
+    }
+
+    @Test
+    @DisplayName("Should skip fields unknown to the reader")
+    void testUnknownFieldsSkipped() throws Exception {
+        // Given - a newer writer adding fields of every wire type
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (SnapshotWriter writer = new SnapshotWriter(out)) {
+            writer.writeVarint(90, 7);
+            writer.writeDouble(91, 3.5);
+            writer.writeString(SnapshotCodec.FIELD_AGENT_TYPE, "Agent");
+            writer.writeValue(92, List.of("a", "b"));
+        }
+
+        // When
+        AgentSnapshot decoded = SnapshotCodec.decode(out.toByteArray());
+
+        // Then
+        assertEquals("Agent", decoded.getAgentType());
+        assertNull(decoded.getAgentId());
+    }
+
+    @Test
+    @DisplayName("Should be smaller than Java serialization for typical state")
+    void testSmallerThanJavaSerialization() throws Exception {
+        // Given
+        Map<String, Object> state = new LinkedHashMap<>();
+        for (int i = 0; i < 500; i++) {
+            state.put("turn-" + i, "user asked about the weather in city " + (i % 20));
+            state.put("tokens-" + i, (long) i * 31);
+        }
+        AgentSnapshot snapshot = new AgentSnapshot(AgentID.named("chat"), "ChatAgent",
+                                                   MobilityState.MIGRATING, state);
+
+        // When
+        int compact = SnapshotCodec.encode(snapshot).length;
+        ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(serialized)) {
+            oos.writeObject(snapshot);
+        }
+
+        // Then
+        assertTrue(compact * 3 < serialized.size(),
+                   "compact=" + compact + " serialized=" + serialized.size());
+    }
+
+    @Test
+    @DisplayName("Should write one encoded snapshot under different identities")
+    void testEncodedSnapshotReuse() throws Exception {
+        // Given
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("blob", new byte[2 * SnapshotFormat.BLOCK_SIZE + 5]);
+        state.put("turns", 3);
+        AgentSnapshot original = new AgentSnapshot(AgentID.named("origin"), "ChatAgent", MobilityState.MIGRATING, state);
+        EncodedSnapshot encoded = EncodedSnapshot.encode(original);
+
+        // When
+        AgentID first = AgentID.named("replica-1");
+        AgentID second = AgentID.named("replica-2");
+        AgentSnapshot decodedFirst = SnapshotCodec.decode(write(encoded, first));
+        AgentSnapshot decodedSecond = SnapshotCodec.decode(write(encoded, second));
+
+        // Then
+        assertEquals(first, decodedFirst.getAgentId());
+        assertEquals(second, decodedSecond.getAgentId());
+        for (AgentSnapshot decoded : List.of(decodedFirst, decodedSecond)) {
+            assertEquals("ChatAgent", decoded.getAgentType());
+            assertEquals(3, decoded.getState().get("turns"));
+            assertArrayEquals((byte[]) state.get("blob"), (byte[]) decoded.getState().get("blob"));
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject serialized values outside the JDK allowlist and snapshots over the size cap")
+    void testUntrustedInputLimits() throws Exception {
+        // Given
+        Map<String, Object> foreign = new LinkedHashMap<>();
+        foreign.put("endpoint", new java.net.URL("http://example.com"));
+        byte[] withForeignValue = SnapshotCodec.encode(
+            new AgentSnapshot(AgentID.named("a"), "Agent", MobilityState.MIGRATING, foreign));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (SnapshotWriter writer = new SnapshotWriter(out, SnapshotCompression.NONE)) {
+            writer.writeBytes(SnapshotCodec.FIELD_AGENT_TYPE, new byte[3 * SnapshotFormat.BLOCK_SIZE]);
+        }
+        byte[] large = out.toByteArray();
+
+        // When
+        SnapshotReader capped = new SnapshotReader(new java.io.ByteArrayInputStream(large),
+                                                   2L * SnapshotFormat.BLOCK_SIZE);
+
+        // Then
+        SnapshotFormatException rejected = assertThrows(SnapshotFormatException.class,
+                                                        () -> SnapshotCodec.decode(withForeignValue));
+        assertTrue(rejected.getMessage().startsWith("Rejected class"), rejected.getMessage());
+        assertEquals(SnapshotReader.fieldOf(capped.readTag()), SnapshotCodec.FIELD_AGENT_TYPE);
+        assertThrows(SnapshotFormatException.class, capped::readBytes);
+        assertEquals(3 * SnapshotFormat.BLOCK_SIZE, SnapshotCodec.decode(large).getAgentType().length());
+    }
+
+    @Test
+    @DisplayName("Should reject typed values nested deeper than the limit")
+    void testNestingDepthLimit() throws Exception {
+        // Given - hand-built lists nested one level too deep, which the writer refuses to produce
+        byte[] deep = new byte[2 * SnapshotFormat.MAX_NESTING_DEPTH + 3];
+        for (int i = 0; i <= SnapshotFormat.MAX_NESTING_DEPTH; i++) {
+            deep[2 * i] = SnapshotFormat.TYPE_LIST;
+            deep[2 * i + 1] = 1;
+        }
+        deep[deep.length - 1] = SnapshotFormat.TYPE_NULL;
+        byte[] allowed = Arrays.copyOfRange(deep, 2, deep.length);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (SnapshotWriter writer = new SnapshotWriter(out, SnapshotCompression.NONE)) {
+            writer.writeBytes(20, allowed);
+            writer.writeBytes(21, deep);
+        }
+        List<Object> tooDeep = new java.util.ArrayList<>();
+        List<Object> level = tooDeep;
+        for (int i = 0; i < SnapshotFormat.MAX_NESTING_DEPTH; i++) {
+            List<Object> child = new java.util.ArrayList<>();
+            level.add(child);
+            level = child;
+        }
+
+        // When
+        SnapshotReader reader = new SnapshotReader(new java.io.ByteArrayInputStream(out.toByteArray()));
+        reader.readTag();
+        Object decoded = reader.readValue();
+        reader.readTag();
+
+        // Then
+        assertInstanceOf(List.class, decoded);
+        SnapshotFormatException rejected = assertThrows(SnapshotFormatException.class, reader::readValue);
+        assertTrue(rejected.getMessage().contains("nested deeper"), rejected.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> new SnapshotWriter(new ByteArrayOutputStream())
+            .writeValue(22, tooDeep));
+    }
+
+    private static byte[] write(EncodedSnapshot encoded, AgentID identity) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SnapshotWriter writer = new SnapshotWriter(out);
+        encoded.writeTo(writer, identity);
+        writer.finish();
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,236 @@
+package io.amcp.ratelimit;
+
+import io.amcp.core.AgentID;
+import io.amcp.core.Event;
+import io.amcp.core.impl.SimpleAgentContext;
+import io.amcp.messaging.impl.InMemoryEventBroker;
+import io.amcp.messaging.impl.RateLimitedEventBroker;
+import io.amcp.mobility.impl.SimpleMobilityManager;
+import io.amcp.security.SecurityContext;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the rate limiters and their enforcement at publish
+ */
+@DisplayName("RateLimiter Tests")
+class RateLimiterTest {
+
+    @Test
+    @DisplayName("Should admit a burst per key and then refill at the rate")
+    void testTokenBucket() throws Exception {
+        // Given
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(20, 5);
+
+        // When
+        int admitted = 0;
+        for (int i = 0; i < 10; i++) {
+            if (limiter.tryAcquire("agent-a") == 0) {
+                admitted++;
+            }
+        }
+        long wait = limiter.tryAcquire("agent-a");
+
+        // Then
+        assertEquals(5, admitted);
+        assertTrue(wait > 0 && wait <= TimeUnit.MILLISECONDS.toNanos(50), "wait " + wait);
+        assertEquals(0, limiter.tryAcquire("agent-b"), "keys are independent");
+        Thread.sleep(60);
+        assertEquals(0, limiter.tryAcquire("agent-a"));
+        assertEquals(2, limiter.getTrackedKeys());
+    }
+
+    @Test
+    @DisplayName("Should never over-admit under contention")
+    void testTokenBucketContention() throws Exception {
+        // Given - a refill slow enough to be negligible during the test
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(0.001, 500);
+        AtomicInteger admitted = new AtomicInteger();
+
+        // When
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    if (limiter.tryAcquire("shared") == 0) {
+                        admitted.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Then
+        assertEquals(500, admitted.get());
+    }
+
+    @Test
+    @DisplayName("Should cap permits within a sliding window")
+    void testSlidingWindow() throws Exception {
+        // Given
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(10, 100);
+
+        // When
+        int admitted = 0;
+        for (int i = 0; i < 25; i++) {
+            if (limiter.tryAcquire("topic") == 0) {
+                admitted++;
+            }
+        }
+        long wait = limiter.tryAcquire("topic");
+
+        // Then
+        assertEquals(10, admitted);
+        assertTrue(wait > 0 && wait <= TimeUnit.MILLISECONDS.toNanos(100), "wait " + wait);
+        Thread.sleep(250);
+        assertEquals(0, limiter.tryAcquire("topic"));
+    }
+
+    @Test
+    @DisplayName("Should delay requests within the maximum delay and reject the rest")
+    void testDelayMode() throws Exception {
+        // Given
+        AdmissionController controller = new AdmissionController(new TokenBucketRateLimiter(50, 1),
+                                                                  AdmissionController.Mode.DELAY, 100);
+
+        // When
+        long start = System.nanoTime();
+        controller.admit("key").get(1, TimeUnit.SECONDS);
+        controller.admit("key").get(1, TimeUnit.SECONDS);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        List<CompletableFuture<Void>> flood = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            flood.add(controller.admit("key"));
+        }
+        CompletableFuture.allOf(flood.toArray(new CompletableFuture[0])).handle((v, e) -> null)
+            .get(2, TimeUnit.SECONDS);
+
+        // Then
+        assertTrue(elapsedMillis >= 15, "second permit waited " + elapsedMillis + "ms");
+        AdmissionController.AdmissionStatistics stats = controller.getStatistics();
+        assertTrue(stats.getRejected() > 0, stats.toString());
+        assertTrue(stats.getDelayed() > 0, stats.toString());
+        assertEquals(22, stats.getAdmitted() + stats.getRejected());
+    }
+
+    @Test
+    @DisplayName("Should run delayed admissions on the executor, not the timer thread")
+    void testDelayedAdmissionLeavesTimer() throws Exception {
+        // Given
+        ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "admitted"));
+        AdmissionController controller = new AdmissionController(new TokenBucketRateLimiter(50, 1),
+                                                                  AdmissionController.Mode.DELAY, 100, executor);
+        controller.admit("key").get(1, TimeUnit.SECONDS);
+
+        // When
+        String thread = controller.admit("key")
+            .thenApply(ignored -> Thread.currentThread().getName())
+            .get(1, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals("admitted", thread);
+        assertEquals(1, controller.getStatistics().getDelayed());
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should reject publishes over the limit per sender")
+    void testRateLimitedBroker() throws Exception {
+        // Given
+        InMemoryEventBroker inner = new InMemoryEventBroker();
+        RateLimitedEventBroker broker = new RateLimitedEventBroker(inner,
+            new AdmissionController(new TokenBucketRateLimiter(1, 3)), RateLimitKeys.SENDER);
+        broker.start().get(5, TimeUnit.SECONDS);
+        AgentID noisy = AgentID.named("noisy");
+        AgentID quiet = AgentID.named("quiet");
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            broker.publish(event(noisy)).get(5, TimeUnit.SECONDS);
+        }
+        ExecutionException error = assertThrows(ExecutionException.class, () ->
+            broker.publish(event(noisy)).get(5, TimeUnit.SECONDS));
+
+        // Then
+        assertInstanceOf(RateLimitExceededException.class, error.getCause());
+        assertEquals(noisy.toString(), ((RateLimitExceededException) error.getCause()).getKey());
+        broker.publish(event(quiet)).get(5, TimeUnit.SECONDS);
+        assertEquals(1, broker.getAdmissionController().getStatistics().getRejected());
+        broker.stop().get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    @DisplayName("Should limit by the authenticated principal, not the one claimed in metadata")
+    void testPrincipalCannotBeSpoofed() throws Exception {
+        // Given
+        RateLimitedEventBroker broker = new RateLimitedEventBroker(new InMemoryEventBroker(),
+            new AdmissionController(new TokenBucketRateLimiter(1, 1)), RateLimitKeys.PRINCIPAL);
+        broker.start().get(5, TimeUnit.SECONDS);
+        SimpleAgentContext alice = new SimpleAgentContext(broker, new SimpleMobilityManager(), principal("alice"));
+        SimpleAgentContext mallory = new SimpleAgentContext(broker, new SimpleMobilityManager(), principal("mallory"));
+        SimpleAgentContext unauthenticated = new SimpleAgentContext(broker, new SimpleMobilityManager());
+        AgentID drone = AgentID.named("drone");
+
+        // When - the others claim to be alice once her budget is spent
+        alice.publishEvent(event(AgentID.named("alice-agent"))).get(5, TimeUnit.SECONDS);
+        mallory.publishEvent(claiming(AgentID.named("mallory-agent"), "alice")).get(5, TimeUnit.SECONDS);
+        unauthenticated.publishEvent(claiming(drone, "alice")).get(5, TimeUnit.SECONDS);
+        ExecutionException error = assertThrows(ExecutionException.class, () ->
+            mallory.publishEvent(claiming(AgentID.named("mallory-agent"), "alice")).get(5, TimeUnit.SECONDS));
+
+        // Then
+        assertInstanceOf(RateLimitExceededException.class, error.getCause());
+        assertEquals("mallory", ((RateLimitExceededException) error.getCause()).getKey());
+        assertEquals(1, broker.getAdmissionController().getStatistics().getRejected());
+        assertEquals(3, broker.getAdmissionController().getStatistics().getAdmitted());
+        broker.stop().get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    @DisplayName("Should not trust a principal claimed by events published straight to the broker")
+    void testDirectPublishCannotClaimPrincipal() throws Exception {
+        // Given
+        RateLimitedEventBroker broker = new RateLimitedEventBroker(new InMemoryEventBroker(),
+            new AdmissionController(new TokenBucketRateLimiter(1, 1)), RateLimitKeys.PRINCIPAL);
+        broker.start().get(5, TimeUnit.SECONDS);
+        AgentID drone = AgentID.named("drone");
+
+        // When - alice's budget is spent, then a direct publisher claims to be alice
+        broker.publish(event(AgentID.named("alice-agent")), principal("alice")).get(5, TimeUnit.SECONDS);
+        broker.publish(claiming(drone, "alice")).get(5, TimeUnit.SECONDS);
+        ExecutionException error = assertThrows(ExecutionException.class, () ->
+            broker.publish(claiming(drone, "bob")).get(5, TimeUnit.SECONDS));
+
+        // Then - both claims were limited as the sending agent
+        assertInstanceOf(RateLimitExceededException.class, error.getCause());
+        assertEquals(drone.toString(), ((RateLimitExceededException) error.getCause()).getKey());
+        assertEquals(2, broker.getAdmissionController().getStatistics().getAdmitted());
+        broker.stop().get(5, TimeUnit.SECONDS);
+    }
+
+    private static SecurityContext principal(String id) {
+        return SecurityContext.builder().principalId(id).tenantId("default").authenticated(true).build();
+    }
+
+    private static Event claiming(AgentID sender, String principal) {
+        return event(sender).toBuilder().metadata(RateLimitKeys.PRINCIPAL_METADATA, principal).build();
+    }
+
+    private static Event event(AgentID sender) {
+        return Event.builder().topic("test.topic").payload("x").sender(sender).build();
+    }
+}
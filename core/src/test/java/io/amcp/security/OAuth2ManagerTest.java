@@ -0,0 +1,183 @@
+package io.amcp.security;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for cached and local token validation in {@link OAuth2Manager}
+ */
+@DisplayName("OAuth2Manager Tests")
+class OAuth2ManagerTest {
+
+    private static final String ISSUER = "https://auth.example.com";
+
+    private OAuth2Manager manager;
+    private String clientSecret;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        manager = new OAuth2Manager();
+        manager.initialize().get(5, TimeUnit.SECONDS);
+        clientSecret = "secret";
+        manager.registerClient("test-client", clientSecret, null, new String[]{"client_credentials"},
+                               new String[]{"agent:migrate"}).get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    @DisplayName("Should answer repeated validations from the cache")
+    void testValidationCache() throws Exception {
+        // Given
+        String token = issueToken();
+
+        // When
+        OAuth2Manager.TokenValidationResult first = manager.validateToken(token).get(5, TimeUnit.SECONDS);
+        OAuth2Manager.TokenValidationResult second = manager.validateToken(token).get(5, TimeUnit.SECONDS);
+        manager.validateToken("unknown-token").get(5, TimeUnit.SECONDS);
+        OAuth2Manager.TokenValidationResult unknown = manager.validateToken("unknown-token").get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertTrue(first.isValid());
+        assertSame(first, second);
+        assertFalse(unknown.isValid());
+        TokenValidationCache.CacheStatistics stats = manager.getValidationCacheStatistics();
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getNegativeHits());
+        assertEquals(2, stats.getMisses());
+    }
+
+    @Test
+    @DisplayName("Should invalidate cached results on revocation and notify listeners")
+    void testRevocationInvalidatesCache() throws Exception {
+        // Given
+        String token = issueToken();
+        List<String> revoked = new ArrayList<>();
+        manager.addRevocationListener(revoked::add);
+        assertTrue(manager.validateToken(token).get(5, TimeUnit.SECONDS).isValid());
+
+        // When
+        assertTrue(manager.revokeToken(token, "access_token").get(5, TimeUnit.SECONDS));
+
+        // Then
+        assertFalse(manager.validateToken(token).get(5, TimeUnit.SECONDS).isValid());
+        assertFalse(manager.introspectToken(token).get(5, TimeUnit.SECONDS).isActive());
+        assertEquals(List.of(TokenValidationCache.hash(token)), revoked);
+    }
+
+    @Test
+    @DisplayName("Should verify JWTs locally and honour revocation")
+    void testLocalJwtVerification() throws Exception {
+        // Given
+        RSAKey key = new RSAKeyGenerator(2048).keyID("k1").generate();
+        manager.setJwtVerifier(JwtTokenVerifier.forKeys(new JWKSet(key.toPublicJWK()), ISSUER, "amcp"));
+        String valid = signJwt(key, ISSUER, System.currentTimeMillis() + 60000);
+        String wrongIssuer = signJwt(key, "https://evil.example.com", System.currentTimeMillis() + 60000);
+        String expired = signJwt(key, ISSUER, System.currentTimeMillis() - 120000);
+
+        // When
+        OAuth2Manager.TokenValidationResult result = manager.validateToken(valid).get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertTrue(result.isValid(), result.getError());
+        assertEquals("agent-7", result.getToken().getUserId());
+        assertEquals("test-client", result.getToken().getClientId());
+        assertArrayEquals(new String[]{"agent:migrate", "agent:control"}, result.getToken().getScopes());
+        assertFalse(manager.validateToken(wrongIssuer).get(5, TimeUnit.SECONDS).isValid());
+        assertFalse(manager.validateToken(expired).get(5, TimeUnit.SECONDS).isValid());
+        assertFalse(manager.validateToken(valid + "x").get(5, TimeUnit.SECONDS).isValid());
+
+        assertTrue(manager.revokeToken(valid, null).get(5, TimeUnit.SECONDS));
+        assertEquals("Token revoked", manager.validateToken(valid).get(5, TimeUnit.SECONDS).getError());
+    }
+
+    @Test
+    @DisplayName("Should never cache a result past the token expiry")
+    void testTtlBoundedByExpiry() throws Exception {
+        // Given
+        TokenValidationCache<String> cache = new TokenValidationCache<>(10, 60000, 60000);
+
+        // When
+        cache.putValid("short-lived", "valid", System.currentTimeMillis() + 50);
+        cache.putValid("already-expired", "valid", System.currentTimeMillis() - 1);
+
+        // Then
+        assertEquals("valid", cache.get("short-lived"));
+        assertNull(cache.get("already-expired"));
+        Thread.sleep(100);
+        assertNull(cache.get("short-lived"));
+    }
+
+    @Test
+    @DisplayName("Should not re-cache a validation that raced with a revocation")
+    void testRevocationDuringValidation() {
+        // Given
+        TokenValidationCache<String> cache = new TokenValidationCache<>(10, 60000, 60000);
+        long before = cache.generation();
+
+        // When - the token is revoked while its validation is in flight
+        cache.invalidate("racing-token");
+        cache.putValid("racing-token", "valid", System.currentTimeMillis() + 60000, before);
+        cache.putValid("fresh-token", "valid", System.currentTimeMillis() + 60000, cache.generation());
+
+        // Then
+        assertNull(cache.get("racing-token"));
+        assertEquals("valid", cache.get("fresh-token"));
+    }
+
+    @Test
+    @DisplayName("Should reject a JWT whose client claim is not a string")
+    void testNonStringClientClaim() throws Exception {
+        // Given
+        RSAKey key = new RSAKeyGenerator(2048).keyID("k1").generate();
+        manager.setJwtVerifier(JwtTokenVerifier.forKeys(new JWKSet(key.toPublicJWK()), ISSUER, "amcp"));
+        String token = signJwt(key, ISSUER, System.currentTimeMillis() + 60000, List.of("a", "b"));
+
+        // When
+        OAuth2Manager.TokenValidationResult result = manager.validateToken(token).get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertFalse(result.isValid());
+        assertTrue(result.getError().startsWith("Invalid token"), result.getError());
+        assertFalse(manager.introspectToken(token).get(5, TimeUnit.SECONDS).isActive());
+    }
+
+    private String issueToken() throws Exception {
+        OAuth2Manager.TokenResponse response = manager.clientCredentialsGrant("test-client", clientSecret,
+            new String[]{"agent:migrate"}).get(5, TimeUnit.SECONDS);
+        assertTrue(response.isSuccess());
+        return response.getAccessToken();
+    }
+
+    private static String signJwt(RSAKey key, String issuer, long expiresAt) throws Exception {
+        return signJwt(key, issuer, expiresAt, "test-client");
+    }
+
+    private static String signJwt(RSAKey key, String issuer, long expiresAt, Object clientId) throws Exception {
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+            .issuer(issuer)
+            .subject("agent-7")
+            .audience("amcp")
+            .claim("client_id", clientId)
+            .claim("scope", "agent:migrate agent:control")
+            .expirationTime(new Date(expiresAt))
+            .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(), claims);
+        jwt.sign(new RSASSASigner(key));
+        return jwt.serialize();
+    }
+}
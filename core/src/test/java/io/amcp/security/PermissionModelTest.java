@@ -0,0 +1,127 @@
+package io.amcp.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for compiled role permissions and their use in {@link SecurityContext}
+ */
+@DisplayName("PermissionModel Tests")
+class PermissionModelTest {
+
+    @Test
+    @DisplayName("Should grant role, explicit and wildcard permissions")
+    void testEffectivePermissions() {
+        // Given
+        SecurityContext user = SecurityContext.builder()
+            .principalId("alice")
+            .tenantId("t1")
+            .roles("USER")
+            .permission("report:export", true)
+            .permission("report:delete", false)
+            .build();
+        SecurityContext system = SecurityContext.builder()
+            .principalId("scheduler")
+            .tenantId("t1")
+            .roles("SYSTEM")
+            .build();
+        SecurityContext root = SecurityContext.builder()
+            .principalId("root")
+            .tenantId("t1")
+            .roles("SUPER_ADMIN")
+            .build();
+
+        // Then
+        assertTrue(user.isPermitted("event:publish"));
+        assertTrue(user.isPermitted("report:export"));
+        assertFalse(user.isPermitted("report:delete"));
+        assertFalse(user.isPermitted("agent:delete"));
+
+        assertTrue(system.isPermitted("agent:delete"));
+        assertTrue(system.isPermitted("system:never-seen-before"));
+        assertFalse(system.isPermitted("report:export"));
+
+        assertTrue(root.isPermitted("anything:at-all"));
+        assertEquals(Set.of("event:publish", "event:subscribe", "agent:create", "agent:read", "report:export"),
+                     user.getEffectivePermissions());
+    }
+
+    @Test
+    @DisplayName("Should cover permissions interned before a wildcard was defined")
+    void testLateWildcard() {
+        // Given
+        PermissionModel model = new PermissionModel();
+        model.defineRole("READER", Set.of("docs:read"));
+        model.defineRole("WRITER", Set.of("docs:write"));
+        SecurityContext context = SecurityContext.builder()
+            .principalId("bob")
+            .tenantId("t1")
+            .roles("EDITOR")
+            .permissionModel(model)
+            .build();
+        assertFalse(context.isPermitted("docs:read"));
+
+        // When
+        model.defineRole("EDITOR", Set.of("docs:*"));
+
+        // Then
+        assertTrue(context.isPermitted("docs:read"));
+        assertTrue(context.isPermitted("docs:write"));
+        assertFalse(context.isPermitted("mail:read"));
+    }
+
+    @Test
+    @DisplayName("Should recompile a context when its roles are redefined")
+    void testRoleChangeInvalidates() {
+        // Given
+        PermissionModel model = PermissionModel.withDefaultRoles();
+        SecurityContext context = SecurityContext.builder()
+            .principalId("carol")
+            .tenantId("t1")
+            .roles("USER")
+            .permissionModel(model)
+            .build();
+        assertTrue(context.isPermitted("agent:create"));
+        Set<String> before = context.getEffectivePermissions();
+        assertSame(before, context.getEffectivePermissions());
+
+        // When
+        model.defineRole("USER", Set.of("agent:read"));
+
+        // Then
+        assertFalse(context.isPermitted("agent:create"));
+        assertEquals(Set.of("agent:read"), context.getEffectivePermissions());
+        assertEquals(Set.of("agent:read"), model.getRolePermissions("USER"));
+    }
+
+    @Test
+    @DisplayName("Should keep explicit grants out of the shared intern table")
+    void testExplicitGrantsNotInterned() {
+        // Given
+        PermissionModel model = PermissionModel.withDefaultRoles();
+        int interned = model.size();
+
+        // When
+        for (int i = 0; i < 1000; i++) {
+            SecurityContext context = SecurityContext.builder()
+                .principalId("user-" + i)
+                .tenantId("t1")
+                .roles("USER")
+                .permission("doc:" + i + ":read", true)
+                .permission("inbox:" + i + ":*", true)
+                .permissionModel(model)
+                .build();
+            assertTrue(context.isPermitted("doc:" + i + ":read"));
+            assertTrue(context.isPermitted("inbox:" + i + ":open"));
+            assertFalse(context.isPermitted("doc:" + (i + 1) + ":read"));
+            assertTrue(context.getEffectivePermissions().contains("doc:" + i + ":read"));
+        }
+
+        // Then
+        assertEquals(interned, model.size());
+    }
+}
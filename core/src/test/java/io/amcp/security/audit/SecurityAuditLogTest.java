@@ -0,0 +1,256 @@
+package io.amcp.security.audit;
+
+import io.amcp.security.SecurityAuditEntry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the batched asynchronous audit log
+ */
+@DisplayName("SecurityAuditLog Tests")
+class SecurityAuditLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Should batch concurrent entries into few writes and read them back")
+    void testConcurrentRecording() throws Exception {
+        // Given
+        SecurityAuditLog log = new SecurityAuditLog(SecurityAuditLog.Config.builder(directory).build());
+        int threads = 8;
+        int perThread = 1000;
+
+        // When
+        List<Thread> producers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            producers.add(new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    assertTrue(log.record(entry("agent-" + thread, "event:publish", "topic/" + i, true)));
+                }
+            }));
+        }
+        producers.forEach(Thread::start);
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        log.flush().get(10, TimeUnit.SECONDS);
+        SecurityAuditLog.AuditStatistics stats = log.getStatistics();
+        log.close();
+
+        // Then
+        List<SecurityAuditEntry> entries = AuditLogReader.readAll(directory, "security-audit");
+        assertEquals(threads * perThread, entries.size());
+        assertEquals(threads * perThread, stats.getWritten());
+        assertTrue(stats.getBatches() < threads * perThread, stats.toString());
+        assertTrue(stats.getSyncs() <= stats.getBatches(), stats.toString());
+        assertEquals(0, stats.getDropped());
+    }
+
+    @Test
+    @DisplayName("Should round-trip every entry field")
+    void testRoundTrip() throws Exception {
+        // Given
+        SecurityAuditEntry original = SecurityAuditEntry.builder()
+            .principalId("alice")
+            .tenantId("tenant-1")
+            .sessionId("session-9")
+            .action("permission:check")
+            .resource("agent/weather")
+            .success(false)
+            .timestamp(Instant.ofEpochSecond(1_700_000_000L, 123_456_789))
+            .ipAddress("10.0.0.7")
+            .errorMessage("denied: été")
+            .duration(42)
+            .metadata("roles", "USER")
+            .build();
+
+        // When
+        try (SecurityAuditLog log = new SecurityAuditLog(SecurityAuditLog.Config.builder(directory).build())) {
+            log.record(original);
+            log.flush().get(5, TimeUnit.SECONDS);
+        }
+
+        // Then
+        SecurityAuditEntry read = AuditLogReader.readAll(directory, "security-audit").get(0);
+        assertEquals(original, read);
+        assertEquals("10.0.0.7", read.getIpAddress());
+        assertNull(read.getUserAgent());
+        assertEquals("denied: été", read.getErrorMessage());
+        assertEquals("USER", read.getMetadata("roles"));
+        assertEquals(42, read.getDuration());
+    }
+
+    @Test
+    @DisplayName("Should rotate files and keep only the newest")
+    void testRotation() throws Exception {
+        // Given
+        SecurityAuditLog.Config config = SecurityAuditLog.Config.builder(directory)
+            .maxFileBytes(2048)
+            .maxFiles(3)
+            .batchSize(16)
+            .build();
+
+        // When
+        try (SecurityAuditLog log = new SecurityAuditLog(config)) {
+            for (int i = 0; i < 500; i++) {
+                log.record(entry("agent", "event:publish", "topic/" + i, true));
+            }
+            log.flush().get(5, TimeUnit.SECONDS);
+            assertTrue(log.getStatistics().getRotations() > 0);
+        }
+
+        // Then
+        List<Path> files = AuditLogReader.listFiles(directory, "security-audit");
+        assertEquals(3, files.size());
+        for (Path file : files) {
+            assertTrue(Files.size(file) <= 2048, file + " is " + Files.size(file) + " bytes");
+        }
+        List<SecurityAuditEntry> remaining = AuditLogReader.readAll(directory, "security-audit");
+        assertEquals("topic/499", remaining.get(remaining.size() - 1).getResource());
+    }
+
+    @Test
+    @DisplayName("Should stop at a torn record at the end of a file")
+    void testTornTail() throws Exception {
+        // Given
+        Path file;
+        try (SecurityAuditLog log = new SecurityAuditLog(SecurityAuditLog.Config.builder(directory).build())) {
+            file = log.getCurrentFile();
+            for (int i = 0; i < 10; i++) {
+                log.record(entry("agent", "event:publish", "topic/" + i, true));
+            }
+            log.flush().get(5, TimeUnit.SECONDS);
+        }
+
+        // When - the last record is cut short
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        // Then
+        assertEquals(9, AuditLogReader.read(file).size());
+    }
+
+    @Test
+    @DisplayName("Should truncate an oversized record so the rest of the file stays readable")
+    void testOversizedRecordTruncated() throws Exception {
+        // Given
+        String huge = "x".repeat(AuditRecordCodec.MAX_RECORD_LENGTH + 1);
+
+        // When
+        try (SecurityAuditLog log = new SecurityAuditLog(SecurityAuditLog.Config.builder(directory).build())) {
+            log.record(entry("agent", "event:publish", huge, true));
+            log.record(entry("agent", "event:publish", "after", true));
+            log.flush().get(5, TimeUnit.SECONDS);
+        }
+
+        // Then
+        List<SecurityAuditEntry> read = AuditLogReader.readAll(directory, "security-audit");
+        assertEquals(2, read.size());
+        assertEquals(AuditRecordCodec.TRUNCATED_STRING_CHARS, read.get(0).getResource().length());
+        assertEquals("true", read.get(0).getMetadata(AuditRecordCodec.TRUNCATED_KEY));
+        assertEquals("after", read.get(1).getResource());
+        assertNull(read.get(1).getMetadata(AuditRecordCodec.TRUNCATED_KEY));
+    }
+
+    @Test
+    @DisplayName("Should fail flushes whose entries could not be written")
+    void testFailedWriteFailsFlush() throws Exception {
+        // Given - a log that must rotate into a directory that has disappeared
+        Path logDirectory = Files.createDirectory(directory.resolve("vanishing"));
+        SecurityAuditLog.Config config = SecurityAuditLog.Config.builder(logDirectory)
+            .maxFileBytes(256)
+            .build();
+
+        try (SecurityAuditLog log = new SecurityAuditLog(config)) {
+            log.record(entry("agent", "event:publish", "first", true));
+            log.flush().get(5, TimeUnit.SECONDS);
+            Files.delete(log.getCurrentFile());
+            Files.delete(logDirectory);
+
+            // When
+            log.record(entry("agent", "event:publish", "x".repeat(300), true));
+            java.util.concurrent.CompletableFuture<Void> failed = log.flush();
+
+            // Then
+            java.util.concurrent.ExecutionException error = assertThrows(
+                java.util.concurrent.ExecutionException.class, () -> failed.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(java.io.IOException.class, error.getCause());
+            assertEquals(1, log.getStatistics().getWritten());
+            assertNotNull(log.getLastError());
+        }
+    }
+
+    @Test
+    @DisplayName("Should complete flushes requested while or after closing")
+    void testFlushAcrossClose() throws Exception {
+        for (int round = 0; round < 10; round++) {
+            // Given
+            SecurityAuditLog log = new SecurityAuditLog(
+                SecurityAuditLog.Config.builder(directory.resolve("round-" + round)).build());
+            log.record(entry("agent", "event:publish", "topic/" + round, true));
+
+            // When
+            Thread closer = new Thread(log::close);
+            closer.start();
+            List<CompletableFuture<Void>> flushes = new ArrayList<>();
+            while (closer.isAlive()) {
+                flushes.add(log.flush());
+            }
+            flushes.add(log.flush());
+
+            // Then
+            CompletableFuture.allOf(flushes.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    @DisplayName("Should report a full ring buffer instead of blocking")
+    void testRingBufferCapacity() {
+        // Given
+        AuditRingBuffer<Integer> ring = new AuditRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(i));
+        }
+
+        // When
+        boolean overflow = ring.offer(4);
+        List<Integer> drained = new ArrayList<>();
+        ring.drainTo(drained, 2);
+
+        // Then
+        assertFalse(overflow);
+        assertEquals(List.of(0, 1), drained);
+        assertTrue(ring.offer(5));
+        assertTrue(ring.offer(6));
+        assertFalse(ring.offer(7));
+        ring.drainTo(drained, 10);
+        assertEquals(List.of(0, 1, 2, 3, 5, 6), drained);
+        assertEquals(0, ring.size());
+    }
+
+    private static SecurityAuditEntry entry(String principal, String action, String resource, boolean success) {
+        return SecurityAuditEntry.builder()
+            .principalId(principal)
+            .tenantId("tenant-1")
+            .action(action)
+            .resource(resource)
+            .success(success)
+            .build();
+    }
+}